@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the GC profiler, which reports the allocation rate and the allocated bytes per operation
+ * next to the timings.
+ * <p>
+ * The first argument is the regular expression selecting the benchmarks, by default all of them. The second argument is
+ * the file in which the results are written in JSON format, so that they can be compared with a baseline run.
+ */
+public final class BenchmarkRunner {
+
+  /**
+   * Restricted constructor.
+   */
+  private BenchmarkRunner() {
+  }
+
+  /**
+   * Runs the benchmarks.
+   * @param args The benchmark regular expression and the result file, both optional.
+   * @throws RunnerException If the benchmarks fail.
+   */
+  public static void main(final String[] args) throws RunnerException {
+    final String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+    final OptionsBuilder builder = new OptionsBuilder();
+    builder.include(include).addProfiler(GCProfiler.class).shouldFailOnError(true);
+    if (args.length > 1) {
+      builder.resultFormat(ResultFormatType.JSON).result(args[1]);
+    }
+    final Options options = builder.build();
+    new Runner(options).run();
+  }
+
+}
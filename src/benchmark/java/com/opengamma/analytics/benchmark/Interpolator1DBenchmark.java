@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.opengamma.analytics.math.interpolation.CombinedInterpolatorExtrapolatorFactory;
+import com.opengamma.analytics.math.interpolation.Interpolator1D;
+import com.opengamma.analytics.math.interpolation.Interpolator1DFactory;
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
+import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
+
+/**
+ * Benchmarks of the throughput of {@link Interpolator1D}, comparing the boxed methods and the primitive methods with
+ * and without bracket index hint.
+ * <p>
+ * The nodes are the typical times of a calibrated curve. Each operation interpolates a batch of sorted times, like the
+ * payment times of a leg, or of the same times in random order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class Interpolator1DBenchmark {
+
+  private static final double[] NODE_TIMES = new double[] {0.0027, 0.0833, 0.25, 0.5, 0.75, 1.0, 1.5, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0,
+    8.0, 9.0, 10.0, 12.0, 15.0, 20.0, 25.0, 30.0 };
+  private static final long SEED = 20160101L;
+
+  /**
+   * The interpolator name, combined with flat extrapolation on both sides.
+   */
+  @Param({Interpolator1DFactory.LINEAR, Interpolator1DFactory.LOG_LINEAR, Interpolator1DFactory.NATURAL_CUBIC_SPLINE })
+  private String _interpolatorName;
+  /**
+   * The number of interpolated times in each operation.
+   */
+  @Param({"120" })
+  private int _batchSize;
+
+  private Interpolator1D _interpolator;
+  private Interpolator1DDataBundle _data;
+  private double[] _sortedTimes;
+  private double[] _randomTimes;
+  private double[] _sensitivities;
+
+  /**
+   * Creates the interpolator, the data bundle and the interpolated times.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    _interpolator = CombinedInterpolatorExtrapolatorFactory.getInterpolator(_interpolatorName, Interpolator1DFactory.FLAT_EXTRAPOLATOR,
+        Interpolator1DFactory.FLAT_EXTRAPOLATOR);
+    final Random random = new Random(SEED);
+    final double[] values = new double[NODE_TIMES.length];
+    for (int loopnode = 0; loopnode < NODE_TIMES.length; loopnode++) {
+      values[loopnode] = 0.01 + 0.02 * NODE_TIMES[loopnode] / 30.0 + 0.001 * random.nextDouble();
+    }
+    _data = _interpolator.getDataBundleFromSortedArrays(NODE_TIMES, values);
+    _randomTimes = new double[_batchSize];
+    for (int looptime = 0; looptime < _batchSize; looptime++) {
+      _randomTimes[looptime] = 31.0 * random.nextDouble();
+    }
+    _sortedTimes = _randomTimes.clone();
+    Arrays.sort(_sortedTimes);
+    _sensitivities = new double[NODE_TIMES.length];
+  }
+
+  /**
+   * Boxed interpolation of the sorted times.
+   * @return The sum of the interpolated values.
+   */
+  @Benchmark
+  public double interpolateBoxed() {
+    double sum = 0.0;
+    for (final double time : _sortedTimes) {
+      sum += _interpolator.interpolate(_data, time);
+    }
+    return sum;
+  }
+
+  /**
+   * Primitive interpolation of the sorted times, without hint.
+   * @return The sum of the interpolated values.
+   */
+  @Benchmark
+  public double interpolatePrimitive() {
+    double sum = 0.0;
+    for (final double time : _sortedTimes) {
+      sum += _interpolator.interpolate(_data, time, null);
+    }
+    return sum;
+  }
+
+  /**
+   * Primitive interpolation of the sorted times, with one hint for the batch.
+   * @return The sum of the interpolated values.
+   */
+  @Benchmark
+  public double interpolatePrimitiveHint() {
+    final InterpolationIndexHint hint = new InterpolationIndexHint();
+    double sum = 0.0;
+    for (final double time : _sortedTimes) {
+      sum += _interpolator.interpolate(_data, time, hint);
+    }
+    return sum;
+  }
+
+  /**
+   * Primitive interpolation of the times in random order, with one hint for the batch. The hint is rarely useful and
+   * this measures its cost.
+   * @return The sum of the interpolated values.
+   */
+  @Benchmark
+  public double interpolatePrimitiveHintRandom() {
+    final InterpolationIndexHint hint = new InterpolationIndexHint();
+    double sum = 0.0;
+    for (final double time : _randomTimes) {
+      sum += _interpolator.interpolate(_data, time, hint);
+    }
+    return sum;
+  }
+
+  /**
+   * Boxed node sensitivities of the sorted times.
+   * @param blackhole The sink for the sensitivities.
+   */
+  @Benchmark
+  public void nodeSensitivitiesBoxed(final Blackhole blackhole) {
+    for (final double time : _sortedTimes) {
+      blackhole.consume(_interpolator.getNodeSensitivitiesForValue(_data, time));
+    }
+  }
+
+  /**
+   * Primitive node sensitivities of the sorted times, with one hint for the batch and a reused result array.
+   * @param blackhole The sink for the sensitivities.
+   */
+  @Benchmark
+  public void nodeSensitivitiesPrimitiveHint(final Blackhole blackhole) {
+    final InterpolationIndexHint hint = new InterpolationIndexHint();
+    for (final double time : _sortedTimes) {
+      _interpolator.getNodeSensitivitiesForValue(_data, time, hint, _sensitivities);
+      blackhole.consume(_sensitivities[0]);
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.benchmark;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.opengamma.analytics.financial.provider.curve.CurveBuildingBlockBundle;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.tutorial.datasets.RecentDataSetsMulticurveStandardUsd;
+import com.opengamma.analytics.tutorial.datasets.RecentDataSetsMulticurveXCcyUsdEur;
+import com.opengamma.analytics.util.time.DateUtils;
+import com.opengamma.strata.collect.tuple.Pair;
+
+/**
+ * Benchmarks of the multi-curve calibration on the tutorial data sets.
+ * <p>
+ * Each operation generates the calibration instruments from the market quotes and calibrates all the units,
+ * including the Jacobian matrices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class MulticurveCalibrationBenchmark {
+
+  private static final ZonedDateTime CALIBRATION_DATE = DateUtils.getUTCDate(2014, 7, 16);
+
+  /**
+   * USD: discounting/overnight, Libor3M, Libor1M and Libor6M curves.
+   * @return The curves and the Jacobian matrices.
+   */
+  @Benchmark
+  public Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> usdOisL1L3L6() {
+    return RecentDataSetsMulticurveStandardUsd.getCurvesUSDOisL1L3L6_20140728(CALIBRATION_DATE);
+  }
+
+  /**
+   * USD and EUR: USD discounting/overnight and Libor3M, EUR discounting/overnight, Euribor3M and Euribor6M curves.
+   * @return The curves and the Jacobian matrices.
+   */
+  @Benchmark
+  public Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> usdOisL3EurOisE3E6() {
+    return RecentDataSetsMulticurveXCcyUsdEur.getCurvesUsdOisL3EurOisE3E6(CALIBRATION_DATE);
+  }
+
+  /**
+   * USD and EUR with cross-currency instruments: the EUR curves are calibrated with FX swaps and cross-currency swaps on top of the USD curves.
+   * @return The curves and the Jacobian matrices.
+   */
+  @Benchmark
+  public Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> usdOisL3EurFxXCcy3Bs6() {
+    return RecentDataSetsMulticurveXCcyUsdEur.getCurvesUsdOisL3EurFxXCcy3Bs6(CALIBRATION_DATE);
+  }
+
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.benchmark;
+
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.opengamma.analytics.financial.datasets.CalendarUSD;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIbor;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIborMaster;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedON;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedONMaster;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedIborDefinition;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedONDefinition;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueCurveSensitivityDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValuePointSensitivityDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscountSnapshot;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurvePointSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
+import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
+import com.opengamma.analytics.tutorial.datasets.RecentDataSetsMulticurveStandardUsd;
+import com.opengamma.analytics.util.time.DateUtils;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+
+/**
+ * Benchmarks of the present value and of the present value curve sensitivity of a generated portfolio of USD swaps.
+ * <p>
+ * The portfolio is made of forward starting fixed v Libor3M swaps and OIS with random start, tenor, rate and direction.
+ * The random generator is seeded, so that the same portfolio is used in all the runs. The curves are calibrated once
+ * per trial on the standard USD data set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SwapPortfolioBenchmark {
+
+  private static final ZonedDateTime VALUATION_DATE = DateUtils.getUTCDate(2014, 7, 16);
+  private static final HolidayCalendar NYC = CalendarUSD.NYC;
+  private static final GeneratorSwapFixedIbor USD6MLIBOR3M = GeneratorSwapFixedIborMaster.getInstance().getGenerator("USD6MLIBOR3M", NYC);
+  private static final GeneratorSwapFixedON USD1YFEDFUND = GeneratorSwapFixedONMaster.getInstance().getGenerator("USD1YFEDFUND", NYC);
+  private static final double NOTIONAL = 1000000;
+  private static final long SEED = 20140716L;
+
+  private static final PresentValueDiscountingCalculator PVDC = PresentValueDiscountingCalculator.getInstance();
+  private static final PresentValueCurveSensitivityDiscountingCalculator PVCSDC = PresentValueCurveSensitivityDiscountingCalculator.getInstance();
+  private static final PresentValuePointSensitivityDiscountingCalculator PVPSDC = PresentValuePointSensitivityDiscountingCalculator.getInstance();
+
+  /**
+   * The number of swaps in the portfolio.
+   */
+  @Param({"100", "1000" })
+  private int _portfolioSize;
+  /**
+   * The proportion of OIS in the portfolio, the other swaps are fixed v Libor3M.
+   */
+  @Param({"0.25" })
+  private double _oisProportion;
+
+  private MulticurveProviderDiscount _multicurve;
+  private MulticurveProviderDiscountSnapshot _snapshot;
+  private InstrumentDerivative[] _portfolio;
+
+  /**
+   * Calibrates the curves and generates the portfolio.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    _multicurve = RecentDataSetsMulticurveStandardUsd.getCurvesUSDOisL1L3L6_20140728(VALUATION_DATE).getFirst();
+    _snapshot = _multicurve.snapshot();
+    final Random random = new Random(SEED);
+    final ZonedDateTime spot = ScheduleCalculator.getAdjustedDate(VALUATION_DATE, USD6MLIBOR3M.getSpotLag(), NYC);
+    _portfolio = new InstrumentDerivative[_portfolioSize];
+    for (int loopswap = 0; loopswap < _portfolioSize; loopswap++) {
+      final ZonedDateTime settlementDate = ScheduleCalculator.getAdjustedDate(spot, Period.ofMonths(1 + random.nextInt(24)), USD6MLIBOR3M.getBusinessDayConvention(), NYC);
+      final Period tenor = Period.ofYears(1 + random.nextInt(30));
+      final double rate = 0.01 + 0.03 * random.nextDouble();
+      final boolean isPayer = random.nextBoolean();
+      if (random.nextDouble() < _oisProportion) {
+        _portfolio[loopswap] = SwapFixedONDefinition.from(settlementDate, tenor, NOTIONAL, USD1YFEDFUND, rate, isPayer).toDerivative(VALUATION_DATE);
+      } else {
+        _portfolio[loopswap] = SwapFixedIborDefinition.from(settlementDate, tenor, USD6MLIBOR3M, NOTIONAL, rate, isPayer).toDerivative(VALUATION_DATE);
+      }
+    }
+  }
+
+  /**
+   * Present value of each swap.
+   * @return The sum of the present values.
+   */
+  @Benchmark
+  public double presentValue() {
+    double pv = 0.0;
+    for (final InstrumentDerivative swap : _portfolio) {
+      final MultiCurrencyAmount pvSwap = swap.accept(PVDC, _multicurve);
+      pv += pvSwap.getAmount(Currency.USD).getAmount();
+    }
+    return pv;
+  }
+
+  /**
+   * Present value of each swap, on the immutable snapshot of the curves.
+   * @return The sum of the present values.
+   */
+  @Benchmark
+  public double presentValueSnapshot() {
+    double pv = 0.0;
+    for (final InstrumentDerivative swap : _portfolio) {
+      final MultiCurrencyAmount pvSwap = swap.accept(PVDC, _snapshot);
+      pv += pvSwap.getAmount(Currency.USD).getAmount();
+    }
+    return pv;
+  }
+
+  /**
+   * Present value curve sensitivity of each swap, in the object form.
+   * @param blackhole The sink for the sensitivities.
+   */
+  @Benchmark
+  public void presentValueCurveSensitivity(final Blackhole blackhole) {
+    for (final InstrumentDerivative swap : _portfolio) {
+      final MultipleCurrencyMulticurveSensitivity pvcs = swap.accept(PVCSDC, _multicurve);
+      blackhole.consume(pvcs);
+    }
+  }
+
+  /**
+   * Present value curve sensitivity of the portfolio, aggregated in the object form.
+   * @return The cleaned portfolio sensitivity.
+   */
+  @Benchmark
+  public MultipleCurrencyMulticurveSensitivity presentValueCurveSensitivityAggregated() {
+    MultipleCurrencyMulticurveSensitivity pvcs = new MultipleCurrencyMulticurveSensitivity();
+    for (final InstrumentDerivative swap : _portfolio) {
+      pvcs = pvcs.plus(swap.accept(PVCSDC, _multicurve));
+    }
+    return pvcs.cleaned();
+  }
+
+  /**
+   * Present value curve sensitivity of the portfolio, aggregated in a single point sensitivity.
+   * @return The compacted portfolio sensitivity.
+   */
+  @Benchmark
+  public MulticurvePointSensitivity presentValuePointSensitivityAggregated() {
+    final MulticurvePointSensitivity pvps = new MulticurvePointSensitivity();
+    for (final InstrumentDerivative swap : _portfolio) {
+      PVPSDC.presentValueCurveSensitivity(swap, _multicurve, pvps);
+    }
+    pvps.compact();
+    return pvps;
+  }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.credit.portfoliolosssimulationmodel;
+
+import java.util.Arrays;
+
+import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
+import com.opengamma.analytics.math.statistics.distribution.ProbabilityDistribution;
+import com.opengamma.analytics.math.statistics.distribution.StudentTDistribution;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * A factor copula of the default times of a portfolio of obligors, Gaussian or Student t.
+ * <p>
+ * The latent variable of the obligor i is X<sub>i</sub> = W (&Sigma;<sub>k</sub> a<sub>ik</sub> Z<sub>k</sub> + b<sub>i</sub>
+ * &epsilon;<sub>i</sub>), where the Z<sub>k</sub> are the independent standard normal systematic factors, the
+ * &epsilon;<sub>i</sub> the independent standard normal idiosyncratic variables, a<sub>ik</sub> the factor loadings and
+ * b<sub>i</sub> = (1 - &Sigma;<sub>k</sub> a<sub>ik</sub><sup>2</sup>)<sup>1/2</sup>. For the Gaussian copula W = 1; for the
+ * Student t copula with &nu; degrees of freedom W = (&nu; / S)<sup>1/2</sup>, where S is an independent chi-square variable
+ * with &nu; degrees of freedom. The obligor defaults before the time t when the latent variable is below the quantile of
+ * its default probability at t, for the standard normal or the Student t distribution.
+ * <p>
+ * The number of degrees of freedom is an integer, the chi-square variable being simulated as a sum of squared normal variables.
+ */
+public class FactorCopula {
+
+  /**
+   * The factor loadings. The dimensions are obligor/factor.
+   */
+  private final double[][] _loadings;
+  /**
+   * The weights of the idiosyncratic variables.
+   */
+  private final double[] _idiosyncraticWeights;
+  /**
+   * The number of degrees of freedom of the Student t copula, 0 for the Gaussian copula.
+   */
+  private final int _degreesOfFreedom;
+  /**
+   * The distribution of the latent variables.
+   */
+  private final ProbabilityDistribution<Double> _distribution;
+
+  /**
+   * Constructor of a Gaussian copula.
+   * @param loadings The factor loadings, not null. The dimensions are obligor/factor. The sum of the squared loadings of an obligor is at most 1.
+   */
+  public FactorCopula(final double[][] loadings) {
+    this(loadings, 0);
+  }
+
+  /**
+   * Constructor.
+   * @param loadings The factor loadings, not null. The dimensions are obligor/factor. The sum of the squared loadings of an obligor is at most 1.
+   * @param degreesOfFreedom The number of degrees of freedom of the Student t copula, 0 for the Gaussian copula.
+   */
+  public FactorCopula(final double[][] loadings, final int degreesOfFreedom) {
+    ArgChecker.noNulls(loadings, "loadings");
+    ArgChecker.isTrue(loadings.length > 0, "at least one obligor is required");
+    ArgChecker.notNegative(degreesOfFreedom, "degrees of freedom");
+    final int nbFactor = loadings[0].length;
+    _loadings = new double[loadings.length][];
+    _idiosyncraticWeights = new double[loadings.length];
+    for (int loopname = 0; loopname < loadings.length; loopname++) {
+      ArgChecker.isTrue(loadings[loopname].length == nbFactor, "all obligors should have the same number of factors");
+      _loadings[loopname] = loadings[loopname].clone();
+      double systematicVariance = 0.0;
+      for (int loopfactor = 0; loopfactor < nbFactor; loopfactor++) {
+        systematicVariance += loadings[loopname][loopfactor] * loadings[loopname][loopfactor];
+      }
+      ArgChecker.isTrue(systematicVariance <= 1.0, "sum of the squared loadings of obligor {} should be at most 1", loopname);
+      _idiosyncraticWeights[loopname] = Math.sqrt(1.0 - systematicVariance);
+    }
+    _degreesOfFreedom = degreesOfFreedom;
+    _distribution = degreesOfFreedom == 0 ? new NormalDistribution(0.0, 1.0) : new StudentTDistribution(degreesOfFreedom);
+  }
+
+  /**
+   * Creates a one-factor Gaussian copula with the same correlation for all pairs of obligors.
+   * @param nbName The number of obligors, positive.
+   * @param correlation The correlation, between 0 and 1.
+   * @return The copula.
+   */
+  public static FactorCopula oneFactorGaussian(final int nbName, final double correlation) {
+    return oneFactor(nbName, correlation, 0);
+  }
+
+  /**
+   * Creates a one-factor copula with the same correlation for all pairs of obligors.
+   * @param nbName The number of obligors, positive.
+   * @param correlation The correlation, between 0 and 1.
+   * @param degreesOfFreedom The number of degrees of freedom of the Student t copula, 0 for the Gaussian copula.
+   * @return The copula.
+   */
+  public static FactorCopula oneFactor(final int nbName, final double correlation, final int degreesOfFreedom) {
+    ArgChecker.isTrue(nbName > 0, "number of obligors should be positive");
+    ArgChecker.inRangeInclusive(correlation, 0.0, 1.0, "correlation");
+    final double[][] loadings = new double[nbName][1];
+    for (final double[] loading : loadings) {
+      loading[0] = Math.sqrt(correlation);
+    }
+    return new FactorCopula(loadings, degreesOfFreedom);
+  }
+
+  /**
+   * Gets the number of obligors.
+   * @return The number of obligors.
+   */
+  public int getNumberOfNames() {
+    return _loadings.length;
+  }
+
+  /**
+   * Gets the number of systematic factors.
+   * @return The number of factors.
+   */
+  public int getNumberOfFactors() {
+    return _loadings[0].length;
+  }
+
+  /**
+   * Gets the factor loadings of an obligor.
+   * @param name The obligor index.
+   * @return The loadings.
+   */
+  public double[] getLoadings(final int name) {
+    return _loadings[name].clone();
+  }
+
+  /**
+   * Gets the weight of the idiosyncratic variable of an obligor.
+   * @param name The obligor index.
+   * @return The weight.
+   */
+  public double getIdiosyncraticWeight(final int name) {
+    return _idiosyncraticWeights[name];
+  }
+
+  /**
+   * Gets the number of degrees of freedom.
+   * @return The number of degrees of freedom of the Student t copula, 0 for the Gaussian copula.
+   */
+  public int getDegreesOfFreedom() {
+    return _degreesOfFreedom;
+  }
+
+  /**
+   * Computes the default threshold of the latent variable for a default probability.
+   * @param defaultProbability The default probability.
+   * @return The threshold, the quantile of the probability for the distribution of the latent variables.
+   */
+  public double getThreshold(final double defaultProbability) {
+    ArgChecker.inRangeInclusive(defaultProbability, 0.0, 1.0, "default probability");
+    if (defaultProbability == 0.0) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    if (defaultProbability == 1.0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return _distribution.getInverseCDF(defaultProbability);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.deepHashCode(_loadings) + _degreesOfFreedom;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof FactorCopula)) {
+      return false;
+    }
+    final FactorCopula other = (FactorCopula) obj;
+    return _degreesOfFreedom == other._degreesOfFreedom && Arrays.deepEquals(_loadings, other._loadings);
+  }
+
+}
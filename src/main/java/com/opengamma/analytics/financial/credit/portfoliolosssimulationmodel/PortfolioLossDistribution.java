@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.credit.portfoliolosssimulationmodel;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The simulated distribution of the loss of a portfolio, accumulated scenario by scenario in a histogram.
+ * <p>
+ * The losses between 0 and the maximal loss are split in buckets of equal width. For each bucket, the number of scenarios
+ * and the sum of their losses are kept, so that the expected loss is exact and the statistics of the tail are approximated
+ * only within the bucket at the boundary. The memory does not depend on the number of scenarios.
+ */
+public class PortfolioLossDistribution {
+
+  /**
+   * The maximal loss, the upper bound of the last bucket.
+   */
+  private final double _maximalLoss;
+  /**
+   * The width of the buckets.
+   */
+  private final double _bucketWidth;
+  /**
+   * The number of scenarios in each bucket.
+   */
+  private final long[] _count;
+  /**
+   * The sum of the losses of the scenarios in each bucket.
+   */
+  private final double[] _lossSum;
+  /**
+   * The number of scenarios.
+   */
+  private long _nbScenario;
+
+  /**
+   * Constructor of an empty distribution.
+   * @param maximalLoss The maximal loss, positive.
+   * @param nbBucket The number of buckets, positive.
+   */
+  public PortfolioLossDistribution(final double maximalLoss, final int nbBucket) {
+    ArgChecker.notNegativeOrZero(maximalLoss, "maximal loss");
+    ArgChecker.isTrue(nbBucket > 0, "number of buckets should be positive");
+    _maximalLoss = maximalLoss;
+    _bucketWidth = maximalLoss / nbBucket;
+    _count = new long[nbBucket];
+    _lossSum = new double[nbBucket];
+  }
+
+  /**
+   * Adds the loss of a scenario.
+   * @param loss The loss, between 0 and the maximal loss.
+   */
+  public void add(final double loss) {
+    final int bucket = Math.min((int) (loss / _bucketWidth), _count.length - 1);
+    _count[bucket]++;
+    _lossSum[bucket] += loss;
+    _nbScenario++;
+  }
+
+  /**
+   * Adds the scenarios of another distribution with the same buckets.
+   * @param other The other distribution, not null.
+   */
+  public void merge(final PortfolioLossDistribution other) {
+    ArgChecker.notNull(other, "other");
+    ArgChecker.isTrue(other._maximalLoss == _maximalLoss && other._count.length == _count.length, "distributions should have the same buckets");
+    for (int loopbucket = 0; loopbucket < _count.length; loopbucket++) {
+      _count[loopbucket] += other._count[loopbucket];
+      _lossSum[loopbucket] += other._lossSum[loopbucket];
+    }
+    _nbScenario += other._nbScenario;
+  }
+
+  /**
+   * Gets the maximal loss.
+   * @return The maximal loss.
+   */
+  public double getMaximalLoss() {
+    return _maximalLoss;
+  }
+
+  /**
+   * Gets the number of buckets.
+   * @return The number of buckets.
+   */
+  public int getNumberOfBuckets() {
+    return _count.length;
+  }
+
+  /**
+   * Gets the width of the buckets.
+   * @return The width.
+   */
+  public double getBucketWidth() {
+    return _bucketWidth;
+  }
+
+  /**
+   * Gets the number of scenarios.
+   * @return The number of scenarios.
+   */
+  public long getNumberOfScenarios() {
+    return _nbScenario;
+  }
+
+  /**
+   * Gets the simulated probability of a bucket.
+   * @param bucket The bucket index.
+   * @return The probability of a loss in the bucket.
+   */
+  public double getProbability(final int bucket) {
+    return (double) _count[bucket] / _nbScenario;
+  }
+
+  /**
+   * Computes the expected loss.
+   * @return The expected loss.
+   */
+  public double getExpectedLoss() {
+    double lossSum = 0.0;
+    for (final double sum : _lossSum) {
+      lossSum += sum;
+    }
+    return lossSum / _nbScenario;
+  }
+
+  /**
+   * Computes the value at risk, the quantile of the loss at a confidence level, as the upper bound of the bucket in which the
+   * cumulative probability reaches the level.
+   * @param level The confidence level, between 0 and 1.
+   * @return The value at risk.
+   */
+  public double getValueAtRisk(final double level) {
+    ArgChecker.inRangeInclusive(level, 0.0, 1.0, "level");
+    ArgChecker.isTrue(_nbScenario > 0, "no scenario");
+    final double target = level * _nbScenario;
+    long cumulative = 0;
+    for (int loopbucket = 0; loopbucket < _count.length; loopbucket++) {
+      cumulative += _count[loopbucket];
+      if (cumulative >= target && _count[loopbucket] > 0) {
+        return Math.min((loopbucket + 1) * _bucketWidth, _maximalLoss);
+      }
+    }
+    return _maximalLoss;
+  }
+
+  /**
+   * Computes the expected shortfall (conditional value at risk), the mean of the losses in the worst (1 - level) proportion
+   * of the scenarios. The scenarios of the bucket at the boundary are valued at the mean loss of the bucket.
+   * @param level The confidence level, between 0 (included) and 1 (excluded).
+   * @return The expected shortfall.
+   */
+  public double getExpectedShortfall(final double level) {
+    ArgChecker.inRange(level, 0.0, 1.0, "level");
+    ArgChecker.isTrue(_nbScenario > 0, "no scenario");
+    final double tail = (1.0 - level) * _nbScenario;
+    double remaining = tail;
+    double lossSum = 0.0;
+    for (int loopbucket = _count.length - 1; loopbucket >= 0 && remaining > 0.0; loopbucket--) {
+      if (_count[loopbucket] <= remaining) {
+        lossSum += _lossSum[loopbucket];
+        remaining -= _count[loopbucket];
+      } else {
+        lossSum += remaining * _lossSum[loopbucket] / _count[loopbucket];
+        remaining = 0.0;
+      }
+    }
+    return lossSum / tail;
+  }
+
+  /**
+   * Computes the expected loss of a tranche, min(max(L - attachment, 0), detachment - attachment) for the portfolio loss L.
+   * The scenarios of a bucket are valued at the mean loss of the bucket; the result is exact when the attachment and
+   * detachment are bucket bounds.
+   * @param attachment The attachment loss, not negative.
+   * @param detachment The detachment loss, above the attachment.
+   * @return The expected tranche loss.
+   */
+  public double getTrancheExpectedLoss(final double attachment, final double detachment) {
+    ArgChecker.notNegative(attachment, "attachment");
+    ArgChecker.isTrue(detachment > attachment, "detachment should be above attachment");
+    double trancheLoss = 0.0;
+    for (int loopbucket = 0; loopbucket < _count.length; loopbucket++) {
+      if (_count[loopbucket] > 0) {
+        final double meanLoss = _lossSum[loopbucket] / _count[loopbucket];
+        trancheLoss += _count[loopbucket] * Math.min(Math.max(meanLoss - attachment, 0.0), detachment - attachment);
+      }
+    }
+    return trancheLoss / _nbScenario;
+  }
+
+}
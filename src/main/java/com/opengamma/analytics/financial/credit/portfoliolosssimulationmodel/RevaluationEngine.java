@@ -5,9 +5,258 @@
  */
 package com.opengamma.analytics.financial.credit.portfoliolosssimulationmodel;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.opengamma.analytics.financial.credit.isdastandardmodel.ISDACompliantCreditCurve;
+import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.math.random.RandomNumberStreams;
+import com.opengamma.analytics.util.ForkJoinUtils;
+import com.opengamma.strata.collect.ArgChecker;
+
 /**
- * 
+ * Simulation of the default times of a portfolio of obligors in a {@link FactorCopula} and of the distribution of the portfolio loss.
+ * <p>
+ * The marginal default probabilities are the survival probabilities of the obligors' credit curves. The default times are
+ * simulated on a grid of times: for each obligor and each time of the grid, the default threshold of the latent variable
+ * is the quantile of the default probability at that time, and the default time of a scenario is located in the first
+ * interval of the grid where the latent variable is below the threshold. The loss of an obligor is its notional times
+ * one minus its recovery rate.
+ * <p>
+ * The scenarios are simulated by batches; the batch of index b uses the stream b of the random numbers, in the order: the
+ * systematic factors, the chi-square variables of the Student t copula and the idiosyncratic variables, obligor by obligor.
+ * Within a batch, the obligors are visited one at a time for all the scenarios of the batch, so that only the losses of
+ * the scenarios at each time of the grid are kept and not the default times; the losses are then added to a
+ * {@link PortfolioLossDistribution} by batch. When a {@link ForkJoinPool} is provided, the batches are computed in parallel,
+ * the buffers being reused from batch to batch; the batch distributions are merged in order and the results do not depend
+ * on the pool.
  */
 public class RevaluationEngine {
 
+  /**
+   * The default number of scenarios in a batch.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 10000;
+
+  /**
+   * The random number streams, standard normal.
+   */
+  private final RandomNumberStreams _streams;
+  /**
+   * The number of scenarios.
+   */
+  private final int _nbScenario;
+  /**
+   * The number of scenarios in a batch.
+   */
+  private final int _batchSize;
+  /**
+   * The pool on which the batches are computed, null for a sequential computation.
+   */
+  private final ForkJoinPool _pool;
+
+  /**
+   * Constructor of a sequential engine.
+   * @param streams The standard normal random number streams, not null.
+   * @param nbScenario The number of scenarios, positive.
+   */
+  public RevaluationEngine(final RandomNumberStreams streams, final int nbScenario) {
+    this(streams, nbScenario, DEFAULT_BATCH_SIZE, null);
+  }
+
+  /**
+   * Constructor.
+   * @param streams The standard normal random number streams, not null.
+   * @param nbScenario The number of scenarios, positive.
+   * @param batchSize The number of scenarios in a batch, positive.
+   * @param pool The pool on which the batches are computed, null for a sequential computation.
+   */
+  public RevaluationEngine(final RandomNumberStreams streams, final int nbScenario, final int batchSize, final ForkJoinPool pool) {
+    ArgChecker.notNull(streams, "streams");
+    ArgChecker.isTrue(nbScenario > 0, "number of scenarios should be positive");
+    ArgChecker.isTrue(batchSize > 0, "batch size should be positive");
+    _streams = streams;
+    _nbScenario = nbScenario;
+    _batchSize = batchSize;
+    _pool = pool;
+  }
+
+  /**
+   * Simulates the distribution of the portfolio loss at a horizon.
+   * @param copula The copula, not null.
+   * @param curves The credit curves of the obligors, not null, one for each obligor of the copula.
+   * @param notionals The notionals of the obligors, not null, same length as the curves, positive.
+   * @param recoveryRates The recovery rates of the obligors, not null, same length as the curves, between 0 and 1.
+   * @param horizon The horizon, positive.
+   * @param nbBucket The number of buckets of the loss distribution, positive.
+   * @return The loss distribution.
+   */
+  public PortfolioLossDistribution lossDistribution(final FactorCopula copula, final ISDACompliantCreditCurve[] curves, final double[] notionals,
+      final double[] recoveryRates, final double horizon, final int nbBucket) {
+    return lossDistributions(copula, curves, notionals, recoveryRates, new double[] {horizon }, nbBucket)[0];
+  }
+
+  /**
+   * Simulates the distributions of the portfolio loss at each time of a grid, from the same default times.
+   * @param copula The copula, not null.
+   * @param curves The credit curves of the obligors, not null, one for each obligor of the copula.
+   * @param notionals The notionals of the obligors, not null, same length as the curves, positive.
+   * @param recoveryRates The recovery rates of the obligors, not null, same length as the curves, between 0 and 1.
+   * @param times The times of the grid, not null or empty, positive and increasing.
+   * @param nbBucket The number of buckets of the loss distributions, positive.
+   * @return The loss distributions, one for each time of the grid.
+   */
+  public PortfolioLossDistribution[] lossDistributions(final FactorCopula copula, final ISDACompliantCreditCurve[] curves, final double[] notionals,
+      final double[] recoveryRates, final double[] times, final int nbBucket) {
+    ArgChecker.notNull(copula, "copula");
+    ArgChecker.noNulls(curves, "curves");
+    ArgChecker.notNull(notionals, "notionals");
+    ArgChecker.notNull(recoveryRates, "recovery rates");
+    ArgChecker.notEmpty(times, "times");
+    final int nbName = copula.getNumberOfNames();
+    ArgChecker.isTrue(curves.length == nbName, "one curve is required for each obligor of the copula");
+    ArgChecker.isTrue(notionals.length == nbName, "one notional is required for each obligor of the copula");
+    ArgChecker.isTrue(recoveryRates.length == nbName, "one recovery rate is required for each obligor of the copula");
+    final int nbTime = times.length;
+    ArgChecker.isTrue(times[0] > 0.0, "times should be positive");
+    for (int looptime = 1; looptime < nbTime; looptime++) {
+      ArgChecker.isTrue(times[looptime] > times[looptime - 1], "times should be increasing");
+    }
+    final double[] lossGivenDefault = new double[nbName];
+    final double[][] thresholds = new double[nbName][nbTime];
+    double maximalLoss = 0.0;
+    for (int loopname = 0; loopname < nbName; loopname++) {
+      ArgChecker.notNegativeOrZero(notionals[loopname], "notional");
+      ArgChecker.inRangeInclusive(recoveryRates[loopname], 0.0, 1.0, "recovery rate");
+      lossGivenDefault[loopname] = notionals[loopname] * (1.0 - recoveryRates[loopname]);
+      maximalLoss += lossGivenDefault[loopname];
+      for (int looptime = 0; looptime < nbTime; looptime++) {
+        thresholds[loopname][looptime] = copula.getThreshold(1.0 - curves[loopname].getSurvivalProbability(times[looptime]));
+      }
+    }
+    final int nbBatch = (_nbScenario + _batchSize - 1) / _batchSize;
+    final PortfolioLossDistribution[][] batchDistributions = new PortfolioLossDistribution[nbBatch][nbTime];
+    final double maxLoss = maximalLoss;
+    ForkJoinUtils.forEachIndex(_pool, nbBatch, () -> new BatchBuffers(copula, nbTime, _batchSize), (batch, buffers) -> {
+      final int nbScenario = Math.min(_batchSize, _nbScenario - batch * _batchSize);
+      for (int looptime = 0; looptime < nbTime; looptime++) {
+        batchDistributions[batch][looptime] = new PortfolioLossDistribution(maxLoss, nbBucket);
+      }
+      simulateBatch(copula, thresholds, lossGivenDefault, _streams.getStream(batch), nbScenario, buffers, batchDistributions[batch]);
+    });
+    final PortfolioLossDistribution[] distributions = new PortfolioLossDistribution[nbTime];
+    for (int looptime = 0; looptime < nbTime; looptime++) {
+      distributions[looptime] = new PortfolioLossDistribution(maximalLoss, nbBucket);
+      for (int loopbatch = 0; loopbatch < nbBatch; loopbatch++) {
+        distributions[looptime].merge(batchDistributions[loopbatch][looptime]);
+      }
+    }
+    return distributions;
+  }
+
+  /**
+   * Simulates the scenarios of a batch and adds their losses to the distributions.
+   */
+  private static void simulateBatch(final FactorCopula copula, final double[][] thresholds, final double[] lossGivenDefault,
+      final RandomNumberGenerator generator, final int nbScenario, final BatchBuffers buffers, final PortfolioLossDistribution[] distributions) {
+    final int nbName = copula.getNumberOfNames();
+    final int nbFactor = copula.getNumberOfFactors();
+    final int degreesOfFreedom = copula.getDegreesOfFreedom();
+    final int nbTime = thresholds[0].length;
+    final double[][] factors = buffers._factors;
+    final double[] mixing = buffers._mixing;
+    final double[] latent = buffers._latent;
+    final double[][] lossIncrement = buffers._lossIncrement;
+    for (int loopfactor = 0; loopfactor < nbFactor; loopfactor++) {
+      generator.fill(factors[loopfactor], 0, nbScenario);
+    }
+    if (degreesOfFreedom > 0) {
+      Arrays.fill(mixing, 0, nbScenario, 0.0);
+      for (int loopdof = 0; loopdof < degreesOfFreedom; loopdof++) {
+        generator.fill(latent, 0, nbScenario);
+        for (int loopsc = 0; loopsc < nbScenario; loopsc++) {
+          mixing[loopsc] += latent[loopsc] * latent[loopsc];
+        }
+      }
+      for (int loopsc = 0; loopsc < nbScenario; loopsc++) {
+        mixing[loopsc] = Math.sqrt(degreesOfFreedom / mixing[loopsc]);
+      }
+    }
+    for (int looptime = 0; looptime < nbTime; looptime++) {
+      Arrays.fill(lossIncrement[looptime], 0, nbScenario, 0.0);
+    }
+    for (int loopname = 0; loopname < nbName; loopname++) {
+      generator.fill(latent, 0, nbScenario);
+      final double idiosyncraticWeight = copula.getIdiosyncraticWeight(loopname);
+      final double[] loadings = copula.getLoadings(loopname);
+      for (int loopsc = 0; loopsc < nbScenario; loopsc++) {
+        latent[loopsc] *= idiosyncraticWeight;
+      }
+      for (int loopfactor = 0; loopfactor < nbFactor; loopfactor++) {
+        final double loading = loadings[loopfactor];
+        final double[] factor = factors[loopfactor];
+        for (int loopsc = 0; loopsc < nbScenario; loopsc++) {
+          latent[loopsc] += loading * factor[loopsc];
+        }
+      }
+      if (degreesOfFreedom > 0) {
+        for (int loopsc = 0; loopsc < nbScenario; loopsc++) {
+          latent[loopsc] *= mixing[loopsc];
+        }
+      }
+      final double[] threshold = thresholds[loopname];
+      final double lastThreshold = threshold[nbTime - 1];
+      for (int loopsc = 0; loopsc < nbScenario; loopsc++) {
+        final double x = latent[loopsc];
+        if (x < lastThreshold) {
+          int looptime = 0;
+          while (x >= threshold[looptime]) {
+            looptime++;
+          }
+          lossIncrement[looptime][loopsc] += lossGivenDefault[loopname];
+        }
+      }
+    }
+    for (int loopsc = 0; loopsc < nbScenario; loopsc++) {
+      double loss = 0.0;
+      for (int looptime = 0; looptime < nbTime; looptime++) {
+        loss += lossIncrement[looptime][loopsc];
+        distributions[looptime].add(loss);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of scenarios.
+   * @return The number of scenarios.
+   */
+  public int getNumberOfScenarios() {
+    return _nbScenario;
+  }
+
+  /**
+   * Gets the number of scenarios in a batch.
+   * @return The batch size.
+   */
+  public int getBatchSize() {
+    return _batchSize;
+  }
+
+  /**
+   * The buffers of a batch, in the factor/scenario and time/scenario layouts.
+   */
+  private static final class BatchBuffers {
+    private final double[][] _factors;
+    private final double[] _mixing;
+    private final double[] _latent;
+    private final double[][] _lossIncrement;
+
+    BatchBuffers(final FactorCopula copula, final int nbTime, final int batchSize) {
+      _factors = new double[copula.getNumberOfFactors()][batchSize];
+      _mixing = new double[copula.getDegreesOfFreedom() > 0 ? batchSize : 0];
+      _latent = new double[batchSize];
+      _lossIncrement = new double[nbTime][batchSize];
+    }
+  }
+
 }
@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.financial.curve.interestrate.generator;
 
+import java.util.Arrays;
+
 import com.opengamma.analytics.financial.model.interestrate.curve.DiscountCurve;
 import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
@@ -70,4 +72,16 @@ public class GeneratorCurveDiscountFactorInterpolatedNode extends GeneratorYDCur
     return discountFactor;
   }
 
+  @Override
+  public double[] getParameters(final YieldAndDiscountCurve curve) {
+    if (!(curve instanceof DiscountCurve) || !(((DiscountCurve) curve).getCurve() instanceof InterpolatedDoublesCurve)) {
+      return null;
+    }
+    final InterpolatedDoublesCurve interpolated = (InterpolatedDoublesCurve) ((DiscountCurve) curve).getCurve();
+    if (!Arrays.equals(interpolated.getXDataAsPrimitive(), _nodePoints)) {
+      return null;
+    }
+    return interpolated.getYDataAsPrimitive().clone();
+  }
+
 }
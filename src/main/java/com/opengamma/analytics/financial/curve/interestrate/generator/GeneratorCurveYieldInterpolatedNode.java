@@ -66,4 +66,16 @@ public class GeneratorCurveYieldInterpolatedNode extends GeneratorYDCurve {
     return generateCurve(name, parameters);
   }
 
+  @Override
+  public double[] getParameters(final YieldAndDiscountCurve curve) {
+    if (!(curve instanceof YieldCurve) || !(((YieldCurve) curve).getCurve() instanceof InterpolatedDoublesCurve)) {
+      return null;
+    }
+    final InterpolatedDoublesCurve interpolated = (InterpolatedDoublesCurve) ((YieldCurve) curve).getCurve();
+    if (!Arrays.equals(interpolated.getXDataAsPrimitive(), _nodePoints)) {
+      return null;
+    }
+    return interpolated.getYDataAsPrimitive().clone();
+  }
+
 }
@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.financial.curve.interestrate.generator;
 
+import java.util.Arrays;
+
 import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
 import com.opengamma.analytics.financial.model.interestrate.curve.YieldPeriodicCurve;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
@@ -66,4 +68,16 @@ public class GeneratorCurveYieldPeriodicInterpolatedNode extends GeneratorYDCurv
     return generateCurve(name, parameters);
   }
 
+  @Override
+  public double[] getParameters(final YieldAndDiscountCurve curve) {
+    if (!(curve instanceof YieldPeriodicCurve) || !(((YieldPeriodicCurve) curve).getCurve() instanceof InterpolatedDoublesCurve)) {
+      return null;
+    }
+    final InterpolatedDoublesCurve interpolated = (InterpolatedDoublesCurve) ((YieldPeriodicCurve) curve).getCurve();
+    if (!Arrays.equals(interpolated.getXDataAsPrimitive(), _nodePoints)) {
+      return null;
+    }
+    return interpolated.getYDataAsPrimitive().clone();
+  }
+
 }
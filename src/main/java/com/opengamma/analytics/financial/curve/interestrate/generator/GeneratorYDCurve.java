@@ -43,6 +43,18 @@ public abstract class GeneratorYDCurve extends GeneratorCurve {
     return generateCurve(name, hwMulticurves.getMulticurveProvider(), parameters);
   }
 
+  /**
+   * Returns the parameters of a curve generated by this generator, i.e. the parameters with which the generator produces the curve.
+   * The parameters are used to start a new calibration from a previously calibrated curve.
+   * <p>
+   * The default implementation returns null; the generators which can not recover the parameters from the curve keep it.
+   * @param curve The curve.
+   * @return The parameters, null if they can not be obtained from the curve.
+   */
+  public double[] getParameters(final YieldAndDiscountCurve curve) {
+    return null;
+  }
+
   /**
    * Some generators require a two stage process. The generator with the general description (like interpolated) and
    * a specific one with all the details (like the node times for the interpolated).
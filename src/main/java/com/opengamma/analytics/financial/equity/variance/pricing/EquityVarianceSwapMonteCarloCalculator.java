@@ -6,18 +6,35 @@
 package com.opengamma.analytics.financial.equity.variance.pricing;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import cern.jet.random.engine.MersenneTwister64;
 import cern.jet.random.engine.RandomEngine;
 
 import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
 import com.opengamma.analytics.financial.model.volatility.local.LocalVolatilitySurfaceStrike;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloControlVariate;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloBlockRunner;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloBlockRunner.PathBuffers;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloStatistics;
 import com.opengamma.analytics.math.FunctionUtils;
+import com.opengamma.analytics.math.random.BrownianBridge;
+import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.math.random.RandomNumberStreams;
 import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
 import com.opengamma.strata.collect.ArgChecker;
 
 /**
  * Monte-Carlo calculator to price a variance swap in the presence of discrete dividends. <p>
+ * The normal variables of the daily steps are drawn from a pseudo-random engine or from a {@link RandomNumberGenerator},
+ * which can be quasi-random (e.g. a Sobol generator with one dimension per day). In the latter case the Brownian path
+ * can be built by a {@link BrownianBridge}.<p>
+ * With {@link RandomNumberStreams}, the paths are simulated by blocks, the block of index b drawing its normal variables from
+ * the stream b, and the blocks can be computed in parallel on a {@link ForkJoinPool}, each worker reusing its step buffers.
+ * The moments of each block are accumulated by the algorithm of Welford and the blocks are merged in order, so that the
+ * results do not depend on the pool.<p>
+ * The realized variances can be estimated with the replicating portfolio of the variance as control variate, its expectation being given by static replication, see
+ * {@link #solveControlVariate}.<p>
  * <b>Note</b> this is primarily to test other numerical methods 
  */
 public class EquityVarianceSwapMonteCarloCalculator {
@@ -30,8 +47,14 @@ public class EquityVarianceSwapMonteCarloCalculator {
   private final boolean _useAntithetics;
   /** Whether to calculate the variance of the result */
   private final boolean _calculateVariance;
-  /** Provides normally-distributed random numbers */
+  /** Provides normally-distributed random numbers, null if a generator is used */
   private final NormalDistribution _norm;
+  /** Provides vectors of normally-distributed random numbers, one vector by path, null if the distribution is used */
+  private final RandomNumberGenerator _generator;
+  /** Runs the blocks of paths drawing their normally-distributed random numbers from streams, null if the distribution or the generator is used */
+  private final MonteCarloBlockRunner _blocks;
+  /** Whether the paths are built by a Brownian bridge, only used with a generator or streams */
+  private final boolean _brownianBridge;
 
   /**
    * Constructor taking a seed for the random number generator. The calculator is set up to use antithetic variables
@@ -43,6 +66,9 @@ public class EquityVarianceSwapMonteCarloCalculator {
     _calculateVariance = true;
     final RandomEngine random = new MersenneTwister64(seed);
     _norm = new NormalDistribution(0, 1.0, random);
+    _generator = null;
+    _blocks = null;
+    _brownianBridge = false;
   }
 
   /**
@@ -55,6 +81,46 @@ public class EquityVarianceSwapMonteCarloCalculator {
     _calculateVariance = calculateVariance;
     final RandomEngine random = new MersenneTwister64(seed);
     _norm = new NormalDistribution(0, 1.0, random);
+    _generator = null;
+    _blocks = null;
+    _brownianBridge = false;
+  }
+
+  /**
+   * @param generator The generator of the normal variables, one vector with one variable per day is drawn for each path, not null
+   * @param useAntithetics true if antithetic variables are to be used
+   * @param calculateVariance true if the variance of the result is to be calculated
+   * @param brownianBridge true if the paths are to be built by a Brownian bridge
+   */
+  public EquityVarianceSwapMonteCarloCalculator(final RandomNumberGenerator generator, final boolean useAntithetics, final boolean calculateVariance,
+      final boolean brownianBridge) {
+    ArgChecker.notNull(generator, "null generator");
+    _useAntithetics = useAntithetics;
+    _calculateVariance = calculateVariance;
+    _norm = null;
+    _generator = generator;
+    _blocks = null;
+    _brownianBridge = brownianBridge;
+  }
+
+  /**
+   * @param streams The streams of normal variables, one vector with one variable per day is drawn for each path, the block of
+   * simulations of index b using the stream b, not null
+   * @param blockSize The number of simulations of a block, positive
+   * @param useAntithetics true if antithetic variables are to be used
+   * @param calculateVariance true if the variance of the result is to be calculated
+   * @param brownianBridge true if the paths are to be built by a Brownian bridge
+   * @param pool The pool on which the blocks are computed, null for a sequential computation
+   */
+  public EquityVarianceSwapMonteCarloCalculator(final RandomNumberStreams streams, final int blockSize, final boolean useAntithetics,
+      final boolean calculateVariance, final boolean brownianBridge, final ForkJoinPool pool) {
+    ArgChecker.notNull(streams, "null streams");
+    _useAntithetics = useAntithetics;
+    _calculateVariance = calculateVariance;
+    _norm = null;
+    _generator = null;
+    _blocks = new MonteCarloBlockRunner(streams, blockSize, pool);
+    _brownianBridge = brownianBridge;
   }
 
   /**
@@ -78,8 +144,47 @@ public class EquityVarianceSwapMonteCarloCalculator {
     ArgChecker.notNegative(nSims, "negative nSims");
 
     final MonteCarloPath mc = new MonteCarloPath(dividends, expiry, spot, discountCurve, localVol);
-    return mc.runMC(nSims, _useAntithetics, _calculateVariance);
+    return mc.runMC(nSims, _useAntithetics, _calculateVariance, null);
+
+  }
+
+  /**
+   * Computes the expected realized variances with the static replication of the variance as control variate. On each simulation (the pair
+   * of paths with antithetic variables), the control is the payoff of the replicating portfolio: minus twice the log of the final value of spot
+   * over its forward without dividends, plus twice the gains of the daily delta hedge of this log-contract. The hedge gains have a zero
+   * expectation, so the expectation of the control is the expected variance of the log-contract given by static replication, see
+   * {@link EquityVarianceSwapStaticReplication#expectedLogContractVariance}. The realized variances are corrected by their regression on the
+   * control, which removes most of the noise as the control is close to the realized variance on each path. As in the simulation, the expiry
+   * is moved to the end of the day, so the control expectation should be computed at that time.
+   * @param spot The spot value, not negative
+   * @param discountCurve The discount curve, not null
+   * @param dividends The dividends, not null
+   * @param expiry The time to expiry in years, not negative
+   * @param localVol A local volatility surface parameterised by strike, not null
+   * @param nSims The number of simulations to run, at least two
+   * @param logContractVariance The expected variance of the log-contract (<b>not</b> annualised)
+   * @return An array containing the final value of spot, realized variance with dividends, realized variance without dividends; the variances
+   * of these values are not computed
+   */
+  public double[] solveControlVariate(final double spot, final YieldAndDiscountCurve discountCurve, final AffineDividends dividends,
+      final double expiry, final LocalVolatilitySurfaceStrike localVol, final int nSims, final double logContractVariance) {
 
+    ArgChecker.notNull(dividends, "null dividends");
+    ArgChecker.notNegative(expiry, "negative expiry");
+    ArgChecker.notNegative(spot, "negative spot");
+    ArgChecker.notNull(discountCurve, "null discountCurve");
+    ArgChecker.notNull(localVol, "null localVol");
+    ArgChecker.isTrue(nSims > 1, "at least two simulations are required for the control variate");
+
+    final MonteCarloPath mc = new MonteCarloPath(dividends, expiry, spot, discountCurve, localVol);
+    final double[][] samples = new double[N_SIM_VARIABLES + 1][nSims];
+    final double[] res = mc.runMC(nSims, _useAntithetics, false, samples);
+    final double[] weights = new double[nSims];
+    Arrays.fill(weights, 1.0);
+    for (int j = 1; j < N_SIM_VARIABLES; j++) {
+      res[j] = MonteCarloControlVariate.estimate(samples[j], samples[N_SIM_VARIABLES], weights, logContractVariance);
+    }
+    return res;
   }
 
   /**
@@ -104,6 +209,12 @@ public class EquityVarianceSwapMonteCarloCalculator {
     private final double _rootDt;
     /** The drift at each time step */
     private final double[] _drift;
+    /** The expected growth of the total returns process at each time step */
+    private final double[] _growth;
+    /** The Brownian bridge on the time steps, null if not used */
+    private final BrownianBridge _bridge;
+    /** The log of the forward without dividends at the end of the simulation */
+    private final double _logNoDivFwd;
 
     public MonteCarloPath(final AffineDividends dividends, final double expiry, final double spot,
         final YieldAndDiscountCurve discountCurve, final LocalVolatilitySurfaceStrike localVol) {
@@ -118,13 +229,16 @@ public class EquityVarianceSwapMonteCarloCalculator {
       _rootDt = Math.sqrt(_dt);
       _nSteps = (int) Math.ceil((expiry * DAYS_PER_YEAR)); //Effectively move expiry to end of day
       _drift = new double[_nSteps];
+      _growth = new double[_nSteps];
       final double[] logP = new double[_nSteps + 1];
       logP[0] = 0.0;
       for (int i = 0; i < _nSteps; i++) {
         final double t = (i + 1) * _dt;
         logP[i + 1] = -discountCurve.getInterestRate(t) * t;
         _drift[i] = -(logP[i + 1] - logP[i]) / _dt; //forward difference to get drift 
+        _growth[i] = Math.exp(_drift[i] * _dt);
       }
+      _logNoDivFwd = Math.log(spot) - logP[_nSteps];
 
       int nDivsBeforeExpiry = 0;
       int totalSteps = 0;
@@ -161,58 +275,105 @@ public class EquityVarianceSwapMonteCarloCalculator {
       _steps = Arrays.copyOfRange(steps, 0, nDivsBeforeExpiry + 1);
       _nDivs = nDivsBeforeExpiry;
 
+      if (_brownianBridge && _norm == null && _nSteps > 0) {
+        final double[] times = new double[_nSteps];
+        for (int i = 0; i < _nSteps; i++) {
+          times[i] = i + 1; //in units of the time step, so that the increments are standard normals
+        }
+        _bridge = new BrownianBridge(times);
+      } else {
+        _bridge = null;
+      }
+
     }
 
-    public double[] runMC(final int nSims, final boolean useAntithetics, final boolean calErrors) {
+    /**
+     * Runs the simulations.
+     * @param nSims The number of simulations
+     * @param useAntithetics true if antithetic variables are to be used
+     * @param calErrors true if the variance of the results is to be calculated
+     * @param samples The values of each simulation, filled if not null (variable/simulation), the last variable being the log-contract control
+     * @return The means of the simulated variables and their variances if requested
+     */
+    public double[] runMC(final int nSims, final boolean useAntithetics, final boolean calErrors, final double[][] samples) {
+
+      final MonteCarloStatistics[] stats;
+      if (_blocks == null) {
+        stats = MonteCarloBlockRunner.newStatistics(N_SIM_VARIABLES);
+        runBlock(nSims, useAntithetics, _generator, new PathBuffers(_nSteps, N_SIM_VARIABLES + 1), stats, samples, 0);
+      } else {
+        stats = _blocks.run(nSims, N_SIM_VARIABLES, _nSteps, N_SIM_VARIABLES + 1,
+            (nSimsBlock, generator, buffers, blockStats, firstSim) -> runBlock(nSimsBlock, useAntithetics, generator, buffers, blockStats, samples, firstSim));
+      }
 
       final int nVar = calErrors ? 2 * N_SIM_VARIABLES : N_SIM_VARIABLES;
       final double[] res = new double[nVar];
-      double[] temp;
-      for (int i = 0; i < nSims; i++) {
-        final double[] z = getNormals();
-        temp = runPath(z);
-        for (int j = 0; j < N_SIM_VARIABLES; j++) {
-          res[j] += temp[j];
-        }
+      for (int j = 0; j < N_SIM_VARIABLES; j++) {
+        res[j] = stats[j].getMean();
         if (calErrors) {
-          for (int j = 0; j < N_SIM_VARIABLES; j++) {
-            res[j + N_SIM_VARIABLES] += temp[j] * temp[j];
-          }
+          res[j + N_SIM_VARIABLES] = stats[j].getStandardError() * stats[j].getStandardError();
         }
+      }
+      return res;
+    }
+
+    /**
+     * Runs simulations and adds the simulated variables to the statistics, one path at a time (algorithm of Welford).
+     * @param nSims The number of simulations
+     * @param useAntithetics true if antithetic variables are to be used
+     * @param generator The generator of the normal variables, null if the distribution is used
+     * @param buffers The buffers of the paths
+     * @param stats The statistics of the variables
+     * @param samples The values of each simulation, filled if not null
+     * @param firstSim The index of the first simulation of the block in the samples
+     */
+    private void runBlock(final int nSims, final boolean useAntithetics, final RandomNumberGenerator generator, final PathBuffers buffers,
+        final MonteCarloStatistics[] stats, final double[][] samples, final int firstSim) {
+      final double[] z = buffers.getNormals();
+      final double[] temp = buffers.getValues();
+      final double weight = useAntithetics ? 0.5 : 1.0;
+      for (int i = 0; i < nSims; i++) {
+        getNormals(generator, buffers);
+        runPath(z, temp);
+        addPath(temp, stats, samples, firstSim + i, weight);
         if (useAntithetics) {
           for (int k = 0; k < _nSteps; k++) {
             z[k] *= -1.0;
           }
-          temp = runPath(z);
-          for (int j = 0; j < N_SIM_VARIABLES; j++) {
-            res[j] += temp[j];
-          }
-          if (calErrors) {
-            for (int j = 0; j < N_SIM_VARIABLES; j++) {
-              res[j + N_SIM_VARIABLES] += temp[j] * temp[j];
-            }
-          }
+          runPath(z, temp);
+          addPath(temp, stats, samples, firstSim + i, weight);
         }
       }
-      final int n = useAntithetics ? 2 * nSims : nSims;
+    }
+
+    /**
+     * Adds the simulated variables of a path to the statistics and, if required, to the samples of its simulation.
+     * @param values The simulated variables
+     * @param stats The statistics of the variables
+     * @param samples The values of each simulation, null if not required
+     * @param sim The index of the simulation
+     * @param weight The weight of the path in its simulation, one half with antithetic variables
+     */
+    private void addPath(final double[] values, final MonteCarloStatistics[] stats, final double[][] samples, final int sim, final double weight) {
       for (int j = 0; j < N_SIM_VARIABLES; j++) {
-        res[j] /= n;
+        stats[j].add(values[j], 1);
       }
-      if (calErrors) {
+      if (samples != null) {
         for (int j = 0; j < N_SIM_VARIABLES; j++) {
-          res[j + N_SIM_VARIABLES] = (res[j + N_SIM_VARIABLES] - n * FunctionUtils.square(res[j])) / (n - 1) / n;
+          samples[j][sim] += weight * values[j];
         }
+        //the log-contract and the delta hedge replicating the variance
+        samples[N_SIM_VARIABLES][sim] += weight * 2 * (_logNoDivFwd - Math.log(values[0]) + values[N_SIM_VARIABLES]);
       }
-
-      return res;
     }
 
     /**
      * 
      * @param z Set of iid standard normal random variables 
-     * @return The final value of spot and the realized variance with and without dividends correction
+     * @param result The array filled with the final value of spot, the realized variance with and without dividends correction
+     * and the gains of the delta hedge of the log-contract, the sum of the returns of the total returns process over their expectations
      */
-    public double[] runPath(final double[] z) {
+    public void runPath(final double[] z, final double[] result) {
 
       double sOld = _spot; //previous value of stock
       double s = 0; //current value of stock
@@ -220,6 +381,7 @@ public class EquityVarianceSwapMonteCarloCalculator {
       double sTot = 0; //current value of total returns process
       double rv1 = 0.0; //Accumulator of realised variance (with correction made for dividends)
       double rv2 = 0.0; //Accumulator of realised variance (without correction made for dividends)
+      double hedge = 0.0; //Accumulator of the returns of the total returns process over their expectations
       double t = 0.0; //current time
       double vol; //value of local vol at start of step
       double mu; //The drift at start of step
@@ -236,6 +398,7 @@ public class EquityVarianceSwapMonteCarloCalculator {
           //this Euler step is exact if the volatility and drift are constant, otherwise it is subject to discretisation error
           ret = (mu - vol * vol / 2) * _dt + vol * _rootDt * z[tSteps];
           temp = Math.exp(ret);
+          hedge += temp - _growth[tSteps];
           s = sOld * temp;
           sTot = sTotOld * temp;
           temp = ret * ret;
@@ -252,6 +415,7 @@ public class EquityVarianceSwapMonteCarloCalculator {
         vol = _localVol.getVolatility(t, sOld);
         mu = _drift[tSteps];
         temp = Math.exp((mu - vol * vol / 2) * _dt + vol * _rootDt * z[tSteps]);
+        hedge += temp - _growth[tSteps];
         final double sm = sOld * temp; //the stock price immediately before the dividend payment 
         sTot = sTotOld * temp;
         s = sm * (1 - _dividends.getBeta(k)) - _dividends.getAlpha(k);
@@ -271,6 +435,7 @@ public class EquityVarianceSwapMonteCarloCalculator {
         mu = _drift[tSteps];
         ret = (mu - vol * vol / 2) * _dt + vol * _rootDt * z[tSteps]; //this Euler step will be subject to discretisation error
         temp = Math.exp(ret);
+        hedge += temp - _growth[tSteps];
         sTot = sTotOld * temp;
         s = sOld * temp;
         rv1 += ret * ret;
@@ -288,16 +453,38 @@ public class EquityVarianceSwapMonteCarloCalculator {
       rv1 *= biasCorr;
       rv2 *= biasCorr;
 
-      return new double[] {s, rv1, rv2 };
+      result[0] = s;
+      result[1] = rv1;
+      result[2] = rv2;
+      result[3] = hedge;
     }
 
+    /**
+     * Fills the buffer of normal variables of a path.
+     * @param generator The generator of the normal variables, null if the distribution is used
+     * @param buffers The buffers of the paths
+     */
     @SuppressWarnings("synthetic-access")
-    private double[] getNormals() {
-      final double[] z = new double[_nSteps];
+    private void getNormals(final RandomNumberGenerator generator, final PathBuffers buffers) {
+      final double[] z = buffers.getNormals();
+      if (generator != null) {
+        if (_bridge == null) {
+          generator.fill(z, 0, _nSteps);
+          return;
+        }
+        //the increments of the bridged path
+        final double[] w = buffers.getBrownianPath();
+        generator.fill(z, 0, _nSteps);
+        _bridge.path(z, w);
+        z[0] = w[0];
+        for (int i = 1; i < _nSteps; i++) {
+          z[i] = w[i] - w[i - 1];
+        }
+        return;
+      }
       for (int i = 0; i < _nSteps; i++) {
         z[i] = _norm.nextRandom();
       }
-      return z;
     }
 
   }
@@ -102,6 +102,45 @@ public class EquityVarianceSwapStaticReplication {
     return new double[] {rvCorrDivs, rvUncorrDivs };
   }
 
+  /**
+   * Computes the expected variance (<b>not</b> annualised) given by the log-contract alone, that is minus twice the expected log of the stock price at expiry
+   * over its forward without dividends, using the method of static replication from pure option prices obtained from the <b>pure</b> implied volatility surface.
+   * This is the expected variance without dividends, and the expectation of a simple function of the terminal stock price, used for example as control variate
+   * by {@link EquityVarianceSwapMonteCarloCalculator}.
+   * @param spot The current level of the stock or index
+   * @param discountCurve The risk free interest rate curve
+   * @param dividends The dividends structure
+   * @param expiry The expiry of the variance swap
+   * @param volSurface A <b>pure</b> implied volatility surface
+   * @return The expected variance of the log-contract (<b>not</b> annualised)
+   */
+  public double expectedLogContractVariance(final double spot, final YieldAndDiscountCurve discountCurve, final AffineDividends dividends, final double expiry,
+      final PureImpliedVolatilitySurface volSurface) {
+    final EquityDividendsCurvesBundle divCurves = new EquityDividendsCurvesBundle(spot, discountCurve, dividends);
+    final double logNoDivFwd = Math.log(spot) + discountCurve.getInterestRate(expiry) * expiry;
+    final double logContract = integrate(getLogPayoffIntegrand(expiry, volSurface, divCurves)) + Math.log(divCurves.getF(expiry));
+    return -2 * (logContract - logNoDivFwd);
+  }
+
+  /**
+   * Computes the expected variance (<b>not</b> annualised) given by the log-contract alone, that is minus twice the expected log of the stock price at expiry
+   * over its forward without dividends, using the method of static replication from option prices obtained from the implied volatility surface.
+   * @param spot The current level of the stock or index
+   * @param discountCurve The risk free interest rate curve
+   * @param dividends The dividends structure
+   * @param expiry The expiry of the variance swap
+   * @param volSurfaceStrike A implied volatility surface
+   * @return The expected variance of the log-contract (<b>not</b> annualised)
+   */
+  public double expectedLogContractVariance(final double spot, final YieldAndDiscountCurve discountCurve, final AffineDividends dividends, final double expiry,
+      final BlackVolatilitySurfaceStrike volSurfaceStrike) {
+    final EquityDividendsCurvesBundle divCurves = new EquityDividendsCurvesBundle(spot, discountCurve, dividends);
+    final BlackVolatilitySurfaceMoneyness volSurface = BlackVolatilitySurfaceConverter.toMoneynessSurface(volSurfaceStrike, new ForwardCurve(divCurves.getF()));
+    final double logNoDivFwd = Math.log(spot) + discountCurve.getInterestRate(expiry) * expiry;
+    final double logContract = integrate(getLogPayoffIntegrand(expiry, volSurface)) + Math.log(divCurves.getF(expiry));
+    return -2 * (logContract - logNoDivFwd);
+  }
+
   private double integrate(final Function1D<Double, Double> func) {
     final double put = INTEGRATOR.integrate(func, 0.0, 1.0);
     final double call = INTEGRATOR.integrate(func, 1.0, 50.0); //TODO set upper limit from tolerance
@@ -6,18 +6,28 @@
 package com.opengamma.analytics.financial.equity.variance.pricing;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import cern.jet.random.engine.MersenneTwister64;
 import cern.jet.random.engine.RandomEngine;
 
 import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
 import com.opengamma.analytics.financial.model.volatility.local.PureLocalVolatilitySurface;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloBlockRunner;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloBlockRunner.PathBuffers;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloStatistics;
 import com.opengamma.analytics.math.FunctionUtils;
+import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.math.random.RandomNumberStreams;
 import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
 import com.opengamma.strata.collect.ArgChecker;
 
 /**
  * Monte Carlo calculator to price a variance swap in the presence of discrete dividends. <p>
+ * With {@link RandomNumberStreams}, the paths are simulated by blocks, the block of index b drawing its normal variables from
+ * the stream b, and the blocks can be computed in parallel on a {@link ForkJoinPool}, each worker reusing its step buffers.
+ * The moments of each block are accumulated by the algorithm of Welford and the blocks are merged in order, so that the
+ * results do not depend on the pool.<p>
  * <b>Note</b> this is primarily to test other numerical methods 
  */
 public class VarianceSwapPureMonteCarloCalculator {
@@ -30,8 +40,10 @@ public class VarianceSwapPureMonteCarloCalculator {
   private final boolean _useAntithetics;
   /** Whether to calculate the variance of the result */
   private final boolean _calculateVariance;
-  /** Provides normally-distributed random numbers */
+  /** Provides normally-distributed random numbers, null if streams are used */
   private final NormalDistribution _norm;
+  /** Runs the blocks of paths drawing their normally-distributed random numbers from streams, null if the distribution is used */
+  private final MonteCarloBlockRunner _blocks;
 
   /**
    * Constructor taking a seed for the random number generator. The calculator is set up to use antithetic variables
@@ -43,6 +55,7 @@ public class VarianceSwapPureMonteCarloCalculator {
     _calculateVariance = true;
     final RandomEngine random = new MersenneTwister64(seed);
     _norm = new NormalDistribution(0, 1.0, random);
+    _blocks = null;
   }
 
   /**
@@ -55,6 +68,24 @@ public class VarianceSwapPureMonteCarloCalculator {
     _calculateVariance = calculateVariance;
     final RandomEngine random = new MersenneTwister64(seed);
     _norm = new NormalDistribution(0, 1.0, random);
+    _blocks = null;
+  }
+
+  /**
+   * @param streams The streams of normal variables, one vector with one variable per day is drawn for each path, the block of
+   * simulations of index b using the stream b, not null
+   * @param blockSize The number of simulations of a block, positive
+   * @param useAntithetics true if antithetic variables are to be used
+   * @param calculateVariance true if the variance of the result is to be calculated
+   * @param pool The pool on which the blocks are computed, null for a sequential computation
+   */
+  public VarianceSwapPureMonteCarloCalculator(final RandomNumberStreams streams, final int blockSize, final boolean useAntithetics,
+      final boolean calculateVariance, final ForkJoinPool pool) {
+    ArgChecker.notNull(streams, "null streams");
+    _useAntithetics = useAntithetics;
+    _calculateVariance = calculateVariance;
+    _norm = null;
+    _blocks = new MonteCarloBlockRunner(streams, blockSize, pool);
   }
 
   /**
@@ -170,54 +201,62 @@ public class VarianceSwapPureMonteCarloCalculator {
 
     public double[] runMC(final int nSims, final boolean useAntithetics, final boolean calErrors) {
 
+      final MonteCarloStatistics[] stats;
+      if (_blocks == null) {
+        stats = MonteCarloBlockRunner.newStatistics(N_SIM_VARIABLES);
+        runBlock(nSims, useAntithetics, null, new PathBuffers(_nSteps, N_SIM_VARIABLES), stats);
+      } else {
+        stats = _blocks.run(nSims, N_SIM_VARIABLES, _nSteps, N_SIM_VARIABLES,
+            (nSimsBlock, generator, buffers, blockStats, firstSim) -> runBlock(nSimsBlock, useAntithetics, generator, buffers, blockStats));
+      }
+
       final int nVar = calErrors ? 2 * N_SIM_VARIABLES : N_SIM_VARIABLES;
       final double[] res = new double[nVar];
-      double[] temp;
+      for (int j = 0; j < N_SIM_VARIABLES; j++) {
+        res[j] = stats[j].getMean();
+        if (calErrors) {
+          res[j + N_SIM_VARIABLES] = stats[j].getStandardError() * stats[j].getStandardError();
+        }
+      }
+      return res;
+    }
+
+    /**
+     * Runs simulations and adds the simulated variables to the statistics, one path at a time (algorithm of Welford).
+     * @param nSims The number of simulations
+     * @param useAntithetics true if antithetic variables are to be used
+     * @param generator The generator of the normal variables, null if the distribution is used
+     * @param buffers The buffers of the paths
+     * @param stats The statistics of the variables
+     */
+    private void runBlock(final int nSims, final boolean useAntithetics, final RandomNumberGenerator generator, final PathBuffers buffers,
+        final MonteCarloStatistics[] stats) {
+      final double[] z = buffers.getNormals();
+      final double[] temp = buffers.getValues();
       for (int i = 0; i < nSims; i++) {
-        final double[] z = getNormals();
-        temp = runPath(z);
+        getNormals(generator, buffers);
+        runPath(z, temp);
         for (int j = 0; j < N_SIM_VARIABLES; j++) {
-          res[j] += temp[j];
-        }
-        if (calErrors) {
-          for (int j = 0; j < N_SIM_VARIABLES; j++) {
-            res[j + N_SIM_VARIABLES] += temp[j] * temp[j];
-          }
+          stats[j].add(temp[j], 1);
         }
         if (useAntithetics) {
           for (int k = 0; k < _nSteps; k++) {
             z[k] *= -1.0;
           }
-          temp = runPath(z);
+          runPath(z, temp);
           for (int j = 0; j < N_SIM_VARIABLES; j++) {
-            res[j] += temp[j];
-          }
-          if (calErrors) {
-            for (int j = 0; j < N_SIM_VARIABLES; j++) {
-              res[j + N_SIM_VARIABLES] += temp[j] * temp[j];
-            }
+            stats[j].add(temp[j], 1);
           }
         }
       }
-      final int n = useAntithetics ? 2 * nSims : nSims;
-      for (int j = 0; j < N_SIM_VARIABLES; j++) {
-        res[j] /= n;
-      }
-      if (calErrors) {
-        for (int j = 0; j < N_SIM_VARIABLES; j++) {
-          res[j + N_SIM_VARIABLES] = (res[j + N_SIM_VARIABLES] - n * FunctionUtils.square(res[j])) / (n - 1) / n;
-        }
-      }
-
-      return res;
     }
 
     /**
      * 
      * @param z Set of iid standard normal random variables 
-     * @return The final value of spot and the realized variance with and without dividends correction
+     * @param result The array filled with the final value of spot and the realized variance with and without dividends correction
      */
-    public double[] runPath(final double[] z) {
+    public void runPath(final double[] z, final double[] result) {
 
       double xOld = 1.0; //previous value of pure stock
       double x = 0; //current value of pure stock
@@ -293,16 +332,26 @@ public class VarianceSwapPureMonteCarloCalculator {
       rv1 *= biasCorr;
       rv2 *= biasCorr;
 
-      return new double[] {s, rv1, rv2 };
+      result[0] = s;
+      result[1] = rv1;
+      result[2] = rv2;
     }
 
+    /**
+     * Fills the buffer of normal variables of a path.
+     * @param generator The generator of the normal variables, null if the distribution is used
+     * @param buffers The buffers of the paths
+     */
     @SuppressWarnings("synthetic-access")
-    private double[] getNormals() {
-      final double[] z = new double[_nSteps];
+    private void getNormals(final RandomNumberGenerator generator, final PathBuffers buffers) {
+      final double[] z = buffers.getNormals();
+      if (generator != null) {
+        generator.fill(z, 0, _nSteps);
+        return;
+      }
       for (int i = 0; i < _nSteps; i++) {
         z[i] = _norm.nextRandom();
       }
-      return z;
     }
 
   }
@@ -5,9 +5,13 @@
  */
 package com.opengamma.analytics.financial.interestrate.annuity.provider;
 
+import com.opengamma.analytics.financial.instrument.index.IborIndex;
+import com.opengamma.analytics.financial.interestrate.annuity.derivative.Annuity;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityCouponFixed;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponFixed;
-import com.opengamma.analytics.financial.interestrate.payments.provider.CouponFixedDiscountingMethod;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIbor;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.Payment;
+import com.opengamma.analytics.financial.interestrate.payments.provider.CouponIborDiscountingMethod;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
@@ -40,10 +44,12 @@ public final class AnnuityDiscountingMethod {
   /**
    * Methods.
    */
-  private static final CouponFixedDiscountingMethod METHOD_CPN_FIXED = CouponFixedDiscountingMethod.getInstance();
+  private static final CouponIborDiscountingMethod METHOD_CPN_IBOR = CouponIborDiscountingMethod.getInstance();
 
   /**
    * Computes the present value of an annuity of fixed coupons.
+   * <p>
+   * The discount factors of all the coupons are obtained in one call to the provider.
    * @param annuity The annuity.
    * @param multicurves The multi-curves provider.
    * @return The present value.
@@ -51,15 +57,19 @@ public final class AnnuityDiscountingMethod {
   public MultiCurrencyAmount presentValue(final AnnuityCouponFixed annuity, final MulticurveProviderInterface multicurves) {
     ArgChecker.notNull(annuity, "Annuity");
     ArgChecker.notNull(multicurves, "Multi-curves provider");
-    MultiCurrencyAmount pv = MultiCurrencyAmount.of(annuity.getCurrency(), 0);
-    for (final CouponFixed cpn : annuity.getPayments()) {
-      pv = pv.plus(METHOD_CPN_FIXED.presentValue(cpn, multicurves));
+    final CouponFixed[] payments = annuity.getPayments();
+    final double[] df = multicurves.getDiscountFactors(annuity.getCurrency(), paymentTimes(annuity));
+    double pv = 0.0;
+    for (int loopcpn = 0; loopcpn < payments.length; loopcpn++) {
+      pv += payments[loopcpn].getAmount() * df[loopcpn];
     }
-    return pv;
+    return MultiCurrencyAmount.of(annuity.getCurrency(), pv);
   }
 
   /**
    * Computes the present value of an annuity of fixed coupons with positive notional (abs(notional) is used for each coupon).
+   * <p>
+   * The discount factors of all the coupons are obtained in one call to the provider.
    * @param annuity The annuity.
    * @param multicurves The multi-curves provider.
    * @return The present value.
@@ -67,11 +77,63 @@ public final class AnnuityDiscountingMethod {
   public CurrencyAmount presentValuePositiveNotional(final AnnuityCouponFixed annuity, final MulticurveProviderInterface multicurves) {
     ArgChecker.notNull(annuity, "Annuity");
     ArgChecker.notNull(multicurves, "Multi-curves provider");
-    CurrencyAmount pv = CurrencyAmount.of(annuity.getCurrency(), 0);
-    for (final CouponFixed cpn : annuity.getPayments()) {
-      pv = pv.plus(METHOD_CPN_FIXED.presentValuePositiveNotional(cpn, multicurves));
+    final CouponFixed[] payments = annuity.getPayments();
+    final double[] df = multicurves.getDiscountFactors(annuity.getCurrency(), paymentTimes(annuity));
+    double pv = 0.0;
+    for (int loopcpn = 0; loopcpn < payments.length; loopcpn++) {
+      final CouponFixed cpn = payments[loopcpn];
+      pv += cpn.getPaymentYearFraction() * Math.abs(cpn.getNotional()) * cpn.getFixedRate() * df[loopcpn];
     }
-    return pv;
+    return CurrencyAmount.of(annuity.getCurrency(), pv);
+  }
+
+  /**
+   * Computes the present value of an annuity of Ibor coupons by discounting.
+   * <p>
+   * When all the coupons are on the same index, the forward rates and the discount factors of all the coupons are
+   * obtained in one call each to the provider. Otherwise each coupon is priced separately.
+   * @param annuity The annuity.
+   * @param multicurves The multi-curves provider.
+   * @return The present value.
+   */
+  public MultiCurrencyAmount presentValueCouponIbor(final Annuity<CouponIbor> annuity, final MulticurveProviderInterface multicurves) {
+    ArgChecker.notNull(annuity, "Annuity");
+    ArgChecker.notNull(multicurves, "Multi-curves provider");
+    final int nbCpn = annuity.getNumberOfPayments();
+    final IborIndex index = annuity.getNthPayment(0).getIndex();
+    final double[] startTimes = new double[nbCpn];
+    final double[] endTimes = new double[nbCpn];
+    final double[] accrualFactors = new double[nbCpn];
+    for (int loopcpn = 0; loopcpn < nbCpn; loopcpn++) {
+      final CouponIbor cpn = annuity.getNthPayment(loopcpn);
+      if (!index.equals(cpn.getIndex())) {
+        MultiCurrencyAmount pv = MultiCurrencyAmount.of(annuity.getCurrency(), 0);
+        for (int loopcpn2 = 0; loopcpn2 < nbCpn; loopcpn2++) {
+          pv = pv.plus(METHOD_CPN_IBOR.presentValue(annuity.getNthPayment(loopcpn2), multicurves));
+        }
+        return pv;
+      }
+      startTimes[loopcpn] = cpn.getFixingPeriodStartTime();
+      endTimes[loopcpn] = cpn.getFixingPeriodEndTime();
+      accrualFactors[loopcpn] = cpn.getFixingAccrualFactor();
+    }
+    final double[] forward = multicurves.getSimplyCompoundForwardRates(index, startTimes, endTimes, accrualFactors);
+    final double[] df = multicurves.getDiscountFactors(annuity.getCurrency(), paymentTimes(annuity));
+    double pv = 0.0;
+    for (int loopcpn = 0; loopcpn < nbCpn; loopcpn++) {
+      final CouponIbor cpn = annuity.getNthPayment(loopcpn);
+      pv += cpn.getNotional() * cpn.getPaymentYearFraction() * forward[loopcpn] * df[loopcpn];
+    }
+    return MultiCurrencyAmount.of(annuity.getCurrency(), pv);
+  }
+
+  private static double[] paymentTimes(final Annuity<? extends Payment> annuity) {
+    final int nbPayments = annuity.getNumberOfPayments();
+    final double[] paymentTimes = new double[nbPayments];
+    for (int loopcpn = 0; loopcpn < nbPayments; loopcpn++) {
+      paymentTimes[loopcpn] = annuity.getNthPayment(loopcpn).getPaymentTime();
+    }
+    return paymentTimes;
   }
 
 }
@@ -12,6 +12,7 @@ import java.util.Map;
 
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponFixed;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurvePointSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurveSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
@@ -89,4 +90,17 @@ public final class CouponFixedDiscountingMethod {
     return result;
   }
 
+  /**
+   * Computes the present value curve sensitivity of a fixed coupon by discounting and adds it to a point sensitivity.
+   * @param cpn The coupon.
+   * @param multicurve The multi-curve provider.
+   * @param sensitivity The point sensitivity to which the coupon sensitivity is added.
+   */
+  public void presentValueCurveSensitivity(final CouponFixed cpn, final MulticurveProviderInterface multicurve,
+      final MulticurvePointSensitivity sensitivity) {
+    final double time = cpn.getPaymentTime();
+    sensitivity.addDiscounting(multicurve.getName(cpn.getCurrency()), cpn.getCurrency(), time,
+        -time * cpn.getAmount() * multicurve.getDiscountFactor(cpn.getCurrency(), time));
+  }
+
 }
@@ -14,6 +14,7 @@ import com.opengamma.analytics.financial.instrument.index.IborIndex;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIbor;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.ForwardSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurvePointSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurveSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.SimplyCompoundedForwardSensitivity;
@@ -99,6 +100,28 @@ public final class CouponIborDiscountingMethod {
     return MultipleCurrencyMulticurveSensitivity.of(coupon.getCurrency(), MulticurveSensitivity.of(mapDsc, mapFwd));
   }
 
+  /**
+   * Compute the present value sensitivity to yield for discounting curve and forward rate (in index convention) for forward curve
+   * and adds it to a point sensitivity.
+   * @param coupon The coupon.
+   * @param multicurve The multi-curve provider.
+   * @param sensitivity The point sensitivity to which the coupon sensitivity is added.
+   */
+  public void presentValueCurveSensitivity(final CouponIbor coupon, final MulticurveProviderInterface multicurve,
+      final MulticurvePointSensitivity sensitivity) {
+    ArgChecker.notNull(coupon, "Coupon");
+    ArgChecker.notNull(multicurve, "Curves");
+    final double forward = multicurve.getSimplyCompoundForwardRate(coupon.getIndex(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(), coupon.getFixingAccrualFactor());
+    final double df = multicurve.getDiscountFactor(coupon.getCurrency(), coupon.getPaymentTime());
+    // Backward sweep
+    final double pvBar = 1.0;
+    final double forwardBar = coupon.getNotional() * coupon.getPaymentYearFraction() * df * pvBar;
+    final double dfBar = coupon.getNotional() * coupon.getPaymentYearFraction() * forward * pvBar;
+    sensitivity.addDiscounting(multicurve.getName(coupon.getCurrency()), coupon.getCurrency(), coupon.getPaymentTime(), -coupon.getPaymentTime() * df * dfBar);
+    sensitivity.addForward(multicurve.getName(coupon.getIndex()), coupon.getCurrency(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(),
+        coupon.getFixingAccrualFactor(), forwardBar);
+  }
+
   public MultipleCurrencyMulticurveSensitivity presentValueSecondOrderCurveSensitivity(final CouponIbor coupon, final MulticurveProviderInterface multicurve) {
     ArgChecker.notNull(coupon, "Coupon");
     ArgChecker.notNull(multicurve, "Curves");
@@ -14,6 +14,7 @@ import com.opengamma.analytics.financial.instrument.index.IborIndex;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIborSpread;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.ForwardSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurvePointSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurveSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.SimplyCompoundedForwardSensitivity;
@@ -123,4 +124,25 @@ public final class CouponIborSpreadDiscountingMethod {
     return result;
   }
 
+  /**
+   * Compute the present value sensitivity to rates of a Ibor coupon by discounting and adds it to a point sensitivity.
+   * @param coupon The coupon.
+   * @param multicurves The multi-curve provider.
+   * @param sensitivity The point sensitivity to which the coupon sensitivity is added.
+   */
+  public void presentValueCurveSensitivity(final CouponIborSpread coupon, final MulticurveProviderInterface multicurves,
+      final MulticurvePointSensitivity sensitivity) {
+    ArgChecker.notNull(coupon, "Coupon");
+    ArgChecker.notNull(multicurves, "Multi-curves");
+    final double forward = multicurves.getSimplyCompoundForwardRate(coupon.getIndex(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(), coupon.getFixingAccrualFactor());
+    final double df = multicurves.getDiscountFactor(coupon.getCurrency(), coupon.getPaymentTime());
+    // Backward sweep
+    final double pvBar = 1.0;
+    final double forwardBar = coupon.getNotional() * coupon.getPaymentYearFraction() * df * pvBar;
+    final double dfBar = (coupon.getNotional() * coupon.getPaymentYearFraction() * forward + coupon.getSpreadAmount()) * pvBar;
+    sensitivity.addDiscounting(multicurves.getName(coupon.getCurrency()), coupon.getCurrency(), coupon.getPaymentTime(), -coupon.getPaymentTime() * df * dfBar);
+    sensitivity.addForward(multicurves.getName(coupon.getIndex()), coupon.getCurrency(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(),
+        coupon.getFixingAccrualFactor(), forwardBar);
+  }
+
 }
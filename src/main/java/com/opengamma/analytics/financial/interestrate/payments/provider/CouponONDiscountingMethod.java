@@ -14,6 +14,7 @@ import com.opengamma.analytics.financial.instrument.index.IndexON;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponON;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.ForwardSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurvePointSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurveSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.SimplyCompoundedForwardSensitivity;
@@ -105,6 +106,29 @@ public final class CouponONDiscountingMethod {
     return result;
   }
 
+  /**
+   * Computes the present value curve sensitivity of an overnight coupon by discounting and adds it to a point sensitivity.
+   * @param coupon The coupon.
+   * @param multicurve The multi-curve provider.
+   * @param sensitivity The point sensitivity to which the coupon sensitivity is added.
+   */
+  public void presentValueCurveSensitivity(final CouponON coupon, final MulticurveProviderInterface multicurve,
+      final MulticurvePointSensitivity sensitivity) {
+    ArgChecker.notNull(coupon, "Coupon");
+    ArgChecker.notNull(multicurve, "Multi-curves");
+    final double df = multicurve.getDiscountFactor(coupon.getCurrency(), coupon.getPaymentTime());
+    final double forward = multicurve.getSimplyCompoundForwardRate(coupon.getIndex(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(), coupon.getFixingPeriodAccrualFactor());
+    final double ratio = 1.0 + coupon.getFixingPeriodAccrualFactor() * forward;
+    // Backward sweep
+    final double pvBar = 1.0;
+    final double ratioBar = coupon.getNotionalAccrued() * df * pvBar;
+    final double forwardBar = coupon.getFixingPeriodAccrualFactor() * ratioBar;
+    final double dfBar = (coupon.getNotionalAccrued() * ratio - coupon.getNotional()) * pvBar;
+    sensitivity.addDiscounting(multicurve.getName(coupon.getCurrency()), coupon.getCurrency(), coupon.getPaymentTime(), -coupon.getPaymentTime() * df * dfBar);
+    sensitivity.addForward(multicurve.getName(coupon.getIndex()), coupon.getCurrency(), coupon.getFixingPeriodStartTime(), coupon.getFixingPeriodEndTime(),
+        coupon.getFixingPeriodAccrualFactor(), forwardBar);
+  }
+
   /**
    * Computes the par rate, i.e. the fair rate for the remaining period.
    * @param coupon The coupon.
@@ -12,6 +12,7 @@ import java.util.Map;
 
 import com.opengamma.analytics.financial.interestrate.payments.derivative.PaymentFixed;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurvePointSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurveSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
 import com.opengamma.analytics.util.amount.StringAmount;
@@ -72,6 +73,19 @@ public final class PaymentFixedDiscountingMethod {
     return MultipleCurrencyMulticurveSensitivity.of(payment.getCurrency(), MulticurveSensitivity.ofYieldDiscounting(result));
   }
 
+  /**
+   * Computes the present value curve sensitivity of a fixed payment by discounting and adds it to a point sensitivity.
+   * @param payment The fixed payment.
+   * @param multicurves The multi-curve provider.
+   * @param sensitivity The point sensitivity to which the payment sensitivity is added.
+   */
+  public void presentValueCurveSensitivity(final PaymentFixed payment, final MulticurveProviderInterface multicurves,
+      final MulticurvePointSensitivity sensitivity) {
+    final double time = payment.getPaymentTime();
+    sensitivity.addDiscounting(multicurves.getName(payment.getCurrency()), payment.getCurrency(), time,
+        -time * payment.getAmount() * multicurves.getDiscountFactor(payment.getCurrency(), time));
+  }
+
   /**
    * Compute the the present value curve sensitivity of a fixed payment by discounting to a parallel curve movement.
    * @param payment The payment.
@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.finitedifference;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.opengamma.analytics.util.ForkJoinUtils;
+
+/**
+ * The system of one grid line in a step of the alternating direction (ADI) 2D solvers, solved by SOR.
+ * <p>
+ * The interior rows are tri-diagonal and only their three diagonals are stored. The first and last rows are the left matrix
+ * conditions of the lower and upper boundaries. The lines of a step are independent and can be solved concurrently, by
+ * contiguous blocks of lines, each block with its own system.
+ */
+final class ADILineSystem {
+
+  private final int _steps;
+  private final double[] _lower;
+  private final double[] _diag;
+  private final double[] _upper;
+  private final double[] _rhs;
+  private double[] _lowerBoundary;
+  private double[] _upperBoundary;
+
+  /**
+   * Constructor.
+   * @param steps The number of steps of the line; the system has steps + 1 rows
+   */
+  ADILineSystem(final int steps) {
+    _steps = steps;
+    _lower = new double[steps + 1];
+    _diag = new double[steps + 1];
+    _upper = new double[steps + 1];
+    _rhs = new double[steps + 1];
+  }
+
+  /**
+   * Sets an interior row.
+   * @param l The row, between 1 and steps - 1
+   * @param lower The coefficient of the node l - 1
+   * @param diag The coefficient of the node l
+   * @param upper The coefficient of the node l + 1
+   * @param rhs The right hand side
+   */
+  void setRow(final int l, final double lower, final double diag, final double upper, final double rhs) {
+    _lower[l] = lower;
+    _diag[l] = diag;
+    _upper[l] = upper;
+    _rhs[l] = rhs;
+  }
+
+  /**
+   * Sets the first row, the left matrix condition of the lower boundary; the coefficient k applies to the node k.
+   * @param condition The condition
+   * @param rhs The right hand side
+   */
+  void setLowerBoundary(final double[] condition, final double rhs) {
+    _lowerBoundary = condition;
+    _rhs[0] = rhs;
+  }
+
+  /**
+   * Sets the last row, the left matrix condition of the upper boundary; the coefficient k applies to the node steps - k.
+   * @param condition The condition
+   * @param rhs The right hand side
+   */
+  void setUpperBoundary(final double[] condition, final double rhs) {
+    _upperBoundary = condition;
+    _rhs[_steps] = rhs;
+  }
+
+  /**
+   * Sets the first and last rows of the system of a line in x from the boundary conditions; the right hand sides use the
+   * values on the line.
+   * @param values The values, by x and y
+   * @param j The index of the line in y
+   * @param t The time
+   * @param y The level of the line
+   * @param dx The step in x
+   * @param xLowerBoundary The lower boundary condition
+   * @param xUpperBoundary The upper boundary condition
+   */
+  void setBoundariesInX(final double[][] values, final int j, final double t, final double y, final double dx,
+      final BoundaryCondition2D xLowerBoundary, final BoundaryCondition2D xUpperBoundary) {
+    double[] temp = xLowerBoundary.getRightMatrixCondition(t, y);
+    double sum = 0;
+    for (int k = 0; k < temp.length; k++) {
+      sum += temp[k] * values[k][j];
+    }
+    setLowerBoundary(xLowerBoundary.getLeftMatrixCondition(t, y), sum + xLowerBoundary.getConstant(t, y, dx));
+
+    temp = xUpperBoundary.getRightMatrixCondition(t, y);
+    sum = 0;
+    for (int k = 0; k < temp.length; k++) {
+      sum += temp[k] * values[_steps - k][j];
+    }
+    setUpperBoundary(xUpperBoundary.getLeftMatrixCondition(t, y), sum + xUpperBoundary.getConstant(t, y, dx));
+  }
+
+  /**
+   * Sets the first and last rows of the system of a line in y from the boundary conditions; the right hand sides use the
+   * values on the line.
+   * @param values The values on the line
+   * @param t The time
+   * @param x The level of the line
+   * @param dy The step in y
+   * @param yLowerBoundary The lower boundary condition
+   * @param yUpperBoundary The upper boundary condition
+   */
+  void setBoundariesInY(final double[] values, final double t, final double x, final double dy,
+      final BoundaryCondition2D yLowerBoundary, final BoundaryCondition2D yUpperBoundary) {
+    double[] temp = yLowerBoundary.getRightMatrixCondition(t, x);
+    double sum = 0;
+    for (int k = 0; k < temp.length; k++) {
+      sum += temp[k] * values[k];
+    }
+    setLowerBoundary(yLowerBoundary.getLeftMatrixCondition(t, x), sum + yLowerBoundary.getConstant(t, x, dy));
+
+    temp = yUpperBoundary.getRightMatrixCondition(t, x);
+    sum = 0;
+    for (int k = 0; k < temp.length; k++) {
+      sum += temp[k] * values[_steps - k];
+    }
+    setUpperBoundary(yUpperBoundary.getLeftMatrixCondition(t, x), sum + yUpperBoundary.getConstant(t, x, dy));
+  }
+
+  /**
+   * Solves the system by SOR.
+   * @param v The values of the line, the initial guess on input and the solution on output
+   * @param omega The relaxation parameter
+   * @param maxIterations The maximal number of iterations
+   * @return The number of iterations
+   */
+  int solve(final double[] v, final double omega, final int maxIterations) {
+    double scale = 1.0;
+    double errorSqr = Double.POSITIVE_INFINITY;
+    int count = 0;
+    while (errorSqr / (scale + 1e-10) > 1e-18 && count < maxIterations) {
+      errorSqr = 0.0;
+      scale = 0.0;
+      for (int l = 0; l <= _steps; l++) {
+        double sum = 0;
+        final double diag;
+        if (l == 0) {
+          for (int k = 0; k < _lowerBoundary.length; k++) {
+            sum += _lowerBoundary[k] * v[k];
+          }
+          diag = _lowerBoundary[0];
+        } else if (l == _steps) {
+          for (int k = _steps - _upperBoundary.length + 1; k <= _steps; k++) {
+            sum += _upperBoundary[_steps - k] * v[k];
+          }
+          diag = _upperBoundary[0];
+        } else {
+          sum += _lower[l] * v[l - 1];
+          sum += _diag[l] * v[l];
+          sum += _upper[l] * v[l + 1];
+          diag = _diag[l];
+        }
+        final double correction = omega / diag * (_rhs[l] - sum);
+        errorSqr += correction * correction;
+        v[l] += correction;
+        scale += v[l] * v[l];
+      }
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * A contiguous block of lines.
+   */
+  interface LineBlock {
+
+    /**
+     * Solves the lines of the block.
+     * @param block The index of the block, smaller than the number of blocks
+     * @param start The first line
+     * @param end The end line, exclusive
+     */
+    void solve(int block, int start, int end);
+  }
+
+  /**
+   * Gets the number of blocks of lines for a pool.
+   * @param pool The pool, null for a sequential computation
+   * @return The number of blocks
+   */
+  static int numberOfBlocks(final ForkJoinPool pool) {
+    return pool == null ? 1 : Math.max(1, pool.getParallelism());
+  }
+
+  /**
+   * Solves independent lines by contiguous blocks, on a pool.
+   * @param pool The pool, null for a sequential computation
+   * @param nbBlock The maximal number of blocks
+   * @param start The first line
+   * @param end The end line, exclusive
+   * @param block The solver of a block
+   */
+  static void sweep(final ForkJoinPool pool, final int nbBlock, final int start, final int end, final LineBlock block) {
+    final int nbLine = end - start;
+    final int nb = Math.min(nbBlock, nbLine);
+    if (pool == null || nb <= 1) {
+      block.solve(0, start, end);
+      return;
+    }
+    ForkJoinUtils.forEachIndex(pool, nb,
+        loopblock -> block.solve(loopblock, start + (int) ((long) nbLine * loopblock / nb), start + (int) ((long) nbLine * (loopblock + 1) / nb)));
+  }
+
+}
@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.financial.model.finitedifference;
 
+import java.util.concurrent.ForkJoinPool;
+
 import com.opengamma.analytics.math.cube.Cube;
 import com.opengamma.strata.collect.ArgChecker;
 
@@ -19,6 +21,26 @@ public class CraigSneydFiniteDifference2D implements ConvectionDiffusionPDESolve
   // Theta = 0 - explicit
   private static final double THETA = 0.5;
 
+  /**
+   * The pool on which the independent lines of each step are computed, null for a sequential computation.
+   */
+  private final ForkJoinPool _pool;
+
+  /**
+   * Constructor for a sequential computation.
+   */
+  public CraigSneydFiniteDifference2D() {
+    this(null);
+  }
+
+  /**
+   * Constructor.
+   * @param pool The pool on which the independent lines of each step are computed, null for a sequential computation
+   */
+  public CraigSneydFiniteDifference2D(final ForkJoinPool pool) {
+    _pool = pool;
+  }
+
   @Override
   public double[][] solve(final ConvectionDiffusion2DPDEDataBundle pdeData, final int tSteps, final int xSteps, final int ySteps, final double tMax, final BoundaryCondition2D xLowerBoundary,
       final BoundaryCondition2D xUpperBoundary, final BoundaryCondition2D yLowerBoundary, final BoundaryCondition2D yUpperBoundary) {
@@ -44,203 +66,122 @@ public class CraigSneydFiniteDifference2D implements ConvectionDiffusionPDESolve
     final double[] x = new double[xSteps + 1];
     final double[] y = new double[ySteps + 1];
 
-    final double[] q = new double[xSteps + 1];
-    final double[] r = new double[ySteps + 1];
-    final double[][] mx = new double[xSteps + 1][xSteps + 1];
-    final double[][] my = new double[ySteps + 1][ySteps + 1];
+    // one line system and one column buffer for each block of lines
+    final int nbBlock = ADILineSystem.numberOfBlocks(_pool);
+    final ADILineSystem[] xSystems = new ADILineSystem[nbBlock];
+    final ADILineSystem[] ySystems = new ADILineSystem[nbBlock];
+    final double[][] columns = new double[nbBlock][xSteps + 1];
+    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
+      xSystems[loopblock] = new ADILineSystem(xSteps);
+      ySystems[loopblock] = new ADILineSystem(ySteps);
+    }
     initializeMatrices(pdeData, xSteps, ySteps, xLowerBoundary, yLowerBoundary, dx, dy, v, x, y);
 
     double t = 0.0;
-    double a, b, c, d, e, f;
 
     for (int n = 0; n < tSteps; n++) {
 
       // stag 1 full Explicit
-      for (int i = 1; i < xSteps; i++) {
-        for (int j = 1; j < ySteps; j++) {
-          a = pdeData.getA(t, x[i], y[j]);
-          b = pdeData.getB(t, x[i], y[j]);
-          c = pdeData.getC(t, x[i], y[j]);
-          d = pdeData.getD(t, x[i], y[j]);
-          e = pdeData.getE(t, x[i], y[j]);
-          f = pdeData.getF(t, x[i], y[j]);
-
-          vt[i][j] = (1 - dt * (1 - 0.5 * THETA) * c) * v[i][j];
-          vt[i][j] -= dtdx2 * a * (1 - THETA) * (v[i + 1][j] + v[i - 1][j] - 2 * v[i][j]);
-          vt[i][j] -= 0.5 * dtdx * b * (1 - THETA) * (v[i + 1][j] - v[i - 1][j]);
-          vt[i][j] -= dtdy2 * d * (v[i][j + 1] + v[i][j - 1] - 2 * v[i][j]);
-          // upwind
-          vt[i][j] -= 0.5 * dtdy * f * (v[i][j + 1] - v[i][j - 1]);
-          vt[i][j] -= 0.25 * dtdxdy * e * (v[i + 1][j + 1] + v[i - 1][j - 1] - v[i + 1][j - 1] - v[i - 1][j + 1]);
-        }
+      final double t1 = t;
+      ADILineSystem.sweep(_pool, nbBlock, 1, xSteps, (block, start, end) -> {
+        for (int i = start; i < end; i++) {
+          for (int j = 1; j < ySteps; j++) {
+            final double a = pdeData.getA(t1, x[i], y[j]);
+            final double b = pdeData.getB(t1, x[i], y[j]);
+            final double c = pdeData.getC(t1, x[i], y[j]);
+            final double d = pdeData.getD(t1, x[i], y[j]);
+            final double e = pdeData.getE(t1, x[i], y[j]);
+            final double f = pdeData.getF(t1, x[i], y[j]);
+
+            vt[i][j] = (1 - dt * (1 - 0.5 * THETA) * c) * v[i][j];
+            vt[i][j] -= dtdx2 * a * (1 - THETA) * (v[i + 1][j] + v[i - 1][j] - 2 * v[i][j]);
+            vt[i][j] -= 0.5 * dtdx * b * (1 - THETA) * (v[i + 1][j] - v[i - 1][j]);
+            vt[i][j] -= dtdy2 * d * (v[i][j + 1] + v[i][j - 1] - 2 * v[i][j]);
+            // upwind
+            vt[i][j] -= 0.5 * dtdy * f * (v[i][j + 1] - v[i][j - 1]);
+            vt[i][j] -= 0.25 * dtdxdy * e * (v[i + 1][j + 1] + v[i - 1][j - 1] - v[i + 1][j - 1] - v[i - 1][j + 1]);
+          }
 
-        // really not sure what to do with boundary conditions in these intermediate steps
-        vt[i][0] = v[i][0];
-        vt[i][ySteps] = v[i][ySteps];
-      }
+          // really not sure what to do with boundary conditions in these intermediate steps
+          vt[i][0] = v[i][0];
+          vt[i][ySteps] = v[i][ySteps];
+        }
+      });
 
       // stag 2 implicit in x
       t += dt / 2;
-      for (int j = 0; j <= ySteps; j++) {
-        for (int i = 1; i < xSteps; i++) {
-          a = pdeData.getA(t, x[i], y[j]);
-          b = pdeData.getB(t, x[i], y[j]);
-          c = pdeData.getC(t, x[i], y[j]);
-
-          mx[i][i - 1] = THETA * (dtdx2 * a - 0.5 * dtdx * b);
-          mx[i][i] = 1 + THETA * (-2 * dtdx2 * a + 0.5 * dt * c);
-          mx[i][i + 1] = THETA * (dtdx2 * a + 0.5 * dtdx * b);
-
-          q[i] = vt[i][j];
-        }
-
-        double[] temp = xLowerBoundary.getLeftMatrixCondition(t, y[j]);
-        for (int k = 0; k < temp.length; k++) {
-          mx[0][k] = temp[k];
-        }
-        temp = xUpperBoundary.getLeftMatrixCondition(t, y[j]);
-        for (int k = 0; k < temp.length; k++) {
-          mx[xSteps][xSteps - k] = temp[k];
-        }
-
-        temp = xLowerBoundary.getRightMatrixCondition(t, y[j]);
-        double sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * v[k][j];
-        }
-        q[0] = sum + xLowerBoundary.getConstant(t, y[j], dx);
+      final double t2 = t;
+      ADILineSystem.sweep(_pool, nbBlock, 0, ySteps + 1, (block, start, end) -> {
+        final ADILineSystem mx = xSystems[block];
+        final double[] column = columns[block];
+        for (int j = start; j < end; j++) {
+          for (int i = 1; i < xSteps; i++) {
+            final double a = pdeData.getA(t2, x[i], y[j]);
+            final double b = pdeData.getB(t2, x[i], y[j]);
+            final double c = pdeData.getC(t2, x[i], y[j]);
+            mx.setRow(i, THETA * (dtdx2 * a - 0.5 * dtdx * b), 1 + THETA * (-2 * dtdx2 * a + 0.5 * dt * c), THETA * (dtdx2 * a + 0.5 * dtdx * b), vt[i][j]);
+          }
+          mx.setBoundariesInX(v, j, t2, y[j], dx, xLowerBoundary, xUpperBoundary);
 
-        temp = xUpperBoundary.getRightMatrixCondition(t, y[j]);
-        sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * v[xSteps - k][j];
+          // SOR
+          for (int i = 0; i <= xSteps; i++) {
+            column[i] = vt[i][j];
+          }
+          final int count = mx.solve(column, 1.5, 1000);
+          ArgChecker.isTrue(count < 1000, "SOR exceeded max iterations");
+          for (int i = 0; i <= xSteps; i++) {
+            vt[i][j] = column[i];
+          }
         }
-        q[xSteps] = sum + xUpperBoundary.getConstant(t, y[j], dx);
-
-        // SOR
-        final double omega = 1.5;
-        final int count = sor(xSteps, vt, q, mx, j, omega);
-        ArgChecker.isTrue(count < 1000, "SOR exceeded max iterations");
-      }
+      });
 
       // stag 3 explicit in y
-      for (int i = 0; i <= xSteps; i++) {
-        for (int j = 1; j < ySteps; j++) {
+      ADILineSystem.sweep(_pool, nbBlock, 0, xSteps + 1, (block, start, end) -> {
+        for (int i = start; i < end; i++) {
+          for (int j = 1; j < ySteps; j++) {
 
-          c = pdeData.getC(t, x[i], y[j]);
-          d = pdeData.getD(t, x[i], y[j]);
-          f = pdeData.getF(t, x[i], y[j]);
+            final double c = pdeData.getC(t2, x[i], y[j]);
+            final double d = pdeData.getD(t2, x[i], y[j]);
+            final double f = pdeData.getF(t2, x[i], y[j]);
 
-          vt[i][j] += THETA * 0.5 * dt * c * v[i][j];
-          vt[i][j] += THETA * dtdy2 * d * (v[i][j + 1] + v[i][j - 1] - 2 * v[i][j]);
+            vt[i][j] += THETA * 0.5 * dt * c * v[i][j];
+            vt[i][j] += THETA * dtdy2 * d * (v[i][j + 1] + v[i][j - 1] - 2 * v[i][j]);
 
-          // upwind
-          vt[i][j] += THETA * 0.5 * dtdy * f * (v[i][j + 1] - v[i][j - 1]);
+            // upwind
+            vt[i][j] += THETA * 0.5 * dtdy * f * (v[i][j + 1] - v[i][j - 1]);
+          }
         }
-
-      }
+      });
 
       // The y = 0 and y = yStep boundary values are assumed the same as the previous sub-step
       // Again we could apply the y boundary conditions here
 
       // stag 4 implicit in y
-      for (int i = 0; i <= xSteps; i++) {
-        for (int j = 1; j < ySteps; j++) {
-
-          c = pdeData.getC(t, x[i], y[j]);
-          d = pdeData.getD(t, x[i], y[j]);
-          f = pdeData.getF(t, x[i], y[j]);
-
-          // upwind
-          my[j][j - 1] = THETA * (dtdy2 * d - 0.5 * dtdy * f);
-          my[j][j] = 1 + THETA * (-2 * dtdy2 * d + 0.5 * dt * c);
-          my[j][j + 1] = THETA * (dtdy2 * d + 0.5 * dtdy * f);
-
-          r[j] = vt[i][j];
-        }
-
-        double[] temp = yLowerBoundary.getLeftMatrixCondition(t, x[i]);
-        for (int k = 0; k < temp.length; k++) {
-          my[0][k] = temp[k];
-        }
-        temp = yUpperBoundary.getLeftMatrixCondition(t, x[i]);
-        for (int k = 0; k < temp.length; k++) {
-          my[ySteps][ySteps - k] = temp[k];
-        }
+      ADILineSystem.sweep(_pool, nbBlock, 0, xSteps + 1, (block, start, end) -> {
+        final ADILineSystem my = ySystems[block];
+        for (int i = start; i < end; i++) {
+          for (int j = 1; j < ySteps; j++) {
 
-        temp = yLowerBoundary.getRightMatrixCondition(t, x[i]);
-        double sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * v[i][k];
-        }
-        r[0] = sum + yLowerBoundary.getConstant(t, x[i], dy);
+            final double c = pdeData.getC(t2, x[i], y[j]);
+            final double d = pdeData.getD(t2, x[i], y[j]);
+            final double f = pdeData.getF(t2, x[i], y[j]);
 
-        temp = yUpperBoundary.getRightMatrixCondition(t, x[i]);
-        sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * v[i][ySteps - k];
-        }
-        r[ySteps] = sum + yUpperBoundary.getConstant(t, x[i], dy);
-
-        // SOR
-        final double omega = 1.5;
-        double scale = 1.0;
-        double errorSqr = Double.POSITIVE_INFINITY;
-        int count = 0;
-        while (errorSqr / (scale + 1e-10) > 1e-18 && count < 1000) {
-          errorSqr = 0.0;
-          scale = 0.0;
-          int min, max;
-          for (int l = 0; l <= ySteps; l++) {
-            min = (l == ySteps ? 0 : Math.max(0, l - 1));
-            max = (l == 0 ? ySteps : Math.min(ySteps, l + 1));
-            sum = 0;
-            for (int k = min; k <= max; k++) {
-              sum += my[l][k] * v[i][k];
-            }
-            final double correction = omega / my[l][l] * (r[l] - sum);
-            errorSqr += correction * correction;
-            v[i][l] += correction;
-            scale += v[i][l] * v[i][l];
+            // upwind
+            my.setRow(j, THETA * (dtdy2 * d - 0.5 * dtdy * f), 1 + THETA * (-2 * dtdy2 * d + 0.5 * dt * c), THETA * (dtdy2 * d + 0.5 * dtdy * f), vt[i][j]);
           }
-          count++;
+          my.setBoundariesInY(v[i], t2, x[i], dy, yLowerBoundary, yUpperBoundary);
+
+          // SOR
+          final int count = my.solve(v[i], 1.5, 1000);
+          ArgChecker.isTrue(count < 1000, "SOR exceeded max interations");
         }
-        ArgChecker.isTrue(count < 1000, "SOR exceeded max interations");
-      }
+      });
 
     } // time loop
     return v;
 
   }
 
-  // TODO there is almost identical code lines 297-319
-  private int sor(final int steps, final double[][] v, final double[] q, final double[][] mx, final int j, final double omega) {
-    double sum;
-    int min;
-    int max;
-    int count = 0;
-    double scale = 1.0;
-    double errorSqr = Double.POSITIVE_INFINITY;
-    while (errorSqr / (scale + 1e-10) > 1e-18 && count < 1000) {
-      errorSqr = 0.0;
-      scale = 0.0;
-      for (int l = 0; l <= steps; l++) {
-        min = (l == steps ? 0 : Math.max(0, l - 1));
-        max = (l == 0 ? steps : Math.min(steps, l + 1));
-        sum = 0;
-        for (int k = min; k <= max; k++) { // mx is tri-diagonal so only need 3 steps here
-          sum += mx[l][k] * v[k][j];
-        }
-        final double correction = omega / mx[l][l] * (q[l] - sum);
-        errorSqr += correction * correction;
-        v[l][j] += correction;
-        scale += v[l][j] * v[l][j];
-      }
-      count++;
-    }
-    return count;
-  }
-
   private void initializeMatrices(final ConvectionDiffusion2DPDEDataBundle pdeData, final int xSteps, final int ySteps, final BoundaryCondition2D xLowerBoundary,
       final BoundaryCondition2D yLowerBoundary, final double dx, final double dy, final double[][] v, final double[] x, final double[] y) {
     double currentX = 0;
@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.financial.model.finitedifference;
 
+import java.util.concurrent.ForkJoinPool;
+
 import com.opengamma.analytics.math.cube.Cube;
 import com.opengamma.strata.collect.ArgChecker;
 
@@ -18,6 +20,26 @@ public class OperatorSplittingFiniteDifference2D implements ConvectionDiffusionP
   // Theta = 0 - explicit
   private static final int SOR_MAX = 5000;
 
+  /**
+   * The pool on which the independent lines of each step are computed, null for a sequential computation.
+   */
+  private final ForkJoinPool _pool;
+
+  /**
+   * Constructor for a sequential computation.
+   */
+  public OperatorSplittingFiniteDifference2D() {
+    this(null);
+  }
+
+  /**
+   * Constructor.
+   * @param pool The pool on which the independent lines of each step are computed, null for a sequential computation
+   */
+  public OperatorSplittingFiniteDifference2D(final ForkJoinPool pool) {
+    _pool = pool;
+  }
+
   @Override
   public double[][] solve(final ConvectionDiffusion2DPDEDataBundle pdeData, final int tSteps, final int xSteps, final int ySteps, final double tMax, final BoundaryCondition2D xLowerBoundary,
       final BoundaryCondition2D xUpperBoundary, final BoundaryCondition2D yLowerBoundary, final BoundaryCondition2D yUpperBoundary) {
@@ -43,10 +65,15 @@ public class OperatorSplittingFiniteDifference2D implements ConvectionDiffusionP
     final double[] x = new double[xSteps + 1];
     final double[] y = new double[ySteps + 1];
 
-    final double[] q = new double[xSteps + 1];
-    final double[] r = new double[ySteps + 1];
-    final double[][] mx = new double[xSteps + 1][xSteps + 1];
-    final double[][] my = new double[ySteps + 1][ySteps + 1];
+    // one line system and one column buffer for each block of lines
+    final int nbBlock = ADILineSystem.numberOfBlocks(_pool);
+    final ADILineSystem[] xSystems = new ADILineSystem[nbBlock];
+    final ADILineSystem[] ySystems = new ADILineSystem[nbBlock];
+    final double[][] columns = new double[nbBlock][xSteps + 1];
+    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
+      xSystems[loopblock] = new ADILineSystem(xSteps);
+      ySystems[loopblock] = new ADILineSystem(ySteps);
+    }
 
     double currentX = 0;
     double currentY = 0;
@@ -63,163 +90,81 @@ public class OperatorSplittingFiniteDifference2D implements ConvectionDiffusionP
       }
     }
 
-    double t;
-    double a, b, c, d, e, f;
-
     for (int n = 0; n < tSteps; n++) {
 
-      t = n * dt;
+      final double t1 = n * dt;
       // stag 1 Explicit in the cross
-      for (int i = 1; i < xSteps; i++) {
-        for (int j = 1; j < ySteps; j++) {
-          e = pdeData.getE(t, x[i], y[j]);
-          vt[i][j] = v[i][j];
-          vt[i][j] -= 0.125 * dtdxdy * e * (v[i + 1][j + 1] + v[i - 1][j - 1] - v[i + 1][j - 1] - v[i - 1][j + 1]);
+      ADILineSystem.sweep(_pool, nbBlock, 1, xSteps, (block, start, end) -> {
+        for (int i = start; i < end; i++) {
+          for (int j = 1; j < ySteps; j++) {
+            final double e = pdeData.getE(t1, x[i], y[j]);
+            vt[i][j] = v[i][j];
+            vt[i][j] -= 0.125 * dtdxdy * e * (v[i + 1][j + 1] + v[i - 1][j - 1] - v[i + 1][j - 1] - v[i - 1][j + 1]);
+          }
+          // the explicit intermediate stag vt is missed the boundary
+          vt[i][0] = v[i][0];
+          vt[i][ySteps] = v[i][ySteps];
         }
-        // the explicit intermediate stag vt is missed the boundary
-        vt[i][0] = v[i][0];
-        vt[i][ySteps] = v[i][ySteps];
-      }
+      });
 
       // stag 2 - Implicit in x
-      t += 0.5 * dt;
-      for (int j = 0; j <= ySteps; j++) {
-        for (int i = 1; i < xSteps; i++) {
-          a = pdeData.getA(t, x[i], y[j]);
-          b = pdeData.getB(t, x[i], y[j]);
-          c = pdeData.getC(t, x[i], y[j]);
-
-          mx[i][i - 1] = (dtdx2 * a - 0.5 * dtdx * b);
-          mx[i][i] = 1 + (-2 * dtdx2 * a + dt * c);
-          mx[i][i + 1] = (dtdx2 * a + 0.5 * dtdx * b);
-
-          q[i] = vt[i][j];
-        }
-
-        // it is not clear that these boundary conditions apply in the intermediate stage of operator splitting
-        double[] temp = xLowerBoundary.getLeftMatrixCondition(t, y[j]);
-        for (int k = 0; k < temp.length; k++) {
-          mx[0][k] = temp[k];
-        }
-        temp = xUpperBoundary.getLeftMatrixCondition(t, y[j]);
-        for (int k = 0; k < temp.length; k++) {
-          mx[xSteps][xSteps - k] = temp[k];
-        }
+      final double t2 = t1 + 0.5 * dt;
+      ADILineSystem.sweep(_pool, nbBlock, 0, ySteps + 1, (block, start, end) -> {
+        final ADILineSystem mx = xSystems[block];
+        final double[] column = columns[block];
+        for (int j = start; j < end; j++) {
+          for (int i = 1; i < xSteps; i++) {
+            final double a = pdeData.getA(t2, x[i], y[j]);
+            final double b = pdeData.getB(t2, x[i], y[j]);
+            final double c = pdeData.getC(t2, x[i], y[j]);
+            mx.setRow(i, (dtdx2 * a - 0.5 * dtdx * b), 1 + (-2 * dtdx2 * a + dt * c), (dtdx2 * a + 0.5 * dtdx * b), vt[i][j]);
+          }
 
-        temp = xLowerBoundary.getRightMatrixCondition(t, y[j]);
-        double sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * v[k][j];
-        }
-        q[0] = sum + xLowerBoundary.getConstant(t, y[j], dx);
+          // it is not clear that these boundary conditions apply in the intermediate stage of operator splitting
+          mx.setBoundariesInX(v, j, t2, y[j], dx, xLowerBoundary, xUpperBoundary);
 
-        temp = xUpperBoundary.getRightMatrixCondition(t, y[j]);
-        sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * v[xSteps - k][j];
-        }
-        q[xSteps] = sum + xUpperBoundary.getConstant(t, y[j], dx);
-
-        // SOR
-        final double omega = 1.5;
-        double scale = 1.0;
-        double errorSqr = Double.POSITIVE_INFINITY;
-        int min, max;
-        int count = 0;
-        while (errorSqr / (scale + 1e-10) > 1e-18 && count < SOR_MAX) {
-          errorSqr = 0.0;
-          scale = 0.0;
-          for (int l = 0; l <= xSteps; l++) {
-            min = (l == xSteps ? 0 : Math.max(0, l - 1));
-            max = (l == 0 ? xSteps : Math.min(xSteps, l + 1));
-            sum = 0;
-            for (int k = min; k <= max; k++) { // mx is tri-diagonal so only need 3 steps here
-              sum += mx[l][k] * vt[k][j];
-            }
-            final double correction = omega / mx[l][l] * (q[l] - sum);
-            errorSqr += correction * correction;
-            vt[l][j] += correction;
-            scale += vt[l][j] * vt[l][j];
+          // SOR
+          for (int i = 0; i <= xSteps; i++) {
+            column[i] = vt[i][j];
+          }
+          final int count = mx.solve(column, 1.5, SOR_MAX);
+          ArgChecker.isTrue(count < SOR_MAX, "SOR exceeded max interations");
+          for (int i = 0; i <= xSteps; i++) {
+            vt[i][j] = column[i];
           }
-          count++;
         }
-        ArgChecker.isTrue(count < SOR_MAX, "SOR exceeded max interations");
-      }
-
-      for (int j = 1; j < ySteps; j++) {
-        for (int i = 1; i < xSteps; i++) {
-          e = pdeData.getE(t, x[i], y[j]);
-          v[i][j] = vt[i][j];
-          v[i][j] -= 0.125 * dtdxdy * e * (vt[i + 1][j + 1] + vt[i - 1][j - 1] - vt[i + 1][j - 1] - vt[i - 1][j + 1]);
+      });
+
+      ADILineSystem.sweep(_pool, nbBlock, 1, ySteps, (block, start, end) -> {
+        for (int j = start; j < end; j++) {
+          for (int i = 1; i < xSteps; i++) {
+            final double e = pdeData.getE(t2, x[i], y[j]);
+            v[i][j] = vt[i][j];
+            v[i][j] -= 0.125 * dtdxdy * e * (vt[i + 1][j + 1] + vt[i - 1][j - 1] - vt[i + 1][j - 1] - vt[i - 1][j + 1]);
+          }
+          // again now v on the boundary is undefined
+          v[0][j] = vt[0][j];
+          v[xSteps][j] = vt[xSteps][j];
         }
-        // again now v on the boundary is undefined
-        v[0][j] = vt[0][j];
-        v[xSteps][j] = vt[xSteps][j];
-      }
+      });
 
       // stag 4 - implicit in y
-      t = (n + 1) * dt;
-      for (int i = 0; i <= xSteps; i++) {
-        for (int j = 1; j < ySteps; j++) {
-
-          d = pdeData.getD(t, x[i], y[j]);
-          f = pdeData.getF(t, x[i], y[j]);
-
-          my[j][j - 1] = (dtdy2 * d - 0.5 * dtdy * f);
-          my[j][j] = 1 + (-2 * dtdy2 * d);
-          my[j][j + 1] = (dtdy2 * d + 0.5 * dtdy * f);
-
-          r[j] = v[i][j];
-        }
-
-        double[] temp = yLowerBoundary.getLeftMatrixCondition(t, x[i]);
-        for (int k = 0; k < temp.length; k++) {
-          my[0][k] = temp[k];
-        }
-        temp = yUpperBoundary.getLeftMatrixCondition(t, x[i]);
-        for (int k = 0; k < temp.length; k++) {
-          my[ySteps][ySteps - k] = temp[k];
-        }
-
-        temp = yLowerBoundary.getRightMatrixCondition(t, x[i]);
-        double sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * vt[i][k];
-        }
-        r[0] = sum + yLowerBoundary.getConstant(t, x[i], dy);
-
-        temp = yUpperBoundary.getRightMatrixCondition(t, x[i]);
-        sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * vt[i][ySteps - k];
-        }
-        r[ySteps] = sum + yUpperBoundary.getConstant(t, x[i], dy);
-
-        // SOR
-        final double omega = 1.5;
-        double scale = 1.0;
-        double errorSqr = Double.POSITIVE_INFINITY;
-        int count = 0;
-        while (errorSqr / (scale + 1e-10) > 1e-18 && count < SOR_MAX) {
-          errorSqr = 0.0;
-          scale = 0.0;
-          int min, max;
-          for (int l = 0; l <= ySteps; l++) {
-            min = (l == ySteps ? 0 : Math.max(0, l - 1));
-            max = (l == 0 ? ySteps : Math.min(ySteps, l + 1));
-            sum = 0;
-            for (int k = min; k <= max; k++) {
-              sum += my[l][k] * v[i][k];
-            }
-            final double correction = omega / my[l][l] * (r[l] - sum);
-            errorSqr += correction * correction;
-            v[i][l] += correction;
-            scale += v[i][l] * v[i][l];
+      final double t4 = (n + 1) * dt;
+      ADILineSystem.sweep(_pool, nbBlock, 0, xSteps + 1, (block, start, end) -> {
+        final ADILineSystem my = ySystems[block];
+        for (int i = start; i < end; i++) {
+          for (int j = 1; j < ySteps; j++) {
+            final double d = pdeData.getD(t4, x[i], y[j]);
+            final double f = pdeData.getF(t4, x[i], y[j]);
+            my.setRow(j, (dtdy2 * d - 0.5 * dtdy * f), 1 + (-2 * dtdy2 * d), (dtdy2 * d + 0.5 * dtdy * f), v[i][j]);
           }
-          count++;
+          my.setBoundariesInY(vt[i], t4, x[i], dy, yLowerBoundary, yUpperBoundary);
+
+          // SOR
+          final int count = my.solve(v[i], 1.5, SOR_MAX);
+          ArgChecker.isTrue(count < SOR_MAX, "SOR exceeded max interations");
         }
-        ArgChecker.isTrue(count < SOR_MAX, "SOR exceeded max interations");
-      }
+      });
 
     } // time loop
     return v;
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.finitedifference;
+
+/**
+ * Collects the selected time slices of a PDE solution during the time stepping; only the selected slices are copied.
+ */
+final class PDESliceCollector {
+
+  private final PDEGrid1D _grid;
+  private final int[] _timeIndices;
+  private final double[][] _f;
+  private final float[][] _fFloat;
+  /**
+   * The position of the next slice to be stored.
+   */
+  private int _next;
+
+  /**
+   * Constructor.
+   * @param grid The grid
+   * @param selection The selection of the slices
+   */
+  PDESliceCollector(final PDEGrid1D grid, final PDESliceSelection selection) {
+    _grid = grid;
+    _timeIndices = selection.getTimeIndices(grid);
+    if (selection.isFloatStorage()) {
+      _f = null;
+      _fFloat = new float[_timeIndices.length][];
+    } else {
+      _f = new double[_timeIndices.length][];
+      _fFloat = null;
+    }
+  }
+
+  /**
+   * Stores the solution at a time node if it is selected; the time nodes must be given in increasing order.
+   * @param timeIndex The index of the time node
+   * @param values The solution, not modified
+   */
+  void add(final int timeIndex, final double[] values) {
+    if (_next == _timeIndices.length || _timeIndices[_next] != timeIndex) {
+      return;
+    }
+    final int n = _grid.getNumSpaceNodes();
+    if (_f != null) {
+      final double[] slice = new double[n];
+      System.arraycopy(values, 0, slice, 0, n);
+      _f[_next] = slice;
+    } else {
+      final float[] slice = new float[n];
+      for (int i = 0; i < n; i++) {
+        slice[i] = (float) values[i];
+      }
+      _fFloat[_next] = slice;
+    }
+    _next++;
+  }
+
+  /**
+   * Gets the results.
+   * @param terminalResults The solution at the last time node
+   * @return The results
+   */
+  PDESliceResults1D getResults(final double[] terminalResults) {
+    if (_f != null) {
+      return new PDESliceResults1D(_grid, _timeIndices, _f, terminalResults);
+    }
+    return new PDESliceResults1D(_grid, _timeIndices, _fFloat, terminalResults);
+  }
+
+}
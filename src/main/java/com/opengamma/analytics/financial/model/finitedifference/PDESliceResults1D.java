@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.finitedifference;
+
+import java.util.Arrays;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The results of a PDE solver at selected time slices, see {@link PDESliceSelection}.
+ * <p>
+ * The slices are stored as doubles or floats; the terminal results are stored as doubles. The values at a time slice which
+ * is not stored are not available.
+ */
+public class PDESliceResults1D implements PDEResults1D {
+
+  private final PDEGrid1D _grid;
+  private final int[] _timeIndices;
+  private final double[][] _f;
+  private final float[][] _fFloat;
+  private final PDETerminalResults1D _terminalResults;
+
+  /**
+   * Creates the results from slices stored as doubles.
+   * @param grid The grid, not null
+   * @param timeIndices The indices of the time nodes of the slices, sorted and without duplicates, not null
+   * @param slices The slices, in the order of the time indices, not null
+   * @param terminalResults The results at the last time node, not null
+   */
+  public PDESliceResults1D(final PDEGrid1D grid, final int[] timeIndices, final double[][] slices, final double[] terminalResults) {
+    this(grid, timeIndices, slices, null, terminalResults);
+  }
+
+  /**
+   * Creates the results from slices stored as floats.
+   * @param grid The grid, not null
+   * @param timeIndices The indices of the time nodes of the slices, sorted and without duplicates, not null
+   * @param slices The slices, in the order of the time indices, not null
+   * @param terminalResults The results at the last time node, not null
+   */
+  public PDESliceResults1D(final PDEGrid1D grid, final int[] timeIndices, final float[][] slices, final double[] terminalResults) {
+    this(grid, timeIndices, null, slices, terminalResults);
+  }
+
+  private PDESliceResults1D(final PDEGrid1D grid, final int[] timeIndices, final double[][] slices, final float[][] floatSlices,
+      final double[] terminalResults) {
+    ArgChecker.notNull(grid, "grid");
+    ArgChecker.notNull(timeIndices, "time indices");
+    ArgChecker.notNull(terminalResults, "terminal results");
+    final int nbSlice = slices != null ? slices.length : ArgChecker.notNull(floatSlices, "slices").length;
+    ArgChecker.isTrue(timeIndices.length == nbSlice, "number of time indices not equal to number of slices");
+    for (int i = 0; i < nbSlice; i++) {
+      ArgChecker.isTrue(timeIndices[i] >= 0 && timeIndices[i] < grid.getNumTimeNodes(), "time index outside the grid");
+      ArgChecker.isTrue(i == 0 || timeIndices[i] > timeIndices[i - 1], "time indices must be increasing");
+      final int length = slices != null ? slices[i].length : floatSlices[i].length;
+      ArgChecker.isTrue(grid.getNumSpaceNodes() == length, "space steps in grid not equal to that in data");
+    }
+    _grid = grid;
+    _timeIndices = timeIndices;
+    _f = slices;
+    _fFloat = floatSlices;
+    _terminalResults = new PDETerminalResults1D(grid, terminalResults);
+  }
+
+  @Override
+  public double getFunctionValue(final int index) {
+    return _terminalResults.getFunctionValue(index);
+  }
+
+  @Override
+  public double getSpaceValue(final int spaceIndex) {
+    return _grid.getSpaceNode(spaceIndex);
+  }
+
+  @Override
+  public double getFirstSpatialDerivative(final int spaceIndex) {
+    return _terminalResults.getFirstSpatialDerivative(spaceIndex);
+  }
+
+  @Override
+  public double getSecondSpatialDerivative(final int spaceIndex) {
+    return _terminalResults.getSecondSpatialDerivative(spaceIndex);
+  }
+
+  /**
+   * Gets the value at a node of a stored slice.
+   * @param spaceIndex The index of the space node
+   * @param timeIndex The index of the time node, stored
+   * @return The value
+   */
+  public double getFunctionValue(final int spaceIndex, final int timeIndex) {
+    return getValue(getSlot(timeIndex), spaceIndex);
+  }
+
+  /**
+   * Gets the first spatial derivative at a node of a stored slice.
+   * @param spaceIndex The index of the space node
+   * @param timeIndex The index of the time node, stored
+   * @return The derivative
+   */
+  public double getFirstSpatialDerivative(final int spaceIndex, final int timeIndex) {
+    final int slot = getSlot(timeIndex);
+    double[] coeff;
+    double res = 0;
+    final int n = _grid.getNumSpaceNodes();
+    int offset;
+    if (spaceIndex == 0) {
+      coeff = _grid.getFirstDerivativeForwardCoefficients(spaceIndex);
+      offset = 0;
+    } else if (spaceIndex == n - 1) {
+      coeff = _grid.getFirstDerivativeBackwardCoefficients(spaceIndex);
+      offset = -coeff.length + 1;
+    } else {
+      coeff = _grid.getFirstDerivativeCoefficients(spaceIndex);
+      offset = -(coeff.length - 1) / 2;
+    }
+    for (int i = 0; i < coeff.length; i++) {
+      res += coeff[i] * getValue(slot, spaceIndex + i + offset);
+    }
+    return res;
+  }
+
+  /**
+   * Gets the second spatial derivative at a node of a stored slice.
+   * @param spaceIndex The index of the space node
+   * @param timeIndex The index of the time node, stored
+   * @return The derivative
+   */
+  public double getSecondSpatialDerivative(final int spaceIndex, final int timeIndex) {
+    final int slot = getSlot(timeIndex);
+    final double[] coeff = _grid.getSecondDerivativeCoefficients(spaceIndex);
+    double res = 0;
+    int offset;
+    if (spaceIndex == 0) {
+      offset = 0;
+    } else if (spaceIndex == _grid.getNumSpaceNodes() - 1) {
+      offset = -2;
+    } else {
+      offset = -1;
+    }
+    for (int i = 0; i < coeff.length; i++) {
+      res += coeff[i] * getValue(slot, spaceIndex + i + offset);
+    }
+    return res;
+  }
+
+  /**
+   * Gets a stored slice.
+   * @param timeIndex The index of the time node, stored
+   * @return The values of the slice, a copy
+   */
+  public double[] getSlice(final int timeIndex) {
+    final int slot = getSlot(timeIndex);
+    if (_f != null) {
+      return _f[slot].clone();
+    }
+    final double[] res = new double[_grid.getNumSpaceNodes()];
+    for (int i = 0; i < res.length; i++) {
+      res[i] = _fFloat[slot][i];
+    }
+    return res;
+  }
+
+  /**
+   * Checks if the slice at a time node is stored.
+   * @param timeIndex The index of the time node
+   * @return true if the slice is stored
+   */
+  public boolean isStored(final int timeIndex) {
+    return Arrays.binarySearch(_timeIndices, timeIndex) >= 0;
+  }
+
+  /**
+   * Gets the indices of the time nodes of the stored slices.
+   * @return The indices, sorted
+   */
+  public int[] getTimeIndices() {
+    return _timeIndices.clone();
+  }
+
+  /**
+   * Checks if the slices are stored as floats.
+   * @return true if the slices are stored as floats
+   */
+  public boolean isFloatStorage() {
+    return _fFloat != null;
+  }
+
+  @Override
+  public int getNumberSpaceNodes() {
+    return _grid.getNumSpaceNodes();
+  }
+
+  public int getNumberTimeNodes() {
+    return _grid.getNumTimeNodes();
+  }
+
+  public double getTimeValue(final int timeIndex) {
+    return _grid.getTimeNode(timeIndex);
+  }
+
+  @Override
+  public PDEGrid1D getGrid() {
+    return _grid;
+  }
+
+  @Override
+  public double[] getTerminalResults() {
+    return _terminalResults.getTerminalResults();
+  }
+
+  private int getSlot(final int timeIndex) {
+    final int slot = Arrays.binarySearch(_timeIndices, timeIndex);
+    ArgChecker.isTrue(slot >= 0, "slice at time index {} not stored", timeIndex);
+    return slot;
+  }
+
+  private double getValue(final int slot, final int spaceIndex) {
+    return _f != null ? _f[slot][spaceIndex] : _fFloat[slot][spaceIndex];
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + Arrays.deepHashCode(_f);
+    result = prime * result + Arrays.deepHashCode(_fFloat);
+    result = prime * result + Arrays.hashCode(_timeIndices);
+    result = prime * result + _grid.hashCode();
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (getClass() != obj.getClass()) {
+      return false;
+    }
+    final PDESliceResults1D other = (PDESliceResults1D) obj;
+    return _grid.equals(other._grid) && Arrays.equals(_timeIndices, other._timeIndices) && Arrays.deepEquals(_f, other._f) &&
+        Arrays.deepEquals(_fFloat, other._fFloat) && Arrays.equals(getTerminalResults(), other.getTerminalResults());
+  }
+
+}
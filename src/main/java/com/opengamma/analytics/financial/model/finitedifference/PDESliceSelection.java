@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.finitedifference;
+
+import java.util.Arrays;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The selection of the time slices of a PDE solution to be stored, instead of the full surface.
+ * <p>
+ * The slices are either the time nodes nearest to required times, or the time nodes of a subsampling stride; the first
+ * and last time nodes are always stored. The slices can be stored as floats, which halves the memory, for example for
+ * visualisation grids. The terminal results are always stored as doubles.
+ */
+public final class PDESliceSelection {
+
+  /**
+   * The required times, null for a stride.
+   */
+  private final double[] _times;
+  /**
+   * The stride.
+   */
+  private final int _stride;
+  /**
+   * Whether the slices are stored as floats.
+   */
+  private final boolean _floatStorage;
+
+  private PDESliceSelection(final double[] times, final int stride, final boolean floatStorage) {
+    _times = times;
+    _stride = stride;
+    _floatStorage = floatStorage;
+  }
+
+  /**
+   * Selects the time nodes nearest to some times.
+   * @param times The times, not null
+   * @return The selection
+   */
+  public static PDESliceSelection ofTimes(final double... times) {
+    ArgChecker.notNull(times, "times");
+    return new PDESliceSelection(times.clone(), 0, false);
+  }
+
+  /**
+   * Selects one time node every stride nodes, starting with the first one, and the last time node.
+   * @param stride The stride, positive
+   * @return The selection
+   */
+  public static PDESliceSelection ofStride(final int stride) {
+    ArgChecker.isTrue(stride > 0, "stride must be positive");
+    return new PDESliceSelection(null, stride, false);
+  }
+
+  /**
+   * Gets the same selection with the slices stored as floats.
+   * @return The selection
+   */
+  public PDESliceSelection withFloatStorage() {
+    return new PDESliceSelection(_times, _stride, true);
+  }
+
+  /**
+   * Gets whether the slices are stored as floats.
+   * @return true if the slices are stored as floats
+   */
+  public boolean isFloatStorage() {
+    return _floatStorage;
+  }
+
+  /**
+   * Gets the indices of the selected time nodes of a grid.
+   * @param grid The grid
+   * @return The indices, sorted and without duplicates
+   */
+  int[] getTimeIndices(final PDEGrid1D grid) {
+    final int nT = grid.getNumTimeNodes();
+    if (_times == null) {
+      final int nb = (nT - 1) / _stride + 1;
+      final boolean last = (nT - 1) % _stride != 0;
+      final int[] res = new int[last ? nb + 1 : nb];
+      for (int i = 0; i < nb; i++) {
+        res[i] = i * _stride;
+      }
+      if (last) {
+        res[nb] = nT - 1;
+      }
+      return res;
+    }
+    final double[] nodes = grid.getTimeNodes();
+    final int[] res = new int[_times.length + 2];
+    res[0] = 0;
+    res[1] = nT - 1;
+    for (int i = 0; i < _times.length; i++) {
+      final double t = _times[i];
+      ArgChecker.isTrue(t >= nodes[0] && t <= nodes[nT - 1], "time {} outside the grid", t);
+      int index = Arrays.binarySearch(nodes, t);
+      if (index < 0) {
+        index = -index - 1; // the first node above t
+        if (t - nodes[index - 1] <= nodes[index] - t) {
+          index--;
+        }
+      }
+      res[i + 2] = index;
+    }
+    return Arrays.stream(res).sorted().distinct().toArray();
+  }
+
+}
@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.financial.model.finitedifference;
 
+import java.util.concurrent.ForkJoinPool;
+
 import com.opengamma.analytics.math.cube.Cube;
 import com.opengamma.strata.collect.ArgChecker;
 
@@ -17,6 +19,26 @@ public class PeacemanRachfordFiniteDifference2D implements ConvectionDiffusionPD
 
   // Theta = 0 - explicit
 
+  /**
+   * The pool on which the independent lines of each step are computed, null for a sequential computation.
+   */
+  private final ForkJoinPool _pool;
+
+  /**
+   * Constructor for a sequential computation.
+   */
+  public PeacemanRachfordFiniteDifference2D() {
+    this(null);
+  }
+
+  /**
+   * Constructor.
+   * @param pool The pool on which the independent lines of each step are computed, null for a sequential computation
+   */
+  public PeacemanRachfordFiniteDifference2D(final ForkJoinPool pool) {
+    _pool = pool;
+  }
+
   @Override
   public double[][] solve(final ConvectionDiffusion2DPDEDataBundle pdeData, final int tSteps, final int xSteps, final int ySteps, final double tMax, final BoundaryCondition2D xLowerBoundary,
       final BoundaryCondition2D xUpperBoundary,
@@ -42,10 +64,15 @@ public class PeacemanRachfordFiniteDifference2D implements ConvectionDiffusionPD
     final double[] x = new double[xSteps + 1];
     final double[] y = new double[ySteps + 1];
 
-    final double[] q = new double[xSteps + 1];
-    final double[] r = new double[ySteps + 1];
-    final double[][] mx = new double[xSteps + 1][xSteps + 1];
-    final double[][] my = new double[ySteps + 1][ySteps + 1];
+    // one line system and one column buffer for each block of lines
+    final int nbBlock = ADILineSystem.numberOfBlocks(_pool);
+    final ADILineSystem[] xSystems = new ADILineSystem[nbBlock];
+    final ADILineSystem[] ySystems = new ADILineSystem[nbBlock];
+    final double[][] columns = new double[nbBlock][xSteps + 1];
+    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
+      xSystems[loopblock] = new ADILineSystem(xSteps);
+      ySystems[loopblock] = new ADILineSystem(ySteps);
+    }
 
     double currentX = 0;
     double currentY = 0;
@@ -63,86 +90,49 @@ public class PeacemanRachfordFiniteDifference2D implements ConvectionDiffusionPD
     }
 
     double t = 0.0;
-    double a, b, c, d, f;
 
     for (int n = 0; n < tSteps; n++) {
 
       // stag 1 Explicit in y, implicit in x
-      for (int i = 1; i < xSteps; i++) {
-        for (int j = 1; j < ySteps; j++) {
-          c = pdeData.getC(t, x[i], y[j]);
-          d = pdeData.getD(t, x[i], y[j]);
-          f = pdeData.getF(t, x[i], y[j]);
-
-          vRight[i][j] = (1 - 0.25 * dt * c) * v[i][j];
-          vRight[i][j] -= 0.5 * dtdy2 * d * (v[i][j + 1] + v[i][j - 1] - 2 * v[i][j]);
-          vRight[i][j] -= 0.25 * dtdy * f * (v[i][j + 1] - v[i][j - 1]);
+      final double t1 = t;
+      ADILineSystem.sweep(_pool, nbBlock, 1, xSteps, (block, start, end) -> {
+        for (int i = start; i < end; i++) {
+          for (int j = 1; j < ySteps; j++) {
+            final double c = pdeData.getC(t1, x[i], y[j]);
+            final double d = pdeData.getD(t1, x[i], y[j]);
+            final double f = pdeData.getF(t1, x[i], y[j]);
+
+            vRight[i][j] = (1 - 0.25 * dt * c) * v[i][j];
+            vRight[i][j] -= 0.5 * dtdy2 * d * (v[i][j + 1] + v[i][j - 1] - 2 * v[i][j]);
+            vRight[i][j] -= 0.25 * dtdy * f * (v[i][j + 1] - v[i][j - 1]);
+          }
         }
-      }
+      });
 
       t += dt / 2;
 
-      for (int j = 1; j < ySteps; j++) {
-        for (int i = 1; i < xSteps; i++) {
-          a = pdeData.getA(t, x[i], y[j]);
-          b = pdeData.getB(t, x[i], y[j]);
-          c = pdeData.getC(t, x[i], y[j]);
-
-          mx[i][i - 1] = 0.5 * (dtdx2 * a - 0.5 * dtdx * b);
-          mx[i][i] = 1 + 0.5 * (-2 * dtdx2 * a + 0.5 * dt * c);
-          mx[i][i + 1] = 0.5 * (dtdx2 * a + 0.5 * dtdx * b);
-
-          q[i] = vRight[i][j];
-        }
-
-        double[] temp = xLowerBoundary.getLeftMatrixCondition(t, y[j]);
-        for (int k = 0; k < temp.length; k++) {
-          mx[0][k] = temp[k];
-        }
-        temp = xUpperBoundary.getLeftMatrixCondition(t, y[j]);
-        for (int k = 0; k < temp.length; k++) {
-          mx[xSteps][xSteps - k] = temp[k];
-        }
-
-        temp = xLowerBoundary.getRightMatrixCondition(t, y[j]);
-        double sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * v[k][j];
-        }
-        q[0] = sum + xLowerBoundary.getConstant(t, y[j], dx);
-
-        temp = xUpperBoundary.getRightMatrixCondition(t, y[j]);
-        sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * v[xSteps - k][j];
-        }
-        q[xSteps] = sum + xUpperBoundary.getConstant(t, y[j], dx);
-
-        // SOR
-        final double omega = 1.5;
-        double scale = 1.0;
-        double errorSqr = Double.POSITIVE_INFINITY;
-        int min, max;
-        int count = 0;
-        while (errorSqr / (scale + 1e-10) > 1e-18 && count < 1000) {
-          errorSqr = 0.0;
-          scale = 0.0;
-          for (int l = 0; l <= xSteps; l++) {
-            min = (l == xSteps ? 0 : Math.max(0, l - 1));
-            max = (l == 0 ? xSteps : Math.min(xSteps, l + 1));
-            sum = 0;
-            for (int k = min; k <= max; k++) { // mx is tri-diagonal so only need 3 steps here
-              sum += mx[l][k] * v[k][j];
-            }
-            final double correction = omega / mx[l][l] * (q[l] - sum);
-            errorSqr += correction * correction;
-            v[l][j] += correction;
-            scale += v[l][j] * v[l][j];
+      final double t2 = t;
+      ADILineSystem.sweep(_pool, nbBlock, 1, ySteps, (block, start, end) -> {
+        final ADILineSystem mx = xSystems[block];
+        final double[] column = columns[block];
+        for (int j = start; j < end; j++) {
+          for (int i = 1; i < xSteps; i++) {
+            final double a = pdeData.getA(t2, x[i], y[j]);
+            final double b = pdeData.getB(t2, x[i], y[j]);
+            final double c = pdeData.getC(t2, x[i], y[j]);
+            mx.setRow(i, 0.5 * (dtdx2 * a - 0.5 * dtdx * b), 1 + 0.5 * (-2 * dtdx2 * a + 0.5 * dt * c), 0.5 * (dtdx2 * a + 0.5 * dtdx * b), vRight[i][j]);
+          }
+          for (int i = 0; i <= xSteps; i++) {
+            column[i] = v[i][j];
+          }
+          mx.setBoundariesInX(v, j, t2, y[j], dx, xLowerBoundary, xUpperBoundary);
+          final int count = mx.solve(column, 1.5, 1000);
+          ArgChecker.isTrue(count < 1000, "SOR exceeded max interations");
+          for (int i = 0; i <= xSteps; i++) {
+            v[i][j] = column[i];
           }
-          count++;
         }
-        ArgChecker.isTrue(count < 1000, "SOR exceeded max interations");
-      }
+      });
 
       // get the y = 0 and y = yStep boundaries
       for (int i = 0; i <= xSteps; i++) {
@@ -177,83 +167,38 @@ public class PeacemanRachfordFiniteDifference2D implements ConvectionDiffusionPD
       // // copy the boundary points from the previous level
 
       // stag 2 explicit in x, implicit in y
-      for (int j = 1; j < ySteps; j++) {
-        for (int i = 1; i < xSteps; i++) {
+      ADILineSystem.sweep(_pool, nbBlock, 1, ySteps, (block, start, end) -> {
+        for (int j = start; j < end; j++) {
+          for (int i = 1; i < xSteps; i++) {
 
-          a = pdeData.getA(t, x[i], y[j]);
-          b = pdeData.getB(t, x[i], y[j]);
-          c = pdeData.getC(t, x[i], y[j]);
+            final double a = pdeData.getA(t2, x[i], y[j]);
+            final double b = pdeData.getB(t2, x[i], y[j]);
+            final double c = pdeData.getC(t2, x[i], y[j]);
 
-          vRight[i][j] = (1 - 0.25 * dt * c) * v[i][j];
-          vRight[i][j] -= 0.5 * dtdx2 * a * (v[i + 1][j] + v[i - 1][j] - 2 * v[i][j]);
-          vRight[i][j] -= 0.25 * dtdx * b * (v[i + 1][j] - v[i - 1][j]);
+            vRight[i][j] = (1 - 0.25 * dt * c) * v[i][j];
+            vRight[i][j] -= 0.5 * dtdx2 * a * (v[i + 1][j] + v[i - 1][j] - 2 * v[i][j]);
+            vRight[i][j] -= 0.25 * dtdx * b * (v[i + 1][j] - v[i - 1][j]);
+          }
         }
-      }
+      });
 
       t += dt / 2;
 
-      for (int i = 1; i < xSteps; i++) {
-        for (int j = 1; j < ySteps; j++) {
-
-          c = pdeData.getC(t, x[i], y[j]);
-          d = pdeData.getD(t, x[i], y[j]);
-          f = pdeData.getF(t, x[i], y[j]);
-
-          my[j][j - 1] = 0.5 * (dtdy2 * d - 0.5 * dtdy * f);
-          my[j][j] = 1 + 0.5 * (-2 * dtdy2 * d + 0.5 * dt * c);
-          my[j][j + 1] = 0.5 * (dtdy2 * d + 0.5 * dtdy * f);
-
-          r[j] = vRight[i][j];
-        }
-
-        double[] temp = yLowerBoundary.getLeftMatrixCondition(t, x[i]);
-        for (int k = 0; k < temp.length; k++) {
-          my[0][k] = temp[k];
-        }
-        temp = yUpperBoundary.getLeftMatrixCondition(t, x[i]);
-        for (int k = 0; k < temp.length; k++) {
-          my[ySteps][ySteps - k] = temp[k];
-        }
-
-        temp = yLowerBoundary.getRightMatrixCondition(t, x[i]);
-        double sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * v[i][k];
-        }
-        r[0] = sum + yLowerBoundary.getConstant(t, x[i], dy);
-
-        temp = yUpperBoundary.getRightMatrixCondition(t, x[i]);
-        sum = 0;
-        for (int k = 0; k < temp.length; k++) {
-          sum += temp[k] * v[i][ySteps - k];
-        }
-        r[ySteps] = sum + yUpperBoundary.getConstant(t, x[i], dy);
-
-        // SOR
-        final double omega = 1.5;
-        double scale = 1.0;
-        double errorSqr = Double.POSITIVE_INFINITY;
-        int count = 0;
-        while (errorSqr / (scale + 1e-10) > 1e-18 && count < 1000) {
-          errorSqr = 0.0;
-          scale = 0.0;
-          int min, max;
-          for (int l = 0; l <= ySteps; l++) {
-            min = (l == ySteps ? 0 : Math.max(0, l - 1));
-            max = (l == 0 ? ySteps : Math.min(ySteps, l + 1));
-            sum = 0;
-            for (int k = min; k <= max; k++) {
-              sum += my[l][k] * v[i][k];
-            }
-            final double correction = omega / my[l][l] * (r[l] - sum);
-            errorSqr += correction * correction;
-            v[i][l] += correction;
-            scale += v[i][l] * v[i][l];
+      final double t3 = t;
+      ADILineSystem.sweep(_pool, nbBlock, 1, xSteps, (block, start, end) -> {
+        final ADILineSystem my = ySystems[block];
+        for (int i = start; i < end; i++) {
+          for (int j = 1; j < ySteps; j++) {
+            final double c = pdeData.getC(t3, x[i], y[j]);
+            final double d = pdeData.getD(t3, x[i], y[j]);
+            final double f = pdeData.getF(t3, x[i], y[j]);
+            my.setRow(j, 0.5 * (dtdy2 * d - 0.5 * dtdy * f), 1 + 0.5 * (-2 * dtdy2 * d + 0.5 * dt * c), 0.5 * (dtdy2 * d + 0.5 * dtdy * f), vRight[i][j]);
           }
-          count++;
+          my.setBoundariesInY(v[i], t3, x[i], dy, yLowerBoundary, yUpperBoundary);
+          final int count = my.solve(v[i], 1.5, 1000);
+          ArgChecker.isTrue(count < 1000, "SOR exceeded max interations");
         }
-        ArgChecker.isTrue(count < 1000, "SOR exceeded max interations");
-      }
+      });
 
       // still have to handle the i = 0 and i = xSteps boundary
       for (int j = 0; j <= ySteps; j++) {
@@ -51,23 +51,82 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
   }
 
   @Override
-  //TODO This is so ugly
   public PDEResults1D solve(final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> pdeData) {
     ArgChecker.notNull(pdeData, "pde data");
+    return solve(pdeData, (PDESliceCollector) null);
+  }
+
+  /**
+   * Solves the PDE with the work arrays of a workspace, which can be reused for the next solves; the time stepping does not
+   * allocate, except for the copies of the full results.
+   * <p>
+   * Only the standard coefficients are handled. The time homogeneity is not checked: if it is wrongly claimed, the
+   * coefficients of the first time step are used at all the time steps.
+   * @param pdeData The PDE data with {@link ConvectionDiffusionPDE1DStandardCoefficients}, not null
+   * @param workspace The workspace, not null, not used by another thread at the same time
+   * @param timeHomogeneous true if the coefficients of the PDE do not depend on time; they are then computed once instead of at each time step
+   * @return The results
+   */
+  public PDEResults1D solve(final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> pdeData, final ThetaMethodWorkspace workspace,
+      final boolean timeHomogeneous) {
+    return solveStandard(pdeData, workspace, timeHomogeneous, null);
+  }
+
+  /**
+   * Solves the PDE and stores the solution only at selected time slices, whatever the full results setting. The memory used
+   * by the results is bounded by the number of selected slices.
+   * @param pdeData The PDE data, not null
+   * @param selection The selection of the time slices, not null
+   * @return The results
+   */
+  public PDESliceResults1D solve(final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> pdeData, final PDESliceSelection selection) {
+    ArgChecker.notNull(pdeData, "pde data");
+    ArgChecker.notNull(selection, "selection");
+    return (PDESliceResults1D) solve(pdeData, new PDESliceCollector(pdeData.getGrid(), selection));
+  }
+
+  /**
+   * Solves the PDE with the work arrays of a workspace and stores the solution only at selected time slices, whatever the
+   * full results setting.
+   * <p>
+   * Only the standard coefficients are handled, and the time homogeneity is not checked, see
+   * {@link #solve(PDE1DDataBundle, ThetaMethodWorkspace, boolean)}.
+   * @param pdeData The PDE data with {@link ConvectionDiffusionPDE1DStandardCoefficients}, not null
+   * @param workspace The workspace, not null, not used by another thread at the same time
+   * @param timeHomogeneous true if the coefficients of the PDE do not depend on time; they are then computed once instead of at each time step
+   * @param selection The selection of the time slices, not null
+   * @return The results
+   */
+  public PDESliceResults1D solve(final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> pdeData, final ThetaMethodWorkspace workspace,
+      final boolean timeHomogeneous, final PDESliceSelection selection) {
+    ArgChecker.notNull(pdeData, "pde data");
+    ArgChecker.notNull(selection, "selection");
+    return (PDESliceResults1D) solveStandard(pdeData, workspace, timeHomogeneous, new PDESliceCollector(pdeData.getGrid(), selection));
+  }
+
+  private PDEResults1D solve(final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> pdeData, final PDESliceCollector slices) {
     final ConvectionDiffusionPDE1DCoefficients coeff = pdeData.getCoefficients();
-    if (coeff instanceof ConvectionDiffusionPDE1DStandardCoefficients) {
-      final PDE1DDataBundle<ConvectionDiffusionPDE1DStandardCoefficients> temp = convertPDE1DDataBundle(pdeData);
-      final SolverImpl solver = new SolverImpl(temp);
-      return solver.solve();
-    } else if (coeff instanceof ConvectionDiffusionPDE1DFullCoefficients) {
-      final ConvectionDiffusionPDE1DFullCoefficients temp = (ConvectionDiffusionPDE1DFullCoefficients) coeff;
-      final ExtendedSolverImpl solver = new ExtendedSolverImpl(temp, pdeData.getInitialCondition(), pdeData.getLowerBoundary(), pdeData.getUpperBoundary(),
-          pdeData.getFreeBoundary(), pdeData.getGrid());
+    if (coeff instanceof ConvectionDiffusionPDE1DFullCoefficients) {
+      final ExtendedSolverImpl solver = new ExtendedSolverImpl((ConvectionDiffusionPDE1DFullCoefficients) coeff, pdeData.getInitialCondition(),
+          pdeData.getLowerBoundary(), pdeData.getUpperBoundary(), pdeData.getFreeBoundary(), pdeData.getGrid(), slices);
       return solver.solve();
+    } else if (coeff instanceof ConvectionDiffusionPDE1DStandardCoefficients) {
+      return solveStandard(pdeData, new ThetaMethodWorkspace(), false, slices);
     }
     throw new IllegalArgumentException(coeff.getClass() + " not handled");
   }
 
+  private PDEResults1D solveStandard(final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> pdeData, final ThetaMethodWorkspace workspace,
+      final boolean timeHomogeneous, final PDESliceCollector slices) {
+    ArgChecker.notNull(pdeData, "pde data");
+    ArgChecker.notNull(workspace, "workspace");
+    final ConvectionDiffusionPDE1DCoefficients coeff = pdeData.getCoefficients();
+    if (!(coeff instanceof ConvectionDiffusionPDE1DStandardCoefficients)) {
+      throw new IllegalArgumentException(coeff.getClass() + " not handled with a workspace");
+    }
+    return new SolverImpl(convertPDE1DDataBundle(pdeData)).solve(workspace, timeHomogeneous, slices);
+  }
+
   private static PDE1DDataBundle<ConvectionDiffusionPDE1DStandardCoefficients> convertPDE1DDataBundle(final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> pdeData) {
     if (pdeData.getFreeBoundary() == null) {
       return new PDE1DDataBundle<>(
@@ -142,38 +201,42 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
       }
     }
 
+    /**
+     * Solves the PDE with the arrays of a workspace; the time stepping does not allocate, except for the copies of the full results.
+     * @param ws The workspace
+     * @param timeHomogeneous true if the coefficients do not depend on time, in which case they are computed once
+     * @param slices The collector of the selected time slices, null for the full or terminal results
+     * @return The results
+     */
     @SuppressWarnings({"synthetic-access" })
-    public PDEResults1D solve() {
+    public PDEResults1D solve(final ThetaMethodWorkspace ws, final boolean timeHomogeneous, final PDESliceCollector slices) {
 
+      ws.ensureCapacity(_nNodesX);
       double[][] full = null;
-      if (_showFullResults) {
-        full = new double[_nNodesT][_nNodesX];
+      if (slices != null) {
+        slices.add(0, _initial);
+      } else if (_showFullResults) {
+        full = new double[_nNodesT][];
         full[0] = _initial;
       }
       double[] h = _initial;
 
       double t = _grid.getTimeNode(0);
 
-      double[] topRow = _lower.getLeftMatrixCondition(_coeff, _grid, t);
-      double[] bottomRow = _upper.getLeftMatrixCondition(_coeff, _grid, t);
-      final double[] cDag = new double[_nNodesX - 2];
-      final double[] lDag = new double[_nNodesX - 2];
-      final double[] uDag = new double[_nNodesX - 2];
-      for (int ii = 0; ii < _nNodesX - 2; ii++) { //tri-diagonal form
-        final double x = _grid.getSpaceNode(ii + 1);
-        final double a = _coeff.getA(t, x);
-        final double b = _coeff.getB(t, x);
-        final double c = _coeff.getC(t, x);
-        cDag[ii] = _x2nd[ii][1] * a + _x1st[ii][1] * b + c;
-        lDag[ii] = _x2nd[ii][0] * a + _x1st[ii][0] * b;
-        uDag[ii] = _x2nd[ii][2] * a + _x1st[ii][2] * b;
-      }
+      final double[] cDag = ws.getCDag();
+      final double[] lDag = ws.getLDag();
+      final double[] uDag = ws.getUDag();
+      updateCoefficients(t, cDag, lDag, uDag);
+      final double[] y = ws.getY(); //RHS of system
+      final double[] d = ws.getD(); //main diag
+      final double[] u = ws.getU(); //upper
+      final double[] l = ws.getL(); //lower
 
       for (int jj = 0; jj < _nNodesT - 1; jj++) {
         final double dt = _dt[jj];
+        // the solution of the step is written in the buffer not holding the solution of the previous step
+        final double[] hNew = jj % 2 == 0 ? ws.getH0() : ws.getH1();
 
-        //RHS of system
-        final double[] y = new double[_nNodesX];
         //main part of RHS
         for (int ii = 1; ii < _nNodesX - 1; ii++) { //tri-diagonal form
           y[ii] = (1 - (1 - _theta) * dt * cDag[ii - 1]) * h[ii] - (1 - _theta) * dt * (lDag[ii - 1] * h[ii - 1] + +uDag[ii - 1] * h[ii + 1]);
@@ -185,35 +248,27 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
         y[_nNodesX - 1] = _upper.getConstant(_coeff, t);
 
         //put the LHS of system in tri-diagonal form
-        final double[] d = new double[_nNodesX]; //main diag
-        final double[] u = new double[_nNodesX - 1]; //upper
-        final double[] l = new double[_nNodesX - 1]; //lower
         //lower boundary conditions
-        topRow = _lower.getLeftMatrixCondition(_coeff, _grid, t);
+        final double[] topRow = _lower.getLeftMatrixCondition(_coeff, _grid, t);
         final int p2 = topRow.length;
         d[0] = topRow[0];
+        u[0] = 0.0;
         if (p2 > 1) {
           u[0] = topRow[1];
           //Review do we need this?
           ArgChecker.isFalse(p2 > 2, "Boundary condition means that system is not tri-diagonal");
         }
-        bottomRow = _upper.getLeftMatrixCondition(_coeff, _grid, t);
+        final double[] bottomRow = _upper.getLeftMatrixCondition(_coeff, _grid, t);
         final int q2 = bottomRow.length;
         d[_nNodesX - 1] = bottomRow[q2 - 1];
+        l[_nNodesX - 2] = 0.0;
         if (q2 > 1) {
           l[_nNodesX - 2] = bottomRow[q2 - 2];
           ArgChecker.isFalse(q2 > 2, "Boundary condition means that system is not tri-diagonal");
         }
 
-        for (int ii = 0; ii < _nNodesX - 2; ii++) { //tri-diagonal form
-          final double x = _grid.getSpaceNode(ii + 1);
-          final double a = _coeff.getA(t, x);
-          final double b = _coeff.getB(t, x);
-          final double c = _coeff.getC(t, x);
-          //debug - fitting par
-          cDag[ii] = _x2nd[ii][1] * a + _x1st[ii][1] * b + c;
-          lDag[ii] = _x2nd[ii][0] * a + _x1st[ii][0] * b;
-          uDag[ii] = _x2nd[ii][2] * a + _x1st[ii][2] * b;
+        if (!timeHomogeneous) {
+          updateCoefficients(t, cDag, lDag, uDag);
         }
 
         for (int ii = 1; ii < _nNodesX - 1; ii++) {
@@ -221,57 +276,77 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
           u[ii] = _theta * dt * uDag[ii - 1];
           l[ii - 1] = _theta * dt * lDag[ii - 1];
         }
-        final TridiagonalMatrix lhs = new TridiagonalMatrix(d, u, l);
 
         //solve the system (update h)
         switch (_mode) {
           case tridiagonal:
-            h = solvTriDag(lhs, y);
+            solvTriDag(l, d, u, y, hNew, ws.getWork(), _nNodesX);
             break;
           case luDecomp:
-            h = solveLU(lhs, y);
+            final TridiagonalMatrix lhs = new TridiagonalMatrix(Arrays.copyOf(d, _nNodesX), Arrays.copyOf(u, _nNodesX - 1), Arrays.copyOf(l, _nNodesX - 1));
+            System.arraycopy(solveLU(lhs, Arrays.copyOf(y, _nNodesX)), 0, hNew, 0, _nNodesX);
             break;
           case psor:
-            h = solvTriDag(lhs, y);
-            final double[] free = new double[_nNodesX];
+            solvTriDag(l, d, u, y, hNew, ws.getWork(), _nNodesX);
+            final double[] free = ws.getFree();
             for (int ii = 0; ii < _nNodesX; ii++) {
               final double x = _grid.getSpaceNode(ii);
               free[ii] = _freeB.getZValue(t, x);
             }
-            h = solvePSOR(lhs, y, h, free);
+            solvePSOR(d, u, l, y, hNew, free, ws.getInvD());
             break;
           default:
             throw new UnsupportedOperationException("SolverMode " + _mode.toString() + " not implemented");
         }
+        h = hNew;
 
-        if (_showFullResults && full != null) {
+        if (slices != null) {
+          slices.add(jj + 1, h);
+        } else if (full != null) {
           full[jj + 1] = Arrays.copyOf(h, _nNodesX);
         }
       }
       PDEResults1D res;
-      if (_showFullResults) {
+      if (slices != null) {
+        res = slices.getResults(Arrays.copyOf(h, _nNodesX));
+      } else if (full != null) {
         res = new PDEFullResults1D(_grid, full);
       } else {
-        res = new PDETerminalResults1D(_grid, h);
+        res = new PDETerminalResults1D(_grid, Arrays.copyOf(h, _nNodesX));
       }
       return res;
     }
 
+    /**
+     * Computes the coefficients of the spatial operator at the internal nodes at a given time.
+     * @param t The time
+     * @param cDag The coefficients of the central nodes
+     * @param lDag The coefficients of the lower nodes
+     * @param uDag The coefficients of the upper nodes
+     */
+    private void updateCoefficients(final double t, final double[] cDag, final double[] lDag, final double[] uDag) {
+      for (int ii = 0; ii < _nNodesX - 2; ii++) { //tri-diagonal form
+        final double x = _grid.getSpaceNode(ii + 1);
+        final double a = _coeff.getA(t, x);
+        final double b = _coeff.getB(t, x);
+        final double c = _coeff.getC(t, x);
+        cDag[ii] = _x2nd[ii][1] * a + _x1st[ii][1] * b + c;
+        lDag[ii] = _x2nd[ii][0] * a + _x1st[ii][0] * b;
+        uDag[ii] = _x2nd[ii][2] * a + _x1st[ii][2] * b;
+      }
+    }
+
     @SuppressWarnings("synthetic-access")
     private double[] solveLU(final TridiagonalMatrix lM, final double[] y) {
       final DecompositionResult res = DCOMP.evaluate(lM.toDoubleMatrix2D());
       return res.solve(y);
     }
 
-    private double[] solvePSOR(final TridiagonalMatrix lM, final double[] b, final double[] x, final double[] minVal) {
-
-      final double[] d = lM.getDiagonalData();
-      final double[] u = lM.getUpperSubDiagonalData();
-      final double[] l = lM.getLowerSubDiagonalData();
+    private void solvePSOR(final double[] d, final double[] u, final double[] l, final double[] b, final double[] x, final double[] minVal,
+        final double[] invD) {
 
       final int maxInt = 100000;
       final double omega = 1.0;
-      final double[] invD = new double[_nNodesX];
       for (int ii = 0; ii < _nNodesX; ii++) {
         if (d[ii] == 0.0) {
           throw new MathException("Cannot solve by PSOR - zero on diagonal");
@@ -279,7 +354,7 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
         invD[ii] = 1.0 / d[ii];
       }
 
-      final int n = b.length;
+      final int n = _nNodesX;
       double maxErr = 1.0;
       int count = 0;
       double temp;
@@ -308,7 +383,6 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
       if (count == maxInt) {
         throw new MathException("PSOR failed to converge");
       }
-      return x;
     }
 
     /**
@@ -363,6 +437,7 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
     private final Surface<Double, Double, Double> _freeBoundary;
     private double[] _f;
     private double[][] _full;
+    private final PDESliceCollector _slices;
 
     private final double[] _q;
     private final double[][] _m;
@@ -378,18 +453,25 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
     @SuppressWarnings("synthetic-access")
     public SolverImplDeprecated(final ConvectionDiffusionPDE1DStandardCoefficients coeff, final double[] initialCondition, final BoundaryCondition lowerBoundary,
         final BoundaryCondition upperBoundary, final Surface<Double, Double, Double> freeBoundary, final PDEGrid1D grid) {
+      this(coeff, initialCondition, lowerBoundary, upperBoundary, freeBoundary, grid, null);
+    }
+
+    @SuppressWarnings("synthetic-access")
+    public SolverImplDeprecated(final ConvectionDiffusionPDE1DStandardCoefficients coeff, final double[] initialCondition, final BoundaryCondition lowerBoundary,
+        final BoundaryCondition upperBoundary, final Surface<Double, Double, Double> freeBoundary, final PDEGrid1D grid, final PDESliceCollector slices) {
       _coefficients = coeff;
       _initialCondition = initialCondition;
       _lowerBoundary = lowerBoundary;
       _upperBoundary = upperBoundary;
       _freeBoundary = freeBoundary;
       _grid = grid;
+      _slices = slices;
 
       final int tNodes = _grid.getNumTimeNodes();
       final int xNodes = _grid.getNumSpaceNodes();
 
       _f = new double[xNodes];
-      if (_showFullResults) {
+      if (_showFullResults && _slices == null) {
         _full = new double[tNodes][xNodes];
       }
 
@@ -415,14 +497,18 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
         updateLHSMatrix();
         updateLHSBoundary();
         solveMatrixSystem();
-        if (_showFullResults) {
+        if (_slices != null) {
+          _slices.add(n, _f);
+        } else if (_full != null) {
           _full[n] = Arrays.copyOf(_f, _f.length);
         }
         setT1(getT2());
       }
 
       PDEResults1D res;
-      if (_showFullResults) {
+      if (_slices != null) {
+        res = _slices.getResults(_f);
+      } else if (_full != null) {
         res = new PDEFullResults1D(getGrid(), _full);
       } else {
         res = new PDETerminalResults1D(getGrid(), _f);
@@ -436,7 +522,9 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
       final double t0 = getGrid().getTimeNode(0);
       setT1(t0);
       _f = Arrays.copyOf(_initialCondition, getGrid().getNumSpaceNodes());
-      if (_showFullResults) {
+      if (_slices != null) {
+        _slices.add(0, _initialCondition);
+      } else if (_full != null) {
         _full[0] = _initialCondition;
       }
 
@@ -695,8 +783,9 @@ public class ThetaMethodFiniteDifference implements ConvectionDiffusionPDESolver
     private final double[] _beta;
 
     public ExtendedSolverImpl(final ConvectionDiffusionPDE1DFullCoefficients coeff, final double[] initialCondition,
-        final BoundaryCondition lowerBoundary, final BoundaryCondition upperBoundary, final Surface<Double, Double, Double> freeBoundary, final PDEGrid1D grid) {
-      super(coeff.getStandardCoefficients(), initialCondition, lowerBoundary, upperBoundary, freeBoundary, grid);
+        final BoundaryCondition lowerBoundary, final BoundaryCondition upperBoundary, final Surface<Double, Double, Double> freeBoundary, final PDEGrid1D grid,
+        final PDESliceCollector slices) {
+      super(coeff.getStandardCoefficients(), initialCondition, lowerBoundary, upperBoundary, freeBoundary, grid, slices);
       _coeff = coeff;
       final int xNodes = grid.getNumSpaceNodes();
       _alpha = new double[xNodes];
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.finitedifference;
+
+/**
+ * The work arrays of the time stepping of {@link ThetaMethodFiniteDifference}, reused from one time step to the next and
+ * from one solve to the next.
+ * <p>
+ * The arrays are allocated for the largest number of space nodes seen so far. A workspace is not thread-safe: each thread
+ * solving PDEs should use its own workspace.
+ */
+public final class ThetaMethodWorkspace {
+
+  /** The number of space nodes for which the arrays are allocated */
+  private int _capacity;
+  /** The right hand side of the system */
+  private double[] _y;
+  /** The main diagonal of the system */
+  private double[] _d;
+  /** The upper sub-diagonal of the system */
+  private double[] _u;
+  /** The lower sub-diagonal of the system */
+  private double[] _l;
+  /** The work array of the tridiagonal solver */
+  private double[] _work;
+  /** The solution at the previous time step */
+  private double[] _h0;
+  /** The solution at the current time step */
+  private double[] _h1;
+  /** The free boundary at the current time */
+  private double[] _free;
+  /** The inverse of the diagonal, for the PSOR */
+  private double[] _invD;
+  /** The coefficient of the central node of the spatial operator at the internal nodes */
+  private double[] _cDag;
+  /** The coefficient of the lower node of the spatial operator at the internal nodes */
+  private double[] _lDag;
+  /** The coefficient of the upper node of the spatial operator at the internal nodes */
+  private double[] _uDag;
+
+  /**
+   * Creates an empty workspace; the arrays are allocated by the first solve.
+   */
+  public ThetaMethodWorkspace() {
+    _capacity = -1;
+  }
+
+  /**
+   * Ensures the arrays can hold a given number of space nodes.
+   * @param nNodesX The number of space nodes
+   */
+  void ensureCapacity(final int nNodesX) {
+    if (nNodesX <= _capacity) {
+      return;
+    }
+    _capacity = nNodesX;
+    _y = new double[nNodesX];
+    _d = new double[nNodesX];
+    _u = new double[nNodesX - 1];
+    _l = new double[nNodesX - 1];
+    _work = new double[nNodesX];
+    _h0 = new double[nNodesX];
+    _h1 = new double[nNodesX];
+    _free = new double[nNodesX];
+    _invD = new double[nNodesX];
+    _cDag = new double[nNodesX - 2];
+    _lDag = new double[nNodesX - 2];
+    _uDag = new double[nNodesX - 2];
+  }
+
+  double[] getY() {
+    return _y;
+  }
+
+  double[] getD() {
+    return _d;
+  }
+
+  double[] getU() {
+    return _u;
+  }
+
+  double[] getL() {
+    return _l;
+  }
+
+  double[] getWork() {
+    return _work;
+  }
+
+  double[] getH0() {
+    return _h0;
+  }
+
+  double[] getH1() {
+    return _h1;
+  }
+
+  double[] getFree() {
+    return _free;
+  }
+
+  double[] getInvD() {
+    return _invD;
+  }
+
+  double[] getCDag() {
+    return _cDag;
+  }
+
+  double[] getLDag() {
+    return _lDag;
+  }
+
+  double[] getUDag() {
+    return _uDag;
+  }
+
+}
@@ -103,6 +103,16 @@ public class DayPeriodPreCalculatedDiscountCurve extends DiscountCurve {
     return _preCalculatedDiscountFactors[nDays];
   }
 
+  @Override
+  public double[] getDiscountFactors(final double[] times) {
+    ArgChecker.notNull(times, "times");
+    final double[] df = new double[times.length];
+    for (int loopt = 0; loopt < times.length; loopt++) {
+      df[loopt] = getDiscountFactor(times[loopt]);
+    }
+    return df;
+  }
+
   /**
    * Returns true if the discount factors are pre-calculated.
    * @return True if the discount factors are pre-calculated
@@ -82,6 +82,11 @@ public class DiscountCurve extends YieldAndDiscountCurve {
     return _curve.getYValue(t);
   }
 
+  @Override
+  public double[] getDiscountFactors(final double[] times) {
+    return _curve.getYValues(times);
+  }
+
   @Override
   public double getForwardRate(final double t) {
     return -_curve.getDyDx(t) / _curve.getYValue(t);
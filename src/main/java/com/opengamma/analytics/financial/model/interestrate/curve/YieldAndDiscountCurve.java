@@ -56,6 +56,23 @@ public abstract class YieldAndDiscountCurve implements InterestRateModel<Double>
     return Math.exp(-t * getInterestRate(t));
   }
 
+  /**
+   * Returns the discount factors at a set of times.
+   * <p>
+   * The result is the same as one call to {@link #getDiscountFactor(double)} for each time. Curves backed by an
+   * interpolated curve evaluate the times in one pass, which is efficient when the times are sorted.
+   * @param times The times.
+   * @return The discount factors, in the order of the times.
+   */
+  public double[] getDiscountFactors(final double[] times) {
+    ArgChecker.notNull(times, "times");
+    final double[] df = new double[times.length];
+    for (int loopt = 0; loopt < times.length; loopt++) {
+      df[loopt] = getDiscountFactor(times[loopt]);
+    }
+    return df;
+  }
+
   /**
    * Gets the forward rate at a given time.
    * @param t The time
@@ -77,6 +94,38 @@ public abstract class YieldAndDiscountCurve implements InterestRateModel<Double>
     return (getDiscountFactor(startTime) / getDiscountFactor(endTime) - 1) / accrualFactor;
   }
 
+  /**
+   * Gets the forward rates between start and end times, applying simple compounding.
+   * <p>
+   * The discount factors at the start and end times are obtained in one call to {@link #getDiscountFactors(double[])},
+   * the times being interleaved (start and end of each period) to keep them close to sorted for a usual schedule.
+   * The rates are the same as the ones of {@link #getSimplyCompoundForwardRate(double, double, double)}.
+   * 
+   * @param startTimes  the start times
+   * @param endTimes  the end times
+   * @param accrualFactors  the accrual factors
+   * @return the rates
+   */
+  public double[] getSimplyCompoundForwardRates(double[] startTimes, double[] endTimes, double[] accrualFactors) {
+    ArgChecker.notNull(startTimes, "start times");
+    ArgChecker.notNull(endTimes, "end times");
+    ArgChecker.notNull(accrualFactors, "accrual factors");
+    int nbRates = startTimes.length;
+    ArgChecker.isTrue(endTimes.length == nbRates, "end times should have length {}", nbRates);
+    ArgChecker.isTrue(accrualFactors.length == nbRates, "accrual factors should have length {}", nbRates);
+    double[] times = new double[2 * nbRates];
+    for (int loopr = 0; loopr < nbRates; loopr++) {
+      times[2 * loopr] = startTimes[loopr];
+      times[2 * loopr + 1] = endTimes[loopr];
+    }
+    double[] df = getDiscountFactors(times);
+    double[] rates = new double[nbRates];
+    for (int loopr = 0; loopr < nbRates; loopr++) {
+      rates[loopr] = (df[2 * loopr] / df[2 * loopr + 1] - 1) / accrualFactors[loopr];
+    }
+    return rates;
+  }
+
   /**
    * Returns the interest rate in a given compounding per year at a given time.
    * @param t The time.
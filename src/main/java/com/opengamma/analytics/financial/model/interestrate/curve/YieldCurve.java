@@ -69,6 +69,35 @@ public class YieldCurve extends YieldAndDiscountCurve {
     return getCurve().getYValue(t);
   }
 
+  @Override
+  public double[] getDiscountFactors(final double[] times) {
+    ArgChecker.notNull(times, "times");
+    final int nbTimes = times.length;
+    int nbZero = 0;
+    for (int loopt = 0; loopt < nbTimes; loopt++) {
+      if (times[loopt] == 0) {
+        nbZero++;
+      }
+    }
+    // Implementation note: the rate is not required at time 0, where it may not be available.
+    final double[] nonZeroTimes = nbZero == 0 ? times : new double[nbTimes - nbZero];
+    if (nbZero > 0) {
+      int loopnz = 0;
+      for (int loopt = 0; loopt < nbTimes; loopt++) {
+        if (times[loopt] != 0) {
+          nonZeroTimes[loopnz++] = times[loopt];
+        }
+      }
+    }
+    final double[] rates = _curve.getYValues(nonZeroTimes);
+    final double[] df = new double[nbTimes];
+    int loopnz = 0;
+    for (int loopt = 0; loopt < nbTimes; loopt++) {
+      df[loopt] = times[loopt] == 0 ? 1.0 : Math.exp(-times[loopt] * rates[loopnz++]);
+    }
+    return df;
+  }
+
   @Override
   public double getForwardRate(final double t) {
     final DoublesCurve curve = getCurve();
@@ -44,22 +44,31 @@ public class AmericanSpreadOptionFunctionProvider extends OptionFunctionProvider
       final double[][] values, final double baseAssetPrice1, final double baseAssetPrice2, final double downFactor1, final double downFactor2,
       final double upOverDown1, final double upOverDown2, final int steps) {
     final int stepsP = steps + 1;
+    final double[][] res = new double[stepsP][stepsP];
+    getNextOptionValues(discount, uuProbability, udProbability, duProbability, ddProbability, values, baseAssetPrice1, baseAssetPrice2, downFactor1, downFactor2,
+        upOverDown1, upOverDown2, steps, res);
+    return res;
+  }
+
+  @Override
+  public void getNextOptionValues(final double discount, final double uuProbability, final double udProbability, final double duProbability, final double ddProbability,
+      final double[][] values, final double baseAssetPrice1, final double baseAssetPrice2, final double downFactor1, final double downFactor2,
+      final double upOverDown1, final double upOverDown2, final int steps, final double[][] result) {
+    final int stepsP = steps + 1;
     final double strike = getStrike();
     final double sign = getSign();
     final double assetPrice2Rest = baseAssetPrice2 * Math.pow(downFactor2, steps);
 
-    final double[][] res = new double[stepsP][stepsP];
     double assetPrice1 = baseAssetPrice1 * Math.pow(downFactor1, steps);
     for (int j = 0; j < stepsP; ++j) {
       double assetPrice2 = assetPrice2Rest;
       for (int i = 0; i < stepsP; ++i) {
-        res[j][i] = discount * (uuProbability * values[j + 1][i + 1] + udProbability * values[j + 1][i] + duProbability * values[j][i + 1] + ddProbability * values[j][i]);
-        res[j][i] = Math.max(res[j][i], sign * (assetPrice1 - assetPrice2 - strike));
+        result[j][i] = discount * (uuProbability * values[j + 1][i + 1] + udProbability * values[j + 1][i] + duProbability * values[j][i + 1] + ddProbability * values[j][i]);
+        result[j][i] = Math.max(result[j][i], sign * (assetPrice1 - assetPrice2 - strike));
         assetPrice2 *= upOverDown2;
       }
       assetPrice1 *= upOverDown1;
     }
-    return res;
   }
 
   @Override
@@ -86,23 +95,33 @@ public class AmericanSpreadOptionFunctionProvider extends OptionFunctionProvider
       final double mmProbability, final double mdProbability, final double duProbability, final double dmProbability, final double ddProbability, final double[][] values,
       final double baseAssetPrice1, final double baseAssetPrice2, final double downFactor1, final double downFactor2, final double middleOverDown1, final double middleOverDown2, final int steps) {
     final int nNodes = 2 * steps + 1;
+    final double[][] res = new double[nNodes][nNodes];
+    getNextOptionValues(discount, uuProbability, umProbability, udProbability, muProbability, mmProbability, mdProbability, duProbability, dmProbability, ddProbability, values,
+        baseAssetPrice1, baseAssetPrice2, downFactor1, downFactor2, middleOverDown1, middleOverDown2, steps, res);
+    return res;
+  }
+
+  @Override
+  public void getNextOptionValues(final double discount, final double uuProbability, final double umProbability, final double udProbability, final double muProbability,
+      final double mmProbability, final double mdProbability, final double duProbability, final double dmProbability, final double ddProbability, final double[][] values,
+      final double baseAssetPrice1, final double baseAssetPrice2, final double downFactor1, final double downFactor2, final double middleOverDown1, final double middleOverDown2, final int steps,
+      final double[][] result) {
+    final int nNodes = 2 * steps + 1;
     final double strike = getStrike();
     final double sign = getSign();
     final double assetPrice2Rest = baseAssetPrice2 * Math.pow(downFactor2, steps);
 
-    final double[][] res = new double[nNodes][nNodes];
     double assetPrice1 = baseAssetPrice1 * Math.pow(downFactor1, steps);
     for (int j = 0; j < nNodes; ++j) {
       double assetPrice2 = assetPrice2Rest;
       for (int i = 0; i < nNodes; ++i) {
-        res[j][i] = discount * (uuProbability * values[j + 2][i + 2] + umProbability * values[j + 2][i + 1] + udProbability * values[j + 2][i] + muProbability * values[j + 1][i + 2] + mmProbability *
+        result[j][i] = discount * (uuProbability * values[j + 2][i + 2] + umProbability * values[j + 2][i + 1] + udProbability * values[j + 2][i] + muProbability * values[j + 1][i + 2] + mmProbability *
             values[j + 1][i + 1] + mdProbability * values[j + 1][i] + duProbability * values[j][i + 2] + dmProbability * values[j][i + 1] + ddProbability * values[j][i]);
-        res[j][i] = Math.max(res[j][i], sign * (assetPrice1 - assetPrice2 - strike));
+        result[j][i] = Math.max(result[j][i], sign * (assetPrice1 - assetPrice2 - strike));
         assetPrice2 *= middleOverDown2;
       }
       assetPrice1 *= middleOverDown1;
     }
-    return res;
   }
 
   @Override
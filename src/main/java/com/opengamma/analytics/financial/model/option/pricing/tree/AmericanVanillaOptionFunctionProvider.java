@@ -92,6 +92,12 @@ public class AmericanVanillaOptionFunctionProvider extends OptionFunctionProvide
     return _calc.nextValues(discount, upProbability, downProbability, values, sumCashDiv, baseAssetPrice, downFactor, upOverDown, steps);
   }
 
+  @Override
+  public void getNextOptionValues(final double discount, final double upProbability, final double downProbability, final double[] values, final double baseAssetPrice,
+      final double sumCashDiv, final double downFactor, final double upOverDown, final int steps, final double[] result) {
+    _calc.nextValues(discount, upProbability, downProbability, values, sumCashDiv, baseAssetPrice, downFactor, upOverDown, steps, result);
+  }
+
   @Override
   public double[] getPayoffAtExpiryTrinomial(double assetPrice, final double downFactor, double middleOverDown) {
     final double strike = getStrike();
@@ -111,17 +117,23 @@ public class AmericanVanillaOptionFunctionProvider extends OptionFunctionProvide
   @Override
   public double[] getNextOptionValues(final double discount, final double upProbability, final double middleProbability, final double downProbability, final double[] values,
       final double baseAssetPrice, final double sumCashDiv, final double downFactor, final double middleOverDown, final int steps) {
+    final double[] res = new double[2 * steps + 1];
+    getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, baseAssetPrice, sumCashDiv, downFactor, middleOverDown, steps, res);
+    return res;
+  }
+
+  @Override
+  public void getNextOptionValues(final double discount, final double upProbability, final double middleProbability, final double downProbability, final double[] values,
+      final double baseAssetPrice, final double sumCashDiv, final double downFactor, final double middleOverDown, final int steps, final double[] result) {
     final double strike = getStrike();
     final double sign = getSign();
     final int nNodes = 2 * steps + 1;
 
-    final double[] res = new double[nNodes];
     double assetPrice = baseAssetPrice * Math.pow(downFactor, steps);
     for (int j = 0; j < nNodes; ++j) {
-      res[j] = Math.max(discount * (upProbability * values[j + 2] + middleProbability * values[j + 1] + downProbability * values[j]), sign * (assetPrice + sumCashDiv - strike));
+      result[j] = Math.max(discount * (upProbability * values[j + 2] + middleProbability * values[j + 1] + downProbability * values[j]), sign * (assetPrice + sumCashDiv - strike));
       assetPrice *= middleOverDown;
     }
-    return res;
   }
 
   /**
@@ -149,10 +161,32 @@ public class AmericanVanillaOptionFunctionProvider extends OptionFunctionProvide
       }
       return res;
     }
+
+    /**
+     * Writes the option values of the next layer into an array; by default copies the values of the method above.
+     */
+    public void nextValues(final double discount, final double upProbability, final double downProbability, final double[] values, final double sumCashDiv, final double baseAssetPrice,
+        final double downFactor, final double upOverDown, final int steps, final double[] result) {
+      final double[] res = nextValues(discount, upProbability, downProbability, values, sumCashDiv, baseAssetPrice, downFactor, upOverDown, steps);
+      System.arraycopy(res, 0, result, 0, steps + 1);
+    }
   }
 
   private class NormalCalculator extends Calculator {
 
+    @Override
+    public void nextValues(final double discount, final double upProbability, final double downProbability, final double[] values, final double sumCashDiv, final double baseAssetPrice,
+        final double downFactor, final double upOverDown, final int steps, final double[] result) {
+      final double strike = getStrike();
+      final double sign = getSign();
+      final int nStepsP = steps + 1;
+      double assetPrice = baseAssetPrice * Math.pow(downFactor, steps);
+      for (int j = 0; j < nStepsP; ++j) {
+        result[j] = Math.max(discount * (upProbability * values[j + 1] + downProbability * values[j]), sign * (assetPrice + sumCashDiv - strike));
+        assetPrice *= upOverDown;
+      }
+    }
+
     @Override
     public double[] payoffsAtExpiry(final double assetPrice, final double downFactor, final double upOverDown) {
       final int nSteps = getNumberOfSteps();
@@ -28,34 +28,36 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     ArgChecker.isTrue(Doubles.isFinite(dividend), "dividend should be finite");
 
     final LatticeSpecification modLattice = (lattice instanceof TimeVaryingLatticeSpecification) ? new TrigeorgisLatticeSpecification() : lattice;
-    if (function instanceof BarrierOptionFunctionProvider) {
-      final BarrierOptionFunctionProvider barrierFunction = (BarrierOptionFunctionProvider) function;
-      if (barrierFunction.getChecker().checkOut(spot) || barrierFunction.getChecker().checkStrikeBehindBarrier()) {
-        return 0.;
-      }
+    if (isKnockedOut(function, spot)) {
+      return 0.;
     }
+    return backwardInduction(modLattice, function, spot, volatility, interestRate, dividend, null);
+  }
 
-    final int nSteps = function.getNumberOfSteps();
-    final double strike = function.getStrike();
-    final double timeToExpiry = function.getTimeToExpiry();
-
-    final double dt = timeToExpiry / nSteps;
-    final double discount = Math.exp(-interestRate * dt);
-    final double[] params = modLattice.getParameters(spot, strike, timeToExpiry, volatility, interestRate - dividend, nSteps, dt);
-    final double upFactor = params[0];
-    final double downFactor = params[1];
-    final double upProbability = params[2];
-    final double downProbability = params[3];
-    final double upOverDown = upFactor / downFactor;
-    ArgChecker.isTrue(upProbability > 0., "upProbability should be greater than 0.");
-    ArgChecker.isTrue(upProbability < 1., "upProbability should be smaller than 1.");
+  @Override
+  public double[] getPrice(final LatticeSpecification lattice, final OptionFunctionProvider1D[] functions, final double spot, final double volatility, final double interestRate,
+      final double dividend) {
+    ArgChecker.notNull(lattice, "lattice");
+    ArgChecker.noNulls(functions, "functions");
+    ArgChecker.isTrue(spot > 0., "Spot should be positive");
+    ArgChecker.isTrue(Doubles.isFinite(spot), "Spot should be finite");
+    ArgChecker.isTrue(volatility > 0., "volatility should be positive");
+    ArgChecker.isTrue(Doubles.isFinite(volatility), "volatility should be finite");
+    ArgChecker.isTrue(Doubles.isFinite(interestRate), "interestRate should be finite");
+    ArgChecker.isTrue(Doubles.isFinite(dividend), "dividend should be finite");
 
-    double[] values = function.getPayoffAtExpiry(spot, downFactor, upOverDown);
-    for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, upProbability, downProbability, values, spot, 0., downFactor, upOverDown, i);
+    final LatticeSpecification modLattice = (lattice instanceof TimeVaryingLatticeSpecification) ? new TrigeorgisLatticeSpecification() : lattice;
+    final double[][] params = new double[functions.length][];
+    for (int k = 0; k < functions.length; ++k) {
+      if (!isKnockedOut(functions[k], spot)) {
+        params[k] = getParameters(modLattice, functions[k], spot, volatility, interestRate, dividend);
+      }
     }
-
-    return values[0];
+    final double[] prices = new double[functions.length];
+    for (final int[] group : groupByLattice(functions, params)) {
+      backwardInduction(modLattice, functions, group, params[group[0]], spot, volatility, interestRate, dividend, prices, null);
+    }
+    return prices;
   }
 
   /*
@@ -111,8 +113,12 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     }
 
     double[] values = function.getPayoffAtExpiry(spot, downFactor, upOverDown);
+    double[] next = new double[values.length];
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(df[i], upProbability[i], downProbability[i], values, spot, 0., downFactor, upOverDown, i);
+      function.getNextOptionValues(df[i], upProbability[i], downProbability[i], values, spot, 0., downFactor, upOverDown, i, next);
+      final double[] temp = values;
+      values = next;
+      next = temp;
     }
 
     return values[0];
@@ -161,6 +167,7 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
 
     double assetPriceBase = dividend.spotModifier(spot, interestRate);
     double[] values = function.getPayoffAtExpiry(assetPriceBase, downFactor, upOverDown);
+    double[] next = new double[values.length];
 
     int counter = 0;
     final int nDivs = dividend.getNumberOfDividends();
@@ -173,7 +180,10 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
             ++counter;
           }
         }
-        values = function.getNextOptionValues(discount, upProbability, downProbability, values, assetPriceBase, 0., downFactor, upOverDown, i);
+        function.getNextOptionValues(discount, upProbability, downProbability, values, assetPriceBase, 0., downFactor, upOverDown, i, next);
+        final double[] temp = values;
+        values = next;
+        next = temp;
       }
     } else {
       double sumDiscountDiv = 0.;
@@ -185,7 +195,10 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
             ++counter;
           }
         }
-        values = function.getNextOptionValues(discount, upProbability, downProbability, values, assetPriceBase, sumDiscountDiv, downFactor, upOverDown, i);
+        function.getNextOptionValues(discount, upProbability, downProbability, values, assetPriceBase, sumDiscountDiv, downFactor, upOverDown, i, next);
+        final double[] temp = values;
+        values = next;
+        next = temp;
       }
     }
 
@@ -245,8 +258,12 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     final double assetPrice1 = spot1 * Math.pow(downFactor1, nSteps);
     final double assetPrice2 = spot2 * Math.pow(downFactor2, nSteps);
     double[][] values = function.getPayoffAtExpiry(assetPrice1, assetPrice2, upOverDown1, upOverDown2);
+    double[][] next = new double[values.length][values.length];
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, uuProbability, udProbability, duProbability, ddProbability, values, spot1, spot2, downFactor1, downFactor2, upOverDown1, upOverDown2, i);
+      function.getNextOptionValues(discount, uuProbability, udProbability, duProbability, ddProbability, values, spot1, spot2, downFactor1, downFactor2, upOverDown1, upOverDown2, i, next);
+      final double[][] temp = values;
+      values = next;
+      next = temp;
     }
 
     return values[0][0];
@@ -264,49 +281,39 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     ArgChecker.isTrue(Doubles.isFinite(interestRate), "interestRate should be finite");
     ArgChecker.isTrue(Doubles.isFinite(dividend), "dividend should be finite");
 
-    final GreekResultCollection collection = new GreekResultCollection();
     final LatticeSpecification modLattice = (lattice instanceof TimeVaryingLatticeSpecification) ? new TrigeorgisLatticeSpecification() : lattice;
-
-    final int nSteps = function.getNumberOfSteps();
-    final double strike = function.getStrike();
-    final double timeToExpiry = function.getTimeToExpiry();
-
-    final double dt = timeToExpiry / nSteps;
-    final double discount = Math.exp(-interestRate * dt);
-    final double[] params = modLattice.getParameters(spot, strike, timeToExpiry, volatility, interestRate - dividend, nSteps, dt);
-    final double upFactor = params[0];
-    final double downFactor = params[1];
-    final double upProbability = params[2];
-    final double downProbability = params[3];
-    final double upOverDown = upFactor / downFactor;
-    ArgChecker.isTrue(upProbability > 0., "upProbability should be greater than 0.");
-    ArgChecker.isTrue(upProbability < 1., "upProbability should be smaller than 1.");
-
-    double[] values = function.getPayoffAtExpiry(spot, downFactor, upOverDown);
     final double[] res = new double[4];
+    backwardInduction(modLattice, function, spot, volatility, interestRate, dividend, res);
+    return toGreekResultCollection(res);
+  }
 
-    final double[] pForDelta = new double[] {spot * downFactor, spot * upFactor };
-    final double[] pForGamma = new double[] {pForDelta[0] * downFactor, pForDelta[0] * upFactor, pForDelta[1] * upFactor };
+  @Override
+  public GreekResultCollection[] getGreeks(final LatticeSpecification lattice, final OptionFunctionProvider1D[] functions, final double spot, final double volatility,
+      final double interestRate, final double dividend) {
+    ArgChecker.notNull(lattice, "lattice");
+    ArgChecker.noNulls(functions, "functions");
+    ArgChecker.isTrue(spot > 0., "Spot should be positive");
+    ArgChecker.isTrue(Doubles.isFinite(spot), "Spot should be finite");
+    ArgChecker.isTrue(volatility > 0., "volatility should be positive");
+    ArgChecker.isTrue(Doubles.isFinite(volatility), "volatility should be finite");
+    ArgChecker.isTrue(Doubles.isFinite(interestRate), "interestRate should be finite");
+    ArgChecker.isTrue(Doubles.isFinite(dividend), "dividend should be finite");
 
-    for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, upProbability, downProbability, values, spot, 0., downFactor, upOverDown, i);
-      if (i == 2) {
-        res[2] = 2. * ((values[2] - values[1]) / (pForGamma[2] - pForGamma[1]) - (values[1] - values[0]) / (pForGamma[1] - pForGamma[0])) / (pForGamma[2] - pForGamma[0]);
-        res[3] = values[1];
-      }
-      if (i == 1) {
-        res[1] = (values[1] - values[0]) / (pForDelta[1] - pForDelta[0]);
-      }
+    final LatticeSpecification modLattice = (lattice instanceof TimeVaryingLatticeSpecification) ? new TrigeorgisLatticeSpecification() : lattice;
+    final double[][] params = new double[functions.length][];
+    for (int k = 0; k < functions.length; ++k) {
+      params[k] = getParameters(modLattice, functions[k], spot, volatility, interestRate, dividend);
     }
-    res[0] = values[0];
-    res[3] = modLattice.getTheta(spot, volatility, interestRate, dividend, dt, res);
-
-    collection.put(Greek.FAIR_PRICE, res[0]);
-    collection.put(Greek.DELTA, res[1]);
-    collection.put(Greek.GAMMA, res[2]);
-    collection.put(Greek.THETA, res[3]);
-
-    return collection;
+    final double[] prices = new double[functions.length];
+    final double[][] res = new double[functions.length][4];
+    for (final int[] group : groupByLattice(functions, params)) {
+      backwardInduction(modLattice, functions, group, params[group[0]], spot, volatility, interestRate, dividend, prices, res);
+    }
+    final GreekResultCollection[] greeks = new GreekResultCollection[functions.length];
+    for (int k = 0; k < functions.length; ++k) {
+      greeks[k] = toGreekResultCollection(res[k]);
+    }
+    return greeks;
   }
 
   /*
@@ -365,13 +372,17 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     }
 
     double[] values = function.getPayoffAtExpiry(spot, downFactor, upOverDown);
+    double[] next = new double[values.length];
     final double[] res = new double[4];
 
     final double[] pForDelta = new double[] {spot * downFactor, spot * upFactor };
     final double[] pForGamma = new double[] {pForDelta[0] * downFactor, pForDelta[0] * upFactor, pForDelta[1] * upFactor };
 
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(df[i], upProbability[i], downProbability[i], values, spot, 0., downFactor, upOverDown, i);
+      function.getNextOptionValues(df[i], upProbability[i], downProbability[i], values, spot, 0., downFactor, upOverDown, i, next);
+      final double[] temp = values;
+      values = next;
+      next = temp;
       if (i == 2) {
         res[2] = 2. * ((values[2] - values[1]) / (pForGamma[2] - pForGamma[1]) - (values[1] - values[0]) / (pForGamma[1] - pForGamma[0])) / (pForGamma[2] - pForGamma[0]);
         res[3] = values[1];
@@ -429,6 +440,7 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
 
     double assetPriceBase = dividend.spotModifier(spot, interestRate);
     double[] values = function.getPayoffAtExpiry(assetPriceBase, downFactor, upOverDown);
+    double[] next = new double[values.length];
 
     int counter = 0;
     final int nDivs = dividend.getNumberOfDividends();
@@ -442,7 +454,10 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
             ++counter;
           }
         }
-        values = function.getNextOptionValues(discount, upProbability, downProbability, values, assetPriceBase, 0., downFactor, upOverDown, i);
+        function.getNextOptionValues(discount, upProbability, downProbability, values, assetPriceBase, 0., downFactor, upOverDown, i, next);
+        final double[] temp = values;
+        values = next;
+        next = temp;
         if (i == 2) {
           final double[] pForGamma = dividend.getAssetPricesForGamma(spot, interestRate, divSteps, upFactor, downFactor, 0.);
           res[2] = 2. * ((values[2] - values[1]) / (pForGamma[2] - pForGamma[1]) - (values[1] - values[0]) / (pForGamma[1] - pForGamma[0])) / (pForGamma[2] - pForGamma[0]);
@@ -463,7 +478,10 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
             ++counter;
           }
         }
-        values = function.getNextOptionValues(discount, upProbability, downProbability, values, assetPriceBase, sumDiscountDiv, downFactor, upOverDown, i);
+        function.getNextOptionValues(discount, upProbability, downProbability, values, assetPriceBase, sumDiscountDiv, downFactor, upOverDown, i, next);
+        final double[] temp = values;
+        values = next;
+        next = temp;
         if (i == 2) {
           final double[] pForGamma = dividend.getAssetPricesForGamma(assetPriceBase, interestRate, divSteps, upFactor, downFactor, sumDiscountDiv);
           res[2] = 2. * ((values[2] - values[1]) / (pForGamma[2] - pForGamma[1]) - (values[1] - values[0]) / (pForGamma[1] - pForGamma[0])) / (pForGamma[2] - pForGamma[0]);
@@ -544,8 +562,12 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     final double[] pForGamma1 = new double[] {pForDelta1[0] * downFactor1, spot1, pForDelta1[1] / downFactor1 };
     final double[] pForGamma2 = new double[] {pForDelta2[0] * downFactor2, spot2, pForDelta2[1] / downFactor2 };
     double[][] values = function.getPayoffAtExpiry(assetPrice1, assetPrice2, upOverDown1, upOverDown2);
+    double[][] next = new double[values.length][values.length];
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, uuProbability, udProbability, duProbability, ddProbability, values, spot1, spot2, downFactor1, downFactor2, upOverDown1, upOverDown2, i);
+      function.getNextOptionValues(discount, uuProbability, udProbability, duProbability, ddProbability, values, spot1, spot2, downFactor1, downFactor2, upOverDown1, upOverDown2, i, next);
+      final double[][] temp = values;
+      values = next;
+      next = temp;
       if (i == 2) {
         final double valDiff1huu = values[2][2] - values[1][2];
         final double valDiff1luu = values[1][2] - values[0][2];
@@ -591,4 +613,116 @@ public class BinomialTreeOptionPricingModel extends TreeOptionPricingModel {
   public double getPrice(final OptionFunctionProvider1D function, final StandardOptionDataBundle data) {
     throw new IllegalArgumentException("Not implemented");
   }
+
+  /**
+   * Backward induction for an option on one asset with constant volatility, interest rate and dividend.
+   * @param modLattice The lattice specification
+   * @param function The option function
+   * @param spot Spot price of underlying
+   * @param volatility Volatility
+   * @param interestRate Interest rate
+   * @param dividend Dividend
+   * @param greeks The array receiving the option price, delta, gamma and theta, null if only the price is required
+   * @return The option price
+   */
+  private static double backwardInduction(final LatticeSpecification modLattice, final OptionFunctionProvider1D function, final double spot, final double volatility,
+      final double interestRate, final double dividend, final double[] greeks) {
+    final double[] params = getParameters(modLattice, function, spot, volatility, interestRate, dividend);
+    final double[] price = new double[1];
+    backwardInduction(modLattice, new OptionFunctionProvider1D[] {function }, new int[] {0 }, params, spot, volatility, interestRate, dividend, price,
+        greeks == null ? null : new double[][] {greeks });
+    return price[0];
+  }
+
+  /**
+   * Runs the backward inductions of a group of options on the same lattice, all the options moving back one time step
+   * together. The time step, the discount factor and the nodes are computed once for the group.
+   * @param modLattice The lattice specification
+   * @param functions The options
+   * @param group The indices of the options of the group, which have the same number of steps and time to expiry
+   * @param params The lattice parameters of the group
+   * @param spot The spot
+   * @param volatility The volatility
+   * @param interestRate The interest rate
+   * @param dividend The dividend
+   * @param prices The prices, filled at the indices of the group
+   * @param greeks The {price, delta, gamma, theta} of the options, filled at the indices of the group, or null
+   */
+  private static void backwardInduction(final LatticeSpecification modLattice, final OptionFunctionProvider1D[] functions, final int[] group,
+      final double[] params, final double spot, final double volatility, final double interestRate, final double dividend, final double[] prices,
+      final double[][] greeks) {
+    final int nSteps = functions[group[0]].getNumberOfSteps();
+    final double timeToExpiry = functions[group[0]].getTimeToExpiry();
+
+    final double dt = timeToExpiry / nSteps;
+    final double discount = Math.exp(-interestRate * dt);
+    final double upFactor = params[0];
+    final double downFactor = params[1];
+    final double upProbability = params[2];
+    final double downProbability = params[3];
+    final double upOverDown = upFactor / downFactor;
+    ArgChecker.isTrue(upProbability > 0., "upProbability should be greater than 0.");
+    ArgChecker.isTrue(upProbability < 1., "upProbability should be smaller than 1.");
+
+    final int nOptions = group.length;
+    final double[][] values = new double[nOptions][];
+    final double[][] next = new double[nOptions][];
+    for (int k = 0; k < nOptions; ++k) {
+      values[k] = functions[group[k]].getPayoffAtExpiry(spot, downFactor, upOverDown);
+      next[k] = new double[values[k].length];
+    }
+
+    final double[] pForDelta = new double[] {spot * downFactor, spot * upFactor };
+    final double[] pForGamma = new double[] {pForDelta[0] * downFactor, pForDelta[0] * upFactor, pForDelta[1] * upFactor };
+
+    for (int i = nSteps - 1; i > -1; --i) {
+      for (int k = 0; k < nOptions; ++k) {
+        functions[group[k]].getNextOptionValues(discount, upProbability, downProbability, values[k], spot, 0., downFactor, upOverDown, i, next[k]);
+        final double[] temp = values[k];
+        values[k] = next[k];
+        next[k] = temp;
+        if (greeks != null && i == 2) {
+          final double[] res = greeks[group[k]];
+          res[2] = 2. * ((values[k][2] - values[k][1]) / (pForGamma[2] - pForGamma[1]) - (values[k][1] - values[k][0]) / (pForGamma[1] - pForGamma[0])) /
+              (pForGamma[2] - pForGamma[0]);
+          res[3] = values[k][1];
+        }
+        if (greeks != null && i == 1) {
+          greeks[group[k]][1] = (values[k][1] - values[k][0]) / (pForDelta[1] - pForDelta[0]);
+        }
+      }
+    }
+    for (int k = 0; k < nOptions; ++k) {
+      prices[group[k]] = values[k][0];
+      if (greeks != null) {
+        final double[] res = greeks[group[k]];
+        res[0] = values[k][0];
+        res[3] = modLattice.getTheta(spot, volatility, interestRate, dividend, dt, res);
+      }
+    }
+  }
+
+  private static double[] getParameters(final LatticeSpecification modLattice, final OptionFunctionProvider1D function, final double spot,
+      final double volatility, final double interestRate, final double dividend) {
+    final int nSteps = function.getNumberOfSteps();
+    final double timeToExpiry = function.getTimeToExpiry();
+    return modLattice.getParameters(spot, function.getStrike(), timeToExpiry, volatility, interestRate - dividend, nSteps, timeToExpiry / nSteps);
+  }
+
+  private static boolean isKnockedOut(final OptionFunctionProvider1D function, final double spot) {
+    if (function instanceof BarrierOptionFunctionProvider) {
+      final BarrierOptionFunctionProvider barrierFunction = (BarrierOptionFunctionProvider) function;
+      return barrierFunction.getChecker().checkOut(spot) || barrierFunction.getChecker().checkStrikeBehindBarrier();
+    }
+    return false;
+  }
+
+  private static GreekResultCollection toGreekResultCollection(final double[] res) {
+    final GreekResultCollection collection = new GreekResultCollection();
+    collection.put(Greek.FAIR_PRICE, res[0]);
+    collection.put(Greek.DELTA, res[1]);
+    collection.put(Greek.GAMMA, res[2]);
+    collection.put(Greek.THETA, res[3]);
+    return collection;
+  }
 }
@@ -52,6 +52,24 @@ public class EuropeanVanillaOptionFunctionProvider extends OptionFunctionProvide
     return values;
   }
 
+  @Override
+  public void getNextOptionValues(final double discount, final double upProbability, final double downProbability, final double[] values, final double baseAssetPrice,
+      final double sumCashDiv, final double downFactor, final double upOverDown, final int steps, final double[] result) {
+    final int nStepsP = steps + 1;
+    for (int j = 0; j < nStepsP; ++j) {
+      result[j] = discount * (upProbability * values[j + 1] + downProbability * values[j]);
+    }
+  }
+
+  @Override
+  public void getNextOptionValues(final double discount, final double upProbability, final double middleProbability, final double downProbability, final double[] values,
+      final double baseAssetPrice, final double sumCashDiv, final double downFactor, final double middleOverDown, final int steps, final double[] result) {
+    final int nNodes = 2 * steps + 1;
+    for (int j = 0; j < nNodes; ++j) {
+      result[j] = discount * (upProbability * values[j + 2] + middleProbability * values[j + 1] + downProbability * values[j]);
+    }
+  }
+
   @Override
   public int hashCode() {
     return super.hashCode();
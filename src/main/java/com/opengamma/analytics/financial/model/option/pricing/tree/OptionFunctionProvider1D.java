@@ -70,6 +70,28 @@ public abstract class OptionFunctionProvider1D {
     return res;
   }
 
+  /**
+   * Given a set of option values in the (steps+1)-th layer, writes option values in the (steps)-th layer into an array, so that
+   * the backward induction alternates between two buffers instead of allocating a new layer at each step.
+   * The default implementation copies the layer derived by the method above; a subclass should override this method to avoid the
+   * allocation, consistently with the method above.
+   * @param discount Discount factor
+   * @param upProbability Up probability
+   * @param downProbability Down probability
+   * @param values Option values in the (steps+1)-th layer, the first steps+2 elements are used
+   * @param baseAssetPrice Asset price at (0,0), i.e., the starting point
+   * @param sumCashDiv Sum of discounted discrete cash dividends payed after (steps+1)-th layer
+   * @param downFactor Down factor
+   * @param upOverDown  (up factor)/(down factor)
+   * @param steps
+   * @param result The array receiving the option values in the (steps)-th layer in its first steps+1 elements, distinct from values
+   */
+  public void getNextOptionValues(final double discount, final double upProbability, final double downProbability, final double[] values, final double baseAssetPrice,
+      final double sumCashDiv, final double downFactor, final double upOverDown, final int steps, final double[] result) {
+    final double[] res = getNextOptionValues(discount, upProbability, downProbability, values, baseAssetPrice, sumCashDiv, downFactor, upOverDown, steps);
+    System.arraycopy(res, 0, result, 0, steps + 1);
+  }
+
   /**
    * @param assetPrice (Modified) assetPrice at (0,0)
    * @param downFactor Down factor
@@ -104,6 +126,29 @@ public abstract class OptionFunctionProvider1D {
     return res;
   }
 
+  /**
+   * Given a set of option values in the (steps+1)-th layer, writes option values in the (steps)-th layer into an array, so that
+   * the backward induction alternates between two buffers instead of allocating a new layer at each step.
+   * The default implementation copies the layer derived by the method above; a subclass should override this method to avoid the
+   * allocation, consistently with the method above.
+   * @param discount Discount factor
+   * @param upProbability Up probability
+   * @param middleProbability Middle probability
+   * @param downProbability Down probability
+   * @param values Option values in the (steps+1)-th layer, the first 2*steps+3 elements are used
+   * @param baseAssetPrice Asset price at (0,0), i.e., the starting point
+   * @param sumCashDiv Sum of discounted discrete cash dividends payed after (steps+1)-th layer
+   * @param downFactor Down factor
+   * @param middleOverDown  (middle factor)/(down factor)
+   * @param steps
+   * @param result The array receiving the option values in the (steps)-th layer in its first 2*steps+1 elements, distinct from values
+   */
+  public void getNextOptionValues(final double discount, final double upProbability, final double middleProbability, final double downProbability, final double[] values,
+      final double baseAssetPrice, final double sumCashDiv, final double downFactor, final double middleOverDown, final int steps, final double[] result) {
+    final double[] res = getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, baseAssetPrice, sumCashDiv, downFactor, middleOverDown, steps);
+    System.arraycopy(res, 0, result, 0, 2 * steps + 1);
+  }
+
   /**
    * Access strike price
    * @return _strike
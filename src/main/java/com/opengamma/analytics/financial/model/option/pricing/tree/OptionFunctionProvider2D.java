@@ -77,6 +77,36 @@ public abstract class OptionFunctionProvider2D {
     return res;
   }
 
+  /**
+   * Given a set of option values in the (steps+1)-th layer, writes option values in the (steps)-th layer into an array, so that
+   * the backward induction alternates between two buffers instead of allocating a new layer at each step.
+   * The default implementation copies the layer derived by the method above; a subclass should override this method to avoid the
+   * allocation, consistently with the method above.
+   * @param discount Discount factor
+   * @param uuProbability Up-up probability
+   * @param udProbability Up-down probability
+   * @param duProbability Down-up probability
+   * @param ddProbability Down-down probability
+   * @param values Option values in the (steps+1)-th layer, the first steps+2 rows and columns are used
+   * @param baseAssetPrice1 Asset price 1 at (0,0), i.e., the starting point
+   * @param baseAssetPrice2 Asset price 2 at (0,0), i.e., the starting point
+   * @param downFactor1 Down factor for asset1
+   * @param downFactor2 Down factor for asset2
+   * @param upOverDown1 (up factor)/(down factor) for asset1
+   * @param upOverDown2 (up factor)/(down factor) for asset2
+   * @param steps
+   * @param result The array receiving the option values in the (steps)-th layer in its first steps+1 rows and columns, distinct from values
+   */
+  public void getNextOptionValues(final double discount, final double uuProbability, final double udProbability, final double duProbability, final double ddProbability,
+      final double[][] values, final double baseAssetPrice1, final double baseAssetPrice2, final double downFactor1, final double downFactor2,
+      final double upOverDown1, final double upOverDown2, final int steps, final double[][] result) {
+    final double[][] res = getNextOptionValues(discount, uuProbability, udProbability, duProbability, ddProbability, values, baseAssetPrice1, baseAssetPrice2, downFactor1,
+        downFactor2, upOverDown1, upOverDown2, steps);
+    for (int j = 0; j < steps + 1; ++j) {
+      System.arraycopy(res[j], 0, result[j], 0, steps + 1);
+    }
+  }
+
   /**
    * For trinomial model
    * @param assetPrice1 Asset price 1 at (nSteps,0), i.e., the price at the lowest node
@@ -125,6 +155,43 @@ public abstract class OptionFunctionProvider2D {
     return res;
   }
 
+  /**
+   * Given a set of option values in the (steps+1)-th layer, writes option values in the (steps)-th layer into an array, so that
+   * the backward induction alternates between two buffers instead of allocating a new layer at each step.
+   * The default implementation copies the layer derived by the method above; a subclass should override this method to avoid the
+   * allocation, consistently with the method above.
+   * @param discount Discount factor
+   * @param uuProbability Up-up probability
+   * @param umProbability Up-middle probability
+   * @param udProbability Up-down probability
+   * @param muProbability Middle-up probability
+   * @param mmProbability Middle-middle probability
+   * @param mdProbability Middle-down probability
+   * @param duProbability Down-up probability
+   * @param dmProbability Down-middle probability
+   * @param ddProbability Down-down probability
+   * @param values Option values in the (steps+1)-th layer, the first 2*steps+3 rows and columns are used
+   * @param baseAssetPrice1 Asset price 1 at (0,0), i.e., the starting point
+   * @param baseAssetPrice2 Asset price 2 at (0,0), i.e., the starting point
+   * @param downFactor1 Down factor for asset1
+   * @param downFactor2 Down factor for asset2
+   * @param middleOverDown1 (middle factor)/(down factor) for asset1
+   * @param middleOverDown2 (middle factor)/(down factor) for asset2
+   * @param steps
+   * @param result The array receiving the option values in the (steps)-th layer in its first 2*steps+1 rows and columns, distinct from values
+   */
+  public void getNextOptionValues(final double discount, final double uuProbability, final double umProbability, final double udProbability, final double muProbability,
+      final double mmProbability, final double mdProbability, final double duProbability, final double dmProbability, final double ddProbability, final double[][] values,
+      final double baseAssetPrice1, final double baseAssetPrice2, final double downFactor1, final double downFactor2, final double middleOverDown1, final double middleOverDown2,
+      final int steps, final double[][] result) {
+    final double[][] res = getNextOptionValues(discount, uuProbability, umProbability, udProbability, muProbability, mmProbability, mdProbability, duProbability, dmProbability,
+        ddProbability, values, baseAssetPrice1, baseAssetPrice2, downFactor1, downFactor2, middleOverDown1, middleOverDown2, steps);
+    final int nNodes = 2 * steps + 1;
+    for (int j = 0; j < nNodes; ++j) {
+      System.arraycopy(res[j], 0, result[j], 0, nNodes);
+    }
+  }
+
   /**
    * Access strike price
    * @return _strike
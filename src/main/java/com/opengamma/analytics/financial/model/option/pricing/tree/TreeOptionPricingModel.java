@@ -5,8 +5,15 @@
  */
 package com.opengamma.analytics.financial.model.option.pricing.tree;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.opengamma.analytics.financial.greeks.GreekResultCollection;
 import com.opengamma.analytics.financial.model.option.definition.StandardOptionDataBundle;
+import com.opengamma.strata.collect.ArgChecker;
 
 /**
  * 
@@ -26,6 +33,27 @@ public abstract class TreeOptionPricingModel {
   public abstract double getPrice(final LatticeSpecification lattice, final OptionFunctionProvider1D function, final double spot, final double volatility, final double interestRate,
       final double dividend);
 
+  /**
+   * Compute option prices of several options on one asset with constant volatility, interest rate and dividend, for example a
+   * book of strikes. By default the options are priced one by one.
+   * @param lattice {@link LatticeSpecification}
+   * @param functions {@link OptionFunctionProvider1D} of the options
+   * @param spot Spot price of underlying
+   * @param volatility Volatility
+   * @param interestRate Interest rate
+   * @param dividend Dividend
+   * @return Option prices, in the order of the functions
+   */
+  public double[] getPrice(final LatticeSpecification lattice, final OptionFunctionProvider1D[] functions, final double spot, final double volatility,
+      final double interestRate, final double dividend) {
+    ArgChecker.noNulls(functions, "functions");
+    final double[] prices = new double[functions.length];
+    for (int k = 0; k < functions.length; ++k) {
+      prices[k] = getPrice(lattice, functions[k], spot, volatility, interestRate, dividend);
+    }
+    return prices;
+  }
+
   /**
    * Compute option price on one asset with time-varying volatility, interest rate and dividend
    * The condition (number of steps) = (volatility length) = (interest rate length) = (dividend length) Should hold
@@ -80,6 +108,27 @@ public abstract class TreeOptionPricingModel {
   public abstract GreekResultCollection getGreeks(final LatticeSpecification lattice, final OptionFunctionProvider1D function, final double spot, final double volatility, final double interestRate,
       final double dividend);
 
+  /**
+   * Compute option Greeks of several options on one asset with constant volatility, interest rate and dividend, for example a
+   * book of strikes. By default the Greeks are computed option by option.
+   * @param lattice {@link LatticeSpecification}
+   * @param functions {@link OptionFunctionProvider1D} of the options
+   * @param spot Spot price of underlying
+   * @param volatility Volatility
+   * @param interestRate Interest rate
+   * @param dividend Dividend
+   * @return Option Greeks as {@link GreekResultCollection}, in the order of the functions
+   */
+  public GreekResultCollection[] getGreeks(final LatticeSpecification lattice, final OptionFunctionProvider1D[] functions, final double spot, final double volatility,
+      final double interestRate, final double dividend) {
+    ArgChecker.noNulls(functions, "functions");
+    final GreekResultCollection[] greeks = new GreekResultCollection[functions.length];
+    for (int k = 0; k < functions.length; ++k) {
+      greeks[k] = getGreeks(lattice, functions[k], spot, volatility, interestRate, dividend);
+    }
+    return greeks;
+  }
+
   /**
    * Compute option Greeks on one asset with time-varying volatility, interest rate and dividend
    * The condition (number of steps) = (volatility length) = (interest rate length) = (dividend length) Should hold
@@ -128,4 +177,62 @@ public abstract class TreeOptionPricingModel {
    * @return Option price
    */
   public abstract double getPrice(final OptionFunctionProvider1D function, final StandardOptionDataBundle data);
+
+  /**
+   * Groups the options which have the same lattice: same number of steps, same time to expiry and same lattice parameters.
+   * @param functions The options
+   * @param parameters The lattice parameters of the options, null for the options which are not priced
+   * @return The groups, in the order of their first option, as indices of the options in increasing order
+   */
+  static List<int[]> groupByLattice(final OptionFunctionProvider1D[] functions, final double[][] parameters) {
+    final Map<LatticeKey, List<Integer>> groups = new LinkedHashMap<>();
+    for (int k = 0; k < functions.length; ++k) {
+      if (parameters[k] != null) {
+        groups.computeIfAbsent(new LatticeKey(functions[k], parameters[k]), key -> new ArrayList<>()).add(k);
+      }
+    }
+    final List<int[]> res = new ArrayList<>(groups.size());
+    for (final List<Integer> group : groups.values()) {
+      res.add(group.stream().mapToInt(Integer::intValue).toArray());
+    }
+    return res;
+  }
+
+  /**
+   * The lattice of an option: number of steps, time to expiry and lattice parameters.
+   */
+  private static final class LatticeKey {
+    private final int _nSteps;
+    private final double _timeToExpiry;
+    private final double[] _parameters;
+
+    private LatticeKey(final OptionFunctionProvider1D function, final double[] parameters) {
+      _nSteps = function.getNumberOfSteps();
+      _timeToExpiry = function.getTimeToExpiry();
+      _parameters = parameters;
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + _nSteps;
+      result = prime * result + Double.hashCode(_timeToExpiry);
+      result = prime * result + Arrays.hashCode(_parameters);
+      return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof LatticeKey)) {
+        return false;
+      }
+      final LatticeKey other = (LatticeKey) obj;
+      return _nSteps == other._nSteps && Double.compare(_timeToExpiry, other._timeToExpiry) == 0 && Arrays.equals(_parameters, other._parameters);
+    }
+  }
+
 }
@@ -29,38 +29,36 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     ArgChecker.isTrue(Doubles.isFinite(dividend), "dividend should be finite");
 
     final LatticeSpecification modLattice = (lattice instanceof TimeVaryingLatticeSpecification) ? new TrigeorgisLatticeSpecification() : lattice;
-    if (function instanceof BarrierOptionFunctionProvider) {
-      final BarrierOptionFunctionProvider barrierFunction = (BarrierOptionFunctionProvider) function;
-      if (barrierFunction.getChecker().checkOut(spot) || barrierFunction.getChecker().checkStrikeBehindBarrier()) {
-        return 0.;
-      }
+    if (isKnockedOut(function, spot)) {
+      return 0.;
     }
+    return backwardInduction(modLattice, function, spot, volatility, interestRate, dividend, null);
+  }
 
-    final int nSteps = function.getNumberOfSteps();
-    final double strike = function.getStrike();
-    final double timeToExpiry = function.getTimeToExpiry();
-
-    final double dt = timeToExpiry / nSteps;
-    final double discount = Math.exp(-interestRate * dt);
-    final double[] params = modLattice.getParametersTrinomial(spot, strike, timeToExpiry, volatility, interestRate - dividend, nSteps, dt);
-    final double middleFactor = params[1];
-    final double downFactor = params[2];
-    final double upProbability = params[3];
-    final double middleProbability = params[4];
-    final double downProbability = params[5];
-    final double middleOverDown = middleFactor / downFactor;
-    ArgChecker.isTrue(upProbability > 0., "upProbability should be greater than 0.");
-    ArgChecker.isTrue(upProbability < 1., "upProbability should be smaller than 1.");
-    ArgChecker.isTrue(middleProbability > 0., "middleProbability should be greater than 0.");
-    ArgChecker.isTrue(middleProbability < 1., "middleProbability should be smaller than 1.");
-    ArgChecker.isTrue(downProbability > 0., "downProbability should be greater than 0.");
+  @Override
+  public double[] getPrice(final LatticeSpecification lattice, final OptionFunctionProvider1D[] functions, final double spot, final double volatility, final double interestRate,
+      final double dividend) {
+    ArgChecker.notNull(lattice, "lattice");
+    ArgChecker.noNulls(functions, "functions");
+    ArgChecker.isTrue(spot > 0., "Spot should be positive");
+    ArgChecker.isTrue(Doubles.isFinite(spot), "Spot should be finite");
+    ArgChecker.isTrue(volatility > 0., "volatility should be positive");
+    ArgChecker.isTrue(Doubles.isFinite(volatility), "volatility should be finite");
+    ArgChecker.isTrue(Doubles.isFinite(interestRate), "interestRate should be finite");
+    ArgChecker.isTrue(Doubles.isFinite(dividend), "dividend should be finite");
 
-    double[] values = function.getPayoffAtExpiryTrinomial(spot, downFactor, middleOverDown);
-    for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, spot, 0., downFactor, middleOverDown, i);
+    final LatticeSpecification modLattice = (lattice instanceof TimeVaryingLatticeSpecification) ? new TrigeorgisLatticeSpecification() : lattice;
+    final double[][] params = new double[functions.length][];
+    for (int k = 0; k < functions.length; ++k) {
+      if (!isKnockedOut(functions[k], spot)) {
+        params[k] = getParameters(modLattice, functions[k], spot, volatility, interestRate, dividend);
+      }
     }
-
-    return values[0];
+    final double[] prices = new double[functions.length];
+    for (final int[] group : groupByLattice(functions, params)) {
+      backwardInduction(modLattice, functions, group, params[group[0]], spot, volatility, interestRate, dividend, prices, null);
+    }
+    return prices;
   }
 
   @Override
@@ -119,8 +117,12 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     }
 
     double[] values = function.getPayoffAtExpiryTrinomial(spot, downFactor, middleOverDown);
+    double[] next = new double[values.length];
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(df[i], upProbability[i], middleProbability[i], downProbability[i], values, spot, 0., downFactor, middleOverDown, i);
+      function.getNextOptionValues(df[i], upProbability[i], middleProbability[i], downProbability[i], values, spot, 0., downFactor, middleOverDown, i, next);
+      final double[] temp = values;
+      values = next;
+      next = temp;
     }
 
     return values[0];
@@ -172,6 +174,7 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
 
     double assetPriceBase = dividend.spotModifier(spot, interestRate);
     double[] values = function.getPayoffAtExpiryTrinomial(assetPriceBase, downFactor, middleOverDown);
+    double[] next = new double[values.length];
 
     int counter = 0;
     final int nDivs = dividend.getNumberOfDividends();
@@ -184,7 +187,10 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
             ++counter;
           }
         }
-        values = function.getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, assetPriceBase, 0., downFactor, middleOverDown, i);
+        function.getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, assetPriceBase, 0., downFactor, middleOverDown, i, next);
+        final double[] temp = values;
+        values = next;
+        next = temp;
       }
     } else {
       double sumDiscountDiv = 0.;
@@ -196,7 +202,10 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
             ++counter;
           }
         }
-        values = function.getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, assetPriceBase, sumDiscountDiv, downFactor, middleOverDown, i);
+        function.getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, assetPriceBase, sumDiscountDiv, downFactor, middleOverDown, i, next);
+        final double[] temp = values;
+        values = next;
+        next = temp;
       }
     }
 
@@ -254,9 +263,13 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     final double assetPrice1 = spot1 * Math.pow(downFactor1, nSteps);
     final double assetPrice2 = spot2 * Math.pow(downFactor2, nSteps);
     double[][] values = function.getPayoffAtExpiryTrinomial(assetPrice1, assetPrice2, middleOverDown1, middleOverDown2);
+    double[][] next = new double[values.length][values.length];
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, uuProbability, umProbability, udProbability, muProbability, mmProbability, mdProbability, duProbability, dmProbability, ddProbability, values,
-          spot1, spot2, downFactor1, downFactor2, middleOverDown1, middleOverDown2, i);
+      function.getNextOptionValues(discount, uuProbability, umProbability, udProbability, muProbability, mmProbability, mdProbability, duProbability, dmProbability, ddProbability, values,
+          spot1, spot2, downFactor1, downFactor2, middleOverDown1, middleOverDown2, i, next);
+      final double[][] temp = values;
+      values = next;
+      next = temp;
     }
 
     return values[0][0];
@@ -273,63 +286,39 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     ArgChecker.isTrue(Doubles.isFinite(interestRate), "interestRate should be finite");
     ArgChecker.isTrue(Doubles.isFinite(dividend), "dividend should be finite");
 
-    final GreekResultCollection collection = new GreekResultCollection();
     final LatticeSpecification modLattice = (lattice instanceof TimeVaryingLatticeSpecification) ? new TrigeorgisLatticeSpecification() : lattice;
-
-    final int nSteps = function.getNumberOfSteps();
-    final double strike = function.getStrike();
-    final double timeToExpiry = function.getTimeToExpiry();
-
-    final double dt = timeToExpiry / nSteps;
-    final double discount = Math.exp(-interestRate * dt);
-    final double[] params = modLattice.getParametersTrinomial(spot, strike, timeToExpiry, volatility, interestRate - dividend, nSteps, dt);
-    final double upFactor = params[0];
-    final double middleFactor = params[1];
-    final double downFactor = params[2];
-    final double upProbability = params[3];
-    final double middleProbability = params[4];
-    final double downProbability = params[5];
-    final double middleOverDown = middleFactor / downFactor;
-    ArgChecker.isTrue(upProbability > 0., "upProbability should be greater than 0.");
-    ArgChecker.isTrue(upProbability < 1., "upProbability should be smaller than 1.");
-    ArgChecker.isTrue(middleProbability > 0., "middleProbability should be greater than 0.");
-    ArgChecker.isTrue(middleProbability < 1., "middleProbability should be smaller than 1.");
-    ArgChecker.isTrue(downProbability > 0., "downProbability should be greater than 0.");
-
-    double[] values = function.getPayoffAtExpiryTrinomial(spot, downFactor, middleOverDown);
     final double[] res = new double[4];
+    backwardInduction(modLattice, function, spot, volatility, interestRate, dividend, res);
+    return toGreekResultCollection(res);
+  }
 
-    final double[] pForDelta = new double[] {spot * downFactor, spot * middleFactor, spot * upFactor };
-    final double[] pForGamma = new double[] {pForDelta[0] * downFactor, pForDelta[0] * middleFactor, pForDelta[1] * middleFactor, pForDelta[2] * middleFactor, pForDelta[2] * upFactor };
+  @Override
+  public GreekResultCollection[] getGreeks(final LatticeSpecification lattice, final OptionFunctionProvider1D[] functions, final double spot, final double volatility,
+      final double interestRate, final double dividend) {
+    ArgChecker.notNull(lattice, "lattice");
+    ArgChecker.noNulls(functions, "functions");
+    ArgChecker.isTrue(spot > 0., "Spot should be positive");
+    ArgChecker.isTrue(Doubles.isFinite(spot), "Spot should be finite");
+    ArgChecker.isTrue(volatility > 0., "volatility should be positive");
+    ArgChecker.isTrue(Doubles.isFinite(volatility), "volatility should be finite");
+    ArgChecker.isTrue(Doubles.isFinite(interestRate), "interestRate should be finite");
+    ArgChecker.isTrue(Doubles.isFinite(dividend), "dividend should be finite");
 
-    for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, spot, 0., downFactor, middleOverDown, i);
-      if (i == 2) {
-        final double delta1 = (values[4] - values[3]) / (pForGamma[4] - pForGamma[3]);
-        final double delta2 = (values[3] - values[2]) / (pForGamma[3] - pForGamma[2]);
-        final double delta3 = (values[2] - values[1]) / (pForGamma[2] - pForGamma[1]);
-        final double delta4 = (values[1] - values[0]) / (pForGamma[1] - pForGamma[0]);
-        final double gamma1 = 2. * (delta1 - delta2) / (pForGamma[4] - pForGamma[2]);
-        final double gamma2 = 2. * (delta2 - delta3) / (pForGamma[3] - pForGamma[1]);
-        final double gamma3 = 2. * (delta3 - delta4) / (pForGamma[2] - pForGamma[0]);
-        res[2] = (gamma1 + gamma2 + gamma3) / 3.;
-        res[3] = values[2];
-      }
-      if (i == 1) {
-        final double delta1 = (values[1] - values[0]) / (pForDelta[1] - pForDelta[0]);
-        final double delta2 = (values[2] - values[1]) / (pForDelta[2] - pForDelta[1]);
-        res[1] = 0.5 * (delta1 + delta2);
-      }
+    final LatticeSpecification modLattice = (lattice instanceof TimeVaryingLatticeSpecification) ? new TrigeorgisLatticeSpecification() : lattice;
+    final double[][] params = new double[functions.length][];
+    for (int k = 0; k < functions.length; ++k) {
+      params[k] = getParameters(modLattice, functions[k], spot, volatility, interestRate, dividend);
     }
-    res[0] = values[0];
-    res[3] = modLattice.getTheta(spot, volatility, interestRate, dividend, dt, res);
-
-    collection.put(Greek.FAIR_PRICE, res[0]);
-    collection.put(Greek.DELTA, res[1]);
-    collection.put(Greek.GAMMA, res[2]);
-    collection.put(Greek.THETA, res[3]);
-
-    return collection;
+    final double[] prices = new double[functions.length];
+    final double[][] res = new double[functions.length][4];
+    for (final int[] group : groupByLattice(functions, params)) {
+      backwardInduction(modLattice, functions, group, params[group[0]], spot, volatility, interestRate, dividend, prices, res);
+    }
+    final GreekResultCollection[] greeks = new GreekResultCollection[functions.length];
+    for (int k = 0; k < functions.length; ++k) {
+      greeks[k] = toGreekResultCollection(res[k]);
+    }
+    return greeks;
   }
 
   @Override
@@ -382,13 +371,17 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     }
 
     double[] values = function.getPayoffAtExpiryTrinomial(spot, downFactor, middleOverDown);
+    double[] next = new double[values.length];
     final double[] res = new double[4];
 
     final double[] pForDelta = new double[] {spot * downFactor, spot, spot * middleOverDown };
     final double[] pForGamma = new double[] {pForDelta[0] * downFactor, pForDelta[0], spot, pForDelta[2], pForDelta[2] * middleOverDown };
 
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(df[i], upProbability[i], middleProbability[i], downProbability[i], values, spot, 0., downFactor, middleOverDown, i);
+      function.getNextOptionValues(df[i], upProbability[i], middleProbability[i], downProbability[i], values, spot, 0., downFactor, middleOverDown, i, next);
+      final double[] temp = values;
+      values = next;
+      next = temp;
       if (i == 2) {
         final double delta1 = (values[4] - values[3]) / (pForGamma[4] - pForGamma[3]);
         final double delta2 = (values[3] - values[2]) / (pForGamma[3] - pForGamma[2]);
@@ -459,6 +452,7 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
 
     double assetPriceBase = dividend.spotModifier(spot, interestRate);
     double[] values = function.getPayoffAtExpiryTrinomial(assetPriceBase, downFactor, middleOverDown);
+    double[] next = new double[values.length];
 
     int counter = 0;
     final int nDivs = dividend.getNumberOfDividends();
@@ -472,7 +466,10 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
             ++counter;
           }
         }
-        values = function.getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, assetPriceBase, 0., downFactor, middleOverDown, i);
+        function.getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, assetPriceBase, 0., downFactor, middleOverDown, i, next);
+        final double[] temp = values;
+        values = next;
+        next = temp;
         if (i == 2) {
           final double[] pForGamma = dividend.getAssetPricesForGamma(spot, interestRate, divSteps, upFactor, middleFactor, downFactor, 0.);
           final double delta1 = (values[4] - values[3]) / (pForGamma[4] - pForGamma[3]);
@@ -502,7 +499,10 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
             ++counter;
           }
         }
-        values = function.getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, assetPriceBase, sumDiscountDiv, downFactor, middleOverDown, i);
+        function.getNextOptionValues(discount, upProbability, middleProbability, downProbability, values, assetPriceBase, sumDiscountDiv, downFactor, middleOverDown, i, next);
+        final double[] temp = values;
+        values = next;
+        next = temp;
         if (i == 2) {
           final double[] pForGamma = dividend.getAssetPricesForGamma(assetPriceBase, interestRate, divSteps, upFactor, middleFactor, downFactor, sumDiscountDiv);
           final double delta1 = (values[4] - values[3]) / (pForGamma[4] - pForGamma[3]);
@@ -589,11 +589,15 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     final double assetPrice1 = spot1 * Math.pow(downFactor1, nSteps);
     final double assetPrice2 = spot2 * Math.pow(downFactor2, nSteps);
     double[][] values = function.getPayoffAtExpiryTrinomial(assetPrice1, assetPrice2, middleOverDown1, middleOverDown2);
+    double[][] next = new double[values.length][values.length];
     final double[] res = new double[7];
 
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, uuProbability, umProbability, udProbability, muProbability, mmProbability, mdProbability, duProbability, dmProbability, ddProbability, values,
-          spot1, spot2, downFactor1, downFactor2, middleOverDown1, middleOverDown2, i);
+      function.getNextOptionValues(discount, uuProbability, umProbability, udProbability, muProbability, mmProbability, mdProbability, duProbability, dmProbability, ddProbability, values,
+          spot1, spot2, downFactor1, downFactor2, middleOverDown1, middleOverDown2, i, next);
+      final double[][] temp = values;
+      values = next;
+      next = temp;
       if (i == 2) {
         final double diff11 = pForGamma1[1] - pForGamma1[0];
         final double diff12 = pForGamma1[2] - pForGamma1[1];
@@ -751,4 +755,129 @@ public class TrinomialTreeOptionPricingModel extends TreeOptionPricingModel {
     return (factor * assetBase - assetPrevDw - upProbability * (assetPrevUp - assetPrevDw)) / (assetPrevMd - assetPrevDw);
   }
 
+  /**
+   * Backward induction for an option on one asset with constant volatility, interest rate and dividend.
+   * @param modLattice The lattice specification
+   * @param function The option function
+   * @param spot Spot price of underlying
+   * @param volatility Volatility
+   * @param interestRate Interest rate
+   * @param dividend Dividend
+   * @param greeks The array receiving the option price, delta, gamma and theta, null if only the price is required
+   * @return The option price
+   */
+  private static double backwardInduction(final LatticeSpecification modLattice, final OptionFunctionProvider1D function, final double spot, final double volatility,
+      final double interestRate, final double dividend, final double[] greeks) {
+    final double[] params = getParameters(modLattice, function, spot, volatility, interestRate, dividend);
+    final double[] price = new double[1];
+    backwardInduction(modLattice, new OptionFunctionProvider1D[] {function }, new int[] {0 }, params, spot, volatility, interestRate, dividend, price,
+        greeks == null ? null : new double[][] {greeks });
+    return price[0];
+  }
+
+  /**
+   * Runs the backward inductions of a group of options on the same lattice, all the options moving back one time step
+   * together. The time step, the discount factor and the nodes are computed once for the group.
+   * @param modLattice The lattice specification
+   * @param functions The options
+   * @param group The indices of the options of the group, which have the same number of steps and time to expiry
+   * @param params The trinomial lattice parameters of the group
+   * @param spot The spot
+   * @param volatility The volatility
+   * @param interestRate The interest rate
+   * @param dividend The dividend
+   * @param prices The prices, filled at the indices of the group
+   * @param greeks The {price, delta, gamma, theta} of the options, filled at the indices of the group, or null
+   */
+  private static void backwardInduction(final LatticeSpecification modLattice, final OptionFunctionProvider1D[] functions, final int[] group,
+      final double[] params, final double spot, final double volatility, final double interestRate, final double dividend, final double[] prices,
+      final double[][] greeks) {
+    final int nSteps = functions[group[0]].getNumberOfSteps();
+    final double timeToExpiry = functions[group[0]].getTimeToExpiry();
+
+    final double dt = timeToExpiry / nSteps;
+    final double discount = Math.exp(-interestRate * dt);
+    final double upFactor = params[0];
+    final double middleFactor = params[1];
+    final double downFactor = params[2];
+    final double upProbability = params[3];
+    final double middleProbability = params[4];
+    final double downProbability = params[5];
+    final double middleOverDown = middleFactor / downFactor;
+    ArgChecker.isTrue(upProbability > 0., "upProbability should be greater than 0.");
+    ArgChecker.isTrue(upProbability < 1., "upProbability should be smaller than 1.");
+    ArgChecker.isTrue(middleProbability > 0., "middleProbability should be greater than 0.");
+    ArgChecker.isTrue(middleProbability < 1., "middleProbability should be smaller than 1.");
+    ArgChecker.isTrue(downProbability > 0., "downProbability should be greater than 0.");
+
+    final int nOptions = group.length;
+    final double[][] values = new double[nOptions][];
+    final double[][] next = new double[nOptions][];
+    for (int k = 0; k < nOptions; ++k) {
+      values[k] = functions[group[k]].getPayoffAtExpiryTrinomial(spot, downFactor, middleOverDown);
+      next[k] = new double[values[k].length];
+    }
+
+    final double[] pForDelta = new double[] {spot * downFactor, spot * middleFactor, spot * upFactor };
+    final double[] pForGamma = new double[] {pForDelta[0] * downFactor, pForDelta[0] * middleFactor, pForDelta[1] * middleFactor, pForDelta[2] * middleFactor, pForDelta[2] * upFactor };
+
+    for (int i = nSteps - 1; i > -1; --i) {
+      for (int k = 0; k < nOptions; ++k) {
+        functions[group[k]].getNextOptionValues(discount, upProbability, middleProbability, downProbability, values[k], spot, 0., downFactor, middleOverDown, i, next[k]);
+        final double[] temp = values[k];
+        values[k] = next[k];
+        next[k] = temp;
+        if (greeks != null && i == 2) {
+          final double[] v = values[k];
+          final double delta1 = (v[4] - v[3]) / (pForGamma[4] - pForGamma[3]);
+          final double delta2 = (v[3] - v[2]) / (pForGamma[3] - pForGamma[2]);
+          final double delta3 = (v[2] - v[1]) / (pForGamma[2] - pForGamma[1]);
+          final double delta4 = (v[1] - v[0]) / (pForGamma[1] - pForGamma[0]);
+          final double gamma1 = 2. * (delta1 - delta2) / (pForGamma[4] - pForGamma[2]);
+          final double gamma2 = 2. * (delta2 - delta3) / (pForGamma[3] - pForGamma[1]);
+          final double gamma3 = 2. * (delta3 - delta4) / (pForGamma[2] - pForGamma[0]);
+          greeks[group[k]][2] = (gamma1 + gamma2 + gamma3) / 3.;
+          greeks[group[k]][3] = v[2];
+        }
+        if (greeks != null && i == 1) {
+          final double[] v = values[k];
+          final double delta1 = (v[1] - v[0]) / (pForDelta[1] - pForDelta[0]);
+          final double delta2 = (v[2] - v[1]) / (pForDelta[2] - pForDelta[1]);
+          greeks[group[k]][1] = 0.5 * (delta1 + delta2);
+        }
+      }
+    }
+    for (int k = 0; k < nOptions; ++k) {
+      prices[group[k]] = values[k][0];
+      if (greeks != null) {
+        final double[] res = greeks[group[k]];
+        res[0] = values[k][0];
+        res[3] = modLattice.getTheta(spot, volatility, interestRate, dividend, dt, res);
+      }
+    }
+  }
+
+  private static double[] getParameters(final LatticeSpecification modLattice, final OptionFunctionProvider1D function, final double spot,
+      final double volatility, final double interestRate, final double dividend) {
+    final int nSteps = function.getNumberOfSteps();
+    final double timeToExpiry = function.getTimeToExpiry();
+    return modLattice.getParametersTrinomial(spot, function.getStrike(), timeToExpiry, volatility, interestRate - dividend, nSteps, timeToExpiry / nSteps);
+  }
+
+  private static boolean isKnockedOut(final OptionFunctionProvider1D function, final double spot) {
+    if (function instanceof BarrierOptionFunctionProvider) {
+      final BarrierOptionFunctionProvider barrierFunction = (BarrierOptionFunctionProvider) function;
+      return barrierFunction.getChecker().checkOut(spot) || barrierFunction.getChecker().checkStrikeBehindBarrier();
+    }
+    return false;
+  }
+
+  private static GreekResultCollection toGreekResultCollection(final double[] res) {
+    final GreekResultCollection collection = new GreekResultCollection();
+    collection.put(Greek.FAIR_PRICE, res[0]);
+    collection.put(Greek.DELTA, res[1]);
+    collection.put(Greek.GAMMA, res[2]);
+    collection.put(Greek.THETA, res[3]);
+    return collection;
+  }
 }
@@ -1,130 +1,110 @@
 /**
  * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
- * 
+ *
  * Please see distribution for license.
  */
 package com.opengamma.analytics.financial.model.volatility.local;
 
-import com.opengamma.analytics.financial.model.finitedifference.PDETerminalResults1D;
+import java.util.concurrent.ForkJoinPool;
+
 import com.opengamma.analytics.financial.model.interestrate.curve.ForwardCurve;
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.EuropeanVanillaOption;
 import com.opengamma.analytics.financial.model.volatility.BlackFormulaRepository;
-import com.opengamma.analytics.financial.model.volatility.smile.fitting.interpolation.SurfaceArrayUtils;
 import com.opengamma.analytics.financial.model.volatility.smile.fitting.sabr.StandardSmileSurfaceDataBundle;
 import com.opengamma.analytics.financial.model.volatility.surface.BlackVolatilitySurfaceMoneyness;
 import com.opengamma.analytics.financial.model.volatility.surface.VolatilitySurfaceInterpolator;
 import com.opengamma.analytics.math.interpolation.Interpolator1D;
-import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
+import com.opengamma.strata.collect.ArgChecker;
 
 /**
- * 
+ * Computes the sensitivities of the implied volatility of options to the market implied volatilities, by bumping each node of
+ * the market data and solving the PDE with the bumped local volatility surface, expressed in strike.
+ * <p>
+ * The implied volatilities are read from the PDE values with the space nodes as forwards. The options with the same expiry
+ * and type share the base and bumped solutions, and the nodes can be bumped concurrently on a pool.
  */
 public class LocalVolatilityBackwardPDEBucketedVegaCalculator {
-  private static final double SHIFT = 1e-4;
   private final LocalVolatilityForwardPDECalculator _pdeCalculator;
-  private final Interpolator1D _interpolator;
   private final DupireLocalVolatilityCalculator _dupireCalculator;
-  private final VolatilitySurfaceInterpolator _surfaceInterpolator;
+  /**
+   * The bumping of the market data, shared with the other PDE.
+   */
+  private final LocalVolatilityPDEBucketedVegaCalculator _bucketedVega;
 
   public LocalVolatilityBackwardPDEBucketedVegaCalculator(final LocalVolatilityForwardPDECalculator pdeCalculator, final Interpolator1D interpolator,
       final DupireLocalVolatilityCalculator dupireCalculator, final VolatilitySurfaceInterpolator surfaceInterpolator) {
+    this(pdeCalculator, interpolator, dupireCalculator, surfaceInterpolator, null);
+  }
+
+  /**
+   * Constructor.
+   * @param pdeCalculator The forward PDE calculator
+   * @param interpolator The interpolator of the implied volatilities between the PDE nodes
+   * @param dupireCalculator The local volatility calculator
+   * @param surfaceInterpolator The interpolator of the market implied volatilities
+   * @param pool The pool on which the bumped nodes are computed, null for a sequential computation
+   */
+  public LocalVolatilityBackwardPDEBucketedVegaCalculator(final LocalVolatilityForwardPDECalculator pdeCalculator, final Interpolator1D interpolator,
+      final DupireLocalVolatilityCalculator dupireCalculator, final VolatilitySurfaceInterpolator surfaceInterpolator, final ForkJoinPool pool) {
     _pdeCalculator = pdeCalculator;
-    _interpolator = interpolator;
     _dupireCalculator = dupireCalculator;
-    _surfaceInterpolator = surfaceInterpolator;
+    _bucketedVega = new LocalVolatilityPDEBucketedVegaCalculator(pdeCalculator, interpolator, surfaceInterpolator, pool);
   }
 
   public double[][] getResult(final LocalVolatilitySurfaceMoneyness localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption option,
       final StandardSmileSurfaceDataBundle marketData) {
-    final int n = marketData.getNumExpiries();
-    final double[][] strikes = marketData.getStrikes();
-    final double expiry = option.getTimeToExpiry();
-    final double forward = forwardCurve.getForward(expiry);
-    final double x = option.getStrike() / forward;
-    final PDETerminalResults1D pdeGrid = _pdeCalculator.runPDESolver(localVolatility, option);
-    final int spaceSteps = _pdeCalculator.getNSpaceSteps();
-    final double[] xNodes = pdeGrid.getGrid().getSpaceNodes();
-    int index = SurfaceArrayUtils.getLowerBoundIndex(xNodes, x);
-    if (index >= 1) {
-      index--;
-    }
-    if (index >= spaceSteps - 1) {
-      index--;
-      if (index >= spaceSteps - 1) {
-        index--;
-      }
-    }
-    final double[] vols = new double[4];
-    final double[] fwds = new double[4];
-    System.arraycopy(xNodes, index, fwds, 0, 4);
-    for (int i = 0; i < 4; i++) {
-      vols[i] = BlackFormulaRepository.impliedVolatility(pdeGrid.getFunctionValue(index + i), fwds[i], option.getStrike(), option.getTimeToExpiry(), option.isCall());
-    }
-    Interpolator1DDataBundle db = _interpolator.getDataBundle(fwds, vols);
-    final double exampleVol = _interpolator.interpolate(db, x);
-    final double[][] res = new double[n][];
-    for (int i = 0; i < n; i++) {
-      final int m = strikes[i].length;
-      res[i] = new double[m];
-      for (int j = 0; j < m; j++) {
-        final BlackVolatilitySurfaceMoneyness bumpedSurface = _surfaceInterpolator.getBumpedVolatilitySurface(marketData, i, j, SHIFT);
-        final LocalVolatilitySurfaceStrike bumpedLV = LocalVolatilitySurfaceConverter.toStrikeSurface(_dupireCalculator.getLocalVolatility(bumpedSurface));
-        final PDETerminalResults1D pdeResBumped = _pdeCalculator.runPDESolver(bumpedLV, forwardCurve, option);
-        for (int k = 0; k < 4; k++) {
-          vols[k] = BlackFormulaRepository.impliedVolatility(pdeResBumped.getFunctionValue(index + k), fwds[k], option.getStrike(), expiry, option.isCall());
-        }
-        db = _interpolator.getDataBundle(fwds, vols);
-        final double vol = _interpolator.interpolate(db, x);
-        res[i][j] = (vol - exampleVol) / SHIFT;
-      }
-    }
-    return res;
+    return getResult(localVolatility, forwardCurve, new EuropeanVanillaOption[] {option }, marketData)[0];
+  }
+
+  /**
+   * Computes the bucketed vega of several options on the same underlying.
+   * @param localVolatility The local volatility surface
+   * @param forwardCurve The forward curve
+   * @param options The options, not null
+   * @param marketData The market data
+   * @return The bucketed vega, by option, expiry and strike
+   */
+  public double[][][] getResult(final LocalVolatilitySurfaceMoneyness localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption[] options,
+      final StandardSmileSurfaceDataBundle marketData) {
+    ArgChecker.noNulls(options, "options");
+    return _bucketedVega.bucketedVega(forwardCurve, options, marketData, option -> _pdeCalculator.runPDESolver(localVolatility, option),
+        bumpedSurface -> bumpedSolver(bumpedSurface, forwardCurve), LocalVolatilityBackwardPDEBucketedVegaCalculator::impliedVolatility);
   }
 
   public double[][] getResult(final LocalVolatilitySurfaceStrike localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption option,
       final StandardSmileSurfaceDataBundle marketData) {
-    final int n = marketData.getNumExpiries();
-    final double[][] strikes = marketData.getStrikes();
-    final double expiry = option.getTimeToExpiry();
-    final double forward = forwardCurve.getForward(expiry);
-    final double x = option.getStrike() / forward;
-    final PDETerminalResults1D pdeGrid = _pdeCalculator.runPDESolver(localVolatility, forwardCurve, option);
-    final int spaceSteps = _pdeCalculator.getNSpaceSteps();
-    final double[] xNodes = pdeGrid.getGrid().getSpaceNodes();
-    int index = SurfaceArrayUtils.getLowerBoundIndex(xNodes, x);
-    if (index >= 1) {
-      index--;
-    }
-    if (index >= spaceSteps - 1) {
-      index--;
-      if (index >= spaceSteps - 1) {
-        index--;
-      }
-    }
-    final double[] vols = new double[4];
-    final double[] fwds = new double[4];
-    System.arraycopy(xNodes, index, fwds, 0, 4);
-    for (int i = 0; i < 4; i++) {
-      vols[i] = BlackFormulaRepository.impliedVolatility(pdeGrid.getFunctionValue(index + i), fwds[i], option.getStrike(), option.getTimeToExpiry(), option.isCall());
-    }
-    Interpolator1DDataBundle db = _interpolator.getDataBundle(fwds, vols);
-    final double exampleVol = _interpolator.interpolate(db, x);
-    final double[][] res = new double[n][];
-    for (int i = 0; i < n; i++) {
-      final int m = strikes[i].length;
-      res[i] = new double[m];
-      for (int j = 0; j < m; j++) {
-        final BlackVolatilitySurfaceMoneyness bumpedSurface = _surfaceInterpolator.getBumpedVolatilitySurface(marketData, i, j, SHIFT);
-        final LocalVolatilitySurfaceStrike bumpedLV = LocalVolatilitySurfaceConverter.toStrikeSurface(_dupireCalculator.getLocalVolatility(bumpedSurface));
-        final PDETerminalResults1D pdeResBumped = _pdeCalculator.runPDESolver(bumpedLV, forwardCurve, option);
-        for (int k = 0; k < 4; k++) {
-          vols[k] = BlackFormulaRepository.impliedVolatility(pdeResBumped.getFunctionValue(index + k), fwds[k], option.getStrike(), expiry, option.isCall());
-        }
-        db = _interpolator.getDataBundle(fwds, vols);
-        final double vol = _interpolator.interpolate(db, x);
-        res[i][j] = (vol - exampleVol) / SHIFT;
-      }
-    }
-    return res;
+    return getResult(localVolatility, forwardCurve, new EuropeanVanillaOption[] {option }, marketData)[0];
   }
+
+  /**
+   * Computes the bucketed vega of several options on the same underlying.
+   * @param localVolatility The local volatility surface
+   * @param forwardCurve The forward curve
+   * @param options The options, not null
+   * @param marketData The market data
+   * @return The bucketed vega, by option, expiry and strike
+   */
+  public double[][][] getResult(final LocalVolatilitySurfaceStrike localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption[] options,
+      final StandardSmileSurfaceDataBundle marketData) {
+    ArgChecker.noNulls(options, "options");
+    return _bucketedVega.bucketedVega(forwardCurve, options, marketData, option -> _pdeCalculator.runPDESolver(localVolatility, forwardCurve, option),
+        bumpedSurface -> bumpedSolver(bumpedSurface, forwardCurve), LocalVolatilityBackwardPDEBucketedVegaCalculator::impliedVolatility);
+  }
+
+  /**
+   * The PDE solved with the local volatility of a bumped market surface.
+   */
+  private LocalVolatilityPDEBucketedVegaCalculator.PDESolver bumpedSolver(final BlackVolatilitySurfaceMoneyness bumpedSurface,
+      final ForwardCurve forwardCurve) {
+    final LocalVolatilitySurfaceStrike bumpedLV = LocalVolatilitySurfaceConverter.toStrikeSurface(_dupireCalculator.getLocalVolatility(bumpedSurface));
+    return (option, workspace) -> _pdeCalculator.runPDESolver(bumpedLV, forwardCurve, option, workspace);
+  }
+
+  /**
+   * The implied volatility of an option from the PDE value at a forward node.
+   */
+  private static double impliedVolatility(final double value, final double node, final EuropeanVanillaOption option) {
+    return BlackFormulaRepository.impliedVolatility(value, node, option.getStrike(), option.getTimeToExpiry(), option.isCall());
+  }
+
 }
@@ -15,6 +15,7 @@ import com.opengamma.analytics.financial.model.finitedifference.NeumannBoundaryC
 import com.opengamma.analytics.financial.model.finitedifference.PDE1DDataBundle;
 import com.opengamma.analytics.financial.model.finitedifference.PDEGrid1D;
 import com.opengamma.analytics.financial.model.finitedifference.PDETerminalResults1D;
+import com.opengamma.analytics.financial.model.finitedifference.ThetaMethodWorkspace;
 import com.opengamma.analytics.financial.model.interestrate.curve.ForwardCurve;
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.EuropeanVanillaOption;
 import com.opengamma.analytics.math.function.Function1D;
@@ -43,6 +44,18 @@ public class LocalVolatilityForwardPDECalculator extends LocalVolatilityPDECalcu
 
   @Override
   public PDETerminalResults1D runPDESolver(final LocalVolatilitySurfaceMoneyness localVolatility, final EuropeanVanillaOption option) {
+    return runPDESolver(localVolatility, option, new ThetaMethodWorkspace());
+  }
+
+  /**
+   * Runs the forward PDE solver with the work arrays of a workspace.
+   * @param localVolatility The local volatility surface
+   * @param option The option, only its expiry and type are used
+   * @param workspace The workspace, not used by another thread at the same time
+   * @return The forward option prices as a function of moneyness at expiry
+   */
+  public PDETerminalResults1D runPDESolver(final LocalVolatilitySurfaceMoneyness localVolatility, final EuropeanVanillaOption option,
+      final ThetaMethodWorkspace workspace) {
     final boolean isCall = option.isCall();
     final double expiry = option.getTimeToExpiry();
     final double minMoneyness = Math.exp(-_maxProxyDelta * Math.sqrt(expiry));
@@ -53,11 +66,24 @@ public class LocalVolatilityForwardPDECalculator extends LocalVolatilityPDECalcu
     final ConvectionDiffusionPDE1DCoefficients pde = getPDEProvider().getForwardLocalVol(localVolatility);
     final Function1D<Double, Double> intCond = getInitialConditionProvider().getForwardCallPut(isCall);
     final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> db = new PDE1DDataBundle<>(pde, intCond, lower, upper, grid);
-    return (PDETerminalResults1D) getSolver().solve(db);
+    return (PDETerminalResults1D) getSolver().solve(db, workspace, false);
   }
 
   @Override
   public PDETerminalResults1D runPDESolver(final LocalVolatilitySurfaceStrike localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption option) {
+    return runPDESolver(localVolatility, forwardCurve, option, new ThetaMethodWorkspace());
+  }
+
+  /**
+   * Runs the forward PDE solver with the work arrays of a workspace.
+   * @param localVolatility The local volatility surface
+   * @param forwardCurve The forward curve
+   * @param option The option, only its expiry and type are used
+   * @param workspace The workspace, not used by another thread at the same time
+   * @return The forward option prices as a function of moneyness at expiry
+   */
+  public PDETerminalResults1D runPDESolver(final LocalVolatilitySurfaceStrike localVolatility, final ForwardCurve forwardCurve, final EuropeanVanillaOption option,
+      final ThetaMethodWorkspace workspace) {
     final boolean isCall = option.isCall();
     final double expiry = option.getTimeToExpiry();
     final double minMoneyness = Math.exp(-_maxProxyDelta * Math.sqrt(expiry));
@@ -68,7 +94,7 @@ public class LocalVolatilityForwardPDECalculator extends LocalVolatilityPDECalcu
     final ConvectionDiffusionPDE1DCoefficients pde = getPDEProvider().getForwardLocalVol(forwardCurve, localVolatility);
     final Function1D<Double, Double> intCond = getInitialConditionProvider().getForwardCallPut(isCall);
     final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> db = new PDE1DDataBundle<>(pde, intCond, lower, upper, grid);
-    return (PDETerminalResults1D) getSolver().solve(db);
+    return (PDETerminalResults1D) getSolver().solve(db, workspace, false);
   }
 
   public int getNTimeSteps() {
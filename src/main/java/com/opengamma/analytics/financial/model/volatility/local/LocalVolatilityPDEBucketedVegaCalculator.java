@@ -0,0 +1,208 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.volatility.local;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import com.opengamma.analytics.financial.model.finitedifference.PDETerminalResults1D;
+import com.opengamma.analytics.financial.model.finitedifference.ThetaMethodWorkspace;
+import com.opengamma.analytics.financial.model.interestrate.curve.ForwardCurve;
+import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.EuropeanVanillaOption;
+import com.opengamma.analytics.financial.model.volatility.smile.fitting.interpolation.SurfaceArrayUtils;
+import com.opengamma.analytics.financial.model.volatility.smile.fitting.sabr.StandardSmileSurfaceDataBundle;
+import com.opengamma.analytics.financial.model.volatility.surface.BlackVolatilitySurfaceMoneyness;
+import com.opengamma.analytics.financial.model.volatility.surface.VolatilitySurfaceInterpolator;
+import com.opengamma.analytics.math.interpolation.Interpolator1D;
+import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
+import com.opengamma.analytics.util.ForkJoinUtils;
+
+/**
+ * The bumping of the market implied volatilities shared by the bucketed vega calculators of the forward and backward PDE.
+ * <p>
+ * The PDE depends on an option only through its expiry and type; the options with the same expiry and type share the base
+ * and bumped solutions. The nodes can be bumped concurrently on a pool, each thread using its own PDE workspace. The
+ * calculators provide the PDE solved with a bumped surface and the implied volatility at a PDE node.
+ */
+final class LocalVolatilityPDEBucketedVegaCalculator {
+  private static final double SHIFT = 1e-4;
+  private final int _nbSpaceSteps;
+  private final Interpolator1D _interpolator;
+  private final VolatilitySurfaceInterpolator _surfaceInterpolator;
+  /**
+   * The pool on which the bumped nodes are computed, null for a sequential computation.
+   */
+  private final ForkJoinPool _pool;
+
+  /**
+   * Constructor.
+   * @param pdeCalculator The PDE calculator
+   * @param interpolator The interpolator of the implied volatilities between the PDE nodes
+   * @param surfaceInterpolator The interpolator of the market implied volatilities
+   * @param pool The pool on which the bumped nodes are computed, null for a sequential computation
+   */
+  LocalVolatilityPDEBucketedVegaCalculator(final LocalVolatilityForwardPDECalculator pdeCalculator, final Interpolator1D interpolator,
+      final VolatilitySurfaceInterpolator surfaceInterpolator, final ForkJoinPool pool) {
+    _nbSpaceSteps = pdeCalculator.getNSpaceSteps();
+    _interpolator = interpolator;
+    _surfaceInterpolator = surfaceInterpolator;
+    _pool = pool;
+  }
+
+  /**
+   * Computes the bucketed vega of several options on the same underlying.
+   * @param forwardCurve The forward curve
+   * @param options The options
+   * @param marketData The market data
+   * @param baseSolver The PDE solved with the local volatility surface, by option
+   * @param bumpedSolver The PDE solved with the local volatility of a bumped market surface
+   * @param formula The implied volatility at a PDE node
+   * @return The bucketed vega, by option, expiry and strike
+   */
+  double[][][] bucketedVega(final ForwardCurve forwardCurve, final EuropeanVanillaOption[] options, final StandardSmileSurfaceDataBundle marketData,
+      final Function<EuropeanVanillaOption, PDETerminalResults1D> baseSolver, final Function<BlackVolatilitySurfaceMoneyness, PDESolver> bumpedSolver,
+      final VolatilityFormula formula) {
+    final int nbOption = options.length;
+    final List<EuropeanVanillaOption> groups = new ArrayList<>();
+    final int[] groupOfOption = new int[nbOption];
+    for (int loopopt = 0; loopopt < nbOption; loopopt++) {
+      groupOfOption[loopopt] = groupIndex(groups, options[loopopt]);
+    }
+    final int nbGroup = groups.size();
+    final PDETerminalResults1D[] baseResults = new PDETerminalResults1D[nbGroup];
+    for (int loopgroup = 0; loopgroup < nbGroup; loopgroup++) {
+      baseResults[loopgroup] = baseSolver.apply(groups.get(loopgroup));
+    }
+    final VolatilityReader[] readers = new VolatilityReader[nbOption];
+    final double[] baseVols = new double[nbOption];
+    for (int loopopt = 0; loopopt < nbOption; loopopt++) {
+      final PDETerminalResults1D pdeGrid = baseResults[groupOfOption[loopopt]];
+      readers[loopopt] = new VolatilityReader(options[loopopt], forwardCurve, pdeGrid.getGrid().getSpaceNodes(), formula);
+      baseVols[loopopt] = readers[loopopt].volatility(pdeGrid);
+    }
+    final int n = marketData.getNumExpiries();
+    final double[][] strikes = marketData.getStrikes();
+    final double[][][] res = new double[nbOption][n][];
+    int nbNode = 0;
+    for (int i = 0; i < n; i++) {
+      for (int loopopt = 0; loopopt < nbOption; loopopt++) {
+        res[loopopt][i] = new double[strikes[i].length];
+      }
+      nbNode += strikes[i].length;
+    }
+    final int[] expiryIndex = new int[nbNode];
+    final int[] strikeIndex = new int[nbNode];
+    int loopnode = 0;
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < strikes[i].length; j++) {
+        expiryIndex[loopnode] = i;
+        strikeIndex[loopnode++] = j;
+      }
+    }
+    ForkJoinUtils.forEachIndex(_pool, nbNode, ThetaMethodWorkspace::new, (node, workspace) -> {
+      final int i = expiryIndex[node];
+      final int j = strikeIndex[node];
+      final PDESolver solver = bumpedSolver.apply(_surfaceInterpolator.getBumpedVolatilitySurface(marketData, i, j, SHIFT));
+      for (int loopgroup = 0; loopgroup < nbGroup; loopgroup++) {
+        final PDETerminalResults1D pdeResBumped = solver.solve(groups.get(loopgroup), workspace);
+        for (int loopopt = 0; loopopt < nbOption; loopopt++) {
+          if (groupOfOption[loopopt] == loopgroup) {
+            res[loopopt][i][j] = (readers[loopopt].volatility(pdeResBumped) - baseVols[loopopt]) / SHIFT;
+          }
+        }
+      }
+    });
+    return res;
+  }
+
+  /**
+   * Returns the index of the group of options with the same expiry and type as an option, adding a group if there is none.
+   */
+  private static int groupIndex(final List<EuropeanVanillaOption> groups, final EuropeanVanillaOption option) {
+    for (int loopgroup = 0; loopgroup < groups.size(); loopgroup++) {
+      final EuropeanVanillaOption other = groups.get(loopgroup);
+      if (other.getTimeToExpiry() == option.getTimeToExpiry() && other.isCall() == option.isCall()) {
+        return loopgroup;
+      }
+    }
+    groups.add(option);
+    return groups.size() - 1;
+  }
+
+  /**
+   * The PDE solved for an option with a given local volatility surface.
+   */
+  @FunctionalInterface
+  interface PDESolver {
+
+    /**
+     * Solves the PDE for an option.
+     * @param option The option
+     * @param workspace The PDE workspace, not used by another solver at the same time
+     * @return The PDE results
+     */
+    PDETerminalResults1D solve(EuropeanVanillaOption option, ThetaMethodWorkspace workspace);
+
+  }
+
+  /**
+   * The implied volatility of an option at a node of the PDE space grid.
+   */
+  @FunctionalInterface
+  interface VolatilityFormula {
+
+    /**
+     * Computes the implied volatility from the PDE value at a node.
+     * @param value The PDE value at the node
+     * @param node The space node
+     * @param option The option
+     * @return The implied volatility
+     */
+    double impliedVolatility(double value, double node, EuropeanVanillaOption option);
+
+  }
+
+  /**
+   * Interpolates the implied volatility of an option from the four PDE nodes around its moneyness.
+   */
+  private final class VolatilityReader {
+    private final EuropeanVanillaOption _option;
+    private final VolatilityFormula _formula;
+    private final double _x;
+    private final int _index;
+    private final double[] _nodes = new double[4];
+
+    private VolatilityReader(final EuropeanVanillaOption option, final ForwardCurve forwardCurve, final double[] xNodes, final VolatilityFormula formula) {
+      _option = option;
+      _formula = formula;
+      _x = option.getStrike() / forwardCurve.getForward(option.getTimeToExpiry());
+      int index = SurfaceArrayUtils.getLowerBoundIndex(xNodes, _x);
+      if (index >= 1) {
+        index--;
+      }
+      if (index >= _nbSpaceSteps - 1) {
+        index--;
+        if (index >= _nbSpaceSteps - 1) {
+          index--;
+        }
+      }
+      _index = index;
+      System.arraycopy(xNodes, index, _nodes, 0, 4);
+    }
+
+    private double volatility(final PDETerminalResults1D pdeResults) {
+      final double[] vols = new double[4];
+      for (int k = 0; k < 4; k++) {
+        vols[k] = _formula.impliedVolatility(pdeResults.getFunctionValue(_index + k), _nodes[k], _option);
+      }
+      final Interpolator1DDataBundle db = _interpolator.getDataBundle(_nodes, vols);
+      return _interpolator.interpolate(db, _x);
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import java.util.List;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The data bundle with the exercise values and the regression variables of a product with early exercise on Monte Carlo paths,
+ * as used by the Longstaff-Schwartz method.
+ * <p>
+ * The values are expressed in units of the numeraire of the simulation, so that the values at different decision dates can
+ * be compared without discounting. The exercise values are the values for the holder of the option right.
+ */
+public class LongstaffSchwartzDataBundle {
+
+  /**
+   * The exercise values. The dimensions are path/decision.
+   */
+  private final double[][] _exerciseValue;
+  /**
+   * The regression variables, the state of the path observable at the decision dates. The dimensions are path/decision/variable.
+   */
+  private final double[][][] _regressionVariable;
+  /**
+   * The factor applied to the value for the holder, 1 for a long position and -1 for a short position.
+   */
+  private final double _factor;
+
+  /**
+   * Constructor.
+   * @param exerciseValue The exercise values. The dimensions are path/decision, not null
+   * @param regressionVariable The regression variables. The dimensions are path/decision/variable, not null
+   * @param factor The factor applied to the value for the holder, 1 for a long position and -1 for a short position
+   */
+  public LongstaffSchwartzDataBundle(final double[][] exerciseValue, final double[][][] regressionVariable, final double factor) {
+    ArgChecker.notNull(exerciseValue, "exercise value");
+    ArgChecker.notNull(regressionVariable, "regression variable");
+    ArgChecker.isTrue(exerciseValue.length == regressionVariable.length, "exercise values and regression variables should have the same number of paths");
+    _exerciseValue = exerciseValue;
+    _regressionVariable = regressionVariable;
+    _factor = factor;
+  }
+
+  /**
+   * Concatenates the paths of several bundles, in the order of the list.
+   * @param bundles The bundles, with the same factor, not null or empty
+   * @return The bundle with all the paths.
+   */
+  public static LongstaffSchwartzDataBundle concatenate(final List<LongstaffSchwartzDataBundle> bundles) {
+    ArgChecker.notEmpty(bundles, "bundles");
+    int nbPath = 0;
+    for (final LongstaffSchwartzDataBundle bundle : bundles) {
+      ArgChecker.isTrue(bundle.getFactor() == bundles.get(0).getFactor(), "bundles should have the same factor");
+      nbPath += bundle.getNumberOfPaths();
+    }
+    final double[][] exerciseValue = new double[nbPath][];
+    final double[][][] regressionVariable = new double[nbPath][][];
+    int start = 0;
+    for (final LongstaffSchwartzDataBundle bundle : bundles) {
+      System.arraycopy(bundle.getExerciseValue(), 0, exerciseValue, start, bundle.getNumberOfPaths());
+      System.arraycopy(bundle.getRegressionVariable(), 0, regressionVariable, start, bundle.getNumberOfPaths());
+      start += bundle.getNumberOfPaths();
+    }
+    return new LongstaffSchwartzDataBundle(exerciseValue, regressionVariable, bundles.get(0).getFactor());
+  }
+
+  /**
+   * Gets the exercise values.
+   * @return The values. The dimensions are path/decision.
+   */
+  public double[][] getExerciseValue() {
+    return _exerciseValue;
+  }
+
+  /**
+   * Gets the regression variables.
+   * @return The variables. The dimensions are path/decision/variable.
+   */
+  public double[][][] getRegressionVariable() {
+    return _regressionVariable;
+  }
+
+  /**
+   * Gets the factor applied to the value for the holder.
+   * @return The factor, 1 for a long position and -1 for a short position.
+   */
+  public double getFactor() {
+    return _factor;
+  }
+
+  /**
+   * Gets the number of paths.
+   * @return The number of paths.
+   */
+  public int getNumberOfPaths() {
+    return _exerciseValue.length;
+  }
+
+}
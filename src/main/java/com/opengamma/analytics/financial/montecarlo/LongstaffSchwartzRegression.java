@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.opengamma.analytics.math.function.Function1D;
+import com.opengamma.analytics.math.regression.LeastSquaresRegressionResult;
+import com.opengamma.analytics.math.regression.OrdinaryLeastSquaresRegression;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Least-squares Monte Carlo of Longstaff and Schwartz (2001) for products with early exercise.
+ * <p>
+ * The method has two passes on independent sets of paths. In the regression pass, the decision dates are visited backward;
+ * at each date the value realised by the current exercise strategy on the in-the-money paths is regressed on the basis
+ * functions of the regression variables, and the strategy is updated to exercise where the exercise value is above the
+ * regressed continuation value. In the pricing pass, the strategy defined by the regression coefficients is applied
+ * forward on new paths; as the coefficients are fixed, the paths are independent and can be priced in blocks, in any order.
+ * <p>
+ * The values are in units of the numeraire, as described in {@link LongstaffSchwartzDataBundle}. The basis functions are
+ * applied to the regression variables of a path at a decision date; the constant is always added to the basis.
+ */
+public class LongstaffSchwartzRegression {
+
+  /**
+   * The regression.
+   */
+  private static final OrdinaryLeastSquaresRegression REGRESSION = new OrdinaryLeastSquaresRegression();
+
+  /**
+   * The basis functions, without the constant.
+   */
+  private final List<Function1D<double[], Double>> _basisFunctions;
+
+  /**
+   * Constructor.
+   * @param basisFunctions The basis functions of the regression variables, without the constant, not null or empty
+   */
+  public LongstaffSchwartzRegression(final List<Function1D<double[], Double>> basisFunctions) {
+    ArgChecker.noNulls(basisFunctions, "basis functions");
+    ArgChecker.notEmpty(basisFunctions, "basis functions");
+    _basisFunctions = Collections.unmodifiableList(new ArrayList<>(basisFunctions));
+  }
+
+  /**
+   * Constructor with the monomials of the regression variables up to a total degree.
+   * @param nbVariable The number of regression variables, positive
+   * @param degree The maximal total degree, positive
+   */
+  public LongstaffSchwartzRegression(final int nbVariable, final int degree) {
+    this(polynomialBasis(nbVariable, degree));
+  }
+
+  /**
+   * Returns the monomials of the variables with a total degree between 1 and the given degree.
+   * @param nbVariable The number of variables, positive
+   * @param degree The maximal total degree, positive
+   * @return The monomials, by increasing degree.
+   */
+  public static List<Function1D<double[], Double>> polynomialBasis(final int nbVariable, final int degree) {
+    ArgChecker.isTrue(nbVariable > 0, "number of variables should be positive");
+    ArgChecker.isTrue(degree > 0, "degree should be positive");
+    final List<Function1D<double[], Double>> basis = new ArrayList<>();
+    for (int d = 1; d <= degree; d++) {
+      addMonomials(new int[nbVariable], 0, d, basis);
+    }
+    return basis;
+  }
+
+  private static void addMonomials(final int[] powers, final int variable, final int degree, final List<Function1D<double[], Double>> basis) {
+    if (variable == powers.length - 1) {
+      final int[] monomial = powers.clone();
+      monomial[variable] = degree;
+      basis.add(new Function1D<double[], Double>() {
+        @Override
+        public Double evaluate(final double[] x) {
+          double value = 1.0;
+          for (int i = 0; i < monomial.length; i++) {
+            for (int p = 0; p < monomial[i]; p++) {
+              value *= x[i];
+            }
+          }
+          return value;
+        }
+      });
+      return;
+    }
+    for (int p = degree; p >= 0; p--) {
+      powers[variable] = p;
+      addMonomials(powers, variable + 1, degree - p, basis);
+    }
+    powers[variable] = 0;
+  }
+
+  /**
+   * Gets the basis functions.
+   * @return The basis functions, without the constant.
+   */
+  public List<Function1D<double[], Double>> getBasisFunctions() {
+    return _basisFunctions;
+  }
+
+  /**
+   * Computes the regression coefficients of the continuation value at each decision date (regression pass).
+   * <p>
+   * The coefficients of a decision date are the constant followed by the coefficients of the basis functions. They are null
+   * for the last decision date, where there is no continuation, and for the dates with too few paths in the money for
+   * the regression, where the option is not exercised.
+   * @param paths The regression paths, not null
+   * @return The coefficients. The dimensions are decision/basis function.
+   */
+  public double[][] regress(final LongstaffSchwartzDataBundle paths) {
+    ArgChecker.notNull(paths, "paths");
+    final double[][] exerciseValue = paths.getExerciseValue();
+    final double[][][] regressionVariable = paths.getRegressionVariable();
+    final int nbPath = paths.getNumberOfPaths();
+    final int nbDecision = exerciseValue[0].length;
+    final int nbBasis = _basisFunctions.size();
+    final double[][] coefficients = new double[nbDecision][];
+    // The value realised by the current strategy on each path.
+    final double[] cash = new double[nbPath];
+    for (int looppath = 0; looppath < nbPath; looppath++) {
+      cash[looppath] = Math.max(exerciseValue[looppath][nbDecision - 1], 0.0);
+    }
+    final int[] itm = new int[nbPath];
+    for (int loopdec = nbDecision - 2; loopdec >= 0; loopdec--) {
+      int nbItm = 0;
+      for (int looppath = 0; looppath < nbPath; looppath++) {
+        if (exerciseValue[looppath][loopdec] > 0.0) {
+          itm[nbItm++] = looppath;
+        }
+      }
+      if (nbItm <= nbBasis + 1) {
+        continue;
+      }
+      final double[][] x = new double[nbItm][nbBasis];
+      final double[] y = new double[nbItm];
+      final double[] scale = new double[nbBasis];
+      for (int loopitm = 0; loopitm < nbItm; loopitm++) {
+        final double[] variables = regressionVariable[itm[loopitm]][loopdec];
+        for (int loopbasis = 0; loopbasis < nbBasis; loopbasis++) {
+          x[loopitm][loopbasis] = _basisFunctions.get(loopbasis).evaluate(variables);
+          scale[loopbasis] = Math.max(scale[loopbasis], Math.abs(x[loopitm][loopbasis]));
+        }
+        y[loopitm] = cash[itm[loopitm]];
+      }
+      // The columns are scaled to a maximum of 1, as the normal equations of polynomials of amounts are badly conditioned.
+      for (int loopbasis = 0; loopbasis < nbBasis; loopbasis++) {
+        if (scale[loopbasis] == 0.0) {
+          scale[loopbasis] = 1.0;
+        }
+      }
+      for (int loopitm = 0; loopitm < nbItm; loopitm++) {
+        for (int loopbasis = 0; loopbasis < nbBasis; loopbasis++) {
+          x[loopitm][loopbasis] /= scale[loopbasis];
+        }
+      }
+      final LeastSquaresRegressionResult result = REGRESSION.regress(x, y, true);
+      final double[] betas = result.getBetas();
+      coefficients[loopdec] = new double[nbBasis + 1];
+      coefficients[loopdec][0] = betas[0];
+      for (int loopbasis = 0; loopbasis < nbBasis; loopbasis++) {
+        coefficients[loopdec][loopbasis + 1] = betas[loopbasis + 1] / scale[loopbasis];
+      }
+      for (int loopitm = 0; loopitm < nbItm; loopitm++) {
+        final int path = itm[loopitm];
+        if (exerciseValue[path][loopdec] >= continuationValue(coefficients[loopdec], regressionVariable[path][loopdec])) {
+          cash[path] = exerciseValue[path][loopdec];
+        }
+      }
+    }
+    return coefficients;
+  }
+
+  /**
+   * Computes the total value of the paths with the exercise strategy given by the coefficients (pricing pass).
+   * @param paths The pricing paths, not null
+   * @param coefficients The coefficients of the continuation value, as computed by {@link #regress}, not null
+   * @return The sum over the paths of the values, multiplied by the factor of the paths, in units of the numeraire.
+   */
+  public double price(final LongstaffSchwartzDataBundle paths, final double[][] coefficients) {
+    ArgChecker.notNull(paths, "paths");
+    ArgChecker.notNull(coefficients, "coefficients");
+    final double[][] exerciseValue = paths.getExerciseValue();
+    final double[][][] regressionVariable = paths.getRegressionVariable();
+    final int nbPath = paths.getNumberOfPaths();
+    final int nbDecision = coefficients.length;
+    double price = 0.0;
+    for (int looppath = 0; looppath < nbPath; looppath++) {
+      double value = Math.max(exerciseValue[looppath][nbDecision - 1], 0.0);
+      for (int loopdec = 0; loopdec < nbDecision - 1; loopdec++) {
+        final double exercise = exerciseValue[looppath][loopdec];
+        if (coefficients[loopdec] != null && exercise > 0.0 && exercise >= continuationValue(coefficients[loopdec], regressionVariable[looppath][loopdec])) {
+          value = exercise;
+          break;
+        }
+      }
+      price += value;
+    }
+    return price * paths.getFactor();
+  }
+
+  /**
+   * Computes the regressed continuation value.
+   * @param coefficients The coefficients, the constant first.
+   * @param variables The regression variables.
+   * @return The value.
+   */
+  private double continuationValue(final double[] coefficients, final double[] variables) {
+    double value = coefficients[0];
+    for (int loopbasis = 0; loopbasis < _basisFunctions.size(); loopbasis++) {
+      value += coefficients[loopbasis + 1] * _basisFunctions.get(loopbasis).evaluate(variables);
+    }
+    return value;
+  }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.math.random.RandomNumberStreams;
+import com.opengamma.analytics.util.ForkJoinUtils;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Runs a Monte Carlo simulation by blocks of paths, the block of index b drawing its normal variables from the stream b.
+ * <p>
+ * The blocks can be computed in parallel on a {@link ForkJoinPool}, each task reusing the path buffers of a previous block.
+ * The statistics of the simulated variables are accumulated by block and the blocks are merged in their order, so that the
+ * results depend only on the streams, not on the pool or the number of threads.
+ */
+public final class MonteCarloBlockRunner {
+
+  /**
+   * The streams of normal variables, one per block.
+   */
+  private final RandomNumberStreams _streams;
+  /**
+   * The number of simulations of a block.
+   */
+  private final int _blockSize;
+  /**
+   * The pool on which the blocks are computed, null for a sequential computation.
+   */
+  private final ForkJoinPool _pool;
+
+  /**
+   * Constructor.
+   * @param streams The streams of normal variables, the block of index b using the stream b, not null.
+   * @param blockSize The number of simulations of a block, positive.
+   * @param pool The pool on which the blocks are computed, null for a sequential computation.
+   */
+  public MonteCarloBlockRunner(final RandomNumberStreams streams, final int blockSize, final ForkJoinPool pool) {
+    ArgChecker.notNull(streams, "streams");
+    ArgChecker.isTrue(blockSize > 0, "block size should be positive");
+    _streams = streams;
+    _blockSize = blockSize;
+    _pool = pool;
+  }
+
+  /**
+   * Runs the simulations by block.
+   * @param nbSimulation The number of simulations, not negative.
+   * @param nbVariable The number of simulated variables with statistics.
+   * @param nbStep The number of normal variables of a path, the size of the path buffers.
+   * @param nbValue The number of values of a path, the size of the buffer of the values.
+   * @param simulation The simulation of a block.
+   * @return The statistics of the variables on all the simulations.
+   */
+  public MonteCarloStatistics[] run(final int nbSimulation, final int nbVariable, final int nbStep, final int nbValue,
+      final BlockSimulation simulation) {
+    ArgChecker.isTrue(nbSimulation >= 0, "number of simulations should be positive or zero");
+    ArgChecker.notNull(simulation, "simulation");
+    final int nbBlock = (nbSimulation + _blockSize - 1) / _blockSize;
+    final MonteCarloStatistics[][] blockStats = new MonteCarloStatistics[nbBlock][];
+    ForkJoinUtils.forEachIndex(_pool, nbBlock, () -> new PathBuffers(nbStep, nbValue), (loopblock, buffers) -> {
+      blockStats[loopblock] = newStatistics(nbVariable);
+      final int firstSimulation = loopblock * _blockSize;
+      simulation.simulate(Math.min(_blockSize, nbSimulation - firstSimulation), _streams.getStream(loopblock), buffers, blockStats[loopblock],
+          firstSimulation);
+    });
+    final MonteCarloStatistics[] stats = newStatistics(nbVariable);
+    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
+      for (int loopvar = 0; loopvar < nbVariable; loopvar++) {
+        stats[loopvar].merge(blockStats[loopblock][loopvar]);
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Creates empty statistics.
+   * @param nbVariable The number of variables.
+   * @return The statistics, one by variable.
+   */
+  public static MonteCarloStatistics[] newStatistics(final int nbVariable) {
+    final MonteCarloStatistics[] stats = new MonteCarloStatistics[nbVariable];
+    for (int loopvar = 0; loopvar < nbVariable; loopvar++) {
+      stats[loopvar] = new MonteCarloStatistics();
+    }
+    return stats;
+  }
+
+  /**
+   * The simulation of a block of paths.
+   */
+  @FunctionalInterface
+  public interface BlockSimulation {
+
+    /**
+     * Runs the simulations of a block and adds the simulated variables to the statistics.
+     * @param nbSimulation The number of simulations of the block.
+     * @param generator The generator of the normal variables of the block.
+     * @param buffers The path buffers, not used by another block at the same time.
+     * @param stats The statistics of the block.
+     * @param firstSimulation The index of the first simulation of the block.
+     */
+    void simulate(int nbSimulation, RandomNumberGenerator generator, PathBuffers buffers, MonteCarloStatistics[] stats, int firstSimulation);
+
+  }
+
+  /**
+   * The buffers of the simulation of a path, reused from path to path.
+   */
+  public static final class PathBuffers {
+    /**
+     * The normal variables of the steps.
+     */
+    private final double[] _normals;
+    /**
+     * The values of the Brownian path, for a construction by bridge.
+     */
+    private final double[] _brownianPath;
+    /**
+     * The values of the path.
+     */
+    private final double[] _values;
+
+    /**
+     * Constructor.
+     * @param nbStep The number of normal variables of a path.
+     * @param nbValue The number of values of a path.
+     */
+    public PathBuffers(final int nbStep, final int nbValue) {
+      _normals = new double[nbStep];
+      _brownianPath = new double[nbStep];
+      _values = new double[nbValue];
+    }
+
+    /**
+     * Gets the buffer of the normal variables of the steps.
+     * @return The buffer.
+     */
+    public double[] getNormals() {
+      return _normals;
+    }
+
+    /**
+     * Gets the buffer of the values of the Brownian path.
+     * @return The buffer.
+     */
+    public double[] getBrownianPath() {
+      return _brownianPath;
+    }
+
+    /**
+     * Gets the buffer of the values of the path.
+     * @return The buffer.
+     */
+    public double[] getValues() {
+      return _values;
+    }
+
+  }
+
+}
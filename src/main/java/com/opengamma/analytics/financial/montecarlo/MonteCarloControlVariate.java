@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The control variate estimator of a Monte Carlo mean.
+ * <p>
+ * The control is a quantity simulated on the same paths as the value and with a known expectation, for example a similar
+ * instrument priced by an explicit formula. The estimator is the mean of the value minus b times the error of the mean of the
+ * control, where the coefficient b is the regression coefficient of the value on the control, estimated on the same samples.
+ * The samples are the paths, with unit weights, or the means of blocks of paths, with the block sizes as weights.
+ */
+public final class MonteCarloControlVariate {
+
+  /**
+   * Private constructor.
+   */
+  private MonteCarloControlVariate() {
+  }
+
+  /**
+   * Computes the control variate estimate of the mean of the values.
+   * @param values The samples of the value, not null, at least two.
+   * @param controls The samples of the control on the same paths, not null, same length as the values.
+   * @param weights The weights of the samples, not null, same length as the values, positive.
+   * @param controlExpectation The known expectation of the control.
+   * @return The estimate.
+   */
+  public static double estimate(final double[] values, final double[] controls, final double[] weights, final double controlExpectation) {
+    ArgChecker.notNull(values, "values");
+    ArgChecker.notNull(controls, "controls");
+    ArgChecker.notNull(weights, "weights");
+    final int nbSample = values.length;
+    ArgChecker.isTrue(nbSample > 1, "at least two samples are required for the control variate");
+    ArgChecker.isTrue(controls.length == nbSample, "controls should have the same length as the values");
+    ArgChecker.isTrue(weights.length == nbSample, "weights should have the same length as the values");
+    double weightTotal = 0.0;
+    double valueMean = 0.0;
+    double controlMean = 0.0;
+    for (int loops = 0; loops < nbSample; loops++) {
+      ArgChecker.isTrue(weights[loops] > 0.0, "weights should be positive");
+      weightTotal += weights[loops];
+      valueMean += weights[loops] * values[loops];
+      controlMean += weights[loops] * controls[loops];
+    }
+    valueMean /= weightTotal;
+    controlMean /= weightTotal;
+    return valueMean - coefficient(values, controls, weights, valueMean, controlMean) * (controlMean - controlExpectation);
+  }
+
+  /**
+   * Computes the weighted regression coefficient of the values on the controls, 0 if the controls are constant.
+   */
+  private static double coefficient(final double[] values, final double[] controls, final double[] weights, final double valueMean, final double controlMean) {
+    double covariance = 0.0;
+    double variance = 0.0;
+    for (int loops = 0; loops < values.length; loops++) {
+      final double dc = controls[loops] - controlMean;
+      covariance += weights[loops] * (values[loops] - valueMean) * dc;
+      variance += weights[loops] * dc * dc;
+    }
+    return variance > 0.0 ? covariance / variance : 0.0;
+  }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import java.time.Duration;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The stopping criteria of a Monte Carlo computation run by blocks of paths.
+ * <p>
+ * The blocks are added by batches, up to the number of paths of the method. After each batch, the computation stops if the
+ * standard error is below the absolute error target, or below the relative error target times the absolute value of the
+ * estimate, or if the elapsed time is above the time budget. Each criterion can be disabled. The standard error requires at
+ * least two blocks, so the error targets are not checked before. As the criteria are checked only between batches, the
+ * time budget is not a hard limit: the last batch started is completed.
+ * <p>
+ * When the time budget is disabled, the number of paths used depends only on the values of the blocks, and the results
+ * are reproducible with random number streams, with or without parallelism.
+ */
+public final class MonteCarloConvergence {
+
+  /**
+   * The criteria which run all the paths of the method in a single batch.
+   */
+  public static final MonteCarloConvergence ALL_PATHS = new MonteCarloConvergence(0.0, 0.0, null, Integer.MAX_VALUE);
+  /**
+   * The default number of blocks in a batch.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 8;
+
+  /**
+   * The target standard error, 0 if not used.
+   */
+  private final double _absoluteError;
+  /**
+   * The target standard error relative to the absolute value of the estimate, 0 if not used.
+   */
+  private final double _relativeError;
+  /**
+   * The time budget, null if not used.
+   */
+  private final Duration _timeBudget;
+  /**
+   * The number of blocks computed between two checks of the criteria.
+   */
+  private final int _batchSize;
+
+  /**
+   * Constructor with the default batch size.
+   * @param absoluteError The target standard error, 0 if not used.
+   * @param relativeError The target standard error relative to the absolute value of the estimate, 0 if not used.
+   * @param timeBudget The time budget, null if not used.
+   */
+  public MonteCarloConvergence(final double absoluteError, final double relativeError, final Duration timeBudget) {
+    this(absoluteError, relativeError, timeBudget, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Constructor.
+   * @param absoluteError The target standard error, 0 if not used.
+   * @param relativeError The target standard error relative to the absolute value of the estimate, 0 if not used.
+   * @param timeBudget The time budget, null if not used.
+   * @param batchSize The number of blocks computed between two checks of the criteria, positive. With a pool, the blocks of a
+   * batch are computed in parallel; a batch size at least the parallelism of the pool keeps all the threads busy.
+   */
+  public MonteCarloConvergence(final double absoluteError, final double relativeError, final Duration timeBudget, final int batchSize) {
+    ArgChecker.notNegative(absoluteError, "absolute error");
+    ArgChecker.notNegative(relativeError, "relative error");
+    ArgChecker.isTrue(batchSize > 0, "batch size should be positive");
+    _absoluteError = absoluteError;
+    _relativeError = relativeError;
+    _timeBudget = timeBudget;
+    _batchSize = batchSize;
+  }
+
+  /**
+   * Gets the target standard error.
+   * @return The target, 0 if not used.
+   */
+  public double getAbsoluteError() {
+    return _absoluteError;
+  }
+
+  /**
+   * Gets the target relative standard error.
+   * @return The target, 0 if not used.
+   */
+  public double getRelativeError() {
+    return _relativeError;
+  }
+
+  /**
+   * Gets the time budget.
+   * @return The budget, null if not used.
+   */
+  public Duration getTimeBudget() {
+    return _timeBudget;
+  }
+
+  /**
+   * Gets the number of blocks computed between two checks of the criteria.
+   * @return The batch size.
+   */
+  public int getBatchSize() {
+    return _batchSize;
+  }
+
+  /**
+   * Checks if the computation can stop.
+   * @param value The current estimate.
+   * @param standardError The current standard error, NaN if not available.
+   * @param elapsed The elapsed time.
+   * @return True if one of the criteria is met.
+   */
+  public boolean isReached(final double value, final double standardError, final Duration elapsed) {
+    if (_absoluteError > 0.0 && standardError <= _absoluteError) {
+      return true;
+    }
+    if (_relativeError > 0.0 && standardError <= _relativeError * Math.abs(value)) {
+      return true;
+    }
+    return _timeBudget != null && elapsed.compareTo(_timeBudget) >= 0;
+  }
+
+}
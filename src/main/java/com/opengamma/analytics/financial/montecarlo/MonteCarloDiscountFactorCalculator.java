@@ -5,6 +5,7 @@
  */
 package com.opengamma.analytics.financial.montecarlo;
 
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorAdapter;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityCouponIborRatchet;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CapFloorIbor;
@@ -23,6 +24,10 @@ public class MonteCarloDiscountFactorCalculator extends InstrumentDerivativeVisi
    * The unique instance of the calculator.
    */
   private static final MonteCarloDiscountFactorCalculator INSTANCE = new MonteCarloDiscountFactorCalculator();
+  /**
+   * The calculator of the values on each path.
+   */
+  private static final PathValueCalculator PATH_VALUES = new PathValueCalculator();
 
   /**
    * Gets the calculator instance.
@@ -40,84 +45,127 @@ public class MonteCarloDiscountFactorCalculator extends InstrumentDerivativeVisi
 
   @Override
   public Double visitCapFloorIbor(final CapFloorIbor payment, final MonteCarloDiscountFactorDataBundle mcResults) {
-    final Double[][][] pathDiscountFactors = mcResults.getPathDiscountingFactor();
-    final double[][] impactAmount = mcResults.getImpactAmount();
-    ArgChecker.isTrue(pathDiscountFactors[0].length == 1, "Only one decision date for cap/floor.");
-    double price = 0;
-    final int nbPath = pathDiscountFactors.length;
-    double ibor;
-    final double omega = (payment.isCap() ? 1.0 : -1.0);
-    for (int looppath = 0; looppath < nbPath; looppath++) {
-      ibor = (-impactAmount[0][0] * pathDiscountFactors[looppath][0][0] / (impactAmount[0][1] * pathDiscountFactors[looppath][0][1]) - 1.0) / payment.getFixingAccrualFactor();
-      price += Math.max(omega * (ibor - payment.getStrike()), 0) * pathDiscountFactors[looppath][0][2];
-    }
-    price = price / nbPath * payment.getNotional() * payment.getPaymentYearFraction();
-    return price;
+    return average(PATH_VALUES.visitCapFloorIbor(payment, mcResults));
   }
 
   @Override
   public Double visitSwaptionPhysicalFixedIbor(final SwaptionPhysicalFixedIbor swaption, final MonteCarloDiscountFactorDataBundle mcResults) {
-    final Double[][][] pathDiscountFactors = mcResults.getPathDiscountingFactor();
-    final double[][] impactAmount = mcResults.getImpactAmount();
-    ArgChecker.isTrue(pathDiscountFactors[0].length == 1, "Only one decision date for swaptions.");
-    double price = 0;
-    final int nbPath = pathDiscountFactors.length;
-    double swapPathValue;
-    for (int looppath = 0; looppath < nbPath; looppath++) {
-      swapPathValue = 0;
-      for (int loopcf = 0; loopcf < impactAmount[0].length; loopcf++) {
-        swapPathValue += impactAmount[0][loopcf] * pathDiscountFactors[looppath][0][loopcf];
-      }
-      price += Math.max(swapPathValue, 0);
-    }
-    price = price / nbPath * (swaption.isLong() ? 1.0 : -1.0);
-    return price;
+    return average(PATH_VALUES.visitSwaptionPhysicalFixedIbor(swaption, mcResults));
   }
 
   @Override
   public Double visitAnnuityCouponIborRatchet(final AnnuityCouponIborRatchet annuity, final MonteCarloDiscountFactorDataBundle mcResults) {
-    final Double[][][] pathDiscountFactors = mcResults.getPathDiscountingFactor();
-    final double[][] impactAmount = mcResults.getImpactAmount();
-    double price = 0.0;
-    final int nbPath = pathDiscountFactors.length;
-    final int nbCpn = annuity.getNumberOfPayments();
-    final double[] annuityPathValue = new double[nbPath];
-    final double[][] cpnRate = new double[nbCpn][nbPath];
-    double ibor;
-    for (int loopcpn = 0; loopcpn < nbCpn; loopcpn++) { //nbCpn
-      if (annuity.isFixed()[loopcpn]) { // Coupon already fixed: only one cash flow
-        final CouponFixed cpn = (CouponFixed) annuity.getNthPayment(loopcpn);
+    return average(PATH_VALUES.visitAnnuityCouponIborRatchet(annuity, mcResults));
+  }
+
+  /**
+   * Computes the instrument value on each path. The price is the average of the path values.
+   * @param instrument The instrument.
+   * @param mcResults The discount factors on the paths and the reference amounts.
+   * @return The values, one by path.
+   */
+  public double[] pathValues(final InstrumentDerivative instrument, final MonteCarloDiscountFactorDataBundle mcResults) {
+    ArgChecker.notNull(instrument, "instrument");
+    return instrument.accept(PATH_VALUES, mcResults);
+  }
+
+  private static double average(final double[] pathValues) {
+    double sum = 0.0;
+    for (final double value : pathValues) {
+      sum += value;
+    }
+    return sum / pathValues.length;
+  }
+
+  /**
+   * Computes the instrument value on each path.
+   */
+  private static final class PathValueCalculator extends InstrumentDerivativeVisitorAdapter<MonteCarloDiscountFactorDataBundle, double[]> {
+
+    @Override
+    public double[] visitCapFloorIbor(final CapFloorIbor payment, final MonteCarloDiscountFactorDataBundle mcResults) {
+      final double[][][] discountFactors = mcResults.getDiscountFactor(); // jump/cf/path
+      final double[][] impactAmount = mcResults.getImpactAmount();
+      ArgChecker.isTrue(discountFactors.length == 1, "Only one decision date for cap/floor.");
+      final int nbPath = mcResults.getNumberOfPaths();
+      final double[] pathValue = new double[nbPath];
+      final double[] pDStart = discountFactors[0][0];
+      final double[] pDEnd = discountFactors[0][1];
+      final double[] pDPayment = discountFactors[0][2];
+      double ibor;
+      final double omega = (payment.isCap() ? 1.0 : -1.0);
+      final double factor = payment.getNotional() * payment.getPaymentYearFraction();
+      for (int looppath = 0; looppath < nbPath; looppath++) {
+        ibor = (-impactAmount[0][0] * pDStart[looppath] / (impactAmount[0][1] * pDEnd[looppath]) - 1.0) / payment.getFixingAccrualFactor();
+        pathValue[looppath] = Math.max(omega * (ibor - payment.getStrike()), 0) * pDPayment[looppath] * factor;
+      }
+      return pathValue;
+    }
+
+    @Override
+    public double[] visitSwaptionPhysicalFixedIbor(final SwaptionPhysicalFixedIbor swaption, final MonteCarloDiscountFactorDataBundle mcResults) {
+      final double[][][] discountFactors = mcResults.getDiscountFactor(); // jump/cf/path
+      final double[][] impactAmount = mcResults.getImpactAmount();
+      ArgChecker.isTrue(discountFactors.length == 1, "Only one decision date for swaptions.");
+      final int nbPath = mcResults.getNumberOfPaths();
+      final double[] swapPathValue = new double[nbPath];
+      for (int loopcf = 0; loopcf < impactAmount[0].length; loopcf++) {
+        final double[] pD = discountFactors[0][loopcf];
         for (int looppath = 0; looppath < nbPath; looppath++) {
-          cpnRate[loopcpn][looppath] = cpn.getFixedRate();
-          annuityPathValue[looppath] += impactAmount[loopcpn][0] * pathDiscountFactors[looppath][loopcpn][0];
+          swapPathValue[looppath] += impactAmount[0][loopcf] * pD[looppath];
         }
-      } else {
-        if (annuity.getNthPayment(loopcpn) instanceof CouponIborRatchet) {
-          final CouponIborRatchet cpn = (CouponIborRatchet) annuity.getNthPayment(loopcpn);
+      }
+      final double omega = swaption.isLong() ? 1.0 : -1.0;
+      for (int looppath = 0; looppath < nbPath; looppath++) {
+        swapPathValue[looppath] = Math.max(swapPathValue[looppath], 0) * omega;
+      }
+      return swapPathValue;
+    }
+
+    @Override
+    public double[] visitAnnuityCouponIborRatchet(final AnnuityCouponIborRatchet annuity, final MonteCarloDiscountFactorDataBundle mcResults) {
+      final double[][][] discountFactors = mcResults.getDiscountFactor(); // jump/cf/path
+      final double[][] impactAmount = mcResults.getImpactAmount();
+      final int nbPath = mcResults.getNumberOfPaths();
+      final int nbCpn = annuity.getNumberOfPayments();
+      final double[] annuityPathValue = new double[nbPath];
+      final double[][] cpnRate = new double[nbCpn][nbPath];
+      double ibor;
+      for (int loopcpn = 0; loopcpn < nbCpn; loopcpn++) { //nbCpn
+        final double[] pD0 = discountFactors[loopcpn][0];
+        if (annuity.isFixed()[loopcpn]) { // Coupon already fixed: only one cash flow
+          final CouponFixed cpn = (CouponFixed) annuity.getNthPayment(loopcpn);
           for (int looppath = 0; looppath < nbPath; looppath++) {
-            ibor = (-impactAmount[loopcpn][0] * pathDiscountFactors[looppath][loopcpn][0] / (impactAmount[loopcpn][1] *
-                pathDiscountFactors[looppath][loopcpn][1]) - 1.0) / cpn.getFixingAccrualFactor();
-            final double cpnMain = cpn.getMainCoefficients()[0] * cpnRate[loopcpn - 1][looppath] + cpn.getMainCoefficients()[1] * ibor + cpn.getMainCoefficients()[2];
-            final double cpnFloor = cpn.getFloorCoefficients()[0] * cpnRate[loopcpn - 1][looppath] + cpn.getFloorCoefficients()[1] * ibor + cpn.getFloorCoefficients()[2];
-            final double cpnCap = cpn.getCapCoefficients()[0] * cpnRate[loopcpn - 1][looppath] + cpn.getCapCoefficients()[1] * ibor + cpn.getCapCoefficients()[2];
-            cpnRate[loopcpn][looppath] = Math.min(Math.max(cpnFloor, cpnMain), cpnCap);
-            annuityPathValue[looppath] += cpnRate[loopcpn][looppath] * cpn.getPaymentYearFraction() * cpn.getNotional() * pathDiscountFactors[looppath][loopcpn][1];
+            cpnRate[loopcpn][looppath] = cpn.getFixedRate();
+            annuityPathValue[looppath] += impactAmount[loopcpn][0] * pD0[looppath];
           }
         } else {
-          final CouponIborGearing cpn = (CouponIborGearing) annuity.getNthPayment(loopcpn);
-          for (int looppath = 0; looppath < nbPath; looppath++) {
-            ibor = (-impactAmount[0][0] * pathDiscountFactors[looppath][0][0] / (impactAmount[0][1] * pathDiscountFactors[looppath][0][1]) - 1.0) / cpn.getFixingAccrualFactor();
-            cpnRate[loopcpn][looppath] = cpn.getFactor() * ibor + cpn.getSpread();
-            annuityPathValue[looppath] += cpnRate[loopcpn][looppath] * cpn.getPaymentYearFraction() * cpn.getNotional() * pathDiscountFactors[looppath][loopcpn][1];
+          final double[] pD1 = discountFactors[loopcpn][1];
+          if (annuity.getNthPayment(loopcpn) instanceof CouponIborRatchet) {
+            final CouponIborRatchet cpn = (CouponIborRatchet) annuity.getNthPayment(loopcpn);
+            for (int looppath = 0; looppath < nbPath; looppath++) {
+              ibor = (-impactAmount[loopcpn][0] * pD0[looppath] / (impactAmount[loopcpn][1] * pD1[looppath]) - 1.0) / cpn.getFixingAccrualFactor();
+              final double cpnMain = cpn.getMainCoefficients()[0] * cpnRate[loopcpn - 1][looppath] + cpn.getMainCoefficients()[1] * ibor + cpn.getMainCoefficients()[2];
+              final double cpnFloor = cpn.getFloorCoefficients()[0] * cpnRate[loopcpn - 1][looppath] + cpn.getFloorCoefficients()[1] * ibor + cpn.getFloorCoefficients()[2];
+              final double cpnCap = cpn.getCapCoefficients()[0] * cpnRate[loopcpn - 1][looppath] + cpn.getCapCoefficients()[1] * ibor + cpn.getCapCoefficients()[2];
+              cpnRate[loopcpn][looppath] = Math.min(Math.max(cpnFloor, cpnMain), cpnCap);
+              annuityPathValue[looppath] += cpnRate[loopcpn][looppath] * cpn.getPaymentYearFraction() * cpn.getNotional() * pD1[looppath];
+            }
+          } else {
+            final CouponIborGearing cpn = (CouponIborGearing) annuity.getNthPayment(loopcpn);
+            final double[] pDFirst0 = discountFactors[0][0];
+            final double[] pDFirst1 = discountFactors[0][1];
+            for (int looppath = 0; looppath < nbPath; looppath++) {
+              ibor = (-impactAmount[0][0] * pDFirst0[looppath] / (impactAmount[0][1] * pDFirst1[looppath]) - 1.0) / cpn.getFixingAccrualFactor();
+              cpnRate[loopcpn][looppath] = cpn.getFactor() * ibor + cpn.getSpread();
+              annuityPathValue[looppath] += cpnRate[loopcpn][looppath] * cpn.getPaymentYearFraction() * cpn.getNotional() * pD1[looppath];
+            }
           }
         }
       }
+      return annuityPathValue;
     }
-    for (int looppath = 0; looppath < nbPath; looppath++) {
-      price += annuityPathValue[looppath];
-    }
-    price = price / nbPath;
-    return price;
+
   }
 
 }
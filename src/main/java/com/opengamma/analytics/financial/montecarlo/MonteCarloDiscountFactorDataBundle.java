@@ -7,13 +7,25 @@ package com.opengamma.analytics.financial.montecarlo;
 
 /**
  * The data bundle with the Monte Carlo discount factors and the reference amounts.
+ * <p>
+ * The discount factors are given either by path (path/step/cash-flow) or by step (step/cash-flow/path), the latter being
+ * the primitive struct-of-arrays layout produced by the path generators, with the paths in the inner contiguous arrays. The
+ * other layout is computed on the first call of its getter.
  */
 public class MonteCarloDiscountFactorDataBundle {
 
   /**
    * The paths discount factors. The dimensions are path/step/cash-flow.
    */
-  private final Double[][][] _pathDiscountingFactor;
+  private Double[][][] _pathDiscountingFactor;
+  /**
+   * The discount factors by step. The dimensions are step/cash-flow/path, the paths being the first elements of the arrays.
+   */
+  private double[][][] _discountFactor;
+  /**
+   * The number of paths.
+   */
+  private final int _nbPath;
   /**
    * The reference amounts at the impact dates. The dimensions are step/cash-flow.
    */
@@ -27,6 +39,20 @@ public class MonteCarloDiscountFactorDataBundle {
   public MonteCarloDiscountFactorDataBundle(Double[][][] pathDiscountingFactor, double[][] impactAmount) {
     super();
     _pathDiscountingFactor = pathDiscountingFactor;
+    _nbPath = pathDiscountingFactor.length;
+    _impactAmount = impactAmount;
+  }
+
+  /**
+   * Constructor from the discount factors by step.
+   * @param discountFactor The discount factors by step (step/cash-flow/path), the arrays can be longer than the number of paths.
+   * @param nbPath The number of paths.
+   * @param impactAmount The reference amounts at the impact dates.
+   */
+  public MonteCarloDiscountFactorDataBundle(double[][][] discountFactor, int nbPath, double[][] impactAmount) {
+    super();
+    _discountFactor = discountFactor;
+    _nbPath = nbPath;
     _impactAmount = impactAmount;
   }
 
@@ -35,9 +61,51 @@ public class MonteCarloDiscountFactorDataBundle {
    * @return The path discounting factors.
    */
   public Double[][][] getPathDiscountingFactor() {
+    if (_pathDiscountingFactor == null) {
+      final int nbStep = _discountFactor.length;
+      _pathDiscountingFactor = new Double[_nbPath][nbStep][];
+      for (int loopstep = 0; loopstep < nbStep; loopstep++) {
+        final int nbCf = _discountFactor[loopstep].length;
+        for (int looppath = 0; looppath < _nbPath; looppath++) {
+          _pathDiscountingFactor[looppath][loopstep] = new Double[nbCf];
+          for (int loopcf = 0; loopcf < nbCf; loopcf++) {
+            _pathDiscountingFactor[looppath][loopstep][loopcf] = _discountFactor[loopstep][loopcf][looppath];
+          }
+        }
+      }
+    }
     return _pathDiscountingFactor;
   }
 
+  /**
+   * Gets the discount factors by step.
+   * @return The discount factors (step/cash-flow/path), the paths being the first {@link #getNumberOfPaths()} elements.
+   */
+  public double[][][] getDiscountFactor() {
+    if (_discountFactor == null) {
+      final int nbStep = _nbPath == 0 ? 0 : _pathDiscountingFactor[0].length;
+      _discountFactor = new double[nbStep][][];
+      for (int loopstep = 0; loopstep < nbStep; loopstep++) {
+        final int nbCf = _pathDiscountingFactor[0][loopstep].length;
+        _discountFactor[loopstep] = new double[nbCf][_nbPath];
+        for (int looppath = 0; looppath < _nbPath; looppath++) {
+          for (int loopcf = 0; loopcf < nbCf; loopcf++) {
+            _discountFactor[loopstep][loopcf][looppath] = _pathDiscountingFactor[looppath][loopstep][loopcf];
+          }
+        }
+      }
+    }
+    return _discountFactor;
+  }
+
+  /**
+   * Gets the number of paths.
+   * @return The number of paths.
+   */
+  public int getNumberOfPaths() {
+    return _nbPath;
+  }
+
   /**
    * Gets the impact amounts.
    * @return The impact amounts.
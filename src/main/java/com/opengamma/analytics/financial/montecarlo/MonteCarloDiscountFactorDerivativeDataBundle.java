@@ -29,6 +29,18 @@ public class MonteCarloDiscountFactorDerivativeDataBundle extends MonteCarloDisc
     _impactAmountDerivative = new double[0][0];
   }
 
+  /**
+   * Constructor from the discount factors by step.
+   * @param discountFactor The discount factors by step (step/cash-flow/path), the arrays can be longer than the number of paths.
+   * @param nbPath The number of paths.
+   * @param impactAmount The reference amounts at the impact dates.
+   */
+  public MonteCarloDiscountFactorDerivativeDataBundle(double[][][] discountFactor, int nbPath, double[][] impactAmount) {
+    super(discountFactor, nbPath, impactAmount);
+    _pathDiscountingFactorDerivative = new Double[0][0][0];
+    _impactAmountDerivative = new double[0][0];
+  }
+
   /**
    * Gets the derivatives of path discounting factors.
    * @return The derivatives of path discounting factors.
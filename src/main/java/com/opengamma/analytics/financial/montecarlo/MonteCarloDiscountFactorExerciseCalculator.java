@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import java.util.Arrays;
+
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorAdapter;
+import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionBermudaFixedIbor;
+
+/**
+ * Computes the exercise values and the regression variables of an instrument with early exercise for the Longstaff-Schwartz method.
+ * The data bundle contains the different discount factor paths and the instrument reference amounts at each decision date.
+ */
+public class MonteCarloDiscountFactorExerciseCalculator extends InstrumentDerivativeVisitorAdapter<MonteCarloDiscountFactorDataBundle, LongstaffSchwartzDataBundle> {
+
+  /**
+   * The unique instance of the calculator.
+   */
+  private static final MonteCarloDiscountFactorExerciseCalculator INSTANCE = new MonteCarloDiscountFactorExerciseCalculator();
+
+  /**
+   * Gets the calculator instance.
+   * @return The calculator.
+   */
+  public static MonteCarloDiscountFactorExerciseCalculator getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Constructor.
+   */
+  MonteCarloDiscountFactorExerciseCalculator() {
+  }
+
+  /**
+   * {@inheritDoc}
+   * The exercise value at a decision date is the value of the underlying swap of that date. The regression variables are the
+   * exercise value and the discount factor to the first cash flow of the swap.
+   */
+  @Override
+  public LongstaffSchwartzDataBundle visitSwaptionBermudaFixedIbor(final SwaptionBermudaFixedIbor swaption, final MonteCarloDiscountFactorDataBundle mcResults) {
+    final double[][][] discountFactors = mcResults.getDiscountFactor(); // jump/cf/path
+    final double[][] impactAmount = mcResults.getImpactAmount();
+    final int nbPath = mcResults.getNumberOfPaths();
+    final int nbDecision = impactAmount.length;
+    final double[][] exerciseValue = new double[nbPath][nbDecision];
+    final double[][][] regressionVariable = new double[nbPath][nbDecision][];
+    final double[] swapPathValue = new double[nbPath];
+    for (int loopdec = 0; loopdec < nbDecision; loopdec++) {
+      Arrays.fill(swapPathValue, 0.0);
+      for (int loopcf = 0; loopcf < impactAmount[loopdec].length; loopcf++) {
+        final double[] pD = discountFactors[loopdec][loopcf];
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          swapPathValue[looppath] += impactAmount[loopdec][loopcf] * pD[looppath];
+        }
+      }
+      final double[] pDFirst = discountFactors[loopdec][0];
+      for (int looppath = 0; looppath < nbPath; looppath++) {
+        exerciseValue[looppath][loopdec] = swapPathValue[looppath];
+        regressionVariable[looppath][loopdec] = new double[] {swapPathValue[looppath], pDFirst[looppath] };
+      }
+    }
+    return new LongstaffSchwartzDataBundle(exerciseValue, regressionVariable, swaption.isLong() ? 1.0 : -1.0);
+  }
+
+}
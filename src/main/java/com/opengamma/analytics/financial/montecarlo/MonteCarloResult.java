@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import java.time.Duration;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The result of a Monte Carlo computation: the estimate with its standard error, the number of paths used and the wall time.
+ */
+public final class MonteCarloResult {
+
+  /**
+   * The currency of the estimate.
+   */
+  private final Currency _currency;
+  /**
+   * The estimate.
+   */
+  private final double _value;
+  /**
+   * The standard error of the estimate, NaN if it could not be estimated.
+   */
+  private final double _standardError;
+  /**
+   * The number of paths used.
+   */
+  private final long _nbPath;
+  /**
+   * The wall time of the computation.
+   */
+  private final Duration _wallTime;
+
+  /**
+   * Constructor.
+   * @param currency The currency of the estimate, not null.
+   * @param value The estimate.
+   * @param standardError The standard error of the estimate, NaN if it could not be estimated.
+   * @param nbPath The number of paths used.
+   * @param wallTime The wall time of the computation, not null.
+   */
+  public MonteCarloResult(final Currency currency, final double value, final double standardError, final long nbPath, final Duration wallTime) {
+    ArgChecker.notNull(currency, "currency");
+    ArgChecker.notNull(wallTime, "wall time");
+    _currency = currency;
+    _value = value;
+    _standardError = standardError;
+    _nbPath = nbPath;
+    _wallTime = wallTime;
+  }
+
+  /**
+   * Gets the currency.
+   * @return The currency.
+   */
+  public Currency getCurrency() {
+    return _currency;
+  }
+
+  /**
+   * Gets the estimate.
+   * @return The estimate.
+   */
+  public double getValue() {
+    return _value;
+  }
+
+  /**
+   * Gets the estimate as a present value.
+   * @return The present value.
+   */
+  public MultiCurrencyAmount getPresentValue() {
+    return MultiCurrencyAmount.of(_currency, _value);
+  }
+
+  /**
+   * Gets the standard error of the estimate.
+   * @return The standard error, NaN if it could not be estimated.
+   */
+  public double getStandardError() {
+    return _standardError;
+  }
+
+  /**
+   * Gets the standard error relative to the absolute value of the estimate.
+   * @return The relative standard error.
+   */
+  public double getRelativeError() {
+    return _standardError / Math.abs(_value);
+  }
+
+  /**
+   * Gets the number of paths used.
+   * @return The number.
+   */
+  public long getNumberOfPaths() {
+    return _nbPath;
+  }
+
+  /**
+   * Gets the wall time of the computation.
+   * @return The wall time.
+   */
+  public Duration getWallTime() {
+    return _wallTime;
+  }
+
+  @Override
+  public String toString() {
+    return "MonteCarloResult[" + _currency + " " + _value + " +/- " + _standardError + ", paths=" + _nbPath + ", time=" + _wallTime + "]";
+  }
+
+}
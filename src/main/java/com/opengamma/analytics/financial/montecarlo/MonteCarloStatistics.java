@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The running statistics of a Monte Carlo estimate computed by blocks of paths.
+ * <p>
+ * Each block contributes the sum of the values of its paths. The estimate is the total sum divided by the total number of
+ * paths. The standard error is estimated by the method of batch means: the block averages, weighted by their number of
+ * paths, are accumulated by the algorithm of West (a weighted version of the algorithm of Welford), which is numerically
+ * stable when the standard error is small with respect to the value. Two statistics on disjoint blocks can be merged.
+ */
+public final class MonteCarloStatistics {
+
+  /**
+   * The number of blocks.
+   */
+  private int _nbBlock;
+  /**
+   * The number of paths.
+   */
+  private long _nbPath;
+  /**
+   * The sum of the values of all the paths.
+   */
+  private double _sum;
+  /**
+   * The running weighted mean of the block averages.
+   */
+  private double _mean;
+  /**
+   * The weighted sum of the squared deviations of the block averages from their mean.
+   */
+  private double _m2;
+
+  /**
+   * Adds a block.
+   * @param blockSum The sum of the values of the paths of the block.
+   * @param nbPath The number of paths of the block, positive.
+   */
+  public void add(final double blockSum, final int nbPath) {
+    ArgChecker.isTrue(nbPath > 0, "number of paths should be positive");
+    _nbBlock++;
+    _nbPath += nbPath;
+    _sum += blockSum;
+    final double delta = blockSum / nbPath - _mean;
+    _mean += delta * nbPath / _nbPath;
+    _m2 += nbPath * delta * (blockSum / nbPath - _mean);
+  }
+
+  /**
+   * Merges the blocks of another statistics into this one (parallel algorithm of Chan et al.).
+   * @param other The other statistics, on blocks disjoint from the blocks of this one, not null.
+   */
+  public void merge(final MonteCarloStatistics other) {
+    ArgChecker.notNull(other, "other");
+    if (other._nbPath == 0) {
+      return;
+    }
+    final long nbPath = _nbPath + other._nbPath;
+    final double delta = other._mean - _mean;
+    _m2 += other._m2 + delta * delta * _nbPath * other._nbPath / nbPath;
+    _mean += delta * other._nbPath / nbPath;
+    _nbBlock += other._nbBlock;
+    _nbPath = nbPath;
+    _sum += other._sum;
+  }
+
+  /**
+   * Gets the number of blocks.
+   * @return The number.
+   */
+  public int getNumberOfBlocks() {
+    return _nbBlock;
+  }
+
+  /**
+   * Gets the number of paths.
+   * @return The number.
+   */
+  public long getNumberOfPaths() {
+    return _nbPath;
+  }
+
+  /**
+   * Gets the sum of the values of all the paths.
+   * @return The sum.
+   */
+  public double getSum() {
+    return _sum;
+  }
+
+  /**
+   * Gets the estimate, the average value of the paths.
+   * @return The estimate, NaN if there is no path.
+   */
+  public double getMean() {
+    return _nbPath == 0 ? Double.NaN : _sum / _nbPath;
+  }
+
+  /**
+   * Gets the estimated standard error of the estimate.
+   * @return The standard error, NaN if there are less than two blocks.
+   */
+  public double getStandardError() {
+    if (_nbBlock < 2) {
+      return Double.NaN;
+    }
+    // The variance of a path value is estimated by the variance of the block averages times the block size.
+    return Math.sqrt(_m2 / (_nbBlock - 1) / _nbPath);
+  }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The variance reduction applied to the independent normal variables of a block of Monte Carlo paths.
+ * <p>
+ * With antithetic variates, only the first half of the paths of a block is drawn (rounded up) and each path of the second
+ * half is the opposite of a path of the first half; the estimator is unbiased and its variance is reduced for payoffs
+ * monotonous in the variables. With moment matching, each variable is shifted and scaled over the paths of the block to a
+ * sample mean of 0 and a sample variance of 1; the estimator has a small bias, of the order of the inverse of the block size.
+ * <p>
+ * The variables are in the variable/path layout of the Monte Carlo methods: one row per variable, one column per path.
+ */
+public final class MonteCarloVarianceReduction {
+
+  /**
+   * No variance reduction.
+   */
+  public static final MonteCarloVarianceReduction NONE = new MonteCarloVarianceReduction(false, false);
+
+  /**
+   * Whether the paths are drawn by antithetic pairs.
+   */
+  private final boolean _antithetic;
+  /**
+   * Whether the first two moments of the variables are matched on each block.
+   */
+  private final boolean _momentMatching;
+
+  /**
+   * Constructor.
+   * @param antithetic Whether the paths are drawn by antithetic pairs.
+   * @param momentMatching Whether the first two moments of the variables are matched on each block.
+   */
+  public MonteCarloVarianceReduction(final boolean antithetic, final boolean momentMatching) {
+    _antithetic = antithetic;
+    _momentMatching = momentMatching;
+  }
+
+  /**
+   * Gets the antithetic flag.
+   * @return Whether the paths are drawn by antithetic pairs.
+   */
+  public boolean isAntithetic() {
+    return _antithetic;
+  }
+
+  /**
+   * Gets the moment matching flag.
+   * @return Whether the first two moments of the variables are matched on each block.
+   */
+  public boolean isMomentMatching() {
+    return _momentMatching;
+  }
+
+  /**
+   * Returns the number of paths of a block for which the variables are drawn from the generator.
+   * @param nbPath The number of paths of the block.
+   * @return The number of paths drawn; they are the first columns of the variables.
+   */
+  public int getNumberOfDraws(final int nbPath) {
+    return _antithetic ? (nbPath + 1) / 2 : nbPath;
+  }
+
+  /**
+   * Completes and transforms in place the variables of a block, after the first {@link #getNumberOfDraws} columns have been drawn.
+   * @param variables The variables (variable/path), not null
+   * @param nbVariable The number of variables, the first rows of the array.
+   * @param nbPath The number of paths of the block, the first columns of the array.
+   */
+  public void apply(final double[][] variables, final int nbVariable, final int nbPath) {
+    ArgChecker.notNull(variables, "variables");
+    if (_antithetic) {
+      final int nbDraw = getNumberOfDraws(nbPath);
+      for (int loopvar = 0; loopvar < nbVariable; loopvar++) {
+        final double[] row = variables[loopvar];
+        for (int looppath = nbDraw; looppath < nbPath; looppath++) {
+          row[looppath] = -row[looppath - nbDraw];
+        }
+      }
+    }
+    if (_momentMatching && nbPath > 1) {
+      for (int loopvar = 0; loopvar < nbVariable; loopvar++) {
+        final double[] row = variables[loopvar];
+        double mean = 0.0;
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          mean += row[looppath];
+        }
+        mean /= nbPath;
+        double variance = 0.0;
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          variance += (row[looppath] - mean) * (row[looppath] - mean);
+        }
+        variance /= nbPath;
+        if (variance > 0.0) {
+          final double scale = 1.0 / Math.sqrt(variance);
+          for (int looppath = 0; looppath < nbPath; looppath++) {
+            row[looppath] = (row[looppath] - mean) * scale;
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Boolean.hashCode(_antithetic) + Boolean.hashCode(_momentMatching);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof MonteCarloVarianceReduction)) {
+      return false;
+    }
+    final MonteCarloVarianceReduction other = (MonteCarloVarianceReduction) obj;
+    return _antithetic == other._antithetic && _momentMatching == other._momentMatching;
+  }
+
+}
@@ -10,6 +10,7 @@ import com.opengamma.analytics.financial.interestrate.annuity.derivative.Annuity
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityPaymentFixed;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CapFloorIbor;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponFloating;
+import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionBermudaFixedIbor;
 import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionCashFixedIbor;
 import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionPhysicalFixedIbor;
 import com.opengamma.analytics.financial.montecarlo.DecisionSchedule;
@@ -59,6 +60,25 @@ public class DecisionScheduleCalculator extends InstrumentDerivativeVisitorAdapt
     return decision;
   }
 
+  @Override
+  public DecisionSchedule visitSwaptionBermudaFixedIbor(final SwaptionBermudaFixedIbor swaption, final MulticurveProviderInterface multicurves) {
+    final double[] decisionTime = swaption.getExpiryTime().clone();
+    final int nbExpiry = decisionTime.length;
+    final double[][] impactTime = new double[nbExpiry][];
+    final double[][] impactAmount = new double[nbExpiry][];
+    for (int loopexp = 0; loopexp < nbExpiry; loopexp++) {
+      final AnnuityPaymentFixed cfe = swaption.getUnderlyingSwap()[loopexp].accept(CFEC, multicurves);
+      impactTime[loopexp] = new double[cfe.getNumberOfPayments()];
+      impactAmount[loopexp] = new double[cfe.getNumberOfPayments()];
+      for (int loopcf = 0; loopcf < cfe.getNumberOfPayments(); loopcf++) {
+        impactTime[loopexp][loopcf] = cfe.getNthPayment(loopcf).getPaymentTime();
+        impactAmount[loopexp][loopcf] = cfe.getNthPayment(loopcf).getAmount();
+      }
+    }
+    final DecisionSchedule decision = new DecisionSchedule(decisionTime, impactTime, impactAmount);
+    return decision;
+  }
+
   @Override
   public DecisionSchedule visitSwaptionCashFixedIbor(final SwaptionCashFixedIbor swaption, final MulticurveProviderInterface multicurves) {
     final double[] decisionTime = new double[] {swaption.getTimeToExpiry() };
@@ -5,24 +5,40 @@
  */
 package com.opengamma.analytics.financial.montecarlo.provider;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
-import com.opengamma.analytics.financial.model.interestrate.G2ppPiecewiseConstantModel;
-import com.opengamma.analytics.financial.model.interestrate.definition.G2ppPiecewiseConstantParameters;
 import com.opengamma.analytics.financial.montecarlo.DecisionSchedule;
+import com.opengamma.analytics.financial.montecarlo.LongstaffSchwartzDataBundle;
+import com.opengamma.analytics.financial.montecarlo.LongstaffSchwartzRegression;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloConvergence;
 import com.opengamma.analytics.financial.montecarlo.MonteCarloDiscountFactorCalculator;
 import com.opengamma.analytics.financial.montecarlo.MonteCarloDiscountFactorDataBundle;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloDiscountFactorExerciseCalculator;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloResult;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloVarianceReduction;
 import com.opengamma.analytics.financial.provider.description.interestrate.G2ppProviderInterface;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
-import com.opengamma.analytics.math.linearalgebra.CholeskyDecompositionCommons;
-import com.opengamma.analytics.math.linearalgebra.CholeskyDecompositionResult;
-import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
 import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.math.random.RandomNumberStreams;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
 
 /**
  * Monte Carlo pricing method in the G2++ two factors model.
  * The Monte Carlo is on the solution of the discount factor (not on the equation of the short rate).
+ * The constants of the path simulation of a decision schedule ({@link G2ppMonteCarloPathConstants}) can be computed once
+ * and reused for all the instruments sharing the schedule.
+ * <p>
+ * When the method is constructed with a single random number generator, the blocks of paths draw from that generator in
+ * turn, one vector by factor and decision date. When it is constructed with {@link RandomNumberStreams}, the block of index
+ * i draws from the stream i and each path uses one vector of the stream, with one dimension by factor and decision date. The
+ * streams can be quasi-random, like {@link com.opengamma.analytics.math.random.SobolRandomNumberStreams} with a stream length
+ * of 1000, the number of paths in one block. The factors can then be built in the order of a Brownian bridge, the two
+ * factors at the last decision date first, which concentrates the variance of the paths on the first dimensions of the
+ * sequence.
  */
 public class G2ppMonteCarloMethod extends MonteCarloMethod {
 
@@ -35,20 +51,65 @@ public class G2ppMonteCarloMethod extends MonteCarloMethod {
    */
   private static final MonteCarloDiscountFactorCalculator MCC = MonteCarloDiscountFactorCalculator.getInstance();
   /**
-   * The Hull-White one factor model.
+   * The calculator of the exercise values and regression variables from discount factors and reference amounts.
    */
-  private static final G2ppPiecewiseConstantModel MODEL = new G2ppPiecewiseConstantModel();
+  private static final MonteCarloDiscountFactorExerciseCalculator MCEC = MonteCarloDiscountFactorExerciseCalculator.getInstance();
   /**
    * The number of paths in one block.
    */
   private static final int BLOCK_SIZE = 1000;
 
+  /**
+   * The random number streams, one per block, null when the blocks draw from the shared generator.
+   */
+  private final RandomNumberStreams _streams;
+  /**
+   * Whether the factors are built in the order of a Brownian bridge, only used with streams.
+   */
+  private final boolean _brownianBridge;
+
   /**
    * @param numberGenerator The random number generator.
    * @param nbPath The number of paths.
    */
   public G2ppMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath) {
-    super(numberGenerator, nbPath);
+    this(numberGenerator, nbPath, MonteCarloVarianceReduction.NONE);
+  }
+
+  /**
+   * @param numberGenerator The random number generator.
+   * @param nbPath The number of paths.
+   * @param varianceReduction The variance reduction applied to the normal variables of each block, not null.
+   */
+  public G2ppMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final MonteCarloVarianceReduction varianceReduction) {
+    super(numberGenerator, nbPath, varianceReduction);
+    _streams = null;
+    _brownianBridge = false;
+  }
+
+  /**
+   * Constructor with one random number stream per block. The shared number generator of the method is null.
+   * @param streams The random number streams, the block of index i uses the stream i, not null.
+   * @param nbPath The number of paths.
+   * @param brownianBridge Whether the factors are built in the order of a Brownian bridge instead of the order of the decision dates.
+   */
+  public G2ppMonteCarloMethod(final RandomNumberStreams streams, final int nbPath, final boolean brownianBridge) {
+    this(streams, nbPath, brownianBridge, MonteCarloVarianceReduction.NONE);
+  }
+
+  /**
+   * Constructor with one random number stream per block and a variance reduction. The shared number generator of the method is null.
+   * @param streams The random number streams, the block of index i uses the stream i, not null.
+   * @param nbPath The number of paths.
+   * @param brownianBridge Whether the factors are built in the order of a Brownian bridge instead of the order of the decision dates.
+   * @param varianceReduction The variance reduction applied to the normal variables of each block, not null.
+   */
+  public G2ppMonteCarloMethod(final RandomNumberStreams streams, final int nbPath, final boolean brownianBridge,
+      final MonteCarloVarianceReduction varianceReduction) {
+    super(null, nbPath, varianceReduction);
+    ArgChecker.notNull(streams, "streams");
+    _streams = streams;
+    _brownianBridge = brownianBridge;
   }
 
   /**
@@ -61,118 +122,166 @@ public class G2ppMonteCarloMethod extends MonteCarloMethod {
    * @return The present value.
    */
   public MultiCurrencyAmount presentValue(final InstrumentDerivative instrument, final Currency ccy, final G2ppProviderInterface g2Data) {
+    return presentValue(instrument, ccy, g2Data, MonteCarloConvergence.ALL_PATHS).getPresentValue();
+  }
+
+  /**
+   * Computes the present value in the G2++ two factors model by Monte-Carlo, with its standard error, until the convergence
+   * criteria are met. The blocks of BLOCK_SIZE paths are added by batches, up to the number of paths of the method.
+   * @param instrument The swaption.
+   * @param ccy The currency
+   * @param g2Data The G2++ data (curves and G2++ parameters).
+   * @param convergence The convergence criteria.
+   * @return The present value, its standard error, the number of paths used and the wall time.
+   */
+  public MonteCarloResult presentValue(final InstrumentDerivative instrument, final Currency ccy, final G2ppProviderInterface g2Data,
+      final MonteCarloConvergence convergence) {
+    return presentValue(instrument, g2Data, pathConstants(instrument, ccy, g2Data), convergence);
+  }
+
+  /**
+   * Computes the constants of the path simulation for the decision schedule of an instrument. The constants can be used
+   * to price all the instruments with the same decision and impact times, with the same G2++ data.
+   * @param instrument The instrument.
+   * @param ccy The currency
+   * @param g2Data The G2++ data (curves and G2++ parameters).
+   * @return The constants.
+   */
+  public G2ppMonteCarloPathConstants pathConstants(final InstrumentDerivative instrument, final Currency ccy, final G2ppProviderInterface g2Data) {
+    ArgChecker.notNull(instrument, "instrument");
+    ArgChecker.notNull(g2Data, "G2++ data");
+    return new G2ppMonteCarloPathConstants(instrument.accept(DC, g2Data.getMulticurveProvider()), ccy, g2Data);
+  }
+
+  /**
+   * Computes the present value in the G2++ two factors model by Monte-Carlo with precomputed path constants.
+   * @param instrument The instrument.
+   * @param g2Data The G2++ data (curves and G2++ parameters), the data used for the constants.
+   * @param constants The path constants, compatible with the decision schedule of the instrument and the data.
+   * @return The present value.
+   */
+  public MultiCurrencyAmount presentValue(final InstrumentDerivative instrument, final G2ppProviderInterface g2Data, final G2ppMonteCarloPathConstants constants) {
+    return presentValue(instrument, g2Data, constants, MonteCarloConvergence.ALL_PATHS).getPresentValue();
+  }
+
+  /**
+   * Computes the present value in the G2++ two factors model by Monte-Carlo with precomputed path constants, with its standard
+   * error, until the convergence criteria are met.
+   * @param instrument The instrument.
+   * @param g2Data The G2++ data (curves and G2++ parameters), the data used for the constants.
+   * @param constants The path constants, compatible with the decision schedule of the instrument and the data.
+   * @param convergence The convergence criteria.
+   * @return The present value, its standard error, the number of paths used and the wall time.
+   */
+  public MonteCarloResult presentValue(final InstrumentDerivative instrument, final G2ppProviderInterface g2Data, final G2ppMonteCarloPathConstants constants,
+      final MonteCarloConvergence convergence) {
+    ArgChecker.notNull(constants, "path constants");
+    final DecisionSchedule decision = instrument.accept(DC, g2Data.getMulticurveProvider());
+    ArgChecker.isTrue(constants.isCompatible(decision, g2Data), "path constants not compatible with the decision schedule of the instrument or the G2++ data");
+    final PathGenerator generator = new PathGenerator(constants, Math.min(BLOCK_SIZE, getNbPath()));
+    final double[][] impactAmount = decision.getImpactAmount();
+    return computeByBatch(constants.getCurrency(), constants.getNumeraireDiscountFactor(), BLOCK_SIZE, convergence, (startBlock, endBlock, nbPath2, blockSum) -> {
+      for (int loopblock = startBlock; loopblock < endBlock; loopblock++) {
+        final double[][][] pD = generator.pathDiscountFactors(loopblock, nbPath2[loopblock]);
+        blockSum[loopblock - startBlock] = instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, nbPath2[loopblock], impactAmount)) * nbPath2[loopblock];
+      }
+    });
+  }
+
+  /**
+   * Computes the present value of an instrument with early exercise in the G2++ two factors model by the least-squares
+   * Monte Carlo method of Longstaff and Schwartz.
+   * <p>
+   * The exercise strategy is first estimated by regression on a set of regression paths, then the instrument is priced with
+   * that strategy on the pricing paths of the method. The regression paths are drawn from the generator first; with streams,
+   * the regression blocks use the first streams and the pricing blocks the next ones.
+   * @param instrument The instrument, for example a Bermudan swaption.
+   * @param ccy The currency
+   * @param g2Data The G2++ data (curves and G2++ parameters).
+   * @param regression The regression of the continuation values.
+   * @param nbPathRegression The number of regression paths.
+   * @return The present value.
+   */
+  public MultiCurrencyAmount presentValueLongstaffSchwartz(final InstrumentDerivative instrument, final Currency ccy, final G2ppProviderInterface g2Data,
+      final LongstaffSchwartzRegression regression, final int nbPathRegression) {
+    ArgChecker.notNull(regression, "regression");
+    ArgChecker.isTrue(nbPathRegression > 0, "number of regression paths should be positive");
     MulticurveProviderInterface multicurves = g2Data.getMulticurveProvider();
-    G2ppPiecewiseConstantParameters parameters = g2Data.getG2ppParameters();
     final DecisionSchedule decision = instrument.accept(DC, multicurves);
-    final double[] decisionTime = decision.getDecisionTime();
-    final double[][] impactTime = decision.getImpactTime();
-    final int nbJump = decisionTime.length;
-    final double numeraireTime = decisionTime[nbJump - 1];
-    final double pDN = multicurves.getDiscountFactor(ccy, numeraireTime);
-    // Discount factor to numeraire date for rebasing.
-    final double[][] pDI = new double[nbJump][];
-    // Initial discount factors to each impact date.
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      pDI[loopjump] = new double[impactTime[loopjump].length];
-      for (int i = 0; i < impactTime[loopjump].length; i++) {
-        pDI[loopjump][i] = multicurves.getDiscountFactor(ccy, impactTime[loopjump][i]) / pDN;
-      }
-    }
-    final double rhog2pp = parameters.getCorrelation();
-    final double[][][] h = MODEL.volatilityMaturityPart(parameters, numeraireTime, impactTime); // factor/jump/cf
-    final double[][][] gamma = new double[nbJump][2][2]; // jump/factor/factor
-    final double[][] cov = new double[2 * nbJump][2 * nbJump]; // factor 0 - factor 1
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      gamma[loopjump] = MODEL.gamma(parameters, 0.0, decisionTime[loopjump]);
-      for (int j = loopjump; j < nbJump; j++) {
-        cov[j][loopjump] = gamma[loopjump][0][0];
-        cov[loopjump][j] = gamma[loopjump][0][0];
-        cov[nbJump + j][nbJump + loopjump] = gamma[loopjump][1][1];
-        cov[nbJump + loopjump][nbJump + j] = gamma[loopjump][1][1];
-        cov[j][nbJump + loopjump] = rhog2pp * gamma[loopjump][0][1];
-        cov[loopjump][nbJump + j] = rhog2pp * gamma[loopjump][0][1];
-        cov[nbJump + j][loopjump] = rhog2pp * gamma[loopjump][0][1];
-        cov[nbJump + loopjump][j] = rhog2pp * gamma[loopjump][0][1];
-      }
-    }
-    final double[][][] alpha = new double[2][nbJump][]; // factor/jump/cf
-    final double[][] tau2 = new double[nbJump][];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      tau2[loopjump] = new double[impactTime[loopjump].length];
-      alpha[0][loopjump] = new double[impactTime[loopjump].length];
-      alpha[1][loopjump] = new double[impactTime[loopjump].length];
-      for (int loopcf = 0; loopcf < impactTime[loopjump].length; loopcf++) {
-        alpha[0][loopjump][loopcf] = Math.sqrt(gamma[loopjump][0][0]) * h[0][loopjump][loopcf];
-        alpha[1][loopjump][loopcf] = Math.sqrt(gamma[loopjump][1][1]) * h[1][loopjump][loopcf];
-        tau2[loopjump][loopcf] = alpha[0][loopjump][loopcf] * alpha[0][loopjump][loopcf] + alpha[1][loopjump][loopcf] * alpha[1][loopjump][loopcf] + 2 * rhog2pp * gamma[loopjump][0][1]
-            * h[0][loopjump][loopcf] * h[1][loopjump][loopcf];
-      }
-    }
-    final CholeskyDecompositionCommons cd = new CholeskyDecompositionCommons();
-    final CholeskyDecompositionResult cdr = cd.evaluate(new DoubleMatrix2D(cov));
-    final double[][] covCD = cdr.getL().getData();
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
-    }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
+    final PathGenerator generator = new PathGenerator(new G2ppMonteCarloPathConstants(decision, ccy, g2Data), Math.min(BLOCK_SIZE, Math.max(getNbPath(), nbPathRegression)));
     final double[][] impactAmount = decision.getImpactAmount();
+    // Regression pass
+    final int[] nbPathRegression2 = blockSizes(nbPathRegression, BLOCK_SIZE);
+    final List<LongstaffSchwartzDataBundle> regressionBlocks = new ArrayList<>();
+    for (int loopblock = 0; loopblock < nbPathRegression2.length; loopblock++) {
+      final double[][][] pD = generator.pathDiscountFactors(loopblock, nbPathRegression2[loopblock]);
+      regressionBlocks.add(instrument.accept(MCEC, new MonteCarloDiscountFactorDataBundle(pD, nbPathRegression2[loopblock], impactAmount)));
+    }
+    final double[][] coefficients = regression.regress(LongstaffSchwartzDataBundle.concatenate(regressionBlocks));
+    // Pricing pass
+    final int[] nbPath2 = blockSizes(getNbPath(), BLOCK_SIZE);
     double pv = 0;
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] x = getNormalArray(2 * nbJump, nbPath2[loopblock]);
-      final double[][] y = new double[2 * nbJump][nbPath2[loopblock]]; // jump/path
-      for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-        for (int i = 0; i < 2 * nbJump; i++) {
-          for (int j = 0; j < 2 * nbJump; j++) {
-            y[i][looppath] += x[j][looppath] * covCD[i][j];
-          }
-        }
-      }
-      final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, tau2);
-      pv += instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, impactAmount)) * nbPath2[loopblock];
+    for (int loopblock = 0; loopblock < nbPath2.length; loopblock++) {
+      final double[][][] pD = generator.pathDiscountFactors(nbPathRegression2.length + loopblock, nbPath2[loopblock]);
+      pv += regression.price(instrument.accept(MCEC, new MonteCarloDiscountFactorDataBundle(pD, nbPath2[loopblock], impactAmount)), coefficients);
     }
-    pv *= pDN / getNbPath(); // Multiply by the numeraire.
+    pv *= generator._constants.getNumeraireDiscountFactor() / getNbPath(); // Multiply by the numeraire.
     return MultiCurrencyAmount.of(ccy, pv);
   }
 
   /**
-   * Gets a 2D-array of independent normally distributed variables.
-   * @param nbJump The number of jumps.
-   * @param nbPath The number of paths.
-   * @return The array of variables.
+   * The generator of the discount factor paths at the decision dates of a schedule, from the precomputed constants of the
+   * schedule. The random variable and discount factor buffers are reused from one block to the next.
    */
-  private double[][] getNormalArray(final int nbJump, final int nbPath) {
-    final double[][] result = new double[nbJump][nbPath];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      result[loopjump] = getNumberGenerator().getVector(nbPath);
+  private final class PathGenerator {
+    /**
+     * The path constants.
+     */
+    private final G2ppMonteCarloPathConstants _constants;
+    /**
+     * The buffer of independent normal variables (jump0+jump1/path), or (bridge step/path) with the Brownian bridge.
+     */
+    private final double[][] _x;
+    /**
+     * The buffer of correlated normal variables (jump0+jump1/path).
+     */
+    private final double[][] _y;
+    /**
+     * The buffer of one vector of a stream, used with streams.
+     */
+    private final double[] _z;
+    /**
+     * The buffer of the discount factors (jump/cf/path).
+     */
+    private final double[][][] _pD;
+
+    PathGenerator(final G2ppMonteCarloPathConstants constants, final int maxPath) {
+      _constants = constants;
+      _x = new double[2 * constants.getNumberOfJumps()][maxPath];
+      _y = new double[2 * constants.getNumberOfJumps()][maxPath];
+      _z = new double[2 * constants.getNumberOfJumps()];
+      _pD = constants.discountFactorBuffer(maxPath);
     }
-    return result;
-  }
 
-  /**
-   * Construct the discount factors on the simulated paths from the random variables and the model constants.
-   * @param initDiscountFactor The initial discount factors. jump/cf
-   * @param y The correlated random variables. jump0+jump1/path.
-   * @param h The H parameters. factor/jump/cf
-   * @param tau2 The square of total volatilities. jump/cf 
-   * @return The discount factor paths (path/jump/cf).
-   */
-  private Double[][][] pathGeneratorDiscount(final double[][] initDiscountFactor, final double[][] y, final double[][][] h, final double[][] tau2) {
-    final int nbJump = y.length / 2;
-    final int nbPath = y[0].length;
-    final Double[][][] pD = new Double[nbPath][nbJump][];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      final int nbCF = h[0][loopjump].length;
-      for (int looppath = 0; looppath < nbPath; looppath++) {
-        pD[looppath][loopjump] = new Double[nbCF];
-        for (int loopcf = 0; loopcf < nbCF; loopcf++) {
-          pD[looppath][loopjump][loopcf] = initDiscountFactor[loopjump][loopcf]
-              * Math.exp(-h[0][loopjump][loopcf] * y[loopjump][looppath] - h[1][loopjump][loopcf] * y[nbJump + loopjump][looppath] - 0.5 * tau2[loopjump][loopcf]);
-        }
+    /**
+     * Simulates the discount factors of a block of paths. The result is the buffer of the generator, overwritten by the next block.
+     * @param block The block index, which gives the stream used with streams.
+     * @param nbPath The number of paths, at most the maximum number of paths of the generator.
+     * @return The discount factors (jump/cf/path), in the first nbPath columns.
+     */
+    double[][][] pathDiscountFactors(final int block, final int nbPath) {
+      if (_streams == null) {
+        final MonteCarloVarianceReduction varianceReduction = getVarianceReduction();
+        getNumberGenerator().fill(_x, varianceReduction.getNumberOfDraws(nbPath));
+        varianceReduction.apply(_x, _x.length, nbPath);
+        _constants.pathDiscountFactors(_x, _y, nbPath, false, _pD);
+        return _pD;
       }
+      // One vector of the stream by path, with one dimension by factor and decision date.
+      pathNormals(_streams.getStream(block), _x.length, nbPath, _x, _z);
+      _constants.pathDiscountFactors(_x, _y, nbPath, _brownianBridge, _pD);
+      return _pD;
     }
-    return pD;
   }
 
 }
@@ -0,0 +1,330 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo.provider;
+
+import java.util.Arrays;
+
+import com.opengamma.analytics.financial.model.interestrate.G2ppPiecewiseConstantModel;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
+import com.opengamma.analytics.financial.model.interestrate.definition.G2ppPiecewiseConstantParameters;
+import com.opengamma.analytics.financial.montecarlo.DecisionSchedule;
+import com.opengamma.analytics.financial.provider.description.interestrate.G2ppProviderInterface;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
+import com.opengamma.analytics.math.linearalgebra.CholeskyDecompositionCommons;
+import com.opengamma.analytics.math.linearalgebra.CholeskyDecompositionResult;
+import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.random.BrownianBridge;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The constants of the simulation of discount factor paths in the G2++ model for a decision schedule: the numeraire
+ * rebasing factors, the H parameters, the total variances and the Cholesky factor of the covariance of the two factors
+ * at the decision dates.
+ * <p>
+ * The factors can also be built in the order of a Brownian bridge: the two factors at the last decision date first, then at
+ * the other dates by bisection, see {@link BrownianBridge#constructionOrder(int)}. This is the Cholesky factor of the
+ * covariance matrix with the variables in that order. With a quasi-random sequence, the first dimensions then drive most of
+ * the variance of the paths.
+ * <p>
+ * The constants depend on the decision and impact times of the schedule, not on the impact amounts. They are computed once
+ * and can be shared by all the instruments with the same schedule, for the same G2++ data and currency, in the
+ * {@link G2ppMonteCarloMethod}. The constants keep a copy of the G2++ parameters and the discounting curve object they were
+ * computed with, so that they are not used with other data, even if the data objects were modified in place since; a copy of
+ * the provider shares the curve objects and is accepted. For a provider which does not give access to its curves, the
+ * discount factors used are kept and compared instead. The object is immutable and can be shared between threads.
+ */
+public final class G2ppMonteCarloPathConstants {
+
+  /**
+   * The G2++ model.
+   */
+  private static final G2ppPiecewiseConstantModel MODEL = new G2ppPiecewiseConstantModel();
+
+  /**
+   * The currency.
+   */
+  private final Currency _currency;
+  /**
+   * The decision times.
+   */
+  private final double[] _decisionTime;
+  /**
+   * The impact times (jump/cf).
+   */
+  private final double[][] _impactTime;
+  /**
+   * The discount factor to the numeraire date.
+   */
+  private final double _pDN;
+  /**
+   * The initial discount factors to the impact dates, rebased by the numeraire (jump/cf).
+   */
+  private final double[][] _pDI;
+  /**
+   * The H parameters (factor/jump/cf).
+   */
+  private final double[][][] _h;
+  /**
+   * The square of the total volatilities (jump/cf).
+   */
+  private final double[][] _tau2;
+  /**
+   * The Cholesky decomposition of the covariance matrix of the two factors at the decision dates, lower triangular.
+   */
+  private final double[][] _covCD;
+  /**
+   * The index of the factor variable (jump0+jump1) given by each normal variable in the Brownian bridge order.
+   */
+  private final int[] _bridgeOrder;
+  /**
+   * The Cholesky decomposition of the covariance matrix with the variables in the Brownian bridge order, lower triangular.
+   */
+  private final double[][] _bridgeCD;
+  /**
+   * The discounting curve used, null if the provider does not give access to its curves.
+   */
+  private final YieldAndDiscountCurve _discountingCurve;
+  /**
+   * The mean reversions of the G2++ parameters used.
+   */
+  private final double[] _meanReversion;
+  /**
+   * The volatilities of the G2++ parameters used (factor/period).
+   */
+  private final double[][] _volatility;
+  /**
+   * The volatility times of the G2++ parameters used.
+   */
+  private final double[] _volatilityTime;
+  /**
+   * The correlation of the G2++ parameters used.
+   */
+  private final double _correlation;
+
+  /**
+   * Constructor.
+   * @param decision The decision schedule, not null.
+   * @param ccy The currency, not null.
+   * @param g2Data The G2++ data (curves and G2++ parameters), not null.
+   */
+  public G2ppMonteCarloPathConstants(final DecisionSchedule decision, final Currency ccy, final G2ppProviderInterface g2Data) {
+    ArgChecker.notNull(decision, "decision schedule");
+    ArgChecker.notNull(ccy, "currency");
+    ArgChecker.notNull(g2Data, "G2++ data");
+    final MulticurveProviderInterface multicurves = g2Data.getMulticurveProvider();
+    final G2ppPiecewiseConstantParameters parameters = g2Data.getG2ppParameters();
+    final double[] decisionTime = decision.getDecisionTime();
+    final double[][] impactTime = decision.getImpactTime();
+    final int nbJump = decisionTime.length;
+    final double numeraireTime = decisionTime[nbJump - 1];
+    final double pDN = multicurves.getDiscountFactor(ccy, numeraireTime);
+    // Discount factor to numeraire date for rebasing.
+    final double[][] pDI = new double[nbJump][];
+    // Initial discount factors to each impact date.
+    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+      pDI[loopjump] = new double[impactTime[loopjump].length];
+      for (int i = 0; i < impactTime[loopjump].length; i++) {
+        pDI[loopjump][i] = multicurves.getDiscountFactor(ccy, impactTime[loopjump][i]) / pDN;
+      }
+    }
+    final double rhog2pp = parameters.getCorrelation();
+    final double[][][] h = MODEL.volatilityMaturityPart(parameters, numeraireTime, impactTime); // factor/jump/cf
+    final double[][][] gamma = new double[nbJump][2][2]; // jump/factor/factor
+    final double[][] cov = new double[2 * nbJump][2 * nbJump]; // factor 0 - factor 1
+    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+      gamma[loopjump] = MODEL.gamma(parameters, 0.0, decisionTime[loopjump]);
+      for (int j = loopjump; j < nbJump; j++) {
+        cov[j][loopjump] = gamma[loopjump][0][0];
+        cov[loopjump][j] = gamma[loopjump][0][0];
+        cov[nbJump + j][nbJump + loopjump] = gamma[loopjump][1][1];
+        cov[nbJump + loopjump][nbJump + j] = gamma[loopjump][1][1];
+        cov[j][nbJump + loopjump] = rhog2pp * gamma[loopjump][0][1];
+        cov[loopjump][nbJump + j] = rhog2pp * gamma[loopjump][0][1];
+        cov[nbJump + j][loopjump] = rhog2pp * gamma[loopjump][0][1];
+        cov[nbJump + loopjump][j] = rhog2pp * gamma[loopjump][0][1];
+      }
+    }
+    final double[][] tau2 = new double[nbJump][];
+    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+      tau2[loopjump] = new double[impactTime[loopjump].length];
+      for (int loopcf = 0; loopcf < impactTime[loopjump].length; loopcf++) {
+        final double alpha0 = Math.sqrt(gamma[loopjump][0][0]) * h[0][loopjump][loopcf];
+        final double alpha1 = Math.sqrt(gamma[loopjump][1][1]) * h[1][loopjump][loopcf];
+        tau2[loopjump][loopcf] = alpha0 * alpha0 + alpha1 * alpha1 + 2 * rhog2pp * gamma[loopjump][0][1] * h[0][loopjump][loopcf] * h[1][loopjump][loopcf];
+      }
+    }
+    final CholeskyDecompositionCommons cd = new CholeskyDecompositionCommons();
+    final CholeskyDecompositionResult cdr = cd.evaluate(new DoubleMatrix2D(cov));
+    final int[] jumpOrder = BrownianBridge.constructionOrder(nbJump);
+    final int[] bridgeOrder = new int[2 * nbJump];
+    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+      bridgeOrder[2 * loopjump] = jumpOrder[loopjump];
+      bridgeOrder[2 * loopjump + 1] = nbJump + jumpOrder[loopjump];
+    }
+    final double[][] covBridge = new double[2 * nbJump][2 * nbJump];
+    for (int i = 0; i < 2 * nbJump; i++) {
+      for (int j = 0; j < 2 * nbJump; j++) {
+        covBridge[i][j] = cov[bridgeOrder[i]][bridgeOrder[j]];
+      }
+    }
+    final CholeskyDecompositionResult cdrBridge = cd.evaluate(new DoubleMatrix2D(covBridge));
+    _currency = ccy;
+    _decisionTime = decisionTime.clone();
+    _impactTime = new double[nbJump][];
+    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+      _impactTime[loopjump] = impactTime[loopjump].clone();
+    }
+    _pDN = pDN;
+    _pDI = pDI;
+    _h = h;
+    _tau2 = tau2;
+    _covCD = cdr.getL().getData();
+    _bridgeOrder = bridgeOrder;
+    _bridgeCD = cdrBridge.getL().getData();
+    _discountingCurve = discountingCurve(multicurves, ccy);
+    _meanReversion = parameters.getMeanReversion().clone();
+    _volatility = new double[][] {parameters.getVolatility()[0].toDoubleArray(), parameters.getVolatility()[1].toDoubleArray() };
+    _volatilityTime = parameters.getVolatilityTime();
+    _correlation = rhog2pp;
+  }
+
+  /**
+   * Checks if the constants can be used for a decision schedule and G2++ data, i.e. if the schedule has the same decision and
+   * impact times, and if the data has the same G2++ parameters and the same discounting curve object. For a provider which does
+   * not give access to its curves, the discount factors at the numeraire and impact dates are compared instead.
+   * @param decision The decision schedule, not null.
+   * @param g2Data The G2++ data (curves and G2++ parameters), not null.
+   * @return True if the constants can be used for the schedule and the data.
+   */
+  public boolean isCompatible(final DecisionSchedule decision, final G2ppProviderInterface g2Data) {
+    ArgChecker.notNull(decision, "decision schedule");
+    ArgChecker.notNull(g2Data, "G2++ data");
+    if (!Arrays.equals(_decisionTime, decision.getDecisionTime()) || !Arrays.deepEquals(_impactTime, decision.getImpactTime())) {
+      return false;
+    }
+    final G2ppPiecewiseConstantParameters parameters = g2Data.getG2ppParameters();
+    if (Double.doubleToLongBits(_correlation) != Double.doubleToLongBits(parameters.getCorrelation()) ||
+        !Arrays.equals(_meanReversion, parameters.getMeanReversion()) || !Arrays.equals(_volatilityTime, parameters.getVolatilityTime()) ||
+        !Arrays.equals(_volatility[0], parameters.getVolatility()[0].toDoubleArray()) ||
+        !Arrays.equals(_volatility[1], parameters.getVolatility()[1].toDoubleArray())) {
+      return false;
+    }
+    final MulticurveProviderInterface multicurves = g2Data.getMulticurveProvider();
+    final YieldAndDiscountCurve curve = discountingCurve(multicurves, _currency);
+    if (_discountingCurve != null && curve != null) {
+      return curve == _discountingCurve;
+    }
+    // The curves are compared through the discount factors used, computed as in the constructor.
+    final double pDN = multicurves.getDiscountFactor(_currency, _decisionTime[_decisionTime.length - 1]);
+    if (Double.doubleToLongBits(_pDN) != Double.doubleToLongBits(pDN)) {
+      return false;
+    }
+    for (int loopjump = 0; loopjump < _impactTime.length; loopjump++) {
+      for (int i = 0; i < _impactTime[loopjump].length; i++) {
+        if (Double.doubleToLongBits(_pDI[loopjump][i]) != Double.doubleToLongBits(multicurves.getDiscountFactor(_currency, _impactTime[loopjump][i]) / pDN)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the discounting curve of a currency, if the provider gives access to its curves.
+   * @param multicurves The multi-curve provider.
+   * @param ccy The currency.
+   * @return The curve, null if the provider does not give access to its curves.
+   */
+  private static YieldAndDiscountCurve discountingCurve(final MulticurveProviderInterface multicurves, final Currency ccy) {
+    if (multicurves instanceof MulticurveProviderDiscount) {
+      return ((MulticurveProviderDiscount) multicurves).getCurve(ccy);
+    }
+    return null;
+  }
+
+  /**
+   * Gets the currency.
+   * @return The currency.
+   */
+  public Currency getCurrency() {
+    return _currency;
+  }
+
+  /**
+   * Gets the number of decision dates.
+   * @return The number of decision dates.
+   */
+  public int getNumberOfJumps() {
+    return _decisionTime.length;
+  }
+
+  /**
+   * Gets the discount factor to the numeraire date.
+   * @return The discount factor.
+   */
+  public double getNumeraireDiscountFactor() {
+    return _pDN;
+  }
+
+  /**
+   * Creates the buffer of the discount factors of the blocks of paths.
+   * @param maxPath The maximum number of paths in a block.
+   * @return The buffer (jump/cf/path).
+   */
+  double[][][] discountFactorBuffer(final int maxPath) {
+    final double[][][] pD = new double[_pDI.length][][];
+    for (int loopjump = 0; loopjump < _pDI.length; loopjump++) {
+      pD[loopjump] = new double[_pDI[loopjump].length][maxPath];
+    }
+    return pD;
+  }
+
+  /**
+   * Simulates the discount factors of a block of paths: the factors at the decision dates are correlated by the Cholesky
+   * factor, then the discount factors are computed. The layout is struct-of-arrays: the loops on the paths are the inner
+   * loops, on contiguous primitive rows, and no object is allocated.
+   * @param x The independent normal variables (jump0+jump1/path), or (bridge step/path) with the Brownian bridge.
+   * @param y The buffer of the correlated normal variables (jump0+jump1/path).
+   * @param nbPath The number of paths, the first columns of x and y.
+   * @param brownianBridge Whether the factors are built in the Brownian bridge order instead of the jump order.
+   * @param pD The buffer of the discount factors (jump/cf/path), see {@link #discountFactorBuffer}, filled in the first nbPath columns.
+   */
+  void pathDiscountFactors(final double[][] x, final double[][] y, final int nbPath, final boolean brownianBridge, final double[][][] pD) {
+    final double[][] covCD = brownianBridge ? _bridgeCD : _covCD;
+    final int nbFactorJump = covCD.length;
+    for (int i = 0; i < nbFactorJump; i++) {
+      final double[] yi = y[brownianBridge ? _bridgeOrder[i] : i];
+      Arrays.fill(yi, 0, nbPath, 0.0);
+      final double[] covCDi = covCD[i];
+      for (int j = 0; j <= i; j++) {
+        final double l = covCDi[j];
+        final double[] xj = x[j];
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          yi[looppath] += xj[looppath] * l;
+        }
+      }
+    }
+    final int nbJump = nbFactorJump / 2;
+    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+      final int nbCF = _h[0][loopjump].length;
+      final double[] y0 = y[loopjump];
+      final double[] y1 = y[nbJump + loopjump];
+      for (int loopcf = 0; loopcf < nbCF; loopcf++) {
+        final double pDI = _pDI[loopjump][loopcf];
+        final double h0 = _h[0][loopjump][loopcf];
+        final double h1 = _h[1][loopjump][loopcf];
+        final double halfTau2 = 0.5 * _tau2[loopjump][loopcf];
+        final double[] pDjc = pD[loopjump][loopcf];
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          pDjc[looppath] = pDI * Math.exp(-h0 * y0[looppath] - h1 * y1[looppath] - halfTau2);
+        }
+      }
+    }
+  }
+
+}
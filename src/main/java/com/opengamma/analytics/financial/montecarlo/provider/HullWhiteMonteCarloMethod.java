@@ -6,18 +6,27 @@
 package com.opengamma.analytics.financial.montecarlo.provider;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.model.interestrate.HullWhiteOneFactorPiecewiseConstantInterestRateModel;
 import com.opengamma.analytics.financial.model.interestrate.definition.HullWhiteOneFactorPiecewiseConstantParameters;
 import com.opengamma.analytics.financial.montecarlo.DecisionSchedule;
+import com.opengamma.analytics.financial.montecarlo.LongstaffSchwartzDataBundle;
+import com.opengamma.analytics.financial.montecarlo.LongstaffSchwartzRegression;
 import com.opengamma.analytics.financial.montecarlo.MonteCarloDiscountFactorCalculator;
 import com.opengamma.analytics.financial.montecarlo.MonteCarloDiscountFactorDataBundle;
 import com.opengamma.analytics.financial.montecarlo.MonteCarloDiscountFactorDerivativeCalculator;
 import com.opengamma.analytics.financial.montecarlo.MonteCarloDiscountFactorDerivativeDataBundle;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloControlVariate;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloConvergence;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloDiscountFactorExerciseCalculator;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloResult;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloVarianceReduction;
 import com.opengamma.analytics.financial.provider.description.interestrate.HullWhiteOneFactorProviderInterface;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurveSensitivity;
@@ -25,14 +34,29 @@ import com.opengamma.analytics.financial.provider.sensitivity.multicurve.Multipl
 import com.opengamma.analytics.math.linearalgebra.CholeskyDecompositionCommons;
 import com.opengamma.analytics.math.linearalgebra.CholeskyDecompositionResult;
 import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.math.random.BrownianBridge;
 import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.math.random.RandomNumberStreams;
+import com.opengamma.analytics.util.ForkJoinUtils;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.tuple.DoublesPair;
 
 /**
  * Monte Carlo pricing method in the hull-White one factor model.
  * The Monte Carlo is on the solution of the discount factor (not on the equation of the short rate).
+ * <p>
+ * The paths are simulated in blocks. When the method is constructed with a single random number generator, the blocks are
+ * run sequentially and draw from that generator in turn. When it is constructed with {@link RandomNumberStreams}, each block
+ * draws from the stream of its index and the blocks can be run in parallel on a {@link ForkJoinPool}; the results then
+ * depend only on the streams, not on the pool or the number of threads.
+ * <p>
+ * With streams, each path uses one vector of the stream, with one dimension for each decision date with a non-zero
+ * volatility. The streams can be quasi-random, like {@link com.opengamma.analytics.math.random.SobolRandomNumberStreams}
+ * with a stream length of {@link #BLOCK_SIZE}. As the model factor is a Brownian motion in the time of its cumulative
+ * variance, the paths can be built by a {@link BrownianBridge}, which concentrates the variance of the paths on the first
+ * dimensions of a quasi-random sequence.
  */
 public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
 
@@ -52,6 +76,10 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
    * The calculator of price and derivatives from discount factors and reference amounts.
    */
   private static final MonteCarloDiscountFactorDerivativeCalculator MCDC = MonteCarloDiscountFactorDerivativeCalculator.getInstance();
+  /**
+   * The calculator of the exercise values and regression variables from discount factors and reference amounts.
+   */
+  private static final MonteCarloDiscountFactorExerciseCalculator MCEC = MonteCarloDiscountFactorExerciseCalculator.getInstance();
   /**
    * The Hull-White one factor model.
    */
@@ -59,14 +87,79 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
   /**
    * The number of paths in one block.
    */
-  private static final int BLOCK_SIZE = 1000;
+  public static final int BLOCK_SIZE = 1000;
+
+  /**
+   * The random number streams, one per block, null when the blocks draw from the shared generator.
+   */
+  private final RandomNumberStreams _streams;
+  /**
+   * The pool on which the blocks are computed, null for a sequential computation.
+   */
+  private final ForkJoinPool _pool;
+  /**
+   * Whether the paths are built by a Brownian bridge, only used with streams.
+   */
+  private final boolean _brownianBridge;
 
   /**
+   * Constructor with a random number generator shared by all the blocks. The blocks are run sequentially.
    * @param numberGenerator The random number generator.
    * @param nbPath The number of paths.
    */
   public HullWhiteMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath) {
-    super(numberGenerator, nbPath);
+    this(numberGenerator, nbPath, MonteCarloVarianceReduction.NONE);
+  }
+
+  /**
+   * Constructor with a random number generator shared by all the blocks and a variance reduction. The blocks are run sequentially.
+   * @param numberGenerator The random number generator.
+   * @param nbPath The number of paths.
+   * @param varianceReduction The variance reduction applied to the normal variables of each block, not null.
+   */
+  public HullWhiteMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final MonteCarloVarianceReduction varianceReduction) {
+    super(numberGenerator, nbPath, varianceReduction);
+    _streams = null;
+    _pool = null;
+    _brownianBridge = false;
+  }
+
+  /**
+   * Constructor with one random number stream per block. The shared number generator of the method is null.
+   * @param streams The random number streams, the block of index i uses the stream i, not null.
+   * @param nbPath The number of paths.
+   * @param pool The pool on which the blocks are computed, null for a sequential computation.
+   */
+  public HullWhiteMonteCarloMethod(final RandomNumberStreams streams, final int nbPath, final ForkJoinPool pool) {
+    this(streams, nbPath, pool, false);
+  }
+
+  /**
+   * Constructor with one random number stream per block. The shared number generator of the method is null.
+   * @param streams The random number streams, the block of index i uses the stream i, not null.
+   * @param nbPath The number of paths.
+   * @param pool The pool on which the blocks are computed, null for a sequential computation.
+   * @param brownianBridge Whether the paths are built by a Brownian bridge instead of the Cholesky decomposition.
+   */
+  public HullWhiteMonteCarloMethod(final RandomNumberStreams streams, final int nbPath, final ForkJoinPool pool, final boolean brownianBridge) {
+    this(streams, nbPath, pool, brownianBridge, MonteCarloVarianceReduction.NONE);
+  }
+
+  /**
+   * Constructor with one random number stream per block and a variance reduction. The shared number generator of the method is null.
+   * @param streams The random number streams, the block of index i uses the stream i, not null.
+   * @param nbPath The number of paths.
+   * @param pool The pool on which the blocks are computed, null for a sequential computation.
+   * @param brownianBridge Whether the paths are built by a Brownian bridge instead of the Cholesky decomposition.
+   * @param varianceReduction The variance reduction applied to the normal variables of each block, not null.
+   */
+  public HullWhiteMonteCarloMethod(final RandomNumberStreams streams, final int nbPath, final ForkJoinPool pool, final boolean brownianBridge,
+      final MonteCarloVarianceReduction varianceReduction) {
+    super(null, nbPath, varianceReduction);
+    ArgChecker.notNull(streams, "streams");
+    _streams = streams;
+    _pool = pool;
+    _brownianBridge = brownianBridge;
   }
 
   /**
@@ -79,85 +172,150 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
    * @return The present value.
    */
   public MultiCurrencyAmount presentValue(final InstrumentDerivative instrument, final Currency ccy, final HullWhiteOneFactorProviderInterface hwData) {
-    // TODO: remove currency and dsc curve name (should be available from the instrument)
+    return presentValue(instrument, ccy, hwData, MonteCarloConvergence.ALL_PATHS).getPresentValue();
+  }
+
+  /**
+   * Computes the present value in the Hull-White one factor model by Monte-Carlo, with its standard error, until the
+   * convergence criteria are met.
+   * <p>
+   * The blocks of BLOCK_SIZE paths are added by batches, up to the number of paths of the method; with a pool, the blocks
+   * of a batch are computed in parallel. With streams, the block of index i uses the stream i whatever the batches, so that
+   * the estimate on a given number of paths does not depend on the criteria.
+   * @param instrument The swaption.
+   * @param ccy The currency.
+   * @param hwData The Hull-White data (curves and Hull-White parameters).
+   * @param convergence The convergence criteria.
+   * @return The present value, its standard error, the number of paths used and the wall time.
+   */
+  public MonteCarloResult presentValue(final InstrumentDerivative instrument, final Currency ccy, final HullWhiteOneFactorProviderInterface hwData,
+      final MonteCarloConvergence convergence) {
     final MulticurveProviderInterface multicurves = hwData.getMulticurveProvider();
-    final HullWhiteOneFactorPiecewiseConstantParameters parameters = hwData.getHullWhiteParameters();
     final DecisionSchedule decision = instrument.accept(DC, multicurves);
-    final double[] decisionTime = decision.getDecisionTime();
-    final double[][] impactTime = decision.getImpactTime();
-    final int nbJump = decisionTime.length;
-    final double numeraireTime = decisionTime[nbJump - 1];
-    final double pDN = multicurves.getDiscountFactor(ccy, numeraireTime);
-    // Discount factor to numeraire date for rebasing.
-    final double[][] pDI = new double[nbJump][];
-    // Initial discount factors to each impact date.
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      pDI[loopjump] = new double[impactTime[loopjump].length];
-      for (int i = 0; i < impactTime[loopjump].length; i++) {
-        pDI[loopjump][i] = multicurves.getDiscountFactor(ccy, impactTime[loopjump][i]) / pDN;
-      }
-    }
-    final double[] gamma = new double[nbJump];
-    final double[][] cov = new double[nbJump][nbJump];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      gamma[loopjump] = MODEL.beta(parameters, 0.0, decisionTime[loopjump]);
-      gamma[loopjump] = gamma[loopjump] * gamma[loopjump];
-      cov[loopjump][loopjump] = gamma[loopjump];
-      for (int j = loopjump + 1; j < nbJump; j++) {
-        cov[j][loopjump] = gamma[loopjump];
-        cov[loopjump][j] = gamma[loopjump];
-      }
-    }
-    final double[][] h = MODEL.volatilityMaturityPart(parameters, numeraireTime, impactTime); // jump/cf
-    final double[][] h2 = new double[nbJump][];
-    for (int i = 0; i < nbJump; i++) {
-      h2[i] = new double[h[i].length];
-      for (int j = 0; j < h[i].length; j++) {
-        h2[i][j] = h[i][j] * h[i][j] / 2;
-      }
-    }
-    // To remove the 0 (fixed coupons)
-    int nbZero = 0;
-    while (cov[nbZero][nbZero] < 1.0E-12) {
-      nbZero++;
-    }
-    final double[][] cov2 = new double[nbJump - nbZero][nbJump - nbZero];
-    for (int loopjump = 0; loopjump < nbJump - nbZero; loopjump++) {
-      for (int loopjump2 = 0; loopjump2 < nbJump - nbZero; loopjump2++) {
-        cov2[loopjump][loopjump2] = cov[loopjump + nbZero][loopjump2 + nbZero];
-      }
-    }
-    final CholeskyDecompositionCommons cd = new CholeskyDecompositionCommons();
-    final CholeskyDecompositionResult cdr2 = cd.evaluate(new DoubleMatrix2D(cov2));
-    final double[][] covCD2 = cdr2.getL().toArray();
-    final double[][] covCD = new double[nbJump][nbJump];
-    for (int loopjump = 0; loopjump < nbJump - nbZero; loopjump++) {
-      for (int loopjump2 = 0; loopjump2 < nbJump - nbZero; loopjump2++) {
-        covCD[loopjump + nbZero][loopjump2 + nbZero] = covCD2[loopjump][loopjump2];
-      }
-    }
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
+    final PathConstants constants = new PathConstants(decision, ccy, hwData);
+    final int nbJump = constants._nbJump;
+    final double[][] impactAmount = decision.getImpactAmount();
+    // The numeraire is the discount factor at the last decision date.
+    return computeByBatch(ccy, constants._pDN, BLOCK_SIZE, convergence, (startBlock, endBlock, nbPath2, blockSum) ->
+      ForkJoinUtils.forEachIndex(_pool, endBlock - startBlock, () -> new BlockBuffers(nbJump, nbJump - constants._nbZero, nbPath2[0]), (loopblock, buffers) -> {
+        final int block = startBlock + loopblock;
+        final double[][][] pD = pathDiscountFactors(constants, block, nbPath2[block], buffers);
+        blockSum[loopblock] = instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, nbPath2[block], impactAmount)) * nbPath2[block];
+      }));
+  }
+
+  /**
+   * Computes the present value in the Hull-White one factor model by Monte-Carlo with a control variate.
+   * <p>
+   * The control is an instrument with a known present value, for example a European swaption priced by the explicit formula
+   * of {@link com.opengamma.analytics.financial.interestrate.swaption.provider.SwaptionPhysicalFixedIborHullWhiteMethod}. For
+   * each path, one vector of independent normal variables is drawn, with the dimension of the larger of the two simulations,
+   * and both the instrument and the control are simulated from it, each on its first variables. The present value of the
+   * instrument is corrected by the regression of the path values of the instrument on the path values of the control. With
+   * the Cholesky decomposition, the variable i is the increment of the Brownian motion between the decision dates i-1 and i
+   * of each simulation, so the correlation is high when the decision dates of the control are the first decision dates of
+   * the instrument; with the Brownian bridge, the first variable drives the last decision date of each simulation.
+   * @param instrument The instrument.
+   * @param control The control instrument.
+   * @param controlPresentValue The known present value of the control.
+   * @param ccy The currency.
+   * @param hwData The Hull-White data (curves and Hull-White parameters).
+   * @return The present value.
+   */
+  public MultiCurrencyAmount presentValueControlVariate(final InstrumentDerivative instrument, final InstrumentDerivative control, final double controlPresentValue,
+      final Currency ccy, final HullWhiteOneFactorProviderInterface hwData) {
+    ArgChecker.notNull(control, "control");
+    ArgChecker.isTrue(_streams != null, "the control variate requires the random number streams, to simulate the instrument and the control on the same variables");
+    ArgChecker.isTrue(getNbPath() > 1, "the control variate requires at least two paths");
+    final MulticurveProviderInterface multicurves = hwData.getMulticurveProvider();
+    final DecisionSchedule decision = instrument.accept(DC, multicurves);
+    final DecisionSchedule decisionControl = control.accept(DC, multicurves);
+    final PathConstants constants = new PathConstants(decision, ccy, hwData);
+    final PathConstants constantsControl = new PathConstants(decisionControl, ccy, hwData);
+    final int[] nbPath2 = blockSizes(getNbPath(), BLOCK_SIZE);
+    final int nbBlock = nbPath2.length;
+    final double[] pvPath = new double[getNbPath()];
+    final double[] pvControlPath = new double[getNbPath()];
+    final int nbJumpMax = Math.max(constants._nbJump, constantsControl._nbJump);
+    final int nbFactorMax = Math.max(constants._nbJump - constants._nbZero, constantsControl._nbJump - constantsControl._nbZero);
+    ForkJoinUtils.forEachIndex(_pool, nbBlock, () -> new BlockBuffers(nbJumpMax, nbFactorMax, nbPath2[0]), (loopblock, buffers) -> {
+      final int nbPath = nbPath2[loopblock];
+      final int firstPath = loopblock * BLOCK_SIZE;
+      independentNormalArray(loopblock, nbFactorMax, nbPath, buffers);
+      pathValues(instrument, decision, constants, nbPath, buffers, pvPath, firstPath);
+      pathValues(control, decisionControl, constantsControl, nbPath, buffers, pvControlPath, firstPath);
+    });
+    final double[] weight = new double[getNbPath()];
+    Arrays.fill(weight, 1.0);
+    return MultiCurrencyAmount.of(ccy, MonteCarloControlVariate.estimate(pvPath, pvControlPath, weight, controlPresentValue));
+  }
+
+  /**
+   * Computes the present value of an instrument on each path of a block, from the independent variables already drawn.
+   * @param instrument The instrument.
+   * @param decision The decision schedule of the instrument.
+   * @param constants The constants of the simulation of the instrument.
+   * @param nbPath The number of paths in the block.
+   * @param buffers The buffers of the block, with the independent variables.
+   * @param values The present values by path, filled from the first path of the block.
+   * @param firstPath The index of the first path of the block.
+   */
+  private void pathValues(final InstrumentDerivative instrument, final DecisionSchedule decision, final PathConstants constants, final int nbPath,
+      final BlockBuffers buffers, final double[] values, final int firstPath) {
+    final double[][] y = correlatedStreamArray(constants._covCD, constants._nbZero, constants._bridge, nbPath, buffers);
+    final double[][][] pD = pathGeneratorDiscount(constants._pDI, y, nbPath, constants._h, constants._h2, constants._gamma);
+    final double[] pathValues = MCC.pathValues(instrument, new MonteCarloDiscountFactorDataBundle(pD, nbPath, decision.getImpactAmount()));
+    for (int looppath = 0; looppath < nbPath; looppath++) {
+      values[firstPath + looppath] = pathValues[looppath] * constants._pDN;
     }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
+  }
+
+  /**
+   * Computes the present value of an instrument with early exercise in the Hull-White one factor model by the least-squares
+   * Monte Carlo method of Longstaff and Schwartz.
+   * <p>
+   * The exercise strategy is first estimated by regression on a set of regression paths, then the instrument is priced with
+   * that strategy on the pricing paths of the method, independent of the regression paths. Both sets are simulated in
+   * blocks as in {@link #presentValue}. With streams, the regression blocks use the first streams and the pricing blocks the
+   * following ones.
+   * @param instrument The instrument, for example a Bermudan swaption.
+   * @param ccy The currency.
+   * @param hwData The Hull-White data (curves and Hull-White parameters).
+   * @param regression The regression of the continuation values.
+   * @param nbPathRegression The number of regression paths.
+   * @return The present value.
+   */
+  public MultiCurrencyAmount presentValueLongstaffSchwartz(final InstrumentDerivative instrument, final Currency ccy, final HullWhiteOneFactorProviderInterface hwData,
+      final LongstaffSchwartzRegression regression, final int nbPathRegression) {
+    ArgChecker.notNull(regression, "regression");
+    ArgChecker.isTrue(nbPathRegression > 0, "number of regression paths should be positive");
+    final MulticurveProviderInterface multicurves = hwData.getMulticurveProvider();
+    final DecisionSchedule decision = instrument.accept(DC, multicurves);
+    final PathConstants constants = new PathConstants(decision, ccy, hwData);
+    final int nbJump = constants._nbJump;
     final double[][] impactAmount = decision.getImpactAmount();
+    // Regression pass
+    final int[] nbPathRegression2 = blockSizes(nbPathRegression, BLOCK_SIZE);
+    final int nbBlockRegression = nbPathRegression2.length;
+    final LongstaffSchwartzDataBundle[] regressionBlock = new LongstaffSchwartzDataBundle[nbBlockRegression];
+    ForkJoinUtils.forEachIndex(_pool, nbBlockRegression, () -> new BlockBuffers(nbJump, nbJump - constants._nbZero, nbPathRegression2[0]), (loopblock, buffers) -> {
+      final double[][][] pD = pathDiscountFactors(constants, loopblock, nbPathRegression2[loopblock], buffers);
+      regressionBlock[loopblock] = instrument.accept(MCEC, new MonteCarloDiscountFactorDataBundle(pD, nbPathRegression2[loopblock], impactAmount));
+    });
+    final double[][] coefficients = regression.regress(LongstaffSchwartzDataBundle.concatenate(Arrays.asList(regressionBlock)));
+    // Pricing pass
+    final int[] nbPath2 = blockSizes(getNbPath(), BLOCK_SIZE);
+    final int nbBlock = nbPath2.length;
+    final double[] pvBlock = new double[nbBlock];
+    ForkJoinUtils.forEachIndex(_pool, nbBlock, () -> new BlockBuffers(nbJump, nbJump - constants._nbZero, nbPath2[0]), (loopblock, buffers) -> {
+      final double[][][] pD = pathDiscountFactors(constants, nbBlockRegression + loopblock, nbPath2[loopblock], buffers);
+      pvBlock[loopblock] = regression.price(instrument.accept(MCEC, new MonteCarloDiscountFactorDataBundle(pD, nbPath2[loopblock], impactAmount)), coefficients);
+    });
     double pv = 0;
     for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] x = getNormalArray(nbJump, nbPath2[loopblock]);
-      final double[][] y = new double[nbJump][nbPath2[loopblock]]; // jump/path
-      for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-        for (int i = 0; i < nbJump; i++) {
-          for (int j = 0; j < nbJump; j++) {
-            y[i][looppath] += x[j][looppath] * covCD[i][j];
-          }
-        }
-      }
-      final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, h2, gamma);
-      pv += instrument.accept(MCC, new MonteCarloDiscountFactorDataBundle(pD, impactAmount)) * nbPath2[loopblock];
+      pv += pvBlock[loopblock];
     }
-    pv *= pDN / getNbPath(); // Multiply by the numeraire.
+    pv *= constants._pDN / getNbPath(); // Multiply by the numeraire.
     return MultiCurrencyAmount.of(ccy, pv);
   }
 
@@ -209,10 +367,7 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
       }
     }
     // To remove the 0 (fixed coupons)
-    int nbZero = 0;
-    while (cov[nbZero][nbZero] < 1.0E-12) {
-      nbZero++;
-    }
+    final int nbZero = nbZeroVolatility(cov);
     final double[][] cov2 = new double[nbJump - nbZero][nbJump - nbZero];
     for (int loopjump = 0; loopjump < nbJump - nbZero; loopjump++) {
       for (int loopjump2 = 0; loopjump2 < nbJump - nbZero; loopjump2++) {
@@ -228,6 +383,7 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
         covCD[loopjump + nbZero][loopjump2 + nbZero] = covCD2[loopjump][loopjump2];
       }
     }
+    final BrownianBridge bridge = brownianBridge(gamma, nbZero);
     final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
     final int[] nbPath2 = new int[nbBlock];
     for (int i = 0; i < nbBlock - 1; i++) {
@@ -235,7 +391,6 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
     }
     nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
     final double[][] impactAmount = decision.getImpactAmount();
-    double pv = 0;
     final double[] pvBlock = new double[nbBlock];
     // Backward sweep (init)
     final double pvBar = 1.0;
@@ -252,24 +407,19 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
     for (int loopjump = 0; loopjump < nbJump; loopjump++) {
       pDIBar[loopjump] = new double[impactAmount[loopjump].length];
     }
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] x = getNormalArray(nbJump, nbPath2[loopblock]);
-      final double[][] y = new double[nbJump][nbPath2[loopblock]]; // jump/path
-      for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-        for (int i = 0; i < nbJump; i++) {
-          for (int j = 0; j < nbJump; j++) {
-            y[i][looppath] += x[j][looppath] * covCD[i][j];
-          }
-        }
-      }
-      final Double[][][] pD = pathGeneratorDiscount(pDI, y, h, h2, gamma);
-      final MonteCarloDiscountFactorDerivativeDataBundle mcdDB = new MonteCarloDiscountFactorDerivativeDataBundle(pD, impactAmount);
+    // The block adjoints are stored and summed in the block order, so that the result does not depend on the order of execution.
+    final double[][][] impactAmountBarBlock = new double[nbBlock][nbJump][];
+    final double[][][] pDIBarBlock = new double[nbBlock][][];
+    ForkJoinUtils.forEachIndex(_pool, nbBlock, () -> new BlockBuffers(nbJump, nbJump - nbZero, nbPath2[0]), (loopblock, buffers) -> {
+      final double[][] y = correlatedNormalArray(loopblock, covCD, nbZero, bridge, nbPath2[loopblock], buffers);
+      final double[][][] pD = pathGeneratorDiscount(pDI, y, nbPath2[loopblock], h, h2, gamma);
+      final MonteCarloDiscountFactorDerivativeDataBundle mcdDB = new MonteCarloDiscountFactorDerivativeDataBundle(pD, nbPath2[loopblock], impactAmount);
       pvBlock[loopblock] = instrument.accept(MCDC, mcdDB) * nbPath2[loopblock];
-      pv += pvBlock[loopblock];
       // Backward sweep (in block loop)
       for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+        impactAmountBarBlock[loopblock][loopjump] = new double[impactAmount[loopjump].length];
         for (int loopimp = 0; loopimp < impactAmount[loopjump].length; loopimp++) {
-          impactAmountBar[loopjump][loopimp] += mcdDB.getImpactAmountDerivative()[loopjump][loopimp] * nbPath2[loopblock] * pvBlockBar[loopblock];
+          impactAmountBarBlock[loopblock][loopjump][loopimp] = mcdDB.getImpactAmountDerivative()[loopjump][loopimp] * nbPath2[loopblock] * pvBlockBar[loopblock];
         }
       }
       final Double[][][] pDBar = new Double[nbPath2[loopblock]][nbJump][];
@@ -281,10 +431,15 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
           }
         }
       }
-      final double[][] pDIBarTemp = pathGeneratorDiscountAdjointIDF(pDI, y, h, h2, gamma, pDBar);
+      pDIBarBlock[loopblock] = pathGeneratorDiscountAdjointIDF(pDI, y, nbPath2[loopblock], h, h2, gamma, pDBar);
+    });
+    double pv = 0;
+    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
+      pv += pvBlock[loopblock];
       for (int loopjump = 0; loopjump < nbJump; loopjump++) {
         for (int loopimp = 0; loopimp < impactAmount[loopjump].length; loopimp++) {
-          pDIBar[loopjump][loopimp] += pDIBarTemp[loopjump][loopimp];
+          impactAmountBar[loopjump][loopimp] += impactAmountBarBlock[loopblock][loopjump][loopimp];
+          pDIBar[loopjump][loopimp] += pDIBarBlock[loopblock][loopjump][loopimp];
         }
       }
     }
@@ -321,43 +476,162 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
   }
 
   /**
-   * Gets a 2D-array of independent normally distributed variables.
-   * @param nbJump The number of jumps.
-   * @param nbPath The number of paths.
-   * @return The array of variables.
+   * Simulates the discount factors of a block.
+   * @param constants The constants of the simulation.
+   * @param block The block index.
+   * @param nbPath The number of paths in the block.
+   * @param buffers The buffers of the block.
+   * @return The discount factors (jump/cf/path).
    */
-  private double[][] getNormalArray(final int nbJump, final int nbPath) {
-    final double[][] result = new double[nbJump][nbPath];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      result[loopjump] = getNumberGenerator().getVector(nbPath);
+  private double[][][] pathDiscountFactors(final PathConstants constants, final int block, final int nbPath, final BlockBuffers buffers) {
+    final double[][] y = correlatedNormalArray(block, constants._covCD, constants._nbZero, constants._bridge, nbPath, buffers);
+    return pathGeneratorDiscount(constants._pDI, y, nbPath, constants._h, constants._h2, constants._gamma);
+  }
+
+  /**
+   * Counts the first decision dates with zero volatility (fixed coupons).
+   * @param cov The covariance matrix.
+   * @return The number of dates.
+   */
+  private static int nbZeroVolatility(final double[][] cov) {
+    int nbZero = 0;
+    while (cov[nbZero][nbZero] < 1.0E-12) {
+      nbZero++;
     }
-    return result;
+    return nbZero;
+  }
+
+  /**
+   * Creates the Brownian bridge on the cumulative variances of the decision dates with a non-zero volatility, if required.
+   * @param gamma The cumulative variances.
+   * @param nbZero The number of decision dates with zero volatility.
+   * @return The bridge, null if the paths are built by the Cholesky decomposition.
+   */
+  private BrownianBridge brownianBridge(final double[] gamma, final int nbZero) {
+    if (!_brownianBridge || _streams == null || nbZero == gamma.length) {
+      return null;
+    }
+    final double[] times = new double[gamma.length - nbZero];
+    System.arraycopy(gamma, nbZero, times, 0, times.length);
+    return new BrownianBridge(times);
+  }
+
+  /**
+   * Gets the correlated normally distributed variables of a block.
+   * @param block The block index.
+   * @param covCD The Cholesky decomposition of the covariance matrix.
+   * @param nbZero The number of decision dates with zero volatility.
+   * @param bridge The Brownian bridge, null if the paths are built by the Cholesky decomposition.
+   * @param nbPath The number of paths in the block.
+   * @param buffers The buffers of the block.
+   * @return The variables (jump/path), in the first nbPath columns of the buffer y.
+   */
+  private double[][] correlatedNormalArray(final int block, final double[][] covCD, final int nbZero, final BrownianBridge bridge, final int nbPath,
+      final BlockBuffers buffers) {
+    final int nbJump = covCD.length;
+    if (_streams == null) {
+      final double[][] y = buffers._y; // jump/path
+      final double[][] x = buffers._x;
+      final MonteCarloVarianceReduction varianceReduction = getVarianceReduction();
+      final int nbDraw = varianceReduction.getNumberOfDraws(nbPath);
+      getNumberGenerator().fill(x, nbDraw); // One vector of the shared generator by jump.
+      varianceReduction.apply(x, nbJump, nbPath);
+      for (int looppath = 0; looppath < nbPath; looppath++) {
+        for (int i = 0; i < nbJump; i++) {
+          double yi = 0.0;
+          for (int j = 0; j < nbJump; j++) {
+            yi += x[j][looppath] * covCD[i][j];
+          }
+          y[i][looppath] = yi;
+        }
+      }
+      return y;
+    }
+    // One vector of the stream by path, with one dimension by decision date with non-zero volatility.
+    independentNormalArray(block, nbJump - nbZero, nbPath, buffers);
+    return correlatedStreamArray(covCD, nbZero, bridge, nbPath, buffers);
+  }
+
+  /**
+   * Draws the independent normally distributed variables of a block from its stream, one vector by path, and applies the
+   * variance reduction.
+   * @param block The block index.
+   * @param nbFactor The dimension of the vectors.
+   * @param nbPath The number of paths in the block.
+   * @param buffers The buffers of the block.
+   */
+  private void independentNormalArray(final int block, final int nbFactor, final int nbPath, final BlockBuffers buffers) {
+    pathNormals(_streams.getStream(block), nbFactor, nbPath, buffers._x, buffers._z);
+  }
+
+  /**
+   * Gets the correlated normally distributed variables of a block from the independent variables drawn from the stream. The
+   * date i with non-zero volatility uses the first i+1 independent variables; the rows of the dates with zero volatility are 0.
+   * @param covCD The Cholesky decomposition of the covariance matrix.
+   * @param nbZero The number of decision dates with zero volatility.
+   * @param bridge The Brownian bridge, null if the paths are built by the Cholesky decomposition.
+   * @param nbPath The number of paths in the block.
+   * @param buffers The buffers of the block, with the independent variables.
+   * @return The variables (jump/path), in the first rows and columns of the buffer y.
+   */
+  private static double[][] correlatedStreamArray(final double[][] covCD, final int nbZero, final BrownianBridge bridge, final int nbPath,
+      final BlockBuffers buffers) {
+    final int nbJump = covCD.length;
+    final int nbFactor = nbJump - nbZero;
+    final double[][] y = buffers._y; // jump/path
+    final double[][] x = buffers._x;
+    final double[] z = buffers._z;
+    final double[] w = buffers._w;
+    for (int i = 0; i < nbZero; i++) {
+      Arrays.fill(y[i], 0, nbPath, 0.0);
+    }
+    for (int looppath = 0; looppath < nbPath; looppath++) {
+      for (int i = 0; i < nbFactor; i++) {
+        z[i] = x[i][looppath];
+      }
+      if (bridge != null) {
+        bridge.path(z, w);
+        for (int i = 0; i < nbFactor; i++) {
+          y[nbZero + i][looppath] = w[i];
+        }
+      } else {
+        for (int i = nbZero; i < nbJump; i++) {
+          double yi = 0.0;
+          for (int j = nbZero; j <= i; j++) {
+            yi += z[j - nbZero] * covCD[i][j];
+          }
+          y[i][looppath] = yi;
+        }
+      }
+    }
+    return y;
   }
 
   /**
    * Construct the discount factors on the simulated paths from the random variables and the model constants.
    * @param initDiscountFactor The initial discount factors.
-   * @param y The correlated random variables. jump/path
+   * @param y The correlated random variables. jump/path, the rows of the decision dates first.
+   * @param nbPath The number of paths, the first columns of y.
    * @param h The H parameters. jump/cf
    * @param h2 The H^2 parameters.
    * @param gamma The gamma parameters.
-   * @return The discount factor paths (path/jump/cf).
+   * @return The discount factors (jump/cf/path), struct-of-arrays with the paths in the inner primitive arrays.
    */
-  private Double[][][] pathGeneratorDiscount(final double[][] initDiscountFactor, final double[][] y, final double[][] h, final double[][] h2, final double[] gamma) {
-    final int nbJump = y.length;
-    final int nbPath = y[0].length;
-    final Double[][][] pD = new Double[nbPath][nbJump][];
-    double[] h2gamma;
+  private double[][][] pathGeneratorDiscount(final double[][] initDiscountFactor, final double[][] y, final int nbPath, final double[][] h, final double[][] h2,
+      final double[] gamma) {
+    final int nbJump = h.length;
+    final double[][][] pD = new double[nbJump][][];
     for (int loopjump = 0; loopjump < nbJump; loopjump++) {
       final int nbCF = h[loopjump].length;
-      h2gamma = new double[nbCF];
+      final double[] yj = y[loopjump];
+      pD[loopjump] = new double[nbCF][nbPath];
       for (int loopcf = 0; loopcf < nbCF; loopcf++) {
-        h2gamma[loopcf] = h2[loopjump][loopcf] * gamma[loopjump];
-      }
-      for (int looppath = 0; looppath < nbPath; looppath++) {
-        pD[looppath][loopjump] = new Double[nbCF];
-        for (int loopcf = 0; loopcf < nbCF; loopcf++) {
-          pD[looppath][loopjump][loopcf] = initDiscountFactor[loopjump][loopcf] * Math.exp(-h[loopjump][loopcf] * y[loopjump][looppath] - h2gamma[loopcf]);
+        final double pDI = initDiscountFactor[loopjump][loopcf];
+        final double hjc = h[loopjump][loopcf];
+        final double h2gamma = h2[loopjump][loopcf] * gamma[loopjump];
+        final double[] pDjc = pD[loopjump][loopcf];
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          pDjc[looppath] = pDI * Math.exp(-hjc * yj[looppath] - h2gamma);
         }
       }
     }
@@ -368,15 +642,16 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
    * Computes the initial discount factors adjoint values with respect to the initDiscountFactor.
    * @param initDiscountFactor The initial discount factors.
    * @param y The correlated random variables.
+   * @param nbPath The number of paths, the first columns of y.
    * @param h The H parameters.
    * @param h2 The H^2 parameters.
    * @param gamma The gamma parameters.
    * @param pDBar The simulated discount factor adjoints (path/jump/cf).
    * @return The initial discount factor adjoints (jump/cf).
    */
-  private double[][] pathGeneratorDiscountAdjointIDF(final double[][] initDiscountFactor, final double[][] y, final double[][] h, final double[][] h2, final double[] gamma, final Double[][][] pDBar) {
-    final int nbJump = y.length;
-    final int nbPath = y[0].length;
+  private double[][] pathGeneratorDiscountAdjointIDF(final double[][] initDiscountFactor, final double[][] y, final int nbPath, final double[][] h, final double[][] h2,
+      final double[] gamma, final Double[][][] pDBar) {
+    final int nbJump = h.length;
     double[] h2gamma;
     final double[][] initDiscountFactorBar = new double[nbJump][];
     for (int loopjump = 0; loopjump < nbJump; loopjump++) {
@@ -400,4 +675,140 @@ public class HullWhiteMonteCarloMethod extends MonteCarloMethod {
   //          y[loopjump][looppath] += initDiscountFactor[loopjump][loopcf] * Math.exp(-h[loopjump][loopcf] * y[loopjump][looppath] - h2gamma[loopcf]) * -h[loopjump][loopcf]
   //      // Backward sweep
 
+  /**
+   * The constants of the simulation of the discount factors at the decision dates, which do not depend on the paths.
+   */
+  private final class PathConstants {
+    /**
+     * The number of decision dates.
+     */
+    private final int _nbJump;
+    /**
+     * The discount factor to the numeraire date.
+     */
+    private final double _pDN;
+    /**
+     * The initial discount factors to the impact dates, rebased by the numeraire (jump/cf).
+     */
+    private final double[][] _pDI;
+    /**
+     * The cumulative variances at the decision dates.
+     */
+    private final double[] _gamma;
+    /**
+     * The H parameters (jump/cf).
+     */
+    private final double[][] _h;
+    /**
+     * The H^2/2 parameters (jump/cf).
+     */
+    private final double[][] _h2;
+    /**
+     * The number of decision dates with zero volatility.
+     */
+    private final int _nbZero;
+    /**
+     * The Cholesky decomposition of the covariance matrix.
+     */
+    private final double[][] _covCD;
+    /**
+     * The Brownian bridge, null if the paths are built by the Cholesky decomposition.
+     */
+    private final BrownianBridge _bridge;
+
+    PathConstants(final DecisionSchedule decision, final Currency ccy, final HullWhiteOneFactorProviderInterface hwData) {
+      final MulticurveProviderInterface multicurves = hwData.getMulticurveProvider();
+      final HullWhiteOneFactorPiecewiseConstantParameters parameters = hwData.getHullWhiteParameters();
+      final double[] decisionTime = decision.getDecisionTime();
+      final double[][] impactTime = decision.getImpactTime();
+      final int nbJump = decisionTime.length;
+      final double numeraireTime = decisionTime[nbJump - 1];
+      final double pDN = multicurves.getDiscountFactor(ccy, numeraireTime);
+      // Discount factor to numeraire date for rebasing.
+      final double[][] pDI = new double[nbJump][];
+      // Initial discount factors to each impact date.
+      for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+        pDI[loopjump] = new double[impactTime[loopjump].length];
+        for (int i = 0; i < impactTime[loopjump].length; i++) {
+          pDI[loopjump][i] = multicurves.getDiscountFactor(ccy, impactTime[loopjump][i]) / pDN;
+        }
+      }
+      final double[] gamma = new double[nbJump];
+      final double[][] cov = new double[nbJump][nbJump];
+      for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+        gamma[loopjump] = MODEL.beta(parameters, 0.0, decisionTime[loopjump]);
+        gamma[loopjump] = gamma[loopjump] * gamma[loopjump];
+        cov[loopjump][loopjump] = gamma[loopjump];
+        for (int j = loopjump + 1; j < nbJump; j++) {
+          cov[j][loopjump] = gamma[loopjump];
+          cov[loopjump][j] = gamma[loopjump];
+        }
+      }
+      final double[][] h = MODEL.volatilityMaturityPart(parameters, numeraireTime, impactTime); // jump/cf
+      final double[][] h2 = new double[nbJump][];
+      for (int i = 0; i < nbJump; i++) {
+        h2[i] = new double[h[i].length];
+        for (int j = 0; j < h[i].length; j++) {
+          h2[i][j] = h[i][j] * h[i][j] / 2;
+        }
+      }
+      // To remove the 0 (fixed coupons)
+      final int nbZero = nbZeroVolatility(cov);
+      final double[][] cov2 = new double[nbJump - nbZero][nbJump - nbZero];
+      for (int loopjump = 0; loopjump < nbJump - nbZero; loopjump++) {
+        for (int loopjump2 = 0; loopjump2 < nbJump - nbZero; loopjump2++) {
+          cov2[loopjump][loopjump2] = cov[loopjump + nbZero][loopjump2 + nbZero];
+        }
+      }
+      final CholeskyDecompositionCommons cd = new CholeskyDecompositionCommons();
+      final CholeskyDecompositionResult cdr2 = cd.evaluate(new DoubleMatrix2D(cov2));
+      final double[][] covCD2 = cdr2.getL().toArray();
+      final double[][] covCD = new double[nbJump][nbJump];
+      for (int loopjump = 0; loopjump < nbJump - nbZero; loopjump++) {
+        for (int loopjump2 = 0; loopjump2 < nbJump - nbZero; loopjump2++) {
+          covCD[loopjump + nbZero][loopjump2 + nbZero] = covCD2[loopjump][loopjump2];
+        }
+      }
+      final BrownianBridge bridge = brownianBridge(gamma, nbZero);
+      _nbJump = nbJump;
+      _pDN = pDN;
+      _pDI = pDI;
+      _gamma = gamma;
+      _h = h;
+      _h2 = h2;
+      _nbZero = nbZero;
+      _covCD = covCD;
+      _bridge = bridge;
+    }
+  }
+
+  /**
+   * The buffers of the random variables of a block, reused from one block to the next.
+   */
+  private static final class BlockBuffers {
+    /**
+     * The independent variables (jump/path). With streams, only the first rows, one by date with non-zero volatility, are used.
+     */
+    private final double[][] _x;
+    /**
+     * The correlated variables (jump/path).
+     */
+    private final double[][] _y;
+    /**
+     * The independent variables of one path, used with streams.
+     */
+    private final double[] _z;
+    /**
+     * The Brownian bridge values of one path, used with streams.
+     */
+    private final double[] _w;
+
+    BlockBuffers(final int nbJump, final int nbFactor, final int nbPath) {
+      _x = new double[nbJump][nbPath];
+      _y = new double[nbJump][nbPath];
+      _z = new double[nbFactor];
+      _w = new double[nbFactor];
+    }
+  }
+
 }
@@ -5,23 +5,41 @@
  */
 package com.opengamma.analytics.financial.montecarlo.provider;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.model.interestrate.definition.LiborMarketModelDisplacedDiffusionParameters;
 import com.opengamma.analytics.financial.montecarlo.DecisionSchedule;
+import com.opengamma.analytics.financial.montecarlo.LongstaffSchwartzDataBundle;
+import com.opengamma.analytics.financial.montecarlo.LongstaffSchwartzRegression;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloConvergence;
 import com.opengamma.analytics.financial.montecarlo.MonteCarloIborRateDataBundle;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloResult;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloVarianceReduction;
 import com.opengamma.analytics.financial.provider.description.interestrate.LiborMarketModelDisplacedDiffusionProvider;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
 import com.opengamma.analytics.math.matrix.CommonsMatrixAlgebra;
 import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
 import com.opengamma.analytics.math.matrix.MatrixAlgebra;
+import com.opengamma.analytics.math.random.BrownianBridge;
 import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.math.random.RandomNumberStreams;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
 
 /**
  * Monte Carlo pricing method in the Libor Market Model with Displaced Diffusion.
+ * <p>
+ * When the method is constructed with a single random number generator, the blocks of paths draw from that generator in
+ * turn, one vector by factor and diffusion step. When it is constructed with {@link RandomNumberStreams}, the block of index
+ * i draws from the stream i and each path uses one vector of the stream, with one dimension by factor and diffusion step.
+ * The streams can be quasi-random, like {@link com.opengamma.analytics.math.random.SobolRandomNumberStreams} with a stream
+ * length equal to the block size. The Brownian motion of each factor can then be built by a {@link BrownianBridge} on the
+ * end times of the steps, the values of all the factors at the last step first, which concentrates the variance of the
+ * paths on the first dimensions of the sequence.
  */
 public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
 
@@ -29,6 +47,18 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
    * The maximum length of a jump in the path generation.
    */
   private final double _maxJump;
+  /**
+   * The number of paths in one block. The working memory is proportional to it and independent of the total number of paths.
+   */
+  private final int _blockSize;
+  /**
+   * The random number streams, one per block, null when the blocks draw from the shared generator.
+   */
+  private final RandomNumberStreams _streams;
+  /**
+   * Whether the Brownian motions of the factors are built by a Brownian bridge, only used with streams.
+   */
+  private final boolean _brownianBridge;
 
   /**
    * The decision schedule calculator (calculate the exercise dates, the cash flow dates and the reference amounts).
@@ -39,9 +69,13 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
    */
   private static final MonteCarloIborRateCalculator MCC = MonteCarloIborRateCalculator.getInstance();
   /**
-   * The number of paths in one block.
+   * The calculator of the exercise values and regression variables from Ibor rates and reference amounts.
    */
-  private static final int BLOCK_SIZE = 1000;
+  private static final MonteCarloIborRateExerciseCalculator MCEC = MonteCarloIborRateExerciseCalculator.getInstance();
+  /**
+   * The default number of paths in one block.
+   */
+  public static final int BLOCK_SIZE = 1000;
   /**
    * The default maximum length of a jump in the path generation.
    */
@@ -53,8 +87,7 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
    * @param nbPath The number of paths.
    */
   public LiborMarketModelMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath) {
-    super(numberGenerator, nbPath);
-    _maxJump = MAX_JUMP_DEFAULT;
+    this(numberGenerator, nbPath, MAX_JUMP_DEFAULT);
   }
 
   /**
@@ -64,45 +97,151 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
    * @param maxJump The maximum length of a jump in the path generation.
    */
   public LiborMarketModelMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final double maxJump) {
-    super(numberGenerator, nbPath);
+    this(numberGenerator, nbPath, maxJump, BLOCK_SIZE);
+  }
+
+  /**
+   * Constructor.
+   * @param numberGenerator The random number generator. Generate Normally distributed numbers.
+   * @param nbPath The number of paths.
+   * @param maxJump The maximum length of a jump in the path generation.
+   * @param blockSize The number of paths in one block, positive. The paths are generated and priced block by block in
+   * working arrays of this size, reused from one block to the next.
+   */
+  public LiborMarketModelMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final double maxJump, final int blockSize) {
+    this(numberGenerator, nbPath, maxJump, blockSize, MonteCarloVarianceReduction.NONE);
+  }
+
+  /**
+   * Constructor.
+   * @param numberGenerator The random number generator. Generate Normally distributed numbers.
+   * @param nbPath The number of paths.
+   * @param maxJump The maximum length of a jump in the path generation.
+   * @param blockSize The number of paths in one block, positive.
+   * @param varianceReduction The variance reduction applied to the normal variables of each step of a block, not null. The
+   * antithetic paths are the opposite of the first paths of the block at every step.
+   */
+  public LiborMarketModelMonteCarloMethod(final RandomNumberGenerator numberGenerator, final int nbPath, final double maxJump, final int blockSize,
+      final MonteCarloVarianceReduction varianceReduction) {
+    super(numberGenerator, nbPath, varianceReduction);
+    ArgChecker.isTrue(blockSize > 0, "block size should be positive");
+    _maxJump = maxJump;
+    _blockSize = blockSize;
+    _streams = null;
+    _brownianBridge = false;
+  }
+
+  /**
+   * Constructor with one random number stream per block. The shared number generator of the method is null.
+   * @param streams The random number streams, the block of index i uses the stream i, not null.
+   * @param nbPath The number of paths.
+   * @param brownianBridge Whether the Brownian motions of the factors are built by a Brownian bridge instead of step by step.
+   */
+  public LiborMarketModelMonteCarloMethod(final RandomNumberStreams streams, final int nbPath, final boolean brownianBridge) {
+    this(streams, nbPath, MAX_JUMP_DEFAULT, BLOCK_SIZE, brownianBridge, MonteCarloVarianceReduction.NONE);
+  }
+
+  /**
+   * Constructor with one random number stream per block and a variance reduction. The shared number generator of the method is null.
+   * @param streams The random number streams, the block of index i uses the stream i, not null.
+   * @param nbPath The number of paths.
+   * @param maxJump The maximum length of a jump in the path generation.
+   * @param blockSize The number of paths in one block, positive.
+   * @param brownianBridge Whether the Brownian motions of the factors are built by a Brownian bridge instead of step by step.
+   * @param varianceReduction The variance reduction applied to the normal variables of each block, not null.
+   */
+  public LiborMarketModelMonteCarloMethod(final RandomNumberStreams streams, final int nbPath, final double maxJump, final int blockSize,
+      final boolean brownianBridge, final MonteCarloVarianceReduction varianceReduction) {
+    super(null, nbPath, varianceReduction);
+    ArgChecker.notNull(streams, "streams");
+    ArgChecker.isTrue(blockSize > 0, "block size should be positive");
     _maxJump = maxJump;
+    _blockSize = blockSize;
+    _streams = streams;
+    _brownianBridge = brownianBridge;
   }
 
+  /**
+   * Computes the present value of an instrument by Monte Carlo in the LMM.
+   * <p>
+   * The step constants (volatilities, drift matrices and accrual factors of the rates alive at each jump) do not depend
+   * on the paths and are computed once for the valuation. The paths are then generated by block: the forward rates are
+   * evolved in place in a working array, only the rates at the decision dates are kept for the pricing, and all the
+   * arrays are reused by the next block.
+   * @param instrument The instrument.
+   * @param ccy The currency.
+   * @param lmmData The LMM and multi-curve provider.
+   * @return The present value.
+   */
   public MultiCurrencyAmount presentValue(final InstrumentDerivative instrument, final Currency ccy, final LiborMarketModelDisplacedDiffusionProvider lmmData) {
+    return presentValue(instrument, ccy, lmmData, MonteCarloConvergence.ALL_PATHS).getPresentValue();
+  }
+
+  /**
+   * Computes the present value of an instrument by Monte Carlo in the LMM, with its standard error, until the convergence
+   * criteria are met. The blocks of paths are added by batches, up to the number of paths of the method.
+   * @param instrument The instrument.
+   * @param ccy The currency.
+   * @param lmmData The LMM and multi-curve provider.
+   * @param convergence The convergence criteria.
+   * @return The present value, its standard error, the number of paths used and the wall time.
+   */
+  public MonteCarloResult presentValue(final InstrumentDerivative instrument, final Currency ccy, final LiborMarketModelDisplacedDiffusionProvider lmmData,
+      final MonteCarloConvergence convergence) {
     final MulticurveProviderInterface multicurves = lmmData.getMulticurveProvider();
     final LiborMarketModelDisplacedDiffusionParameters parameters = lmmData.getLMMParameters();
     // The numeraire is the last time in the LMM description.
     final DecisionSchedule decision = instrument.accept(DC, multicurves);
     final int[][] impactIndex = index(decision.getImpactTime(), parameters);
+    final PathGenerator generator = new PathGenerator(decision, ccy, lmmData, Math.min(_blockSize, getNbPath()));
+    final double numeraire = multicurves.getDiscountFactor(ccy, parameters.getIborTime()[parameters.getIborTime().length - 1]);
+    return computeByBatch(ccy, numeraire, _blockSize, convergence, (startBlock, endBlock, nbPath2, blockSum) -> {
+      for (int loopblock = startBlock; loopblock < endBlock; loopblock++) {
+        final double[][][] pathIbor = generator.pathIborRates(loopblock, nbPath2[loopblock]);
+        blockSum[loopblock - startBlock] = instrument.accept(MCC, new MonteCarloIborRateDataBundle(pathIbor, parameters.getAccrualFactor(), decision.getImpactAmount(),
+            impactIndex));
+      }
+    });
+  }
 
-    final int nbPeriodLMM = parameters.getNbPeriod();
-    final double[] initL = new double[nbPeriodLMM];
-    final double[] deltaLMM = parameters.getAccrualFactor();
-    final double[] dfL = new double[nbPeriodLMM + 1];
-    for (int loopper = 0; loopper < nbPeriodLMM + 1; loopper++) {
-      dfL[loopper] = multicurves.getDiscountFactor(ccy, parameters.getIborTime()[loopper]);
-    }
-    for (int loopper = 0; loopper < nbPeriodLMM; loopper++) {
-      initL[loopper] = (dfL[loopper] / dfL[loopper + 1] - 1.0) / deltaLMM[loopper];
-    }
-
-    final int nbBlock = (int) Math.round(Math.ceil(getNbPath() / ((double) BLOCK_SIZE)));
-    final int[] nbPath2 = new int[nbBlock];
-    for (int i = 0; i < nbBlock - 1; i++) {
-      nbPath2[i] = BLOCK_SIZE;
+  /**
+   * Computes the present value of an instrument with early exercise in the LMM by the least-squares Monte Carlo method of
+   * Longstaff and Schwartz.
+   * <p>
+   * The exercise strategy is first estimated by regression on a set of regression paths, then the instrument is priced with
+   * that strategy on the pricing paths of the method. The regression paths are drawn from the generator first; with streams,
+   * the regression blocks use the first streams and the pricing blocks the next ones.
+   * @param instrument The instrument, for example a Bermudan swaption.
+   * @param ccy The currency.
+   * @param lmmData The LMM and multi-curve provider.
+   * @param regression The regression of the continuation values.
+   * @param nbPathRegression The number of regression paths.
+   * @return The present value.
+   */
+  public MultiCurrencyAmount presentValueLongstaffSchwartz(final InstrumentDerivative instrument, final Currency ccy, final LiborMarketModelDisplacedDiffusionProvider lmmData,
+      final LongstaffSchwartzRegression regression, final int nbPathRegression) {
+    ArgChecker.notNull(regression, "regression");
+    ArgChecker.isTrue(nbPathRegression > 0, "number of regression paths should be positive");
+    final MulticurveProviderInterface multicurves = lmmData.getMulticurveProvider();
+    final LiborMarketModelDisplacedDiffusionParameters parameters = lmmData.getLMMParameters();
+    final DecisionSchedule decision = instrument.accept(DC, multicurves);
+    final int[][] impactIndex = index(decision.getImpactTime(), parameters);
+    final PathGenerator generator = new PathGenerator(decision, ccy, lmmData, Math.min(_blockSize, Math.max(getNbPath(), nbPathRegression)));
+    // Regression pass
+    final int[] nbPathRegression2 = blockSizes(nbPathRegression, _blockSize);
+    final List<LongstaffSchwartzDataBundle> regressionBlocks = new ArrayList<>();
+    for (int loopblock = 0; loopblock < nbPathRegression2.length; loopblock++) {
+      final double[][][] pathIbor = generator.pathIborRates(loopblock, nbPathRegression2[loopblock]);
+      regressionBlocks.add(instrument.accept(MCEC, new MonteCarloIborRateDataBundle(pathIbor, parameters.getAccrualFactor(), decision.getImpactAmount(), impactIndex)));
     }
-    nbPath2[nbBlock - 1] = getNbPath() - (nbBlock - 1) * BLOCK_SIZE;
-
+    final double[][] coefficients = regression.regress(LongstaffSchwartzDataBundle.concatenate(regressionBlocks));
+    // Pricing pass
+    final int[] nbPath2 = blockSizes(getNbPath(), _blockSize);
     double price = 0.0;
-    for (int loopblock = 0; loopblock < nbBlock; loopblock++) {
-      final double[][] initLPath = new double[nbPeriodLMM][nbPath2[loopblock]];
-      for (int loopper = 0; loopper < nbPeriodLMM; loopper++) {
-        for (int looppath = 0; looppath < nbPath2[loopblock]; looppath++) {
-          initLPath[loopper][looppath] = initL[loopper];
-        }
-      }
-      final double[][][] pathIbor = pathgeneratorlibor(decision.getDecisionTime(), initLPath, parameters);
-      price += instrument.accept(MCC, new MonteCarloIborRateDataBundle(pathIbor, deltaLMM, decision.getImpactAmount(), impactIndex));
+    for (int loopblock = 0; loopblock < nbPath2.length; loopblock++) {
+      final double[][][] pathIbor = generator.pathIborRates(nbPathRegression2.length + loopblock, nbPath2[loopblock]);
+      price += regression.price(instrument.accept(MCEC, new MonteCarloIborRateDataBundle(pathIbor, parameters.getAccrualFactor(), decision.getImpactAmount(), impactIndex)),
+          coefficients);
     }
     price *= multicurves.getDiscountFactor(ccy, parameters.getIborTime()[parameters.getIborTime().length - 1]) / getNbPath();
     return MultiCurrencyAmount.of(ccy, price);
@@ -120,118 +259,20 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
   }
 
   /**
-   * Create one step in the LMM diffusion. The step is done through several jump times. The diffusion is approximated with a predictor-corrector approach.
-   * @param jumpTime The jump times.
-   * @param initIbor Rate at the start of the period. Size: nbPeriodLMM x nbPath.
-   * @return The Ibor rates at the end of the jump period. Size: nbPeriodLMM x nbPath.
-   */
-  private double[][] stepPC(final double[] jumpTime, final double[][] initIbor, final LiborMarketModelDisplacedDiffusionParameters lmm) {
-    final double amr = lmm.getMeanReversion();
-    final double[] iborTime = lmm.getIborTime();
-    final double[] almm = lmm.getDisplacement();
-    final double[] deltalmm = lmm.getAccrualFactor();
-    final DoubleMatrix2D gammaLMM = new DoubleMatrix2D(lmm.getVolatility());
-    final MatrixAlgebra algebra = new CommonsMatrixAlgebra();
-    final DoubleMatrix2D s = (DoubleMatrix2D) algebra.multiply(gammaLMM, algebra.getTranspose(gammaLMM));
-    final int nbJump = jumpTime.length - 1;
-    final int nbPath = initIbor[0].length;
-    final int nbPeriodLMM = lmm.getNbPeriod();
-    final int nbFactorLMM = lmm.getNbFactor();
-    final double[] dt = new double[nbJump];
-    final double[] alpha = new double[nbJump];
-    final double[] alpha2 = new double[nbJump];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      dt[loopjump] = jumpTime[loopjump + 1] - jumpTime[loopjump];
-      alpha[loopjump] = Math.exp(amr * jumpTime[loopjump + 1]);
-      alpha2[loopjump] = alpha[loopjump] * alpha[loopjump];
-    }
-
-    final double[][] f = initIbor;
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      final double sqrtDt = Math.sqrt(dt[loopjump]);
-      int index = Arrays.binarySearch(iborTime, jumpTime[loopjump + 1] - lmm.getTimeTolerance());
-      index = -index - 1; // The index from which the rate should be evolved.
-      final int nI = nbPeriodLMM - index;
-      final double[] dI = new double[nI];
-      for (int loopn = 0; loopn < nI; loopn++) {
-        dI[loopn] = 1.0 / deltalmm[index + loopn];
-      }
-      final double[][] salpha2Array = new double[nI][nI];
-      for (int loopn1 = 0; loopn1 < nI; loopn1++) {
-        for (int loopn2 = 0; loopn2 < nI; loopn2++) {
-          salpha2Array[loopn1][loopn2] = s.getEntry(index + loopn1, index + loopn2) * alpha2[loopjump];
-        }
-      }
-      final DoubleMatrix2D salpha2 = new DoubleMatrix2D(salpha2Array);
-      // Random seed
-      final double[][] dw = getNormalArray(nbFactorLMM, nbPath);
-      // Common figures
-      final double[] dr1 = new double[nI];
-      for (int loopn = 0; loopn < nI; loopn++) {
-        dr1[loopn] = -salpha2.getEntry(loopn, loopn) * dt[loopjump] / 2.0;
-      }
-      final double[][] cc = new double[nI][nbPath];
-      for (int loopn = 0; loopn < nI; loopn++) {
-        for (int looppath = 0; looppath < nbPath; looppath++) {
-          for (int loopfact = 0; loopfact < nbFactorLMM; loopfact++) {
-            cc[loopn][looppath] += gammaLMM.getEntry(index + loopn, loopfact) * dw[loopfact][looppath] * sqrtDt * alpha[loopjump];
-          }
-          cc[loopn][looppath] += dr1[loopn];
-        }
-      }
-      // Unique step: predictor and corrector
-      final double[][] mP = new double[nI][nbPath];
-      final double[][] mC = new double[nI][nbPath];
-      final double[][] coefP = new double[nbPath][nI - 1];
-      final double[][] coefC = new double[nI][nbPath];
-      for (int looppath = 0; looppath < nbPath; looppath++) {
-        for (int loopn = 0; loopn < nI - 1; loopn++) {
-          coefP[looppath][loopn] = (f[index + loopn + 1][looppath] + almm[index + loopn + 1]) / (f[index + loopn + 1][looppath] + dI[loopn + 1]);
-        }
-      }
-      for (int loopdrift = nI - 1; loopdrift >= 0; loopdrift--) {
-        if (loopdrift < nI - 1) {
-          for (int looppath = 0; looppath < nbPath; looppath++) {
-            coefC[loopdrift + 1][looppath] = (f[index + loopdrift + 1][looppath] + almm[index + loopdrift + 1]) / (f[index + loopdrift + 1][looppath] + dI[loopdrift + 1]);
-            for (int loop = loopdrift + 1; loop < nI; loop++) {
-              mP[loopdrift][looppath] += salpha2.getEntry(loop, loopdrift) * coefP[looppath][loop - 1];
-              mC[loopdrift][looppath] += salpha2.getEntry(loop, loopdrift) * coefC[loop][looppath];
-            }
-          }
-          for (int looppath = 0; looppath < nbPath; looppath++) {
-            f[loopdrift + index][looppath] = (f[loopdrift + index][looppath] + almm[index + loopdrift])
-                * Math.exp(-(mP[loopdrift][looppath] + mC[loopdrift][looppath]) * dt[loopjump] / 2.0 + cc[loopdrift][looppath]) - almm[index + loopdrift];
-          }
-        } else {
-          for (int looppath = 0; looppath < nbPath; looppath++) {
-            f[loopdrift + index][looppath] = (f[loopdrift + index][looppath] + almm[index + loopdrift]) * Math.exp(cc[loopdrift][looppath]) - almm[index + loopdrift];
-          }
-        }
-      }
-    }
-    return f;
-  }
-
-  /**
-   *
+   * Computes the constants of the diffusion steps. Each decision date is reached through intermediary jumps no longer than the maximum jump.
    * @param jumpTime The time of the mandatory jumps.
-   * @param initIbor The Ibor rates at the start. nbPeriodLMM x nbPath
    * @param lmm The LMM parameters.
-   * @return The paths. Size: nbJump x nbPeriodLMM x nbPath
+   * @return The steps. The dimensions are decision jump/intermediary jump.
    */
-  private double[][][] pathgeneratorlibor(final double[] jumpTime, final double[][] initIbor, final LiborMarketModelDisplacedDiffusionParameters lmm) {
-    final int nbPeriod = initIbor.length;
-    final int nbPath = initIbor[0].length;
+  private LmmStep[][] steps(final double[] jumpTime, final LiborMarketModelDisplacedDiffusionParameters lmm) {
+    final MatrixAlgebra algebra = new CommonsMatrixAlgebra();
+    final DoubleMatrix2D gammaLMM = new DoubleMatrix2D(lmm.getVolatility());
+    final double[][] s = ((DoubleMatrix2D) algebra.multiply(gammaLMM, algebra.getTranspose(gammaLMM))).getData();
     final int nbJump = jumpTime.length;
-    double[][] initTmp = new double[nbPeriod][nbPath];
-    for (int loop1 = 0; loop1 < nbPeriod; loop1++) {
-      System.arraycopy(initIbor[loop1], 0, initTmp[loop1], 0, nbPath);
-    }
     final double[] jumpTimeA = new double[nbJump + 1];
     jumpTimeA[0] = 0;
     System.arraycopy(jumpTime, 0, jumpTimeA, 1, nbJump);
-    final double[][][] result = new double[nbJump][nbPeriod][nbPath];
-    // TODO: add intermediary jump dates if necessary
+    final LmmStep[][] steps = new LmmStep[nbJump][];
     for (int loopjump = 0; loopjump < nbJump; loopjump++) {
       // Intermediary jumps
       double[] jumpIn;
@@ -246,26 +287,315 @@ public class LiborMarketModelMonteCarloMethod extends MonteCarloMethod {
           jumpIn[loopJumpIn] = jumpTimeA[loopjump] + loopJumpIn * jump / nbJumpIn;
         }
       }
-      initTmp = stepPC(jumpIn, initTmp, lmm);
-      for (int loop1 = 0; loop1 < nbPeriod; loop1++) {
-        System.arraycopy(initTmp[loop1], 0, result[loopjump][loop1], 0, nbPath);
+      steps[loopjump] = new LmmStep[jumpIn.length - 1];
+      for (int loopin = 0; loopin < jumpIn.length - 1; loopin++) {
+        steps[loopjump][loopin] = new LmmStep(jumpIn[loopin], jumpIn[loopin + 1], s, lmm);
       }
     }
-    return result;
+    return steps;
   }
 
   /**
-   * Gets a 2D-array of independent normally distributed variables.
-   * @param nbJump The number of jumps.
+   * Create one step in the LMM diffusion. The diffusion is approximated with a predictor-corrector approach.
+   * The rates are evolved in place.
+   * @param step The constants of the step.
+   * @param lmm The LMM parameters.
+   * @param f The Ibor rates, at the start of the step on input and at the end of the step on output. Size: nbPeriodLMM x (at least) nbPath.
    * @param nbPath The number of paths.
-   * @return The array of variables.
+   * @param dw The normal variables of the step. Size: nbFactorLMM x (at least) nbPath.
+   * @param coefP The buffer for the predictor coefficients. Size: nbPeriodLMM x (at least) nbPath.
+   * @param coefC The buffer for the corrector coefficients. Size: nbPeriodLMM x (at least) nbPath.
    */
-  private double[][] getNormalArray(final int nbJump, final int nbPath) {
-    final double[][] result = new double[nbJump][nbPath];
-    for (int loopjump = 0; loopjump < nbJump; loopjump++) {
-      result[loopjump] = getNumberGenerator().getVector(nbPath);
+  private void stepPC(final LmmStep step, final LiborMarketModelDisplacedDiffusionParameters lmm, final double[][] f, final int nbPath, final double[][] dw,
+      final double[][] coefP, final double[][] coefC) {
+    final double[] almm = lmm.getDisplacement();
+    final double[][] gammaLMM = lmm.getVolatility();
+    final int nbFactorLMM = lmm.getNbFactor();
+    final int index = step._index;
+    final int nI = step._dI.length;
+    final double[] dI = step._dI;
+    final double[][] salpha2 = step._salpha2;
+    final double[] dr1 = step._dr1;
+    final double dt = step._dt;
+    final double sqrtDt = step._sqrtDt;
+    final double alpha = step._alpha;
+    // Unique step: predictor and corrector
+    for (int loopn = 0; loopn < nI - 1; loopn++) {
+      for (int looppath = 0; looppath < nbPath; looppath++) {
+        coefP[loopn][looppath] = (f[index + loopn + 1][looppath] + almm[index + loopn + 1]) / (f[index + loopn + 1][looppath] + dI[loopn + 1]);
+      }
+    }
+    for (int loopdrift = nI - 1; loopdrift >= 0; loopdrift--) {
+      final double[] gamma = gammaLMM[index + loopdrift];
+      for (int looppath = 0; looppath < nbPath; looppath++) {
+        double cc = 0.0;
+        for (int loopfact = 0; loopfact < nbFactorLMM; loopfact++) {
+          cc += gamma[loopfact] * dw[loopfact][looppath] * sqrtDt * alpha;
+        }
+        cc += dr1[loopdrift];
+        if (loopdrift < nI - 1) {
+          coefC[loopdrift + 1][looppath] = (f[index + loopdrift + 1][looppath] + almm[index + loopdrift + 1]) / (f[index + loopdrift + 1][looppath] + dI[loopdrift + 1]);
+          double mP = 0.0;
+          double mC = 0.0;
+          for (int loop = loopdrift + 1; loop < nI; loop++) {
+            mP += salpha2[loop][loopdrift] * coefP[loop - 1][looppath];
+            mC += salpha2[loop][loopdrift] * coefC[loop][looppath];
+          }
+          f[loopdrift + index][looppath] = (f[loopdrift + index][looppath] + almm[index + loopdrift]) * Math.exp(-(mP + mC) * dt / 2.0 + cc) - almm[index + loopdrift];
+        } else {
+          f[loopdrift + index][looppath] = (f[loopdrift + index][looppath] + almm[index + loopdrift]) * Math.exp(cc) - almm[index + loopdrift];
+        }
+      }
+    }
+  }
+
+  /**
+   * The generator of the Ibor rates paths at the decision dates of a schedule. The step constants are computed once and the
+   * working arrays are reused from one block to the next.
+   */
+  private final class PathGenerator {
+    /**
+     * The LMM parameters.
+     */
+    private final LiborMarketModelDisplacedDiffusionParameters _parameters;
+    /**
+     * The initial Ibor rates.
+     */
+    private final double[] _initL;
+    /**
+     * The steps. The dimensions are decision jump/intermediary jump.
+     */
+    private final LmmStep[][] _steps;
+    /**
+     * The Brownian bridge on the end times of the steps, null if the factors are built step by step.
+     */
+    private final BrownianBridge _bridge;
+    /**
+     * The Ibor rates, evolved in place. Size: nbPeriodLMM x maxPath.
+     */
+    private final double[][] _f;
+    /**
+     * The buffer for the normal variables of one step, used with the shared generator. Size: nbFactorLMM x maxPath.
+     */
+    private final double[][] _dw;
+    /**
+     * The buffer for the normal variables of all the steps, used with streams. The row step * nbFactorLMM + factor holds the
+     * variables of the factor for the step. Size: (nbStep * nbFactorLMM) x maxPath.
+     */
+    private final double[][] _x;
+    /**
+     * The normal variables of each step, as views on the rows of the buffer x. Size: nbStep x nbFactorLMM.
+     */
+    private final double[][][] _dwByStep;
+    /**
+     * The buffer of one vector of a stream, used with streams.
+     */
+    private final double[] _z;
+    /**
+     * The buffers of the bridge variables and values of one factor on one path, used with the Brownian bridge.
+     */
+    private final double[] _zBridge;
+    private final double[] _wBridge;
+    /**
+     * The buffer for the predictor coefficients. Size: nbPeriodLMM x maxPath.
+     */
+    private final double[][] _coefP;
+    /**
+     * The buffer for the corrector coefficients. Size: nbPeriodLMM x maxPath.
+     */
+    private final double[][] _coefC;
+    /**
+     * The rates at the decision dates of the last block, reused while the number of paths is unchanged, as the calculators
+     * read the number of paths from the array. Size: nbJump x nbPeriodLMM x nbPath.
+     */
+    private double[][][] _pathIbor;
+
+    PathGenerator(final DecisionSchedule decision, final Currency ccy, final LiborMarketModelDisplacedDiffusionProvider lmmData, final int maxPath) {
+      final MulticurveProviderInterface multicurves = lmmData.getMulticurveProvider();
+      _parameters = lmmData.getLMMParameters();
+      final int nbPeriodLMM = _parameters.getNbPeriod();
+      final double[] deltaLMM = _parameters.getAccrualFactor();
+      final double[] dfL = new double[nbPeriodLMM + 1];
+      for (int loopper = 0; loopper < nbPeriodLMM + 1; loopper++) {
+        dfL[loopper] = multicurves.getDiscountFactor(ccy, _parameters.getIborTime()[loopper]);
+      }
+      _initL = new double[nbPeriodLMM];
+      for (int loopper = 0; loopper < nbPeriodLMM; loopper++) {
+        _initL[loopper] = (dfL[loopper] / dfL[loopper + 1] - 1.0) / deltaLMM[loopper];
+      }
+      _steps = steps(decision.getDecisionTime(), _parameters);
+      final int nbFactorLMM = _parameters.getNbFactor();
+      int nbStep = 0;
+      for (final LmmStep[] stepJump : _steps) {
+        nbStep += stepJump.length;
+      }
+      _f = new double[nbPeriodLMM][maxPath];
+      _dw = new double[nbFactorLMM][maxPath];
+      if (_streams == null) {
+        _x = null;
+        _dwByStep = null;
+        _z = null;
+      } else {
+        _x = new double[nbStep * nbFactorLMM][maxPath];
+        _dwByStep = new double[nbStep][nbFactorLMM][];
+        for (int loopstep = 0; loopstep < nbStep; loopstep++) {
+          for (int loopfact = 0; loopfact < nbFactorLMM; loopfact++) {
+            _dwByStep[loopstep][loopfact] = _x[loopstep * nbFactorLMM + loopfact];
+          }
+        }
+        _z = new double[nbStep * nbFactorLMM];
+      }
+      if (_streams == null || !_brownianBridge) {
+        _bridge = null;
+        _zBridge = null;
+        _wBridge = null;
+      } else {
+        final double[] times = new double[nbStep];
+        double time = 0.0;
+        int loopstep = 0;
+        for (final LmmStep[] stepJump : _steps) {
+          for (final LmmStep step : stepJump) {
+            time += step._dt;
+            times[loopstep++] = time;
+          }
+        }
+        _bridge = new BrownianBridge(times);
+        _zBridge = new double[nbStep];
+        _wBridge = new double[nbStep];
+      }
+      _coefP = new double[nbPeriodLMM][maxPath];
+      _coefC = new double[nbPeriodLMM][maxPath];
+    }
+
+    /**
+     * Simulates the Ibor rates of a block of paths at the decision dates.
+     * @param block The block index, which gives the stream used with streams.
+     * @param nbPath The number of paths, at most the maximum number of paths of the generator.
+     * @return The rates. Size: nbJump x nbPeriodLMM x nbPath. The array is reused by the next block of the same size.
+     */
+    double[][][] pathIborRates(final int block, final int nbPath) {
+      final int nbPeriodLMM = _initL.length;
+      final int nbJump = _steps.length;
+      if (_pathIbor == null || _pathIbor[0][0].length != nbPath) {
+        _pathIbor = new double[nbJump][nbPeriodLMM][nbPath];
+      }
+      for (int loopper = 0; loopper < nbPeriodLMM; loopper++) {
+        Arrays.fill(_f[loopper], 0, nbPath, _initL[loopper]);
+      }
+      if (_streams != null) {
+        // One vector of the stream by path, with one dimension by factor and step.
+        pathNormals(_streams.getStream(block), _x.length, nbPath, _x, _z);
+        if (_bridge != null) {
+          bridge(nbPath);
+        }
+      }
+      final MonteCarloVarianceReduction varianceReduction = getVarianceReduction();
+      int loopstep = 0;
+      for (int loopjump = 0; loopjump < nbJump; loopjump++) {
+        for (final LmmStep step : _steps[loopjump]) {
+          final double[][] dw;
+          if (_streams == null) {
+            dw = _dw;
+            getNumberGenerator().fill(dw, varianceReduction.getNumberOfDraws(nbPath));
+            varianceReduction.apply(dw, dw.length, nbPath);
+          } else {
+            dw = _dwByStep[loopstep];
+          }
+          stepPC(step, _parameters, _f, nbPath, dw, _coefP, _coefC);
+          loopstep++;
+        }
+        for (int loopper = 0; loopper < nbPeriodLMM; loopper++) {
+          System.arraycopy(_f[loopper], 0, _pathIbor[loopjump][loopper], 0, nbPath);
+        }
+      }
+      return _pathIbor;
+    }
+
+    /**
+     * Replaces, in the buffer x, the bridge variables of each factor by the normal variables of the steps. The row
+     * step * nbFactorLMM + factor holds on input the variable of the bridge step and on output the increment of the Brownian
+     * motion of the factor over the diffusion step, divided by the square root of its length.
+     * @param nbPath The number of paths.
+     */
+    private void bridge(final int nbPath) {
+      final int nbFactorLMM = _parameters.getNbFactor();
+      final int nbStep = _zBridge.length;
+      for (int loopfact = 0; loopfact < nbFactorLMM; loopfact++) {
+        for (int looppath = 0; looppath < nbPath; looppath++) {
+          for (int loopstep = 0; loopstep < nbStep; loopstep++) {
+            _zBridge[loopstep] = _x[loopstep * nbFactorLMM + loopfact][looppath];
+          }
+          _bridge.path(_zBridge, _wBridge);
+          double previous = 0.0;
+          int loopstep = 0;
+          for (final LmmStep[] stepJump : _steps) {
+            for (final LmmStep step : stepJump) {
+              _x[loopstep * nbFactorLMM + loopfact][looppath] = (_wBridge[loopstep] - previous) / step._sqrtDt;
+              previous = _wBridge[loopstep];
+              loopstep++;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The constants of one step of the diffusion, which do not depend on the paths.
+   */
+  private static final class LmmStep {
+    /**
+     * The index of the first rate evolved in the step.
+     */
+    private final int _index;
+    /**
+     * The length of the step.
+     */
+    private final double _dt;
+    /**
+     * The square root of the length of the step.
+     */
+    private final double _sqrtDt;
+    /**
+     * The mean reversion factor at the end of the step.
+     */
+    private final double _alpha;
+    /**
+     * The inverse of the accrual factors of the rates evolved.
+     */
+    private final double[] _dI;
+    /**
+     * The covariance of the rates evolved, multiplied by the square of the mean reversion factor.
+     */
+    private final double[][] _salpha2;
+    /**
+     * The deterministic part of the increments of the rates evolved.
+     */
+    private final double[] _dr1;
+
+    LmmStep(final double startTime, final double endTime, final double[][] s, final LiborMarketModelDisplacedDiffusionParameters lmm) {
+      final double[] deltalmm = lmm.getAccrualFactor();
+      _dt = endTime - startTime;
+      _sqrtDt = Math.sqrt(_dt);
+      _alpha = Math.exp(lmm.getMeanReversion() * endTime);
+      final double alpha2 = _alpha * _alpha;
+      int index = Arrays.binarySearch(lmm.getIborTime(), endTime - lmm.getTimeTolerance());
+      index = -index - 1; // The index from which the rate should be evolved.
+      _index = index;
+      final int nI = lmm.getNbPeriod() - index;
+      _dI = new double[nI];
+      _salpha2 = new double[nI][nI];
+      _dr1 = new double[nI];
+      for (int loopn = 0; loopn < nI; loopn++) {
+        _dI[loopn] = 1.0 / deltalmm[index + loopn];
+        for (int loopn2 = 0; loopn2 < nI; loopn2++) {
+          _salpha2[loopn][loopn2] = s[index + loopn][index + loopn2] * alpha2;
+        }
+      }
+      for (int loopn = 0; loopn < nI; loopn++) {
+        _dr1[loopn] = -_salpha2[loopn][loopn] * _dt / 2.0;
+      }
     }
-    return result;
   }
 
 }
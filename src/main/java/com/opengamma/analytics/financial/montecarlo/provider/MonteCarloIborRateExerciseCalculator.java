@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo.provider;
+
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorAdapter;
+import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionBermudaFixedIbor;
+import com.opengamma.analytics.financial.montecarlo.LongstaffSchwartzDataBundle;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloIborRateDataBundle;
+
+/**
+ * Computes the exercise values and the regression variables of an instrument with early exercise for the Longstaff-Schwartz method.
+ * The data bundle contains the different Ibor rates paths and the instrument reference amounts. The numeraire is the last time in the LMM description.
+ */
+public class MonteCarloIborRateExerciseCalculator extends InstrumentDerivativeVisitorAdapter<MonteCarloIborRateDataBundle, LongstaffSchwartzDataBundle> {
+
+  /**
+   * The unique instance of the calculator.
+   */
+  private static final MonteCarloIborRateExerciseCalculator INSTANCE = new MonteCarloIborRateExerciseCalculator();
+
+  /**
+   * Gets the calculator instance.
+   * @return The calculator.
+   */
+  public static MonteCarloIborRateExerciseCalculator getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Constructor.
+   */
+  MonteCarloIborRateExerciseCalculator() {
+  }
+
+  /**
+   * {@inheritDoc}
+   * The exercise value at a decision date is the value of the underlying swap of that date. The regression variables are the
+   * exercise value and the discount factor to the first cash flow of the swap.
+   */
+  @Override
+  public LongstaffSchwartzDataBundle visitSwaptionBermudaFixedIbor(final SwaptionBermudaFixedIbor swaption, final MonteCarloIborRateDataBundle mcResults) {
+    final double[][][] pathIborRate = mcResults.getPathIborRate(); // Size: nbJump x nbPeriodLMM x nbPath
+    final double[][] impactAmount = mcResults.getImpactAmount();
+    final int[][] impactIndex = mcResults.getImpactIndex();
+    final double[] delta = mcResults.getDelta();
+    final int nbDecision = pathIborRate.length;
+    final int nbPeriod = pathIborRate[0].length;
+    final int nbPath = pathIborRate[0][0].length;
+    final double[][] exerciseValue = new double[nbPath][nbDecision];
+    final double[][][] regressionVariable = new double[nbPath][nbDecision][];
+    final double[] discounting = new double[nbPeriod + 1];
+    for (int loopdec = 0; loopdec < nbDecision; loopdec++) {
+      for (int looppath = 0; looppath < nbPath; looppath++) {
+        discounting[nbPeriod] = 1.0;
+        for (int loopdsc = nbPeriod - 1; loopdsc >= 0; loopdsc--) {
+          discounting[loopdsc] = discounting[loopdsc + 1] * (1.0 + pathIborRate[loopdec][loopdsc][looppath] * delta[loopdsc]);
+        }
+        double swapPathValue = 0.0;
+        for (int loopcf = 0; loopcf < impactAmount[loopdec].length; loopcf++) {
+          swapPathValue += impactAmount[loopdec][loopcf] * discounting[impactIndex[loopdec][loopcf]];
+        }
+        exerciseValue[looppath][loopdec] = swapPathValue;
+        regressionVariable[looppath][loopdec] = new double[] {swapPathValue, discounting[impactIndex[loopdec][0]] };
+      }
+    }
+    return new LongstaffSchwartzDataBundle(exerciseValue, regressionVariable, swaption.isLong() ? 1.0 : -1.0);
+  }
+
+}
@@ -5,7 +5,15 @@
  */
 package com.opengamma.analytics.financial.montecarlo.provider;
 
+import java.time.Duration;
+
+import com.opengamma.analytics.financial.montecarlo.MonteCarloConvergence;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloResult;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloStatistics;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloVarianceReduction;
 import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
 
 /**
  * Generic Monte-Carlo pricing method.
@@ -20,6 +28,10 @@ public abstract class MonteCarloMethod {
    * The number of paths.
    */
   private final int _nbPath;
+  /**
+   * The variance reduction applied to the normal variables of each block of paths.
+   */
+  private final MonteCarloVarianceReduction _varianceReduction;
 
   /**
    * Constructor.
@@ -27,8 +39,20 @@ public abstract class MonteCarloMethod {
    * @param nbPath The number of paths.
    */
   public MonteCarloMethod(RandomNumberGenerator numberGenerator, int nbPath) {
+    this(numberGenerator, nbPath, MonteCarloVarianceReduction.NONE);
+  }
+
+  /**
+   * Constructor.
+   * @param numberGenerator The random number generator.
+   * @param nbPath The number of paths.
+   * @param varianceReduction The variance reduction applied to the normal variables of each block of paths, not null.
+   */
+  public MonteCarloMethod(RandomNumberGenerator numberGenerator, int nbPath, MonteCarloVarianceReduction varianceReduction) {
+    ArgChecker.notNull(varianceReduction, "variance reduction");
     _numberGenerator = numberGenerator;
     _nbPath = nbPath;
+    _varianceReduction = varianceReduction;
   }
 
   /**
@@ -47,4 +71,97 @@ public abstract class MonteCarloMethod {
     return _nbPath;
   }
 
+  /**
+   * Gets the variance reduction.
+   * @return The variance reduction applied to the normal variables of each block of paths.
+   */
+  public MonteCarloVarianceReduction getVarianceReduction() {
+    return _varianceReduction;
+  }
+
+  /**
+   * Runs the blocks of paths by batches until the convergence criteria are met or all the paths of the method are used.
+   * @param ccy The currency.
+   * @param numeraire The value of the numeraire, by which the path values are multiplied.
+   * @param blockSize The maximum number of paths in a block.
+   * @param convergence The convergence criteria, not null.
+   * @param batch The computation of a batch of blocks.
+   * @return The result.
+   */
+  protected MonteCarloResult computeByBatch(final Currency ccy, final double numeraire, final int blockSize, final MonteCarloConvergence convergence,
+      final BatchComputation batch) {
+    ArgChecker.notNull(convergence, "convergence");
+    final long start = System.nanoTime();
+    final int[] nbPath2 = blockSizes(_nbPath, blockSize);
+    final int nbBlock = nbPath2.length;
+    final MonteCarloStatistics statistics = new MonteCarloStatistics();
+    int nbBlockDone = 0;
+    while (nbBlockDone < nbBlock) {
+      final int endBlock = (int) Math.min(nbBlock, (long) nbBlockDone + convergence.getBatchSize());
+      final double[] blockSum = new double[endBlock - nbBlockDone];
+      batch.compute(nbBlockDone, endBlock, nbPath2, blockSum);
+      for (int loopblock = nbBlockDone; loopblock < endBlock; loopblock++) {
+        statistics.add(blockSum[loopblock - nbBlockDone], nbPath2[loopblock]);
+      }
+      nbBlockDone = endBlock;
+      if (convergence.isReached(statistics.getMean() * numeraire, statistics.getStandardError() * Math.abs(numeraire), Duration.ofNanos(System.nanoTime() - start))) {
+        break;
+      }
+    }
+    final double value = statistics.getSum() * (numeraire / statistics.getNumberOfPaths());
+    return new MonteCarloResult(ccy, value, statistics.getStandardError() * Math.abs(numeraire), statistics.getNumberOfPaths(), Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  /**
+   * Splits a number of paths in blocks.
+   * @param nbPath The number of paths.
+   * @param blockSize The maximum number of paths in a block.
+   * @return The number of paths of each block.
+   */
+  protected static int[] blockSizes(final int nbPath, final int blockSize) {
+    final int nbBlock = (int) Math.round(Math.ceil(nbPath / ((double) blockSize)));
+    final int[] nbPath2 = new int[nbBlock];
+    for (int i = 0; i < nbBlock - 1; i++) {
+      nbPath2[i] = blockSize;
+    }
+    nbPath2[nbBlock - 1] = nbPath - (nbBlock - 1) * blockSize;
+    return nbPath2;
+  }
+
+  /**
+   * Draws the independent normal variables of a block of paths from the stream of the block, one vector by path, and applies
+   * the variance reduction. With a quasi-random stream, the dimensions of the vectors are the dimensions of the sequence.
+   * @param stream The stream of the block.
+   * @param dimension The dimension of the vectors.
+   * @param nbPath The number of paths in the block.
+   * @param x The buffer of the variables (dimension/path), filled in the first dimension rows and nbPath columns.
+   * @param z The buffer of one vector, of length at least the dimension.
+   */
+  protected void pathNormals(final RandomNumberGenerator stream, final int dimension, final int nbPath, final double[][] x, final double[] z) {
+    final int nbDraw = _varianceReduction.getNumberOfDraws(nbPath);
+    for (int looppath = 0; looppath < nbDraw; looppath++) {
+      stream.fill(z, 0, dimension);
+      for (int i = 0; i < dimension; i++) {
+        x[i][looppath] = z[i];
+      }
+    }
+    _varianceReduction.apply(x, dimension, nbPath);
+  }
+
+  /**
+   * The computation of a batch of consecutive blocks of paths.
+   */
+  protected interface BatchComputation {
+
+    /**
+     * Computes the blocks of a batch.
+     * @param startBlock The index of the first block of the batch.
+     * @param endBlock The index after the last block of the batch.
+     * @param nbPath The number of paths of all the blocks.
+     * @param blockSum The sum of the path values of each block of the batch, in units of the numeraire, to be filled.
+     */
+    void compute(int startBlock, int endBlock, int[] nbPath, double[] blockSum);
+
+  }
+
 }
@@ -5,8 +5,11 @@
  */
 package com.opengamma.analytics.financial.provider.calculator.discounting;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import com.opengamma.analytics.financial.instrument.index.IborIndex;
 import com.opengamma.analytics.financial.instrument.index.IndexON;
@@ -20,9 +23,9 @@ import com.opengamma.analytics.financial.provider.sensitivity.multicurve.Multipl
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyParameterSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.parameter.ParameterSensitivityParameterCalculator;
 import com.opengamma.analytics.math.curve.InterpolatedDoublesCurve;
-import com.opengamma.analytics.math.interpolation.Interpolator1D;
 import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
 import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
+import com.opengamma.analytics.util.ForkJoinUtils;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.collect.ArgChecker;
 
@@ -31,7 +34,11 @@ import com.opengamma.strata.collect.ArgChecker;
  * The curves should be represented by a YieldCurve with an InterpolatedDoublesCurve on the zero-coupon rates.
  * By default the gamma is computed using a one basis-point shift. This default can be change in a constructor.
  * The results themselves are not scaled (the represent the second order derivative).
- * Note that currently, the calculator will work only if the same curve is not used for two indexes (REQS-427).
+ * <p>
+ * The bumps of the different nodes are independent and can be computed concurrently on a {@link ForkJoinPool}. The nodes are split
+ * in contiguous blocks and each block bumps its own copy of the provider, replacing only the bumped curve at each node.
+ * The gamma can also be computed with a central (symmetric) difference of the deltas along each node direction, which is
+ * second order in the shift.
  * <p> Reference: Interest Rate Cross-gamma for Single and Multiple Curves. OpenGamma quantitative research 15, July 14
  */
 public class CrossGammaMultiCurveCalculator {
@@ -43,6 +50,10 @@ public class CrossGammaMultiCurveCalculator {
   private final ParameterSensitivityParameterCalculator<ParameterProviderInterface> _psc;
   /** The shift used for finite difference Gamma using two deltas. */
   private final double _shift;
+  /** Whether the gamma is computed with a central difference of the deltas (bumps up and down) or a forward difference (bump up). */
+  private final boolean _centralDifference;
+  /** The pool used to compute the bumped deltas concurrently. If null, the bumps are computed sequentially. */
+  private final ForkJoinPool _pool;
 
   /**
    * Constructor.
@@ -51,10 +62,7 @@ public class CrossGammaMultiCurveCalculator {
    */
   public CrossGammaMultiCurveCalculator(final double shift,
       final InstrumentDerivativeVisitor<ParameterProviderInterface, MultipleCurrencyMulticurveSensitivity> curveSensitivityCalculator) {
-    ArgChecker.notNull(curveSensitivityCalculator, "sensitivity calculator");
-    ArgChecker.isTrue(Math.abs(shift) > 1.0E-10, "shift should not be larger in absolute value than 1.0E-10");
-    _psc = new ParameterSensitivityParameterCalculator<>(curveSensitivityCalculator);
-    _shift = shift;
+    this(shift, curveSensitivityCalculator, false, null);
   }
 
   /**
@@ -63,9 +71,26 @@ public class CrossGammaMultiCurveCalculator {
    * @param curveSensitivityCalculator The delta (curve sensitivity) calculator.
    */
   public CrossGammaMultiCurveCalculator(final InstrumentDerivativeVisitor<ParameterProviderInterface, MultipleCurrencyMulticurveSensitivity> curveSensitivityCalculator) {
+    this(BP1, curveSensitivityCalculator, false, null);
+  }
+
+  /**
+   * Constructor.
+   * @param shift The shift used for finite difference Gamma using two deltas. Shift be larger in absolute value than 1.0E-10.
+   * @param curveSensitivityCalculator The delta (curve sensitivity) calculator.
+   * @param centralDifference If true, the gamma is the central difference of the deltas with the node bumped up and down;
+   *  if false, it is the forward difference of the delta with the node bumped up and the initial delta.
+   * @param pool The pool used to compute the bumped deltas concurrently. If null, the bumps are computed sequentially.
+   */
+  public CrossGammaMultiCurveCalculator(final double shift,
+      final InstrumentDerivativeVisitor<ParameterProviderInterface, MultipleCurrencyMulticurveSensitivity> curveSensitivityCalculator,
+      final boolean centralDifference, final ForkJoinPool pool) {
     ArgChecker.notNull(curveSensitivityCalculator, "sensitivity calculator");
+    ArgChecker.isTrue(Math.abs(shift) > 1.0E-10, "shift should not be larger in absolute value than 1.0E-10");
     _psc = new ParameterSensitivityParameterCalculator<>(curveSensitivityCalculator);
-    _shift = BP1;
+    _shift = shift;
+    _centralDifference = centralDifference;
+    _pool = pool;
   }
 
   /**
@@ -84,42 +109,15 @@ public class CrossGammaMultiCurveCalculator {
     String[] namesArray = names.toArray(new String[nbCurve]);
     Currency ccy = checkUniqueCurrency(multicurve);
     InterpolatedDoublesCurve[] interpolatedCurves = interpolatedCurves(multicurve, nbCurve, namesArray);
-    // Curves description
-    double[][] y = new double[nbCurve][];
-    double[][] x = new double[nbCurve][];
     int[] nbNode = new int[nbCurve];
     for (int loopcurve = 0; loopcurve < nbCurve; loopcurve++) {
-      y[loopcurve] = interpolatedCurves[loopcurve].getYDataAsPrimitive();
-      x[loopcurve] = interpolatedCurves[loopcurve].getXDataAsPrimitive();
-      nbNode[loopcurve] = x[loopcurve].length;
+      nbNode[loopcurve] = interpolatedCurves[loopcurve].size();
     }
-    // Initial sensitivity
-    MultipleCurrencyParameterSensitivity ps0 = _psc.calculateSensitivity(instrument, multicurve);
-    double[][] ps0Array = sensitivitiesAsArrayOfMatrix(nbCurve, namesArray, ccy, nbNode, ps0);
-    // Bump and recompute for each curve and each point
+    // Bump and recompute for each curve and each point; only the sensitivity to the bumped curve is required.
+    double[][][] gammaArray = gammaRows(instrument, multicurve, namesArray, ccy, interpolatedCurves, nbNode, true);
     HashMap<String, DoubleMatrix2D> result = new HashMap<>();
     for (int loopcurve = 0; loopcurve < nbCurve; loopcurve++) {
-      MultipleCurrencyParameterSensitivity[] psShift = new MultipleCurrencyParameterSensitivity[nbNode[loopcurve]];
-      double[][] gammaArray = new double[nbNode[loopcurve]][nbNode[loopcurve]];
-      for (int loopnode = 0; loopnode < nbNode[loopcurve]; loopnode++) {
-        final double[] yieldBumped = y[loopcurve].clone();
-        yieldBumped[loopnode] += _shift;
-        MulticurveProviderDiscount multicurveBumped = bumpedProvider(multicurve, namesArray[loopcurve],
-            interpolatedCurves[loopcurve].getInterpolator(), x[loopcurve], yieldBumped);
-        psShift[loopnode] = _psc.calculateSensitivity(instrument, multicurveBumped);
-        DoubleMatrix1D sensiCurve = psShift[loopnode].getSensitivity(namesArray[loopcurve], ccy);
-        double[] psShiftArray;
-        if (sensiCurve != null) {
-          psShiftArray = sensiCurve.getData();
-        } else {
-          psShiftArray = new double[nbNode[loopcurve]];
-        }
-        for (int loopnode2 = 0; loopnode2 < nbNode[loopcurve]; loopnode2++) {
-          gammaArray[loopnode][loopnode2] = (psShiftArray[loopnode2] - ps0Array[loopcurve][loopnode2]) / _shift;
-        }
-      }
-      DoubleMatrix2D gammaMat = new DoubleMatrix2D(gammaArray);
-      result.put(namesArray[loopcurve], gammaMat);
+      result.put(namesArray[loopcurve], new DoubleMatrix2D(gammaArray[loopcurve]));
     }
     return result;
   }
@@ -141,47 +139,121 @@ public class CrossGammaMultiCurveCalculator {
     String[] namesArray = names.toArray(new String[nbCurve]);
     Currency ccy = checkUniqueCurrency(multicurve);
     InterpolatedDoublesCurve[] interpolatedCurves = interpolatedCurves(multicurve, nbCurve, namesArray);
-    // Curves description
-    double[][] y = new double[nbCurve][];
-    double[][] x = new double[nbCurve][];
     int[] nbNodeByCurve = new int[nbCurve];
     int nbNodeTotal = 0;
     for (int loopcurve = 0; loopcurve < nbCurve; loopcurve++) {
-      y[loopcurve] = interpolatedCurves[loopcurve].getYDataAsPrimitive();
-      x[loopcurve] = interpolatedCurves[loopcurve].getXDataAsPrimitive();
-      nbNodeByCurve[loopcurve] = x[loopcurve].length;
+      nbNodeByCurve[loopcurve] = interpolatedCurves[loopcurve].size();
       nbNodeTotal += nbNodeByCurve[loopcurve];
     }
-    // Initial sensitivity
-    MultipleCurrencyParameterSensitivity ps0 = _psc.calculateSensitivity(instrument, multicurve);
-    double[][] ps0Array = sensitivitiesAsArrayOfMatrix(nbCurve, namesArray, ccy, nbNodeByCurve, ps0);
     // Bump and recompute for each curve and each point
-    double[][] gammaArray = new double[nbNodeTotal][nbNodeTotal];
+    double[][][] gammaByCurve = gammaRows(instrument, multicurve, namesArray, ccy, interpolatedCurves, nbNodeByCurve, false);
+    double[][] gammaArray = new double[nbNodeTotal][];
     int loopnodetotal = 0;
     for (int loopcurve = 0; loopcurve < nbCurve; loopcurve++) {
-      MultipleCurrencyParameterSensitivity[] psShift = new MultipleCurrencyParameterSensitivity[nbNodeByCurve[loopcurve]];
       for (int loopnode = 0; loopnode < nbNodeByCurve[loopcurve]; loopnode++) {
-        final double[] yieldBumped = y[loopcurve].clone();
+        gammaArray[loopnodetotal++] = gammaByCurve[loopcurve][loopnode];
+      }
+    }
+    return new DoubleMatrix2D(gammaArray);
+  }
+
+  /**
+   * Computes the rows of the gamma matrix, one row for each node of each curve.
+   * @param instrument The instrument.
+   * @param multicurve The multi-curve provider.
+   * @param names The curves names.
+   * @param ccy The currency of the curves.
+   * @param interpolatedCurves The interpolated curves.
+   * @param nbNodeByCurve The number of node for each curve.
+   * @param intraCurve If true, the rows contain only the derivatives of the sensitivity to the bumped curve;
+   *  if false, they contain the derivatives of the sensitivities to all the curves, in the order of the names.
+   * @return The rows, by curve and node.
+   */
+  private double[][][] gammaRows(final InstrumentDerivative instrument, final MulticurveProviderDiscount multicurve, final String[] names,
+      final Currency ccy, final InterpolatedDoublesCurve[] interpolatedCurves, final int[] nbNodeByCurve, final boolean intraCurve) {
+    final int nbCurve = names.length;
+    final int[] firstTask = new int[nbCurve + 1];
+    for (int loopcurve = 0; loopcurve < nbCurve; loopcurve++) {
+      firstTask[loopcurve + 1] = firstTask[loopcurve] + nbNodeByCurve[loopcurve];
+    }
+    final int nbTask = firstTask[nbCurve];
+    // Initial sensitivity, not needed for central difference
+    final double[][] ps0Array = _centralDifference ? null :
+        sensitivitiesAsArrayOfMatrix(nbCurve, names, ccy, nbNodeByCurve, _psc.calculateSensitivity(instrument, multicurve));
+    final double[][][] result = new double[nbCurve][][];
+    for (int loopcurve = 0; loopcurve < nbCurve; loopcurve++) {
+      result[loopcurve] = new double[nbNodeByCurve[loopcurve]][];
+    }
+    final int nbBlock = _pool == null ? 1 : Math.max(1, Math.min(nbTask, _pool.getParallelism()));
+    ForkJoinUtils.forEachIndex(_pool, nbBlock, loopblock -> gammaRowsBlock(instrument, multicurve, names, ccy, interpolatedCurves, nbNodeByCurve,
+        intraCurve, ps0Array, firstTask, (int) ((long) nbTask * loopblock / nbBlock), (int) ((long) nbTask * (loopblock + 1) / nbBlock), result));
+    return result;
+  }
+
+  /**
+   * Computes the gamma rows for a contiguous block of nodes. The nodes are numbered curve by curve.
+   * A single copy of the provider is used for the nodes of a curve in the block: only the bumped curve is replaced for each node.
+   * @param instrument The instrument.
+   * @param multicurve The multi-curve provider.
+   * @param names The curves names.
+   * @param ccy The currency of the curves.
+   * @param interpolatedCurves The interpolated curves.
+   * @param nbNodeByCurve The number of node for each curve.
+   * @param intraCurve Whether only the derivatives of the sensitivity to the bumped curve are required.
+   * @param ps0Array The initial sensitivities, null for central difference.
+   * @param firstTask The index of the first node of each curve in the node numbering.
+   * @param start The first node of the block (included).
+   * @param end The last node of the block (excluded).
+   * @param result The rows, by curve and node, filled for the nodes of the block.
+   */
+  private void gammaRowsBlock(final InstrumentDerivative instrument, final MulticurveProviderDiscount multicurve, final String[] names,
+      final Currency ccy, final InterpolatedDoublesCurve[] interpolatedCurves, final int[] nbNodeByCurve, final boolean intraCurve,
+      final double[][] ps0Array, final int[] firstTask, final int start, final int end, final double[][][] result) {
+    final int nbCurve = names.length;
+    for (int loopcurve = 0; loopcurve < nbCurve; loopcurve++) {
+      final int nodeStart = Math.max(start, firstTask[loopcurve]) - firstTask[loopcurve];
+      final int nodeEnd = Math.min(end, firstTask[loopcurve + 1]) - firstTask[loopcurve];
+      if (nodeStart >= nodeEnd) {
+        continue;
+      }
+      final String name = names[loopcurve];
+      final double[] x = interpolatedCurves[loopcurve].getXDataAsPrimitive();
+      final double[] y = interpolatedCurves[loopcurve].getYDataAsPrimitive();
+      final Set<String> curvesSet = intraCurve ? Collections.singleton(name) : multicurve.getAllNames();
+      final MulticurveProviderDiscount multicurveBumped = multicurve.copy();
+      for (int loopnode = nodeStart; loopnode < nodeEnd; loopnode++) {
+        final double[] yieldBumped = y.clone();
         yieldBumped[loopnode] += _shift;
-        MulticurveProviderDiscount multicurveBumped = bumpedProvider(multicurve, namesArray[loopcurve],
-            interpolatedCurves[loopcurve].getInterpolator(), x[loopcurve], yieldBumped);
-        psShift[loopnode] = _psc.calculateSensitivity(instrument, multicurveBumped);
+        replaceCurve(multicurve, multicurveBumped, name, new YieldCurve(name, new InterpolatedDoublesCurve(x, yieldBumped, interpolatedCurves[loopcurve].getInterpolator(), true)));
+        final double[][] psShiftArray = sensitivitiesAsArrayOfMatrix(nbCurve, names, ccy, nbNodeByCurve,
+            _psc.calculateSensitivity(instrument, multicurveBumped, curvesSet));
+        final double[][] psReferenceArray;
+        final double denominator;
+        if (_centralDifference) {
+          yieldBumped[loopnode] = y[loopnode] - _shift;
+          replaceCurve(multicurve, multicurveBumped, name, new YieldCurve(name, new InterpolatedDoublesCurve(x, yieldBumped, interpolatedCurves[loopcurve].getInterpolator(), true)));
+          psReferenceArray = sensitivitiesAsArrayOfMatrix(nbCurve, names, ccy, nbNodeByCurve, _psc.calculateSensitivity(instrument, multicurveBumped, curvesSet));
+          denominator = 2 * _shift;
+        } else {
+          psReferenceArray = ps0Array;
+          denominator = _shift;
+        }
+        final int firstCurve = intraCurve ? loopcurve : 0;
+        final int lastCurve = intraCurve ? loopcurve + 1 : nbCurve;
+        int rowLength = 0;
+        for (int loopcurve2 = firstCurve; loopcurve2 < lastCurve; loopcurve2++) {
+          rowLength += nbNodeByCurve[loopcurve2];
+        }
+        final double[] row = new double[rowLength];
         int loopnodetotal2 = 0;
-        for (int loopcurve2 = 0; loopcurve2 < nbCurve; loopcurve2++) {
-          DoubleMatrix1D sensiCurve = psShift[loopnode].getSensitivity(namesArray[loopcurve2], ccy);
-          double[] psShiftArray = new double[nbNodeByCurve[loopcurve2]];
-          if (sensiCurve != null) {
-            psShiftArray = sensiCurve.getData();
-          }
+        for (int loopcurve2 = firstCurve; loopcurve2 < lastCurve; loopcurve2++) {
           for (int loopnode2 = 0; loopnode2 < nbNodeByCurve[loopcurve2]; loopnode2++) {
-            gammaArray[loopnodetotal][loopnodetotal2] = (psShiftArray[loopnode2] - ps0Array[loopcurve2][loopnode2]) / _shift;
-            loopnodetotal2++;
+            row[loopnodetotal2++] = (psShiftArray[loopcurve2][loopnode2] - psReferenceArray[loopcurve2][loopnode2]) / denominator;
           }
         }
-        loopnodetotal++;
+        result[loopcurve][loopnode] = row;
       }
     }
-    return new DoubleMatrix2D(gammaArray);
   }
 
   /**
@@ -247,42 +319,26 @@ public class CrossGammaMultiCurveCalculator {
   }
 
   /**
-   * Bump the interpolated curve of a provider.
-   * @param multicurve The current multi-curve. 
-   * @param name The name of the curve to bump.
-   * @param interpolator The interpolator associated to the curve to bump.
-   * @param x The nodes of the interpolated curve.
-   * @param yieldBumped The yield after the bump.
-   * @return The bump curve provider.
+   * Replaces a curve in a copy of a provider, for all the currencies and indexes for which it is used in the initial provider.
+   * @param multicurve The initial multi-curve.
+   * @param multicurveBumped The copy of the multi-curve in which the curve is replaced.
+   * @param name The name of the curve to replace.
+   * @param curveBumped The new curve.
    */
-  private MulticurveProviderDiscount bumpedProvider(final MulticurveProviderDiscount multicurve, String name, Interpolator1D interpolator,
-      double[] x, final double[] yieldBumped) {
-    final YieldAndDiscountCurve curveBumped = new YieldCurve(name,
-        new InterpolatedDoublesCurve(x, yieldBumped, interpolator, true));
-    MulticurveProviderDiscount multicurveBumped = new MulticurveProviderDiscount();
-    multicurveBumped.setForexMatrix(multicurve.getFxRates());
-    for (Currency loopccy : multicurve.getCurrencies()) {
-      if (loopccy.equals(multicurve.getCurrencyForName(name))) {
-        multicurveBumped.setCurve(loopccy, curveBumped);
-      } else {
-        multicurveBumped.setCurve(loopccy, multicurve.getCurve(loopccy));
-      }
+  private static void replaceCurve(final MulticurveProviderDiscount multicurve, final MulticurveProviderDiscount multicurveBumped, final String name,
+      final YieldAndDiscountCurve curveBumped) {
+    final List<Currency> ccys = multicurve.getCurrencyForName(name);
+    for (final Currency loopccy : ccys) {
+      multicurveBumped.replaceCurve(loopccy, curveBumped);
     }
-    for (IborIndex loopibor : multicurve.getIndexesIbor()) {
-      if (loopibor.equals(multicurve.getIborIndexForName(name))) { // REQS-427
-        multicurveBumped.setCurve(loopibor, curveBumped);
-      } else {
-        multicurveBumped.setCurve(loopibor, multicurve.getCurve(loopibor));
-      }
+    final List<IborIndex> iborIndexes = multicurve.getIborIndexForName(name);
+    for (final IborIndex loopibor : iborIndexes) {
+      multicurveBumped.replaceCurve(loopibor, curveBumped);
     }
-    for (IndexON loopon : multicurve.getIndexesON()) {
-      if (loopon.equals(multicurve.getOvernightIndexForName(name))) { // REQS-427
-        multicurveBumped.setCurve(loopon, curveBumped);
-      } else {
-        multicurveBumped.setCurve(loopon, multicurve.getCurve(loopon));
-      }
+    final List<IndexON> onIndexes = multicurve.getOvernightIndexForName(name);
+    for (final IndexON loopon : onIndexes) {
+      multicurveBumped.replaceCurve(loopon, curveBumped);
     }
-    return multicurveBumped;
   }
 
 }
@@ -17,6 +17,7 @@ import com.opengamma.analytics.financial.instrument.index.IndexDeposit;
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorAdapter;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.Annuity;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityCouponFixed;
+import com.opengamma.analytics.financial.interestrate.annuity.provider.AnnuityDiscountingMethod;
 import com.opengamma.analytics.financial.interestrate.cash.derivative.Cash;
 import com.opengamma.analytics.financial.interestrate.cash.derivative.DepositIbor;
 import com.opengamma.analytics.financial.interestrate.cash.provider.CashDiscountingMethod;
@@ -115,6 +116,7 @@ public final class PresentValueDiscountingCalculator extends
   private static final PaymentFixedDiscountingMethod METHOD_PAY_FIXED = PaymentFixedDiscountingMethod.getInstance();
   private static final DepositIborDiscountingMethod METHOD_DEPOSIT_IBOR = DepositIborDiscountingMethod.getInstance();
   private static final CouponFixedDiscountingMethod METHOD_CPN_FIXED = CouponFixedDiscountingMethod.getInstance();
+  private static final AnnuityDiscountingMethod METHOD_ANNUITY = AnnuityDiscountingMethod.getInstance();
   private static final CouponFixedCompoundingDiscountingMethod METHOD_CPN_FIXED_COMPOUNDING =
       CouponFixedCompoundingDiscountingMethod.getInstance();
   private static final CouponFixedFxResetDiscountingMethod METHOD_CPN_FIXED_FXRESET =
@@ -327,6 +329,11 @@ public final class PresentValueDiscountingCalculator extends
     ArgChecker.notNull(annuity, "Annuity");
     ArgChecker.notNull(multicurve, "multicurve");
 
+    if (isCouponIborAnnuity(annuity)) {
+      @SuppressWarnings("unchecked")
+      final Annuity<CouponIbor> annuityIbor = (Annuity<CouponIbor>) annuity;
+      return METHOD_ANNUITY.presentValueCouponIbor(annuityIbor, multicurve.getMulticurveProvider());
+    }
     // TODO - this code previously used a mutable object, so there may be a performance overhead
     return IntStream.range(0, annuity.getNumberOfPayments())
         .mapToObj(i -> annuity.getNthPayment(i).accept(this, multicurve))
@@ -337,7 +344,23 @@ public final class PresentValueDiscountingCalculator extends
   @Override
   public MultiCurrencyAmount visitFixedCouponAnnuity(final AnnuityCouponFixed annuity,
       final ParameterProviderInterface multicurve) {
-    return visitGenericAnnuity(annuity, multicurve);
+    ArgChecker.notNull(annuity, "Annuity");
+    ArgChecker.notNull(multicurve, "multicurve");
+    return METHOD_ANNUITY.presentValue(annuity, multicurve.getMulticurveProvider());
+  }
+
+  /**
+   * Checks if all the payments of an annuity are Ibor coupons, in which case the annuity can be priced in one batch.
+   * @param annuity The annuity.
+   * @return True if all the payments are {@link CouponIbor}.
+   */
+  private static boolean isCouponIborAnnuity(final Annuity<? extends Payment> annuity) {
+    for (int loopcpn = 0; loopcpn < annuity.getNumberOfPayments(); loopcpn++) {
+      if (annuity.getNthPayment(loopcpn).getClass() != CouponIbor.class) {
+        return false;
+      }
+    }
+    return true;
   }
 
   // -----     Swap     ------
@@ -15,6 +15,8 @@ import com.opengamma.strata.collect.tuple.Pair;
 /**
  * Calculator of the present value as a multiple currency amount using cash-flow discounting and forward estimation.
  * Allows multiple instruments to be passed in and the aggregate PV to be calculated.
+ * For large portfolios, or other calculators, see
+ * {@link com.opengamma.analytics.financial.provider.calculator.generic.PortfolioCalculator}.
  */
 public final class PresentValueDiscountingMultipleInstrumentsCalculator extends
     InstrumentDerivativeVisitorSameMethodAdapter<Pair<InstrumentDerivative[], MulticurveProviderInterface>, MultiCurrencyAmount> {
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.calculator.discounting;
+
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorDelegate;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorSameMethodAdapter;
+import com.opengamma.analytics.financial.interestrate.annuity.derivative.Annuity;
+import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityCouponFixed;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponFixed;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIbor;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIborSpread;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponON;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.Payment;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.PaymentFixed;
+import com.opengamma.analytics.financial.interestrate.payments.provider.CouponFixedDiscountingMethod;
+import com.opengamma.analytics.financial.interestrate.payments.provider.CouponIborDiscountingMethod;
+import com.opengamma.analytics.financial.interestrate.payments.provider.CouponIborSpreadDiscountingMethod;
+import com.opengamma.analytics.financial.interestrate.payments.provider.CouponONDiscountingMethod;
+import com.opengamma.analytics.financial.interestrate.payments.provider.PaymentFixedDiscountingMethod;
+import com.opengamma.analytics.financial.interestrate.swap.derivative.Swap;
+import com.opengamma.analytics.financial.interestrate.swap.derivative.SwapFixedCoupon;
+import com.opengamma.analytics.financial.interestrate.swap.derivative.SwapMultileg;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
+import com.opengamma.analytics.financial.provider.description.interestrate.ParameterProviderInterface;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurvePointSensitivity;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Calculator of the present value curve sensitivity as a {@link MulticurvePointSensitivity}.
+ * <p>
+ * Fixed payments, fixed coupons, Ibor coupons (with or without spread) and overnight coupons, and the annuities and swaps made of them,
+ * write their point sensitivities directly in the columns of a single result. The other instruments are computed with
+ * {@link PresentValueCurveSensitivityDiscountingCalculator} and converted.
+ */
+public final class PresentValuePointSensitivityDiscountingCalculator
+    extends InstrumentDerivativeVisitorDelegate<ParameterProviderInterface, MulticurvePointSensitivity> {
+
+  /**
+   * The unique instance of the calculator.
+   */
+  private static final PresentValuePointSensitivityDiscountingCalculator INSTANCE = new PresentValuePointSensitivityDiscountingCalculator();
+
+  /**
+   * Gets the calculator instance.
+   * @return The calculator.
+   */
+  public static PresentValuePointSensitivityDiscountingCalculator getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Constructor.
+   */
+  private PresentValuePointSensitivityDiscountingCalculator() {
+    super(new ObjectFormAdapter());
+  }
+
+  /**
+   * The methods used by the different instruments.
+   */
+  private static final PaymentFixedDiscountingMethod METHOD_PAY_FIXED = PaymentFixedDiscountingMethod.getInstance();
+  private static final CouponFixedDiscountingMethod METHOD_CPN_FIXED = CouponFixedDiscountingMethod.getInstance();
+  private static final CouponIborDiscountingMethod METHOD_CPN_IBOR = CouponIborDiscountingMethod.getInstance();
+  private static final CouponIborSpreadDiscountingMethod METHOD_CPN_IBOR_SPREAD = CouponIborSpreadDiscountingMethod.getInstance();
+  private static final CouponONDiscountingMethod METHOD_CPN_ON = CouponONDiscountingMethod.getInstance();
+  private static final PresentValueCurveSensitivityDiscountingCalculator PVCSDC = PresentValueCurveSensitivityDiscountingCalculator.getInstance();
+
+  /**
+   * Computes the present value curve sensitivity of an instrument and adds it to a point sensitivity.
+   * @param derivative The instrument.
+   * @param multicurve The multi-curve provider.
+   * @param sensitivity The point sensitivity to which the instrument sensitivity is added.
+   */
+  public void presentValueCurveSensitivity(final InstrumentDerivative derivative, final ParameterProviderInterface multicurve,
+      final MulticurvePointSensitivity sensitivity) {
+    ArgChecker.notNull(derivative, "derivative");
+    ArgChecker.notNull(multicurve, "multicurve");
+    ArgChecker.notNull(sensitivity, "sensitivity");
+    final Class<?> type = derivative.getClass();
+    if (type == Annuity.class || type == AnnuityCouponFixed.class) {
+      addAnnuity((Annuity<?>) derivative, multicurve, sensitivity);
+    } else if (type == Swap.class || type == SwapFixedCoupon.class) {
+      presentValueCurveSensitivity(((Swap<?, ?>) derivative).getFirstLeg(), multicurve, sensitivity);
+      presentValueCurveSensitivity(((Swap<?, ?>) derivative).getSecondLeg(), multicurve, sensitivity);
+    } else if (type == SwapMultileg.class) {
+      for (final Annuity<?> leg : ((SwapMultileg) derivative).getLegs()) {
+        presentValueCurveSensitivity(leg, multicurve, sensitivity);
+      }
+    } else if (!addPayment(derivative, multicurve.getMulticurveProvider(), sensitivity)) {
+      sensitivity.add(derivative.accept(PVCSDC, multicurve));
+    }
+  }
+
+  /**
+   * Adds the sensitivity of each payment of an annuity to a point sensitivity.
+   * @param annuity The annuity.
+   * @param multicurve The multi-curve provider.
+   * @param sensitivity The point sensitivity.
+   */
+  private static void addAnnuity(final Annuity<?> annuity, final ParameterProviderInterface multicurve, final MulticurvePointSensitivity sensitivity) {
+    final MulticurveProviderInterface provider = multicurve.getMulticurveProvider();
+    for (int loopp = 0; loopp < annuity.getNumberOfPayments(); loopp++) {
+      final Payment payment = annuity.getNthPayment(loopp);
+      if (!addPayment(payment, provider, sensitivity)) {
+        sensitivity.add(payment.accept(PVCSDC, multicurve));
+      }
+    }
+  }
+
+  /**
+   * Adds the sensitivity of a payment to a point sensitivity when the payment is of one of the types written directly in the columns.
+   * The exact classes are tested, as the subclasses may be priced differently.
+   * @param derivative The instrument.
+   * @param provider The multi-curve provider.
+   * @param sensitivity The point sensitivity.
+   * @return True if the sensitivity has been added, false if the instrument type is not one of the direct types.
+   */
+  private static boolean addPayment(final InstrumentDerivative derivative, final MulticurveProviderInterface provider,
+      final MulticurvePointSensitivity sensitivity) {
+    final Class<?> type = derivative.getClass();
+    if (type == CouponFixed.class) {
+      METHOD_CPN_FIXED.presentValueCurveSensitivity((CouponFixed) derivative, provider, sensitivity);
+    } else if (type == CouponIbor.class) {
+      METHOD_CPN_IBOR.presentValueCurveSensitivity((CouponIbor) derivative, provider, sensitivity);
+    } else if (type == CouponIborSpread.class) {
+      METHOD_CPN_IBOR_SPREAD.presentValueCurveSensitivity((CouponIborSpread) derivative, provider, sensitivity);
+    } else if (type == CouponON.class) {
+      METHOD_CPN_ON.presentValueCurveSensitivity((CouponON) derivative, provider, sensitivity);
+    } else if (type == PaymentFixed.class) {
+      METHOD_PAY_FIXED.presentValueCurveSensitivity((PaymentFixed) derivative, provider, sensitivity);
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  private static MulticurvePointSensitivity compute(final InstrumentDerivative derivative, final ParameterProviderInterface multicurve) {
+    final MulticurvePointSensitivity result = new MulticurvePointSensitivity();
+    INSTANCE.presentValueCurveSensitivity(derivative, multicurve, result);
+    return result;
+  }
+
+  // -----     Payment/Coupon     ------
+
+  @Override
+  public MulticurvePointSensitivity visitFixedPayment(final PaymentFixed payment, final ParameterProviderInterface multicurve) {
+    return compute(payment, multicurve);
+  }
+
+  @Override
+  public MulticurvePointSensitivity visitCouponFixed(final CouponFixed payment, final ParameterProviderInterface multicurve) {
+    return compute(payment, multicurve);
+  }
+
+  @Override
+  public MulticurvePointSensitivity visitCouponIbor(final CouponIbor payment, final ParameterProviderInterface multicurve) {
+    return compute(payment, multicurve);
+  }
+
+  @Override
+  public MulticurvePointSensitivity visitCouponIborSpread(final CouponIborSpread payment, final ParameterProviderInterface multicurve) {
+    return compute(payment, multicurve);
+  }
+
+  @Override
+  public MulticurvePointSensitivity visitCouponOIS(final CouponON payment, final ParameterProviderInterface multicurve) {
+    return compute(payment, multicurve);
+  }
+
+  // -----     Annuity     ------
+
+  @Override
+  public MulticurvePointSensitivity visitGenericAnnuity(final Annuity<? extends Payment> annuity, final ParameterProviderInterface multicurve) {
+    return compute(annuity, multicurve);
+  }
+
+  @Override
+  public MulticurvePointSensitivity visitFixedCouponAnnuity(final AnnuityCouponFixed annuity, final ParameterProviderInterface multicurve) {
+    return compute(annuity, multicurve);
+  }
+
+  // -----     Swap     ------
+
+  @Override
+  public MulticurvePointSensitivity visitSwap(final Swap<?, ?> swap, final ParameterProviderInterface multicurve) {
+    return compute(swap, multicurve);
+  }
+
+  @Override
+  public MulticurvePointSensitivity visitFixedCouponSwap(final SwapFixedCoupon<?> swap, final ParameterProviderInterface multicurve) {
+    return compute(swap, multicurve);
+  }
+
+  @Override
+  public MulticurvePointSensitivity visitSwapMultileg(final SwapMultileg swap, final ParameterProviderInterface multicurve) {
+    return compute(swap, multicurve);
+  }
+
+  /**
+   * Adapter computing the sensitivity of the instruments without a direct implementation in the object form and converting it.
+   */
+  private static final class ObjectFormAdapter extends InstrumentDerivativeVisitorSameMethodAdapter<ParameterProviderInterface, MulticurvePointSensitivity> {
+
+    @Override
+    public MulticurvePointSensitivity visit(final InstrumentDerivative derivative) {
+      throw new UnsupportedOperationException("Need a multi-curve provider to compute the point sensitivity of " + derivative.getClass().getSimpleName());
+    }
+
+    @Override
+    public MulticurvePointSensitivity visit(final InstrumentDerivative derivative, final ParameterProviderInterface multicurve) {
+      return MulticurvePointSensitivity.of(derivative.accept(PVCSDC, multicurve));
+    }
+  }
+
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.calculator.generic;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitor;
+import com.opengamma.analytics.util.ForkJoinUtils;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Applies an instrument calculator to each instrument of a portfolio and aggregates the results.
+ * <p>
+ * The calculator is any {@link InstrumentDerivativeVisitor}, for example the present value or the present value curve
+ * sensitivity calculators, and the reducer combines two results, for example {@code MultiCurrencyAmount::plus},
+ * {@code MultipleCurrencyMulticurveSensitivity::plus} or {@code MultipleCurrencyParameterSensitivity::plus}.
+ * The calculator and the data must be safe for concurrent use, which is the case of the stateless calculators
+ * and of the providers which are not modified during the computation.
+ * <p>
+ * The portfolio is split in chunks of consecutive instruments. Each chunk is priced and reduced in order into its own
+ * accumulator, and the chunk accumulators are then reduced in order. When a {@link ForkJoinPool} is provided, the chunks are
+ * distributed on the pool by work-stealing; the threads share no accumulator. As the chunks do not depend on the pool,
+ * the results are identical with and without the pool and for any parallelism.
+ *
+ * @param <DATA_TYPE> The type of the data used by the calculator.
+ * @param <RESULT_TYPE> The type of the results.
+ */
+public final class PortfolioCalculator<DATA_TYPE, RESULT_TYPE> {
+
+  /**
+   * The default number of instruments in a chunk.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 64;
+
+  /**
+   * The calculator applied to each instrument.
+   */
+  private final InstrumentDerivativeVisitor<DATA_TYPE, RESULT_TYPE> _calculator;
+  /**
+   * The function combining two results.
+   */
+  private final BinaryOperator<RESULT_TYPE> _reducer;
+  /**
+   * The number of instruments in a chunk.
+   */
+  private final int _chunkSize;
+  /**
+   * The pool on which the chunks are computed, null for a sequential computation.
+   */
+  private final ForkJoinPool _pool;
+
+  /**
+   * Constructor of a sequential calculator with the default chunk size.
+   * @param calculator The calculator applied to each instrument, not null
+   * @param reducer The function combining two results, not null
+   */
+  public PortfolioCalculator(final InstrumentDerivativeVisitor<DATA_TYPE, RESULT_TYPE> calculator, final BinaryOperator<RESULT_TYPE> reducer) {
+    this(calculator, reducer, DEFAULT_CHUNK_SIZE, null);
+  }
+
+  /**
+   * Constructor with the default chunk size.
+   * @param calculator The calculator applied to each instrument, not null
+   * @param reducer The function combining two results, not null
+   * @param pool The pool on which the chunks are computed, null for a sequential computation
+   */
+  public PortfolioCalculator(final InstrumentDerivativeVisitor<DATA_TYPE, RESULT_TYPE> calculator, final BinaryOperator<RESULT_TYPE> reducer,
+      final ForkJoinPool pool) {
+    this(calculator, reducer, DEFAULT_CHUNK_SIZE, pool);
+  }
+
+  /**
+   * Constructor.
+   * @param calculator The calculator applied to each instrument, not null
+   * @param reducer The function combining two results, not null
+   * @param chunkSize The number of instruments in a chunk, positive
+   * @param pool The pool on which the chunks are computed, null for a sequential computation
+   */
+  public PortfolioCalculator(final InstrumentDerivativeVisitor<DATA_TYPE, RESULT_TYPE> calculator, final BinaryOperator<RESULT_TYPE> reducer,
+      final int chunkSize, final ForkJoinPool pool) {
+    ArgChecker.notNull(calculator, "calculator");
+    ArgChecker.notNull(reducer, "reducer");
+    ArgChecker.isTrue(chunkSize > 0, "chunk size should be positive");
+    _calculator = calculator;
+    _reducer = reducer;
+    _chunkSize = chunkSize;
+    _pool = pool;
+  }
+
+  /**
+   * Computes the result of each instrument of the portfolio and their aggregate.
+   * @param portfolio The instruments, not null or empty
+   * @param data The data used by the calculator
+   * @return The instrument results, in the order of the portfolio, and the aggregated result.
+   */
+  public PortfolioResult<RESULT_TYPE> calculate(final InstrumentDerivative[] portfolio, final DATA_TYPE data) {
+    ArgChecker.noNulls(portfolio, "portfolio");
+    ArgChecker.isTrue(portfolio.length > 0, "portfolio should not be empty");
+    final Object[] results = new Object[portfolio.length];
+    final RESULT_TYPE aggregate = compute(portfolio, data, results);
+    @SuppressWarnings("unchecked")
+    final List<RESULT_TYPE> resultList = (List<RESULT_TYPE>) Collections.unmodifiableList(Arrays.asList(results));
+    return new PortfolioResult<>(resultList, aggregate);
+  }
+
+  /**
+   * Computes the aggregated result of the instruments of the portfolio, without keeping the instrument results.
+   * @param portfolio The instruments, not null or empty
+   * @param data The data used by the calculator
+   * @return The aggregated result.
+   */
+  public RESULT_TYPE aggregate(final InstrumentDerivative[] portfolio, final DATA_TYPE data) {
+    ArgChecker.noNulls(portfolio, "portfolio");
+    ArgChecker.isTrue(portfolio.length > 0, "portfolio should not be empty");
+    return compute(portfolio, data, null);
+  }
+
+  private RESULT_TYPE compute(final InstrumentDerivative[] portfolio, final DATA_TYPE data, final Object[] results) {
+    final int nbChunk = (portfolio.length + _chunkSize - 1) / _chunkSize;
+    final Object[] chunkResults = new Object[nbChunk];
+    ForkJoinUtils.forEachIndex(_pool, nbChunk, loopchunk -> chunkResults[loopchunk] = computeChunk(portfolio, data, loopchunk, results));
+    RESULT_TYPE aggregate = result(chunkResults[0]);
+    for (int loopchunk = 1; loopchunk < nbChunk; loopchunk++) {
+      aggregate = _reducer.apply(aggregate, result(chunkResults[loopchunk]));
+    }
+    return aggregate;
+  }
+
+  /**
+   * Computes and reduces the instruments of one chunk, storing the instrument results if required.
+   */
+  private RESULT_TYPE computeChunk(final InstrumentDerivative[] portfolio, final DATA_TYPE data, final int chunk, final Object[] results) {
+    final int start = chunk * _chunkSize;
+    final int end = Math.min(start + _chunkSize, portfolio.length);
+    RESULT_TYPE accumulator = null;
+    for (int loopins = start; loopins < end; loopins++) {
+      final RESULT_TYPE result = portfolio[loopins].accept(_calculator, data);
+      if (results != null) {
+        results[loopins] = result;
+      }
+      accumulator = loopins == start ? result : _reducer.apply(accumulator, result);
+    }
+    return accumulator;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T result(final Object result) {
+    return (T) result;
+  }
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.calculator.generic;
+
+import java.util.List;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The results of a calculator for each instrument of a portfolio and their aggregate, as computed by {@link PortfolioCalculator}.
+ *
+ * @param <RESULT_TYPE> The type of the results.
+ */
+public final class PortfolioResult<RESULT_TYPE> {
+
+  /**
+   * The instrument results, in the order of the portfolio.
+   */
+  private final List<RESULT_TYPE> _instrumentResults;
+  /**
+   * The aggregated result.
+   */
+  private final RESULT_TYPE _aggregate;
+
+  /**
+   * Constructor.
+   * @param instrumentResults The instrument results, in the order of the portfolio, not null
+   * @param aggregate The aggregated result
+   */
+  public PortfolioResult(final List<RESULT_TYPE> instrumentResults, final RESULT_TYPE aggregate) {
+    ArgChecker.notNull(instrumentResults, "instrument results");
+    _instrumentResults = instrumentResults;
+    _aggregate = aggregate;
+  }
+
+  /**
+   * Gets the instrument results.
+   * @return The results, in the order of the portfolio.
+   */
+  public List<RESULT_TYPE> getInstrumentResults() {
+    return _instrumentResults;
+  }
+
+  /**
+   * Gets the aggregated result.
+   * @return The result.
+   */
+  public RESULT_TYPE getAggregate() {
+    return _aggregate;
+  }
+
+}
@@ -6,14 +6,17 @@
 package com.opengamma.analytics.financial.provider.curve.multicurve;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import com.google.common.collect.Multimap;
 import com.opengamma.analytics.financial.curve.interestrate.generator.GeneratorYDCurve;
@@ -21,6 +24,7 @@ import com.opengamma.analytics.financial.instrument.index.IborIndex;
 import com.opengamma.analytics.financial.instrument.index.IndexON;
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitor;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
 import com.opengamma.analytics.financial.provider.curve.CurveBuildingBlock;
 import com.opengamma.analytics.financial.provider.curve.CurveBuildingBlockBundle;
 import com.opengamma.analytics.financial.provider.curve.MultiCurveBundle;
@@ -67,6 +71,15 @@ public class MulticurveDiscountBuildingRepository {
    */
   private static final MatrixAlgebra MATRIX_ALGEBRA = new CommonsMatrixAlgebra();
 
+  /**
+   * The pool on which the independent units are calibrated. Null if the units are calibrated one after the other.
+   */
+  private final ForkJoinPool _unitPool;
+  /**
+   * The pool on which the rows of the Jacobian are computed in the root finding. Null if the rows are computed one after the other.
+   */
+  private final ForkJoinPool _jacobianPool;
+
   /**
    * Constructor.
    * @param toleranceAbs The absolute tolerance for the root finder.
@@ -74,9 +87,42 @@ public class MulticurveDiscountBuildingRepository {
    * @param stepMaximum The maximum number of step for the root finder.
    */
   public MulticurveDiscountBuildingRepository(final double toleranceAbs, final double toleranceRel, final int stepMaximum) {
+    this(toleranceAbs, toleranceRel, stepMaximum, null);
+  }
+
+  /**
+   * Constructor with a pool for the calibration of independent units.
+   * <p>
+   * When a pool is provided, the dependencies between the units are computed from the known data and the calibration instruments.
+   * The units which do not depend on each other are calibrated concurrently on the pool. The curves and the CurveBuildingBlockBundle
+   * are merged at the end in the order of the units; the result is the same as the one of the sequential calibration.
+   * @param toleranceAbs The absolute tolerance for the root finder.
+   * @param toleranceRel The relative tolerance for the root finder.
+   * @param stepMaximum The maximum number of step for the root finder.
+   * @param unitPool The pool on which the independent units are calibrated. If null, the units are calibrated sequentially.
+   */
+  public MulticurveDiscountBuildingRepository(final double toleranceAbs, final double toleranceRel, final int stepMaximum, final ForkJoinPool unitPool) {
+    this(toleranceAbs, toleranceRel, stepMaximum, unitPool, null);
+  }
+
+  /**
+   * Constructor with a pool for the calibration of independent units and a pool for the computation of the Jacobians.
+   * <p>
+   * When a Jacobian pool is provided, the rows of the Jacobian used in the root finding (one row by instrument) are computed concurrently
+   * and written directly in the Jacobian array. The two pools can be the same.
+   * @param toleranceAbs The absolute tolerance for the root finder.
+   * @param toleranceRel The relative tolerance for the root finder.
+   * @param stepMaximum The maximum number of step for the root finder.
+   * @param unitPool The pool on which the independent units are calibrated. If null, the units are calibrated sequentially.
+   * @param jacobianPool The pool on which the rows of the Jacobian are computed. If null, the rows are computed sequentially.
+   */
+  public MulticurveDiscountBuildingRepository(final double toleranceAbs, final double toleranceRel, final int stepMaximum,
+      final ForkJoinPool unitPool, final ForkJoinPool jacobianPool) {
     _toleranceAbs = toleranceAbs;
     _toleranceRel = toleranceRel;
     _stepMaximum = stepMaximum;
+    _unitPool = unitPool;
+    _jacobianPool = jacobianPool;
     _rootFinder = new BroydenVectorRootFinder(_toleranceAbs, _toleranceRel, _stepMaximum,
         DecompositionFactory.getDecomposition(DecompositionFactory.SV_COMMONS_NAME));
     // TODO: [PLAT-5761] make the root finder flexible.
@@ -106,12 +152,168 @@ public class MulticurveDiscountBuildingRepository {
     final MulticurveDiscountBuildingData data = new MulticurveDiscountBuildingData(instruments, generator);
     final Function1D<DoubleMatrix1D, DoubleMatrix1D> curveCalculator = new MulticurveDiscountFinderFunction(calculator, data);
     final Function1D<DoubleMatrix1D, DoubleMatrix2D> jacobianCalculator = new MulticurveDiscountFinderJacobian(
-        new ParameterSensitivityMulticurveUnderlyingMatrixCalculator(sensitivityCalculator), data);
+        new ParameterSensitivityMulticurveUnderlyingMatrixCalculator(sensitivityCalculator), data, _jacobianPool);
     final double[] parameters = _rootFinder.getRoot(curveCalculator, jacobianCalculator, new DoubleMatrix1D(initGuess)).getData();
     final MulticurveProviderDiscount newCurves = data.getGeneratorMarket().evaluate(new DoubleMatrix1D(parameters));
     return newCurves;
   }
 
+  /**
+   * Calibrates the units on the pool, each unit as soon as all the units it depends on are calibrated.
+   * @param instrumentsUnits The instruments used for the calibration of each unit.
+   * @param parametersGuessUnits The initial parameters guess for each unit.
+   * @param generatorsUnits The generators map of each unit.
+   * @param knownData The known data (fx rates, other curves, model parameters, ...)
+   * @param discountingMap The discounting curves names map.
+   * @param forwardIborMap The forward curves names map.
+   * @param forwardONMap The forward curves names map.
+   * @param calculator The calculator of the value on which the calibration is done.
+   * @param sensitivityCalculator The parameter sensitivity calculator.
+   * @return For each unit, the known data with the curves of the unit and of the units it depends on.
+   */
+  private MulticurveProviderDiscount[] makeUnitsByDependency(final InstrumentDerivative[][] instrumentsUnits, final double[][] parametersGuessUnits,
+      final List<LinkedHashMap<String, GeneratorYDCurve>> generatorsUnits, final MulticurveProviderDiscount knownData,
+      final LinkedHashMap<String, Currency> discountingMap, final LinkedHashMap<String, IborIndex[]> forwardIborMap,
+      final LinkedHashMap<String, IndexON[]> forwardONMap, final InstrumentDerivativeVisitor<ParameterProviderInterface, Double> calculator,
+      final InstrumentDerivativeVisitor<ParameterProviderInterface, MulticurveSensitivity> sensitivityCalculator) {
+    final int nbUnits = instrumentsUnits.length;
+    final int[][] dependencies = unitDependencies(instrumentsUnits, parametersGuessUnits, generatorsUnits, knownData,
+        discountingMap, forwardIborMap, forwardONMap, sensitivityCalculator);
+    // The level of a unit is one more than the highest level of the units it depends on. The units of a level are independent.
+    final int[] level = new int[nbUnits];
+    int nbLevels = 0;
+    for (int iUnits = 0; iUnits < nbUnits; iUnits++) {
+      for (final int dependency : dependencies[iUnits]) {
+        level[iUnits] = Math.max(level[iUnits], level[dependency] + 1);
+      }
+      nbLevels = Math.max(nbLevels, level[iUnits] + 1);
+    }
+    final MulticurveProviderDiscount[] curvesUnits = new MulticurveProviderDiscount[nbUnits];
+    for (int loopl = 0; loopl < nbLevels; loopl++) {
+      final List<Integer> unitsLevel = new ArrayList<>();
+      final List<ForkJoinTask<MulticurveProviderDiscount>> tasks = new ArrayList<>();
+      for (int iUnits = 0; iUnits < nbUnits; iUnits++) {
+        if (level[iUnits] == loopl) {
+          final MulticurveProviderDiscount unitKnownData = knownData.copy();
+          for (final int dependency : dependencies[iUnits]) {
+            unitKnownData.setAll(curvesUnits[dependency]);
+          }
+          final int unit = iUnits;
+          unitsLevel.add(unit);
+          tasks.add(_unitPool.submit(() -> makeUnit(instrumentsUnits[unit], parametersGuessUnits[unit], unitKnownData,
+              discountingMap, forwardIborMap, forwardONMap, generatorsUnits.get(unit), calculator, sensitivityCalculator)));
+        }
+      }
+      for (int loopt = 0; loopt < tasks.size(); loopt++) {
+        curvesUnits[unitsLevel.get(loopt)] = tasks.get(loopt).join();
+      }
+    }
+    return curvesUnits;
+  }
+
+  /**
+   * Computes the units on which each unit depends.
+   * <p>
+   * The curves of all the units are generated from the initial guesses, in the order of the units. A unit depends on an
+   * earlier unit if one of its instruments is sensitive to a curve of the earlier unit, directly or through the underlying
+   * curves, or if one of its curves is built on a curve of the earlier unit.
+   * @param instrumentsUnits The instruments used for the calibration of each unit.
+   * @param parametersGuessUnits The initial parameters guess for each unit.
+   * @param generatorsUnits The generators map of each unit.
+   * @param knownData The known data (fx rates, other curves, model parameters, ...)
+   * @param discountingMap The discounting curves names map.
+   * @param forwardIborMap The forward curves names map.
+   * @param forwardONMap The forward curves names map.
+   * @param sensitivityCalculator The parameter sensitivity calculator.
+   * @return For each unit, the indexes of the (earlier) units on which it depends.
+   */
+  private static int[][] unitDependencies(final InstrumentDerivative[][] instrumentsUnits, final double[][] parametersGuessUnits,
+      final List<LinkedHashMap<String, GeneratorYDCurve>> generatorsUnits, final MulticurveProviderDiscount knownData,
+      final LinkedHashMap<String, Currency> discountingMap, final LinkedHashMap<String, IborIndex[]> forwardIborMap,
+      final LinkedHashMap<String, IndexON[]> forwardONMap,
+      final InstrumentDerivativeVisitor<ParameterProviderInterface, MulticurveSensitivity> sensitivityCalculator) {
+    final int nbUnits = instrumentsUnits.length;
+    final int[][] dependencies = new int[nbUnits][];
+    final Map<String, Integer> unitByCurve = new HashMap<>();
+    MulticurveProviderDiscount guessCurves = knownData.copy();
+    for (int iUnits = 0; iUnits < nbUnits; iUnits++) {
+      final LinkedHashMap<String, GeneratorYDCurve> gen = generatorsUnits.get(iUnits);
+      guessCurves = new GeneratorMulticurveProviderDiscount(guessCurves, discountingMap, forwardIborMap, forwardONMap, gen)
+          .evaluate(new DoubleMatrix1D(parametersGuessUnits[iUnits]));
+      final Set<String> names = new LinkedHashSet<>(gen.keySet());
+      for (final InstrumentDerivative instrument : instrumentsUnits[iUnits]) {
+        final MulticurveSensitivity sensitivity = instrument.accept(sensitivityCalculator, guessCurves);
+        names.addAll(sensitivity.getYieldDiscountingSensitivities().keySet());
+        names.addAll(sensitivity.getForwardSensitivities().keySet());
+      }
+      final Set<Integer> unitDependencies = new TreeSet<>();
+      final List<String> namesToCheck = new ArrayList<>(names);
+      while (!namesToCheck.isEmpty()) {
+        final String name = namesToCheck.remove(namesToCheck.size() - 1);
+        final Integer unit = unitByCurve.get(name);
+        if (unit != null) {
+          unitDependencies.add(unit);
+        }
+        final YieldAndDiscountCurve curve = guessCurves.getCurve(name);
+        if (curve != null) {
+          for (final String underlying : curve.getUnderlyingCurvesNames()) {
+            if (names.add(underlying)) {
+              namesToCheck.add(underlying);
+            }
+          }
+        }
+      }
+      dependencies[iUnits] = new int[unitDependencies.size()];
+      int loopd = 0;
+      for (final Integer unit : unitDependencies) {
+        dependencies[iUnits][loopd++] = unit;
+      }
+      for (final String name : gen.keySet()) {
+        unitByCurve.put(name, iUnits);
+      }
+    }
+    return dependencies;
+  }
+
+  /**
+   * Extracts, for each unit, the calibration instruments, the initial guess and the final generators.
+   * @param curveBundles The bundles of curve data used in construction.
+   * @param instrumentsUnits The array filled with the instruments of each unit.
+   * @param parametersGuessUnits The array filled with the initial parameters guess of each unit.
+   * @param generatorsUnits The list filled with the generators map of each unit.
+   */
+  private static void prepareUnits(final MultiCurveBundle<GeneratorYDCurve>[] curveBundles, final InstrumentDerivative[][] instrumentsUnits,
+      final double[][] parametersGuessUnits, final List<LinkedHashMap<String, GeneratorYDCurve>> generatorsUnits) {
+    final int nbUnits = curveBundles.length;
+    for (int iUnits = 0; iUnits < nbUnits; iUnits++) {
+      final MultiCurveBundle<GeneratorYDCurve> curveBundle = curveBundles[iUnits];
+      final int nbCurve = curveBundle.size();
+      final int[] startCurve = new int[nbCurve]; // First parameter index of the curve in the unit.
+      final LinkedHashMap<String, GeneratorYDCurve> gen = new LinkedHashMap<>();
+      final int[] nbIns = new int[nbCurve];
+      int nbInsUnit = 0; // Number of instruments in the unit.
+      for (int iCurve = 0; iCurve < nbCurve; iCurve++) {
+        final SingleCurveBundle<GeneratorYDCurve> singleCurve = curveBundle.getCurveBundle(iCurve);
+        startCurve[iCurve] = nbInsUnit;
+        nbIns[iCurve] = singleCurve.size();
+        nbInsUnit += nbIns[iCurve];
+      }
+      final InstrumentDerivative[] instrumentsUnit = new InstrumentDerivative[nbInsUnit];
+      final double[] parametersGuess = new double[nbInsUnit];
+      for (int iCurve = 0; iCurve < nbCurve; iCurve++) {
+        final SingleCurveBundle<GeneratorYDCurve> singleCurve = curveBundle.getCurveBundle(iCurve);
+        final InstrumentDerivative[] derivatives = singleCurve.getDerivatives();
+        System.arraycopy(derivatives, 0, instrumentsUnit, startCurve[iCurve], nbIns[iCurve]);
+        System.arraycopy(singleCurve.getStartingPoint(), 0, parametersGuess, startCurve[iCurve], nbIns[iCurve]);
+        final GeneratorYDCurve tmp = singleCurve.getCurveGenerator().finalGenerator(derivatives);
+        gen.put(singleCurve.getCurveName(), tmp);
+      }
+      instrumentsUnits[iUnits] = instrumentsUnit;
+      parametersGuessUnits[iUnits] = parametersGuess;
+      generatorsUnits.add(gen);
+    }
+  }
+
   /**
    * Construct the CurveBuildingBlock associated to all the curve built so far and updates the CurveBuildingBlockBundle.
    * @param instruments The instruments used for the block calibration.
@@ -348,47 +550,266 @@ public class MulticurveDiscountBuildingRepository {
     ArgChecker.notNull(calculator, "calculator");
     ArgChecker.notNull(sensitivityCalculator, "sensitivity calculator");
     final int nbUnits = curveBundles.length;
-    MulticurveProviderDiscount knownSoFarData = knownData.copy();
+    final InstrumentDerivative[][] instrumentsUnits = new InstrumentDerivative[nbUnits][];
+    final double[][] parametersGuessUnits = new double[nbUnits][];
+    final List<LinkedHashMap<String, GeneratorYDCurve>> generatorsUnits = new ArrayList<>(nbUnits);
+    prepareUnits(curveBundles, instrumentsUnits, parametersGuessUnits, generatorsUnits);
+    final MulticurveProviderDiscount[] curvesUnits;
+    if (_unitPool == null) {
+      curvesUnits = new MulticurveProviderDiscount[nbUnits];
+      MulticurveProviderDiscount knownSoFarData = knownData.copy();
+      for (int iUnits = 0; iUnits < nbUnits; iUnits++) {
+        knownSoFarData = makeUnit(instrumentsUnits[iUnits], parametersGuessUnits[iUnits], knownSoFarData,
+            discountingMap, forwardIborMap, forwardONMap, generatorsUnits.get(iUnits), calculator, sensitivityCalculator);
+        curvesUnits[iUnits] = knownSoFarData;
+      }
+    } else {
+      curvesUnits = makeUnitsByDependency(instrumentsUnits, parametersGuessUnits, generatorsUnits, knownData,
+          discountingMap, forwardIborMap, forwardONMap, calculator, sensitivityCalculator);
+    }
+    // Implementation note: the units are merged in their original order, the result does not depend on the order of the calibration.
+    final MulticurveProviderDiscount knownSoFarData = knownData.copy();
     final CurveBuildingBlockBundle totalBundle = new CurveBuildingBlockBundle();
     totalBundle.addAll(knownBlockBundle);
+    for (int iUnits = 0; iUnits < nbUnits; iUnits++) {
+      knownSoFarData.setAll(curvesUnits[iUnits]);
+      updateBlockBundle(instrumentsUnits[iUnits], knownSoFarData, curveBundles[iUnits].getNames(), totalBundle, sensitivityCalculator);
+    }
+    return Pair.of(knownSoFarData, totalBundle);
+  }
 
-    final List<InstrumentDerivative> instrumentsSoFar = new ArrayList<>();
-    final LinkedHashMap<String, GeneratorYDCurve> generatorsSoFar = new LinkedHashMap<>();
-    final LinkedHashMap<String, Pair<Integer, Integer>> unitMap = new LinkedHashMap<>();
-    int startUnit = 0;
+  /**
+   * Recalibrates a set of curves after a change of some market quotes, starting from the previously calibrated curves.
+   * <p>
+   * The curve bundles are the ones used for the previous calibration, with the instruments built from the new market quotes.
+   * The values of the instruments (computed by the calculator) are first computed with the previous curves of each unit and
+   * the curves of the units before it; a unit for which those values are within the absolute tolerance is not recalibrated.
+   * As the values are computed with the updated curves of the units before, only the units which depend on a changed quote are recalibrated.
+   * <p>
+   * For the units to recalibrate, a first-order update of the parameters is computed with the inverse Jacobian matrices stored in the previous
+   * CurveBuildingBlockBundle. If the values with the updated parameters are not within the absolute tolerance, the root finder is run starting
+   * from the updated parameters. If the parameters of the previous curves can not be obtained from the generators, the root finder is run
+   * starting from the initial guess of the curve bundles. If the previous CurveBuildingBlockBundle does not contain the blocks of a unit,
+   * the root finder is run starting from the previous parameters and the blocks of the unit are recomputed.
+   * @param curveBundles The bundles of curve data used in construction, with the instruments built from the new market quotes.
+   * @param previousCurves The curves obtained by the previous calibration (including the known data).
+   * @param previousBlockBundle The CurveBuildingBlockBundle obtained by the previous calibration.
+   * @param knownData The known data (fx rates, other curves, model parameters, ...)
+   * @param knownBlockBundle The already build CurveBuildingBlockBundle.
+   * @param discountingMap The discounting curves names map.
+   * @param forwardIborMap The forward curves names map.
+   * @param forwardONMap The forward curves names map.
+   * @param calculator The calculator of the value on which the calibration is done (usually ParSpreadMarketQuoteCalculator (recommended) or converted present value).
+   * @param sensitivityCalculator The parameter sensitivity calculator.
+   * @return A pair with the calibrated yield curve bundle (including the known data) and the CurveBuildingBlockBundle with the relevant inverse Jacobian Matrix.
+   */
+  public Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> updateCurvesFromDerivatives(final MultiCurveBundle<GeneratorYDCurve>[] curveBundles,
+      final MulticurveProviderDiscount previousCurves, final CurveBuildingBlockBundle previousBlockBundle,
+      final MulticurveProviderDiscount knownData, final CurveBuildingBlockBundle knownBlockBundle,
+      final LinkedHashMap<String, Currency> discountingMap, final LinkedHashMap<String, IborIndex[]> forwardIborMap, final LinkedHashMap<String, IndexON[]> forwardONMap,
+      final InstrumentDerivativeVisitor<ParameterProviderInterface, Double> calculator,
+      final InstrumentDerivativeVisitor<ParameterProviderInterface, MulticurveSensitivity> sensitivityCalculator) {
+    ArgChecker.notNull(curveBundles, "curve bundles");
+    ArgChecker.notNull(previousCurves, "previous curves");
+    ArgChecker.notNull(previousBlockBundle, "previous block bundle");
+    ArgChecker.notNull(knownData, "known data");
+    ArgChecker.notNull(knownBlockBundle, "known block bundle");
+    ArgChecker.notNull(discountingMap, "discounting map");
+    ArgChecker.notNull(forwardIborMap, "forward ibor map");
+    ArgChecker.notNull(forwardONMap, "forward overnight map");
+    ArgChecker.notNull(calculator, "calculator");
+    ArgChecker.notNull(sensitivityCalculator, "sensitivity calculator");
+    final int nbUnits = curveBundles.length;
+    final InstrumentDerivative[][] instrumentsUnits = new InstrumentDerivative[nbUnits][];
+    final double[][] parametersGuessUnits = new double[nbUnits][];
+    final List<LinkedHashMap<String, GeneratorYDCurve>> generatorsUnits = new ArrayList<>(nbUnits);
+    prepareUnits(curveBundles, instrumentsUnits, parametersGuessUnits, generatorsUnits);
+    final MulticurveProviderDiscount knownSoFarData = knownData.copy();
+    final CurveBuildingBlockBundle totalBundle = new CurveBuildingBlockBundle();
+    totalBundle.addAll(knownBlockBundle);
+    boolean changedSoFar = false; // Implementation note: once a unit has changed, the inverse Jacobians of the following units need to be recomputed.
     for (int iUnits = 0; iUnits < nbUnits; iUnits++) {
-      final MultiCurveBundle<GeneratorYDCurve> curveBundle = curveBundles[iUnits];
-      final int nbCurve = curveBundle.size();
-      final int[] startCurve = new int[nbCurve]; // First parameter index of the curve in the unit.
-      final LinkedHashMap<String, GeneratorYDCurve> gen = new LinkedHashMap<>();
-      final int[] nbIns = new int[nbCurve];
-      int nbInsUnit = 0; // Number of instruments in the unit.
-      for (int iCurve = 0; iCurve < nbCurve; iCurve++) {
-        final SingleCurveBundle<GeneratorYDCurve> singleCurve = curveBundle.getCurveBundle(iCurve);
-        startCurve[iCurve] = nbInsUnit;
-        nbIns[iCurve] = singleCurve.size();
-        nbInsUnit += nbIns[iCurve];
-        instrumentsSoFar.addAll(Arrays.asList(singleCurve.getDerivatives()));
+      final List<String> names = curveBundles[iUnits].getNames();
+      final LinkedHashMap<String, GeneratorYDCurve> gen = generatorsUnits.get(iUnits);
+      final MulticurveProviderDiscount previousUnit = knownSoFarData.copy();
+      for (final String name : names) {
+        final YieldAndDiscountCurve curve = previousCurves.getCurve(name);
+        ArgChecker.notNull(curve, "previous curve " + name);
+        setCurve(previousUnit, name, curve, discountingMap, forwardIborMap, forwardONMap);
       }
-      final InstrumentDerivative[] instrumentsUnit = new InstrumentDerivative[nbInsUnit];
-      final double[] parametersGuess = new double[nbInsUnit];
-      for (int iCurve = 0; iCurve < nbCurve; iCurve++) {
-        final SingleCurveBundle<GeneratorYDCurve> singleCurve = curveBundle.getCurveBundle(iCurve);
-        final InstrumentDerivative[] derivatives = singleCurve.getDerivatives();
-        System.arraycopy(derivatives, 0, instrumentsUnit, startCurve[iCurve], nbIns[iCurve]);
-        System.arraycopy(singleCurve.getStartingPoint(), 0, parametersGuess, startCurve[iCurve], nbIns[iCurve]);
-        final GeneratorYDCurve tmp = singleCurve.getCurveGenerator().finalGenerator(derivatives);
-        final String curveName = singleCurve.getCurveName();
-        gen.put(curveName, tmp);
-        generatorsSoFar.put(curveName, tmp);
-        unitMap.put(curveName, Pair.of(startUnit + startCurve[iCurve], nbIns[iCurve]));
+      final double[] residuals = values(instrumentsUnits[iUnits], previousUnit, calculator);
+      if (isConverged(residuals)) {
+        knownSoFarData.setAll(previousUnit);
+        if (changedSoFar || !containsAll(previousBlockBundle, names)) {
+          updateBlockBundle(instrumentsUnits[iUnits], knownSoFarData, names, totalBundle, sensitivityCalculator);
+        } else {
+          for (final String name : names) {
+            final Pair<CurveBuildingBlock, DoubleMatrix2D> block = previousBlockBundle.getBlock(name);
+            totalBundle.add(name, block.getFirst(), block.getSecond());
+          }
+        }
+        continue;
       }
-      knownSoFarData = makeUnit(instrumentsUnit, parametersGuess, knownSoFarData,
-          discountingMap, forwardIborMap, forwardONMap, gen, calculator, sensitivityCalculator);
-      updateBlockBundle(instrumentsUnit, knownSoFarData, curveBundle.getNames(), totalBundle, sensitivityCalculator);
-      startUnit = startUnit + nbInsUnit;
+      changedSoFar = true;
+      double[] parametersGuess = parametersGuessUnits[iUnits];
+      MulticurveProviderDiscount unitCurves = null;
+      final double[] parametersPrevious = previousParameters(names, gen, previousCurves);
+      if (parametersPrevious != null) {
+        final double[] parametersUpdated = firstOrderUpdate(names, parametersPrevious, residuals, previousBlockBundle);
+        if (parametersUpdated != null) {
+          final MulticurveProviderDiscount updatedCurves = new GeneratorMulticurveProviderDiscount(knownSoFarData, discountingMap, forwardIborMap,
+              forwardONMap, gen).evaluate(new DoubleMatrix1D(parametersUpdated));
+          if (isConverged(values(instrumentsUnits[iUnits], updatedCurves, calculator))) {
+            unitCurves = updatedCurves;
+          } else {
+            parametersGuess = parametersUpdated;
+          }
+        } else {
+          parametersGuess = parametersPrevious;
+        }
+      }
+      if (unitCurves == null) {
+        unitCurves = makeUnit(instrumentsUnits[iUnits], parametersGuess, knownSoFarData,
+            discountingMap, forwardIborMap, forwardONMap, gen, calculator, sensitivityCalculator);
+      }
+      knownSoFarData.setAll(unitCurves);
+      updateBlockBundle(instrumentsUnits[iUnits], knownSoFarData, names, totalBundle, sensitivityCalculator);
     }
     return Pair.of(knownSoFarData, totalBundle);
   }
 
+  /**
+   * Sets a curve in a provider for all the currencies and indexes associated to the curve name.
+   * @param provider The provider.
+   * @param name The curve name.
+   * @param curve The curve.
+   * @param discountingMap The discounting curves names map.
+   * @param forwardIborMap The forward curves names map.
+   * @param forwardONMap The forward curves names map.
+   */
+  private static void setCurve(final MulticurveProviderDiscount provider, final String name, final YieldAndDiscountCurve curve,
+      final LinkedHashMap<String, Currency> discountingMap, final LinkedHashMap<String, IborIndex[]> forwardIborMap,
+      final LinkedHashMap<String, IndexON[]> forwardONMap) {
+    if (discountingMap.containsKey(name)) {
+      provider.setOrReplaceCurve(discountingMap.get(name), curve);
+    }
+    if (forwardIborMap.containsKey(name)) {
+      for (final IborIndex index : forwardIborMap.get(name)) {
+        provider.setOrReplaceCurve(index, curve);
+      }
+    }
+    if (forwardONMap.containsKey(name)) {
+      for (final IndexON index : forwardONMap.get(name)) {
+        provider.setOrReplaceCurve(index, curve);
+      }
+    }
+  }
+
+  /**
+   * Computes the values of the instruments.
+   * @param instruments The instruments.
+   * @param multicurves The multi-curve provider.
+   * @param calculator The calculator of the value on which the calibration is done.
+   * @return The values.
+   */
+  private static double[] values(final InstrumentDerivative[] instruments, final MulticurveProviderDiscount multicurves,
+      final InstrumentDerivativeVisitor<ParameterProviderInterface, Double> calculator) {
+    final double[] values = new double[instruments.length];
+    for (int loopins = 0; loopins < instruments.length; loopins++) {
+      values[loopins] = instruments[loopins].accept(calculator, multicurves);
+    }
+    return values;
+  }
+
+  /**
+   * Checks if the values are within the absolute tolerance of the root finder (in norm 2).
+   * @param values The values.
+   * @return True if the values are within the tolerance.
+   */
+  private boolean isConverged(final double[] values) {
+    double norm2 = 0.0;
+    for (final double value : values) {
+      norm2 += value * value;
+    }
+    return Math.sqrt(norm2) < _toleranceAbs;
+  }
+
+  /**
+   * Returns the parameters of the previous curves of a unit, in the order of the unit.
+   * @param names The names of the curves in the unit.
+   * @param generatorsMap The generators map of the unit.
+   * @param previousCurves The previous curves.
+   * @return The parameters, null if the parameters of one of the curves can not be obtained from its generator.
+   */
+  private static double[] previousParameters(final List<String> names, final LinkedHashMap<String, GeneratorYDCurve> generatorsMap,
+      final MulticurveProviderDiscount previousCurves) {
+    ArgChecker.isTrue(names.equals(new ArrayList<>(generatorsMap.keySet())), "curve names and generators in different order");
+    final List<double[]> parametersCurves = new ArrayList<>();
+    int nbParameters = 0;
+    for (final Map.Entry<String, GeneratorYDCurve> entry : generatorsMap.entrySet()) {
+      final double[] parametersCurve = entry.getValue().getParameters(previousCurves.getCurve(entry.getKey()));
+      if (parametersCurve == null || parametersCurve.length != entry.getValue().getNumberOfParameter()) {
+        return null;
+      }
+      parametersCurves.add(parametersCurve);
+      nbParameters += parametersCurve.length;
+    }
+    final double[] parameters = new double[nbParameters];
+    int start = 0;
+    for (final double[] parametersCurve : parametersCurves) {
+      System.arraycopy(parametersCurve, 0, parameters, start, parametersCurve.length);
+      start += parametersCurve.length;
+    }
+    return parameters;
+  }
+
+  /**
+   * Checks if a block bundle contains the blocks of all the curves of a unit.
+   * @param blockBundle The CurveBuildingBlockBundle.
+   * @param names The names of the curves in the unit.
+   * @return true if the block bundle contains a block for each curve.
+   */
+  private static boolean containsAll(final CurveBuildingBlockBundle blockBundle, final List<String> names) {
+    return blockBundle.getData().keySet().containsAll(names);
+  }
+
+  /**
+   * Computes the first-order (Newton) update of the parameters of a unit from the values of its instruments.
+   * The inverse Jacobian of the unit is the part of the matrices of the block bundle associated to the instruments of the unit.
+   * @param names The names of the curves in the unit.
+   * @param parameters The parameters of the unit.
+   * @param values The values of the instruments of the unit.
+   * @param blockBundle The CurveBuildingBlockBundle containing the unit.
+   * @return The updated parameters, null if the block bundle does not contain the unit with the same number of parameters.
+   */
+  private static double[] firstOrderUpdate(final List<String> names, final double[] parameters, final double[] values,
+      final CurveBuildingBlockBundle blockBundle) {
+    final double[] updated = parameters.clone();
+    int startCurve = 0;
+    for (final String name : names) {
+      final Pair<CurveBuildingBlock, DoubleMatrix2D> block = blockBundle.getData().get(name);
+      if (block == null || !block.getFirst().getAllNames().containsAll(names)) {
+        return null;
+      }
+      // Implementation note: the columns of the unit are the last ones and in the order of the unit instruments.
+      int nbParametersUnit = 0;
+      for (final String nameUnit : names) {
+        nbParametersUnit += block.getFirst().getNbParameters(nameUnit);
+      }
+      final int nbParametersCurve = block.getFirst().getNbParameters(name);
+      final double[][] inverseJacobian = block.getSecond().getData();
+      if (nbParametersUnit != values.length || inverseJacobian.length != nbParametersCurve) {
+        return null;
+      }
+      final int startUnit = block.getFirst().getStart(names.get(0));
+      for (int loopp = 0; loopp < nbParametersCurve; loopp++) {
+        for (int loopins = 0; loopins < values.length; loopins++) {
+          updated[startCurve + loopp] -= inverseJacobian[loopp][startUnit + loopins] * values[loopins];
+        }
+      }
+      startCurve += nbParametersCurve;
+    }
+    return startCurve == parameters.length ? updated : null;
+  }
+
 }
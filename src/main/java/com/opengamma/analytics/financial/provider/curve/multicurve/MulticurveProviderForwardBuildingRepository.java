@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import com.opengamma.analytics.financial.curve.interestrate.generator.GeneratorYDCurve;
 import com.opengamma.analytics.financial.instrument.index.IborIndex;
@@ -58,6 +59,10 @@ public class MulticurveProviderForwardBuildingRepository {
    * The matrix algebra used for matrix inversion.
    */
   private static final MatrixAlgebra MATRIX_ALGEBRA = new CommonsMatrixAlgebra();
+  /**
+   * The pool on which the rows of the Jacobian are computed in the root finding. Null if the rows are computed one after the other.
+   */
+  private final ForkJoinPool _jacobianPool;
 
   /**
    * Constructor.
@@ -66,9 +71,22 @@ public class MulticurveProviderForwardBuildingRepository {
    * @param stepMaximum The maximum number of step for the root finder.
    */
   public MulticurveProviderForwardBuildingRepository(final double toleranceAbs, final double toleranceRel, final int stepMaximum) {
+    this(toleranceAbs, toleranceRel, stepMaximum, null);
+  }
+
+  /**
+   * Constructor with a pool on which the rows of the Jacobian used in the root finding (one row by instrument) are computed concurrently.
+   * @param toleranceAbs The absolute tolerance for the root finder.
+   * @param toleranceRel The relative tolerance for the root finder.
+   * @param stepMaximum The maximum number of step for the root finder.
+   * @param jacobianPool The pool on which the rows of the Jacobian are computed. If null, the rows are computed sequentially.
+   */
+  public MulticurveProviderForwardBuildingRepository(final double toleranceAbs, final double toleranceRel, final int stepMaximum,
+      final ForkJoinPool jacobianPool) {
     _toleranceAbs = toleranceAbs;
     _toleranceRel = toleranceRel;
     _stepMaximum = stepMaximum;
+    _jacobianPool = jacobianPool;
     _rootFinder = new BroydenVectorRootFinder(_toleranceAbs, _toleranceRel, _stepMaximum,
         DecompositionFactory.getDecomposition(DecompositionFactory.SV_COMMONS_NAME));
     // TODO: make the root finder flexible.
@@ -95,7 +113,7 @@ public class MulticurveProviderForwardBuildingRepository {
     final MulticurveProviderForwardBuildingData data = new MulticurveProviderForwardBuildingData(instruments, generator);
     final Function1D<DoubleMatrix1D, DoubleMatrix1D> curveCalculator = new MulticurveProviderForwardFinderFunction(calculator, data);
     final Function1D<DoubleMatrix1D, DoubleMatrix2D> jacobianCalculator = new MulticurveProviderForwardFinderJacobian(
-        new ParameterSensitivityMulticurveMatrixCalculator(sensitivityCalculator), data);
+        new ParameterSensitivityMulticurveMatrixCalculator(sensitivityCalculator), data, _jacobianPool);
     final double[] parameters = _rootFinder.getRoot(curveCalculator, jacobianCalculator, new DoubleMatrix1D(initGuess)).getData();
     final MulticurveProviderForward newCurves = data.getGeneratorMarket().evaluate(new DoubleMatrix1D(parameters));
     return Pair.of(newCurves, DoubleArrayMath.toObject(parameters));
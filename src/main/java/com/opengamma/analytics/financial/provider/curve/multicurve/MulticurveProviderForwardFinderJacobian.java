@@ -6,8 +6,8 @@
 package com.opengamma.analytics.financial.provider.curve.multicurve;
 
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
-import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderForward;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.ParameterSensitivityMulticurveMatrixAbstractCalculator;
 import com.opengamma.analytics.math.function.Function1D;
@@ -27,6 +27,10 @@ public class MulticurveProviderForwardFinderJacobian extends Function1D<DoubleMa
    * The data required for curve building.
    */
   private final MulticurveProviderForwardBuildingData _data;
+  /**
+   * The pool on which the rows of the Jacobian are computed. Null if the rows are computed one after the other.
+   */
+  private final ForkJoinPool _pool;
 
   /**
    * Constructor.
@@ -35,8 +39,20 @@ public class MulticurveProviderForwardFinderJacobian extends Function1D<DoubleMa
    */
   public MulticurveProviderForwardFinderJacobian(final ParameterSensitivityMulticurveMatrixAbstractCalculator parameterSensitivityCalculator,
       final MulticurveProviderForwardBuildingData data) {
+    this(parameterSensitivityCalculator, data, null);
+  }
+
+  /**
+   * Constructor with a pool on which the rows of the Jacobian (one row by instrument) are computed concurrently.
+   * @param parameterSensitivityCalculator The instrument parameter sensitivity calculator.
+   * @param data The data required for curve building.
+   * @param pool The pool. If null, the rows are computed one after the other.
+   */
+  public MulticurveProviderForwardFinderJacobian(final ParameterSensitivityMulticurveMatrixAbstractCalculator parameterSensitivityCalculator,
+      final MulticurveProviderForwardBuildingData data, final ForkJoinPool pool) {
     _parameterSensitivityCalculator = parameterSensitivityCalculator;
     _data = data;
+    _pool = pool;
   }
 
   @Override
@@ -47,10 +63,7 @@ public class MulticurveProviderForwardFinderJacobian extends Function1D<DoubleMa
     bundle.setAll(newCurves);
     final int nbParameters = _data.getNumberOfInstruments();
     final double[][] res = new double[nbParameters][nbParameters];
-    for (int loopinstrument = 0; loopinstrument < _data.getNumberOfInstruments(); loopinstrument++) {
-      final InstrumentDerivative deriv = _data.getInstrument(loopinstrument);
-      res[loopinstrument] = _parameterSensitivityCalculator.calculateSensitivity(deriv, bundle, curvesSet).getData();
-    }
+    _parameterSensitivityCalculator.calculateSensitivities(_data.getInstruments(), bundle, curvesSet, res, _pool);
     return new DoubleMatrix2D(res);
   }
 
@@ -139,6 +139,14 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
     return new MulticurveProviderDiscount(discountingCurves, forwardIborCurves, forwardONCurves, _fxMatrix);
   }
 
+  /**
+   * Creates an immutable snapshot of the current curves, with integer curve handles. See {@link MulticurveProviderDiscountSnapshot}.
+   * @return The snapshot.
+   */
+  public MulticurveProviderDiscountSnapshot snapshot() {
+    return new MulticurveProviderDiscountSnapshot(this);
+  }
+
   /**
    * Adds all curves to a single map containing (curve name, curve) elements.
    */
@@ -169,10 +177,40 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
 
   @Override
   public double[] parameterSensitivity(final String name, final List<DoublesPair> pointSensitivity) {
+    return curveParameterSensitivity(namedCurveForSensitivity(name), pointSensitivity);
+  }
+
+  @Override
+  public double[] parameterForwardSensitivity(final String name, final List<ForwardSensitivity> pointSensitivity) {
+    return curveParameterForwardSensitivity(namedCurveForSensitivity(name), pointSensitivity);
+  }
+
+  @Override
+  public double[] parameterSensitivity(final String name, final double[] times, final double[] sensitivities, final int size) {
+    return curveParameterSensitivity(namedCurveForSensitivity(name), times, sensitivities, size);
+  }
+
+  @Override
+  public double[] parameterForwardSensitivity(final String name, final double[] startTimes, final double[] endTimes, final double[] accrualFactors,
+      final double[] sensitivities, final int size) {
+    return curveParameterForwardSensitivity(namedCurveForSensitivity(name), startTimes, endTimes, accrualFactors, sensitivities, size);
+  }
+
+  private YieldAndDiscountCurve namedCurveForSensitivity(final String name) {
     final YieldAndDiscountCurve curve = _allCurves.get(name);
     if (curve == null) {
       throw new UnsupportedOperationException("Cannot get sensitivities for curve called " + name);
     }
+    return curve;
+  }
+
+  /**
+   * Computes the sensitivity to the parameters of a curve from the point sensitivities to its rates.
+   * @param curve The curve.
+   * @param pointSensitivity The point sensitivities, may be null.
+   * @return The parameter sensitivity.
+   */
+  static double[] curveParameterSensitivity(final YieldAndDiscountCurve curve, final List<DoublesPair> pointSensitivity) {
     final int nbParameters = curve.getNumberOfParameters();
     final double[] result = new double[nbParameters];
     if (pointSensitivity != null && pointSensitivity.size() > 0) {
@@ -186,12 +224,13 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
     return result;
   }
 
-  @Override
-  public double[] parameterForwardSensitivity(final String name, final List<ForwardSensitivity> pointSensitivity) {
-    final YieldAndDiscountCurve curve = _allCurves.get(name);
-    if (curve == null) {
-      throw new UnsupportedOperationException("Cannot get sensitivities for curve called " + name);
-    }
+  /**
+   * Computes the sensitivity to the parameters of a curve from the point sensitivities to its forward rates.
+   * @param curve The curve.
+   * @param pointSensitivity The forward point sensitivities, may be null.
+   * @return The parameter sensitivity.
+   */
+  static double[] curveParameterForwardSensitivity(final YieldAndDiscountCurve curve, final List<ForwardSensitivity> pointSensitivity) {
     final int nbParameters = curve.getNumberOfParameters();
     final double[] result = new double[nbParameters];
     if (pointSensitivity != null && pointSensitivity.size() > 0) {
@@ -215,6 +254,59 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
     return result;
   }
 
+  /**
+   * Computes the sensitivity to the parameters of a curve from point sensitivities to its rates stored in arrays.
+   * @param curve The curve.
+   * @param times The times, of length at least size.
+   * @param sensitivities The sensitivities, of length at least size.
+   * @param size The number of points.
+   * @return The parameter sensitivity.
+   */
+  static double[] curveParameterSensitivity(final YieldAndDiscountCurve curve, final double[] times, final double[] sensitivities, final int size) {
+    final int nbParameters = curve.getNumberOfParameters();
+    final double[] result = new double[nbParameters];
+    for (int looppt = 0; looppt < size; looppt++) {
+      final double[] sensi1Point = curve.getInterestRateParameterSensitivity(times[looppt]);
+      for (int loopparam = 0; loopparam < nbParameters; loopparam++) {
+        result[loopparam] += sensitivities[looppt] * sensi1Point[loopparam];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Computes the sensitivity to the parameters of a curve from point sensitivities to its simply compounded forward rates stored in arrays.
+   * @param curve The curve.
+   * @param startTimes The forward start times, of length at least size.
+   * @param endTimes The forward end times, of length at least size.
+   * @param accrualFactors The forward accrual factors, of length at least size.
+   * @param sensitivities The sensitivities, of length at least size.
+   * @param size The number of points.
+   * @return The parameter sensitivity.
+   */
+  static double[] curveParameterForwardSensitivity(final YieldAndDiscountCurve curve, final double[] startTimes, final double[] endTimes,
+      final double[] accrualFactors, final double[] sensitivities, final int size) {
+    final int nbParameters = curve.getNumberOfParameters();
+    final double[] result = new double[nbParameters];
+    for (int looppt = 0; looppt < size; looppt++) {
+      final double startTime = startTimes[looppt];
+      final double endTime = endTimes[looppt];
+      final double forwardBar = sensitivities[looppt];
+      // Simply compounded forward: same derivatives as SimplyCompoundedForwardSensitivity.
+      final double dfForwardStart = curve.getDiscountFactor(startTime);
+      final double dfForwardEnd = curve.getDiscountFactor(endTime);
+      final double dFwddyStart = -startTime * dfForwardStart / (dfForwardEnd * accrualFactors[looppt]);
+      final double dFwddyEnd = endTime * dfForwardStart / (dfForwardEnd * accrualFactors[looppt]);
+      final double[] sensiPtStart = curve.getInterestRateParameterSensitivity(startTime);
+      final double[] sensiPtEnd = curve.getInterestRateParameterSensitivity(endTime);
+      for (int loopparam = 0; loopparam < nbParameters; loopparam++) {
+        result[loopparam] += dFwddyStart * sensiPtStart[loopparam] * forwardBar;
+        result[loopparam] += dFwddyEnd * sensiPtEnd[loopparam] * forwardBar;
+      }
+    }
+    return result;
+  }
+
   @Override
   public Integer getNumberOfParameters(final String name) {
     return _allCurves.get(name).getNumberOfParameters();
@@ -266,16 +358,27 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
 
   @Override
   public double getDiscountFactor(final Currency ccy, final Double time) {
-    if (_discountingCurves.containsKey(ccy)) {
-      return _discountingCurves.get(ccy).getDiscountFactor(time);
+    final YieldAndDiscountCurve curve = _discountingCurves.get(ccy);
+    if (curve != null) {
+      return curve.getDiscountFactor(time);
+    }
+    throw new IllegalArgumentException("Currency discounting curve not found: " + ccy);
+  }
+
+  @Override
+  public double[] getDiscountFactors(final Currency ccy, final double[] times) {
+    final YieldAndDiscountCurve curve = _discountingCurves.get(ccy);
+    if (curve != null) {
+      return curve.getDiscountFactors(times);
     }
     throw new IllegalArgumentException("Currency discounting curve not found: " + ccy);
   }
 
   @Override
   public String getName(final Currency ccy) {
-    if (_discountingCurves.containsKey(ccy)) {
-      return _discountingCurves.get(ccy).getName();
+    final YieldAndDiscountCurve curve = _discountingCurves.get(ccy);
+    if (curve != null) {
+      return curve.getName();
     }
     throw new IllegalArgumentException("Currency discounting curve not found: " + ccy);
   }
@@ -287,16 +390,28 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
 
   @Override
   public double getInvestmentFactor(final IborIndex index, final double startTime, final double endTime, final double accrualFactor) {
-    if (_forwardIborCurves.containsKey(index)) {
-      return _forwardIborCurves.get(index).getDiscountFactor(startTime) / _forwardIborCurves.get(index).getDiscountFactor(endTime);
+    final YieldAndDiscountCurve curve = _forwardIborCurves.get(index);
+    if (curve != null) {
+      return curve.getDiscountFactor(startTime) / curve.getDiscountFactor(endTime);
     }
     throw new IllegalArgumentException("Forward curve not found: " + index);
   }
 
   @Override
   public double getSimplyCompoundForwardRate(final IborIndex index, final double startTime, final double endTime, final double accrualFactor) {
-    if (_forwardIborCurves.containsKey(index)) {
-      return _forwardIborCurves.get(index).getSimplyCompoundForwardRate(startTime, endTime, accrualFactor);
+    final YieldAndDiscountCurve curve = _forwardIborCurves.get(index);
+    if (curve != null) {
+      return curve.getSimplyCompoundForwardRate(startTime, endTime, accrualFactor);
+    }
+    throw new IllegalArgumentException("Forward curve not found: " + index);
+  }
+
+  @Override
+  public double[] getSimplyCompoundForwardRates(final IborIndex index, final double[] startTimes, final double[] endTimes,
+      final double[] accrualFactors) {
+    final YieldAndDiscountCurve curve = _forwardIborCurves.get(index);
+    if (curve != null) {
+      return curve.getSimplyCompoundForwardRates(startTimes, endTimes, accrualFactors);
     }
     throw new IllegalArgumentException("Forward curve not found: " + index);
   }
@@ -311,8 +426,9 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
   @Override
   public double getAnnuallyCompoundForwardRate(final IborIndex index, final double startTime, final double endTime, final double accrualFactor) {
     ArgChecker.isFalse(accrualFactor == 0.0, "The accrual factor can't be null");
-    if (_forwardIborCurves.containsKey(index)) {
-      return (Math.pow(_forwardIborCurves.get(index).getDiscountFactor(startTime) / _forwardIborCurves.get(index).getDiscountFactor(endTime), 1 / accrualFactor) - 1);
+    final YieldAndDiscountCurve curve = _forwardIborCurves.get(index);
+    if (curve != null) {
+      return (Math.pow(curve.getDiscountFactor(startTime) / curve.getDiscountFactor(endTime), 1 / accrualFactor) - 1);
     }
     throw new IllegalArgumentException("Forward curve not found: " + index);
   }
@@ -326,8 +442,9 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
 
   @Override
   public String getName(final IborIndex index) {
-    if (_forwardIborCurves.containsKey(index)) {
-      return _forwardIborCurves.get(index).getName();
+    final YieldAndDiscountCurve curve = _forwardIborCurves.get(index);
+    if (curve != null) {
+      return curve.getName();
     }
     throw new IllegalArgumentException("Forward curve not found: " + index);
   }
@@ -339,20 +456,32 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
 
   @Override
   public double getInvestmentFactor(final IndexON index, final double startTime, final double endTime, final double accrualFactor) {
-    if (_forwardONCurves.containsKey(index)) {
-      return _forwardONCurves.get(index).getDiscountFactor(startTime) / _forwardONCurves.get(index).getDiscountFactor(endTime);
+    final YieldAndDiscountCurve curve = _forwardONCurves.get(index);
+    if (curve != null) {
+      return curve.getDiscountFactor(startTime) / curve.getDiscountFactor(endTime);
     }
     throw new IllegalArgumentException("Forward ON curve not found: " + index);
   }
 
   @Override
   public double getSimplyCompoundForwardRate(final IndexON index, final double startTime, final double endTime, final double accrualFactor) {
-    if (_forwardONCurves.containsKey(index)) {
-      return _forwardONCurves.get(index).getSimplyCompoundForwardRate(startTime, endTime, accrualFactor);
+    final YieldAndDiscountCurve curve = _forwardONCurves.get(index);
+    if (curve != null) {
+      return curve.getSimplyCompoundForwardRate(startTime, endTime, accrualFactor);
     }
     throw new IllegalArgumentException("Forward ON curve not found: " + index);
   }
 
+  @Override
+  public double[] getSimplyCompoundForwardRates(final IndexON index, final double[] startTimes, final double[] endTimes,
+      final double[] accrualFactors) {
+    final YieldAndDiscountCurve curve = _forwardONCurves.get(index);
+    if (curve != null) {
+      return curve.getSimplyCompoundForwardRates(startTimes, endTimes, accrualFactors);
+    }
+    throw new IllegalArgumentException("Forward curve not found: " + index);
+  }
+
   @Override
   public double getSimplyCompoundForwardRate(final IndexON index, final double startTime, final double endTime) {
     ArgChecker.isFalse(startTime == endTime, "Start time should be different from end time");
@@ -363,8 +492,9 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
   @Override
   public double getAnnuallyCompoundForwardRate(final IndexON index, final double startTime, final double endTime, final double accrualFactor) {
     ArgChecker.isFalse(accrualFactor == 0.0, "The accrual factor can't be null");
-    if (_forwardONCurves.containsKey(index)) {
-      return Math.pow(_forwardONCurves.get(index).getDiscountFactor(startTime) / _forwardONCurves.get(index).getDiscountFactor(endTime), 1 / accrualFactor) - 1;
+    final YieldAndDiscountCurve curve = _forwardONCurves.get(index);
+    if (curve != null) {
+      return Math.pow(curve.getDiscountFactor(startTime) / curve.getDiscountFactor(endTime), 1 / accrualFactor) - 1;
     }
     throw new IllegalArgumentException("Forward ON curve not found: " + index);
   }
@@ -378,8 +508,9 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
 
   @Override
   public String getName(final IndexON index) {
-    if (_forwardONCurves.containsKey(index)) {
-      return _forwardONCurves.get(index).getName();
+    final YieldAndDiscountCurve curve = _forwardONCurves.get(index);
+    if (curve != null) {
+      return curve.getName();
     }
     throw new IllegalArgumentException("Forward curve not found: " + index);
   }
@@ -395,8 +526,9 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
    * @return The curve.
    */
   public YieldAndDiscountCurve getCurve(final Currency ccy) {
-    if (_discountingCurves.containsKey(ccy)) {
-      return _discountingCurves.get(ccy);
+    final YieldAndDiscountCurve curve = _discountingCurves.get(ccy);
+    if (curve != null) {
+      return curve;
     }
     throw new IllegalArgumentException("Currency discounting curve not found: " + ccy);
   }
@@ -407,8 +539,9 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
    * @return The curve.
    */
   public YieldAndDiscountCurve getCurve(final IborIndex index) {
-    if (_forwardIborCurves.containsKey(index)) {
-      return _forwardIborCurves.get(index);
+    final YieldAndDiscountCurve curve = _forwardIborCurves.get(index);
+    if (curve != null) {
+      return curve;
     }
     throw new IllegalArgumentException("Forward curve not found: " + index);
   }
@@ -419,8 +552,9 @@ public class MulticurveProviderDiscount implements MulticurveProviderInterface {
    * @return The curve.
    */
   public YieldAndDiscountCurve getCurve(final IndexON index) {
-    if (_forwardONCurves.containsKey(index)) {
-      return _forwardONCurves.get(index);
+    final YieldAndDiscountCurve curve = _forwardONCurves.get(index);
+    if (curve != null) {
+      return curve;
     }
     throw new IllegalArgumentException("Forward curve not found: " + index);
   }
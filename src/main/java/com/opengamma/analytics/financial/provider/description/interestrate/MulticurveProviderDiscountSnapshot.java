@@ -0,0 +1,555 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.description.interestrate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.opengamma.analytics.financial.instrument.index.IborIndex;
+import com.opengamma.analytics.financial.instrument.index.IndexON;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.ForwardSensitivity;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.FxMatrix;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.tuple.DoublesPair;
+
+/**
+ * Immutable snapshot of a {@link MulticurveProviderDiscount} in which each curve has an integer handle.
+ * <p>
+ * The curves are stored in an array, one slot by curve; a curve used for several currencies or indexes has a single slot.
+ * The handle of a currency or an index is resolved once with {@link #getHandle(Currency)}, {@link #getHandle(IborIndex)} or
+ * {@link #getHandle(IndexON)} and the handle-based accessors then read the curve directly from the array.
+ * <p>
+ * The index lookups first check the index instances of the source provider by identity, which avoids the comparatively
+ * expensive {@link IborIndex#equals(Object)} and {@link IborIndex#hashCode()} when the instruments share the index
+ * instances of the provider, as is the case when both are built from the same index master. Other equal instances are
+ * found through the usual map lookup.
+ * <p>
+ * The snapshot can not be modified, so it can be shared between threads. The handles are only valid for the snapshot which created them.
+ */
+public final class MulticurveProviderDiscountSnapshot implements MulticurveProviderInterface {
+
+  /**
+   * The curves, by handle.
+   */
+  private final YieldAndDiscountCurve[] _curves;
+  /**
+   * The handles by curve name.
+   */
+  private final Map<String, Integer> _nameHandles;
+  /**
+   * The handles of the discounting curves by currency.
+   */
+  private final Map<Currency, Integer> _discountingHandles;
+  /**
+   * The handles of the forward curves by Ibor index.
+   */
+  private final Map<IborIndex, Integer> _forwardIborHandles;
+  /**
+   * The handles of the forward curves by Ibor index instance of the source provider.
+   */
+  private final Map<IborIndex, Integer> _forwardIborIdentityHandles;
+  /**
+   * The handles of the forward curves by ON index.
+   */
+  private final Map<IndexON, Integer> _forwardONHandles;
+  /**
+   * The handles of the forward curves by ON index instance of the source provider.
+   */
+  private final Map<IndexON, Integer> _forwardONIdentityHandles;
+  /**
+   * The discounting curves by currency.
+   */
+  private final Map<Currency, YieldAndDiscountCurve> _discountingCurves;
+  /**
+   * The forward curves by Ibor index.
+   */
+  private final Map<IborIndex, YieldAndDiscountCurve> _forwardIborCurves;
+  /**
+   * The forward curves by ON index.
+   */
+  private final Map<IndexON, YieldAndDiscountCurve> _forwardONCurves;
+  /**
+   * The sorted names of all the curves.
+   */
+  private final Set<String> _allCurveNames;
+  /**
+   * The matrix containing the exchange rates.
+   */
+  private final FxMatrix _fxMatrix;
+
+  /**
+   * Creates a snapshot of the current curves of a provider. Later changes to the provider are not reflected in the snapshot.
+   * @param multicurve The provider, not null
+   */
+  public MulticurveProviderDiscountSnapshot(final MulticurveProviderDiscount multicurve) {
+    ArgChecker.notNull(multicurve, "multicurve");
+    _discountingCurves = Collections.unmodifiableMap(new LinkedHashMap<>(multicurve.getDiscountingCurves()));
+    _forwardIborCurves = Collections.unmodifiableMap(new LinkedHashMap<>(multicurve.getForwardIborCurves()));
+    _forwardONCurves = Collections.unmodifiableMap(new LinkedHashMap<>(multicurve.getForwardONCurves()));
+    _fxMatrix = multicurve.getFxRates();
+    final Map<String, Integer> nameHandles = new LinkedHashMap<>();
+    final Map<YieldAndDiscountCurve, Integer> curveHandles = new IdentityHashMap<>();
+    final List<YieldAndDiscountCurve> curves = new ArrayList<>();
+    final Map<Currency, Integer> discountingHandles = new LinkedHashMap<>();
+    for (final Map.Entry<Currency, YieldAndDiscountCurve> entry : _discountingCurves.entrySet()) {
+      discountingHandles.put(entry.getKey(), handle(entry.getValue(), curveHandles, curves, nameHandles));
+    }
+    final Map<IborIndex, Integer> forwardIborHandles = new LinkedHashMap<>();
+    final Map<IborIndex, Integer> forwardIborIdentityHandles = new IdentityHashMap<>();
+    for (final Map.Entry<IborIndex, YieldAndDiscountCurve> entry : _forwardIborCurves.entrySet()) {
+      final Integer handle = handle(entry.getValue(), curveHandles, curves, nameHandles);
+      forwardIborHandles.put(entry.getKey(), handle);
+      forwardIborIdentityHandles.put(entry.getKey(), handle);
+    }
+    final Map<IndexON, Integer> forwardONHandles = new LinkedHashMap<>();
+    final Map<IndexON, Integer> forwardONIdentityHandles = new IdentityHashMap<>();
+    for (final Map.Entry<IndexON, YieldAndDiscountCurve> entry : _forwardONCurves.entrySet()) {
+      final Integer handle = handle(entry.getValue(), curveHandles, curves, nameHandles);
+      forwardONHandles.put(entry.getKey(), handle);
+      forwardONIdentityHandles.put(entry.getKey(), handle);
+    }
+    _curves = curves.toArray(new YieldAndDiscountCurve[curves.size()]);
+    _nameHandles = nameHandles;
+    _discountingHandles = discountingHandles;
+    _forwardIborHandles = forwardIborHandles;
+    _forwardIborIdentityHandles = forwardIborIdentityHandles;
+    _forwardONHandles = forwardONHandles;
+    _forwardONIdentityHandles = forwardONIdentityHandles;
+    _allCurveNames = Collections.unmodifiableSortedSet(new TreeSet<>(nameHandles.keySet()));
+  }
+
+  /**
+   * Gets the handle of a curve, allocating the next one if the curve has not been seen yet.
+   * The name is associated to the last curve with that name, as in the provider.
+   */
+  private static Integer handle(final YieldAndDiscountCurve curve, final Map<YieldAndDiscountCurve, Integer> curveHandles,
+      final List<YieldAndDiscountCurve> curves, final Map<String, Integer> nameHandles) {
+    Integer handle = curveHandles.get(curve);
+    if (handle == null) {
+      handle = curves.size();
+      curves.add(curve);
+      curveHandles.put(curve, handle);
+    }
+    nameHandles.put(curve.getName(), handle);
+    return handle;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of curves, which is the number of handles. The handles are 0 to the number of curves - 1.
+   * @return The number of curves.
+   */
+  public int getNumberOfCurves() {
+    return _curves.length;
+  }
+
+  /**
+   * Gets the handle of the discounting curve of a currency.
+   * @param ccy The currency.
+   * @return The handle.
+   * @throws IllegalArgumentException if there is no discounting curve for the currency
+   */
+  public int getHandle(final Currency ccy) {
+    final Integer handle = _discountingHandles.get(ccy);
+    if (handle == null) {
+      throw new IllegalArgumentException("Currency discounting curve not found: " + ccy);
+    }
+    return handle;
+  }
+
+  /**
+   * Gets the handle of the forward curve of an Ibor index.
+   * @param index The Ibor index.
+   * @return The handle.
+   * @throws IllegalArgumentException if there is no forward curve for the index
+   */
+  public int getHandle(final IborIndex index) {
+    Integer handle = _forwardIborIdentityHandles.get(index);
+    if (handle == null) {
+      handle = _forwardIborHandles.get(index);
+      if (handle == null) {
+        throw new IllegalArgumentException("Forward curve not found: " + index);
+      }
+    }
+    return handle;
+  }
+
+  /**
+   * Gets the handle of the forward curve of an ON index.
+   * @param index The ON index.
+   * @return The handle.
+   * @throws IllegalArgumentException if there is no forward curve for the index
+   */
+  public int getHandle(final IndexON index) {
+    Integer handle = _forwardONIdentityHandles.get(index);
+    if (handle == null) {
+      handle = _forwardONHandles.get(index);
+      if (handle == null) {
+        throw new IllegalArgumentException("Forward ON curve not found: " + index);
+      }
+    }
+    return handle;
+  }
+
+  /**
+   * Gets the handle of a named curve.
+   * @param name The curve name.
+   * @return The handle.
+   * @throws IllegalArgumentException if there is no curve with this name
+   */
+  public int getHandle(final String name) {
+    final Integer handle = _nameHandles.get(name);
+    if (handle == null) {
+      throw new IllegalArgumentException("Curve not found: " + name);
+    }
+    return handle;
+  }
+
+  /**
+   * Gets the curve of a handle.
+   * @param handle The handle.
+   * @return The curve.
+   */
+  public YieldAndDiscountCurve getCurve(final int handle) {
+    return _curves[handle];
+  }
+
+  /**
+   * Gets the name of the curve of a handle.
+   * @param handle The handle.
+   * @return The curve name.
+   */
+  public String getName(final int handle) {
+    return _curves[handle].getName();
+  }
+
+  /**
+   * Gets the discount factor of the curve of a handle.
+   * @param handle The handle.
+   * @param time The time.
+   * @return The discount factor.
+   */
+  public double getDiscountFactor(final int handle, final double time) {
+    return _curves[handle].getDiscountFactor(time);
+  }
+
+  /**
+   * Gets the discount factors of the curve of a handle at a set of times.
+   * @param handle The handle.
+   * @param times The times.
+   * @return The discount factors, in the order of the times.
+   */
+  public double[] getDiscountFactors(final int handle, final double[] times) {
+    return _curves[handle].getDiscountFactors(times);
+  }
+
+  /**
+   * Gets the investment factor between start and end times on the curve of a handle.
+   * @param handle The handle.
+   * @param startTime The start time.
+   * @param endTime The end time.
+   * @return The investment factor.
+   */
+  public double getInvestmentFactor(final int handle, final double startTime, final double endTime) {
+    final YieldAndDiscountCurve curve = _curves[handle];
+    return curve.getDiscountFactor(startTime) / curve.getDiscountFactor(endTime);
+  }
+
+  /**
+   * Gets the simply compounded forward rate between start and end times on the curve of a handle.
+   * @param handle The handle.
+   * @param startTime The start time.
+   * @param endTime The end time.
+   * @param accrualFactor The accrual factor.
+   * @return The forward rate.
+   */
+  public double getSimplyCompoundForwardRate(final int handle, final double startTime, final double endTime, final double accrualFactor) {
+    return _curves[handle].getSimplyCompoundForwardRate(startTime, endTime, accrualFactor);
+  }
+
+  /**
+   * Gets the simply compounded forward rates of a set of periods on the curve of a handle.
+   * @param handle The handle.
+   * @param startTimes The start times.
+   * @param endTimes The end times.
+   * @param accrualFactors The accrual factors.
+   * @return The forward rates, in the order of the periods.
+   */
+  public double[] getSimplyCompoundForwardRates(final int handle, final double[] startTimes, final double[] endTimes, final double[] accrualFactors) {
+    return _curves[handle].getSimplyCompoundForwardRates(startTimes, endTimes, accrualFactors);
+  }
+
+  /**
+   * Gets the annually compounded forward rate between start and end times on the curve of a handle.
+   * @param handle The handle.
+   * @param startTime The start time.
+   * @param endTime The end time.
+   * @param accrualFactor The accrual factor.
+   * @return The forward rate.
+   */
+  public double getAnnuallyCompoundForwardRate(final int handle, final double startTime, final double endTime, final double accrualFactor) {
+    ArgChecker.isFalse(accrualFactor == 0.0, "The accrual factor can't be null");
+    final YieldAndDiscountCurve curve = _curves[handle];
+    return Math.pow(curve.getDiscountFactor(startTime) / curve.getDiscountFactor(endTime), 1 / accrualFactor) - 1;
+  }
+
+  /**
+   * Creates a new mutable provider with the curves of the snapshot.
+   * @return The provider.
+   */
+  public MulticurveProviderDiscount toProvider() {
+    return new MulticurveProviderDiscount(new LinkedHashMap<>(_discountingCurves), new LinkedHashMap<>(_forwardIborCurves),
+        new LinkedHashMap<>(_forwardONCurves), _fxMatrix);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public MulticurveProviderInterface getMulticurveProvider() {
+    return this;
+  }
+
+  /**
+   * Returns this snapshot, which is immutable.
+   * @return The snapshot.
+   */
+  @Override
+  public MulticurveProviderDiscountSnapshot copy() {
+    return this;
+  }
+
+  @Override
+  public double[] parameterSensitivity(final String name, final List<DoublesPair> pointSensitivity) {
+    return MulticurveProviderDiscount.curveParameterSensitivity(namedCurveForSensitivity(name), pointSensitivity);
+  }
+
+  @Override
+  public double[] parameterForwardSensitivity(final String name, final List<ForwardSensitivity> pointSensitivity) {
+    return MulticurveProviderDiscount.curveParameterForwardSensitivity(namedCurveForSensitivity(name), pointSensitivity);
+  }
+
+  @Override
+  public double[] parameterSensitivity(final String name, final double[] times, final double[] sensitivities, final int size) {
+    return MulticurveProviderDiscount.curveParameterSensitivity(namedCurveForSensitivity(name), times, sensitivities, size);
+  }
+
+  @Override
+  public double[] parameterForwardSensitivity(final String name, final double[] startTimes, final double[] endTimes, final double[] accrualFactors,
+      final double[] sensitivities, final int size) {
+    return MulticurveProviderDiscount.curveParameterForwardSensitivity(namedCurveForSensitivity(name), startTimes, endTimes, accrualFactors,
+        sensitivities, size);
+  }
+
+  private YieldAndDiscountCurve namedCurveForSensitivity(final String name) {
+    final Integer handle = _nameHandles.get(name);
+    if (handle == null) {
+      throw new UnsupportedOperationException("Cannot get sensitivities for curve called " + name);
+    }
+    return _curves[handle];
+  }
+
+  @Override
+  public Integer getNumberOfParameters(final String name) {
+    return _curves[getHandle(name)].getNumberOfParameters();
+  }
+
+  @Override
+  public List<String> getUnderlyingCurvesNames(final String name) {
+    return _curves[getHandle(name)].getUnderlyingCurvesNames();
+  }
+
+  @Override
+  public double getDiscountFactor(final Currency ccy, final Double time) {
+    return getDiscountFactor(getHandle(ccy), time);
+  }
+
+  @Override
+  public double[] getDiscountFactors(final Currency ccy, final double[] times) {
+    return getDiscountFactors(getHandle(ccy), times);
+  }
+
+  @Override
+  public String getName(final Currency ccy) {
+    return getName(getHandle(ccy));
+  }
+
+  @Override
+  public Set<Currency> getCurrencies() {
+    return _discountingCurves.keySet();
+  }
+
+  @Override
+  public double getInvestmentFactor(final IborIndex index, final double startTime, final double endTime, final double accrualFactor) {
+    return getInvestmentFactor(getHandle(index), startTime, endTime);
+  }
+
+  @Override
+  public double getSimplyCompoundForwardRate(final IborIndex index, final double startTime, final double endTime, final double accrualFactor) {
+    return getSimplyCompoundForwardRate(getHandle(index), startTime, endTime, accrualFactor);
+  }
+
+  @Override
+  public double[] getSimplyCompoundForwardRates(final IborIndex index, final double[] startTimes, final double[] endTimes,
+      final double[] accrualFactors) {
+    return getSimplyCompoundForwardRates(getHandle(index), startTimes, endTimes, accrualFactors);
+  }
+
+  @Override
+  public double getSimplyCompoundForwardRate(final IborIndex index, final double startTime, final double endTime) {
+    ArgChecker.isFalse(startTime == endTime, "Start time should be different from end time");
+    return getSimplyCompoundForwardRate(getHandle(index), startTime, endTime, endTime - startTime);
+  }
+
+  @Override
+  public double getAnnuallyCompoundForwardRate(final IborIndex index, final double startTime, final double endTime, final double accrualFactor) {
+    ArgChecker.isFalse(accrualFactor == 0.0, "The accrual factor can't be null");
+    return getAnnuallyCompoundForwardRate(getHandle(index), startTime, endTime, accrualFactor);
+  }
+
+  @Override
+  public double getAnnuallyCompoundForwardRate(final IborIndex index, final double startTime, final double endTime) {
+    ArgChecker.isFalse(startTime == endTime, "Start time should be different from end time");
+    return getAnnuallyCompoundForwardRate(index, startTime, endTime, endTime - startTime);
+  }
+
+  @Override
+  public String getName(final IborIndex index) {
+    return getName(getHandle(index));
+  }
+
+  @Override
+  public Set<IborIndex> getIndexesIbor() {
+    return _forwardIborCurves.keySet();
+  }
+
+  @Override
+  public double getInvestmentFactor(final IndexON index, final double startTime, final double endTime, final double accrualFactor) {
+    return getInvestmentFactor(getHandle(index), startTime, endTime);
+  }
+
+  @Override
+  public double getSimplyCompoundForwardRate(final IndexON index, final double startTime, final double endTime, final double accrualFactor) {
+    return getSimplyCompoundForwardRate(getHandle(index), startTime, endTime, accrualFactor);
+  }
+
+  @Override
+  public double[] getSimplyCompoundForwardRates(final IndexON index, final double[] startTimes, final double[] endTimes,
+      final double[] accrualFactors) {
+    return getSimplyCompoundForwardRates(getHandle(index), startTimes, endTimes, accrualFactors);
+  }
+
+  @Override
+  public double getSimplyCompoundForwardRate(final IndexON index, final double startTime, final double endTime) {
+    ArgChecker.isFalse(startTime == endTime, "Start time should be different from end time");
+    return getSimplyCompoundForwardRate(getHandle(index), startTime, endTime, endTime - startTime);
+  }
+
+  @Override
+  public double getAnnuallyCompoundForwardRate(final IndexON index, final double startTime, final double endTime, final double accrualFactor) {
+    ArgChecker.isFalse(accrualFactor == 0.0, "The accrual factor can't be null");
+    return getAnnuallyCompoundForwardRate(getHandle(index), startTime, endTime, accrualFactor);
+  }
+
+  @Override
+  public double getAnnuallyCompoundForwardRate(final IndexON index, final double startTime, final double endTime) {
+    ArgChecker.isFalse(startTime == endTime, "Start time should be different from end time");
+    return getAnnuallyCompoundForwardRate(index, startTime, endTime, endTime - startTime);
+  }
+
+  @Override
+  public String getName(final IndexON index) {
+    return getName(getHandle(index));
+  }
+
+  @Override
+  public Set<IndexON> getIndexesON() {
+    return _forwardONCurves.keySet();
+  }
+
+  @Override
+  public double getFxRate(final Currency ccy1, final Currency ccy2) {
+    return _fxMatrix.fxRate(ccy1, ccy2);
+  }
+
+  @Override
+  public FxMatrix getFxRates() {
+    return _fxMatrix;
+  }
+
+  @Override
+  public Set<String> getAllNames() {
+    return getAllCurveNames();
+  }
+
+  @Override
+  public Set<String> getAllCurveNames() {
+    return _allCurveNames;
+  }
+
+  /**
+   * Returns an unmodifiable view of the currency to discounting curves map.
+   * @return The discounting curve map
+   */
+  public Map<Currency, YieldAndDiscountCurve> getDiscountingCurves() {
+    return _discountingCurves;
+  }
+
+  /**
+   * Returns an unmodifiable view of the ibor index to forward curves map.
+   * @return The forward ibor curve map
+   */
+  public Map<IborIndex, YieldAndDiscountCurve> getForwardIborCurves() {
+    return _forwardIborCurves;
+  }
+
+  /**
+   * Returns an unmodifiable view of the overnight index to forward curves map.
+   * @return The forward overnight curve map
+   */
+  public Map<IndexON, YieldAndDiscountCurve> getForwardONCurves() {
+    return _forwardONCurves;
+  }
+
+  @Override
+  public String toString() {
+    return _nameHandles.keySet().toString();
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + _discountingCurves.hashCode();
+    result = prime * result + _forwardIborCurves.hashCode();
+    result = prime * result + _forwardONCurves.hashCode();
+    result = prime * result + _fxMatrix.hashCode();
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof MulticurveProviderDiscountSnapshot)) {
+      return false;
+    }
+    final MulticurveProviderDiscountSnapshot other = (MulticurveProviderDiscountSnapshot) obj;
+    return Objects.equals(_discountingCurves, other._discountingCurves)
+        && Objects.equals(_forwardIborCurves, other._forwardIborCurves)
+        && Objects.equals(_forwardONCurves, other._forwardONCurves)
+        && Objects.equals(_fxMatrix, other._fxMatrix);
+  }
+
+}
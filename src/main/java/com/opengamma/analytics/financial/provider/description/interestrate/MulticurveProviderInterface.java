@@ -35,6 +35,22 @@ public interface MulticurveProviderInterface extends ParameterProviderInterface
   // TODO: extend it to a more general unique reference to include issuer/currency curves? UniqueIdentifiable?
   double getDiscountFactor(Currency ccy, Double time);
 
+  /**
+   * Gets the discount factors for one currency at a set of times to maturity.
+   * <p>
+   * The default implementation calls {@link #getDiscountFactor(Currency, Double)} for each time.
+   * @param ccy The currency.
+   * @param times The times.
+   * @return The discount factors, in the order of the times.
+   */
+  default double[] getDiscountFactors(Currency ccy, double[] times) {
+    double[] df = new double[times.length];
+    for (int loopt = 0; loopt < times.length; loopt++) {
+      df[loopt] = getDiscountFactor(ccy, times[loopt]);
+    }
+    return df;
+  }
+
   /**
    * Gets the investment factor for one Ibor index between start and end times.
    * This quantity correspond to growth between the start and the end time for an investment of 1 unit, assuming the investment growth according to the underlying curve
@@ -56,6 +72,24 @@ public interface MulticurveProviderInterface extends ParameterProviderInterface
    */
   double getSimplyCompoundForwardRate(IborIndex index, double startTime, double endTime, double accrualFactor);
 
+  /**
+   * Gets the forwards for one Ibor index between a set of start and end times.
+   * <p>
+   * The default implementation calls {@link #getSimplyCompoundForwardRate(IborIndex, double, double, double)} for each period.
+   * @param index The Ibor index.
+   * @param startTimes The start times.
+   * @param endTimes The end times.
+   * @param accrualFactors The Ibor accrual factors.
+   * @return The forward rates.
+   */
+  default double[] getSimplyCompoundForwardRates(IborIndex index, double[] startTimes, double[] endTimes, double[] accrualFactors) {
+    double[] rates = new double[startTimes.length];
+    for (int loopr = 0; loopr < startTimes.length; loopr++) {
+      rates[loopr] = getSimplyCompoundForwardRate(index, startTimes[loopr], endTimes[loopr], accrualFactors[loopr]);
+    }
+    return rates;
+  }
+
   /**
    * Gets the forward for one Ibor index between start and end times. The accrual factor is computed with the start and the end time (end time -start time).
    * @param index The Ibor index.
@@ -106,6 +140,24 @@ public interface MulticurveProviderInterface extends ParameterProviderInterface
   // TODO: Do we want to have a unique method for IborIndex and IndexON? UniqueIdentifiable?
   double getSimplyCompoundForwardRate(IndexON index, double startTime, double endTime, double accrualFactor);
 
+  /**
+   * Gets the forwards for one overnight index between a set of start and end times.
+   * <p>
+   * The default implementation calls {@link #getSimplyCompoundForwardRate(IndexON, double, double, double)} for each period.
+   * @param index The overnight index.
+   * @param startTimes The start times.
+   * @param endTimes The end times.
+   * @param accrualFactors The accrual factors.
+   * @return The forward rates.
+   */
+  default double[] getSimplyCompoundForwardRates(IndexON index, double[] startTimes, double[] endTimes, double[] accrualFactors) {
+    double[] rates = new double[startTimes.length];
+    for (int loopr = 0; loopr < startTimes.length; loopr++) {
+      rates[loopr] = getSimplyCompoundForwardRate(index, startTimes[loopr], endTimes[loopr], accrualFactors[loopr]);
+    }
+    return rates;
+  }
+
   /**
    * Gets the forward for one Ibor index between start and end times. The accrual factor is computed with the start and the end time (end time -start time).
    * @param index The Ibor index.
@@ -5,10 +5,12 @@
  */
 package com.opengamma.analytics.financial.provider.description.interestrate;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.ForwardSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.SimplyCompoundedForwardSensitivity;
 import com.opengamma.strata.collect.tuple.DoublesPair;
 
 /**
@@ -47,6 +49,43 @@ public interface ParameterProviderInterface {
    */
   double[] parameterForwardSensitivity(String name, List<ForwardSensitivity> pointSensitivity);
 
+  /**
+   * Gets the sensitivities to the curve parameters from point sensitivities stored in arrays.
+   * The default implementation creates the list of points and calls {@link #parameterSensitivity(String, List)}.
+   * @param name The curve name
+   * @param times The times of the point sensitivities
+   * @param sensitivities The values of the point sensitivities
+   * @param size The number of points, the arrays can be longer
+   * @return The sensitivities to the parameters
+   */
+  default double[] parameterSensitivity(String name, double[] times, double[] sensitivities, int size) {
+    final List<DoublesPair> pointSensitivity = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      pointSensitivity.add(DoublesPair.of(times[i], sensitivities[i]));
+    }
+    return parameterSensitivity(name, pointSensitivity);
+  }
+
+  /**
+   * Gets the sensitivities to the curve parameters from simply compounded forward point sensitivities stored in arrays.
+   * The default implementation creates the list of points and calls {@link #parameterForwardSensitivity(String, List)}.
+   * @param name The curve name
+   * @param startTimes The forward start times
+   * @param endTimes The forward end times
+   * @param accrualFactors The forward accrual factors
+   * @param sensitivities The values of the point sensitivities
+   * @param size The number of points, the arrays can be longer
+   * @return The forward sensitivities to the parameters
+   */
+  default double[] parameterForwardSensitivity(String name, double[] startTimes, double[] endTimes, double[] accrualFactors,
+      double[] sensitivities, int size) {
+    final List<ForwardSensitivity> pointSensitivity = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      pointSensitivity.add(new SimplyCompoundedForwardSensitivity(startTimes[i], endTimes[i], accrualFactors[i], sensitivities[i]));
+    }
+    return parameterForwardSensitivity(name, pointSensitivity);
+  }
+
   /**
    * Returns an unmodifiable sorted set of all curve names. If there are no curves in the provider,
    * returns an empty set.
@@ -0,0 +1,607 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.sensitivity.multicurve;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntBinaryOperator;
+
+import com.opengamma.analytics.financial.provider.description.interestrate.ParameterProviderInterface;
+import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.tuple.DoublesPair;
+import com.opengamma.strata.collect.tuple.Pair;
+
+/**
+ * Point sensitivity for the multi-curves framework stored in primitive arrays.
+ * <p>
+ * This is the columnar counterpart of {@link MultipleCurrencyMulticurveSensitivity}. For each curve name and currency pair,
+ * the discounting (yield) sensitivities are stored as a time column and a value column and the forward sensitivities
+ * as start time, end time, accrual factor and value columns. The columns grow as points are added.
+ * <p>
+ * The object is mutable: points are accumulated in place, without creating maps, lists or pairs for each aggregation.
+ * The simply compounded forward sensitivities ({@link SimplyCompoundedForwardSensitivity}) and the annually compounded ones
+ * ({@link AnnuallyCompoundedForwardSensitivity}, produced for example by the compounded overnight coupons) are stored in separate columns.
+ * The object is not thread-safe.
+ */
+public final class MulticurvePointSensitivity {
+
+  /**
+   * The initial capacity of the columns.
+   */
+  private static final int INITIAL_CAPACITY = 8;
+
+  /**
+   * The discounting sensitivities, by curve name and currency.
+   */
+  private final LinkedHashMap<Pair<String, Currency>, DiscountingColumns> _discounting;
+  /**
+   * The forward sensitivities, by curve name and currency.
+   */
+  private final LinkedHashMap<Pair<String, Currency>, ForwardColumns> _forward;
+  /**
+   * The annually compounded forward sensitivities, by curve name and currency.
+   */
+  private final LinkedHashMap<Pair<String, Currency>, ForwardColumns> _forwardAnnuallyCompounded;
+
+  /**
+   * Constructor of an empty sensitivity.
+   */
+  public MulticurvePointSensitivity() {
+    _discounting = new LinkedHashMap<>();
+    _forward = new LinkedHashMap<>();
+    _forwardAnnuallyCompounded = new LinkedHashMap<>();
+  }
+
+  /**
+   * Creates a point sensitivity from the object form of the sensitivity.
+   * @param sensitivity The sensitivity, not null. The forward sensitivities should be simply or annually compounded.
+   * @return The point sensitivity.
+   */
+  public static MulticurvePointSensitivity of(final MultipleCurrencyMulticurveSensitivity sensitivity) {
+    final MulticurvePointSensitivity result = new MulticurvePointSensitivity();
+    result.add(sensitivity);
+    return result;
+  }
+
+  /**
+   * Adds a discounting (yield) point sensitivity.
+   * @param curveName The curve name.
+   * @param ccy The currency in which the sensitivity is expressed.
+   * @param time The time.
+   * @param value The sensitivity value.
+   */
+  public void addDiscounting(final String curveName, final Currency ccy, final double time, final double value) {
+    final Pair<String, Currency> key = Pair.of(curveName, ccy);
+    DiscountingColumns columns = _discounting.get(key);
+    if (columns == null) {
+      columns = new DiscountingColumns(INITIAL_CAPACITY);
+      _discounting.put(key, columns);
+    }
+    columns.add(time, value);
+  }
+
+  /**
+   * Adds a simply compounded forward point sensitivity.
+   * @param curveName The curve name.
+   * @param ccy The currency in which the sensitivity is expressed.
+   * @param startTime The forward start time.
+   * @param endTime The forward end time.
+   * @param accrualFactor The forward accrual factor.
+   * @param value The sensitivity value.
+   */
+  public void addForward(final String curveName, final Currency ccy, final double startTime, final double endTime, final double accrualFactor,
+      final double value) {
+    addForward(_forward, curveName, ccy, startTime, endTime, accrualFactor, value);
+  }
+
+  /**
+   * Adds an annually compounded forward point sensitivity.
+   * @param curveName The curve name.
+   * @param ccy The currency in which the sensitivity is expressed.
+   * @param startTime The forward start time.
+   * @param endTime The forward end time.
+   * @param accrualFactor The forward accrual factor.
+   * @param value The sensitivity value.
+   */
+  public void addForwardAnnuallyCompounded(final String curveName, final Currency ccy, final double startTime, final double endTime,
+      final double accrualFactor, final double value) {
+    addForward(_forwardAnnuallyCompounded, curveName, ccy, startTime, endTime, accrualFactor, value);
+  }
+
+  private static void addForward(final Map<Pair<String, Currency>, ForwardColumns> map, final String curveName, final Currency ccy,
+      final double startTime, final double endTime, final double accrualFactor, final double value) {
+    ArgChecker.isTrue(startTime < endTime, "Start time {} must be before the end time {}", startTime, endTime);
+    final Pair<String, Currency> key = Pair.of(curveName, ccy);
+    ForwardColumns columns = map.get(key);
+    if (columns == null) {
+      columns = new ForwardColumns(INITIAL_CAPACITY);
+      map.put(key, columns);
+    }
+    columns.add(startTime, endTime, accrualFactor, value);
+  }
+
+  /**
+   * Adds all the points of another point sensitivity to this one. The other sensitivity is not modified.
+   * @param other The other sensitivity, not null.
+   */
+  public void add(final MulticurvePointSensitivity other) {
+    ArgChecker.notNull(other, "sensitivity");
+    for (final Map.Entry<Pair<String, Currency>, DiscountingColumns> entry : other._discounting.entrySet()) {
+      final DiscountingColumns columns = entry.getValue();
+      final int size = columns._size; // the other sensitivity may be this one
+      for (int i = 0; i < size; i++) {
+        addDiscounting(entry.getKey().getFirst(), entry.getKey().getSecond(), columns._times[i], columns._values[i]);
+      }
+    }
+    addAllForward(_forward, other._forward);
+    addAllForward(_forwardAnnuallyCompounded, other._forwardAnnuallyCompounded);
+  }
+
+  private static void addAllForward(final Map<Pair<String, Currency>, ForwardColumns> map, final Map<Pair<String, Currency>, ForwardColumns> other) {
+    for (final Map.Entry<Pair<String, Currency>, ForwardColumns> entry : other.entrySet()) {
+      final ForwardColumns columns = entry.getValue();
+      final int size = columns._size;
+      for (int i = 0; i < size; i++) {
+        addForward(map, entry.getKey().getFirst(), entry.getKey().getSecond(), columns._startTimes[i], columns._endTimes[i], columns._accrualFactors[i],
+            columns._values[i]);
+      }
+    }
+  }
+
+  /**
+   * Adds all the points of a sensitivity in the object form to this one.
+   * @param sensitivity The sensitivity, not null. The forward sensitivities should be simply or annually compounded.
+   */
+  public void add(final MultipleCurrencyMulticurveSensitivity sensitivity) {
+    ArgChecker.notNull(sensitivity, "sensitivity");
+    for (final Map.Entry<Currency, MulticurveSensitivity> entryCcy : sensitivity.getSensitivities().entrySet()) {
+      final Currency ccy = entryCcy.getKey();
+      for (final Map.Entry<String, List<DoublesPair>> entry : entryCcy.getValue().getYieldDiscountingSensitivities().entrySet()) {
+        for (final DoublesPair pair : entry.getValue()) {
+          addDiscounting(entry.getKey(), ccy, pair.getFirst(), pair.getSecond());
+        }
+      }
+      for (final Map.Entry<String, List<ForwardSensitivity>> entry : entryCcy.getValue().getForwardSensitivities().entrySet()) {
+        for (final ForwardSensitivity point : entry.getValue()) {
+          if (point instanceof SimplyCompoundedForwardSensitivity) {
+            addForward(entry.getKey(), ccy, point.getStartTime(), point.getEndTime(), point.getAccrualFactor(), point.getValue());
+          } else if (point instanceof AnnuallyCompoundedForwardSensitivity) {
+            addForwardAnnuallyCompounded(entry.getKey(), ccy, point.getStartTime(), point.getEndTime(), point.getAccrualFactor(), point.getValue());
+          } else {
+            throw new IllegalArgumentException("Forward sensitivity " + point.getClass().getSimpleName() + " not supported");
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Multiplies all the sensitivity values by a common factor, in place.
+   * @param factor The multiplicative factor.
+   */
+  public void multiplyBy(final double factor) {
+    for (final DiscountingColumns columns : _discounting.values()) {
+      for (int i = 0; i < columns._size; i++) {
+        columns._values[i] *= factor;
+      }
+    }
+    for (final ForwardColumns columns : _forward.values()) {
+      for (int i = 0; i < columns._size; i++) {
+        columns._values[i] *= factor;
+      }
+    }
+    for (final ForwardColumns columns : _forwardAnnuallyCompounded.values()) {
+      for (int i = 0; i < columns._size; i++) {
+        columns._values[i] *= factor;
+      }
+    }
+  }
+
+  /**
+   * Sorts the points of each curve and adds the values of the points with the same times, in place.
+   * The result is the same as {@link MulticurveSensitivity#cleaned()}, except that the annually compounded forward
+   * points are kept annually compounded and are not merged with the simply compounded ones.
+   */
+  public void compact() {
+    for (final DiscountingColumns columns : _discounting.values()) {
+      columns.compact(-1.0);
+    }
+    for (final ForwardColumns columns : _forward.values()) {
+      columns.compact(-1.0);
+    }
+    for (final ForwardColumns columns : _forwardAnnuallyCompounded.values()) {
+      columns.compact(-1.0);
+    }
+  }
+
+  /**
+   * Sorts the points of each curve and adds the values of the points with the same times, in place.
+   * The merged points with an absolute value below or equal to the tolerance are removed.
+   * The result is the same as {@link MulticurveSensitivity#cleaned(double)}, except that the annually compounded forward
+   * points are kept annually compounded and are not merged with the simply compounded ones.
+   * @param tolerance The tolerance, not negative.
+   */
+  public void compact(final double tolerance) {
+    ArgChecker.notNegative(tolerance, "tolerance");
+    for (final DiscountingColumns columns : _discounting.values()) {
+      columns.compact(tolerance);
+    }
+    for (final ForwardColumns columns : _forward.values()) {
+      columns.compact(tolerance);
+    }
+    for (final ForwardColumns columns : _forwardAnnuallyCompounded.values()) {
+      columns.compact(tolerance);
+    }
+  }
+
+  /**
+   * Gets the curve name and currency pairs with discounting sensitivities.
+   * @return The pairs.
+   */
+  public Set<Pair<String, Currency>> getDiscountingNamesCurrency() {
+    return _discounting.keySet();
+  }
+
+  /**
+   * Gets the curve name and currency pairs with forward sensitivities.
+   * @return The pairs.
+   */
+  public Set<Pair<String, Currency>> getForwardNamesCurrency() {
+    return _forward.keySet();
+  }
+
+  /**
+   * Gets the curve name and currency pairs with annually compounded forward sensitivities.
+   * @return The pairs.
+   */
+  public Set<Pair<String, Currency>> getForwardAnnuallyCompoundedNamesCurrency() {
+    return _forwardAnnuallyCompounded.keySet();
+  }
+
+  /**
+   * Gets the discounting sensitivity times for a curve and a currency.
+   * @param curveName The curve name.
+   * @param ccy The currency.
+   * @return A copy of the times, empty if there is no sensitivity.
+   */
+  public double[] getDiscountingTimes(final String curveName, final Currency ccy) {
+    final DiscountingColumns columns = _discounting.get(Pair.of(curveName, ccy));
+    return columns == null ? new double[0] : Arrays.copyOf(columns._times, columns._size);
+  }
+
+  /**
+   * Gets the discounting sensitivity values for a curve and a currency.
+   * @param curveName The curve name.
+   * @param ccy The currency.
+   * @return A copy of the values, empty if there is no sensitivity.
+   */
+  public double[] getDiscountingValues(final String curveName, final Currency ccy) {
+    final DiscountingColumns columns = _discounting.get(Pair.of(curveName, ccy));
+    return columns == null ? new double[0] : Arrays.copyOf(columns._values, columns._size);
+  }
+
+  /**
+   * Gets the forward sensitivity start times for a curve and a currency.
+   * @param curveName The curve name.
+   * @param ccy The currency.
+   * @return A copy of the start times, empty if there is no sensitivity.
+   */
+  public double[] getForwardStartTimes(final String curveName, final Currency ccy) {
+    final ForwardColumns columns = _forward.get(Pair.of(curveName, ccy));
+    return columns == null ? new double[0] : Arrays.copyOf(columns._startTimes, columns._size);
+  }
+
+  /**
+   * Gets the forward sensitivity end times for a curve and a currency.
+   * @param curveName The curve name.
+   * @param ccy The currency.
+   * @return A copy of the end times, empty if there is no sensitivity.
+   */
+  public double[] getForwardEndTimes(final String curveName, final Currency ccy) {
+    final ForwardColumns columns = _forward.get(Pair.of(curveName, ccy));
+    return columns == null ? new double[0] : Arrays.copyOf(columns._endTimes, columns._size);
+  }
+
+  /**
+   * Gets the forward sensitivity accrual factors for a curve and a currency.
+   * @param curveName The curve name.
+   * @param ccy The currency.
+   * @return A copy of the accrual factors, empty if there is no sensitivity.
+   */
+  public double[] getForwardAccrualFactors(final String curveName, final Currency ccy) {
+    final ForwardColumns columns = _forward.get(Pair.of(curveName, ccy));
+    return columns == null ? new double[0] : Arrays.copyOf(columns._accrualFactors, columns._size);
+  }
+
+  /**
+   * Gets the forward sensitivity values for a curve and a currency.
+   * @param curveName The curve name.
+   * @param ccy The currency.
+   * @return A copy of the values, empty if there is no sensitivity.
+   */
+  public double[] getForwardValues(final String curveName, final Currency ccy) {
+    final ForwardColumns columns = _forward.get(Pair.of(curveName, ccy));
+    return columns == null ? new double[0] : Arrays.copyOf(columns._values, columns._size);
+  }
+
+  /**
+   * Converts the point sensitivity to the object form.
+   * @return The sensitivity.
+   */
+  public MultipleCurrencyMulticurveSensitivity toMulticurveSensitivity() {
+    final Map<Currency, Map<String, List<DoublesPair>>> dsc = new LinkedHashMap<>();
+    final Map<Currency, Map<String, List<ForwardSensitivity>>> fwd = new LinkedHashMap<>();
+    for (final Map.Entry<Pair<String, Currency>, DiscountingColumns> entry : _discounting.entrySet()) {
+      final DiscountingColumns columns = entry.getValue();
+      final List<DoublesPair> list = new ArrayList<>(columns._size);
+      for (int i = 0; i < columns._size; i++) {
+        list.add(DoublesPair.of(columns._times[i], columns._values[i]));
+      }
+      getOrCreate(dsc, entry.getKey().getSecond()).put(entry.getKey().getFirst(), list);
+      getOrCreate(fwd, entry.getKey().getSecond());
+    }
+    for (final Map.Entry<Pair<String, Currency>, ForwardColumns> entry : _forward.entrySet()) {
+      final ForwardColumns columns = entry.getValue();
+      final List<ForwardSensitivity> list = new ArrayList<>(columns._size);
+      for (int i = 0; i < columns._size; i++) {
+        list.add(new SimplyCompoundedForwardSensitivity(columns._startTimes[i], columns._endTimes[i], columns._accrualFactors[i], columns._values[i]));
+      }
+      getOrCreate(fwd, entry.getKey().getSecond()).put(entry.getKey().getFirst(), list);
+      getOrCreate(dsc, entry.getKey().getSecond());
+    }
+    for (final Map.Entry<Pair<String, Currency>, ForwardColumns> entry : _forwardAnnuallyCompounded.entrySet()) {
+      final Map<String, List<ForwardSensitivity>> fwdCcy = getOrCreate(fwd, entry.getKey().getSecond());
+      List<ForwardSensitivity> list = fwdCcy.get(entry.getKey().getFirst());
+      if (list == null) {
+        list = new ArrayList<>();
+        fwdCcy.put(entry.getKey().getFirst(), list);
+      }
+      list.addAll(entry.getValue().toAnnuallyCompounded());
+      getOrCreate(dsc, entry.getKey().getSecond());
+    }
+    MultipleCurrencyMulticurveSensitivity result = new MultipleCurrencyMulticurveSensitivity();
+    for (final Map.Entry<Currency, Map<String, List<DoublesPair>>> entry : dsc.entrySet()) {
+      result = result.plus(entry.getKey(), MulticurveSensitivity.of(entry.getValue(), fwd.get(entry.getKey())));
+    }
+    return result;
+  }
+
+  /**
+   * Computes the sensitivity to the curve parameters directly from the columns.
+   * The result is the same as the one of {@link com.opengamma.analytics.financial.provider.sensitivity.parameter.ParameterSensitivityParameterCalculator}
+   * applied to the object form of the sensitivity.
+   * @param provider The provider with the curves, not null.
+   * @return The parameter sensitivity.
+   */
+  public MultipleCurrencyParameterSensitivity toParameterSensitivity(final ParameterProviderInterface provider) {
+    return toParameterSensitivity(provider, null);
+  }
+
+  /**
+   * Computes the sensitivity to the parameters of a set of curves directly from the columns.
+   * @param provider The provider with the curves, not null.
+   * @param curvesSet The names of the curves to which the sensitivity is computed. All the curves if null.
+   * @return The parameter sensitivity.
+   */
+  public MultipleCurrencyParameterSensitivity toParameterSensitivity(final ParameterProviderInterface provider, final Set<String> curvesSet) {
+    ArgChecker.notNull(provider, "provider");
+    final LinkedHashMap<Pair<String, Currency>, DoubleMatrix1D> result = new LinkedHashMap<>();
+    for (final Map.Entry<Pair<String, Currency>, DiscountingColumns> entry : _discounting.entrySet()) {
+      final String name = entry.getKey().getFirst();
+      if (curvesSet == null || curvesSet.contains(name)) {
+        final DiscountingColumns columns = entry.getValue();
+        result.put(entry.getKey(), new DoubleMatrix1D(provider.parameterSensitivity(name, columns._times, columns._values, columns._size)));
+      }
+    }
+    MultipleCurrencyParameterSensitivity sensitivity = new MultipleCurrencyParameterSensitivity(result);
+    for (final Map.Entry<Pair<String, Currency>, ForwardColumns> entry : _forward.entrySet()) {
+      final String name = entry.getKey().getFirst();
+      if (curvesSet == null || curvesSet.contains(name)) {
+        final ForwardColumns columns = entry.getValue();
+        sensitivity = sensitivity.plus(entry.getKey(), new DoubleMatrix1D(provider.parameterForwardSensitivity(name, columns._startTimes,
+            columns._endTimes, columns._accrualFactors, columns._values, columns._size)));
+      }
+    }
+    for (final Map.Entry<Pair<String, Currency>, ForwardColumns> entry : _forwardAnnuallyCompounded.entrySet()) {
+      final String name = entry.getKey().getFirst();
+      if (curvesSet == null || curvesSet.contains(name)) {
+        sensitivity = sensitivity.plus(entry.getKey(), new DoubleMatrix1D(provider.parameterForwardSensitivity(name,
+            entry.getValue().toAnnuallyCompounded())));
+      }
+    }
+    return sensitivity;
+  }
+
+  private static <T> Map<String, List<T>> getOrCreate(final Map<Currency, Map<String, List<T>>> map, final Currency ccy) {
+    Map<String, List<T>> result = map.get(ccy);
+    if (result == null) {
+      result = new HashMap<>();
+      map.put(ccy, result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the permutation sorting the indices 0 to size-1 according to the comparator. The sort is stable.
+   * @param size The number of indices.
+   * @param comparator The comparator on indices.
+   * @return The sorted indices.
+   */
+  private static int[] sortedIndices(final int size, final IntBinaryOperator comparator) {
+    int[] index = new int[size];
+    for (int i = 0; i < size; i++) {
+      index[i] = i;
+    }
+    int[] work = new int[size];
+    for (int width = 1; width < size; width *= 2) {
+      for (int lo = 0; lo < size; lo += 2 * width) {
+        final int mid = Math.min(lo + width, size);
+        final int hi = Math.min(lo + 2 * width, size);
+        int i = lo;
+        int j = mid;
+        int k = lo;
+        while (i < mid && j < hi) {
+          work[k++] = comparator.applyAsInt(index[j], index[i]) < 0 ? index[j++] : index[i++];
+        }
+        while (i < mid) {
+          work[k++] = index[i++];
+        }
+        while (j < hi) {
+          work[k++] = index[j++];
+        }
+      }
+      final int[] swap = index;
+      index = work;
+      work = swap;
+    }
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    return toMulticurveSensitivity().toString();
+  }
+
+  /**
+   * The discounting sensitivity columns of one curve.
+   */
+  private static final class DiscountingColumns {
+    private double[] _times;
+    private double[] _values;
+    private int _size;
+
+    DiscountingColumns(final int capacity) {
+      _times = new double[capacity];
+      _values = new double[capacity];
+    }
+
+    void add(final double time, final double value) {
+      if (_size == _times.length) {
+        final int capacity = Math.max(2 * _size, INITIAL_CAPACITY);
+        _times = Arrays.copyOf(_times, capacity);
+        _values = Arrays.copyOf(_values, capacity);
+      }
+      _times[_size] = time;
+      _values[_size] = value;
+      _size++;
+    }
+
+    void compact(final double tolerance) {
+      final double[] times = _times;
+      final int[] index = sortedIndices(_size, (i, j) -> Double.compare(times[i], times[j]));
+      final double[] sortedTimes = new double[_size];
+      final double[] sortedValues = new double[_size];
+      int n = 0;
+      int loop = 0;
+      while (loop < _size) {
+        final double time = _times[index[loop]];
+        double value = 0.0;
+        while (loop < _size && Double.compare(_times[index[loop]], time) == 0) {
+          value += _values[index[loop]];
+          loop++;
+        }
+        if (tolerance < 0.0 || Math.abs(value) > tolerance) {
+          sortedTimes[n] = time;
+          sortedValues[n] = value;
+          n++;
+        }
+      }
+      _times = sortedTimes;
+      _values = sortedValues;
+      _size = n;
+    }
+  }
+
+  /**
+   * The forward sensitivity columns of one curve.
+   */
+  private static final class ForwardColumns {
+    private double[] _startTimes;
+    private double[] _endTimes;
+    private double[] _accrualFactors;
+    private double[] _values;
+    private int _size;
+
+    ForwardColumns(final int capacity) {
+      _startTimes = new double[capacity];
+      _endTimes = new double[capacity];
+      _accrualFactors = new double[capacity];
+      _values = new double[capacity];
+    }
+
+    void add(final double startTime, final double endTime, final double accrualFactor, final double value) {
+      if (_size == _startTimes.length) {
+        final int capacity = Math.max(2 * _size, INITIAL_CAPACITY);
+        _startTimes = Arrays.copyOf(_startTimes, capacity);
+        _endTimes = Arrays.copyOf(_endTimes, capacity);
+        _accrualFactors = Arrays.copyOf(_accrualFactors, capacity);
+        _values = Arrays.copyOf(_values, capacity);
+      }
+      _startTimes[_size] = startTime;
+      _endTimes[_size] = endTime;
+      _accrualFactors[_size] = accrualFactor;
+      _values[_size] = value;
+      _size++;
+    }
+
+    List<ForwardSensitivity> toAnnuallyCompounded() {
+      final List<ForwardSensitivity> list = new ArrayList<>(_size);
+      for (int i = 0; i < _size; i++) {
+        list.add(new AnnuallyCompoundedForwardSensitivity(_startTimes[i], _endTimes[i], _accrualFactors[i], _values[i]));
+      }
+      return list;
+    }
+
+    private int compare(final int i, final int j) {
+      int c = Double.compare(_startTimes[i], _startTimes[j]);
+      if (c == 0) {
+        c = Double.compare(_endTimes[i], _endTimes[j]);
+      }
+      if (c == 0) {
+        c = Double.compare(_accrualFactors[i], _accrualFactors[j]);
+      }
+      return c;
+    }
+
+    void compact(final double tolerance) {
+      final int[] index = sortedIndices(_size, this::compare);
+      final double[] startTimes = new double[_size];
+      final double[] endTimes = new double[_size];
+      final double[] accrualFactors = new double[_size];
+      final double[] values = new double[_size];
+      int n = 0;
+      int loop = 0;
+      while (loop < _size) {
+        final int first = index[loop];
+        double value = 0.0;
+        while (loop < _size && compare(index[loop], first) == 0) {
+          value += _values[index[loop]];
+          loop++;
+        }
+        if (tolerance < 0.0 || Math.abs(value) > tolerance) {
+          startTimes[n] = _startTimes[first];
+          endTimes[n] = _endTimes[first];
+          accrualFactors[n] = _accrualFactors[first];
+          values[n] = value;
+          n++;
+        }
+      }
+      _startTimes = startTimes;
+      _endTimes = endTimes;
+      _accrualFactors = accrualFactors;
+      _values = values;
+      _size = n;
+    }
+  }
+
+}
@@ -6,6 +6,8 @@
 package com.opengamma.analytics.financial.provider.sensitivity.multicurve;
 
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
 import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitor;
@@ -55,6 +57,66 @@ public abstract class ParameterSensitivityMulticurveMatrixAbstractCalculator {
     return pointToParameterSensitivity(sensitivity, multicurves, curvesSet);
   }
 
+  /**
+   * Computes the sensitivities of several instruments with respect to the parameters and writes them in a preallocated array.
+   * The row i of the array is the sensitivity of the instrument i, in the same order as for
+   * {@link #calculateSensitivity(InstrumentDerivative, MulticurveProviderInterface, Set)}.
+   * @param instruments The instruments. Not null.
+   * @param multicurves The multi-curve provider. Not null.
+   * @param curvesSet The set of curves for which the sensitivity will be computed. Not null.
+   * @param result The array in which the sensitivities are written. One row for each instrument, each row with the total number of parameters
+   * of the curves in the set. Not null.
+   * @param pool The pool on which the rows are computed concurrently. If null, the rows are computed one after the other.
+   */
+  public void calculateSensitivities(final InstrumentDerivative[] instruments, final MulticurveProviderInterface multicurves, final Set<String> curvesSet,
+      final double[][] result, final ForkJoinPool pool) {
+    ArgChecker.noNulls(instruments, "instruments");
+    ArgChecker.notNull(multicurves, "null multicurve");
+    ArgChecker.notNull(curvesSet, "null curves set");
+    ArgChecker.notNull(result, "result");
+    ArgChecker.isTrue(instruments.length == result.length, "one row of result required for each instrument");
+    final ParameterSensitivityWriter writer = parameterSensitivityWriter(multicurves, curvesSet);
+    if (pool == null) {
+      for (int loopins = 0; loopins < instruments.length; loopins++) {
+        writer.write(instruments[loopins].accept(_curveSensitivityCalculator, multicurves), result[loopins]);
+      }
+    } else {
+      pool.submit(() -> IntStream.range(0, instruments.length).parallel()
+          .forEach(loopins -> writer.write(instruments[loopins].accept(_curveSensitivityCalculator, multicurves), result[loopins]))).join();
+    }
+  }
+
+  /**
+   * Returns the writer of the parameter sensitivities for a given multi-curve provider and set of curves.
+   * The writer is used concurrently and should not have a mutable state.
+   * <p>
+   * The default implementation copies the result of {@link #pointToParameterSensitivity(MulticurveSensitivity, MulticurveProviderInterface, Set)}.
+   * @param multicurves The multi-curve provider. Not null.
+   * @param curvesSet The set of curves for which the sensitivity will be computed. Not null.
+   * @return The writer.
+   */
+  protected ParameterSensitivityWriter parameterSensitivityWriter(final MulticurveProviderInterface multicurves, final Set<String> curvesSet) {
+    return (sensitivity, result) -> {
+      final double[] parameterSensitivity = pointToParameterSensitivity(sensitivity, multicurves, curvesSet).getData();
+      ArgChecker.isTrue(parameterSensitivity.length == result.length, "result row has not the number of parameters");
+      System.arraycopy(parameterSensitivity, 0, result, 0, result.length);
+    };
+  }
+
+  /**
+   * Writes the parameter sensitivity associated to a point sensitivity in an array.
+   */
+  protected interface ParameterSensitivityWriter {
+
+    /**
+     * Writes the parameter sensitivity in the array, overriding its content.
+     * @param sensitivity The point sensitivity.
+     * @param result The array, with the total number of parameters of the curves.
+     */
+    void write(MulticurveSensitivity sensitivity, double[] result);
+
+  }
+
   /**
    * Computes the sensitivity with respect to the parameters from the point sensitivities.
    * @param sensitivity The point sensitivity.
@@ -5,6 +5,8 @@
  */
 package com.opengamma.analytics.financial.provider.sensitivity.multicurve;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -14,6 +16,7 @@ import com.opengamma.analytics.financial.provider.description.interestrate.Multi
 import com.opengamma.analytics.financial.provider.description.interestrate.ParameterProviderInterface;
 import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
 import com.opengamma.analytics.util.ArrayUtils;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.tuple.DoublesPair;
 
 /**
@@ -68,4 +71,38 @@ public class ParameterSensitivityMulticurveMatrixCalculator extends ParameterSen
     return new DoubleMatrix1D(result);
   }
 
+  @Override
+  protected ParameterSensitivityWriter parameterSensitivityWriter(final MulticurveProviderInterface multicurves, final Set<String> curvesSet) {
+    // Implementation note: the start index of each curve in the result does not depend on the sensitivity.
+    final Map<String, Integer> startResult = new HashMap<>();
+    int nbResultParameters = 0;
+    for (final String name : curvesSet) {
+      startResult.put(name, nbResultParameters);
+      nbResultParameters += multicurves.getNumberOfParameters(name);
+    }
+    final int nbParameters = nbResultParameters;
+    return (sensitivity, result) -> {
+      ArgChecker.isTrue(result.length == nbParameters, "result row has not the number of parameters");
+      Arrays.fill(result, 0.0);
+      for (final Map.Entry<String, List<DoublesPair>> entry : sensitivity.getYieldDiscountingSensitivities().entrySet()) {
+        final Integer start = startResult.get(entry.getKey());
+        if (start != null) {
+          addTo(multicurves.parameterSensitivity(entry.getKey(), entry.getValue()), result, start);
+        }
+      }
+      for (final Map.Entry<String, List<ForwardSensitivity>> entry : sensitivity.getForwardSensitivities().entrySet()) {
+        final Integer start = startResult.get(entry.getKey());
+        if (start != null) {
+          addTo(multicurves.parameterForwardSensitivity(entry.getKey(), entry.getValue()), result, start);
+        }
+      }
+    };
+  }
+
+  private static void addTo(final double[] sensitivity, final double[] result, final int start) {
+    for (int loopp = 0; loopp < sensitivity.length; loopp++) {
+      result[start + loopp] += sensitivity[loopp];
+    }
+  }
+
 }
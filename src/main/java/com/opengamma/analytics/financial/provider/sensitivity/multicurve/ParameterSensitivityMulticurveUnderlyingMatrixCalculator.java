@@ -5,7 +5,8 @@
  */
 package com.opengamma.analytics.financial.provider.sensitivity.multicurve;
 
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -16,7 +17,6 @@ import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisito
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderInterface;
 import com.opengamma.analytics.financial.provider.description.interestrate.ParameterProviderInterface;
 import com.opengamma.analytics.math.matrix.DoubleMatrix1D;
-import com.opengamma.analytics.util.ArrayUtils;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.tuple.DoublesPair;
 
@@ -44,107 +44,146 @@ public class ParameterSensitivityMulticurveUnderlyingMatrixCalculator extends Pa
    */
   @Override
   public DoubleMatrix1D pointToParameterSensitivity(final MulticurveSensitivity sensitivity, final MulticurveProviderInterface multicurves, final Set<String> sensicurveNamesSet) {
-    // TODO: The first part depends only of the multicurves and curvesSet, not the sensitivity. Should it be refactored and done only once?
-    final Set<String> multicurveNamesSet = multicurves.getAllNames();
-    // Implementation note: Check sensicurve are in multicurve
-    ArgChecker.isTrue(multicurveNamesSet.containsAll(sensicurveNamesSet), "curve in the names set not in the multi-curve provider");
-    final int nbMultiCurve = multicurveNamesSet.size();
-    // Populate the name names and numbers for the curves in the multicurve
-    int loopname = 0;
-    final LinkedHashMap<String, Integer> multicurveNum = new LinkedHashMap<>();
-    for (final String name : multicurveNamesSet) { // loop over all curves in multicurves (by name)
-      multicurveNum.put(name, loopname++);
-    }
-    final int[] nbNewParameters = new int[nbMultiCurve];
-    final int[] nbParameters = new int[nbMultiCurve];
-    loopname = 0;
-    for (final String name : multicurveNamesSet) { // loop over all curves in multicurves (by name)
-      nbParameters[loopname] = multicurves.getNumberOfParameters(name);
-      nbNewParameters[loopname] = nbParameters[loopname];
-      loopname++;
-    }
-    loopname = 0;
-    for (final String name : multicurveNamesSet) { // loop over all curves in multicurves (by name)
-      final List<String> underlyingCurveNames = multicurves.getUnderlyingCurvesNames(name);
-      for (final String u : underlyingCurveNames) {
-        final Integer i = multicurveNum.get(u);
-        if (i != null) {
-          nbNewParameters[loopname] -= nbNewParameters[i]; // Only one level: a curve used as an underlying can not have an underlying itself.
-        }
+    final UnderlyingWriter writer = new UnderlyingWriter(multicurves, sensicurveNamesSet);
+    final double[] result = new double[writer._nbResultParameters];
+    writer.write(sensitivity, result);
+    return new DoubleMatrix1D(result);
+  }
+
+  @Override
+  protected ParameterSensitivityWriter parameterSensitivityWriter(final MulticurveProviderInterface multicurves, final Set<String> curvesSet) {
+    return new UnderlyingWriter(multicurves, curvesSet);
+  }
+
+  /**
+   * Writer of the parameter sensitivities. The description of the curves and of their underlying curves, which does not depend
+   * on the sensitivity, is computed once at construction.
+   */
+  private static final class UnderlyingWriter implements ParameterSensitivityWriter {
+
+    /** The multi-curve provider. */
+    private final MulticurveProviderInterface _multicurves;
+    /** The names of all the curves in the multi-curve provider. */
+    private final String[] _names;
+    /** The number of parameters of each curve in the multi-curve, including the parameters of the underlying curves. */
+    private final int[] _nbParameters;
+    /** The number of new parameters of each curve in the multi-curve, i.e. the parameters which are not from the underlying curves. */
+    private final int[] _nbNewParameters;
+    /** For each curve in the multi-curve, the index of the underlying curves in the same multi-curve. */
+    private final int[][] _indexOtherMulticurve;
+    /** For each curve, the start index of its own parameters. */
+    private final int[] _startOwnParameter;
+    /** For each curve, the start index of the parameters of its underlying curves. */
+    private final int[][] _startUnderlyingParameter;
+    /** For each curve, the start index in the result of its new parameters; -1 if the curve is not in the sensitivity curves set. */
+    private final int[] _startResult;
+    /** The total number of parameters in the result. */
+    private final int _nbResultParameters;
+
+    UnderlyingWriter(final MulticurveProviderInterface multicurves, final Set<String> sensicurveNamesSet) {
+      _multicurves = multicurves;
+      final Set<String> multicurveNamesSet = multicurves.getAllNames();
+      // Implementation note: Check sensicurve are in multicurve
+      ArgChecker.isTrue(multicurveNamesSet.containsAll(sensicurveNamesSet), "curve in the names set not in the multi-curve provider");
+      final int nbMultiCurve = multicurveNamesSet.size();
+      // Populate the name names and numbers for the curves in the multicurve
+      _names = multicurveNamesSet.toArray(new String[nbMultiCurve]);
+      final Map<String, Integer> multicurveNum = new HashMap<>();
+      for (int loopname = 0; loopname < nbMultiCurve; loopname++) {
+        multicurveNum.put(_names[loopname], loopname);
       }
-      loopname++;
-    }
-    // Implementation note: nbNewParamSensiCurve
-    final int[][] indexOtherMulticurve = new int[nbMultiCurve][];
-    // Implementation note: indexOtherMultiCurve - for each curve in the multi-curve, the index of the underlying curves in the same set
-    final int[] startOwnParameter = new int[nbMultiCurve];
-    final int[][] startUnderlyingParameter = new int[nbMultiCurve][];
-    // Implementation note: The start index of the parameters of the underlying curves
-    loopname = 0;
-    for (final String name : multicurveNamesSet) { // loop over all curves in multi-curve (by name)
-      final List<String> underlyingCurveNames = multicurves.getUnderlyingCurvesNames(name);
-      final IntArrayList indexOtherMulticurveList = new IntArrayList();
-      for (final String u : underlyingCurveNames) {
-        final Integer i = multicurveNum.get(u);
-        if (i != null) {
-          indexOtherMulticurveList.add(i);
+      _nbNewParameters = new int[nbMultiCurve];
+      _nbParameters = new int[nbMultiCurve];
+      for (int loopname = 0; loopname < nbMultiCurve; loopname++) {
+        _nbParameters[loopname] = multicurves.getNumberOfParameters(_names[loopname]);
+        _nbNewParameters[loopname] = _nbParameters[loopname];
+      }
+      _indexOtherMulticurve = new int[nbMultiCurve][];
+      _startOwnParameter = new int[nbMultiCurve];
+      _startUnderlyingParameter = new int[nbMultiCurve][];
+      for (int loopname = 0; loopname < nbMultiCurve; loopname++) {
+        final List<String> underlyingCurveNames = multicurves.getUnderlyingCurvesNames(_names[loopname]);
+        final IntArrayList indexOtherMulticurveList = new IntArrayList();
+        for (final String u : underlyingCurveNames) {
+          final Integer i = multicurveNum.get(u);
+          if (i != null) {
+            _nbNewParameters[loopname] -= _nbNewParameters[i]; // Only one level: a curve used as an underlying can not have an underlying itself.
+            indexOtherMulticurveList.add(i);
+          }
         }
+        _indexOtherMulticurve[loopname] = indexOtherMulticurveList.toIntArray();
       }
-      indexOtherMulticurve[loopname] = indexOtherMulticurveList.toIntArray();
-      loopname++;
-    }
-    for (final String name : multicurveNamesSet) { // loop over all curves (by name)
-      int loopstart = 0;
-      final int num = multicurveNum.get(name);
-      final IntArrayList startUnderlyingParamList = new IntArrayList();
-      final List<String> underlyingCurveNames = multicurves.getUnderlyingCurvesNames(name);
-      for (final String u : underlyingCurveNames) {
-        final Integer i = multicurveNum.get(u);
-        if (i != null) {
-          startUnderlyingParamList.add(loopstart);
-          loopstart += nbNewParameters[i]; // Implementation note: Rely on underlying curves being first and then the new parameters
+      for (int loopname = 0; loopname < nbMultiCurve; loopname++) {
+        int loopstart = 0;
+        _startUnderlyingParameter[loopname] = new int[_indexOtherMulticurve[loopname].length];
+        for (int loopu = 0; loopu < _indexOtherMulticurve[loopname].length; loopu++) {
+          _startUnderlyingParameter[loopname][loopu] = loopstart;
+          loopstart += _nbNewParameters[_indexOtherMulticurve[loopname][loopu]]; // Implementation note: Rely on underlying curves being first and then the new parameters
         }
+        _startOwnParameter[loopname] = loopstart;
       }
-      startOwnParameter[num] = loopstart;
-      startUnderlyingParameter[num] = startUnderlyingParamList.toIntArray();
-    }
-    // Implementation note: Compute the "dirty" sensitivity, i.e. the sensitivity to all the parameters in each curve. The underlying are taken into account in the "clean" step.
-    double[][] sensiDirty = new double[nbMultiCurve][];
-    final Map<String, List<DoublesPair>> sensitivityDsc = sensitivity.getYieldDiscountingSensitivities();
-    final Map<String, List<ForwardSensitivity>> sensitivityFwd = sensitivity.getForwardSensitivities();
-    for (final String name : multicurveNamesSet) { // loop over all curves (by name)
-      final int num = multicurveNum.get(name);
-      sensiDirty[num] = new double[nbParameters[num]];
-      final double[] sDsc1Name = multicurves.parameterSensitivity(name, sensitivityDsc.get(name));
-      final double[] sFwd1Name = multicurves.parameterForwardSensitivity(name, sensitivityFwd.get(name));
-      for (int loopp = 0; loopp < nbParameters[num]; loopp++) {
-        sensiDirty[num][loopp] = sDsc1Name[loopp] + sFwd1Name[loopp];
+      _startResult = new int[nbMultiCurve];
+      Arrays.fill(_startResult, -1);
+      int nbResultParameters = 0;
+      for (final String name : sensicurveNamesSet) {
+        final int num = multicurveNum.get(name);
+        _startResult[num] = nbResultParameters;
+        nbResultParameters += _nbNewParameters[num];
       }
+      _nbResultParameters = nbResultParameters;
     }
-    // Implementation note: "clean" the sensitivity, i.e. add the parts on the same curves together.
-    double[][] sensiClean = new double[nbMultiCurve][];
-    for (int loopc = 0; loopc < nbMultiCurve; loopc++) {
-      sensiClean[loopc] = new double[nbNewParameters[loopc]];
+
+    @Override
+    public void write(final MulticurveSensitivity sensitivity, final double[] result) {
+      ArgChecker.isTrue(result.length == _nbResultParameters, "result row has not the number of parameters");
+      Arrays.fill(result, 0.0);
+      final Map<String, List<DoublesPair>> sensitivityDsc = sensitivity.getYieldDiscountingSensitivities();
+      final Map<String, List<ForwardSensitivity>> sensitivityFwd = sensitivity.getForwardSensitivities();
+      for (int num = 0; num < _names.length; num++) { // loop over all curves
+        if (!isInResult(num)) {
+          continue;
+        }
+        // Implementation note: the "dirty" sensitivity, i.e. the sensitivity to all the parameters in the curve, is "cleaned" directly in the result,
+        // i.e. the parts on the same curves are added together.
+        final double[] sDsc1Name = _multicurves.parameterSensitivity(_names[num], sensitivityDsc.get(_names[num]));
+        final double[] sFwd1Name = _multicurves.parameterForwardSensitivity(_names[num], sensitivityFwd.get(_names[num]));
+        // Direct sensitivity
+        if (_startResult[num] >= 0) {
+          for (int loopi = 0; loopi < _nbNewParameters[num]; loopi++) {
+            final int loopp = _startOwnParameter[num] + loopi;
+            result[_startResult[num] + loopi] += sDsc1Name[loopp] + sFwd1Name[loopp];
+          }
+        }
+        // Underlying (indirect) sensitivity
+        for (int loopu = 0; loopu < _indexOtherMulticurve[num].length; loopu++) {
+          final int underlying = _indexOtherMulticurve[num][loopu];
+          if (_startResult[underlying] >= 0) {
+            for (int loopi = 0; loopi < _nbNewParameters[underlying]; loopi++) {
+              final int loopp = _startUnderlyingParameter[num][loopu] + loopi;
+              result[_startResult[underlying] + loopi] += sDsc1Name[loopp] + sFwd1Name[loopp];
+            }
+          }
+        }
+      }
     }
-    for (final String name : multicurveNamesSet) { // loop over all curves (by name)
-      final int num = multicurveNum.get(name);
-      // Direct sensitivity
-      for (int loopi = 0; loopi < nbNewParameters[num]; loopi++) {
-        sensiClean[num][loopi] += sensiDirty[num][startOwnParameter[num] + loopi];
+
+    /**
+     * Checks if a curve or one of its underlying curves is in the result.
+     * @param num The curve number.
+     * @return True if the sensitivity to the curve contributes to the result.
+     */
+    private boolean isInResult(final int num) {
+      if (_startResult[num] >= 0) {
+        return true;
       }
-      // Underlying (indirect) sensitivity
-      for (int loopu = 0; loopu < startUnderlyingParameter[num].length; loopu++) {
-        for (int loopi = 0; loopi < nbNewParameters[indexOtherMulticurve[num][loopu]]; loopi++) {
-          sensiClean[indexOtherMulticurve[num][loopu]][loopi] += sensiDirty[num][startUnderlyingParameter[num][loopu] + loopi];
+      for (final int underlying : _indexOtherMulticurve[num]) {
+        if (_startResult[underlying] >= 0) {
+          return true;
         }
       }
+      return false;
     }
-    double[] result = new double[0];
-    for (String name : sensicurveNamesSet) {
-      final int num = multicurveNum.get(name);
-      result = ArrayUtils.addAll(result, sensiClean[num]);
-    }
-    return new DoubleMatrix1D(result);
+
   }
 
 }
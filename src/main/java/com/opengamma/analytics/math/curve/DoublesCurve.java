@@ -87,6 +87,25 @@ public abstract class DoublesCurve
    */
   public abstract Double getYValue(Double x);
 
+  /**
+   * Given an array of <i>x</i> values, return the array of <i>y</i> values from this curve.
+   * <p>
+   * The values are the same as one call to {@link #getYValue(Double)} for each <i>x</i>. The default implementation
+   * does exactly that; curves backed by an interpolator override it to avoid boxing and to reuse the bracket
+   * between successive values, which is efficient when the <i>x</i> values are sorted.
+   * 
+   * @param x  the <i>x</i> values, not null
+   * @return the <i>y</i> values, not null
+   */
+  public double[] getYValues(double[] x) {
+    ArgChecker.notNull(x, "x");
+    double[] y = new double[x.length];
+    for (int i = 0; i < x.length; i++) {
+      y[i] = getYValue(x[i]);
+    }
+    return y;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Computes the sensitivity of the Y value with respect to the curve parameters.
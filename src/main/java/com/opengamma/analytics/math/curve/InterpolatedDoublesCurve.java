@@ -22,6 +22,7 @@ import org.joda.beans.impl.direct.DirectMetaProperty;
 import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 
 import com.opengamma.analytics.math.interpolation.Interpolator1D;
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.DoubleArrayMath;
@@ -539,6 +540,17 @@ public class InterpolatedDoublesCurve extends ArraysDoublesCurve {
     return interpolator.interpolate(dataBundle, x);
   }
 
+  @Override
+  public double[] getYValues(final double[] x) {
+    ArgChecker.notNull(x, "x");
+    final double[] y = new double[x.length];
+    final InterpolationIndexHint hint = new InterpolationIndexHint();
+    for (int i = 0; i < x.length; i++) {
+      y[i] = interpolator.interpolate(dataBundle, x[i], hint);
+    }
+    return y;
+  }
+
   @Override
   public Double[] getYValueParameterSensitivity(final Double x) {
     ArgChecker.notNull(x, "x");
@@ -5,6 +5,7 @@
  */
 package com.opengamma.analytics.math.interpolation;
 
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 import com.opengamma.strata.basics.interpolator.CurveExtrapolator;
 import com.opengamma.strata.basics.interpolator.CurveInterpolator;
@@ -134,28 +135,38 @@ public class CombinedInterpolatorExtrapolator extends Interpolator1D {
   //TODO  fail earlier if there's no extrapolators?
   @Override
   public Double interpolate(Interpolator1DDataBundle data, Double value) {
-    ArgChecker.notNull(data, "data");
     ArgChecker.notNull(value, "value");
+    return interpolate(data, value.doubleValue(), null);
+  }
 
-    if (value < data.firstKey()) {
-      return _leftExtrapolator.extrapolate(data, value, _interpolator);
-    } else if (value > data.lastKey()) {
-      return _rightExtrapolator.extrapolate(data, value, _interpolator);
+  @Override
+  public double interpolate(Interpolator1DDataBundle data, double value, InterpolationIndexHint hint) {
+    ArgChecker.notNull(data, "data");
+    double[] keys = data.getKeys();
+    if (value < keys[0]) {
+      return _leftExtrapolator.extrapolate(data, value, _interpolator, hint);
+    } else if (value > keys[keys.length - 1]) {
+      return _rightExtrapolator.extrapolate(data, value, _interpolator, hint);
     }
-    return _interpolator.interpolate(data, value);
+    return _interpolator.interpolate(data, value, hint);
   }
 
   @Override
   public double firstDerivative(Interpolator1DDataBundle data, Double value) {
-    ArgChecker.notNull(data, "data");
     ArgChecker.notNull(value, "value");
+    return firstDerivative(data, value.doubleValue(), null);
+  }
 
-    if (value < data.firstKey()) {
-      return _leftExtrapolator.firstDerivative(data, value, _interpolator);
-    } else if (value > data.lastKey()) {
-      return _rightExtrapolator.firstDerivative(data, value, _interpolator);
+  @Override
+  public double firstDerivative(Interpolator1DDataBundle data, double value, InterpolationIndexHint hint) {
+    ArgChecker.notNull(data, "data");
+    double[] keys = data.getKeys();
+    if (value < keys[0]) {
+      return _leftExtrapolator.firstDerivative(data, value, _interpolator, hint);
+    } else if (value > keys[keys.length - 1]) {
+      return _rightExtrapolator.firstDerivative(data, value, _interpolator, hint);
     }
-    return _interpolator.firstDerivative(data, value);
+    return _interpolator.firstDerivative(data, value, hint);
   }
 
   @Override
@@ -171,6 +182,19 @@ public class CombinedInterpolatorExtrapolator extends Interpolator1D {
     return _interpolator.getNodeSensitivitiesForValue(data, value);
   }
 
+  @Override
+  public void getNodeSensitivitiesForValue(Interpolator1DDataBundle data, double value, InterpolationIndexHint hint, double[] result) {
+    ArgChecker.notNull(data, "data");
+    double[] keys = data.getKeys();
+    if (value < keys[0]) {
+      _leftExtrapolator.getNodeSensitivitiesForValue(data, value, _interpolator, hint, result);
+    } else if (value > keys[keys.length - 1]) {
+      _rightExtrapolator.getNodeSensitivitiesForValue(data, value, _interpolator, hint, result);
+    } else {
+      _interpolator.getNodeSensitivitiesForValue(data, value, hint, result);
+    }
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder("Interpolator[interpolator=");
@@ -5,7 +5,9 @@
  */
 package com.opengamma.analytics.math.interpolation;
 
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.named.Named;
 
 /**
@@ -45,4 +47,68 @@ public interface Extrapolator1D extends Named {
       Interpolator1DDataBundle data,
       Double value,
       Interpolator1D interpolator);
+
+  /**
+   * Returns an extrapolated output value for a primitive input value.
+   * <p>
+   * This implementation delegates to {@link #extrapolate(Interpolator1DDataBundle, Double, Interpolator1D)}.
+   *
+   * @param data  the data bundle associated with the interpolator
+   * @param value  the input data point
+   * @param interpolator  the interpolator used in conjunction with this extrapolator
+   * @param hint  the bracket index hint passed to the interpolator, may be null
+   * @return an extrapolated output value for the specified input value, interpolator and data bundle
+   */
+  public default double extrapolate(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint) {
+
+    return extrapolate(data, Double.valueOf(value), interpolator);
+  }
+
+  /**
+   * Returns the first derivative of the data at a primitive input value.
+   * <p>
+   * This implementation delegates to {@link #firstDerivative(Interpolator1DDataBundle, Double, Interpolator1D)}.
+   *
+   * @param data  the data bundle associated with the interpolator
+   * @param value  the input data point
+   * @param interpolator  the interpolator used in conjunction with this extrapolator
+   * @param hint  the bracket index hint passed to the interpolator, may be null
+   * @return the first derivative of the data at the specified point
+   */
+  public default double firstDerivative(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint) {
+
+    return firstDerivative(data, Double.valueOf(value), interpolator);
+  }
+
+  /**
+   * Writes the node sensitivities of the data at a primitive input value into an existing array.
+   * <p>
+   * The result array is overwritten in full. This implementation delegates to
+   * {@link #getNodeSensitivitiesForValue(Interpolator1DDataBundle, Double, Interpolator1D)} and copies its result.
+   *
+   * @param data  the data bundle associated with the interpolator
+   * @param value  the input data point
+   * @param interpolator  the interpolator used in conjunction with this extrapolator
+   * @param hint  the bracket index hint passed to the interpolator, may be null
+   * @param result  the array, of the size of the data, in which the sensitivities are written
+   */
+  public default void getNodeSensitivitiesForValue(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint,
+      double[] result) {
+
+    double[] sensitivities = getNodeSensitivitiesForValue(data, Double.valueOf(value), interpolator);
+    ArgChecker.isTrue(result.length == sensitivities.length, "result array should have length {}", sensitivities.length);
+    System.arraycopy(sensitivities, 0, result, 0, sensitivities.length);
+  }
 }
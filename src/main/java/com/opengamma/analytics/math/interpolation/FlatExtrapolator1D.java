@@ -6,6 +6,7 @@
 package com.opengamma.analytics.math.interpolation;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -20,6 +21,7 @@ import org.joda.beans.impl.direct.DirectFieldsBeanBuilder;
 import org.joda.beans.impl.direct.DirectMetaBean;
 import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 import com.opengamma.strata.basics.interpolator.CurveExtrapolator;
 import com.opengamma.strata.collect.ArgChecker;
@@ -44,23 +46,35 @@ public final class FlatExtrapolator1D implements CurveExtrapolator, Extrapolator
 
   @Override
   public Double extrapolate(final Interpolator1DDataBundle data, final Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
     ArgChecker.notNull(value, "value");
-    if (value < data.firstKey()) {
-      return data.firstValue();
-    } else if (value > data.lastKey()) {
-      return data.lastValue();
+    return extrapolate(data, value.doubleValue(), interpolator, null);
+  }
+
+  @Override
+  public double extrapolate(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    ArgChecker.notNull(data, "data");
+    final double[] keys = data.getKeys();
+    if (value < keys[0]) {
+      return data.getValues()[0];
+    } else if (value > keys[keys.length - 1]) {
+      return data.getValues()[keys.length - 1];
     }
     throw new IllegalArgumentException("Value " + value + " was within data range");
   }
 
   @Override
   public double firstDerivative(final Interpolator1DDataBundle data, final Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
     ArgChecker.notNull(value, "value");
-    if (value < data.firstKey()) {
+    return firstDerivative(data, value.doubleValue(), interpolator, null);
+  }
+
+  @Override
+  public double firstDerivative(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    ArgChecker.notNull(data, "data");
+    final double[] keys = data.getKeys();
+    if (value < keys[0]) {
       return 0.;
-    } else if (value > data.lastKey()) {
+    } else if (value > keys[keys.length - 1]) {
       return 0.;
     }
     throw new IllegalArgumentException("Value " + value + " was within data range");
@@ -73,16 +87,31 @@ public final class FlatExtrapolator1D implements CurveExtrapolator, Extrapolator
       Interpolator1D interpolator) {
 
     ArgChecker.notNull(data, "data");
+    final double[] result = new double[data.size()];
+    getNodeSensitivitiesForValue(data, value, interpolator, null, result);
+    return result;
+  }
 
-    final int n = data.size();
-    if (value < data.firstKey()) {
-      final double[] result = new double[n];
+  @Override
+  public void getNodeSensitivitiesForValue(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint,
+      double[] result) {
+
+    ArgChecker.notNull(data, "data");
+    final double[] keys = data.getKeys();
+    final int n = keys.length;
+    ArgChecker.isTrue(result.length == n, "result array should have length {}", n);
+    if (value < keys[0]) {
+      Arrays.fill(result, 0.);
       result[0] = 1;
-      return result;
-    } else if (value > data.lastKey()) {
-      final double[] result = new double[n];
+      return;
+    } else if (value > keys[n - 1]) {
+      Arrays.fill(result, 0.);
       result[n - 1] = 1;
-      return result;
+      return;
     }
     throw new IllegalArgumentException("Value " + value + " was within data range");
   }
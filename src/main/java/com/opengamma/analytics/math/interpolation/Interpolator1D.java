@@ -13,6 +13,7 @@ import com.google.common.primitives.Doubles;
 import com.opengamma.analytics.math.differentiation.FiniteDifferenceType;
 import com.opengamma.analytics.math.differentiation.ScalarFirstOrderDifferentiator;
 import com.opengamma.analytics.math.function.Function1D;
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 import com.opengamma.strata.collect.ArgChecker;
 
@@ -103,6 +104,51 @@ public abstract class Interpolator1D implements Interpolator<Interpolator1DDataB
    */
   public abstract double[] getNodeSensitivitiesForValue(Interpolator1DDataBundle data, Double value);
 
+  /**
+   * Computes the interpolated value for a primitive input.
+   * <p>
+   * The hint, if not null, is used as the starting point of the bracket search and is updated with the bracket found.
+   * This implementation delegates to {@link #interpolate(Interpolator1DDataBundle, Double)}; it is expected to be
+   * overridden by concrete classes with a calculation which does not allocate.
+   * @param data The interpolation data.
+   * @param value The value for which the interpolation is computed.
+   * @param hint The bracket index hint, may be null.
+   * @return The interpolated value.
+   */
+  public double interpolate(final Interpolator1DDataBundle data, final double value, final InterpolationIndexHint hint) {
+    return interpolate(data, Double.valueOf(value));
+  }
+
+  /**
+   * Computes the gradient of the interpolant for a primitive input.
+   * <p>
+   * This implementation delegates to {@link #firstDerivative(Interpolator1DDataBundle, Double)}.
+   * @param data The interpolation data.
+   * @param value The value for which the gradient is computed.
+   * @param hint The bracket index hint, may be null.
+   * @return The gradient.
+   */
+  public double firstDerivative(final Interpolator1DDataBundle data, final double value, final InterpolationIndexHint hint) {
+    return firstDerivative(data, Double.valueOf(value));
+  }
+
+  /**
+   * Computes the sensitivities of the interpolated value to the input data y for a primitive input.
+   * <p>
+   * The result array is overwritten in full. This implementation delegates to
+   * {@link #getNodeSensitivitiesForValue(Interpolator1DDataBundle, Double)} and copies its result.
+   * @param data The interpolation data.
+   * @param value The value for which the interpolation is computed.
+   * @param hint The bracket index hint, may be null.
+   * @param result The array, of the size of the data, in which the sensitivities are written.
+   */
+  public void getNodeSensitivitiesForValue(final Interpolator1DDataBundle data, final double value, final InterpolationIndexHint hint,
+      final double[] result) {
+    final double[] sensitivities = getNodeSensitivitiesForValue(data, Double.valueOf(value));
+    ArgChecker.isTrue(result.length == sensitivities.length, "result array should have length {}", sensitivities.length);
+    System.arraycopy(sensitivities, 0, result, 0, sensitivities.length);
+  }
+
   /**
    * Computes the sensitivities of the interpolated value to the input data y by using central finite difference approximation.
    * @param data The interpolation data.
@@ -5,6 +5,7 @@
  */
 package com.opengamma.analytics.math.interpolation;
 
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 import com.opengamma.strata.basics.interpolator.CurveExtrapolator;
 
@@ -39,4 +40,25 @@ public final class InterpolatorExtrapolator implements CurveExtrapolator, Extrap
   public double[] getNodeSensitivitiesForValue(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
     return interpolator.getNodeSensitivitiesForValue(data, value);
   }
+
+  @Override
+  public double extrapolate(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    return interpolator.interpolate(data, value, hint);
+  }
+
+  @Override
+  public double firstDerivative(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    return interpolator.firstDerivative(data, value, hint);
+  }
+
+  @Override
+  public void getNodeSensitivitiesForValue(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint,
+      double[] result) {
+
+    interpolator.getNodeSensitivitiesForValue(data, value, hint, result);
+  }
 }
@@ -7,6 +7,7 @@ package com.opengamma.analytics.math.interpolation;
 
 import java.io.Serializable;
 
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 import com.opengamma.strata.basics.interpolator.CurveExtrapolator;
 import com.opengamma.strata.collect.ArgChecker;
@@ -38,26 +39,36 @@ public class LinearExtrapolator1D implements CurveExtrapolator, Extrapolator1D,
 
   @Override
   public Double extrapolate(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
     ArgChecker.notNull(value, "value");
+    return extrapolate(data, value.doubleValue(), interpolator, null);
+  }
 
-    if (value < data.firstKey()) {
-      return leftExtrapolate(data, value, interpolator);
-    } else if (value > data.lastKey()) {
-      return rightExtrapolate(data, value, interpolator);
+  @Override
+  public double extrapolate(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    ArgChecker.notNull(data, "data");
+    final double[] keys = data.getKeys();
+    if (value < keys[0]) {
+      return leftExtrapolate(data, value, interpolator, hint);
+    } else if (value > keys[keys.length - 1]) {
+      return rightExtrapolate(data, value, interpolator, hint);
     }
     throw new IllegalArgumentException("Value " + value + " was within data range");
   }
 
   @Override
   public double firstDerivative(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
     ArgChecker.notNull(value, "value");
+    return firstDerivative(data, value.doubleValue(), interpolator, null);
+  }
 
-    if (value < data.firstKey()) {
-      return leftExtrapolateDerivative(data, value, interpolator);
-    } else if (value > data.lastKey()) {
-      return rightExtrapolateDerivative(data, value, interpolator);
+  @Override
+  public double firstDerivative(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    ArgChecker.notNull(data, "data");
+    final double[] keys = data.getKeys();
+    if (value < keys[0]) {
+      return leftSlope(data, interpolator, hint);
+    } else if (value > keys[keys.length - 1]) {
+      return rightSlope(data, interpolator, hint);
     }
     throw new IllegalArgumentException("Value " + value + " was within data range");
   }
@@ -69,77 +80,93 @@ public class LinearExtrapolator1D implements CurveExtrapolator, Extrapolator1D,
       Interpolator1D interpolator) {
 
     ArgChecker.notNull(data, "data");
+    double[] result = new double[data.size()];
+    getNodeSensitivitiesForValue(data, value, interpolator, null, result);
+    return result;
+  }
 
-    if (value < data.firstKey()) {
-      return getLeftSensitivities(data, value, interpolator);
-    } else if (value > data.lastKey()) {
-      return getRightSensitivities(data, value, interpolator);
+  @Override
+  public void getNodeSensitivitiesForValue(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint,
+      double[] result) {
+
+    ArgChecker.notNull(data, "data");
+    final double[] keys = data.getKeys();
+    if (value < keys[0]) {
+      getLeftSensitivities(data, value, interpolator, hint, result);
+      return;
+    } else if (value > keys[keys.length - 1]) {
+      getRightSensitivities(data, value, interpolator, hint, result);
+      return;
     }
     throw new IllegalArgumentException("Value " + value + " was within data range");
   }
 
-  private Double leftExtrapolate(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
-    ArgChecker.notNull(value, "value");
-
-    double x = data.firstKey();
-    double y = data.firstValue();
-    double eps = _eps * (data.lastKey() - x);
-    double m = (interpolator.interpolate(data, x + eps) - y) / eps;
-    return y + (value - x) * m;
+  private double leftExtrapolate(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    double x = data.getKeys()[0];
+    double y = data.getValues()[0];
+    return y + (value - x) * leftSlope(data, interpolator, hint);
   }
 
-  private Double rightExtrapolate(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
-    ArgChecker.notNull(value, "value");
-    double x = data.lastKey();
-    double y = data.lastValue();
-    double eps = _eps * (x - data.firstKey());
-    double m = (y - interpolator.interpolate(data, x - eps)) / eps;
-    return y + (value - x) * m;
+  private double rightExtrapolate(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    double[] keys = data.getKeys();
+    double x = keys[keys.length - 1];
+    double y = data.getValues()[keys.length - 1];
+    return y + (value - x) * rightSlope(data, interpolator, hint);
   }
 
-  private Double leftExtrapolateDerivative(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
-    ArgChecker.notNull(value, "value");
-    double x = data.firstKey();
-    double y = data.firstValue();
-    double eps = _eps * (data.lastKey() - x);
-    double m = (interpolator.interpolate(data, x + eps) - y) / eps;
-    return m;
+  private double leftSlope(Interpolator1DDataBundle data, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    double[] keys = data.getKeys();
+    double x = keys[0];
+    double y = data.getValues()[0];
+    double eps = _eps * (keys[keys.length - 1] - x);
+    return (interpolator.interpolate(data, x + eps, hint) - y) / eps;
   }
 
-  private Double rightExtrapolateDerivative(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
-    ArgChecker.notNull(value, "value");
-    double x = data.lastKey();
-    double y = data.lastValue();
-    double eps = _eps * (x - data.firstKey());
-    double m = (y - interpolator.interpolate(data, x - eps)) / eps;
-    return m;
+  private double rightSlope(Interpolator1DDataBundle data, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    double[] keys = data.getKeys();
+    double x = keys[keys.length - 1];
+    double y = data.getValues()[keys.length - 1];
+    double eps = _eps * (x - keys[0]);
+    return (y - interpolator.interpolate(data, x - eps, hint)) / eps;
   }
 
-  private double[] getLeftSensitivities(Interpolator1DDataBundle data, double value, Interpolator1D interpolator) {
-    double eps = _eps * (data.lastKey() - data.firstKey());
-    double x = data.firstKey();
-    double[] result = interpolator.getNodeSensitivitiesForValue(data, x + eps);
+  private void getLeftSensitivities(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint,
+      double[] result) {
+
+    double[] keys = data.getKeys();
+    double eps = _eps * (keys[keys.length - 1] - keys[0]);
+    double x = keys[0];
+    interpolator.getNodeSensitivitiesForValue(data, x + eps, hint, result);
     int n = result.length;
     for (int i = 1; i < n; i++) {
       result[i] = result[i] * (value - x) / eps;
     }
     result[0] = 1 + (result[0] - 1) * (value - x) / eps;
-    return result;
   }
 
-  private double[] getRightSensitivities(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    double eps = _eps * (data.lastKey() - data.firstKey());
-    double x = data.lastKey();
-    double[] result = interpolator.getNodeSensitivitiesForValue(data, x - eps);
+  private void getRightSensitivities(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint,
+      double[] result) {
+
+    double[] keys = data.getKeys();
+    double eps = _eps * (keys[keys.length - 1] - keys[0]);
+    double x = keys[keys.length - 1];
+    interpolator.getNodeSensitivitiesForValue(data, x - eps, hint, result);
     int n = result.length;
     for (int i = 0; i < n - 1; i++) {
       result[i] = -result[i] * (value - x) / eps;
     }
     result[n - 1] = 1 + (1 - result[n - 1]) * (value - x) / eps;
-    return result;
   }
 }
@@ -5,6 +5,7 @@
  */
 package com.opengamma.analytics.math.interpolation;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -21,7 +22,7 @@ import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 
 import com.opengamma.analytics.math.MathException;
 import com.opengamma.analytics.math.interpolation.data.ArrayInterpolator1DDataBundle;
-import com.opengamma.analytics.math.interpolation.data.InterpolationBoundedValues;
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 import com.opengamma.strata.basics.interpolator.CurveInterpolator;
 import com.opengamma.strata.collect.ArgChecker;
@@ -51,58 +52,72 @@ public final class LinearInterpolator1D extends Interpolator1D implements CurveI
   @Override
   public Double interpolate(final Interpolator1DDataBundle model, final Double value) {
     ArgChecker.notNull(value, "Value to be interpolated must not be null");
+    return interpolate(model, value.doubleValue(), null);
+  }
+
+  @Override
+  public double interpolate(final Interpolator1DDataBundle model, final double value, final InterpolationIndexHint hint) {
     ArgChecker.notNull(model, "Data bundle must not be null");
-    final InterpolationBoundedValues boundedValues = model.getBoundedValues(value);
-    final double x1 = boundedValues.getLowerBoundKey();
-    final double y1 = boundedValues.getLowerBoundValue();
-    if (model.getLowerBoundIndex(value) == model.size() - 1) {
-      return y1;
+    final int index = model.getLowerBoundIndex(value, hint);
+    final double[] x = model.getKeys();
+    final double[] y = model.getValues();
+    if (index == x.length - 1) {
+      return y[index];
     }
-    final double x2 = boundedValues.getHigherBoundKey();
-    final double y2 = boundedValues.getHigherBoundValue();
-    return y1 + (value - x1) / (x2 - x1) * (y2 - y1);
+    return y[index] + (value - x[index]) / (x[index + 1] - x[index]) * (y[index + 1] - y[index]);
   }
 
   @Override
   public double firstDerivative(final Interpolator1DDataBundle model, final Double value) {
     ArgChecker.notNull(value, "Value to be interpolated must not be null");
+    return firstDerivative(model, value.doubleValue(), null);
+  }
+
+  @Override
+  public double firstDerivative(final Interpolator1DDataBundle model, final double value, final InterpolationIndexHint hint) {
     ArgChecker.notNull(model, "Data bundle must not be null");
-    final InterpolationBoundedValues boundedValues = model.getBoundedValues(value);
-    final double x1 = boundedValues.getLowerBoundKey();
-    final double y1 = boundedValues.getLowerBoundValue();
-    if (model.getLowerBoundIndex(value) == model.size() - 1) {
-      if (value > model.lastKey()) {
+    final int index = model.getLowerBoundIndex(value, hint);
+    final double[] x = model.getKeys();
+    final double[] y = model.getValues();
+    final int n = x.length;
+    if (index == n - 1) {
+      if (value > x[n - 1]) {
         throw new MathException("Value of " + value + " after last key. Use exstrapolator");
       }
-      final double[] x = model.getKeys();
-      final double[] y = model.getValues();
-      final int n = x.length;
       return n == 1 ? 0.0 : (y[n - 1] - y[n - 2]) / (x[n - 1] - x[n - 2]);
     }
-    final double x2 = boundedValues.getHigherBoundKey();
-    final double y2 = boundedValues.getHigherBoundValue();
-    return (y2 - y1) / (x2 - x1);
+    return (y[index + 1] - y[index]) / (x[index + 1] - x[index]);
   }
 
   @Override
   public double[] getNodeSensitivitiesForValue(final Interpolator1DDataBundle data, final Double value) {
     ArgChecker.notNull(data, "data");
+    ArgChecker.notNull(value, "value");
+    final double[] result = new double[data.size()];
+    getNodeSensitivitiesForValue(data, value.doubleValue(), null, result);
+    return result;
+  }
+
+  @Override
+  public void getNodeSensitivitiesForValue(final Interpolator1DDataBundle data, final double value, final InterpolationIndexHint hint,
+      final double[] result) {
+    ArgChecker.notNull(data, "data");
     final int n = data.size();
-    final double[] result = new double[n];
-    final InterpolationBoundedValues boundedValues = data.getBoundedValues(value);
-    if (boundedValues.getHigherBoundKey() == null) {
+    ArgChecker.isTrue(result.length == n, "result array should have length {}", n);
+    final int index = data.getLowerBoundIndex(value, hint);
+    Arrays.fill(result, 0.0);
+    if (index == n - 1) {
       result[n - 1] = 1.0;
-      return result;
+      return;
     }
-    final int index = data.getLowerBoundIndex(value);
-    final double x1 = boundedValues.getLowerBoundKey();
-    final double x2 = boundedValues.getHigherBoundKey();
+    final double[] x = data.getKeys();
+    final double x1 = x[index];
+    final double x2 = x[index + 1];
     final double dx = x2 - x1;
     final double a = (x2 - value) / dx;
     final double b = 1 - a;
     result[index] = a;
     result[index + 1] = b;
-    return result;
   }
 
   @Override
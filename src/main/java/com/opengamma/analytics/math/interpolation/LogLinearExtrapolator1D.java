@@ -7,6 +7,7 @@ package com.opengamma.analytics.math.interpolation;
 
 import java.io.Serializable;
 
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 import com.opengamma.strata.basics.interpolator.CurveExtrapolator;
 import com.opengamma.strata.collect.ArgChecker;
@@ -43,81 +44,98 @@ public class LogLinearExtrapolator1D implements CurveExtrapolator, Extrapolator1
 
   @Override
   public Double extrapolate(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
     ArgChecker.notNull(value, "value");
-    if (value < data.firstKey()) {
-      return leftExtrapolate(data, value, interpolator);
-    } else if (value > data.lastKey()) {
-      return rightExtrapolate(data, value, interpolator);
+    return extrapolate(data, value.doubleValue(), interpolator, null);
+  }
+
+  @Override
+  public double extrapolate(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint) {
+    ArgChecker.notNull(data, "data");
+    double[] keys = data.getKeys();
+    if (value < keys[0]) {
+      return extrapolateFrom(data, value, interpolator, hint, 0);
+    } else if (value > keys[keys.length - 1]) {
+      return extrapolateFrom(data, value, interpolator, hint, keys.length - 1);
     }
     throw new IllegalArgumentException("Value " + value + " was within data range");
   }
 
   @Override
   public double firstDerivative(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
     ArgChecker.notNull(value, "value");
-    if (value < data.firstKey()) {
-      return leftExtrapolateDerivative(data, value, interpolator);
-    } else if (value > data.lastKey()) {
-      return rightExtrapolateDerivative(data, value, interpolator);
-    }
-    throw new IllegalArgumentException("Value " + value + " was within data range");
+    return firstDerivative(data, value.doubleValue(), interpolator, null);
   }
 
   @Override
-  public double[] getNodeSensitivitiesForValue(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
+  public double firstDerivative(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint) {
     ArgChecker.notNull(data, "data");
-    if (value < data.firstKey()) {
-      return getLeftSensitivities(data, value, interpolator);
-    } else if (value > data.lastKey()) {
-      return getRightSensitivities(data, value, interpolator);
+    double[] keys = data.getKeys();
+    int index;
+    if (value < keys[0]) {
+      index = 0;
+    } else if (value > keys[keys.length - 1]) {
+      index = keys.length - 1;
+    } else {
+      throw new IllegalArgumentException("Value " + value + " was within data range");
     }
-    throw new IllegalArgumentException("Value " + value + " was within data range");
+    double x = keys[index];
+    double y = Math.log(data.getValues()[index]);
+    double m = interpolator.firstDerivative(data, x, hint) / interpolator.interpolate(data, x, hint);
+    return m * Math.exp(y + (value - x) * m);
   }
 
-  private Double leftExtrapolate(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
+  @Override
+  public double[] getNodeSensitivitiesForValue(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
     ArgChecker.notNull(data, "data");
-    ArgChecker.notNull(value, "value");
-    double x = data.firstKey();
-    double y = Math.log(data.firstValue());
-    double m = interpolator.firstDerivative(data, x) / interpolator.interpolate(data, x);
-    return Math.exp(y + (value - x) * m);
+    double[] result = new double[data.size()];
+    getNodeSensitivitiesForValue(data, value, interpolator, null, result);
+    return result;
   }
 
-  private Double rightExtrapolate(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
-    ArgChecker.notNull(value, "value");
-    double x = data.lastKey();
-    double y = Math.log(data.lastValue());
-    double m = interpolator.firstDerivative(data, x) / interpolator.interpolate(data, x);
-    return Math.exp(y + (value - x) * m);
-  }
+  @Override
+  public void getNodeSensitivitiesForValue(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint,
+      double[] result) {
 
-  private Double leftExtrapolateDerivative(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
     ArgChecker.notNull(data, "data");
-    ArgChecker.notNull(value, "value");
-    double x = data.firstKey();
-    double y = Math.log(data.firstValue());
-    double m = interpolator.firstDerivative(data, x) / interpolator.interpolate(data, x);
-    return m * Math.exp(y + (value - x) * m);
+    double[] keys = data.getKeys();
+    if (value < keys[0]) {
+      getLeftSensitivities(data, value, interpolator, hint, result);
+      return;
+    } else if (value > keys[keys.length - 1]) {
+      getRightSensitivities(data, value, interpolator, hint, result);
+      return;
+    }
+    throw new IllegalArgumentException("Value " + value + " was within data range");
   }
 
-  private Double rightExtrapolateDerivative(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    ArgChecker.notNull(data, "data");
-    ArgChecker.notNull(value, "value");
-    double x = data.lastKey();
-    double y = Math.log(data.lastValue());
-    double m = interpolator.firstDerivative(data, x) / interpolator.interpolate(data, x);
-    return m * Math.exp(y + (value - x) * m);
+  /**
+   * Extrapolates from the node of the given index, the first or the last one.
+   */
+  private double extrapolateFrom(Interpolator1DDataBundle data, double value, Interpolator1D interpolator, InterpolationIndexHint hint,
+      int index) {
+    double x = data.getKeys()[index];
+    double y = Math.log(data.getValues()[index]);
+    double m = interpolator.firstDerivative(data, x, hint) / interpolator.interpolate(data, x, hint);
+    return Math.exp(y + (value - x) * m);
   }
 
-  private double[] getLeftSensitivities(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    double eps = _eps * (data.lastKey() - data.firstKey());
-    double x = data.firstKey();
-    double resValueInterpolator = interpolator.interpolate(data, x + eps);
-    double resValueExtrapolator = leftExtrapolate(data, value, interpolator);
-    double[] result = interpolator.getNodeSensitivitiesForValue(data, x + eps);
+  private void getLeftSensitivities(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint,
+      double[] result) {
+
+    double[] keys = data.getKeys();
+    double eps = _eps * (keys[keys.length - 1] - keys[0]);
+    double x = keys[0];
+    double resValueInterpolator = interpolator.interpolate(data, x + eps, hint);
+    double resValueExtrapolator = extrapolateFrom(data, value, interpolator, hint, 0);
+    interpolator.getNodeSensitivitiesForValue(data, x + eps, hint, result);
     double factor1 = (value - x) / eps;
     double factor2 = factor1 * resValueExtrapolator / resValueInterpolator;
 
@@ -125,16 +143,22 @@ public class LogLinearExtrapolator1D implements CurveExtrapolator, Extrapolator1
     for (int i = 1; i < n; i++) {
       result[i] *= factor2;
     }
-    result[0] = result[0] * factor2 + (1. - factor1) * resValueExtrapolator / data.firstValue();
-    return result;
+    result[0] = result[0] * factor2 + (1. - factor1) * resValueExtrapolator / data.getValues()[0];
   }
 
-  private double[] getRightSensitivities(Interpolator1DDataBundle data, Double value, Interpolator1D interpolator) {
-    double eps = _eps * (data.lastKey() - data.firstKey());
-    double x = data.lastKey();
-    double resValueInterpolator = interpolator.interpolate(data, x - eps);
-    double resValueExtrapolator = rightExtrapolate(data, value, interpolator);
-    double[] result = interpolator.getNodeSensitivitiesForValue(data, x - eps);
+  private void getRightSensitivities(
+      Interpolator1DDataBundle data,
+      double value,
+      Interpolator1D interpolator,
+      InterpolationIndexHint hint,
+      double[] result) {
+
+    double[] keys = data.getKeys();
+    double eps = _eps * (keys[keys.length - 1] - keys[0]);
+    double x = keys[keys.length - 1];
+    double resValueInterpolator = interpolator.interpolate(data, x - eps, hint);
+    double resValueExtrapolator = extrapolateFrom(data, value, interpolator, hint, keys.length - 1);
+    interpolator.getNodeSensitivitiesForValue(data, x - eps, hint, result);
     double factor1 = (value - x) / eps;
     double factor2 = factor1 * resValueExtrapolator / resValueInterpolator;
 
@@ -142,7 +166,6 @@ public class LogLinearExtrapolator1D implements CurveExtrapolator, Extrapolator1
     for (int i = 0; i < n - 1; i++) {
       result[i] *= -factor2;
     }
-    result[n - 1] = (1. + factor1) * resValueExtrapolator / data.lastValue() - result[n - 1] * factor2;
-    return result;
+    result[n - 1] = (1. + factor1) * resValueExtrapolator / data.getValues()[n - 1] - result[n - 1] * factor2;
   }
 }
@@ -6,7 +6,7 @@
 package com.opengamma.analytics.math.interpolation;
 
 import com.opengamma.analytics.math.interpolation.data.ArrayInterpolator1DDataBundle;
-import com.opengamma.analytics.math.interpolation.data.InterpolationBoundedValues;
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 import com.opengamma.strata.basics.interpolator.CurveInterpolator;
 import com.opengamma.strata.collect.ArgChecker;
@@ -31,30 +31,44 @@ public class LogLinearInterpolator1D extends Interpolator1D implements CurveInte
   @Override
   public Double interpolate(final Interpolator1DDataBundle model, final Double value) {
     ArgChecker.notNull(value, "value");
+    return interpolate(model, value.doubleValue(), null);
+  }
+
+  @Override
+  public double interpolate(final Interpolator1DDataBundle model, final double value, final InterpolationIndexHint hint) {
     ArgChecker.notNull(model, "data bundle");
-    final InterpolationBoundedValues boundedValues = model.getBoundedValues(value);
-    final Double x1 = boundedValues.getLowerBoundKey();
-    final Double y1 = boundedValues.getLowerBoundValue();
-    if (model.getLowerBoundIndex(value) == model.size() - 1) {
+    final int index = model.getLowerBoundIndex(value, hint);
+    final double[] x = model.getKeys();
+    final double[] y = model.getValues();
+    final double y1 = y[index];
+    if (index == x.length - 1) {
       return y1;
     }
-    final Double x2 = boundedValues.getHigherBoundKey();
-    final Double y2 = boundedValues.getHigherBoundValue();
+    final double x1 = x[index];
+    final double x2 = x[index + 1];
+    final double y2 = y[index + 1];
     return Math.pow(y2 / y1, (value - x1) / (x2 - x1)) * y1;
   }
 
   @Override
   public double firstDerivative(final Interpolator1DDataBundle model, final Double value) {
     ArgChecker.notNull(value, "value");
+    return firstDerivative(model, value.doubleValue(), null);
+  }
+
+  @Override
+  public double firstDerivative(final Interpolator1DDataBundle model, final double value, final InterpolationIndexHint hint) {
     ArgChecker.notNull(model, "data bundle");
-    final InterpolationBoundedValues boundedValues = model.getBoundedValues(value);
-    final Double x1 = boundedValues.getLowerBoundKey();
-    final Double y1 = boundedValues.getLowerBoundValue();
-    if (model.getLowerBoundIndex(value) == model.size() - 1) {
+    final int index = model.getLowerBoundIndex(value, hint);
+    final double[] x = model.getKeys();
+    final double[] y = model.getValues();
+    if (index == x.length - 1) {
       return 0.;
     }
-    final Double x2 = boundedValues.getHigherBoundKey();
-    final Double y2 = boundedValues.getHigherBoundValue();
+    final double x1 = x[index];
+    final double y1 = y[index];
+    final double x2 = x[index + 1];
+    final double y2 = y[index + 1];
     return Math.pow(y2 / y1, (value - x1) / (x2 - x1)) * y1 * Math.log(y2 / y1) / (x2 - x1);
   }
 
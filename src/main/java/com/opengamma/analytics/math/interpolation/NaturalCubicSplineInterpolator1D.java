@@ -5,8 +5,11 @@
  */
 package com.opengamma.analytics.math.interpolation;
 
+import java.util.Arrays;
+
 import com.opengamma.analytics.math.MathException;
 import com.opengamma.analytics.math.interpolation.data.ArrayInterpolator1DDataBundle;
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DCubicSplineDataBundle;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 import com.opengamma.strata.basics.interpolator.CurveInterpolator;
@@ -37,15 +40,20 @@ public class NaturalCubicSplineInterpolator1D
   @Override
   public Double interpolate(final Interpolator1DDataBundle data, final Double value) {
     ArgChecker.notNull(value, "value");
+    return interpolate(data, value.doubleValue(), null);
+  }
+
+  @Override
+  public double interpolate(final Interpolator1DDataBundle data, final double value, final InterpolationIndexHint hint) {
     ArgChecker.notNull(data, "data bundle");
     ArgChecker.isTrue(data instanceof Interpolator1DCubicSplineDataBundle);
     Interpolator1DCubicSplineDataBundle splineData = (Interpolator1DCubicSplineDataBundle) data;
-    final int low = data.getLowerBoundIndex(value);
+    final int low = data.getLowerBoundIndex(value, hint);
     final int high = low + 1;
     final int n = data.size() - 1;
     final double[] xData = data.getKeys();
     final double[] yData = data.getValues();
-    if (data.getLowerBoundIndex(value) == n) {
+    if (low == n) {
       return yData[n];
     }
     final double delta = xData[high] - xData[low];
@@ -61,10 +69,15 @@ public class NaturalCubicSplineInterpolator1D
   @Override
   public double firstDerivative(final Interpolator1DDataBundle data, final Double value) {
     ArgChecker.notNull(value, "value");
+    return firstDerivative(data, value.doubleValue(), null);
+  }
+
+  @Override
+  public double firstDerivative(final Interpolator1DDataBundle data, final double value, final InterpolationIndexHint hint) {
     ArgChecker.notNull(data, "data bundle");
     ArgChecker.isTrue(data instanceof Interpolator1DCubicSplineDataBundle);
     Interpolator1DCubicSplineDataBundle splineData = (Interpolator1DCubicSplineDataBundle) data;
-    int low = data.getLowerBoundIndex(value);
+    int low = data.getLowerBoundIndex(value, hint);
     int high = low + 1;
     final int n = data.size() - 1;
     final double[] xData = data.getKeys();
@@ -86,16 +99,27 @@ public class NaturalCubicSplineInterpolator1D
   @Override
   public double[] getNodeSensitivitiesForValue(final Interpolator1DDataBundle data, final Double value) {
     ArgChecker.notNull(data, "data");
+    ArgChecker.notNull(value, "value");
+    final double[] result = new double[data.size()];
+    getNodeSensitivitiesForValue(data, value.doubleValue(), null, result);
+    return result;
+  }
+
+  @Override
+  public void getNodeSensitivitiesForValue(final Interpolator1DDataBundle data, final double value, final InterpolationIndexHint hint,
+      final double[] result) {
+    ArgChecker.notNull(data, "data");
     ArgChecker.isTrue(data instanceof Interpolator1DCubicSplineDataBundle);
     Interpolator1DCubicSplineDataBundle cubicData = (Interpolator1DCubicSplineDataBundle) data;
     final int n = cubicData.size();
-    final double[] result = new double[n];
-    if (cubicData.getLowerBoundIndex(value) == n - 1) {
+    ArgChecker.isTrue(result.length == n, "result array should have length {}", n);
+    final int low = cubicData.getLowerBoundIndex(value, hint);
+    if (low == n - 1) {
+      Arrays.fill(result, 0.0);
       result[n - 1] = 1.0;
-      return result;
+      return;
     }
     final double[] xData = cubicData.getKeys();
-    final int low = cubicData.getLowerBoundIndex(value);
     final int high = low + 1;
     final double delta = xData[high] - xData[low];
     final double a = (xData[high] - value) / delta;
@@ -108,7 +132,6 @@ public class NaturalCubicSplineInterpolator1D
     }
     result[low] += a;
     result[high] += b;
-    return result;
   }
 
   @Override
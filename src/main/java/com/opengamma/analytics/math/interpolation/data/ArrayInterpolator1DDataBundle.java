@@ -127,6 +127,31 @@ public class ArrayInterpolator1DDataBundle implements Interpolator1DDataBundle {
 
   @Override
   public int getLowerBoundIndex(final Double value) {
+    return lowerBoundIndex(value);
+  }
+
+  @Override
+  public int getLowerBoundIndex(final double value, final InterpolationIndexHint hint) {
+    if (hint != null) {
+      // Check the hinted bracket and the next one before the binary search
+      final int start = hint.getIndex();
+      if (start >= 0) {
+        for (int index = start; index < start + 2 && index < _n - 1; index++) {
+          if (_keys[index] <= value && value < _keys[index + 1]) {
+            hint.setIndex(index);
+            return index;
+          }
+        }
+      }
+    }
+    final int index = lowerBoundIndex(value);
+    if (hint != null) {
+      hint.setIndex(index);
+    }
+    return index;
+  }
+
+  private int lowerBoundIndex(final double value) {
     if (value < _keys[0]) {
       throw new IllegalArgumentException("Could not get lower bound index for " + value + ": lowest x-value is "
           + _keys[0]);
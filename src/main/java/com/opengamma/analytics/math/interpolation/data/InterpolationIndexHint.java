@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.interpolation.data;
+
+/**
+ * Mutable holder for the last bracket index found in an interpolation data bundle.
+ * <p>
+ * Successive lookups on the same bundle are often monotone (e.g. the payment times of the coupons of a leg).
+ * Passing the same hint to each lookup lets {@link Interpolator1DDataBundle#getLowerBoundIndex(double, InterpolationIndexHint)}
+ * check the previous bracket and the one after it before falling back to a binary search.
+ * <p>
+ * The hint only affects the speed of the lookup, never its result. It is not thread-safe and should be used by a single thread.
+ */
+public final class InterpolationIndexHint {
+
+  /**
+   * The last lower bound index found, negative if none.
+   */
+  private int _index;
+
+  /**
+   * Creates an empty hint.
+   */
+  public InterpolationIndexHint() {
+    _index = -1;
+  }
+
+  /**
+   * Gets the last lower bound index found.
+   * @return The index, negative if no lookup has been done yet
+   */
+  public int getIndex() {
+    return _index;
+  }
+
+  /**
+   * Sets the last lower bound index found.
+   * @param index The index
+   */
+  public void setIndex(final int index) {
+    _index = index;
+  }
+
+  /**
+   * Resets the hint, for example before it is used with another data bundle.
+   */
+  public void reset() {
+    _index = -1;
+  }
+
+}
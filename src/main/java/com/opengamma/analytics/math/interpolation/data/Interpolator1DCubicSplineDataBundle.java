@@ -116,6 +116,11 @@ public class Interpolator1DCubicSplineDataBundle implements Interpolator1DDataBu
     return _underlyingData.getLowerBoundIndex(value);
   }
 
+  @Override
+  public int getLowerBoundIndex(final double value, final InterpolationIndexHint hint) {
+    return _underlyingData.getLowerBoundIndex(value, hint);
+  }
+
   @Override
   public Double getLowerBoundKey(final Double value) {
     return _underlyingData.getLowerBoundKey(value);
@@ -18,6 +18,22 @@ public interface Interpolator1DDataBundle {
 
   int getLowerBoundIndex(Double value);
 
+  /**
+   * Returns the index of the lower bound of the bracket containing the value, using the hint as a starting point.
+   * <p>
+   * The result is the same as {@link #getLowerBoundIndex(Double)}; the hint, if not null, is updated with the result.
+   * @param value The value
+   * @param hint The bracket index hint, may be null
+   * @return The lower bound index
+   */
+  public default int getLowerBoundIndex(double value, InterpolationIndexHint hint) {
+    int index = getLowerBoundIndex(Double.valueOf(value));
+    if (hint != null) {
+      hint.setIndex(index);
+    }
+    return index;
+  }
+
   Double get(Double key);
 
   Double firstKey();
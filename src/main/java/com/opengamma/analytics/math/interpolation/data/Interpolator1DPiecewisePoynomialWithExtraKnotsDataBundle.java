@@ -154,6 +154,11 @@ public class Interpolator1DPiecewisePoynomialWithExtraKnotsDataBundle implements
     return _underlyingData.getLowerBoundIndex(value);
   }
 
+  @Override
+  public int getLowerBoundIndex(final double value, final InterpolationIndexHint hint) {
+    return _underlyingData.getLowerBoundIndex(value, hint);
+  }
+
   @Override
   public Double getLowerBoundKey(final Double value) {
     return _underlyingData.getLowerBoundKey(value);
@@ -50,6 +50,37 @@ public class TridiagonalSolver {
     return x;
   }
 
+  /**
+   * Solves the system Ax = b for the unknown vector x, where A is a tridiagonal matrix given by its diagonals, without allocation (Thomas algorithm).
+   * The matrix is not modified; the arrays can be longer than the system, in which case only their first elements are used. The operations are the
+   * same as in {@link #solvTriDag(TridiagonalMatrix, double[])}, so the results are identical.
+   * @param l The lower sub-diagonal, at least n-1 elements
+   * @param d The diagonal, at least n elements
+   * @param u The upper sub-diagonal, at least n-1 elements
+   * @param b The known vector, at least n elements
+   * @param x The array filled with the solution, at least n elements; it can be the same array as b, in which case b is overwritten
+   * @param work A work array, at least n elements, filled with the diagonal of the upper triangular factor
+   * @param n The size of the system
+   */
+  public static void solvTriDag(final double[] l, final double[] d, final double[] u, final double[] b, final double[] x, final double[] work, final int n) {
+    ArgChecker.isTrue(n > 0, "size of the system should be positive");
+    ArgChecker.isTrue(d.length >= n && b.length >= n && x.length >= n && work.length >= n, "arrays too short for the system");
+    ArgChecker.isTrue(l.length >= n - 1 && u.length >= n - 1, "sub-diagonals too short for the system");
+    work[0] = d[0];
+    x[0] = b[0];
+    for (int i = 1; i < n; i++) {
+      final double m = l[i - 1] / work[i - 1];
+      work[i] = d[i] - m * u[i - 1];
+      x[i] = b[i] - m * x[i - 1];
+    }
+
+    x[n - 1] = x[n - 1] / work[n - 1];
+
+    for (int i = n - 2; i >= 0; i--) {
+      x[i] = (x[i] - u[i] * x[i + 1]) / work[i];
+    }
+  }
+
   /**
    * Solves the system Ax = y for the unknown vector x, where A is a tridiagonal matrix and y is a vector. This takes order n operations where n is the size of the system
    * (number of linear equations), as opposed to order n^3 for the general problem.
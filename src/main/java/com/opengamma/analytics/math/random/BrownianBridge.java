@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Brownian bridge construction of the values of a Brownian motion, starting at 0 at time 0, on a set of times.
+ * <p>
+ * The first normal variable gives the value at the last time, the second one the value at the middle time conditional on
+ * the last, and so on by bisection. With a low-discrepancy sequence, the first (best distributed) dimensions then drive
+ * most of the variance of the path, which reduces the effective dimension of the simulation.
+ * <p>
+ * The times are in any unit of variance: with the cumulative variances of a time-changed Brownian motion, the construction
+ * gives directly the values of that motion. The construction is immutable and can be shared between threads.
+ */
+public final class BrownianBridge {
+
+  /**
+   * The number of times.
+   */
+  private final int _size;
+  /**
+   * The index of the time computed at each step.
+   */
+  private final int[] _bridgeIndex;
+  /**
+   * The index of the first unknown time of the interval in which the time is computed at each step.
+   * The value on the left is the one at the previous index, or 0 for the index 0.
+   */
+  private final int[] _leftIndex;
+  /**
+   * The index of the known time on the right of the interval in which the time is computed at each step.
+   */
+  private final int[] _rightIndex;
+  /**
+   * The weight of the left value at each step.
+   */
+  private final double[] _leftWeight;
+  /**
+   * The weight of the right value at each step.
+   */
+  private final double[] _rightWeight;
+  /**
+   * The conditional standard deviation at each step.
+   */
+  private final double[] _stdDev;
+
+  /**
+   * Constructor.
+   * @param times The times, positive and strictly increasing, not null or empty.
+   */
+  public BrownianBridge(final double[] times) {
+    ArgChecker.notEmpty(times, "times");
+    ArgChecker.isTrue(times[0] > 0, "times should be positive");
+    for (int loopt = 1; loopt < times.length; loopt++) {
+      ArgChecker.isTrue(times[loopt] > times[loopt - 1], "times should be strictly increasing");
+    }
+    _size = times.length;
+    final int[][] bisection = bisection(_size);
+    _bridgeIndex = bisection[0];
+    _leftIndex = bisection[1];
+    _rightIndex = bisection[2];
+    _leftWeight = new double[_size];
+    _rightWeight = new double[_size];
+    _stdDev = new double[_size];
+    _stdDev[0] = Math.sqrt(times[_size - 1]);
+    for (int loopstep = 1; loopstep < _size; loopstep++) {
+      final int j = _leftIndex[loopstep];
+      final int k = _rightIndex[loopstep];
+      final int l = _bridgeIndex[loopstep];
+      final double tLeft = j == 0 ? 0.0 : times[j - 1];
+      _leftWeight[loopstep] = (times[k] - times[l]) / (times[k] - tLeft);
+      _rightWeight[loopstep] = (times[l] - tLeft) / (times[k] - tLeft);
+      _stdDev[loopstep] = Math.sqrt((times[l] - tLeft) * (times[k] - times[l]) / (times[k] - tLeft));
+    }
+  }
+
+  /**
+   * Gets the order in which the values are computed by the bridge: the index of the time given by each normal variable. The
+   * last time is first, then the times are computed by bisection. The order depends only on the number of times.
+   * <p>
+   * Multi-dimensional Gaussian paths can be built in the same order, for example by the Cholesky decomposition of their
+   * covariance matrix with the variables sorted in that order, to give the first dimensions of a low-discrepancy sequence
+   * to the values which drive most of the variance.
+   * @param size The number of times, positive.
+   * @return The indices of the times, in the order of the normal variables.
+   */
+  public static int[] constructionOrder(final int size) {
+    ArgChecker.isTrue(size > 0, "size should be positive");
+    return bisection(size)[0];
+  }
+
+  /**
+   * Computes the steps of the bisection.
+   * @param size The number of times.
+   * @return The index of the time computed at each step, the index of the first unknown time of its interval and the index
+   * of the known time on the right of its interval.
+   */
+  private static int[][] bisection(final int size) {
+    final int[] bridgeIndex = new int[size];
+    final int[] leftIndex = new int[size];
+    final int[] rightIndex = new int[size];
+    final boolean[] known = new boolean[size];
+    known[size - 1] = true;
+    bridgeIndex[0] = size - 1;
+    int j = 0;
+    for (int loopstep = 1; loopstep < size; loopstep++) {
+      while (known[j]) { // first unknown time
+        j++;
+      }
+      int k = j;
+      while (!known[k]) { // next known time
+        k++;
+      }
+      final int l = j + ((k - 1 - j) >> 1); // middle of the unknown times
+      known[l] = true;
+      bridgeIndex[loopstep] = l;
+      leftIndex[loopstep] = j;
+      rightIndex[loopstep] = k;
+      j = k + 1;
+      if (j >= size) {
+        j = 0;
+      }
+    }
+    return new int[][] {bridgeIndex, leftIndex, rightIndex };
+  }
+
+  /**
+   * Gets the number of times, which is the number of normal variables required for a path.
+   * @return The number of times.
+   */
+  public int getSize() {
+    return _size;
+  }
+
+  /**
+   * Computes the values of the Brownian motion at the times.
+   * @param normals The independent standard normal variables, of length at least the number of times, not null.
+   * @return The values.
+   */
+  public double[] path(final double[] normals) {
+    final double[] result = new double[_size];
+    path(normals, result);
+    return result;
+  }
+
+  /**
+   * Computes the values of the Brownian motion at the times, in a given array.
+   * @param normals The independent standard normal variables, of length at least the number of times, not null.
+   * @param result The array in which the values are stored, of length at least the number of times, not null.
+   */
+  public void path(final double[] normals, final double[] result) {
+    ArgChecker.isTrue(normals.length >= _size, "At least {} normal variables expected", _size);
+    ArgChecker.isTrue(result.length >= _size, "Result array of length at least {} expected", _size);
+    result[_size - 1] = _stdDev[0] * normals[0];
+    for (int loopstep = 1; loopstep < _size; loopstep++) {
+      final int j = _leftIndex[loopstep];
+      final double left = j == 0 ? 0.0 : result[j - 1];
+      result[_bridgeIndex[loopstep]] = _leftWeight[loopstep] * left + _rightWeight[loopstep] * result[_rightIndex[loopstep]]
+          + _stdDev[loopstep] * normals[loopstep];
+    }
+  }
+
+}
@@ -6,29 +6,30 @@
 package com.opengamma.analytics.math.random;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
+import cern.jet.random.Normal;
+import cern.jet.random.engine.MersenneTwister64;
 import cern.jet.random.engine.RandomEngine;
 
-import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
-import com.opengamma.analytics.math.statistics.distribution.ProbabilityDistribution;
 import com.opengamma.strata.collect.ArgChecker;
 
 /**
  * 
  */
 public class NormalRandomNumberGenerator implements RandomNumberGenerator {
-  private final ProbabilityDistribution<Double> _normal;
+  /** The colt normal distribution, used directly to draw primitive values */
+  private final Normal _normal;
 
   public NormalRandomNumberGenerator(final double mean, final double sigma) {
-    ArgChecker.notNegativeOrZero(sigma, "standard deviation");
-    _normal = new NormalDistribution(mean, sigma);
+    this(mean, sigma, new MersenneTwister64(new Date()));
   }
 
   public NormalRandomNumberGenerator(final double mean, final double sigma, final RandomEngine engine) {
     ArgChecker.notNegativeOrZero(sigma, "standard deviation");
     ArgChecker.notNull(engine, "engine");
-    _normal = new NormalDistribution(mean, sigma, engine);
+    _normal = new Normal(mean, sigma, engine);
   }
 
   @Override
@@ -36,7 +37,7 @@ public class NormalRandomNumberGenerator implements RandomNumberGenerator {
     ArgChecker.notNegative(dimension, "dimension");
     final double[] result = new double[dimension];
     for (int i = 0; i < dimension; i++) {
-      result[i] = _normal.nextRandom();
+      result[i] = _normal.nextDouble();
     }
     return result;
   }
@@ -54,10 +55,18 @@ public class NormalRandomNumberGenerator implements RandomNumberGenerator {
     for (int i = 0; i < n; i++) {
       x = new double[dimension];
       for (int j = 0; j < dimension; j++) {
-        x[j] = _normal.nextRandom();
+        x[j] = _normal.nextDouble();
       }
       result.add(x);
     }
     return result;
   }
+
+  @Override
+  public void fill(final double[] buffer, final int offset, final int length) {
+    ArgChecker.notNegative(length, "length");
+    for (int i = offset; i < offset + length; i++) {
+      buffer[i] = _normal.nextDouble();
+    }
+  }
 }
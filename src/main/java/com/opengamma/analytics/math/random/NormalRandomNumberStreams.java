@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import cern.jet.random.engine.MersenneTwister64;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Streams of normally distributed random numbers, each stream being a ziggurat sampler on a Mersenne twister seeded from
+ * the master seed and the stream index.
+ * <p>
+ * The seed of each stream is obtained by the SplitMix64 mixing function applied to the master seed and the index,
+ * so that streams of consecutive indices start from unrelated states.
+ */
+public final class NormalRandomNumberStreams implements RandomNumberStreams {
+
+  /**
+   * The golden ratio increment of SplitMix64.
+   */
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  /**
+   * The master seed.
+   */
+  private final long _seed;
+  /**
+   * The mean of the distribution.
+   */
+  private final double _mean;
+  /**
+   * The standard deviation of the distribution.
+   */
+  private final double _sigma;
+
+  /**
+   * Constructor of standard normal streams.
+   * @param seed The master seed.
+   */
+  public NormalRandomNumberStreams(final long seed) {
+    this(0.0, 1.0, seed);
+  }
+
+  /**
+   * Constructor.
+   * @param mean The mean of the distribution.
+   * @param sigma The standard deviation of the distribution, positive.
+   * @param seed The master seed.
+   */
+  public NormalRandomNumberStreams(final double mean, final double sigma, final long seed) {
+    ArgChecker.notNegativeOrZero(sigma, "standard deviation");
+    _mean = mean;
+    _sigma = sigma;
+    _seed = seed;
+  }
+
+  @Override
+  public RandomNumberGenerator getStream(final int index) {
+    ArgChecker.notNegative(index, "index");
+    return new ZigguratNormalRandomNumberGenerator(_mean, _sigma, new MersenneTwister64(streamSeed(_seed, index)));
+  }
+
+  /**
+   * Gets the seed of the stream of a given index.
+   * @param seed The master seed.
+   * @param index The stream index.
+   * @return The stream seed.
+   */
+  public static int streamSeed(final long seed, final int index) {
+    long z = seed + (index + 1L) * GOLDEN_GAMMA;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    z = z ^ (z >>> 31);
+    return (int) (z ^ (z >>> 32));
+  }
+
+  /**
+   * Gets the master seed.
+   * @return The seed.
+   */
+  public long getSeed() {
+    return _seed;
+  }
+
+}
@@ -15,4 +15,29 @@ public interface RandomNumberGenerator {
   double[] getVector(int dimension);
 
   List<double[]> getVectors(final int dimension, final int n);
+
+  /**
+   * Fills a part of an array with the values of the next vector, as returned by {@link #getVector(int)} with the dimension length.
+   * Implementations should override this method to avoid the allocation of the vector.
+   * @param buffer The array to fill, not null
+   * @param offset The index of the first value filled
+   * @param length The number of values filled, which is the dimension of the vector
+   */
+  default void fill(final double[] buffer, final int offset, final int length) {
+    System.arraycopy(getVector(length), 0, buffer, offset, length);
+  }
+
+  /**
+   * Fills the first columns of each row of a matrix with the values of the next vectors, one vector of dimension nbColumns
+   * for each row, in the order of the rows. With the rows as jumps and the columns as paths, this is the jump/path layout
+   * of the Monte Carlo methods.
+   * @param buffer The matrix to fill, not null
+   * @param nbColumns The number of columns filled in each row
+   */
+  default void fill(final double[][] buffer, final int nbColumns) {
+    for (final double[] row : buffer) {
+      fill(row, 0, nbColumns);
+    }
+  }
+
 }
@@ -0,0 +1,24 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+/**
+ * A family of independent random number generators, indexed by an integer.
+ * <p>
+ * The generator of a given index always produces the same sequence, so that a simulation split in blocks, each block
+ * using the stream of its index, gives the same results whatever the order or the threads in which the blocks are run.
+ */
+public interface RandomNumberStreams {
+
+  /**
+   * Creates a new generator for the stream of the given index. Each call returns a new generator positioned at the
+   * start of the stream.
+   * @param index The stream index, not negative
+   * @return The generator.
+   */
+  RandomNumberGenerator getStream(int index);
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The primitive polynomials and initial direction numbers of a Sobol sequence, in the format of Joe and Kuo.
+ * <p>
+ * Each line after the header describes one dimension, starting from the second one: the dimension, the degree s of the
+ * primitive polynomial, the polynomial coefficients a and the s initial direction numbers m. The default numbers are the
+ * 1000 dimensions "new-joe-kuo-6" file distributed with commons-math; files with more dimensions (up to 21201) can be
+ * loaded with {@link #of(InputStream)}.
+ */
+public final class SobolDirectionNumbers {
+
+  /**
+   * The number of bits of the integer representation of the points.
+   */
+  static final int BITS = 52;
+  /**
+   * The location of the default direction numbers.
+   */
+  private static final String DEFAULT_RESOURCE = "/assets/org/apache/commons/math3/random/new-joe-kuo-6.1000";
+
+  /**
+   * The degree of the primitive polynomial of each dimension, the first dimension is not stored.
+   */
+  private final int[] _degree;
+  /**
+   * The coefficients of the primitive polynomial of each dimension.
+   */
+  private final int[] _coefficients;
+  /**
+   * The initial direction numbers of each dimension.
+   */
+  private final int[][] _initial;
+
+  private SobolDirectionNumbers(final int[] degree, final int[] coefficients, final int[][] initial) {
+    _degree = degree;
+    _coefficients = coefficients;
+    _initial = initial;
+  }
+
+  /**
+   * Gets the default direction numbers, with 1000 dimensions.
+   * @return The direction numbers.
+   */
+  public static SobolDirectionNumbers getDefault() {
+    return DefaultHolder.DEFAULT;
+  }
+
+  /**
+   * Reads direction numbers in the format of Joe and Kuo. The stream is not closed.
+   * @param stream The stream, not null
+   * @return The direction numbers.
+   */
+  public static SobolDirectionNumbers of(final InputStream stream) {
+    ArgChecker.notNull(stream, "stream");
+    final List<int[]> lines = new ArrayList<>();
+    try {
+      final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.US_ASCII));
+      String line = reader.readLine(); // header
+      int dimension = 2;
+      while ((line = reader.readLine()) != null) {
+        final String trimmed = line.trim();
+        if (trimmed.isEmpty()) {
+          continue;
+        }
+        final String[] tokens = trimmed.split("\\s+");
+        final int[] values = new int[tokens.length];
+        for (int loopt = 0; loopt < tokens.length; loopt++) {
+          values[loopt] = Integer.parseInt(tokens[loopt]);
+        }
+        ArgChecker.isTrue(values[0] == dimension, "Dimension {} expected, found {}", dimension, values[0]);
+        ArgChecker.isTrue(values.length == 3 + values[1], "Dimension {}: {} initial direction numbers expected", dimension, values[1]);
+        lines.add(values);
+        dimension++;
+      }
+    } catch (final IOException e) {
+      throw new IllegalArgumentException("Unable to read the direction numbers", e);
+    }
+    final int nbDim = lines.size();
+    final int[] degree = new int[nbDim];
+    final int[] coefficients = new int[nbDim];
+    final int[][] initial = new int[nbDim][];
+    for (int loopdim = 0; loopdim < nbDim; loopdim++) {
+      final int[] values = lines.get(loopdim);
+      degree[loopdim] = values[1];
+      coefficients[loopdim] = values[2];
+      initial[loopdim] = new int[values[1]];
+      System.arraycopy(values, 3, initial[loopdim], 0, values[1]);
+    }
+    return new SobolDirectionNumbers(degree, coefficients, initial);
+  }
+
+  /**
+   * Gets the maximal dimension of the sequences using these direction numbers.
+   * @return The dimension.
+   */
+  public int getMaxDimension() {
+    return _degree.length + 1;
+  }
+
+  /**
+   * Computes the direction vectors of the first dimensions. The vector of index i of a dimension is stored at the index i,
+   * for i from 1 to BITS.
+   * @param dimension The number of dimensions.
+   * @return The direction vectors (dimension/bit).
+   */
+  long[][] directions(final int dimension) {
+    ArgChecker.isTrue(dimension > 0 && dimension <= getMaxDimension(), "dimension should be between 1 and {}", getMaxDimension());
+    final long[][] directions = new long[dimension][BITS + 1];
+    for (int loopbit = 1; loopbit <= BITS; loopbit++) {
+      directions[0][loopbit] = 1L << (BITS - loopbit);
+    }
+    for (int loopdim = 1; loopdim < dimension; loopdim++) {
+      final long[] v = directions[loopdim];
+      final int s = _degree[loopdim - 1];
+      final int a = _coefficients[loopdim - 1];
+      final int[] m = _initial[loopdim - 1];
+      for (int loopbit = 1; loopbit <= s && loopbit <= BITS; loopbit++) {
+        v[loopbit] = ((long) m[loopbit - 1]) << (BITS - loopbit);
+      }
+      for (int loopbit = s + 1; loopbit <= BITS; loopbit++) {
+        v[loopbit] = v[loopbit - s] ^ (v[loopbit - s] >> s);
+        for (int k = 1; k < s; k++) {
+          v[loopbit] ^= ((a >> (s - 1 - k)) & 1) * v[loopbit - k];
+        }
+      }
+    }
+    return directions;
+  }
+
+  /**
+   * Lazy holder of the default direction numbers.
+   */
+  private static final class DefaultHolder {
+    private static final SobolDirectionNumbers DEFAULT = loadDefault();
+
+    private static SobolDirectionNumbers loadDefault() {
+      try (InputStream stream = SobolDirectionNumbers.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+        if (stream == null) {
+          throw new IllegalStateException("Default Sobol direction numbers not found: " + DEFAULT_RESOURCE);
+        }
+        return of(stream);
+      } catch (final IOException e) {
+        throw new IllegalStateException("Unable to read the default Sobol direction numbers", e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import cern.jet.stat.Probability;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Quasi-random generator of normally distributed vectors based on the Sobol low-discrepancy sequence.
+ * <p>
+ * The points are generated by the Gray code recursion of Antonov and Saleev and mapped to standard normal variables by the
+ * inverse cumulative distribution. The point at the origin is skipped. The sequence can be scrambled by a random digital
+ * shift: each coordinate is XORed with a random bit string drawn from a seed, which preserves the low-discrepancy of the
+ * sequence and allows error estimation over independent shifts.
+ * <p>
+ * A call to {@link #getVector(int)} returns the first coordinates of the next point; all the calls should use the same
+ * dimension. The generator is not thread-safe; for parallel simulations use {@link SobolRandomNumberStreams}.
+ */
+public class SobolRandomNumberGenerator implements RandomNumberGenerator {
+
+  /**
+   * The scale between the integer representation and the unit interval.
+   */
+  private static final double SCALE = Math.pow(2.0, SobolDirectionNumbers.BITS);
+
+  /**
+   * The direction vectors (dimension/bit).
+   */
+  private final long[][] _directions;
+  /**
+   * The digital shift of each dimension, null if the sequence is not scrambled.
+   */
+  private final long[] _shift;
+  /**
+   * The integer representation of the current point.
+   */
+  private final long[] _point;
+  /**
+   * The index of the next point.
+   */
+  private int _index;
+
+  /**
+   * Constructor with the default direction numbers and without scrambling.
+   * @param dimension The dimension of the sequence, between 1 and 1000.
+   */
+  public SobolRandomNumberGenerator(final int dimension) {
+    this(SobolDirectionNumbers.getDefault().directions(dimension), null);
+  }
+
+  /**
+   * Constructor with the default direction numbers and a random digital shift.
+   * @param dimension The dimension of the sequence, between 1 and 1000.
+   * @param seed The seed of the digital shift.
+   */
+  public SobolRandomNumberGenerator(final int dimension, final long seed) {
+    this(SobolDirectionNumbers.getDefault().directions(dimension), digitalShift(dimension, seed));
+  }
+
+  /**
+   * Constructor without scrambling.
+   * @param directionNumbers The direction numbers, not null.
+   * @param dimension The dimension of the sequence, not greater than the maximal dimension of the direction numbers.
+   */
+  public SobolRandomNumberGenerator(final SobolDirectionNumbers directionNumbers, final int dimension) {
+    this(directions(directionNumbers, dimension), null);
+  }
+
+  /**
+   * Constructor with a random digital shift.
+   * @param directionNumbers The direction numbers, not null.
+   * @param dimension The dimension of the sequence, not greater than the maximal dimension of the direction numbers.
+   * @param seed The seed of the digital shift.
+   */
+  public SobolRandomNumberGenerator(final SobolDirectionNumbers directionNumbers, final int dimension, final long seed) {
+    this(directions(directionNumbers, dimension), digitalShift(dimension, seed));
+  }
+
+  /**
+   * Constructor from the direction vectors, which are shared and not modified.
+   * @param directions The direction vectors.
+   * @param shift The digital shift, null if the sequence is not scrambled.
+   */
+  SobolRandomNumberGenerator(final long[][] directions, final long[] shift) {
+    _directions = directions;
+    _shift = shift;
+    _point = new long[directions.length];
+    skipTo(1);
+  }
+
+  private static long[][] directions(final SobolDirectionNumbers directionNumbers, final int dimension) {
+    ArgChecker.notNull(directionNumbers, "direction numbers");
+    return directionNumbers.directions(dimension);
+  }
+
+  /**
+   * Draws the digital shift of each dimension.
+   * @param dimension The dimension.
+   * @param seed The seed.
+   * @return The shifts.
+   */
+  static long[] digitalShift(final int dimension, final long seed) {
+    final Random random = new Random(seed);
+    final long[] shift = new long[dimension];
+    final long mask = (1L << SobolDirectionNumbers.BITS) - 1;
+    for (int loopdim = 0; loopdim < dimension; loopdim++) {
+      shift[loopdim] = random.nextLong() & mask;
+    }
+    return shift;
+  }
+
+  /**
+   * Gets the dimension of the sequence.
+   * @return The dimension.
+   */
+  public int getDimension() {
+    return _directions.length;
+  }
+
+  /**
+   * Gets the index of the next point of the sequence.
+   * @return The index.
+   */
+  public int getNextIndex() {
+    return _index;
+  }
+
+  /**
+   * Positions the generator on a given point of the sequence, the point of index 0 being the origin.
+   * @param index The index of the next point returned, not negative.
+   */
+  public void skipTo(final int index) {
+    ArgChecker.notNegative(index, "index");
+    final int gray = index ^ (index >>> 1);
+    for (int loopdim = 0; loopdim < _point.length; loopdim++) {
+      long x = 0;
+      for (int loopbit = 0; loopbit < Integer.SIZE - 1; loopbit++) {
+        if ((gray >>> loopbit & 1) != 0) {
+          x ^= _directions[loopdim][loopbit + 1];
+        }
+      }
+      _point[loopdim] = x;
+    }
+    _index = index;
+  }
+
+  /**
+   * Returns the first coordinates of the next point of the sequence, in the unit interval.
+   * @param dimension The number of coordinates, not greater than the dimension of the sequence.
+   * @return The coordinates.
+   */
+  public double[] getUniformVector(final int dimension) {
+    ArgChecker.isTrue(dimension >= 0 && dimension <= _point.length, "dimension should be between 0 and {}", _point.length);
+    final double[] result = new double[dimension];
+    for (int loopdim = 0; loopdim < dimension; loopdim++) {
+      result[loopdim] = coordinate(loopdim) / SCALE;
+    }
+    next();
+    return result;
+  }
+
+  @Override
+  public double[] getVector(final int dimension) {
+    ArgChecker.isTrue(dimension >= 0 && dimension <= _point.length, "dimension should be between 0 and {}", _point.length);
+    final double[] result = new double[dimension];
+    fill(result, 0, dimension);
+    return result;
+  }
+
+  @Override
+  public void fill(final double[] buffer, final int offset, final int length) {
+    ArgChecker.isTrue(length >= 0 && length <= _point.length, "dimension should be between 0 and {}", _point.length);
+    for (int loopdim = 0; loopdim < length; loopdim++) {
+      final long x = coordinate(loopdim);
+      // A coordinate at 0 can only appear after a digital shift, it is moved to the middle of the first interval.
+      buffer[offset + loopdim] = Probability.normalInverse((x == 0 ? 0.5 : x) / SCALE);
+    }
+    next();
+  }
+
+  @Override
+  public List<double[]> getVectors(final int dimension, final int n) {
+    ArgChecker.notNegative(n, "n");
+    final List<double[]> result = new ArrayList<>(n);
+    for (int loopn = 0; loopn < n; loopn++) {
+      result.add(getVector(dimension));
+    }
+    return result;
+  }
+
+  private long coordinate(final int dimension) {
+    return _shift == null ? _point[dimension] : _point[dimension] ^ _shift[dimension];
+  }
+
+  /**
+   * Moves to the next point with the Gray code recursion: the direction vector of the lowest zero bit of the current index.
+   */
+  private void next() {
+    final int c = Integer.numberOfTrailingZeros(~_index) + 1;
+    ArgChecker.isTrue(c <= SobolDirectionNumbers.BITS, "Sobol sequence exhausted");
+    for (int loopdim = 0; loopdim < _point.length; loopdim++) {
+      _point[loopdim] ^= _directions[loopdim][c];
+    }
+    _index++;
+  }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Consecutive segments of one Sobol sequence, used as streams by simulations split in blocks.
+ * <p>
+ * The stream of index i starts at the point 1 + i * streamLength of the sequence, so that blocks of at most streamLength
+ * paths together use the first points of the sequence, whatever the order or the threads in which they are run. The
+ * direction vectors are computed once and shared by the streams.
+ */
+public final class SobolRandomNumberStreams implements RandomNumberStreams {
+
+  /**
+   * The direction vectors (dimension/bit).
+   */
+  private final long[][] _directions;
+  /**
+   * The digital shift of each dimension, null if the sequence is not scrambled.
+   */
+  private final long[] _shift;
+  /**
+   * The number of points in each stream.
+   */
+  private final int _streamLength;
+
+  /**
+   * Constructor with the default direction numbers and without scrambling.
+   * @param dimension The dimension of the sequence, between 1 and 1000.
+   * @param streamLength The number of points in each stream, positive.
+   */
+  public SobolRandomNumberStreams(final int dimension, final int streamLength) {
+    this(SobolDirectionNumbers.getDefault(), dimension, streamLength, null);
+  }
+
+  /**
+   * Constructor with the default direction numbers and a random digital shift, common to all the streams.
+   * @param dimension The dimension of the sequence, between 1 and 1000.
+   * @param streamLength The number of points in each stream, positive.
+   * @param seed The seed of the digital shift.
+   */
+  public SobolRandomNumberStreams(final int dimension, final int streamLength, final long seed) {
+    this(SobolDirectionNumbers.getDefault(), dimension, streamLength, seed);
+  }
+
+  /**
+   * Constructor.
+   * @param directionNumbers The direction numbers, not null.
+   * @param dimension The dimension of the sequence, not greater than the maximal dimension of the direction numbers.
+   * @param streamLength The number of points in each stream, positive.
+   * @param seed The seed of the digital shift, null if the sequence is not scrambled.
+   */
+  public SobolRandomNumberStreams(final SobolDirectionNumbers directionNumbers, final int dimension, final int streamLength, final Long seed) {
+    ArgChecker.notNull(directionNumbers, "direction numbers");
+    ArgChecker.isTrue(streamLength > 0, "stream length should be positive");
+    _directions = directionNumbers.directions(dimension);
+    _shift = seed == null ? null : SobolRandomNumberGenerator.digitalShift(dimension, seed);
+    _streamLength = streamLength;
+  }
+
+  @Override
+  public SobolRandomNumberGenerator getStream(final int index) {
+    ArgChecker.notNegative(index, "index");
+    ArgChecker.isTrue(index < (Integer.MAX_VALUE - 1) / _streamLength, "stream index too large");
+    final SobolRandomNumberGenerator generator = new SobolRandomNumberGenerator(_directions, _shift);
+    generator.skipTo(1 + index * _streamLength);
+    return generator;
+  }
+
+  /**
+   * Gets the number of points in each stream.
+   * @return The stream length.
+   */
+  public int getStreamLength() {
+    return _streamLength;
+  }
+
+}
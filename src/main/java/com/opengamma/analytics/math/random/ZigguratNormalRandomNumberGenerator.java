@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cern.jet.random.engine.RandomEngine;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Generator of normally distributed random numbers by the ziggurat method of Marsaglia and Tsang, in the version of
+ * Doornik (2005) which uses independent bits for the layer and for the value.
+ * <p>
+ * The normal density is covered by 128 layers of equal area. For about 99% of the draws, one 64 bits integer from the
+ * engine is enough: the 7 lowest bits select the layer and the 53 highest bits give the value, accepted by a single
+ * comparison with a precomputed ratio. The other draws are resolved by rejection or, for the base layer, by sampling the
+ * tail. This is several times faster than the polar method of the colt normal distribution.
+ * <p>
+ * The generator is not thread-safe, as the underlying engine.
+ */
+public class ZigguratNormalRandomNumberGenerator implements RandomNumberGenerator {
+
+  /**
+   * The number of layers.
+   */
+  private static final int NB_LAYER = 128;
+  /**
+   * The start of the tail, right edge of the base layer.
+   */
+  private static final double R = 3.442619855899;
+  /**
+   * The area of each layer.
+   */
+  private static final double V = 9.91256303526217E-3;
+  /**
+   * The right edges of the layers, with X[0] the edge of the rectangle equivalent to the base layer and X[128] = 0.
+   */
+  private static final double[] X = new double[NB_LAYER + 1];
+  /**
+   * The ratios X[i+1] / X[i]: values below the ratio are inside the next layer and accepted immediately.
+   */
+  private static final double[] RATIO = new double[NB_LAYER];
+  /**
+   * The scale of the 53 bits values to [0, 1).
+   */
+  private static final double SCALE_53 = 1.0 / (1L << 53);
+
+  static {
+    double f = Math.exp(-0.5 * R * R);
+    X[0] = V / f;
+    X[1] = R;
+    X[NB_LAYER] = 0.0;
+    for (int i = 2; i < NB_LAYER; i++) {
+      X[i] = Math.sqrt(-2.0 * Math.log(V / X[i - 1] + f));
+      f = Math.exp(-0.5 * X[i] * X[i]);
+    }
+    for (int i = 0; i < NB_LAYER; i++) {
+      RATIO[i] = X[i + 1] / X[i];
+    }
+  }
+
+  /**
+   * The engine of uniform random numbers.
+   */
+  private final RandomEngine _engine;
+  /**
+   * The mean.
+   */
+  private final double _mean;
+  /**
+   * The standard deviation.
+   */
+  private final double _sigma;
+
+  /**
+   * Constructor.
+   * @param mean The mean of the distribution.
+   * @param sigma The standard deviation of the distribution, positive.
+   * @param engine The engine of uniform random numbers, not null.
+   */
+  public ZigguratNormalRandomNumberGenerator(final double mean, final double sigma, final RandomEngine engine) {
+    ArgChecker.notNegativeOrZero(sigma, "standard deviation");
+    ArgChecker.notNull(engine, "engine");
+    _mean = mean;
+    _sigma = sigma;
+    _engine = engine;
+  }
+
+  /**
+   * Draws a standard normal variable.
+   * @return The variable.
+   */
+  public double nextStandardNormal() {
+    while (true) {
+      final long bits = _engine.nextLong();
+      final int i = (int) (bits & (NB_LAYER - 1));
+      final double u = 2.0 * ((bits >>> 11) * SCALE_53) - 1.0;
+      if (Math.abs(u) < RATIO[i]) {
+        return u * X[i];
+      }
+      if (i == 0) {
+        return tail(u < 0);
+      }
+      final double x = u * X[i];
+      final double f0 = Math.exp(-0.5 * (X[i] * X[i] - x * x));
+      final double f1 = Math.exp(-0.5 * (X[i + 1] * X[i + 1] - x * x));
+      if (f1 + _engine.raw() * (f0 - f1) < 1.0) {
+        return x;
+      }
+    }
+  }
+
+  /**
+   * Samples the tail beyond R by the method of Marsaglia.
+   * @param negative Whether the negative tail is sampled.
+   * @return The variable.
+   */
+  private double tail(final boolean negative) {
+    double x;
+    double y;
+    do {
+      x = Math.log(_engine.raw()) / R;
+      y = Math.log(_engine.raw());
+    } while (-2.0 * y < x * x);
+    return negative ? x - R : R - x;
+  }
+
+  @Override
+  public double[] getVector(final int dimension) {
+    ArgChecker.notNegative(dimension, "dimension");
+    final double[] result = new double[dimension];
+    fill(result, 0, dimension);
+    return result;
+  }
+
+  @Override
+  public List<double[]> getVectors(final int dimension, final int n) {
+    ArgChecker.notNegative(dimension, "dimension");
+    ArgChecker.notNegative(n, "n");
+    final List<double[]> result = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      result.add(getVector(dimension));
+    }
+    return result;
+  }
+
+  @Override
+  public void fill(final double[] buffer, final int offset, final int length) {
+    ArgChecker.notNegative(length, "length");
+    for (int i = offset; i < offset + length; i++) {
+      buffer[i] = _mean + _sigma * nextStandardNormal();
+    }
+  }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Utilities to run independent tasks on a fork-join pool.
+ */
+public final class ForkJoinUtils {
+
+  private ForkJoinUtils() {
+  }
+
+  /**
+   * Runs a task for each index from 0 to count - 1, in parallel on a pool.
+   * <p>
+   * Without a pool or with at most one index, the tasks are run in the calling thread in the order of the indices.
+   * Otherwise they are run by the pool and the method returns when all of them are completed. An unchecked exception
+   * thrown by a task is rethrown as is; the other exceptions are wrapped in an {@link IllegalStateException}.
+   * @param pool The pool, null for a sequential run
+   * @param count The number of indices
+   * @param task The task, called once for each index
+   */
+  public static void forEachIndex(final ForkJoinPool pool, final int count, final IntConsumer task) {
+    ArgChecker.isTrue(count >= 0, "count must be positive or zero");
+    ArgChecker.notNull(task, "task");
+    if (pool == null || count <= 1) {
+      for (int loopindex = 0; loopindex < count; loopindex++) {
+        task.accept(loopindex);
+      }
+      return;
+    }
+    run(pool, () -> IntStream.range(0, count).parallel().forEach(task));
+  }
+
+  /**
+   * Runs a task for each index from 0 to count - 1, in parallel on a pool, each task with buffers not used at the same time
+   * by another task.
+   * <p>
+   * The buffers are reused from one task to the next: a single set is used for a sequential run, and on the pool each running
+   * task takes a free set, so that there are at most as many sets as threads. The sequential run and the exceptions are as in
+   * {@link #forEachIndex(ForkJoinPool, int, IntConsumer)}.
+   * @param <T> The type of the buffers
+   * @param pool The pool, null for a sequential run
+   * @param count The number of indices
+   * @param newBuffers The creation of a set of buffers
+   * @param task The task, called once for each index
+   */
+  public static <T> void forEachIndex(final ForkJoinPool pool, final int count, final Supplier<T> newBuffers, final BufferedTask<T> task) {
+    ArgChecker.isTrue(count >= 0, "count must be positive or zero");
+    ArgChecker.notNull(newBuffers, "newBuffers");
+    ArgChecker.notNull(task, "task");
+    if (count == 0) {
+      return;
+    }
+    if (pool == null || count == 1) {
+      final T buffers = newBuffers.get();
+      for (int loopindex = 0; loopindex < count; loopindex++) {
+        task.run(loopindex, buffers);
+      }
+      return;
+    }
+    final ConcurrentLinkedQueue<T> free = new ConcurrentLinkedQueue<>();
+    run(pool, () -> IntStream.range(0, count).parallel().forEach(loopindex -> {
+      T buffers = free.poll();
+      if (buffers == null) {
+        buffers = newBuffers.get();
+      }
+      task.run(loopindex, buffers);
+      free.offer(buffers);
+    }));
+  }
+
+  private static void run(final ForkJoinPool pool, final Runnable tasks) {
+    try {
+      pool.submit(tasks).get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while running the tasks", e);
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Error while running the tasks", cause);
+    }
+  }
+
+  /**
+   * A task run with buffers.
+   * @param <T> The type of the buffers
+   */
+  @FunctionalInterface
+  public interface BufferedTask<T> {
+
+    /**
+     * Runs the task of an index.
+     * @param index The index
+     * @param buffers The buffers, not used by another task at the same time
+     */
+    void run(int index, T buffers);
+
+  }
+
+}
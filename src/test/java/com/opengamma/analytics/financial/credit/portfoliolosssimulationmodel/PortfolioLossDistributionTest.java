@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.credit.portfoliolosssimulationmodel;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the histogram of the portfolio loss.
+ */
+@Test
+public class PortfolioLossDistributionTest {
+
+  private static final double[] LOSSES = new double[] {0.0, 0.0, 0.0, 0.0, 5.0, 12.5, 20.0, 35.0, 62.5, 100.0 };
+  private static final double TOLERANCE = 1.0E-12;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongBuckets() {
+    new PortfolioLossDistribution(100.0, 0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void mergeDifferentBuckets() {
+    new PortfolioLossDistribution(100.0, 10).merge(new PortfolioLossDistribution(100.0, 20));
+  }
+
+  @Test
+  public void statistics() {
+    final PortfolioLossDistribution distribution = distribution(0, LOSSES.length);
+    double expectedLoss = 0.0;
+    for (final double loss : LOSSES) {
+      expectedLoss += loss / LOSSES.length;
+    }
+    assertEquals("Portfolio loss distribution: scenarios", LOSSES.length, distribution.getNumberOfScenarios());
+    assertEquals("Portfolio loss distribution: probability", 0.5, distribution.getProbability(0), TOLERANCE);
+    assertEquals("Portfolio loss distribution: probability", 0.1, distribution.getProbability(1), TOLERANCE);
+    assertEquals("Portfolio loss distribution: expected loss", expectedLoss, distribution.getExpectedLoss(), TOLERANCE);
+    assertEquals("Portfolio loss distribution: value at risk", 10.0, distribution.getValueAtRisk(0.5), TOLERANCE);
+    assertEquals("Portfolio loss distribution: value at risk", 70.0, distribution.getValueAtRisk(0.85), TOLERANCE);
+    assertEquals("Portfolio loss distribution: value at risk", 100.0, distribution.getValueAtRisk(1.0), TOLERANCE);
+    assertEquals("Portfolio loss distribution: expected shortfall", (62.5 + 100.0) / 2.0, distribution.getExpectedShortfall(0.8), TOLERANCE);
+    assertEquals("Portfolio loss distribution: expected shortfall", expectedLoss, distribution.getExpectedShortfall(0.0), TOLERANCE);
+    assertEquals("Portfolio loss distribution: tranche", (10.0 + 10.0 + 10.0 + 10.0 + 2.5) / LOSSES.length, distribution.getTrancheExpectedLoss(10.0, 20.0), TOLERANCE);
+    final double trancheTotal = distribution.getTrancheExpectedLoss(0.0, 10.0) + distribution.getTrancheExpectedLoss(10.0, 30.0)
+        + distribution.getTrancheExpectedLoss(30.0, 100.0);
+    assertEquals("Portfolio loss distribution: tranche", expectedLoss, trancheTotal, TOLERANCE);
+  }
+
+  @Test
+  public void merge() {
+    final PortfolioLossDistribution all = distribution(0, LOSSES.length);
+    final PortfolioLossDistribution merged = distribution(0, 3);
+    merged.merge(distribution(3, LOSSES.length));
+    assertEquals("Portfolio loss distribution: merge", all.getNumberOfScenarios(), merged.getNumberOfScenarios());
+    assertEquals("Portfolio loss distribution: merge", all.getExpectedLoss(), merged.getExpectedLoss(), TOLERANCE);
+    for (int loopbucket = 0; loopbucket < all.getNumberOfBuckets(); loopbucket++) {
+      assertEquals("Portfolio loss distribution: merge", all.getProbability(loopbucket), merged.getProbability(loopbucket), TOLERANCE);
+    }
+  }
+
+  private static PortfolioLossDistribution distribution(final int start, final int end) {
+    final PortfolioLossDistribution distribution = new PortfolioLossDistribution(100.0, 10);
+    for (int loopsc = start; loopsc < end; loopsc++) {
+      distribution.add(LOSSES[loopsc]);
+    }
+    return distribution;
+  }
+
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.credit.portfoliolosssimulationmodel;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.financial.credit.isdastandardmodel.ISDACompliantCreditCurve;
+import com.opengamma.analytics.math.random.NormalRandomNumberStreams;
+import com.opengamma.analytics.util.ForkJoinTestPool;
+
+/**
+ * Tests the simulation of the portfolio loss in factor copulas.
+ */
+@Test
+public class RevaluationEngineTest {
+
+  private static final int NB_NAME = 100;
+  private static final int NB_SCENARIO = 50000;
+  private static final int NB_BUCKET = 100;
+  private static final double HORIZON = 5.0;
+  private static final ISDACompliantCreditCurve[] CURVES = new ISDACompliantCreditCurve[NB_NAME];
+  private static final double[] NOTIONALS = new double[NB_NAME];
+  private static final double[] RECOVERY_RATES = new double[NB_NAME];
+  static {
+    for (int loopname = 0; loopname < NB_NAME; loopname++) {
+      CURVES[loopname] = new ISDACompliantCreditCurve(new double[] {1.0, 5.0 }, new double[] {0.01 + 0.0002 * loopname, 0.02 + 0.0002 * loopname });
+      NOTIONALS[loopname] = 1000000.0 * (1 + loopname % 4);
+      RECOVERY_RATES[loopname] = loopname % 2 == 0 ? 0.4 : 0.25;
+    }
+  }
+  private static final FactorCopula GAUSSIAN = FactorCopula.oneFactorGaussian(NB_NAME, 0.3);
+  private static final FactorCopula STUDENT = FactorCopula.oneFactor(NB_NAME, 0.3, 5);
+  private static final ForkJoinPool POOL = ForkJoinTestPool.POOL;
+  private static final RevaluationEngine ENGINE = new RevaluationEngine(new NormalRandomNumberStreams(20160301L), NB_SCENARIO, 5000, null);
+  private static final RevaluationEngine ENGINE_PARALLEL = new RevaluationEngine(new NormalRandomNumberStreams(20160301L), NB_SCENARIO, 5000, POOL);
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongLoadings() {
+    new FactorCopula(new double[][] {{0.8, 0.7 } });
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongNumberOfCurves() {
+    ENGINE.lossDistribution(GAUSSIAN, Arrays.copyOf(CURVES, NB_NAME - 1), NOTIONALS, RECOVERY_RATES, HORIZON, NB_BUCKET);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongTimes() {
+    ENGINE.lossDistributions(GAUSSIAN, CURVES, NOTIONALS, RECOVERY_RATES, new double[] {2.0, 1.0 }, NB_BUCKET);
+  }
+
+  /**
+   * The copulas do not change the marginal default probabilities and the expected loss.
+   */
+  @Test
+  public void expectedLoss() {
+    final double expectedLoss = expectedLoss(HORIZON);
+    final PortfolioLossDistribution gaussian = ENGINE.lossDistribution(GAUSSIAN, CURVES, NOTIONALS, RECOVERY_RATES, HORIZON, NB_BUCKET);
+    final PortfolioLossDistribution student = ENGINE.lossDistribution(STUDENT, CURVES, NOTIONALS, RECOVERY_RATES, HORIZON, NB_BUCKET);
+    assertEquals("Revaluation engine: scenarios", NB_SCENARIO, gaussian.getNumberOfScenarios());
+    assertEquals("Revaluation engine: expected loss", expectedLoss, gaussian.getExpectedLoss(), 0.03 * expectedLoss);
+    assertEquals("Revaluation engine: expected loss", expectedLoss, student.getExpectedLoss(), 0.03 * expectedLoss);
+    assertTrue("Revaluation engine: tail dependence", student.getExpectedShortfall(0.99) > gaussian.getExpectedShortfall(0.99));
+    assertTrue("Revaluation engine: expected shortfall", gaussian.getExpectedShortfall(0.99) >= gaussian.getValueAtRisk(0.99) - gaussian.getBucketWidth());
+    final double maximalLoss = gaussian.getMaximalLoss();
+    final double trancheTotal = gaussian.getTrancheExpectedLoss(0.0, 0.03 * maximalLoss) + gaussian.getTrancheExpectedLoss(0.03 * maximalLoss, 0.07 * maximalLoss)
+        + gaussian.getTrancheExpectedLoss(0.07 * maximalLoss, maximalLoss);
+    assertEquals("Revaluation engine: tranches", gaussian.getExpectedLoss(), trancheTotal, 1.0E-6);
+  }
+
+  /**
+   * The default times are the same for the grid and for each of its times.
+   */
+  @Test
+  public void timeGrid() {
+    final double[] times = new double[] {1.0, 3.0, HORIZON };
+    final PortfolioLossDistribution[] grid = ENGINE.lossDistributions(STUDENT, CURVES, NOTIONALS, RECOVERY_RATES, times, NB_BUCKET);
+    final PortfolioLossDistribution horizon = ENGINE.lossDistribution(STUDENT, CURVES, NOTIONALS, RECOVERY_RATES, HORIZON, NB_BUCKET);
+    assertEquals("Revaluation engine: time grid", horizon.getExpectedLoss(), grid[2].getExpectedLoss(), 1.0E-6);
+    for (int loopbucket = 0; loopbucket < NB_BUCKET; loopbucket++) {
+      assertEquals("Revaluation engine: time grid", horizon.getProbability(loopbucket), grid[2].getProbability(loopbucket));
+    }
+    for (int looptime = 0; looptime < times.length; looptime++) {
+      final double expectedLoss = expectedLoss(times[looptime]);
+      assertEquals("Revaluation engine: time grid", expectedLoss, grid[looptime].getExpectedLoss(), 0.05 * expectedLoss);
+      if (looptime > 0) {
+        assertTrue("Revaluation engine: time grid", grid[looptime].getProbability(0) <= grid[looptime - 1].getProbability(0));
+      }
+    }
+  }
+
+  @Test
+  public void parallel() {
+    final PortfolioLossDistribution sequential = ENGINE.lossDistribution(STUDENT, CURVES, NOTIONALS, RECOVERY_RATES, HORIZON, NB_BUCKET);
+    final PortfolioLossDistribution parallel = ENGINE_PARALLEL.lossDistribution(STUDENT, CURVES, NOTIONALS, RECOVERY_RATES, HORIZON, NB_BUCKET);
+    assertEquals("Revaluation engine: parallel", sequential.getExpectedLoss(), parallel.getExpectedLoss());
+    for (int loopbucket = 0; loopbucket < NB_BUCKET; loopbucket++) {
+      assertEquals("Revaluation engine: parallel", sequential.getProbability(loopbucket), parallel.getProbability(loopbucket));
+    }
+  }
+
+  /**
+   * With a correlation of 1 and identical obligors, all the obligors default in the same scenarios.
+   */
+  @Test
+  public void perfectCorrelation() {
+    final int nbName = 10;
+    final ISDACompliantCreditCurve[] curves = new ISDACompliantCreditCurve[nbName];
+    final double[] notionals = new double[nbName];
+    final double[] recoveryRates = new double[nbName];
+    Arrays.fill(curves, new ISDACompliantCreditCurve(HORIZON, 0.02));
+    Arrays.fill(notionals, 1.0);
+    Arrays.fill(recoveryRates, 0.4);
+    final PortfolioLossDistribution distribution = ENGINE.lossDistribution(FactorCopula.oneFactorGaussian(nbName, 1.0), curves, notionals, recoveryRates,
+        HORIZON, 10);
+    final double defaultProbability = 1.0 - Math.exp(-0.02 * HORIZON);
+    assertEquals("Revaluation engine: perfect correlation", 1.0, distribution.getProbability(0) + distribution.getProbability(9), 1.0E-12);
+    assertEquals("Revaluation engine: perfect correlation", defaultProbability, distribution.getProbability(9), 0.01);
+  }
+
+  private static double expectedLoss(final double time) {
+    double expectedLoss = 0.0;
+    for (int loopname = 0; loopname < NB_NAME; loopname++) {
+      expectedLoss += NOTIONALS[loopname] * (1.0 - RECOVERY_RATES[loopname]) * (1.0 - CURVES[loopname].getSurvivalProbability(time));
+    }
+    return expectedLoss;
+  }
+
+}
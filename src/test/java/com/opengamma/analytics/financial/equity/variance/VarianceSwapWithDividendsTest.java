@@ -6,6 +6,7 @@
 package com.opengamma.analytics.financial.equity.variance;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import org.testng.annotations.Test;
 
@@ -30,8 +31,11 @@ import com.opengamma.analytics.financial.model.volatility.surface.PureImpliedVol
 import com.opengamma.analytics.math.FunctionUtils;
 import com.opengamma.analytics.math.curve.ConstantDoublesCurve;
 import com.opengamma.analytics.math.function.Function;
+import com.opengamma.analytics.math.random.NormalRandomNumberStreams;
+import com.opengamma.analytics.math.random.SobolRandomNumberGenerator;
 import com.opengamma.analytics.math.surface.ConstantDoublesSurface;
 import com.opengamma.analytics.math.surface.FunctionalDoublesSurface;
+import com.opengamma.analytics.util.ForkJoinTestPool;
 
 /**
  * Test.
@@ -118,6 +122,86 @@ public class VarianceSwapWithDividendsTest {
     testNumerics(dividends, MLN_DATA, 1e-7);
   }
 
+  /**
+   * Monte Carlo with Sobol numbers and Brownian bridge paths against the analytic expected variance.
+   */
+  public void quasiRandomTest() {
+    final double[] tau = new double[] {EXPIRY - 0.7, EXPIRY - 0.1, EXPIRY + 0.1 };
+    final double[] alpha = new double[3];
+    final double[] beta = new double[] {0.1, 0.1, 0.1 };
+    final AffineDividends dividends = new AffineDividends(tau, alpha, beta);
+    final EquityDividendsCurvesBundle divCurves = new EquityDividendsCurvesBundle(SPOT, DISCOUNT_CURVE, dividends);
+    final LocalVolatilitySurfaceStrike localVol = VolatilitySurfaceConverter.convertLocalVolSurface(PURE_LOCAL_VOL_FLAT, divCurves);
+    final int nSteps = (int) Math.ceil(EXPIRY * 252);
+    // Scrambled sequence, with a number of paths of the form 2^k-1 (the origin is skipped)
+    final EquityVarianceSwapMonteCarloCalculator calculator = new EquityVarianceSwapMonteCarloCalculator(new SobolRandomNumberGenerator(nSteps, 12345L), false, true, true);
+    final double[] res = calculator.solve(SPOT, DISCOUNT_CURVE, dividends, EXPIRY, localVol, 255);
+    assertEquals("E[S_T]", divCurves.getF(EXPIRY), res[0], MC_SD * Math.sqrt(res[3]));
+    assertEquals("Analytic V QMC RV1", PURE_VOL * PURE_VOL, res[1], MC_SD * Math.sqrt(res[4]));
+  }
+
+  /**
+   * Monte Carlo by blocks of paths on random number streams: the results do not depend on the pool.
+   */
+  public void parallelTest() {
+    final double[] tau = new double[] {EXPIRY - 0.7, EXPIRY - 0.1, EXPIRY + 0.1 };
+    final double[] alpha = new double[3];
+    final double[] beta = new double[] {0.1, 0.1, 0.1 };
+    final AffineDividends dividends = new AffineDividends(tau, alpha, beta);
+    final EquityDividendsCurvesBundle divCurves = new EquityDividendsCurvesBundle(SPOT, DISCOUNT_CURVE, dividends);
+    final LocalVolatilitySurfaceStrike localVol = VolatilitySurfaceConverter.convertLocalVolSurface(PURE_LOCAL_VOL_FLAT, divCurves);
+    final double[] res = new EquityVarianceSwapMonteCarloCalculator(new NormalRandomNumberStreams(seed), 25, true, true, false, null)
+        .solve(SPOT, DISCOUNT_CURVE, dividends, EXPIRY, localVol, N_SIMS);
+    final double[] resParallel = new EquityVarianceSwapMonteCarloCalculator(new NormalRandomNumberStreams(seed), 25, true, true, false, ForkJoinTestPool.POOL)
+        .solve(SPOT, DISCOUNT_CURVE, dividends, EXPIRY, localVol, N_SIMS);
+    for (int i = 0; i < res.length; i++) {
+      assertEquals("Parallel MC", res[i], resParallel[i], 0.0);
+    }
+    assertEquals("E[S_T]", divCurves.getF(EXPIRY), res[0], MC_SD * Math.sqrt(res[3]));
+    assertEquals("Analytic V MC RV1", PURE_VOL * PURE_VOL, res[1], MC_SD * Math.sqrt(res[4]));
+    final double[] resPure = new VarianceSwapPureMonteCarloCalculator(new NormalRandomNumberStreams(seed), 25, true, true, null)
+        .solve(SPOT, DISCOUNT_CURVE, dividends, EXPIRY, PURE_LOCAL_VOL_FLAT, N_SIMS);
+    final double[] resPureParallel = new VarianceSwapPureMonteCarloCalculator(new NormalRandomNumberStreams(seed), 25, true, true, ForkJoinTestPool.POOL)
+        .solve(SPOT, DISCOUNT_CURVE, dividends, EXPIRY, PURE_LOCAL_VOL_FLAT, N_SIMS);
+    for (int i = 0; i < resPure.length; i++) {
+      assertEquals("Parallel MC (pure)", resPure[i], resPureParallel[i], 0.0);
+    }
+    //same normal variables, the two Monte Carlos differ only by the discretisation error
+    assertEquals("MC (Pure) V MC  RV1", resPure[1], res[1], 1e-4);
+  }
+
+  /**
+   * Monte Carlo with the log-contract as control variate, its expectation given by static replication: on the same simulations,
+   * the error on the expected variance is much lower than without control variate.
+   */
+  public void controlVariateTest() {
+    final double[] tau = new double[] {EXPIRY - 0.7, EXPIRY - 0.1, EXPIRY + 0.1 };
+    final double[] alpha = new double[3];
+    final double[] beta = new double[] {0.1, 0.1, 0.1 };
+    final AffineDividends dividends = new AffineDividends(tau, alpha, beta);
+    final ForwardCurve fc = new ForwardCurve(1.0);
+    final PureLocalVolatilitySurface plv = new PureLocalVolatilitySurface(MixedLogNormalVolatilitySurface.getLocalVolatilitySurface(fc, MLN_DATA).getSurface());
+    final PureImpliedVolatilitySurface piv = new PureImpliedVolatilitySurface(MixedLogNormalVolatilitySurface.getImpliedVolatilitySurface(fc, MLN_DATA).getSurface());
+    final EquityDividendsCurvesBundle divCurves = new EquityDividendsCurvesBundle(SPOT, DISCOUNT_CURVE, dividends);
+    final LocalVolatilitySurfaceStrike localVol = VolatilitySurfaceConverter.convertLocalVolSurface(plv, divCurves);
+    final double[] expected = STATIC_REPLICATION.expectedVariance(SPOT, DISCOUNT_CURVE, dividends, EXPIRY, piv);
+    final double logContractVariance = STATIC_REPLICATION.expectedLogContractVariance(SPOT, DISCOUNT_CURVE, dividends, EXPIRY, piv);
+    final int nSeeds = 10;
+    double errorMC = 0.0;
+    double errorCV = 0.0;
+    for (int i = 0; i < nSeeds; i++) {
+      final EquityVarianceSwapMonteCarloCalculator calculator = new EquityVarianceSwapMonteCarloCalculator(new NormalRandomNumberStreams(seed + i), 25, true, false,
+          false, null);
+      final double[] res = calculator.solve(SPOT, DISCOUNT_CURVE, dividends, EXPIRY, localVol, N_SIMS);
+      final double[] resCV = calculator.solveControlVariate(SPOT, DISCOUNT_CURVE, dividends, EXPIRY, localVol, N_SIMS, logContractVariance);
+      assertEquals("Control variate: E[S_T]", res[0], resCV[0], 0.0);
+      errorMC += FunctionUtils.square(res[1] - expected[0] / EXPIRY);
+      errorCV += FunctionUtils.square(resCV[1] - expected[0] / EXPIRY);
+      assertEquals("Control variate: RV2", expected[1] / EXPIRY, resCV[2], 5e-4);
+    }
+    assertTrue("Control variate", errorCV < 0.01 * errorMC);
+  }
+
   public void testMixedLogNormalVolSurface() {
 
     final AffineDividends dividends = AffineDividends.noDividends();
@@ -9,6 +9,7 @@ import static org.testng.AssertJUnit.assertEquals;
 
 import java.time.Period;
 import java.time.ZonedDateTime;
+import java.util.concurrent.ForkJoinPool;
 
 import org.testng.annotations.Test;
 
@@ -37,10 +38,14 @@ import com.opengamma.analytics.financial.provider.description.interestrate.HullW
 import com.opengamma.analytics.financial.provider.description.interestrate.HullWhiteOneFactorProviderInterface;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
 import com.opengamma.analytics.financial.provider.sensitivity.hullwhite.ParameterSensitivityHullWhiteDiscountInterpolatedFDCalculator;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyParameterSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.parameter.ParameterSensitivityParameterCalculator;
 import com.opengamma.analytics.financial.util.AssertSensitivityObjects;
 import com.opengamma.analytics.math.random.NormalRandomNumberGenerator;
+import com.opengamma.analytics.math.random.NormalRandomNumberStreams;
+import com.opengamma.analytics.math.random.SobolRandomNumberStreams;
+import com.opengamma.analytics.util.ForkJoinTestPool;
 import com.opengamma.analytics.util.time.DateUtils;
 import com.opengamma.analytics.util.timeseries.DoubleTimeSeries;
 import com.opengamma.analytics.util.timeseries.zdt.ImmutableZonedDateTimeDoubleTimeSeries;
@@ -98,6 +103,12 @@ public class AnnuityCouponIborRatchetHullWhiteMethodTest {
 
   private static final double TOLERANCE_PV = 1.0E-2;
   private static final double TOLERANCE_PV_DELTA_MC = 5.0E+3; //Testing note: Sensitivity is for a movement of 1. 1E+2 = 1 cent for a 1 bp move.
+  private static final double TOLERANCE_PV_MC = 1.0E+3;
+  /** Reference price, computed with 400,000 Sobol paths and Brownian bridge. */
+  private static final double PV_REFERENCE = 4663161.911;
+
+  private static final long SEED = 20110905L;
+  private static final ForkJoinPool POOL = ForkJoinTestPool.POOL;
 
   /**
    * Test the Ratchet present value in the case where the first coupon is fixed. Tested against a previous run number.
@@ -239,4 +250,46 @@ public class AnnuityCouponIborRatchetHullWhiteMethodTest {
     AssertSensitivityObjects.assertEquals("SwaptionPhysicalFixedIborSABRMethod: presentValueCurveSensitivity ", pvpsExact, pvpsFD, TOLERANCE_PV_DELTA_MC);
   }
 
+  /**
+   * Test the Ratchet present value with one random number stream per block: the result does not depend on the pool.
+   */
+  public void presentValueStreams() {
+    final HullWhiteMonteCarloMethod methodSequential = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), NB_PATH, null);
+    final HullWhiteMonteCarloMethod methodParallel = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), NB_PATH, POOL);
+    final MultiCurrencyAmount pvSequential = methodSequential.presentValue(ANNUITY_RATCHET_FIXED, CUR, HW_MULTICURVES);
+    final MultiCurrencyAmount pvParallel = methodParallel.presentValue(ANNUITY_RATCHET_FIXED, CUR, HW_MULTICURVES);
+    assertEquals("Annuity Ratchet Ibor - Hull-White - Monte Carlo - streams", pvSequential, pvParallel);
+    final double pvMCPreviousRun = 4664838.333;
+    assertEquals("Annuity Ratchet Ibor - Hull-White - Monte Carlo - streams", pvMCPreviousRun, pvParallel.getAmount(CUR).getAmount(), TOLERANCE_PV);
+  }
+
+  /**
+   * Test the Ratchet present value curve sensitivity with one random number stream per block: the result does not depend on the pool.
+   */
+  public void presentValueCurveSensitivityStreams() {
+    final HullWhiteMonteCarloMethod methodSequential = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), NB_PATH, null);
+    final HullWhiteMonteCarloMethod methodParallel = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), NB_PATH, POOL);
+    final MultipleCurrencyMulticurveSensitivity pvcsSequential = methodSequential.presentValueCurveSensitivity(ANNUITY_RATCHET_FIXED, CUR, HW_MULTICURVES);
+    final MultipleCurrencyMulticurveSensitivity pvcsParallel = methodParallel.presentValueCurveSensitivity(ANNUITY_RATCHET_FIXED, CUR, HW_MULTICURVES);
+    assertEquals("Annuity Ratchet Ibor - Hull-White - Monte Carlo - streams", pvcsSequential, pvcsParallel);
+  }
+
+  /**
+   * Test the Ratchet present value with Sobol streams and Brownian bridge paths.
+   */
+  public void presentValueQuasiRandom() {
+    final SobolRandomNumberStreams streams = new SobolRandomNumberStreams(ANNUITY_RATCHET_FIXED.getNumberOfPayments(), HullWhiteMonteCarloMethod.BLOCK_SIZE);
+    final HullWhiteMonteCarloMethod methodSequential = new HullWhiteMonteCarloMethod(streams, NB_PATH, null, true);
+    final HullWhiteMonteCarloMethod methodParallel = new HullWhiteMonteCarloMethod(streams, NB_PATH, POOL, true);
+    final MultiCurrencyAmount pvSequential = methodSequential.presentValue(ANNUITY_RATCHET_FIXED, CUR, HW_MULTICURVES);
+    final MultiCurrencyAmount pvParallel = methodParallel.presentValue(ANNUITY_RATCHET_FIXED, CUR, HW_MULTICURVES);
+    assertEquals("Annuity Ratchet Ibor - Hull-White - Monte Carlo - quasi-random", pvSequential, pvParallel);
+    final double pvBridgePreviousRun = 4662672.096;
+    assertEquals("Annuity Ratchet Ibor - Hull-White - Monte Carlo - quasi-random", pvBridgePreviousRun, pvParallel.getAmount(CUR).getAmount(), TOLERANCE_PV);
+    final MultiCurrencyAmount pvCholesky = new HullWhiteMonteCarloMethod(streams, NB_PATH, POOL, false).presentValue(ANNUITY_RATCHET_FIXED, CUR, HW_MULTICURVES);
+    final double pvCholeskyPreviousRun = 4662782.561;
+    assertEquals("Annuity Ratchet Ibor - Hull-White - Monte Carlo - quasi-random", pvCholeskyPreviousRun, pvCholesky.getAmount(CUR).getAmount(), TOLERANCE_PV);
+    assertEquals("Annuity Ratchet Ibor - Hull-White - Monte Carlo - quasi-random", PV_REFERENCE, pvParallel.getAmount(CUR).getAmount(), TOLERANCE_PV_MC);
+  }
+
 }
@@ -20,11 +20,16 @@ import com.opengamma.analytics.financial.instrument.index.IborIndex;
 import com.opengamma.analytics.financial.instrument.payment.CouponDefinition;
 import com.opengamma.analytics.financial.instrument.payment.CouponIborDefinition;
 import com.opengamma.analytics.financial.instrument.swap.SwapDefinition;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedIborDefinition;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.Annuity;
+import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityCouponFixed;
+import com.opengamma.analytics.financial.interestrate.annuity.provider.AnnuityDiscountingMethod;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.Coupon;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponIbor;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.Payment;
 import com.opengamma.analytics.financial.interestrate.payments.provider.CouponIborDiscountingMethod;
 import com.opengamma.analytics.financial.interestrate.swap.derivative.Swap;
+import com.opengamma.analytics.financial.interestrate.swap.derivative.SwapFixedCoupon;
 import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueDiscountingCalculator;
 import com.opengamma.analytics.financial.provider.description.MulticurveProviderDiscountDataSets;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
@@ -73,7 +78,10 @@ public class SwapFixedIborDiscountingMethodTest {
 
   private static final PresentValueDiscountingCalculator PVDC = PresentValueDiscountingCalculator.getInstance();
 
+  private static final AnnuityDiscountingMethod METHOD_ANNUITY = AnnuityDiscountingMethod.getInstance();
+
   private static final double TOLERANCE_PV = 1.0E-2;
+  private static final double TOLERANCE_PV_BATCH = 1.0E-6;
 
   @Test
   /**
@@ -94,4 +102,31 @@ public class SwapFixedIborDiscountingMethodTest {
     assertEquals("PresentValueDiscountingProviderCalculator: multiple Ibor index", pvCalcAnnFixed.plus(pvCalcAnnIbor).getAmount(EUR).getAmount(), pvCalcSwap.getAmount(EUR).getAmount(), TOLERANCE_PV);
   }
 
+  @Test
+  /**
+   * Tests the present value of the legs of a long swap, priced in one batch per leg, against the sum of the coupons present values.
+   */
+  public void presentValueLegBatch() {
+    final SwapFixedIborDefinition swapDefinition = SwapFixedIborDefinition.from(START_DATE, Period.ofYears(30), EUR1YEURIBOR6M, NOTIONAL, RATE, true);
+    final SwapFixedCoupon<Coupon> swap = swapDefinition.toDerivative(REFERENCE_DATE);
+    final AnnuityCouponFixed legFixed = swap.getFixedLeg();
+    final Annuity<Coupon> legIbor = swap.getSecondLeg();
+    double pvFixedExpected = 0.0;
+    for (int loopcpn = 0; loopcpn < legFixed.getNumberOfPayments(); loopcpn++) {
+      pvFixedExpected += legFixed.getNthPayment(loopcpn).accept(PVDC, MULTICURVES).getAmount(EUR).getAmount();
+    }
+    double pvIborExpected = 0.0;
+    for (int loopcpn = 0; loopcpn < legIbor.getNumberOfPayments(); loopcpn++) {
+      pvIborExpected += legIbor.getNthPayment(loopcpn).accept(PVDC, MULTICURVES).getAmount(EUR).getAmount();
+    }
+    assertEquals("PresentValueDiscountingProviderCalculator: fixed leg batch", pvFixedExpected,
+        legFixed.accept(PVDC, MULTICURVES).getAmount(EUR).getAmount(), TOLERANCE_PV_BATCH);
+    assertEquals("PresentValueDiscountingProviderCalculator: fixed leg batch", pvFixedExpected,
+        METHOD_ANNUITY.presentValue(legFixed, MULTICURVES).getAmount(EUR).getAmount(), TOLERANCE_PV_BATCH);
+    assertEquals("PresentValueDiscountingProviderCalculator: Ibor leg batch", pvIborExpected,
+        legIbor.accept(PVDC, MULTICURVES).getAmount(EUR).getAmount(), TOLERANCE_PV_BATCH);
+    assertEquals("PresentValueDiscountingProviderCalculator: swap batch", pvFixedExpected + pvIborExpected,
+        swap.accept(PVDC, MULTICURVES).getAmount(EUR).getAmount(), TOLERANCE_PV_BATCH);
+  }
+
 }
@@ -10,6 +10,7 @@ import static org.testng.AssertJUnit.assertTrue;
 
 import java.time.Period;
 import java.time.ZonedDateTime;
+import java.util.concurrent.ForkJoinPool;
 
 import org.testng.annotations.Test;
 
@@ -23,11 +24,15 @@ import com.opengamma.analytics.financial.instrument.swaption.SwaptionPhysicalFix
 import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionBermudaFixedIbor;
 import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionPhysicalFixedIbor;
 import com.opengamma.analytics.financial.model.interestrate.definition.HullWhiteOneFactorPiecewiseConstantParameters;
+import com.opengamma.analytics.financial.montecarlo.LongstaffSchwartzRegression;
+import com.opengamma.analytics.financial.montecarlo.provider.HullWhiteMonteCarloMethod;
 import com.opengamma.analytics.financial.provider.description.HullWhiteDataSets;
 import com.opengamma.analytics.financial.provider.description.MulticurveProviderDiscountDataSets;
 import com.opengamma.analytics.financial.provider.description.interestrate.HullWhiteOneFactorProviderDiscount;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
 import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
+import com.opengamma.analytics.math.random.NormalRandomNumberStreams;
+import com.opengamma.analytics.util.ForkJoinTestPool;
 import com.opengamma.analytics.util.time.DateUtils;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
@@ -79,6 +84,11 @@ public class SwaptionBermudaFixedIborHullWhiteNumericalIntegrationMethodTest {
   private static final SwaptionBermudaFixedIbor BERMUDA_SWAPTION = BERMUDA_SWAPTION_DEFINITION.toDerivative(REFERENCE_DATE);
 
   private static final double TOLERANCE_PV = 1.0E-2;
+  private static final double TOLERANCE_PV_MC = 5.0E+4;
+  private static final int NB_PATH = 20000;
+  private static final int NB_PATH_REGRESSION = 10000;
+  private static final long SEED = 20110722L;
+  private static final ForkJoinPool POOL = ForkJoinTestPool.POOL;
 
   /**
    * Test the present value against European swaptions.
@@ -101,6 +111,23 @@ public class SwaptionBermudaFixedIborHullWhiteNumericalIntegrationMethodTest {
 
   //TODO: test present value with external values
 
+  /**
+   * Test the present value by least-squares Monte Carlo against the numerical integration.
+   */
+  public void presentValueLongstaffSchwartz() {
+    final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), NB_PATH, POOL);
+    final LongstaffSchwartzRegression regression = new LongstaffSchwartzRegression(2, 2);
+    final MultiCurrencyAmount pvMC = methodMC.presentValueLongstaffSchwartz(BERMUDA_SWAPTION, CUR, HW_MULTICURVES, regression, NB_PATH_REGRESSION);
+    final MultiCurrencyAmount pvSequential = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), NB_PATH, null)
+        .presentValueLongstaffSchwartz(BERMUDA_SWAPTION, CUR, HW_MULTICURVES, regression, NB_PATH_REGRESSION);
+    assertEquals("Bermuda swaption: Longstaff-Schwartz - parallel", pvSequential, pvMC);
+    final MultiCurrencyAmount pvIntegration = METHOD_BERMUDA.presentValue(BERMUDA_SWAPTION, HW_MULTICURVES);
+    assertEquals("Bermuda swaption: Longstaff-Schwartz", pvIntegration.getAmount(CUR).getAmount(), pvMC.getAmount(CUR).getAmount(), TOLERANCE_PV_MC);
+    final SwaptionBermudaFixedIbor bermudaShort = new SwaptionBermudaFixedIborDefinition(EXPIRY_SWAP_DEFINITION, !IS_LONG, EXPIRY_DATE).toDerivative(REFERENCE_DATE);
+    final MultiCurrencyAmount pvShort = methodMC.presentValueLongstaffSchwartz(bermudaShort, CUR, HW_MULTICURVES, regression, NB_PATH_REGRESSION);
+    assertEquals("Bermuda swaption: Longstaff-Schwartz - long/short parity", pvMC.getAmount(CUR).getAmount(), -pvShort.getAmount(CUR).getAmount(), TOLERANCE_PV);
+  }
+
   /**
    * Test the present value long/short parity.
    */
@@ -6,6 +6,7 @@
 package com.opengamma.analytics.financial.interestrate.swaption.provider;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.time.Period;
 import java.time.ZonedDateTime;
@@ -20,23 +21,31 @@ import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIbor
 import com.opengamma.analytics.financial.instrument.index.IborIndex;
 import com.opengamma.analytics.financial.instrument.index.IndexSwap;
 import com.opengamma.analytics.financial.instrument.swap.SwapFixedIborDefinition;
+import com.opengamma.analytics.financial.instrument.swaption.SwaptionBermudaFixedIborDefinition;
 import com.opengamma.analytics.financial.instrument.swaption.SwaptionPhysicalFixedIborDefinition;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.Coupon;
 import com.opengamma.analytics.financial.interestrate.swap.derivative.SwapFixedCoupon;
 import com.opengamma.analytics.financial.interestrate.swap.provider.SwapFixedCouponDiscountingMethod;
+import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionBermudaFixedIbor;
 import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionPhysicalFixedIbor;
 import com.opengamma.analytics.financial.model.interestrate.TestsDataSetG2pp;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldCurve;
 import com.opengamma.analytics.financial.model.interestrate.definition.G2ppPiecewiseConstantParameters;
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.NormalFunctionData;
 import com.opengamma.analytics.financial.model.volatility.NormalImpliedVolatilityFormula;
+import com.opengamma.analytics.financial.montecarlo.LongstaffSchwartzRegression;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloVarianceReduction;
 import com.opengamma.analytics.financial.montecarlo.provider.G2ppMonteCarloMethod;
+import com.opengamma.analytics.financial.montecarlo.provider.G2ppMonteCarloPathConstants;
 import com.opengamma.analytics.financial.provider.calculator.discounting.ParRateDiscountingCalculator;
 import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueDiscountingCalculator;
 import com.opengamma.analytics.financial.provider.description.MulticurveProviderDiscountDataSets;
 import com.opengamma.analytics.financial.provider.description.interestrate.G2ppProviderDiscount;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
 import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
+import com.opengamma.analytics.math.curve.ConstantDoublesCurve;
 import com.opengamma.analytics.math.random.NormalRandomNumberGenerator;
+import com.opengamma.analytics.math.random.SobolRandomNumberStreams;
 import com.opengamma.analytics.util.time.DateUtils;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
@@ -145,6 +154,137 @@ public class SwaptionPhysicalFixedIborG2ppMethodTest {
     assertEquals("Swaption physical - G2++ - present value - approximation vs Monte Carlo", pvApproximation.getAmount(CUR).getAmount(), pvMC.getAmount(CUR).getAmount(), 2.5E+4);
   }
 
+  /**
+   * Test the present value by approximation vs Monte Carlo with antithetic variates and moment matching.
+   */
+  public void presentValueMonteCarloVarianceReduction() {
+    final int nbPath = 12500;
+    final G2ppMonteCarloMethod methodMC = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), nbPath,
+        new MonteCarloVarianceReduction(true, true));
+    final MultiCurrencyAmount pvMC = methodMC.presentValue(SWAPTION_LONG_PAYER, CUR, G2PP_MULTICURVES);
+    final MultiCurrencyAmount pvApproximation = METHOD_G2PP_APPROXIMATION.presentValue(SWAPTION_LONG_PAYER, G2PP_MULTICURVES);
+    assertEquals("Swaption physical - G2++ - present value - approximation vs Monte Carlo", pvApproximation.getAmount(CUR).getAmount(), pvMC.getAmount(CUR).getAmount(), 2.5E+4);
+  }
+
+  /**
+   * Tests the Monte Carlo with path constants shared by the swaptions with the same schedule.
+   */
+  public void presentValueMonteCarloPathConstants() {
+    final int nbPath = 12500;
+    final G2ppMonteCarloMethod methodMC = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), nbPath);
+    final G2ppMonteCarloPathConstants constants = methodMC.pathConstants(SWAPTION_LONG_PAYER, CUR, G2PP_MULTICURVES);
+    final SwaptionPhysicalFixedIbor[] swaptions = new SwaptionPhysicalFixedIbor[] {SWAPTION_LONG_PAYER, SWAPTION_LONG_RECEIVER, SWAPTION_SHORT_PAYER };
+    for (final SwaptionPhysicalFixedIbor swaption : swaptions) {
+      final G2ppMonteCarloMethod methodShared = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), nbPath);
+      final G2ppMonteCarloMethod methodSingle = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), nbPath);
+      assertEquals("Swaption physical - G2++ - Monte Carlo - path constants", methodSingle.presentValue(swaption, CUR, G2PP_MULTICURVES),
+          methodShared.presentValue(swaption, G2PP_MULTICURVES, constants));
+    }
+    // Other data objects with the same curves and parameters
+    final G2ppProviderDiscount g2ppCopy = new G2ppProviderDiscount(MULTICURVES.copy(), TestsDataSetG2pp.createG2ppParameters1(), CUR);
+    final G2ppMonteCarloMethod methodShared = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), nbPath);
+    final G2ppMonteCarloMethod methodSingle = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), nbPath);
+    assertEquals("Swaption physical - G2++ - Monte Carlo - path constants", methodSingle.presentValue(SWAPTION_LONG_PAYER, CUR, G2PP_MULTICURVES),
+        methodShared.presentValue(SWAPTION_LONG_PAYER, g2ppCopy, constants));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void presentValueMonteCarloPathConstantsOtherParameters() {
+    final G2ppMonteCarloMethod methodMC = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), 1000);
+    final G2ppPiecewiseConstantParameters parameters = TestsDataSetG2pp.createG2ppParameters1();
+    final G2ppMonteCarloPathConstants constants = methodMC.pathConstants(SWAPTION_LONG_PAYER, CUR, new G2ppProviderDiscount(MULTICURVES, parameters, CUR));
+    final double[] volatility = parameters.getLastVolatilities();
+    parameters.setLastVolatilities(new double[] {volatility[0] * 1.1, volatility[1] });
+    methodMC.presentValue(SWAPTION_LONG_PAYER, new G2ppProviderDiscount(MULTICURVES, parameters, CUR), constants);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void presentValueMonteCarloPathConstantsOtherCurves() {
+    final G2ppMonteCarloMethod methodMC = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), 1000);
+    final MulticurveProviderDiscount multicurves = MULTICURVES.copy();
+    multicurves.replaceCurve(CUR, YieldCurve.from(ConstantDoublesCurve.from(0.03)));
+    methodMC.presentValue(SWAPTION_LONG_PAYER, new G2ppProviderDiscount(multicurves, PARAMETERS_G2PP, CUR),
+        methodMC.pathConstants(SWAPTION_LONG_PAYER, CUR, G2PP_MULTICURVES));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void presentValueMonteCarloPathConstantsIncompatible() {
+    final G2ppMonteCarloMethod methodMC = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), 1000);
+    final SwaptionPhysicalFixedIbor swaptionShort = SwaptionPhysicalFixedIborDefinition.from(EXPIRY_DATE.minusYears(1), SWAP_PAYER_DEFINITION, true, IS_LONG)
+        .toDerivative(REFERENCE_DATE);
+    methodMC.presentValue(swaptionShort, G2PP_MULTICURVES, methodMC.pathConstants(SWAPTION_LONG_PAYER, CUR, G2PP_MULTICURVES));
+  }
+
+  /**
+   * Test the least-squares Monte Carlo present value of Bermudan swaptions against the numerical integration of the European swaptions:
+   * with one exercise date the Bermudan is the European, with several exercise dates it is above each European.
+   */
+  public void presentValueMonteCarloLongstaffSchwartz() {
+    final int nbPath = 50000;
+    final int nbPathRegression = 10000;
+    final LongstaffSchwartzRegression regression = new LongstaffSchwartzRegression(2, 2);
+    final double toleranceMC = 5.0E+4;
+    // One exercise date
+    final SwaptionBermudaFixedIbor bermudaOne = new SwaptionBermudaFixedIborDefinition(new SwapFixedIborDefinition[] {SWAP_PAYER_DEFINITION }, IS_LONG,
+        new ZonedDateTime[] {EXPIRY_DATE }).toDerivative(REFERENCE_DATE);
+    final MultiCurrencyAmount pvOne = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), nbPath)
+        .presentValueLongstaffSchwartz(bermudaOne, CUR, G2PP_MULTICURVES, regression, nbPathRegression);
+    final MultiCurrencyAmount pvEuropean = METHOD_G2PP_NI.presentValue(SWAPTION_LONG_PAYER, G2PP_MULTICURVES);
+    assertEquals("Swaption Bermuda - G2++ - Longstaff-Schwartz - one exercise date", pvEuropean.getAmount(CUR).getAmount(), pvOne.getAmount(CUR).getAmount(), toleranceMC);
+    // Semi-annual exercise dates
+    final int nbExpiry = SWAP_PAYER_DEFINITION.getFixedLeg().getNumberOfPayments();
+    final ZonedDateTime[] expiryDates = new ZonedDateTime[nbExpiry];
+    final SwapFixedIborDefinition[] expirySwaps = new SwapFixedIborDefinition[nbExpiry];
+    for (int loopexp = 0; loopexp < nbExpiry; loopexp++) {
+      expiryDates[loopexp] = ScheduleCalculator.getAdjustedDate(SWAP_PAYER_DEFINITION.getFixedLeg().getNthPayment(loopexp).getAccrualStartDate(), -SPOT_LAG, CALENDAR);
+      expirySwaps[loopexp] = SWAP_PAYER_DEFINITION.trimStart(expiryDates[loopexp]);
+    }
+    final SwaptionBermudaFixedIbor bermuda = new SwaptionBermudaFixedIborDefinition(expirySwaps, IS_LONG, expiryDates).toDerivative(REFERENCE_DATE);
+    final MultiCurrencyAmount pvBermuda = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), nbPath)
+        .presentValueLongstaffSchwartz(bermuda, CUR, G2PP_MULTICURVES, regression, nbPathRegression);
+    for (int loopexp = 0; loopexp < nbExpiry; loopexp++) {
+      final SwaptionPhysicalFixedIbor european = SwaptionPhysicalFixedIborDefinition.from(expiryDates[loopexp], expirySwaps[loopexp], true, IS_LONG).toDerivative(REFERENCE_DATE);
+      final double pvEuropeanExpiry = METHOD_G2PP_NI.presentValue(european, G2PP_MULTICURVES).getAmount(CUR).getAmount();
+      assertTrue("Swaption Bermuda - G2++ - Longstaff-Schwartz - above European " + loopexp, pvBermuda.getAmount(CUR).getAmount() > pvEuropeanExpiry - toleranceMC);
+    }
+    // Long/short parity: same paths, same exercise strategy
+    final SwaptionBermudaFixedIbor bermudaShort = new SwaptionBermudaFixedIborDefinition(expirySwaps, !IS_LONG, expiryDates).toDerivative(REFERENCE_DATE);
+    final MultiCurrencyAmount pvShort = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), nbPath)
+        .presentValueLongstaffSchwartz(bermudaShort, CUR, G2PP_MULTICURVES, regression, nbPathRegression);
+    assertEquals("Swaption Bermuda - G2++ - Longstaff-Schwartz - long/short parity", pvBermuda.getAmount(CUR).getAmount(), -pvShort.getAmount(CUR).getAmount(), TOLERANCE_PV);
+  }
+
+  /**
+   * Test the Monte Carlo present values with Sobol streams, with and without Brownian bridge, of the European swaption against
+   * the approximation and of the Bermudan swaption against the pseudo-random Longstaff-Schwartz price.
+   */
+  public void presentValueMonteCarloQuasiRandom() {
+    final int nbPath = 12500;
+    final SobolRandomNumberStreams streams = new SobolRandomNumberStreams(40, 1000);
+    final double pvApproximation = METHOD_G2PP_APPROXIMATION.presentValue(SWAPTION_LONG_PAYER, G2PP_MULTICURVES).getAmount(CUR).getAmount();
+    final MultiCurrencyAmount pvSobol = new G2ppMonteCarloMethod(streams, nbPath, false).presentValue(SWAPTION_LONG_PAYER, CUR, G2PP_MULTICURVES);
+    final MultiCurrencyAmount pvBridge = new G2ppMonteCarloMethod(streams, nbPath, true).presentValue(SWAPTION_LONG_PAYER, CUR, G2PP_MULTICURVES);
+    assertEquals("Swaption physical - G2++ - Monte Carlo - quasi-random", pvApproximation, pvSobol.getAmount(CUR).getAmount(), 1.0E+4);
+    assertEquals("Swaption physical - G2++ - Monte Carlo - quasi-random", pvApproximation, pvBridge.getAmount(CUR).getAmount(), 1.0E+4);
+    assertEquals("Swaption physical - G2++ - Monte Carlo - quasi-random", pvBridge,
+        new G2ppMonteCarloMethod(streams, nbPath, true).presentValue(SWAPTION_LONG_PAYER, CUR, G2PP_MULTICURVES));
+    // Bermudan swaption: the bridge orders the factors of the semi-annual exercise dates
+    final int nbExpiry = SWAP_PAYER_DEFINITION.getFixedLeg().getNumberOfPayments();
+    final ZonedDateTime[] expiryDates = new ZonedDateTime[nbExpiry];
+    final SwapFixedIborDefinition[] expirySwaps = new SwapFixedIborDefinition[nbExpiry];
+    for (int loopexp = 0; loopexp < nbExpiry; loopexp++) {
+      expiryDates[loopexp] = ScheduleCalculator.getAdjustedDate(SWAP_PAYER_DEFINITION.getFixedLeg().getNthPayment(loopexp).getAccrualStartDate(), -SPOT_LAG, CALENDAR);
+      expirySwaps[loopexp] = SWAP_PAYER_DEFINITION.trimStart(expiryDates[loopexp]);
+    }
+    final SwaptionBermudaFixedIbor bermuda = new SwaptionBermudaFixedIborDefinition(expirySwaps, IS_LONG, expiryDates).toDerivative(REFERENCE_DATE);
+    final LongstaffSchwartzRegression regression = new LongstaffSchwartzRegression(2, 2);
+    final double pvPseudo = new G2ppMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), 50000)
+        .presentValueLongstaffSchwartz(bermuda, CUR, G2PP_MULTICURVES, regression, 10000).getAmount(CUR).getAmount();
+    final double pvBermudaBridge = new G2ppMonteCarloMethod(streams, nbPath, true)
+        .presentValueLongstaffSchwartz(bermuda, CUR, G2PP_MULTICURVES, regression, 10000).getAmount(CUR).getAmount();
+    assertEquals("Swaption Bermuda - G2++ - Longstaff-Schwartz - quasi-random", pvPseudo, pvBermudaBridge, 5.0E+4);
+  }
+
   /**
    * Test the present value by approximation vs Monte Carlo: convergence.
    */
@@ -6,9 +6,11 @@
 package com.opengamma.analytics.financial.interestrate.swaption.provider;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.time.Period;
 import java.time.ZonedDateTime;
+import java.util.concurrent.ForkJoinPool;
 
 import org.testng.annotations.Test;
 
@@ -30,6 +32,9 @@ import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.B
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.NormalFunctionData;
 import com.opengamma.analytics.financial.model.volatility.BlackImpliedVolatilityFormula;
 import com.opengamma.analytics.financial.model.volatility.NormalImpliedVolatilityFormula;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloConvergence;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloResult;
+import com.opengamma.analytics.financial.montecarlo.MonteCarloVarianceReduction;
 import com.opengamma.analytics.financial.montecarlo.provider.HullWhiteMonteCarloMethod;
 import com.opengamma.analytics.financial.provider.calculator.discounting.CashFlowEquivalentCalculator;
 import com.opengamma.analytics.financial.provider.calculator.discounting.ParRateDiscountingCalculator;
@@ -49,8 +54,10 @@ import com.opengamma.analytics.financial.provider.sensitivity.parameter.Paramete
 import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
 import com.opengamma.analytics.financial.util.AssertSensitivityObjects;
 import com.opengamma.analytics.math.random.NormalRandomNumberGenerator;
+import com.opengamma.analytics.math.random.NormalRandomNumberStreams;
 import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
 import com.opengamma.analytics.math.statistics.distribution.ProbabilityDistribution;
+import com.opengamma.analytics.util.ForkJoinTestPool;
 import com.opengamma.analytics.util.time.DateUtils;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
@@ -115,6 +122,8 @@ public class SwaptionPhysicalFixedIborHullWhiteMethodTest {
   private static final SwaptionPhysicalFixedIborHullWhiteNumericalIntegrationMethod METHOD_HW_INTEGRATION = SwaptionPhysicalFixedIborHullWhiteNumericalIntegrationMethod.getInstance();
   private static final SwaptionPhysicalFixedIborHullWhiteApproximationMethod METHOD_HW_APPROXIMATION = SwaptionPhysicalFixedIborHullWhiteApproximationMethod.getInstance();
   private static final int NB_PATH = 12500;
+  private static final long SEED = 20110707L;
+  private static final ForkJoinPool POOL = ForkJoinTestPool.POOL;
 
   private static final HullWhiteOneFactorPiecewiseConstantInterestRateModel MODEL = new HullWhiteOneFactorPiecewiseConstantInterestRateModel();
   private static final ProbabilityDistribution<Double> NORMAL = new NormalDistribution(0, 1);
@@ -267,6 +276,95 @@ public class SwaptionPhysicalFixedIborHullWhiteMethodTest {
         .getAmount(EUR).getAmount(), 1.0E+5);
   }
 
+  /**
+   * Compare explicit formula with Monte-Carlo with antithetic variates and moment matching, sequential and in parallel.
+   */
+  public void presentValueMonteCarloVarianceReduction() {
+    final double pvExplicit = METHOD_HW.presentValue(SWAPTION_LONG_PAYER, HW_MULTICURVES).getAmount(EUR).getAmount();
+    final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), NB_PATH,
+        new MonteCarloVarianceReduction(true, true));
+    final double pvMC = methodMC.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR).getAmount();
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - variance reduction", pvExplicit, pvMC, 3.0E+4);
+    final MonteCarloVarianceReduction momentMatching = new MonteCarloVarianceReduction(false, true);
+    final double pvSequential = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), NB_PATH, null, false, momentMatching)
+        .presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR).getAmount();
+    final double pvParallel = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), NB_PATH, POOL, false, momentMatching)
+        .presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR).getAmount();
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - variance reduction", pvSequential, pvParallel, TOLERANCE_PV);
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - variance reduction", pvExplicit, pvParallel, 2.0E+4);
+  }
+
+  /**
+   * Compare explicit formula with Monte-Carlo with a swaption of different strike as control variate.
+   */
+  public void presentValueMonteCarloControlVariate() {
+    final double pvExplicit = METHOD_HW.presentValue(SWAPTION_LONG_PAYER, HW_MULTICURVES).getAmount(EUR).getAmount();
+    final SwapFixedIborDefinition swapControlDefinition = SwapFixedIborDefinition.from(SETTLEMENT_DATE, SWAP_TENOR, EUR1YEURIBOR6M, NOTIONAL, RATE + 0.0025, FIXED_IS_PAYER);
+    final SwaptionPhysicalFixedIbor control = SwaptionPhysicalFixedIborDefinition.from(EXPIRY_DATE, swapControlDefinition, true, IS_LONG).toDerivative(REFERENCE_DATE);
+    final double pvControl = METHOD_HW.presentValue(control, HW_MULTICURVES).getAmount(EUR).getAmount();
+    final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), NB_PATH, POOL);
+    final double pvCV = methodMC.presentValueControlVariate(SWAPTION_LONG_PAYER, control, pvControl, EUR, HW_MULTICURVES).getAmount(EUR).getAmount();
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - control variate", pvExplicit, pvCV, 1.0E+4);
+    // The instrument as its own control: the estimate is the control value.
+    final double pvSelf = methodMC.presentValueControlVariate(control, control, pvControl, EUR, HW_MULTICURVES).getAmount(EUR).getAmount();
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - control variate", pvControl, pvSelf, TOLERANCE_PV);
+  }
+
+  /**
+   * Compares the errors of the plain Monte Carlo and of the control variate on the same number of paths, over several seeds.
+   * The estimate on a single block is also available.
+   */
+  public void presentValueMonteCarloControlVariateError() {
+    final double pvExplicit = METHOD_HW.presentValue(SWAPTION_LONG_PAYER, HW_MULTICURVES).getAmount(EUR).getAmount();
+    final SwapFixedIborDefinition swapControlDefinition = SwapFixedIborDefinition.from(SETTLEMENT_DATE, SWAP_TENOR, EUR1YEURIBOR6M, NOTIONAL, RATE + 0.0025, FIXED_IS_PAYER);
+    final SwaptionPhysicalFixedIbor control = SwaptionPhysicalFixedIborDefinition.from(EXPIRY_DATE, swapControlDefinition, true, IS_LONG).toDerivative(REFERENCE_DATE);
+    final double pvControl = METHOD_HW.presentValue(control, HW_MULTICURVES).getAmount(EUR).getAmount();
+    final int nbSeed = 10;
+    final int nbPath = 2000;
+    double errorMC = 0.0;
+    double errorCV = 0.0;
+    for (int loopseed = 0; loopseed < nbSeed; loopseed++) {
+      final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED + loopseed), nbPath, POOL);
+      final double pvMC = methodMC.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR).getAmount();
+      final double pvCV = methodMC.presentValueControlVariate(SWAPTION_LONG_PAYER, control, pvControl, EUR, HW_MULTICURVES).getAmount(EUR).getAmount();
+      errorMC += (pvMC - pvExplicit) * (pvMC - pvExplicit);
+      errorCV += (pvCV - pvExplicit) * (pvCV - pvExplicit);
+    }
+    assertTrue("Swaption physical - Hull-White - Monte Carlo - control variate", errorCV < 0.01 * errorMC);
+    final HullWhiteMonteCarloMethod methodSingleBlock = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), 500, null);
+    final double pvSingleBlock = methodSingleBlock.presentValueControlVariate(SWAPTION_LONG_PAYER, control, pvControl, EUR, HW_MULTICURVES).getAmount(EUR).getAmount();
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - control variate", pvExplicit, pvSingleBlock, 2.0E+4);
+  }
+
+  /**
+   * Tests the Monte Carlo with standard error and convergence criteria.
+   */
+  public void presentValueMonteCarloConvergence() {
+    final double pvExplicit = METHOD_HW.presentValue(SWAPTION_LONG_PAYER, HW_MULTICURVES).getAmount(EUR).getAmount();
+    final int nbPathMax = 100000;
+    final HullWhiteMonteCarloMethod methodSequential = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), nbPathMax, null);
+    final HullWhiteMonteCarloMethod methodParallel = new HullWhiteMonteCarloMethod(new NormalRandomNumberStreams(SEED), nbPathMax, POOL);
+    final MonteCarloResult all = methodParallel.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES, MonteCarloConvergence.ALL_PATHS);
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - convergence", nbPathMax, all.getNumberOfPaths());
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - convergence", methodSequential.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES).getAmount(EUR).getAmount(),
+        all.getValue(), TOLERANCE_PV);
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - convergence", pvExplicit, all.getValue(), 3.0 * all.getStandardError());
+    final MonteCarloConvergence target = new MonteCarloConvergence(0.0, 0.01, null);
+    final MonteCarloResult sequential = methodSequential.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES, target);
+    final MonteCarloResult parallel = methodParallel.presentValue(SWAPTION_LONG_PAYER, EUR, HW_MULTICURVES, target);
+    assertTrue("Swaption physical - Hull-White - Monte Carlo - convergence", sequential.getNumberOfPaths() < nbPathMax);
+    assertTrue("Swaption physical - Hull-White - Monte Carlo - convergence", sequential.getRelativeError() <= 0.01);
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - convergence", sequential.getNumberOfPaths(), parallel.getNumberOfPaths());
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - convergence", sequential.getValue(), parallel.getValue(), TOLERANCE_PV);
+    assertEquals("Swaption physical - Hull-White - Monte Carlo - convergence", pvExplicit, sequential.getValue(), 3.0 * sequential.getStandardError());
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void presentValueMonteCarloControlVariateSharedGenerator() {
+    final HullWhiteMonteCarloMethod methodMC = new HullWhiteMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), NB_PATH);
+    methodMC.presentValueControlVariate(SWAPTION_LONG_PAYER, SWAPTION_LONG_RECEIVER, 0.0, EUR, HW_MULTICURVES);
+  }
+
   /**
    * Tests the Hull-White parameters sensitivity for the explicit formula.
    */
@@ -6,6 +6,7 @@
 package com.opengamma.analytics.financial.interestrate.swaption.provider;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.time.Period;
 import java.time.ZonedDateTime;
@@ -25,6 +26,7 @@ import com.opengamma.analytics.financial.instrument.payment.CouponFixedDefinitio
 import com.opengamma.analytics.financial.instrument.payment.CouponIborDefinition;
 import com.opengamma.analytics.financial.instrument.payment.PaymentDefinition;
 import com.opengamma.analytics.financial.instrument.swap.SwapFixedIborDefinition;
+import com.opengamma.analytics.financial.instrument.swaption.SwaptionBermudaFixedIborDefinition;
 import com.opengamma.analytics.financial.instrument.swaption.SwaptionPhysicalFixedIborDefinition;
 import com.opengamma.analytics.financial.interestrate.PresentValueSABRSensitivityDataBundle;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.Annuity;
@@ -35,6 +37,7 @@ import com.opengamma.analytics.financial.interestrate.payments.derivative.Coupon
 import com.opengamma.analytics.financial.interestrate.payments.derivative.Payment;
 import com.opengamma.analytics.financial.interestrate.swap.derivative.SwapFixedCoupon;
 import com.opengamma.analytics.financial.interestrate.swap.provider.SwapFixedCouponDiscountingMethod;
+import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionBermudaFixedIbor;
 import com.opengamma.analytics.financial.interestrate.swaption.derivative.SwaptionPhysicalFixedIbor;
 import com.opengamma.analytics.financial.interestrate.swaption.method.SwaptionPhysicalFixedIborBasketMethod;
 import com.opengamma.analytics.financial.model.interestrate.TestsDataSetLiborMarketModelDisplacedDiffusion;
@@ -43,6 +46,7 @@ import com.opengamma.analytics.financial.model.option.definition.SABRInterestRat
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.BlackFunctionData;
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.EuropeanVanillaOption;
 import com.opengamma.analytics.financial.model.volatility.BlackImpliedVolatilityFormula;
+import com.opengamma.analytics.financial.montecarlo.LongstaffSchwartzRegression;
 import com.opengamma.analytics.financial.montecarlo.provider.LiborMarketModelMonteCarloMethod;
 import com.opengamma.analytics.financial.provider.calculator.discounting.ParRateDiscountingCalculator;
 import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueDiscountingCalculator;
@@ -68,6 +72,7 @@ import com.opengamma.analytics.financial.provider.sensitivity.parameter.Paramete
 import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
 import com.opengamma.analytics.financial.util.AssertSensitivityObjects;
 import com.opengamma.analytics.math.random.NormalRandomNumberGenerator;
+import com.opengamma.analytics.math.random.SobolRandomNumberStreams;
 import com.opengamma.analytics.util.time.DateUtils;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
@@ -169,6 +174,89 @@ public class SwaptionPhysicalFixedIborLMMDDMethodTest {
     assertEquals("Swaption physical - LMM - present value Approximation/Monte Carlo", impliedVolMC, impliedVolApprox, 2.0E-3);
   }
 
+  @Test
+  /**
+   * Test the Monte Carlo present value with a small block size: the working arrays are reused across many blocks.
+   */
+  public void presentValueMCBlockSize() {
+    final LiborMarketModelMonteCarloMethod methodDefault =
+        new LiborMarketModelMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), NB_PATH);
+    final LiborMarketModelMonteCarloMethod methodSmallBlock =
+        new LiborMarketModelMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), NB_PATH, 1.0, 128);
+    final MultiCurrencyAmount pvDefault = methodDefault.presentValue(SWAPTION_PAYER_LONG, EUR, LMM_MULTICURVES);
+    final MultiCurrencyAmount pvSmallBlock = methodSmallBlock.presentValue(SWAPTION_PAYER_LONG, EUR, LMM_MULTICURVES);
+    assertEquals("Swaption physical - LMM - present value Monte Carlo - block size", pvDefault.getAmount(EUR).getAmount(),
+        pvSmallBlock.getAmount(EUR).getAmount(), 2.0E+4);
+  }
+
+  @Test
+  /**
+   * Test the Monte Carlo present value with Sobol streams, with and without Brownian bridge, against the approximated formula.
+   */
+  public void presentValueMCQuasiRandom() {
+    final SobolRandomNumberStreams streams = new SobolRandomNumberStreams(40, LiborMarketModelMonteCarloMethod.BLOCK_SIZE);
+    final MultiCurrencyAmount pvApprox = METHOD_LMM.presentValue(SWAPTION_PAYER_LONG, LMM_MULTICURVES);
+    final MultiCurrencyAmount pvSobol = new LiborMarketModelMonteCarloMethod(streams, NB_PATH, false).presentValue(SWAPTION_PAYER_LONG, EUR, LMM_MULTICURVES);
+    final MultiCurrencyAmount pvBridge = new LiborMarketModelMonteCarloMethod(streams, NB_PATH, true).presentValue(SWAPTION_PAYER_LONG, EUR, LMM_MULTICURVES);
+    final double pvbp = METHOD_SWAP.presentValueBasisPoint(SWAP_RECEIVER, MULTICURVES);
+    final double forward = SWAP_RECEIVER.accept(PRDC, MULTICURVES);
+    final BlackFunctionData data = new BlackFunctionData(forward, pvbp, 0.20);
+    final EuropeanVanillaOption option = new EuropeanVanillaOption(RATE, SWAPTION_PAYER_LONG.getTimeToExpiry(), FIXED_IS_PAYER);
+    final BlackImpliedVolatilityFormula implied = new BlackImpliedVolatilityFormula();
+    final double impliedVolApprox = implied.getImpliedVolatility(data, option, pvApprox.getAmount(EUR).getAmount());
+    assertEquals("Swaption physical - LMM - present value Approximation/Monte Carlo quasi-random", impliedVolApprox,
+        implied.getImpliedVolatility(data, option, pvSobol.getAmount(EUR).getAmount()), 2.0E-3);
+    assertEquals("Swaption physical - LMM - present value Approximation/Monte Carlo quasi-random", impliedVolApprox,
+        implied.getImpliedVolatility(data, option, pvBridge.getAmount(EUR).getAmount()), 2.0E-3);
+    final MultiCurrencyAmount pvBridgeRerun = new LiborMarketModelMonteCarloMethod(streams, NB_PATH, true).presentValue(SWAPTION_PAYER_LONG, EUR, LMM_MULTICURVES);
+    assertEquals("Swaption physical - LMM - present value Monte Carlo quasi-random", pvBridge, pvBridgeRerun);
+  }
+
+  @Test
+  /**
+   * Test the least-squares Monte Carlo present value of Bermudan swaptions: with one exercise date against the Monte Carlo
+   * present value of the European swaption, with several exercise dates against the co-terminal European swaptions.
+   */
+  public void presentValueMCLongstaffSchwartz() {
+    @SuppressWarnings("unchecked")
+    final SwapFixedCoupon<Coupon>[] swaps = new SwapFixedCoupon[] {SWAP_PAYER_DEFINITION.toDerivative(REFERENCE_DATE) };
+    final SwaptionBermudaFixedIbor bermuda = new SwaptionBermudaFixedIbor(swaps, IS_LONG, new double[] {SWAPTION_PAYER_LONG.getTimeToExpiry() },
+        new double[] {SWAPTION_PAYER_LONG.getSettlementTime() });
+    final LiborMarketModelMonteCarloMethod methodLmmMc =
+        new LiborMarketModelMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), NB_PATH);
+    final MultiCurrencyAmount pvEuropean = methodLmmMc.presentValue(SWAPTION_PAYER_LONG, EUR, LMM_MULTICURVES);
+    final MultiCurrencyAmount pvBermuda = methodLmmMc.presentValueLongstaffSchwartz(bermuda, EUR, LMM_MULTICURVES, new LongstaffSchwartzRegression(2, 2), NB_PATH);
+    assertEquals("Swaption physical - LMM - present value Longstaff-Schwartz", pvEuropean.getAmount(EUR).getAmount(), pvBermuda.getAmount(EUR).getAmount(), 1.0E+5);
+    // Annual exercise dates, on the fixed leg start dates
+    final int nbExpiry = SWAP_PAYER_DEFINITION.getFixedLeg().getNumberOfPayments();
+    final ZonedDateTime[] expiryDates = new ZonedDateTime[nbExpiry];
+    final SwapFixedIborDefinition[] expirySwaps = new SwapFixedIborDefinition[nbExpiry];
+    double pvEuropeanMax = 0.0;
+    for (int loopexp = 0; loopexp < nbExpiry; loopexp++) {
+      expiryDates[loopexp] = ScheduleCalculator.getAdjustedDate(SWAP_PAYER_DEFINITION.getFixedLeg().getNthPayment(loopexp).getAccrualStartDate(), -EURIBOR6M.getSpotLag(),
+          TARGET);
+      expirySwaps[loopexp] = SWAP_PAYER_DEFINITION.trimStart(expiryDates[loopexp]);
+      final SwaptionPhysicalFixedIbor european = SwaptionPhysicalFixedIborDefinition.from(expiryDates[loopexp], expirySwaps[loopexp], true, IS_LONG)
+          .toDerivative(REFERENCE_DATE);
+      pvEuropeanMax = Math.max(pvEuropeanMax, METHOD_LMM.presentValue(european, LMM_MULTICURVES).getAmount(EUR).getAmount());
+    }
+    final SwaptionBermudaFixedIbor bermudaMulti = new SwaptionBermudaFixedIborDefinition(expirySwaps, IS_LONG, expiryDates).toDerivative(REFERENCE_DATE);
+    final LongstaffSchwartzRegression regression = new LongstaffSchwartzRegression(2, 2);
+    final double pvBermudaMulti = new LiborMarketModelMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), NB_PATH)
+        .presentValueLongstaffSchwartz(bermudaMulti, EUR, LMM_MULTICURVES, regression, NB_PATH).getAmount(EUR).getAmount();
+    assertTrue("Swaption Bermuda - LMM - Longstaff-Schwartz - above co-terminal Europeans", pvBermudaMulti > pvEuropeanMax - 1.0E+5);
+    // Long/short parity: same paths, same exercise strategy
+    final SwaptionBermudaFixedIbor bermudaShort = new SwaptionBermudaFixedIborDefinition(expirySwaps, !IS_LONG, expiryDates).toDerivative(REFERENCE_DATE);
+    final double pvBermudaShort = new LiborMarketModelMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister(2011)), NB_PATH)
+        .presentValueLongstaffSchwartz(bermudaShort, EUR, LMM_MULTICURVES, regression, NB_PATH).getAmount(EUR).getAmount();
+    assertEquals("Swaption Bermuda - LMM - Longstaff-Schwartz - long/short parity", pvBermudaMulti, -pvBermudaShort, TOLERANCE_PV);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongBlockSize() {
+    new LiborMarketModelMonteCarloMethod(new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()), NB_PATH, 1.0, 0);
+  }
+
   @Test
   /**
    * Tests long/short parity.
@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.finitedifference;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.util.ForkJoinTestPool;
+
+/**
+ * Tests the Craig-Sneyd ADI scheme against known prices, and its parallel line sweeps against the sequential ones.
+ */
+@SuppressWarnings("deprecation")
+@Test
+public class CraigSneydFiniteDifference2DTest {
+
+  private static final HestonPDETestCase HESTON_TESTER = new HestonPDETestCase();
+  private static final SpreadOptionPDETestCase SPREAD_OPTION_TESTER = new SpreadOptionPDETestCase();
+  private static final ConvectionDiffusionPDESolver2D SOLVER = new CraigSneydFiniteDifference2D();
+
+  @Test
+  public void testSpreadOption() {
+
+    final int timeSteps = 10;
+    final int xSteps = 100;
+    final int ySteps = 100;
+
+    SPREAD_OPTION_TESTER.testAgaintBSPrice(SOLVER, timeSteps, xSteps, ySteps);
+  }
+
+  @Test
+  public void testHeston() {
+
+    final int timeSteps = 40;
+    final int xSteps = 150;
+    final int ySteps = 40;
+    final boolean print = false; // make sure this is false before commits
+
+    HESTON_TESTER.testCallPrice(SOLVER, timeSteps, xSteps, ySteps, print);
+  }
+
+  /**
+   * The lines of each step solved in parallel give the same results as the sequential solver.
+   */
+  @Test
+  public void testParallel() {
+    HESTON_TESTER.testSameResults(SOLVER, new CraigSneydFiniteDifference2D(ForkJoinTestPool.POOL), 10, 60, 20);
+  }
+
+}
@@ -183,4 +183,18 @@ public class HestonPDETestCase {
     assertEquals(fftPrice, pdfPrice, 2e-6);
   }
 
+  /**
+   * Tests that two solvers, typically sequential and parallel, give the same results.
+   */
+  public void testSameResults(final ConvectionDiffusionPDESolver2D solver1, final ConvectionDiffusionPDESolver2D solver2, final int timeSteps,
+      final int spotSteps, final int volSqrSteps) {
+    final double[][] res1 = solver1.solve(DATA, timeSteps, spotSteps, volSqrSteps, T, F_LOWER, F_UPPER, V_LOWER, V_UPPER);
+    final double[][] res2 = solver2.solve(DATA, timeSteps, spotSteps, volSqrSteps, T, F_LOWER, F_UPPER, V_LOWER, V_UPPER);
+    for (int i = 0; i <= spotSteps; i++) {
+      for (int j = 0; j <= volSqrSteps; j++) {
+        assertEquals(res1[i][j], res2[i][j], 0.0);
+      }
+    }
+  }
+
 }
@@ -7,6 +7,8 @@ package com.opengamma.analytics.financial.model.finitedifference;
 
 import org.testng.annotations.Test;
 
+import com.opengamma.analytics.util.ForkJoinTestPool;
+
 /**
  * @deprecated This class tests deprecated functionality
  */
@@ -39,4 +41,12 @@ public class OperatorSplittingTest {
     HESTON_TESTER.testCallPrice(SOLVER, timeSteps, xSteps, ySteps, print);
   }
 
+  /**
+   * The lines of each step solved in parallel give the same results as the sequential solver.
+   */
+  @Test
+  public void testParallel() {
+    HESTON_TESTER.testSameResults(SOLVER, new OperatorSplittingFiniteDifference2D(ForkJoinTestPool.POOL), 10, 60, 20);
+  }
+
 }
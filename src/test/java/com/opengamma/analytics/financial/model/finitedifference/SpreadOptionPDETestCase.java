@@ -10,6 +10,7 @@ import static org.testng.AssertJUnit.assertEquals;
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.BlackFunctionData;
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.BlackPriceFunction;
 import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.EuropeanVanillaOption;
+import com.opengamma.analytics.math.cube.ConstantDoublesCube;
 import com.opengamma.analytics.math.cube.Cube;
 import com.opengamma.analytics.math.cube.FunctionalDoublesCube;
 import com.opengamma.analytics.math.function.Function;
@@ -38,6 +39,10 @@ public class SpreadOptionPDETestCase {
   private static final double RHO = -0.5;// used to be -0.5
 
   private static final ConvectionDiffusion2DPDEDataBundle DATA;
+  /**
+   * The same spread option with uncorrelated spots, i.e. without the mixed derivative term.
+   */
+  private static final ConvectionDiffusion2DPDEDataBundle DATA_UNCORRELATED;
 
   private static Cube<Double, Double, Double, Double> A;
   private static Cube<Double, Double, Double, Double> B;
@@ -134,12 +139,25 @@ public class SpreadOptionPDETestCase {
     };
 
     DATA = new ConvectionDiffusion2DPDEDataBundle(A, B, C, D, E, F, FunctionalDoublesSurface.from(payoff));
+    DATA_UNCORRELATED = new ConvectionDiffusion2DPDEDataBundle(A, B, C, D, ConstantDoublesCube.from(0.0), F, FunctionalDoublesSurface.from(payoff));
   }
 
   public void testAgaintBSPrice(final ConvectionDiffusionPDESolver2D solver, final int timeSteps, final int spotASteps, final int spotBSteps) {
-    final double[][] res = solver.solve(DATA, timeSteps, spotASteps, spotBSteps, T, A_LOWER, A_UPPER, B_LOWER, B_UPPER);
+    testAgaintBSPrice(solver, DATA, RHO, timeSteps, spotASteps, spotBSteps);
+  }
+
+  /**
+   * Tests the price of the spread option with uncorrelated spots, for the solvers which ignore the mixed derivative term.
+   */
+  public void testUncorrelatedAgaintBSPrice(final ConvectionDiffusionPDESolver2D solver, final int timeSteps, final int spotASteps, final int spotBSteps) {
+    testAgaintBSPrice(solver, DATA_UNCORRELATED, 0.0, timeSteps, spotASteps, spotBSteps);
+  }
+
+  private void testAgaintBSPrice(final ConvectionDiffusionPDESolver2D solver, final ConvectionDiffusion2DPDEDataBundle pdeData, final double rho,
+      final int timeSteps, final int spotASteps, final int spotBSteps) {
+    final double[][] res = solver.solve(pdeData, timeSteps, spotASteps, spotBSteps, T, A_LOWER, A_UPPER, B_LOWER, B_UPPER);
 
-    final double vol = Math.sqrt(VOL_A * VOL_A + VOL_B * VOL_B - 2 * RHO * VOL_A * VOL_B);
+    final double vol = Math.sqrt(VOL_A * VOL_A + VOL_B * VOL_B - 2 * rho * VOL_A * VOL_B);
     final double forward = SPOT_A / SPOT_B;
     final double strike = 1.0;
     final BlackFunctionData data = new BlackFunctionData(forward, SPOT_B, vol);
@@ -5,8 +5,18 @@
  */
 package com.opengamma.analytics.financial.model.finitedifference;
 
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
 import org.testng.annotations.Test;
 
+import com.opengamma.analytics.financial.model.finitedifference.applications.InitialConditionsProvider;
+import com.opengamma.analytics.financial.model.finitedifference.applications.PDE1DCoefficientsProvider;
+import com.opengamma.analytics.financial.model.volatility.local.LocalVolatilitySurfaceStrike;
+import com.opengamma.analytics.math.curve.ConstantDoublesCurve;
+import com.opengamma.analytics.math.surface.ConstantDoublesSurface;
+
 /**
  * Test ThetaMethodFiniteDifference when theta = 0.5 (i.e. A Crank-Nicolson scheme)
  */
@@ -16,6 +26,14 @@ public class ThetaMethodFiniteDifferenceTest {
   private static final ConvectionDiffusionPDESolverTestCase TESTER = new ConvectionDiffusionPDESolverTestCase();
   private static final ThetaMethodFiniteDifference SOLVER = new ThetaMethodFiniteDifference(0.5, false);
 
+  private static final double STRIKE = 100.0;
+  private static final double EXPIRY = 2.0;
+  private static final ConvectionDiffusionPDE1DStandardCoefficients BS_PDE = new PDE1DCoefficientsProvider().getBlackScholes(0.05, 0.0, 0.25);
+  private static final BoundaryCondition LOWER = new DirichletBoundaryCondition(0.0, 0.0);
+  private static final BoundaryCondition UPPER = new NeumannBoundaryCondition(1.0, 5.0 * STRIKE, false);
+  private static final ConvectionDiffusionPDE1DFullCoefficients FOKKER_PLANK_PDE = new PDE1DCoefficientsProvider().getFokkerPlank(
+      ConstantDoublesCurve.from(0.05), new LocalVolatilitySurfaceStrike(ConstantDoublesSurface.from(0.25)));
+
   @Test
   public void testBlackScholesEquation1() {
     int timeSteps = 10; //10 // with this few steps get massive oscillations in implied vol & gamma around ATM
@@ -83,4 +101,158 @@ public class ThetaMethodFiniteDifferenceTest {
     TESTER.testAmericanPrice(SOLVER, timeSteps, priceSteps, lowerMoneyness, upperMoneyness, print);
   }
 
+  /**
+   * A workspace reused across grids of different sizes, full results and time-homogeneous coefficients give the same results
+   * as a fresh solve.
+   */
+  @Test
+  public void testWorkspace() {
+    final ThetaMethodWorkspace workspace = new ThetaMethodWorkspace();
+    final ThetaMethodFiniteDifference fullSolver = new ThetaMethodFiniteDifference(0.5, true);
+    final int[] nbSpaceNodes = new int[] {101, 31, 201 };
+    for (final int nbNodes : nbSpaceNodes) {
+      final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> data = bsData(new PDEGrid1D(21, nbNodes, EXPIRY, LOWER.getLevel(), UPPER.getLevel()));
+      final double[] expected = SOLVER.solve(data).getTerminalResults();
+      final double[] workspaceResults = SOLVER.solve(data, workspace, false).getTerminalResults();
+      final double[] homogeneousResults = SOLVER.solve(data, workspace, true).getTerminalResults();
+      final PDEFullResults1D full = (PDEFullResults1D) fullSolver.solve(data, workspace, true);
+      assertEquals(nbNodes, workspaceResults.length);
+      for (int i = 0; i < nbNodes; i++) {
+        assertEquals(expected[i], workspaceResults[i], 0.0);
+        assertEquals(expected[i], homogeneousResults[i], 0.0);
+        assertEquals(expected[i], full.getTerminalResults()[i], 0.0);
+      }
+    }
+  }
+
+  /**
+   * The workspace overloads handle only the standard coefficients.
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testWorkspaceFullCoefficients() {
+    SOLVER.solve(fokkerPlankData(new PDEGrid1D(11, 51, EXPIRY, 0.0, 5.0 * STRIKE)), new ThetaMethodWorkspace(), false);
+  }
+
+  @Test
+  public void testWorkspaceFullResults() {
+    final ThetaMethodFiniteDifference fullSolver = new ThetaMethodFiniteDifference(0.5, true);
+    final ThetaMethodWorkspace workspace = new ThetaMethodWorkspace();
+    final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> data = bsData(new PDEGrid1D(11, 51, EXPIRY, LOWER.getLevel(), UPPER.getLevel()));
+    final PDEFullResults1D expected = (PDEFullResults1D) fullSolver.solve(data);
+    final PDEFullResults1D results = (PDEFullResults1D) fullSolver.solve(data, workspace, true);
+    for (int t = 0; t < 11; t++) {
+      for (int x = 0; x < 51; x++) {
+        assertEquals(expected.getFunctionValue(x, t), results.getFunctionValue(x, t), 0.0);
+      }
+    }
+  }
+
+  /**
+   * The selected slices are the same as the full results; the times are mapped to the nearest time nodes.
+   */
+  @Test
+  public void testSliceResults() {
+    final ThetaMethodFiniteDifference fullSolver = new ThetaMethodFiniteDifference(0.5, true);
+    final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> data = bsData(new PDEGrid1D(11, 51, EXPIRY, LOWER.getLevel(), UPPER.getLevel()));
+    final PDEFullResults1D expected = (PDEFullResults1D) fullSolver.solve(data);
+    final PDESliceResults1D results = fullSolver.solve(data, PDESliceSelection.ofTimes(0.61, 1.0, 1.02));
+    final int[] timeIndices = new int[] {0, 3, 5, 10 };
+    assertEquals(timeIndices.length, results.getTimeIndices().length);
+    for (int i = 0; i < timeIndices.length; i++) {
+      assertEquals(timeIndices[i], results.getTimeIndices()[i]);
+      assertTrue(results.isStored(timeIndices[i]));
+      for (int x = 0; x < 51; x++) {
+        assertEquals(expected.getFunctionValue(x, timeIndices[i]), results.getFunctionValue(x, timeIndices[i]), 0.0);
+        assertEquals(expected.getFirstSpatialDerivative(x, timeIndices[i]), results.getFirstSpatialDerivative(x, timeIndices[i]), 0.0);
+        assertEquals(expected.getSecondSpatialDerivative(x, timeIndices[i]), results.getSecondSpatialDerivative(x, timeIndices[i]), 0.0);
+      }
+    }
+    assertFalse(results.isStored(4));
+    for (int x = 0; x < 51; x++) {
+      assertEquals(expected.getFunctionValue(x), results.getFunctionValue(x), 0.0);
+    }
+  }
+
+  /**
+   * With full coefficients, the selected slices are the same as the full results.
+   */
+  @Test
+  public void testSliceResultsFullCoefficients() {
+    final ThetaMethodFiniteDifference fullSolver = new ThetaMethodFiniteDifference(0.5, true);
+    final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> data = fokkerPlankData(new PDEGrid1D(21, 51, EXPIRY, 0.0, 5.0 * STRIKE));
+    final PDEFullResults1D expected = (PDEFullResults1D) fullSolver.solve(data);
+    final PDESliceResults1D results = fullSolver.solve(data, PDESliceSelection.ofStride(5));
+    final int[] timeIndices = new int[] {0, 5, 10, 15, 20 };
+    assertEquals(timeIndices.length, results.getTimeIndices().length);
+    for (int i = 0; i < timeIndices.length; i++) {
+      assertEquals(timeIndices[i], results.getTimeIndices()[i]);
+      for (int x = 0; x < 51; x++) {
+        assertEquals(expected.getFunctionValue(x, timeIndices[i]), results.getFunctionValue(x, timeIndices[i]), 0.0);
+      }
+    }
+    assertFalse(results.isStored(3));
+    for (int x = 0; x < 51; x++) {
+      assertEquals(expected.getFunctionValue(x), results.getFunctionValue(x), 0.0);
+    }
+  }
+
+  /**
+   * The workspace overload of the time-slice storage handles only the standard coefficients.
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testWorkspaceSliceResultsFullCoefficients() {
+    SOLVER.solve(fokkerPlankData(new PDEGrid1D(11, 51, EXPIRY, 0.0, 5.0 * STRIKE)), new ThetaMethodWorkspace(), false, PDESliceSelection.ofStride(5));
+  }
+
+  @Test
+  public void testSliceStride() {
+    final ThetaMethodWorkspace workspace = new ThetaMethodWorkspace();
+    final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> data = bsData(new PDEGrid1D(11, 51, EXPIRY, LOWER.getLevel(), UPPER.getLevel()));
+    final PDESliceResults1D expected = SOLVER.solve(data, PDESliceSelection.ofTimes(0.0, 0.8, 1.6, 2.0));
+    final PDESliceResults1D results = SOLVER.solve(data, workspace, true, PDESliceSelection.ofStride(4));
+    final int[] timeIndices = new int[] {0, 4, 8, 10 };
+    assertEquals(timeIndices.length, results.getTimeIndices().length);
+    for (int i = 0; i < timeIndices.length; i++) {
+      assertEquals(timeIndices[i], results.getTimeIndices()[i]);
+      final double[] slice = results.getSlice(timeIndices[i]);
+      for (int x = 0; x < 51; x++) {
+        assertEquals(expected.getFunctionValue(x, timeIndices[i]), slice[x], 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void testSliceFloatStorage() {
+    final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> data = bsData(new PDEGrid1D(11, 51, EXPIRY, LOWER.getLevel(), UPPER.getLevel()));
+    final PDESliceResults1D expected = SOLVER.solve(data, PDESliceSelection.ofStride(2));
+    final PDESliceResults1D results = SOLVER.solve(data, PDESliceSelection.ofStride(2).withFloatStorage());
+    assertTrue(results.isFloatStorage());
+    for (final int t : expected.getTimeIndices()) {
+      for (int x = 0; x < 51; x++) {
+        final double value = expected.getFunctionValue(x, t);
+        assertEquals(value, results.getFunctionValue(x, t), 1e-7 * Math.max(1.0, Math.abs(value)));
+      }
+    }
+    // the terminal results are not compressed
+    for (int x = 0; x < 51; x++) {
+      assertEquals(expected.getFunctionValue(x), results.getFunctionValue(x), 0.0);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testSliceNotStored() {
+    final PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> data = bsData(new PDEGrid1D(11, 51, EXPIRY, LOWER.getLevel(), UPPER.getLevel()));
+    SOLVER.solve(data, PDESliceSelection.ofStride(3)).getFunctionValue(10, 4);
+  }
+
+  private static PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> bsData(final PDEGrid1D grid) {
+    return new PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients>(BS_PDE, new InitialConditionsProvider().getEuropeanPayoff(STRIKE, true),
+        LOWER, UPPER, grid);
+  }
+
+  private static PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients> fokkerPlankData(final PDEGrid1D grid) {
+    return new PDE1DDataBundle<ConvectionDiffusionPDE1DCoefficients>(FOKKER_PLANK_PDE, new InitialConditionsProvider().getLogNormalDensity(STRIKE, 0.01, 0.25),
+        new DirichletBoundaryCondition(0.0, grid.getSpaceNode(0)), new DirichletBoundaryCondition(0.0, grid.getSpaceNode(grid.getNumSpaceNodes() - 1)), grid);
+  }
+
 }
@@ -187,4 +187,36 @@ public class YieldAndDiscountCurveTest {
     assertArrayEquals("YieldPeriodicCurve.fromYieldsInterpolated", TIME, curveInt.getXDataAsPrimitive(), TOLERANCE_RATE);
   }
 
+
+  @Test
+  public void discountFactorsBatch() {
+    final double[] times = new double[] {0.0, 1.0, 1.25, 1.5, 2.0, 2.75, 0.0, 1.1, 3.0 };
+    final double[] dfYield = YIELD.getDiscountFactors(times);
+    for (int loopt = 0; loopt < times.length; loopt++) {
+      assertEquals("Discount factors batch", YIELD.getDiscountFactor(times[loopt]), dfYield[loopt], 0.0);
+    }
+    final double[] timesNonZero = new double[] {1.0, 1.25, 1.5, 2.0, 2.75, 1.1, 3.0 };
+    final YieldAndDiscountCurve[] curves = new YieldAndDiscountCurve[] {YIELD, DISCOUNT, YIELD_PERIODIC };
+    for (final YieldAndDiscountCurve curve : curves) {
+      final double[] df = curve.getDiscountFactors(timesNonZero);
+      for (int loopt = 0; loopt < timesNonZero.length; loopt++) {
+        assertEquals("Discount factors batch", curve.getDiscountFactor(timesNonZero[loopt]), df[loopt], 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void forwardRatesBatch() {
+    final double[] startTimes = new double[] {1.0, 1.25, 1.5, 1.75, 2.0, 1.1 };
+    final double[] endTimes = new double[] {1.25, 1.5, 1.75, 2.0, 3.0, 2.2 };
+    final double[] accrualFactors = new double[] {0.25, 0.26, 0.24, 0.25, 1.01, 1.1 };
+    final YieldAndDiscountCurve[] curves = new YieldAndDiscountCurve[] {YIELD, DISCOUNT, YIELD_PERIODIC };
+    for (final YieldAndDiscountCurve curve : curves) {
+      final double[] rates = curve.getSimplyCompoundForwardRates(startTimes, endTimes, accrualFactors);
+      for (int loopt = 0; loopt < startTimes.length; loopt++) {
+        assertEquals("Forward rates batch", curve.getSimplyCompoundForwardRate(startTimes[loopt], endTimes[loopt], accrualFactors[loopt]),
+            rates[loopt], 0.0);
+      }
+    }
+  }
 }
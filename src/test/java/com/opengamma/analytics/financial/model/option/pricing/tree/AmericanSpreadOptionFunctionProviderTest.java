@@ -30,6 +30,36 @@ public class AmericanSpreadOptionFunctionProviderTest {
   private static final double[] VOLS = new double[] {0.05, 0.1, 0.5 };
   private static final double[] DIVIDENDS = new double[] {0.005, 0.014 };
 
+  /**
+   * The option values written in a buffer are the same as the allocated ones.
+   */
+  @Test
+  public void nextOptionValuesInPlaceTest() {
+    final int steps = 10;
+    final OptionFunctionProvider2D function = new AmericanSpreadOptionFunctionProvider(STRIKES[1], TIME, steps, false);
+    final double[][] values = new double[2 * steps + 1][2 * steps + 1];
+    for (int i = 0; i < values.length; ++i) {
+      for (int j = 0; j < values.length; ++j) {
+        values[i][j] = 0.1 * i + 0.2 * j;
+      }
+    }
+    final double[][] result = new double[2 * steps + 1][2 * steps + 1];
+    final double[][] expected = function.getNextOptionValues(0.99, 0.3, 0.2, 0.2, 0.3, values, SPOT, 100., 0.98, 0.97, 1.04, 1.06, steps - 1);
+    function.getNextOptionValues(0.99, 0.3, 0.2, 0.2, 0.3, values, SPOT, 100., 0.98, 0.97, 1.04, 1.06, steps - 1, result);
+    for (int i = 0; i < steps; ++i) {
+      for (int j = 0; j < steps; ++j) {
+        assertEquals(result[i][j], expected[i][j], 0.);
+      }
+    }
+    final double[][] expectedTrinomial = function.getNextOptionValues(0.99, 0.1, 0.1, 0.1, 0.1, 0.2, 0.1, 0.1, 0.1, 0.1, values, SPOT, 100., 0.98, 0.97, 1.02, 1.03, steps - 1);
+    function.getNextOptionValues(0.99, 0.1, 0.1, 0.1, 0.1, 0.2, 0.1, 0.1, 0.1, 0.1, values, SPOT, 100., 0.98, 0.97, 1.02, 1.03, steps - 1, result);
+    for (int i = 0; i < 2 * steps - 1; ++i) {
+      for (int j = 0; j < 2 * steps - 1; ++j) {
+        assertEquals(result[i][j], expectedTrinomial[i][j], 0.);
+      }
+    }
+  }
+
   /**
    * 
    */
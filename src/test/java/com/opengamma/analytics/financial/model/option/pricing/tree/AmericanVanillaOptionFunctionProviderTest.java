@@ -9,6 +9,8 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.List;
+
 import org.testng.annotations.Test;
 
 import com.opengamma.analytics.financial.greeks.Greek;
@@ -29,6 +31,92 @@ public class AmericanVanillaOptionFunctionProviderTest {
   private static final double[] VOLS = new double[] {0.05, 0.1, 0.5 };
   private static final double[] DIVIDENDS = new double[] {0.005, 0.02 };
 
+  /**
+   * Prices and Greeks of a book of options computed together are the same as computed one by one, with a lattice which
+   * does not depend on the strike and, for the binomial model, one which does.
+   */
+  public void bookTest() {
+    bookTest(new CoxRossRubinsteinLatticeSpecification(), new TreeOptionPricingModel[] {_model, _modelTrinomial });
+    bookTest(new FlexibleLatticeSpecification(), new TreeOptionPricingModel[] {_model });
+  }
+
+  private void bookTest(final LatticeSpecification lattice, final TreeOptionPricingModel[] models) {
+    final int nStrikes = STRIKES.length;
+    final OptionFunctionProvider1D[] functions = new OptionFunctionProvider1D[4 * nStrikes + 1];
+    for (int k = 0; k < nStrikes; ++k) {
+      functions[4 * k] = new AmericanVanillaOptionFunctionProvider(STRIKES[k], TIME, 50 + k, false);
+      functions[4 * k + 1] = new AmericanVanillaOptionFunctionProvider(STRIKES[k], TIME, 81, true);
+      functions[4 * k + 2] = new AmericanVanillaOptionFunctionProvider(STRIKES[k], TIME, 81, false, VOLS[1], INTERESTS[3], DIVIDENDS[0], 10., true);
+      functions[4 * k + 3] = new EuropeanVanillaOptionFunctionProvider(STRIKES[k], TIME, 64, true);
+    }
+    functions[4 * nStrikes] = new EuropeanSingleBarrierOptionFunctionProvider(100., TIME, 70, false, 110., BarrierOptionFunctionProvider.BarrierTypes.DownAndOut);
+    for (final TreeOptionPricingModel model : models) {
+      final double[] prices = model.getPrice(lattice, functions, SPOT, VOLS[1], INTERESTS[3], DIVIDENDS[0]);
+      final GreekResultCollection[] greeks = model.getGreeks(lattice, functions, SPOT, VOLS[1], INTERESTS[3], DIVIDENDS[0]);
+      assertEquals(prices.length, functions.length);
+      assertEquals(greeks.length, functions.length);
+      for (int i = 0; i < functions.length; ++i) {
+        assertEquals(prices[i], model.getPrice(lattice, functions[i], SPOT, VOLS[1], INTERESTS[3], DIVIDENDS[0]), 0.);
+        final GreekResultCollection expected = model.getGreeks(lattice, functions[i], SPOT, VOLS[1], INTERESTS[3], DIVIDENDS[0]);
+        assertEquals(greeks[i].get(Greek.FAIR_PRICE), expected.get(Greek.FAIR_PRICE), 0.);
+        assertEquals(greeks[i].get(Greek.DELTA), expected.get(Greek.DELTA), 0.);
+        assertEquals(greeks[i].get(Greek.GAMMA), expected.get(Greek.GAMMA), 0.);
+        assertEquals(greeks[i].get(Greek.THETA), expected.get(Greek.THETA), 0.);
+      }
+    }
+  }
+
+  /**
+   * The options on the same lattice are grouped: with a lattice which does not depend on the strike, all the strikes with
+   * the same number of steps and expiry.
+   */
+  public void groupByLatticeTest() {
+    final LatticeSpecification lattice = new CoxRossRubinsteinLatticeSpecification();
+    final OptionFunctionProvider1D[] functions = new OptionFunctionProvider1D[] {new AmericanVanillaOptionFunctionProvider(90., TIME, 81, false),
+      new EuropeanVanillaOptionFunctionProvider(100., TIME, 81, true), new AmericanVanillaOptionFunctionProvider(110., TIME, 51, true),
+      new AmericanVanillaOptionFunctionProvider(120., TIME, 81, true), new AmericanVanillaOptionFunctionProvider(100., 2. * TIME, 51, true) };
+    final double[][] params = new double[functions.length][];
+    for (int k = 0; k < functions.length; ++k) {
+      final int nSteps = functions[k].getNumberOfSteps();
+      final double timeToExpiry = functions[k].getTimeToExpiry();
+      params[k] = lattice.getParameters(SPOT, functions[k].getStrike(), timeToExpiry, VOLS[1], INTERESTS[3] - DIVIDENDS[0], nSteps, timeToExpiry / nSteps);
+    }
+    params[1] = null;
+    final List<int[]> groups = TreeOptionPricingModel.groupByLattice(functions, params);
+    assertEquals(groups.size(), 3);
+    assertEquals(groups.get(0), new int[] {0, 3 });
+    assertEquals(groups.get(1), new int[] {2 });
+    assertEquals(groups.get(2), new int[] {4 });
+  }
+
+  /**
+   * The option values written in a buffer are the same as the allocated ones.
+   */
+  public void nextOptionValuesInPlaceTest() {
+    final int steps = 20;
+    final double[] values = new double[2 * steps + 1];
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = Math.max(90. + i - 105., 0.) + 0.1 * i;
+    }
+    final double[] result = new double[2 * steps + 1];
+    final OptionFunctionProvider1D[] functions = new OptionFunctionProvider1D[] {new AmericanVanillaOptionFunctionProvider(105., TIME, steps, false),
+      new AmericanVanillaOptionFunctionProvider(105., TIME, steps, true, VOLS[1], INTERESTS[3], DIVIDENDS[0], 10.), new EuropeanVanillaOptionFunctionProvider(105., TIME, steps, true) };
+    for (final OptionFunctionProvider1D function : functions) {
+      for (int i = steps - 2; i < steps; ++i) {
+        final double[] expected = function.getNextOptionValues(0.99, 0.55, 0.45, values, SPOT, 0.1, 0.98, 1.04, i);
+        function.getNextOptionValues(0.99, 0.55, 0.45, values, SPOT, 0.1, 0.98, 1.04, i, result);
+        for (int j = 0; j < i + 1; ++j) {
+          assertEquals(result[j], expected[j], 0.);
+        }
+      }
+      final double[] expectedTrinomial = function.getNextOptionValues(0.99, 0.3, 0.4, 0.3, values, SPOT, 0.1, 0.98, 1.02, steps - 1);
+      function.getNextOptionValues(0.99, 0.3, 0.4, 0.3, values, SPOT, 0.1, 0.98, 1.02, steps - 1, result);
+      for (int j = 0; j < 2 * steps - 1; ++j) {
+        assertEquals(result[j], expectedTrinomial[j], 0.);
+      }
+    }
+  }
+
   /**
    * 
    */
@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.model.volatility.local;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.financial.model.finitedifference.PDETerminalResults1D;
+import com.opengamma.analytics.financial.model.interestrate.curve.ForwardCurve;
+import com.opengamma.analytics.financial.model.option.pricing.analytic.formula.EuropeanVanillaOption;
+import com.opengamma.analytics.financial.model.volatility.BlackFormulaRepository;
+import com.opengamma.analytics.financial.model.volatility.smile.fitting.interpolation.SmileInterpolatorSpline;
+import com.opengamma.analytics.financial.model.volatility.smile.fitting.sabr.StandardSmileSurfaceDataBundle;
+import com.opengamma.analytics.financial.model.volatility.surface.BlackVolatilitySurfaceMoneyness;
+import com.opengamma.analytics.financial.model.volatility.surface.VolatilitySurfaceInterpolator;
+import com.opengamma.analytics.math.interpolation.DoubleQuadraticInterpolator1D;
+import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
+import com.opengamma.analytics.math.surface.FunctionalDoublesSurface;
+import com.opengamma.analytics.util.ForkJoinTestPool;
+
+/**
+ * Tests the bucketed vega calculators of the local volatility PDE: concurrent and sequential computations, and several
+ * options computed together or one by one, give the same results. The results are also compared to the values of the
+ * one-option calculators computing the bumps one by one, and to a bump and reprice of one node.
+ */
+@Test
+public class LocalVolatilityPDEBucketedVegaCalculatorTest {
+
+  private static final ForwardCurve FORWARD_CURVE = new ForwardCurve(1.0, 0.02);
+  private static final double[] EXPIRIES = new double[] {0.5, 1.0, 2.0 };
+  private static final double[][] STRIKES = new double[][] {
+    {0.80, 0.90, 1.00, 1.10, 1.20 }, {0.75, 0.90, 1.00, 1.10, 1.25 }, {0.70, 0.85, 1.00, 1.15, 1.30 } };
+  private static final double[][] VOLS = new double[][] {
+    {0.28, 0.24, 0.21, 0.20, 0.21 }, {0.27, 0.24, 0.22, 0.21, 0.21 }, {0.26, 0.24, 0.22, 0.21, 0.21 } };
+  private static final StandardSmileSurfaceDataBundle MARKET_DATA = new StandardSmileSurfaceDataBundle(FORWARD_CURVE, EXPIRIES, STRIKES, VOLS);
+  private static final VolatilitySurfaceInterpolator SURFACE_INTERPOLATOR = new VolatilitySurfaceInterpolator(new SmileInterpolatorSpline());
+  private static final double TIME_MIN = 0.25;
+  /**
+   * The Dupire local volatility is not defined at time 0, where the forward PDE starts; it is frozen before a minimal time.
+   */
+  private static final DupireLocalVolatilityCalculator DUPIRE = new DupireLocalVolatilityCalculator() {
+    @Override
+    public LocalVolatilitySurfaceMoneyness getLocalVolatility(final BlackVolatilitySurfaceMoneyness impliedVolatilitySurface) {
+      final LocalVolatilitySurfaceMoneyness lv = super.getLocalVolatility(impliedVolatilitySurface);
+      return new LocalVolatilitySurfaceMoneyness(FunctionalDoublesSurface.from(tm -> lv.getVolatilityForMoneyness(Math.max(tm[0], TIME_MIN), tm[1])),
+          lv.getForwardCurve());
+    }
+  };
+  private static final LocalVolatilitySurfaceMoneyness LOCAL_VOL = DUPIRE.getLocalVolatility(SURFACE_INTERPOLATOR.getVolatilitySurface(MARKET_DATA));
+  private static final LocalVolatilitySurfaceStrike LOCAL_VOL_STRIKE = LocalVolatilitySurfaceConverter.toStrikeSurface(LOCAL_VOL);
+  private static final LocalVolatilityForwardPDECalculator PDE = new LocalVolatilityForwardPDECalculator(0.5, 20, 40, 5.0, 0.05, 1.5, 1.0);
+  private static final DoubleQuadraticInterpolator1D INTERPOLATOR = new DoubleQuadraticInterpolator1D();
+  private static final ForkJoinPool POOL = ForkJoinTestPool.POOL;
+
+  private static final EuropeanVanillaOption[] OPTIONS = new EuropeanVanillaOption[] {
+    new EuropeanVanillaOption(0.95, 1.0, true), new EuropeanVanillaOption(1.08, 1.0, true), new EuropeanVanillaOption(1.00, 1.5, false) };
+  private static final double SHIFT = 1e-4;
+  private static final double TOLERANCE_VEGA = 1.0E-10;
+
+  @Test
+  public void forwardParallel() {
+    final LocalVolatilityForwardPDEBucketedVegaCalculator sequential = new LocalVolatilityForwardPDEBucketedVegaCalculator(PDE, INTERPOLATOR, DUPIRE,
+        SURFACE_INTERPOLATOR);
+    final LocalVolatilityForwardPDEBucketedVegaCalculator parallel = new LocalVolatilityForwardPDEBucketedVegaCalculator(PDE, INTERPOLATOR, DUPIRE,
+        SURFACE_INTERPOLATOR, POOL);
+    final double[][][] expected = new double[OPTIONS.length][][];
+    for (int loopopt = 0; loopopt < OPTIONS.length; loopopt++) {
+      expected[loopopt] = sequential.getResult(LOCAL_VOL, FORWARD_CURVE, OPTIONS[loopopt], MARKET_DATA);
+    }
+    assertEqualsExactly(expected, parallel.getResult(LOCAL_VOL, FORWARD_CURVE, OPTIONS, MARKET_DATA));
+    assertEqualsExactly(expected, sequential.getResult(LOCAL_VOL, FORWARD_CURVE, OPTIONS, MARKET_DATA));
+    // The option is sensitive to the nodes of its smile
+    assertTrue(expected[0][1][2] > 0.0);
+    final double[][][] expectedStrike = new double[OPTIONS.length][][];
+    for (int loopopt = 0; loopopt < OPTIONS.length; loopopt++) {
+      expectedStrike[loopopt] = sequential.getResult(LOCAL_VOL_STRIKE, FORWARD_CURVE, OPTIONS[loopopt], MARKET_DATA);
+    }
+    assertEqualsExactly(expectedStrike, parallel.getResult(LOCAL_VOL_STRIKE, FORWARD_CURVE, OPTIONS, MARKET_DATA));
+  }
+
+  @Test
+  public void backwardParallel() {
+    final EuropeanVanillaOption[] options = new EuropeanVanillaOption[] {new EuropeanVanillaOption(1.0, 1.0, true), new EuropeanVanillaOption(1.0, 1.5, true) };
+    final LocalVolatilityBackwardPDEBucketedVegaCalculator sequential = new LocalVolatilityBackwardPDEBucketedVegaCalculator(PDE, INTERPOLATOR, DUPIRE,
+        SURFACE_INTERPOLATOR);
+    final LocalVolatilityBackwardPDEBucketedVegaCalculator parallel = new LocalVolatilityBackwardPDEBucketedVegaCalculator(PDE, INTERPOLATOR, DUPIRE,
+        SURFACE_INTERPOLATOR, POOL);
+    final double[][][] expected = new double[options.length][][];
+    for (int loopopt = 0; loopopt < options.length; loopopt++) {
+      expected[loopopt] = sequential.getResult(LOCAL_VOL_STRIKE, FORWARD_CURVE, options[loopopt], MARKET_DATA);
+    }
+    assertEqualsExactly(expected, parallel.getResult(LOCAL_VOL_STRIKE, FORWARD_CURVE, options, MARKET_DATA));
+  }
+
+  /**
+   * The values were computed with the one-option calculators which bumped the nodes one by one, before the options were
+   * computed together and the nodes bumped concurrently.
+   */
+  @Test
+  public void forwardPreviousValues() {
+    final LocalVolatilityForwardPDEBucketedVegaCalculator calculator = new LocalVolatilityForwardPDEBucketedVegaCalculator(PDE, INTERPOLATOR, DUPIRE,
+        SURFACE_INTERPOLATOR, POOL);
+    final double[][] expected = new double[][] {
+      {-0.3652508233148444, 0.13315446566491973, 0.14606482415524535, -0.2527434651075633, -0.13001169199527984 },
+      {0.21611644016039655, 0.4554418519150949, 0.3574307498602214, 0.1924155844104658, 0.10730910730311072 },
+      {0.0015565645775095227, 0.02733830661016956, 0.04808185125160236, 0.004830457930593557, 3.1742166534121097E-4 } };
+    assertEqualsMatrix(expected, calculator.getResult(LOCAL_VOL, FORWARD_CURVE, OPTIONS, MARKET_DATA)[0], TOLERANCE_VEGA);
+  }
+
+  /**
+   * The values were computed with the one-option calculator which bumped the nodes one by one.
+   */
+  @Test
+  public void backwardPreviousValues() {
+    final LocalVolatilityBackwardPDEBucketedVegaCalculator calculator = new LocalVolatilityBackwardPDEBucketedVegaCalculator(PDE, INTERPOLATOR, DUPIRE,
+        SURFACE_INTERPOLATOR, POOL);
+    final double[][] expected = new double[][] {
+      {-0.28047631042082966, 0.042055820485553674, 0.1705225421338996, -0.21170157670558076, -0.16423652449304438 },
+      {0.19170144550051393, 0.021037277061486392, 0.7667335680527909, 0.18997922271501988, 0.13508589367605683 },
+      {4.913359913372162E-4, 0.008733386278048094, 0.05337524090487378, 0.018098682208478323, 6.985592204689084E-4 } };
+    assertEqualsMatrix(expected, calculator.getResult(LOCAL_VOL_STRIKE, FORWARD_CURVE, new EuropeanVanillaOption(1.0, 1.0, true), MARKET_DATA), TOLERANCE_VEGA);
+  }
+
+  /**
+   * The sensitivity to one node is the change of the implied volatility at the strike, from the forward PDE solved with the
+   * local volatility of the bumped market data.
+   */
+  @Test
+  public void forwardBumpAndReprice() {
+    final EuropeanVanillaOption option = OPTIONS[0];
+    final int expiryIndex = 1;
+    final int strikeIndex = 2;
+    final double x = option.getStrike() / FORWARD_CURVE.getForward(option.getTimeToExpiry());
+    final PDETerminalResults1D base = PDE.runPDESolver(LOCAL_VOL, option);
+    final LocalVolatilitySurfaceMoneyness bumpedLocalVol = DUPIRE.getLocalVolatility(
+        SURFACE_INTERPOLATOR.getBumpedVolatilitySurface(MARKET_DATA, expiryIndex, strikeIndex, SHIFT));
+    final PDETerminalResults1D bumped = PDE.runPDESolver(bumpedLocalVol, option);
+    final double[] xNodes = base.getGrid().getSpaceNodes();
+    int index = 0;
+    while (xNodes[index + 1] <= x) {
+      index++;
+    }
+    index--; // the four nodes around the strike
+    final double vegaExpected = (impliedVolatility(bumped, index, x, option) - impliedVolatility(base, index, x, option)) / SHIFT;
+    final LocalVolatilityForwardPDEBucketedVegaCalculator calculator = new LocalVolatilityForwardPDEBucketedVegaCalculator(PDE, INTERPOLATOR, DUPIRE,
+        SURFACE_INTERPOLATOR, POOL);
+    assertEquals(vegaExpected, calculator.getResult(LOCAL_VOL, FORWARD_CURVE, OPTIONS, MARKET_DATA)[0][expiryIndex][strikeIndex], TOLERANCE_VEGA);
+  }
+
+  /**
+   * The implied volatility at a moneyness, interpolated between the implied volatilities of the forward PDE results at four
+   * space nodes.
+   */
+  private static double impliedVolatility(final PDETerminalResults1D results, final int index, final double x, final EuropeanVanillaOption option) {
+    final double[] moneyness = new double[4];
+    final double[] vols = new double[4];
+    for (int k = 0; k < 4; k++) {
+      moneyness[k] = results.getSpaceValue(index + k);
+      vols[k] = BlackFormulaRepository.impliedVolatility(results.getFunctionValue(index + k), 1.0, moneyness[k], option.getTimeToExpiry(), option.isCall());
+    }
+    final Interpolator1DDataBundle db = INTERPOLATOR.getDataBundle(moneyness, vols);
+    return INTERPOLATOR.interpolate(db, x);
+  }
+
+  private static void assertEqualsMatrix(final double[][] expected, final double[][] actual, final double tolerance) {
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i].length, actual[i].length);
+      for (int j = 0; j < expected[i].length; j++) {
+        assertEquals(expected[i][j], actual[i][j], tolerance);
+      }
+    }
+  }
+
+  private static void assertEqualsExactly(final double[][][] expected, final double[][][] actual) {
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i].length, actual[i].length);
+      for (int j = 0; j < expected[i].length; j++) {
+        assertEquals(expected[i][j].length, actual[i][j].length);
+        for (int k = 0; k < expected[i][j].length; k++) {
+          assertEquals(expected[i][j][k], actual[i][j][k], 0.0);
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.math.function.Function1D;
+
+/**
+ * Tests the least-squares Monte Carlo regression on synthetic paths.
+ */
+@Test
+public class LongstaffSchwartzRegressionTest {
+
+  private static final int NB_PATH = 1000;
+  private static final long SEED = 20160101L;
+  private static final double TOLERANCE = 1.0E-10;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongDegree() {
+    new LongstaffSchwartzRegression(1, 0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongNumberOfVariables() {
+    LongstaffSchwartzRegression.polynomialBasis(0, 2);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void concatenateDifferentFactors() {
+    final LongstaffSchwartzDataBundle long1 = new LongstaffSchwartzDataBundle(new double[1][1], new double[1][1][1], 1.0);
+    final LongstaffSchwartzDataBundle short1 = new LongstaffSchwartzDataBundle(new double[1][1], new double[1][1][1], -1.0);
+    LongstaffSchwartzDataBundle.concatenate(Arrays.asList(long1, short1));
+  }
+
+  @Test
+  public void polynomialBasis() {
+    final List<Function1D<double[], Double>> basis = LongstaffSchwartzRegression.polynomialBasis(2, 2);
+    assertEquals("Longstaff-Schwartz: polynomial basis", 5, basis.size());
+    final double[] x = new double[] {2.0, 3.0 };
+    final double[] expected = new double[] {3.0, 2.0, 9.0, 6.0, 4.0 };
+    double sumExpected = 0.0;
+    double sum = 0.0;
+    for (int loopbasis = 0; loopbasis < basis.size(); loopbasis++) {
+      sumExpected += expected[loopbasis];
+      sum += basis.get(loopbasis).evaluate(x);
+    }
+    assertEquals("Longstaff-Schwartz: polynomial basis", sumExpected, sum, TOLERANCE);
+    assertEquals("Longstaff-Schwartz: polynomial basis", 3, LongstaffSchwartzRegression.polynomialBasis(3, 1).size());
+  }
+
+  @Test
+  public void concatenate() {
+    final LongstaffSchwartzDataBundle paths = paths(1.0);
+    final int half = NB_PATH / 2;
+    final LongstaffSchwartzDataBundle first = new LongstaffSchwartzDataBundle(Arrays.copyOfRange(paths.getExerciseValue(), 0, half),
+        Arrays.copyOfRange(paths.getRegressionVariable(), 0, half), 1.0);
+    final LongstaffSchwartzDataBundle second = new LongstaffSchwartzDataBundle(Arrays.copyOfRange(paths.getExerciseValue(), half, NB_PATH),
+        Arrays.copyOfRange(paths.getRegressionVariable(), half, NB_PATH), 1.0);
+    final LongstaffSchwartzDataBundle all = LongstaffSchwartzDataBundle.concatenate(Arrays.asList(first, second));
+    assertEquals("Longstaff-Schwartz: concatenate", NB_PATH, all.getNumberOfPaths());
+    for (int looppath = 0; looppath < NB_PATH; looppath++) {
+      assertEquals("Longstaff-Schwartz: concatenate", paths.getExerciseValue()[looppath][0], all.getExerciseValue()[looppath][0]);
+    }
+  }
+
+  /**
+   * With a single decision date, the value is the European value.
+   */
+  @Test
+  public void singleDecision() {
+    final LongstaffSchwartzDataBundle paths = paths(-1.0);
+    final double[][] exercise = new double[NB_PATH][1];
+    final double[][][] variables = new double[NB_PATH][1][];
+    double expected = 0.0;
+    for (int looppath = 0; looppath < NB_PATH; looppath++) {
+      exercise[looppath][0] = paths.getExerciseValue()[looppath][1];
+      variables[looppath][0] = paths.getRegressionVariable()[looppath][1];
+      expected -= Math.max(exercise[looppath][0], 0.0);
+    }
+    final LongstaffSchwartzDataBundle european = new LongstaffSchwartzDataBundle(exercise, variables, -1.0);
+    final LongstaffSchwartzRegression regression = new LongstaffSchwartzRegression(1, 2);
+    final double[][] coefficients = regression.regress(european);
+    assertNull("Longstaff-Schwartz: single decision", coefficients[0]);
+    assertEquals("Longstaff-Schwartz: single decision", expected, regression.price(european, coefficients), TOLERANCE);
+  }
+
+  /**
+   * The exercise value at the first date is above any exercise value at the second date; the option is always exercised first.
+   */
+  @Test
+  public void earlyExercise() {
+    final LongstaffSchwartzDataBundle paths = paths(1.0);
+    final LongstaffSchwartzRegression regression = new LongstaffSchwartzRegression(1, 2);
+    final double[][] coefficients = regression.regress(paths);
+    assertEquals("Longstaff-Schwartz: early exercise", 3, coefficients[0].length);
+    assertNull("Longstaff-Schwartz: early exercise", coefficients[1]);
+    double expected = 0.0;
+    for (int looppath = 0; looppath < NB_PATH; looppath++) {
+      expected += paths.getExerciseValue()[looppath][0];
+    }
+    assertEquals("Longstaff-Schwartz: early exercise", expected, regression.price(paths, coefficients), TOLERANCE);
+  }
+
+  /**
+   * Paths with two decision dates. The regression variable is uniform on [0, 2], the exercise value is 5 plus a tenth of the
+   * variable at the first date and the variable minus 1 at the second date.
+   */
+  private static LongstaffSchwartzDataBundle paths(final double factor) {
+    final Random random = new Random(SEED);
+    final double[][] exercise = new double[NB_PATH][2];
+    final double[][][] variables = new double[NB_PATH][2][1];
+    for (int looppath = 0; looppath < NB_PATH; looppath++) {
+      final double v = 2.0 * random.nextDouble();
+      variables[looppath][0][0] = v;
+      variables[looppath][1][0] = v + random.nextGaussian() * 0.1;
+      exercise[looppath][0] = 5.0 + 0.1 * v;
+      exercise[looppath][1] = variables[looppath][1][0] - 1.0;
+    }
+    return new LongstaffSchwartzDataBundle(exercise, variables, factor);
+  }
+
+}
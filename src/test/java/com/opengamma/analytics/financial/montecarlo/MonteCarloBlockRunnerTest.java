@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.math.random.NormalRandomNumberStreams;
+import com.opengamma.analytics.math.random.RandomNumberGenerator;
+import com.opengamma.analytics.util.ForkJoinTestPool;
+
+/**
+ * Tests the simulation by blocks of paths.
+ */
+@Test
+public class MonteCarloBlockRunnerTest {
+
+  private static final int NB_SIMULATION = 1050;
+  private static final int BLOCK_SIZE = 100;
+  private static final int NB_STEP = 5;
+  private static final long SEED = 20160301L;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongBlockSize() {
+    new MonteCarloBlockRunner(new NormalRandomNumberStreams(SEED), 0, null);
+  }
+
+  @Test
+  public void blocks() {
+    final boolean[] simulated = new boolean[NB_SIMULATION];
+    final MonteCarloStatistics[] stats = new MonteCarloBlockRunner(new NormalRandomNumberStreams(SEED), BLOCK_SIZE, null)
+        .run(NB_SIMULATION, 1, NB_STEP, 1, (nbSimulation, generator, buffers, blockStats, firstSimulation) -> {
+          for (int loopsim = 0; loopsim < nbSimulation; loopsim++) {
+            simulated[firstSimulation + loopsim] = true;
+            blockStats[0].add(1.0, 1);
+          }
+        });
+    assertEquals("Monte Carlo blocks: number of paths", NB_SIMULATION, stats[0].getNumberOfPaths());
+    for (int loopsim = 0; loopsim < NB_SIMULATION; loopsim++) {
+      assertEquals("Monte Carlo blocks: simulation " + loopsim, true, simulated[loopsim]);
+    }
+  }
+
+  @Test
+  public void parallel() {
+    final MonteCarloStatistics[] stats = new MonteCarloBlockRunner(new NormalRandomNumberStreams(SEED), BLOCK_SIZE, null)
+        .run(NB_SIMULATION, 2, NB_STEP, 2, MonteCarloBlockRunnerTest::simulate);
+    final MonteCarloStatistics[] statsParallel = new MonteCarloBlockRunner(new NormalRandomNumberStreams(SEED), BLOCK_SIZE, ForkJoinTestPool.POOL)
+        .run(NB_SIMULATION, 2, NB_STEP, 2, MonteCarloBlockRunnerTest::simulate);
+    for (int loopvar = 0; loopvar < 2; loopvar++) {
+      assertEquals("Monte Carlo blocks: parallel", stats[loopvar].getMean(), statsParallel[loopvar].getMean(), 0.0);
+      assertEquals("Monte Carlo blocks: parallel", stats[loopvar].getStandardError(), statsParallel[loopvar].getStandardError(), 0.0);
+    }
+    assertEquals("Monte Carlo blocks: mean", 0.0, stats[0].getMean(), 3.0 * stats[0].getStandardError());
+    assertEquals("Monte Carlo blocks: mean", NB_STEP, stats[1].getMean(), 3.0 * stats[1].getStandardError());
+  }
+
+  /**
+   * Simulates the sum of the normal variables of a path and its square.
+   */
+  private static void simulate(final int nbSimulation, final RandomNumberGenerator generator, final MonteCarloBlockRunner.PathBuffers buffers,
+      final MonteCarloStatistics[] stats, final int firstSimulation) {
+    final double[] z = buffers.getNormals();
+    final double[] values = buffers.getValues();
+    for (int loopsim = 0; loopsim < nbSimulation; loopsim++) {
+      generator.fill(z, 0, NB_STEP);
+      double sum = 0.0;
+      for (int loopstep = 0; loopstep < NB_STEP; loopstep++) {
+        sum += z[loopstep];
+      }
+      values[0] = sum;
+      values[1] = sum * sum;
+      for (int loopvar = 0; loopvar < 2; loopvar++) {
+        stats[loopvar].add(values[loopvar], 1);
+      }
+    }
+  }
+
+}
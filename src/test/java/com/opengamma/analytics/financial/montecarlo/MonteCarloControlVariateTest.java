@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the control variate estimator.
+ */
+@Test
+public class MonteCarloControlVariateTest {
+
+  private static final double[] CONTROLS = new double[] {1.0, 1.5, 0.5, 2.0, 1.2 };
+  private static final double[] WEIGHTS = new double[] {1000, 1000, 1000, 1000, 500 };
+  private static final double TOLERANCE = 1.0E-12;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void oneSample() {
+    MonteCarloControlVariate.estimate(new double[] {1.0 }, new double[] {1.0 }, new double[] {1.0 }, 1.0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongLength() {
+    MonteCarloControlVariate.estimate(new double[] {1.0, 2.0 }, CONTROLS, WEIGHTS, 1.0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void negativeWeight() {
+    MonteCarloControlVariate.estimate(CONTROLS, CONTROLS, new double[] {1.0, 1.0, 1.0, 1.0, -1.0 }, 1.0);
+  }
+
+  /**
+   * When the values are an affine function of the controls, the estimate is exact.
+   */
+  @Test
+  public void affine() {
+    final double[] values = new double[CONTROLS.length];
+    for (int loops = 0; loops < CONTROLS.length; loops++) {
+      values[loops] = 3.0 - 2.0 * CONTROLS[loops];
+    }
+    assertEquals("Control variate: affine", 3.0 - 2.0 * 1.1, MonteCarloControlVariate.estimate(values, CONTROLS, WEIGHTS, 1.1), TOLERANCE);
+  }
+
+  /**
+   * When the controls are constant, the estimate is the weighted mean of the values.
+   */
+  @Test
+  public void constantControl() {
+    final double[] controls = new double[] {2.0, 2.0, 2.0, 2.0, 2.0 };
+    double expected = 0.0;
+    double weightTotal = 0.0;
+    for (int loops = 0; loops < CONTROLS.length; loops++) {
+      expected += WEIGHTS[loops] * CONTROLS[loops];
+      weightTotal += WEIGHTS[loops];
+    }
+    assertEquals("Control variate: constant", expected / weightTotal, MonteCarloControlVariate.estimate(CONTROLS, controls, WEIGHTS, 1.0), TOLERANCE);
+  }
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.time.Duration;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the stopping criteria of a Monte Carlo computation.
+ */
+@Test
+public class MonteCarloConvergenceTest {
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void negativeError() {
+    new MonteCarloConvergence(-1.0, 0.0, null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongBatchSize() {
+    new MonteCarloConvergence(1.0, 0.0, null, 0);
+  }
+
+  @Test
+  public void allPaths() {
+    assertFalse("Monte Carlo convergence: all paths", MonteCarloConvergence.ALL_PATHS.isReached(100.0, 0.0, Duration.ofDays(1)));
+    assertEquals("Monte Carlo convergence: batch", MonteCarloConvergence.DEFAULT_BATCH_SIZE, new MonteCarloConvergence(1.0, 0.0, null).getBatchSize());
+  }
+
+  @Test
+  public void criteria() {
+    final MonteCarloConvergence absolute = new MonteCarloConvergence(1.0, 0.0, null);
+    assertTrue("Monte Carlo convergence: absolute", absolute.isReached(100.0, 0.5, Duration.ZERO));
+    assertFalse("Monte Carlo convergence: absolute", absolute.isReached(100.0, 1.5, Duration.ofDays(1)));
+    assertFalse("Monte Carlo convergence: absolute", absolute.isReached(100.0, Double.NaN, Duration.ZERO));
+    final MonteCarloConvergence relative = new MonteCarloConvergence(0.0, 0.01, null);
+    assertTrue("Monte Carlo convergence: relative", relative.isReached(-100.0, 0.5, Duration.ZERO));
+    assertFalse("Monte Carlo convergence: relative", relative.isReached(-100.0, 1.5, Duration.ZERO));
+    final MonteCarloConvergence time = new MonteCarloConvergence(0.0, 0.0, Duration.ofSeconds(1));
+    assertFalse("Monte Carlo convergence: time", time.isReached(100.0, 0.0, Duration.ofMillis(999)));
+    assertTrue("Monte Carlo convergence: time", time.isReached(100.0, Double.NaN, Duration.ofSeconds(1)));
+  }
+
+}
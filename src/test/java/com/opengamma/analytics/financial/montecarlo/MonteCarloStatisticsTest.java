@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the running statistics of a Monte Carlo estimate by blocks.
+ */
+@Test
+public class MonteCarloStatisticsTest {
+
+  private static final double[] BLOCK_SUM = new double[] {1050.0, 980.0, 1010.0, 995.0, 530.0 };
+  private static final int[] BLOCK_SIZE = new int[] {1000, 1000, 1000, 1000, 500 };
+  private static final double TOLERANCE = 1.0E-12;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongNumberOfPaths() {
+    new MonteCarloStatistics().add(1.0, 0);
+  }
+
+  @Test
+  public void oneBlock() {
+    final MonteCarloStatistics statistics = new MonteCarloStatistics();
+    statistics.add(BLOCK_SUM[0], BLOCK_SIZE[0]);
+    assertEquals("Monte Carlo statistics: mean", BLOCK_SUM[0] / BLOCK_SIZE[0], statistics.getMean(), TOLERANCE);
+    assertTrue("Monte Carlo statistics: standard error", Double.isNaN(statistics.getStandardError()));
+    assertTrue("Monte Carlo statistics: mean", Double.isNaN(new MonteCarloStatistics().getMean()));
+  }
+
+  @Test
+  public void meanStandardError() {
+    final MonteCarloStatistics statistics = new MonteCarloStatistics();
+    double sum = 0.0;
+    long nbPath = 0;
+    for (int loopblock = 0; loopblock < BLOCK_SUM.length; loopblock++) {
+      statistics.add(BLOCK_SUM[loopblock], BLOCK_SIZE[loopblock]);
+      sum += BLOCK_SUM[loopblock];
+      nbPath += BLOCK_SIZE[loopblock];
+    }
+    final double mean = sum / nbPath;
+    double m2 = 0.0;
+    for (int loopblock = 0; loopblock < BLOCK_SUM.length; loopblock++) {
+      final double blockMean = BLOCK_SUM[loopblock] / BLOCK_SIZE[loopblock];
+      m2 += BLOCK_SIZE[loopblock] * (blockMean - mean) * (blockMean - mean);
+    }
+    assertEquals("Monte Carlo statistics: blocks", BLOCK_SUM.length, statistics.getNumberOfBlocks());
+    assertEquals("Monte Carlo statistics: paths", nbPath, statistics.getNumberOfPaths());
+    assertEquals("Monte Carlo statistics: mean", mean, statistics.getMean(), TOLERANCE);
+    assertEquals("Monte Carlo statistics: standard error", Math.sqrt(m2 / (BLOCK_SUM.length - 1) / nbPath), statistics.getStandardError(), TOLERANCE);
+  }
+
+  @Test
+  public void merge() {
+    final MonteCarloStatistics all = new MonteCarloStatistics();
+    final MonteCarloStatistics first = new MonteCarloStatistics();
+    final MonteCarloStatistics second = new MonteCarloStatistics();
+    for (int loopblock = 0; loopblock < BLOCK_SUM.length; loopblock++) {
+      all.add(BLOCK_SUM[loopblock], BLOCK_SIZE[loopblock]);
+      (loopblock < 2 ? first : second).add(BLOCK_SUM[loopblock], BLOCK_SIZE[loopblock]);
+    }
+    first.merge(second);
+    first.merge(new MonteCarloStatistics());
+    assertEquals("Monte Carlo statistics: merge", all.getNumberOfBlocks(), first.getNumberOfBlocks());
+    assertEquals("Monte Carlo statistics: merge", all.getNumberOfPaths(), first.getNumberOfPaths());
+    assertEquals("Monte Carlo statistics: merge", all.getMean(), first.getMean(), TOLERANCE);
+    assertEquals("Monte Carlo statistics: merge", all.getStandardError(), first.getStandardError(), TOLERANCE);
+  }
+
+}
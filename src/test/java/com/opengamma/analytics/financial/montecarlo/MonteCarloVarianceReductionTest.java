@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.montecarlo;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
+
+import org.testng.annotations.Test;
+
+import cern.jet.random.engine.MersenneTwister;
+
+import com.opengamma.analytics.math.random.NormalRandomNumberGenerator;
+
+/**
+ * Tests the variance reduction of the normal variables of a block of paths.
+ */
+@Test
+public class MonteCarloVarianceReductionTest {
+
+  private static final int NB_VARIABLE = 3;
+  private static final int NB_PATH = 101;
+  private static final double TOLERANCE = 1.0E-12;
+
+  @Test
+  public void numberOfDraws() {
+    assertEquals("Variance reduction: draws", NB_PATH, MonteCarloVarianceReduction.NONE.getNumberOfDraws(NB_PATH));
+    assertEquals("Variance reduction: draws", 51, new MonteCarloVarianceReduction(true, false).getNumberOfDraws(NB_PATH));
+    assertEquals("Variance reduction: draws", 50, new MonteCarloVarianceReduction(true, true).getNumberOfDraws(100));
+    assertEquals("Variance reduction: draws", NB_PATH, new MonteCarloVarianceReduction(false, true).getNumberOfDraws(NB_PATH));
+  }
+
+  @Test
+  public void none() {
+    final double[][] variables = variables(NB_PATH);
+    final double[][] expected = variables(NB_PATH);
+    MonteCarloVarianceReduction.NONE.apply(variables, NB_VARIABLE, NB_PATH);
+    for (int loopvar = 0; loopvar < NB_VARIABLE; loopvar++) {
+      assertArrayEquals("Variance reduction: none", expected[loopvar], variables[loopvar], 0.0);
+    }
+  }
+
+  @Test
+  public void antithetic() {
+    final MonteCarloVarianceReduction antithetic = new MonteCarloVarianceReduction(true, false);
+    final int nbDraw = antithetic.getNumberOfDraws(NB_PATH);
+    final double[][] variables = variables(nbDraw);
+    final double[][] full = new double[NB_VARIABLE][NB_PATH];
+    for (int loopvar = 0; loopvar < NB_VARIABLE; loopvar++) {
+      System.arraycopy(variables[loopvar], 0, full[loopvar], 0, nbDraw);
+    }
+    antithetic.apply(full, NB_VARIABLE, NB_PATH);
+    for (int loopvar = 0; loopvar < NB_VARIABLE; loopvar++) {
+      for (int looppath = 0; looppath < nbDraw; looppath++) {
+        assertEquals("Variance reduction: antithetic", variables[loopvar][looppath], full[loopvar][looppath]);
+      }
+      for (int looppath = nbDraw; looppath < NB_PATH; looppath++) {
+        assertEquals("Variance reduction: antithetic", -full[loopvar][looppath - nbDraw], full[loopvar][looppath]);
+      }
+    }
+  }
+
+  @Test
+  public void momentMatching() {
+    final double[][] variables = variables(NB_PATH);
+    new MonteCarloVarianceReduction(true, true).apply(variables, NB_VARIABLE, NB_PATH);
+    for (int loopvar = 0; loopvar < NB_VARIABLE; loopvar++) {
+      double mean = 0.0;
+      double secondMoment = 0.0;
+      for (int looppath = 0; looppath < NB_PATH; looppath++) {
+        mean += variables[loopvar][looppath];
+        secondMoment += variables[loopvar][looppath] * variables[loopvar][looppath];
+      }
+      assertEquals("Variance reduction: moment matching", 0.0, mean / NB_PATH, TOLERANCE);
+      assertEquals("Variance reduction: moment matching", 1.0, secondMoment / NB_PATH, TOLERANCE);
+    }
+  }
+
+  @Test
+  public void equalHash() {
+    final MonteCarloVarianceReduction reduction = new MonteCarloVarianceReduction(true, false);
+    assertTrue("Variance reduction: equal", reduction.equals(new MonteCarloVarianceReduction(true, false)));
+    assertEquals("Variance reduction: hash", reduction.hashCode(), new MonteCarloVarianceReduction(true, false).hashCode());
+    assertFalse("Variance reduction: equal", reduction.equals(MonteCarloVarianceReduction.NONE));
+    assertFalse("Variance reduction: equal", reduction.equals(new MonteCarloVarianceReduction(true, true)));
+  }
+
+  private static double[][] variables(final int nbPath) {
+    final double[][] variables = new double[NB_VARIABLE][NB_PATH];
+    new NormalRandomNumberGenerator(0.0, 1.0, new MersenneTwister()).fill(variables, nbPath);
+    return variables;
+  }
+
+}
@@ -5,6 +5,7 @@
  */
 package com.opengamma.analytics.financial.provider.calculator.discounting;
 
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertTrue;
 
@@ -12,6 +13,7 @@ import java.time.Period;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.testng.annotations.Test;
 
@@ -35,6 +37,7 @@ import com.opengamma.analytics.financial.schedule.ScheduleCalculator;
 import com.opengamma.analytics.math.curve.InterpolatedDoublesCurve;
 import com.opengamma.analytics.math.matrix.DoubleMatrix2D;
 import com.opengamma.analytics.tutorial.datasets.AnalysisMarketDataJPYSets;
+import com.opengamma.analytics.util.ForkJoinTestPool;
 import com.opengamma.analytics.util.time.DateUtils;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.date.HolidayCalendar;
@@ -81,6 +84,10 @@ public class CrossGammaMultiCurveCalculatorTest {
   private static final double TOLERANCE_PV_GAMMA_RELATIF = 6.0E-4;
   /** Default size of bump: 1 basis point. */
   private static final double BP1 = 1.0E-4;
+  /** Concurrent and central difference calculators. */
+  private static final ForkJoinPool POOL = ForkJoinTestPool.POOL;
+  private static final CrossGammaMultiCurveCalculator CGC_PARALLEL = new CrossGammaMultiCurveCalculator(BP1, PVCSDC, false, POOL);
+  private static final CrossGammaMultiCurveCalculator CGC_CENTRAL = new CrossGammaMultiCurveCalculator(BP1, PVCSDC, true, POOL);
   /** Default size of bump: 1 basis point. */
   private static final DoubleMatrix2D GAMMA_CROSS_CURVES = CGC.calculateCrossGammaCrossCurve(SWAP_FIXED_IBOR, MULTICURVE);
 
@@ -144,8 +151,40 @@ public class CrossGammaMultiCurveCalculatorTest {
     crossGammaIntraCurve(swap);
   }
 
+  @Test
+  public void crossGammaIntraCurveCentral() {
+    crossGammaIntraCurve(SWAP_FIXED_IBOR_DEFINITION.toDerivative(CALIBRATION_DATE), CGC_CENTRAL);
+    crossGammaIntraCurve(SWAP_IBOR_IBOR_DEFINITION.toDerivative(CALIBRATION_DATE), CGC_CENTRAL);
+  }
+
+  /**
+   * Tests that the bumps computed concurrently give exactly the same gamma as the sequential computation.
+   */
+  @Test
+  public void parallel() {
+    assertEquals("CrossGammaMultiCurveCalculator - parallel", GAMMA_CROSS_CURVES, CGC_PARALLEL.calculateCrossGammaCrossCurve(SWAP_FIXED_IBOR, MULTICURVE));
+    final Swap<Coupon, Coupon> swap = SWAP_IBOR_IBOR_DEFINITION.toDerivative(CALIBRATION_DATE);
+    assertEquals("CrossGammaMultiCurveCalculator - parallel", CGC.calculateCrossGammaIntraCurve(swap, MULTICURVE),
+        CGC_PARALLEL.calculateCrossGammaIntraCurve(swap, MULTICURVE));
+    // The central difference cross-curve gamma is symmetrical up to the finite difference error
+    final DoubleMatrix2D gammaCentral = CGC_CENTRAL.calculateCrossGammaCrossCurve(SWAP_FIXED_IBOR, MULTICURVE);
+    final int nbNode = gammaCentral.getNumberOfRows();
+    for (int i = 0; i < nbNode; i++) {
+      for (int j = 0; j < nbNode; j++) {
+        final double gij = gammaCentral.getEntry(i, j);
+        final double gji = gammaCentral.getEntry(j, i);
+        assertTrue("CrossGammaMultiCurveCalculator - central - " + i + " - " + j + " / " + gij + " - " + gji,
+            (Math.abs(gij / gji - 1) < TOLERANCE_PV_GAMMA_RELATIF) || (Math.abs(gij - gji) < TOLERANCE_PV_GAMMA));
+      }
+    }
+  }
+
   private void crossGammaIntraCurve(Swap<?, ?> swap) {
-    HashMap<String, DoubleMatrix2D> gammaMap = CGC.calculateCrossGammaIntraCurve(swap, MULTICURVE);
+    crossGammaIntraCurve(swap, CGC);
+  }
+
+  private void crossGammaIntraCurve(Swap<?, ?> swap, CrossGammaMultiCurveCalculator cgc) {
+    HashMap<String, DoubleMatrix2D> gammaMap = cgc.calculateCrossGammaIntraCurve(swap, MULTICURVE);
     Set<String> names = MULTICURVE.getAllNames();
     for (String name : names) { // Start curves 
       Set<Currency> ccys = MULTICURVE.getCurrencies();
@@ -173,14 +212,14 @@ public class CrossGammaMultiCurveCalculatorTest {
                   new InterpolatedDoublesCurve(x, yieldBumpedPP, interpolatedCurve.getInterpolator(), true));
               MulticurveProviderDiscount providerBumped = new MulticurveProviderDiscount();
               for (Currency loopccy : MULTICURVE.getCurrencies()) {
-                if (loopccy.equals(MULTICURVE.getCurrencyForName(name))) {
+                if (MULTICURVE.getCurrencyForName(name).contains(loopccy)) {
                   providerBumped.setCurve(loopccy, curveBumped);
                 } else {
                   providerBumped.setCurve(loopccy, MULTICURVE.getCurve(loopccy));
                 }
               }
               for (IborIndex loopibor : MULTICURVE.getIndexesIbor()) {
-                if (loopibor.equals(MULTICURVE.getIborIndexForName(name))) {
+                if (MULTICURVE.getIborIndexForName(name).contains(loopibor)) {
                   providerBumped.setCurve(loopibor, curveBumped);
                 } else {
                   providerBumped.setCurve(loopibor, MULTICURVE.getCurve(loopibor));
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.calculator.generic;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIbor;
+import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedIborMaster;
+import com.opengamma.analytics.financial.instrument.swap.SwapFixedIborDefinition;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivativeVisitorAdapter;
+import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueCurveSensitivityDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.description.MulticurveProviderDiscountDataSets;
+import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
+import com.opengamma.analytics.financial.provider.description.interestrate.ParameterProviderInterface;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
+import com.opengamma.analytics.financial.util.AssertSensitivityObjects;
+import com.opengamma.analytics.util.ForkJoinTestPool;
+import com.opengamma.analytics.util.time.DateUtils;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+
+/**
+ * Tests the portfolio calculator, sequential and on a pool.
+ */
+@Test
+public class PortfolioCalculatorTest {
+
+  private static final MulticurveProviderDiscount MULTICURVES = MulticurveProviderDiscountDataSets.createMulticurveEurUsd();
+  private static final HolidayCalendar NYC = MulticurveProviderDiscountDataSets.getUSDCalendar();
+  private static final GeneratorSwapFixedIbor USD6MLIBOR3M = GeneratorSwapFixedIborMaster.getInstance().getGenerator("USD6MLIBOR3M", NYC);
+  private static final ZonedDateTime REFERENCE_DATE = DateUtils.getUTCDate(2011, 5, 17);
+  private static final int NB_SWAPS = 150;
+  private static final InstrumentDerivative[] PORTFOLIO = new InstrumentDerivative[NB_SWAPS];
+  static {
+    for (int loopswap = 0; loopswap < NB_SWAPS; loopswap++) {
+      final ZonedDateTime settlementDate = REFERENCE_DATE.plusMonths(1 + loopswap % 12);
+      final Period tenor = Period.ofYears(1 + loopswap % 10);
+      PORTFOLIO[loopswap] = SwapFixedIborDefinition.from(settlementDate, tenor, USD6MLIBOR3M, 1000000.0 * (1 + loopswap % 7),
+          0.01 + 0.0001 * loopswap, loopswap % 2 == 0).toDerivative(REFERENCE_DATE);
+    }
+  }
+
+  private static final PresentValueDiscountingCalculator PVDC = PresentValueDiscountingCalculator.getInstance();
+  private static final PresentValueCurveSensitivityDiscountingCalculator PVCSDC = PresentValueCurveSensitivityDiscountingCalculator.getInstance();
+  private static final ForkJoinPool POOL = ForkJoinTestPool.POOL;
+  private static final PortfolioCalculator<ParameterProviderInterface, MultiCurrencyAmount> PV_SEQUENTIAL =
+      new PortfolioCalculator<>(PVDC, MultiCurrencyAmount::plus, 16, null);
+  private static final PortfolioCalculator<ParameterProviderInterface, MultiCurrencyAmount> PV_PARALLEL =
+      new PortfolioCalculator<>(PVDC, MultiCurrencyAmount::plus, 16, POOL);
+
+  private static final double TOLERANCE_PV = 1.0E-6;
+  private static final double TOLERANCE_PV_DELTA = 1.0E-4;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void nullCalculator() {
+    new PortfolioCalculator<ParameterProviderInterface, MultiCurrencyAmount>(null, MultiCurrencyAmount::plus);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongChunkSize() {
+    new PortfolioCalculator<>(PVDC, MultiCurrencyAmount::plus, 0, null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void emptyPortfolio() {
+    PV_SEQUENTIAL.aggregate(new InstrumentDerivative[0], MULTICURVES);
+  }
+
+  @Test
+  public void presentValue() {
+    final PortfolioResult<MultiCurrencyAmount> result = PV_SEQUENTIAL.calculate(PORTFOLIO, MULTICURVES);
+    assertEquals("PortfolioCalculator: instrument results", NB_SWAPS, result.getInstrumentResults().size());
+    double pvExpected = 0.0;
+    for (int loopswap = 0; loopswap < NB_SWAPS; loopswap++) {
+      final MultiCurrencyAmount pv = PORTFOLIO[loopswap].accept(PVDC, MULTICURVES);
+      assertEquals("PortfolioCalculator: instrument results", pv, result.getInstrumentResults().get(loopswap));
+      pvExpected += pv.getAmount(Currency.USD).getAmount();
+    }
+    assertEquals("PortfolioCalculator: aggregate", pvExpected, result.getAggregate().getAmount(Currency.USD).getAmount(), TOLERANCE_PV);
+    assertEquals("PortfolioCalculator: aggregate", result.getAggregate(), PV_SEQUENTIAL.aggregate(PORTFOLIO, MULTICURVES));
+  }
+
+  @Test
+  public void parallel() {
+    final PortfolioResult<MultiCurrencyAmount> sequential = PV_SEQUENTIAL.calculate(PORTFOLIO, MULTICURVES);
+    final PortfolioResult<MultiCurrencyAmount> parallel = PV_PARALLEL.calculate(PORTFOLIO, MULTICURVES);
+    assertEquals("PortfolioCalculator: parallel", sequential.getInstrumentResults(), parallel.getInstrumentResults());
+    assertEquals("PortfolioCalculator: parallel", sequential.getAggregate(), parallel.getAggregate());
+    assertEquals("PortfolioCalculator: parallel", sequential.getAggregate(), PV_PARALLEL.aggregate(PORTFOLIO, MULTICURVES));
+  }
+
+  @Test
+  public void curveSensitivity() {
+    final PortfolioCalculator<ParameterProviderInterface, MultipleCurrencyMulticurveSensitivity> calculator =
+        new PortfolioCalculator<>(PVCSDC, MultipleCurrencyMulticurveSensitivity::plus, POOL);
+    MultipleCurrencyMulticurveSensitivity expected = new MultipleCurrencyMulticurveSensitivity();
+    for (final InstrumentDerivative swap : PORTFOLIO) {
+      expected = expected.plus(swap.accept(PVCSDC, MULTICURVES));
+    }
+    AssertSensitivityObjects.assertEquals("PortfolioCalculator: curve sensitivity", expected.cleaned(),
+        calculator.aggregate(PORTFOLIO, MULTICURVES).cleaned(), TOLERANCE_PV_DELTA);
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void exceptionPropagated() {
+    final InstrumentDerivativeVisitorAdapter<ParameterProviderInterface, MultiCurrencyAmount> unsupported =
+        new InstrumentDerivativeVisitorAdapter<ParameterProviderInterface, MultiCurrencyAmount>() { };
+    final PortfolioCalculator<ParameterProviderInterface, MultiCurrencyAmount> calculator =
+        new PortfolioCalculator<>(unsupported, MultiCurrencyAmount::plus, 16, POOL);
+    calculator.aggregate(PORTFOLIO, MULTICURVES);
+  }
+
+}
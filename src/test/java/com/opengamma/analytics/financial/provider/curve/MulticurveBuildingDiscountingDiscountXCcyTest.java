@@ -9,6 +9,7 @@ import static com.opengamma.strata.basics.currency.Currency.EUR;
 import static com.opengamma.strata.basics.currency.Currency.JPY;
 import static com.opengamma.strata.basics.currency.Currency.USD;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -55,6 +56,7 @@ import com.opengamma.analytics.financial.provider.description.interestrate.Multi
 import com.opengamma.analytics.math.interpolation.CombinedInterpolatorExtrapolatorFactory;
 import com.opengamma.analytics.math.interpolation.Interpolator1D;
 import com.opengamma.analytics.math.interpolation.Interpolator1DFactory;
+import com.opengamma.analytics.util.ForkJoinTestPool;
 import com.opengamma.analytics.util.time.DateUtils;
 import com.opengamma.analytics.util.timeseries.zdt.ImmutableZonedDateTimeDoubleTimeSeries;
 import com.opengamma.analytics.util.timeseries.zdt.ZonedDateTimeDoubleTimeSeries;
@@ -313,6 +315,25 @@ public class MulticurveBuildingDiscountingDiscountXCcyTest {
     }
   }
 
+  /** Market values for the dsc EUR curve. Depo ON / OIS. 13 nodes */
+  private static final double[] DSC_EUR_OIS_MARKET_QUOTES = new double[] {0.0005, 0.0005, 0.0008, 0.0008, 0.0010, 0.0012, 0.0015, 0.0018, 0.0025, 0.0035, 0.0045, 0.0055, 0.0100 };
+  /** Generators for the dsc EUR curve */
+  private static final GeneratorInstrument<? extends GeneratorAttribute>[] DSC_EUR_OIS_GENERATORS =
+      CurveCalibrationConventionDataSets.generatorEurOnOis(2, 11);
+  /** Tenors for the dsc EUR curve */
+  private static final Period[] DSC_EUR_OIS_TENOR = new Period[] {Period.ofDays(0), Period.ofDays(1),
+    Period.ofMonths(1), Period.ofMonths(2), Period.ofMonths(3), Period.ofMonths(6), Period.ofMonths(9),
+    Period.ofYears(1), Period.ofYears(2), Period.ofYears(3), Period.ofYears(4), Period.ofYears(5), Period.ofYears(10) };
+  private static final GeneratorAttributeIR[] DSC_EUR_OIS_ATTR = new GeneratorAttributeIR[DSC_EUR_OIS_TENOR.length];
+  static {
+    for (int loopins = 0; loopins < 2; loopins++) {
+      DSC_EUR_OIS_ATTR[loopins] = new GeneratorAttributeIR(DSC_EUR_OIS_TENOR[loopins], Period.ZERO);
+    }
+    for (int loopins = 2; loopins < DSC_EUR_OIS_TENOR.length; loopins++) {
+      DSC_EUR_OIS_ATTR[loopins] = new GeneratorAttributeIR(DSC_EUR_OIS_TENOR[loopins]);
+    }
+  }
+
   /** Market values for the Fwd 3M JPY curve. 8 nodes */
   private static final double[] FWD3_JPY_MARKET_QUOTES = new double[] {0.0020, 0.0010, 0.0010, 0.0010, 0.0010, 0.0015, 0.0015, 0.0015 };
   /** Generators for the Fwd 3M JPY curve */
@@ -362,6 +383,8 @@ public class MulticurveBuildingDiscountingDiscountXCcyTest {
   private static final InstrumentDefinition<?>[] DEFINITIONS_DSC_EUR_3;
   /** Standard EUR Forward 3M curve instrument definitions */
   private static final InstrumentDefinition<?>[] DEFINITIONS_FWD3_EUR_3;
+  /** EUR discounting curve on OIS instrument definitions */
+  private static final InstrumentDefinition<?>[] DEFINITIONS_DSC_EUR_OIS;
   /** Standard JPY discounting curve instrument definitions */
   private static final InstrumentDefinition<?>[] DEFINITIONS_DSC_JPY;
   /** Standard JPY Forward 3M curve instrument definitions */
@@ -391,6 +414,7 @@ public class MulticurveBuildingDiscountingDiscountXCcyTest {
     DEFINITIONS_FWD3_EUR_2 = getDefinitions(FWD3_EUR_MARKET_QUOTES_2, FWD3_EUR_GENERATORS_2, FWD3_EUR_ATTR_2);
     DEFINITIONS_DSC_EUR_3 = getDefinitions(DSC_EUR_MARKET_QUOTES_3, DSC_EUR_GENERATORS_3, DSC_EUR_ATTR_3);
     DEFINITIONS_FWD3_EUR_3 = getDefinitions(FWD3_EUR_MARKET_QUOTES_3, FWD3_EUR_GENERATORS_3, FWD3_EUR_ATTR_3);
+    DEFINITIONS_DSC_EUR_OIS = getDefinitions(DSC_EUR_OIS_MARKET_QUOTES, DSC_EUR_OIS_GENERATORS, DSC_EUR_OIS_ATTR);
     DEFINITIONS_DSC_JPY = getDefinitions(DSC_JPY_MARKET_QUOTES, DSC_JPY_GENERATORS, DSC_JPY_ATTR);
     DEFINITIONS_FWD3_JPY = getDefinitions(FWD3_JPY_MARKET_QUOTES, FWD3_JPY_GENERATORS, FWD3_JPY_ATTR);
     DEFINITIONS_FWD6_JPY = getDefinitions(FWD6_JPY_MARKET_QUOTES, FWD6_JPY_GENERATORS, FWD6_JPY_ATTR);
@@ -524,6 +548,158 @@ public class MulticurveBuildingDiscountingDiscountXCcyTest {
     }
   } //TODO: test parSpreadMarketQuote
 
+  /** Units of curves for the calibration by dependency: USD and EUR are independent */
+  private static final InstrumentDefinition<?>[][][] DEFINITIONS_UNITS_INDEPENDENT = new InstrumentDefinition<?>[][][] {
+    {DEFINITIONS_DSC_USD }, {DEFINITIONS_DSC_EUR_OIS }, {DEFINITIONS_FWD3_USD }, {DEFINITIONS_FWD3_EUR } };
+  private static final GeneratorYDCurve[][] GENERATORS_UNITS_INDEPENDENT;
+  private static final String[][] NAMES_UNITS_INDEPENDENT = new String[][] {
+    {CURVE_NAME_DSC_USD }, {CURVE_NAME_DSC_EUR }, {CURVE_NAME_FWD3_USD }, {CURVE_NAME_FWD3_EUR } };
+  private static final LinkedHashMap<String, IndexON[]> FWD_ON_MAP_INDEPENDENT = new LinkedHashMap<>();
+  static {
+    final GeneratorYDCurve genIntLin = new GeneratorCurveYieldInterpolated(MATURITY_CALCULATOR, INTERPOLATOR_LINEAR);
+    GENERATORS_UNITS_INDEPENDENT = new GeneratorYDCurve[][] {{genIntLin }, {genIntLin }, {genIntLin }, {genIntLin } };
+    FWD_ON_MAP_INDEPENDENT.put(CURVE_NAME_DSC_USD, new IndexON[] {INDEX_ON_USD });
+    FWD_ON_MAP_INDEPENDENT.put(CURVE_NAME_DSC_EUR, new IndexON[] {INDEX_ON_EUR });
+  }
+
+  /**
+   * Tests that the calibration of the independent units in parallel gives the same curves and the same
+   * transition matrices as the sequential calibration.
+   */
+  @Test
+  public void curveConstructionByDependency() {
+    final MulticurveDiscountBuildingRepository repositoryParallel =
+        new MulticurveDiscountBuildingRepository(TOLERANCE_ROOT, TOLERANCE_ROOT, STEP_MAX, ForkJoinTestPool.POOL);
+    for (int loopblock = 0; loopblock < NB_BLOCKS; loopblock++) {
+      final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> parallel =
+          CurveCalibrationTestsUtils.makeCurvesFromDefinitionsMulticurve(CALIBRATION_DATE,
+              DEFINITIONS_UNITS[loopblock], GENERATORS_UNITS[loopblock], NAMES_UNITS[loopblock],
+              MULTICURVE_KNOWN_DATA, PSMQDC, PSMQCSDC, false, DSC_MAP, FWD_ON_MAP, FWD_IBOR_MAP, repositoryParallel,
+              TS_FIXED_OIS_USD_WITH_TODAY, TS_FIXED_OIS_USD_WITHOUT_TODAY,
+              TS_FIXED_IBOR_EUR3M_WITH_TODAY, TS_FIXED_IBOR_EUR3M_WITHOUT_TODAY);
+      assertEquals("Parallel calibration: block " + loopblock, CURVES_PAR_SPREAD_MQ_WITHOUT_TODAY_BLOCK.get(loopblock).getFirst(), parallel.getFirst());
+      assertEquals("Parallel calibration: block " + loopblock, CURVES_PAR_SPREAD_MQ_WITHOUT_TODAY_BLOCK.get(loopblock).getSecond(), parallel.getSecond());
+    }
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> sequential =
+        CurveCalibrationTestsUtils.makeCurvesFromDefinitionsMulticurve(CALIBRATION_DATE,
+            DEFINITIONS_UNITS_INDEPENDENT, GENERATORS_UNITS_INDEPENDENT, NAMES_UNITS_INDEPENDENT,
+            MULTICURVE_KNOWN_DATA, PSMQDC, PSMQCSDC, false, DSC_MAP, FWD_ON_MAP_INDEPENDENT, FWD_IBOR_MAP, CURVE_BUILDING_REPOSITORY,
+            TS_FIXED_OIS_USD_WITH_TODAY, TS_FIXED_OIS_USD_WITHOUT_TODAY,
+            TS_FIXED_IBOR_EUR3M_WITH_TODAY, TS_FIXED_IBOR_EUR3M_WITHOUT_TODAY);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> parallel =
+        CurveCalibrationTestsUtils.makeCurvesFromDefinitionsMulticurve(CALIBRATION_DATE,
+            DEFINITIONS_UNITS_INDEPENDENT, GENERATORS_UNITS_INDEPENDENT, NAMES_UNITS_INDEPENDENT,
+            MULTICURVE_KNOWN_DATA, PSMQDC, PSMQCSDC, false, DSC_MAP, FWD_ON_MAP_INDEPENDENT, FWD_IBOR_MAP, repositoryParallel,
+            TS_FIXED_OIS_USD_WITH_TODAY, TS_FIXED_OIS_USD_WITHOUT_TODAY,
+            TS_FIXED_IBOR_EUR3M_WITH_TODAY, TS_FIXED_IBOR_EUR3M_WITHOUT_TODAY);
+    assertEquals("Parallel calibration: independent units", sequential.getFirst(), parallel.getFirst());
+    assertEquals("Parallel calibration: independent units", sequential.getSecond(), parallel.getSecond());
+    curveConstructionTest(new InstrumentDefinition<?>[][][] {{DEFINITIONS_DSC_EUR_OIS }, {DEFINITIONS_FWD3_EUR } }, parallel.getFirst(), false, NB_BLOCKS);
+  }
+
+  /**
+   * Tests that the computation of the Jacobian rows in parallel gives the same curves and the same transition matrices
+   * as the sequential computation.
+   */
+  @Test
+  public void curveConstructionJacobianPool() {
+    final MulticurveDiscountBuildingRepository repositoryJacobian = new MulticurveDiscountBuildingRepository(TOLERANCE_ROOT, TOLERANCE_ROOT, STEP_MAX, null,
+        ForkJoinTestPool.POOL);
+    for (int loopblock = 0; loopblock < NB_BLOCKS; loopblock++) {
+      final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> parallel =
+          CurveCalibrationTestsUtils.makeCurvesFromDefinitionsMulticurve(CALIBRATION_DATE,
+              DEFINITIONS_UNITS[loopblock], GENERATORS_UNITS[loopblock], NAMES_UNITS[loopblock],
+              MULTICURVE_KNOWN_DATA, PSMQDC, PSMQCSDC, false, DSC_MAP, FWD_ON_MAP, FWD_IBOR_MAP, repositoryJacobian,
+              TS_FIXED_OIS_USD_WITH_TODAY, TS_FIXED_OIS_USD_WITHOUT_TODAY,
+              TS_FIXED_IBOR_EUR3M_WITH_TODAY, TS_FIXED_IBOR_EUR3M_WITHOUT_TODAY);
+      assertEquals("Parallel Jacobian: block " + loopblock, CURVES_PAR_SPREAD_MQ_WITHOUT_TODAY_BLOCK.get(loopblock).getFirst(), parallel.getFirst());
+      assertEquals("Parallel Jacobian: block " + loopblock, CURVES_PAR_SPREAD_MQ_WITHOUT_TODAY_BLOCK.get(loopblock).getSecond(), parallel.getSecond());
+    }
+  }
+
+  /**
+   * Tests the recalibration after the change of one quote: the units which do not depend on the quote are unchanged,
+   * the other ones are close to a full calibration.
+   */
+  @Test
+  public void curveUpdate() {
+    final MultiCurveBundle<GeneratorYDCurve>[] bundles = CurveCalibrationTestsUtils.makeCurveBundles(CALIBRATION_DATE,
+        DEFINITIONS_UNITS_INDEPENDENT, GENERATORS_UNITS_INDEPENDENT, NAMES_UNITS_INDEPENDENT, false,
+        TS_FIXED_OIS_USD_WITH_TODAY, TS_FIXED_OIS_USD_WITHOUT_TODAY, TS_FIXED_IBOR_EUR3M_WITH_TODAY, TS_FIXED_IBOR_EUR3M_WITHOUT_TODAY);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> previous = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(bundles,
+        MULTICURVE_KNOWN_DATA, DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP_INDEPENDENT, PSMQDC, PSMQCSDC);
+    // No change
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> noChange = CURVE_BUILDING_REPOSITORY.updateCurvesFromDerivatives(bundles,
+        previous.getFirst(), previous.getSecond(), MULTICURVE_KNOWN_DATA, new CurveBuildingBlockBundle(),
+        DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP_INDEPENDENT, PSMQDC, PSMQCSDC);
+    assertEquals("Curve update: no change", previous.getFirst(), noChange.getFirst());
+    assertEquals("Curve update: no change", previous.getSecond(), noChange.getSecond());
+    // One EUR OIS quote changed by 1 bp
+    final double[] quotesShifted = DSC_EUR_OIS_MARKET_QUOTES.clone();
+    quotesShifted[8] += 1.0E-4;
+    final InstrumentDefinition<?>[][][] definitionsShifted = new InstrumentDefinition<?>[][][] {
+      {DEFINITIONS_DSC_USD }, {getDefinitions(quotesShifted, DSC_EUR_OIS_GENERATORS, DSC_EUR_OIS_ATTR) }, {DEFINITIONS_FWD3_USD }, {DEFINITIONS_FWD3_EUR } };
+    final MultiCurveBundle<GeneratorYDCurve>[] bundlesShifted = CurveCalibrationTestsUtils.makeCurveBundles(CALIBRATION_DATE,
+        definitionsShifted, GENERATORS_UNITS_INDEPENDENT, NAMES_UNITS_INDEPENDENT, false,
+        TS_FIXED_OIS_USD_WITH_TODAY, TS_FIXED_OIS_USD_WITHOUT_TODAY, TS_FIXED_IBOR_EUR3M_WITH_TODAY, TS_FIXED_IBOR_EUR3M_WITHOUT_TODAY);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> updated = CURVE_BUILDING_REPOSITORY.updateCurvesFromDerivatives(bundlesShifted,
+        previous.getFirst(), previous.getSecond(), MULTICURVE_KNOWN_DATA, new CurveBuildingBlockBundle(),
+        DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP_INDEPENDENT, PSMQDC, PSMQCSDC);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> full = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(bundlesShifted,
+        MULTICURVE_KNOWN_DATA, DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP_INDEPENDENT, PSMQDC, PSMQCSDC);
+    for (final String name : new String[] {CURVE_NAME_DSC_USD, CURVE_NAME_FWD3_USD }) {
+      assertEquals("Curve update: unchanged unit", previous.getFirst().getCurve(name), updated.getFirst().getCurve(name));
+      assertEquals("Curve update: unchanged unit", previous.getSecond().getBlock(name), updated.getSecond().getBlock(name));
+    }
+    final double[] times = new double[] {0.01, 0.25, 0.5, 1.0, 2.0, 3.5, 5.0, 7.0, 10.0 };
+    for (final String name : new String[] {CURVE_NAME_DSC_EUR, CURVE_NAME_FWD3_EUR }) {
+      for (final double time : times) {
+        assertEquals("Curve update: " + name, full.getFirst().getCurve(name).getInterestRate(time),
+            updated.getFirst().getCurve(name).getInterestRate(time), TOLERANCE_CAL);
+      }
+    }
+    curveConstructionTest(new InstrumentDefinition<?>[][][] {{definitionsShifted[1][0] }, {DEFINITIONS_FWD3_EUR } }, updated.getFirst(), false, NB_BLOCKS);
+  }
+
+  /**
+   * Tests the recalibration when the previous block bundle does not contain the blocks of the units: the root finder is run
+   * from the previous parameters and the blocks are recomputed.
+   */
+  @Test
+  public void curveUpdateWithoutPreviousBlocks() {
+    final MultiCurveBundle<GeneratorYDCurve>[] bundles = CurveCalibrationTestsUtils.makeCurveBundles(CALIBRATION_DATE,
+        DEFINITIONS_UNITS_INDEPENDENT, GENERATORS_UNITS_INDEPENDENT, NAMES_UNITS_INDEPENDENT, false,
+        TS_FIXED_OIS_USD_WITH_TODAY, TS_FIXED_OIS_USD_WITHOUT_TODAY, TS_FIXED_IBOR_EUR3M_WITH_TODAY, TS_FIXED_IBOR_EUR3M_WITHOUT_TODAY);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> previous = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(bundles,
+        MULTICURVE_KNOWN_DATA, DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP_INDEPENDENT, PSMQDC, PSMQCSDC);
+    final double[] quotesShifted = DSC_EUR_OIS_MARKET_QUOTES.clone();
+    quotesShifted[8] += 1.0E-4;
+    final InstrumentDefinition<?>[][][] definitionsShifted = new InstrumentDefinition<?>[][][] {
+      {DEFINITIONS_DSC_USD }, {getDefinitions(quotesShifted, DSC_EUR_OIS_GENERATORS, DSC_EUR_OIS_ATTR) }, {DEFINITIONS_FWD3_USD }, {DEFINITIONS_FWD3_EUR } };
+    final MultiCurveBundle<GeneratorYDCurve>[] bundlesShifted = CurveCalibrationTestsUtils.makeCurveBundles(CALIBRATION_DATE,
+        definitionsShifted, GENERATORS_UNITS_INDEPENDENT, NAMES_UNITS_INDEPENDENT, false,
+        TS_FIXED_OIS_USD_WITH_TODAY, TS_FIXED_OIS_USD_WITHOUT_TODAY, TS_FIXED_IBOR_EUR3M_WITH_TODAY, TS_FIXED_IBOR_EUR3M_WITHOUT_TODAY);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> updated = CURVE_BUILDING_REPOSITORY.updateCurvesFromDerivatives(bundlesShifted,
+        previous.getFirst(), new CurveBuildingBlockBundle(), MULTICURVE_KNOWN_DATA, new CurveBuildingBlockBundle(),
+        DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP_INDEPENDENT, PSMQDC, PSMQCSDC);
+    final Pair<MulticurveProviderDiscount, CurveBuildingBlockBundle> full = CURVE_BUILDING_REPOSITORY.makeCurvesFromDerivatives(bundlesShifted,
+        MULTICURVE_KNOWN_DATA, DSC_MAP, FWD_IBOR_MAP, FWD_ON_MAP_INDEPENDENT, PSMQDC, PSMQCSDC);
+    for (final String name : new String[] {CURVE_NAME_DSC_USD, CURVE_NAME_FWD3_USD }) {
+      assertEquals("Curve update: unchanged unit", previous.getFirst().getCurve(name), updated.getFirst().getCurve(name));
+    }
+    final double[] times = new double[] {0.01, 0.25, 0.5, 1.0, 2.0, 3.5, 5.0, 7.0, 10.0 };
+    for (final String name : new String[] {CURVE_NAME_DSC_EUR, CURVE_NAME_FWD3_EUR }) {
+      for (final double time : times) {
+        assertEquals("Curve update: " + name, full.getFirst().getCurve(name).getInterestRate(time),
+            updated.getFirst().getCurve(name).getInterestRate(time), TOLERANCE_CAL);
+      }
+    }
+    for (final String name : new String[] {CURVE_NAME_DSC_USD, CURVE_NAME_DSC_EUR, CURVE_NAME_FWD3_USD, CURVE_NAME_FWD3_EUR }) {
+      assertTrue("Curve update: block recomputed", updated.getSecond().getData().containsKey(name));
+    }
+    curveConstructionTest(new InstrumentDefinition<?>[][][] {{definitionsShifted[1][0] }, {DEFINITIONS_FWD3_EUR } }, updated.getFirst(), false, NB_BLOCKS);
+  }
+
   @Test(enabled = false)
   /** Export a forward curve into a csv file. */
   public void exportForwardCurve() throws IOException {
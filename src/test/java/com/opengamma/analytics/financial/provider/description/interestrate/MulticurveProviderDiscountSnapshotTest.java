@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.description.interestrate;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.financial.instrument.index.IborIndex;
+import com.opengamma.analytics.financial.instrument.index.IndexON;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
+import com.opengamma.analytics.financial.model.interestrate.curve.YieldCurve;
+import com.opengamma.analytics.financial.provider.description.MulticurveProviderDiscountDataSets;
+import com.opengamma.analytics.math.curve.ConstantDoublesCurve;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.tuple.DoublesPair;
+
+/**
+ * Tests the immutable multi-curve snapshot with curve handles.
+ */
+@Test
+public class MulticurveProviderDiscountSnapshotTest {
+
+  private static final MulticurveProviderDiscount MULTICURVE = MulticurveProviderDiscountDataSets.createMulticurveEurUsd();
+  private static final IborIndex[] INDEXES_IBOR = MulticurveProviderDiscountDataSets.getIndexesIborMulticurveEurUsd();
+  private static final IndexON[] INDEXES_ON = MulticurveProviderDiscountDataSets.getIndexesON();
+  private static final MulticurveProviderDiscountSnapshot SNAPSHOT = MULTICURVE.snapshot();
+
+  private static final double[] TIMES = new double[] {0.0, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0, 30.0 };
+  private static final double TOLERANCE = 1.0E-15;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void nullProvider() {
+    new MulticurveProviderDiscountSnapshot(null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void missingCurrency() {
+    SNAPSHOT.getHandle(Currency.JPY);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void missingName() {
+    SNAPSHOT.getHandle("Not a curve");
+  }
+
+  @Test
+  public void handles() {
+    assertEquals("Snapshot: handles", MULTICURVE.getAllCurveNames().size(), SNAPSHOT.getNumberOfCurves());
+    assertEquals("Snapshot: handles", MULTICURVE.getAllCurveNames(), SNAPSHOT.getAllCurveNames());
+    for (final Currency ccy : MULTICURVE.getCurrencies()) {
+      final int handle = SNAPSHOT.getHandle(ccy);
+      assertSame("Snapshot: handles", MULTICURVE.getCurve(ccy), SNAPSHOT.getCurve(handle));
+      assertEquals("Snapshot: handles", handle, SNAPSHOT.getHandle(MULTICURVE.getName(ccy)));
+    }
+    for (final IborIndex index : MULTICURVE.getIndexesIbor()) {
+      assertSame("Snapshot: handles", MULTICURVE.getCurve(index), SNAPSHOT.getCurve(SNAPSHOT.getHandle(index)));
+    }
+    for (final IndexON index : MULTICURVE.getIndexesON()) {
+      assertSame("Snapshot: handles", MULTICURVE.getCurve(index), SNAPSHOT.getCurve(SNAPSHOT.getHandle(index)));
+    }
+  }
+
+  @Test
+  public void equalIndexInstance() {
+    final IborIndex index = INDEXES_IBOR[0];
+    final IborIndex copy = new IborIndex(index.getCurrency(), index.getTenor(), index.getSpotLag(), index.getDayCount(),
+        index.getBusinessDayConvention(), index.isEndOfMonth(), index.getName());
+    assertEquals("Snapshot: equal index", SNAPSHOT.getHandle(index), SNAPSHOT.getHandle(copy));
+  }
+
+  @Test
+  public void values() {
+    for (final Currency ccy : MULTICURVE.getCurrencies()) {
+      for (final double time : TIMES) {
+        assertEquals("Snapshot: discount factor", MULTICURVE.getDiscountFactor(ccy, time), SNAPSHOT.getDiscountFactor(ccy, time), TOLERANCE);
+      }
+      assertArrayEquals("Snapshot: discount factors", MULTICURVE.getDiscountFactors(ccy, TIMES), SNAPSHOT.getDiscountFactors(ccy, TIMES), TOLERANCE);
+      assertEquals("Snapshot: name", MULTICURVE.getName(ccy), SNAPSHOT.getName(ccy));
+    }
+    for (final IborIndex index : INDEXES_IBOR) {
+      if (!MULTICURVE.getIndexesIbor().contains(index)) {
+        continue;
+      }
+      for (int loopt = 1; loopt < TIMES.length; loopt++) {
+        final double start = TIMES[loopt - 1];
+        final double end = TIMES[loopt];
+        assertEquals("Snapshot: forward", MULTICURVE.getSimplyCompoundForwardRate(index, start, end, 0.9 * (end - start)),
+            SNAPSHOT.getSimplyCompoundForwardRate(index, start, end, 0.9 * (end - start)), TOLERANCE);
+        assertEquals("Snapshot: forward", MULTICURVE.getAnnuallyCompoundForwardRate(index, start, end),
+            SNAPSHOT.getAnnuallyCompoundForwardRate(index, start, end), TOLERANCE);
+        assertEquals("Snapshot: investment factor", MULTICURVE.getInvestmentFactor(index, start, end, end - start),
+            SNAPSHOT.getInvestmentFactor(index, start, end, end - start), TOLERANCE);
+      }
+    }
+    for (final IndexON index : INDEXES_ON) {
+      if (!MULTICURVE.getIndexesON().contains(index)) {
+        continue;
+      }
+      for (int loopt = 1; loopt < TIMES.length; loopt++) {
+        final double start = TIMES[loopt - 1];
+        final double end = TIMES[loopt];
+        assertEquals("Snapshot: forward ON", MULTICURVE.getSimplyCompoundForwardRate(index, start, end),
+            SNAPSHOT.getSimplyCompoundForwardRate(index, start, end), TOLERANCE);
+      }
+    }
+  }
+
+  @Test
+  public void parameterSensitivity() {
+    final String name = MULTICURVE.getName(Currency.USD);
+    final List<DoublesPair> points = Arrays.asList(DoublesPair.of(0.5, 100.0), DoublesPair.of(5.0, -50.0));
+    assertArrayEquals("Snapshot: parameter sensitivity", MULTICURVE.parameterSensitivity(name, points),
+        SNAPSHOT.parameterSensitivity(name, points), TOLERANCE);
+    assertEquals("Snapshot: number of parameters", MULTICURVE.getNumberOfParameters(name), SNAPSHOT.getNumberOfParameters(name));
+  }
+
+  @Test
+  public void immutable() {
+    final MulticurveProviderDiscount multicurve = MULTICURVE.copy();
+    final MulticurveProviderDiscountSnapshot snapshot = multicurve.snapshot();
+    final YieldAndDiscountCurve original = multicurve.getCurve(Currency.USD);
+    multicurve.replaceCurve(Currency.USD, new YieldCurve(original.getName(), ConstantDoublesCurve.from(0.10)));
+    assertSame("Snapshot: immutable", original, snapshot.getCurve(snapshot.getHandle(Currency.USD)));
+    assertSame("Snapshot: copy", snapshot, snapshot.copy());
+    assertEquals("Snapshot: round trip", MULTICURVE, SNAPSHOT.toProvider());
+    assertEquals("Snapshot: equals", SNAPSHOT, MULTICURVE.snapshot());
+    assertEquals("Snapshot: hashCode", SNAPSHOT.hashCode(), MULTICURVE.snapshot().hashCode());
+  }
+
+}
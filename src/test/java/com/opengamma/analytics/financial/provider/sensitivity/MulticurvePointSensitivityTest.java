@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.financial.provider.sensitivity;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.AnnuallyCompoundedForwardSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.ForwardSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurvePointSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurveSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyMulticurveSensitivity;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.SimplyCompoundedForwardSensitivity;
+import com.opengamma.analytics.financial.util.AssertSensitivityObjects;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.tuple.DoublesPair;
+
+/**
+ * Tests the point sensitivity stored in primitive arrays.
+ */
+@Test
+public class MulticurvePointSensitivityTest {
+
+  private static final List<DoublesPair> SENSI_DATA_1 = Arrays.asList(new DoublesPair[] {DoublesPair.of(4d, 40d), DoublesPair.of(1d, 10d), DoublesPair.of(3d, 30d),
+    DoublesPair.of(1d, 15d), DoublesPair.of(2d, 20d), DoublesPair.of(4d, -40d) });
+  private static final List<DoublesPair> SENSI_DATA_2 = Arrays.asList(new DoublesPair[] {DoublesPair.of(11d, 40d), DoublesPair.of(12d, 30d), DoublesPair.of(13d, 20d) });
+  private static final List<ForwardSensitivity> SENSI_FWD_1 = new ArrayList<>();
+  static {
+    SENSI_FWD_1.add(new SimplyCompoundedForwardSensitivity(1.00, 1.25, 0.24, 13));
+    SENSI_FWD_1.add(new SimplyCompoundedForwardSensitivity(0.5, 0.75, 0.26, 11));
+    SENSI_FWD_1.add(new SimplyCompoundedForwardSensitivity(0.75, 1.00, 0.26, 12));
+    SENSI_FWD_1.add(new SimplyCompoundedForwardSensitivity(0.5, 0.75, 0.25, 5));
+    SENSI_FWD_1.add(new SimplyCompoundedForwardSensitivity(0.5, 0.75, 0.26, -1));
+  }
+  private static final String CURVE_NAME_1 = "A";
+  private static final String CURVE_NAME_2 = "B";
+  private static final Currency EUR = Currency.EUR;
+  private static final Currency USD = Currency.USD;
+  private static final MultipleCurrencyMulticurveSensitivity SENSITIVITY;
+  static {
+    final Map<String, List<DoublesPair>> mapDsc = new HashMap<>();
+    mapDsc.put(CURVE_NAME_1, SENSI_DATA_1);
+    final Map<String, List<ForwardSensitivity>> mapFwd = new HashMap<>();
+    mapFwd.put(CURVE_NAME_2, SENSI_FWD_1);
+    final Map<String, List<DoublesPair>> mapDscUsd = new HashMap<>();
+    mapDscUsd.put(CURVE_NAME_2, SENSI_DATA_2);
+    SENSITIVITY = MultipleCurrencyMulticurveSensitivity.of(EUR, MulticurveSensitivity.of(mapDsc, mapFwd)).plus(USD, MulticurveSensitivity.ofYieldDiscounting(mapDscUsd));
+  }
+
+  private static final double TOLERANCE = 1.0E-10;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void nullSensitivity() {
+    MulticurvePointSensitivity.of(null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void wrongForwardTimes() {
+    new MulticurvePointSensitivity().addForward(CURVE_NAME_1, EUR, 1.0, 0.5, 0.5, 1.0);
+  }
+
+  @Test
+  public void annuallyCompounded() {
+    final List<ForwardSensitivity> fwd = new ArrayList<>(SENSI_FWD_1);
+    fwd.add(new AnnuallyCompoundedForwardSensitivity(0.5, 0.75, 0.26, 7));
+    fwd.add(new AnnuallyCompoundedForwardSensitivity(0.5, 0.75, 0.26, 3));
+    final Map<String, List<ForwardSensitivity>> mapFwd = new HashMap<>();
+    mapFwd.put(CURVE_NAME_2, fwd);
+    final MultipleCurrencyMulticurveSensitivity sensitivity = MultipleCurrencyMulticurveSensitivity.of(EUR, MulticurveSensitivity.ofForward(mapFwd));
+    final MulticurvePointSensitivity point = MulticurvePointSensitivity.of(sensitivity);
+    assertEquals("MulticurvePointSensitivity: annually compounded", SENSI_FWD_1.size(), point.getForwardValues(CURVE_NAME_2, EUR).length);
+    assertEquals("MulticurvePointSensitivity: annually compounded", 1, point.getForwardAnnuallyCompoundedNamesCurrency().size());
+    assertEquals("MulticurvePointSensitivity: annually compounded", sensitivity, point.toMulticurveSensitivity());
+    point.multiplyBy(2.0);
+    point.compact();
+    final List<ForwardSensitivity> fwdAnnually = point.toMulticurveSensitivity().getSensitivity(EUR).getForwardSensitivities().get(CURVE_NAME_2);
+    assertEquals("MulticurvePointSensitivity: annually compounded", new AnnuallyCompoundedForwardSensitivity(0.5, 0.75, 0.26, 20),
+        fwdAnnually.get(fwdAnnually.size() - 1));
+    assertTrue("MulticurvePointSensitivity: annually compounded", fwdAnnually.get(fwdAnnually.size() - 1) instanceof AnnuallyCompoundedForwardSensitivity);
+  }
+
+  @Test
+  public void conversion() {
+    final MulticurvePointSensitivity point = MulticurvePointSensitivity.of(SENSITIVITY);
+    assertArrayEquals("MulticurvePointSensitivity: conversion", new double[] {4d, 1d, 3d, 1d, 2d, 4d }, point.getDiscountingTimes(CURVE_NAME_1, EUR), 0.0);
+    assertEquals("MulticurvePointSensitivity: conversion", 0, point.getDiscountingTimes(CURVE_NAME_1, USD).length);
+    AssertSensitivityObjects.assertEquals("MulticurvePointSensitivity: conversion", SENSITIVITY, point.toMulticurveSensitivity(), TOLERANCE);
+  }
+
+  @Test
+  public void compact() {
+    final MulticurvePointSensitivity point = MulticurvePointSensitivity.of(SENSITIVITY);
+    point.compact();
+    final MultipleCurrencyMulticurveSensitivity cleaned = SENSITIVITY.cleaned();
+    assertEquals("MulticurvePointSensitivity: compact", cleaned, point.toMulticurveSensitivity());
+    assertArrayEquals("MulticurvePointSensitivity: compact", new double[] {1d, 2d, 3d, 4d }, point.getDiscountingTimes(CURVE_NAME_1, EUR), 0.0);
+    assertArrayEquals("MulticurvePointSensitivity: compact", new double[] {25d, 20d, 30d, 0d }, point.getDiscountingValues(CURVE_NAME_1, EUR), 0.0);
+    assertArrayEquals("MulticurvePointSensitivity: compact", new double[] {0.25, 0.26, 0.26, 0.24 }, point.getForwardAccrualFactors(CURVE_NAME_2, EUR), 0.0);
+    assertArrayEquals("MulticurvePointSensitivity: compact", new double[] {5d, 10d, 12d, 13d }, point.getForwardValues(CURVE_NAME_2, EUR), 0.0);
+    final MulticurvePointSensitivity pointTol = MulticurvePointSensitivity.of(SENSITIVITY);
+    pointTol.compact(1.0E-2);
+    assertEquals("MulticurvePointSensitivity: compact", SENSITIVITY.cleaned(1.0E-2), pointTol.toMulticurveSensitivity());
+    assertArrayEquals("MulticurvePointSensitivity: compact", new double[] {1d, 2d, 3d }, pointTol.getDiscountingTimes(CURVE_NAME_1, EUR), 0.0);
+  }
+
+  @Test
+  public void addMultiply() {
+    final MulticurvePointSensitivity point = MulticurvePointSensitivity.of(SENSITIVITY);
+    point.add(point);
+    point.compact();
+    final MulticurvePointSensitivity multiplied = MulticurvePointSensitivity.of(SENSITIVITY);
+    multiplied.multiplyBy(2.0);
+    multiplied.compact();
+    AssertSensitivityObjects.assertEquals("MulticurvePointSensitivity: add", SENSITIVITY.plus(SENSITIVITY).cleaned(), point.toMulticurveSensitivity(), TOLERANCE);
+    AssertSensitivityObjects.assertEquals("MulticurvePointSensitivity: multiplyBy", SENSITIVITY.multipliedBy(2.0).cleaned(), multiplied.toMulticurveSensitivity(), TOLERANCE);
+    for (int i = 0; i < 20; i++) {
+      point.addDiscounting(CURVE_NAME_1, USD, i, 1.0);
+    }
+    point.compact();
+    assertEquals("MulticurvePointSensitivity: grow", 20, point.getDiscountingValues(CURVE_NAME_1, USD).length);
+  }
+
+}
@@ -22,18 +22,26 @@ import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedON;
 import com.opengamma.analytics.financial.instrument.index.GeneratorSwapFixedONMaster;
 import com.opengamma.analytics.financial.instrument.index.IborIndex;
 import com.opengamma.analytics.financial.instrument.index.IndexON;
+import com.opengamma.analytics.financial.instrument.payment.CouponONCompoundedDefinition;
 import com.opengamma.analytics.financial.instrument.swap.SwapFixedIborDefinition;
 import com.opengamma.analytics.financial.instrument.swap.SwapFixedONDefinition;
+import com.opengamma.analytics.financial.interestrate.InstrumentDerivative;
+import com.opengamma.analytics.financial.interestrate.annuity.derivative.Annuity;
 import com.opengamma.analytics.financial.interestrate.annuity.derivative.AnnuityCouponFixed;
 import com.opengamma.analytics.financial.interestrate.payments.derivative.Coupon;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponFixed;
+import com.opengamma.analytics.financial.interestrate.payments.derivative.CouponONCompounded;
+import com.opengamma.analytics.financial.interestrate.swap.derivative.Swap;
 import com.opengamma.analytics.financial.interestrate.swap.derivative.SwapFixedCoupon;
 import com.opengamma.analytics.financial.model.interestrate.curve.YieldAndDiscountCurve;
 import com.opengamma.analytics.financial.model.interestrate.curve.YieldCurve;
 import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueCurveSensitivityDiscountingCalculator;
 import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValueDiscountingCalculator;
+import com.opengamma.analytics.financial.provider.calculator.discounting.PresentValuePointSensitivityDiscountingCalculator;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderDiscount;
 import com.opengamma.analytics.financial.provider.description.interestrate.MulticurveProviderForward;
 import com.opengamma.analytics.financial.provider.description.interestrate.ParameterProviderInterface;
+import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MulticurvePointSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.MultipleCurrencyParameterSensitivity;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.ParameterSensitivityMulticurveDiscountInterpolatedFDCalculator;
 import com.opengamma.analytics.financial.provider.sensitivity.multicurve.ParameterSensitivityMulticurveForwardInterpolatedFDCalculator;
@@ -73,6 +81,10 @@ public class ParameterSensitivityProviderCalculatorTest {
   private static final IndexON FEDFUND = USD1YFEDFUND.getIndex();
   private static final SwapFixedONDefinition OIS_DEFINITION = SwapFixedONDefinition.from(EFFECTIVE_DATE, Period.ofMonths(6), NOTIONAL, USD1YFEDFUND, 0.02, false);
   private static final SwapFixedCoupon<Coupon> OIS = OIS_DEFINITION.toDerivative(REFERENCE_DATE);
+  private static final CouponONCompoundedDefinition CPN_ON_COMPOUNDED_DEFINITION = CouponONCompoundedDefinition.from(FEDFUND, EFFECTIVE_DATE,
+      Period.ofYears(1), -NOTIONAL, 2, USD1YFEDFUND.getBusinessDayConvention(), USD1YFEDFUND.isEndOfMonth(), NYC);
+  private static final Swap<CouponFixed, CouponONCompounded> OIS_COMPOUNDED = new Swap<>(ANNUITY,
+      new Annuity<>(new CouponONCompounded[] {CPN_ON_COMPOUNDED_DEFINITION.toDerivative(REFERENCE_DATE) }));
 
   private static final double[] TIME = {0.25, 0.50, 1.0, 2.0, 5.0 };
   private static final double[] YIELD = {0.02, 0.025, 0.03, 0.03, 0.028 };
@@ -99,11 +111,13 @@ public class ParameterSensitivityProviderCalculatorTest {
   private static final PresentValueCurveSensitivityDiscountingCalculator PVCSC = PresentValueCurveSensitivityDiscountingCalculator.getInstance();
   private static final PresentValueDiscountingCalculator PVC = PresentValueDiscountingCalculator.getInstance();
   private static final ParameterSensitivityParameterCalculator<ParameterProviderInterface> PSC = new ParameterSensitivityParameterCalculator<>(PVCSC);
+  private static final PresentValuePointSensitivityDiscountingCalculator PVPSC = PresentValuePointSensitivityDiscountingCalculator.getInstance();
   private static final double SHIFT = 5.0E-7;
   private static final ParameterSensitivityMulticurveDiscountInterpolatedFDCalculator PSC_DSC_FD = new ParameterSensitivityMulticurveDiscountInterpolatedFDCalculator(PVC, SHIFT);
   private static final ParameterSensitivityMulticurveForwardInterpolatedFDCalculator PSC_FWD_FD = new ParameterSensitivityMulticurveForwardInterpolatedFDCalculator(PVC, SHIFT);
 
   private static final double TOLERANCE_DELTA = 1.0E+2; // 0.01 currency unit for 1bp on 100m
+  private static final double TOLERANCE_DELTA_POINT = 1.0E-6;
 
   @Test
   public void parameterSensitivityBlock() {
@@ -139,4 +153,25 @@ public class ParameterSensitivityProviderCalculatorTest {
         TOLERANCE_DELTA);
   }
 
+  @Test
+  public void parameterSensitivityFromPointSensitivity() {
+    final InstrumentDerivative[] instruments = new InstrumentDerivative[] {ANNUITY, SWAP, OIS, OIS_COMPOUNDED };
+    final ParameterProviderInterface[] markets = new ParameterProviderInterface[] {MARKET_DSC, MARKET_FWD };
+    for (final ParameterProviderInterface market : markets) {
+      for (final InstrumentDerivative instrument : instruments) {
+        final MultipleCurrencyParameterSensitivity expected = PSC.calculateSensitivity(instrument, market);
+        final MulticurvePointSensitivity point = instrument.accept(PVPSC, market);
+        AssertSensitivityObjects.assertEquals("ParameterSensitivityProviderCalculator: point sensitivity", expected, point.toParameterSensitivity(market), TOLERANCE_DELTA_POINT);
+        point.compact();
+        AssertSensitivityObjects.assertEquals("ParameterSensitivityProviderCalculator: point sensitivity", expected, point.toParameterSensitivity(market), TOLERANCE_DELTA_POINT);
+      }
+    }
+    final Set<String> required = new TreeSet<>();
+    required.add(DSC_NAME);
+    final MultipleCurrencyParameterSensitivity pvpsSwapNoFwd = SWAP.accept(PVPSC, MARKET_DSC).toParameterSensitivity(MARKET_DSC, required);
+    assertTrue("ParameterSensitivityProviderCalculator: point sensitivity", pvpsSwapNoFwd.getAllNamesCurrency().size() == 1);
+    AssertSensitivityObjects.assertEquals("ParameterSensitivityProviderCalculator: point sensitivity", PSC.calculateSensitivity(SWAP, MARKET_DSC, required),
+        pvpsSwapNoFwd, TOLERANCE_DELTA_POINT);
+  }
+
 }
@@ -12,6 +12,7 @@ import org.testng.annotations.Test;
 
 import com.opengamma.analytics.math.function.Function1D;
 import com.opengamma.analytics.math.interpolation.data.ArrayInterpolator1DDataBundle;
+import com.opengamma.analytics.math.interpolation.data.InterpolationIndexHint;
 import com.opengamma.analytics.math.interpolation.data.Interpolator1DDataBundle;
 
 /**
@@ -144,4 +145,35 @@ public class CombinedInterpolatorExtrapolatorTest {
       assertEquals("dy/dx at " + value, 3d, COMBINED3.firstDerivative(DATA, value), 1e-4);
     }
   }
+
+  /**
+   * The primitive methods, with or without hint, return exactly the same results as the boxed ones.
+   */
+  @Test
+  public void testPrimitiveWithHint() {
+    final double[] x = new double[] {0.25, 0.5, 1.0, 2.0, 5.0, 10.0 };
+    final double[] y = new double[] {0.99, 0.985, 0.97, 0.94, 0.85, 0.72 };
+    final CombinedInterpolatorExtrapolator[] combined = new CombinedInterpolatorExtrapolator[] {COMBINED3,
+      new CombinedInterpolatorExtrapolator(new LogLinearInterpolator1D(), new LogLinearExtrapolator1D()),
+      new CombinedInterpolatorExtrapolator(new NaturalCubicSplineInterpolator1D(), RIGHT_EXTRAPOLATOR, LEFT_EXTRAPOLATOR),
+      new CombinedInterpolatorExtrapolator(new StepInterpolator1D(), LEFT_EXTRAPOLATOR) };
+    final int nbValues = 150;
+    for (final CombinedInterpolatorExtrapolator interpolator : combined) {
+      final Interpolator1DDataBundle data = interpolator.getDataBundleFromSortedArrays(x, y);
+      final InterpolationIndexHint hint = new InterpolationIndexHint();
+      final double[] sensitivities = new double[x.length];
+      for (int i = 0; i <= 2 * nbValues; i++) {
+        // Monotone on the first half, out of order on the second half
+        final double value = i <= nbValues ? 12.0 * i / nbValues : 12.0 * ((i * 37) % nbValues) / nbValues;
+        assertEquals(interpolator.interpolate(data, value), interpolator.interpolate(data, value, hint), 0.0);
+        assertEquals(interpolator.interpolate(data, value), interpolator.interpolate(data, value, null), 0.0);
+        assertEquals(interpolator.firstDerivative(data, value), interpolator.firstDerivative(data, value, hint), 0.0);
+        final double[] expected = interpolator.getNodeSensitivitiesForValue(data, value);
+        interpolator.getNodeSensitivitiesForValue(data, value, hint, sensitivities);
+        for (int j = 0; j < x.length; j++) {
+          assertEquals(expected[j], sensitivities[j], 0.0);
+        }
+      }
+    }
+  }
 }
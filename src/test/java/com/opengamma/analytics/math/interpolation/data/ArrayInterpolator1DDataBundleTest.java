@@ -103,4 +103,50 @@ public class ArrayInterpolator1DDataBundleTest extends Interpolator1DDataBundleT
     i = bundle.getLowerBoundIndex(-0.);
     assertEquals(0, i);
   }
+
+  /**
+   * Test getLowerBoundIndex with a hint gives the same result as without, whatever the hint.
+   */
+  @Test
+  public void getLowerBoundIndexHintTest() {
+    double[] xValues = new double[] {0.1, 0.5, 1.0, 2.0, 3.0, 5.0, 7.0, 10.0 };
+    double[] yValues = new double[] {1., 2., 3., 4., 5., 6., 7., 8. };
+    ArrayInterpolator1DDataBundle bundle = new ArrayInterpolator1DDataBundle(xValues, yValues);
+    InterpolationIndexHint hint = new InterpolationIndexHint();
+    int nbValues = 200;
+    for (int i = 0; i <= nbValues; i++) { // Monotone
+      double value = 0.1 + 9.9 * i / nbValues;
+      assertEquals(bundle.getLowerBoundIndex(value), bundle.getLowerBoundIndex(value, hint));
+      assertEquals(bundle.getLowerBoundIndex(value), hint.getIndex());
+    }
+    for (int i = 0; i <= nbValues; i++) { // Out of order
+      double value = 0.1 + 9.9 * ((i * 37) % (nbValues + 1)) / nbValues;
+      assertEquals(bundle.getLowerBoundIndex(value), bundle.getLowerBoundIndex(value, hint));
+    }
+    for (double key : xValues) {
+      for (int start = -1; start < xValues.length; start++) {
+        hint.setIndex(start);
+        assertEquals(bundle.getLowerBoundIndex(key), bundle.getLowerBoundIndex(key, hint));
+      }
+      assertEquals(bundle.getLowerBoundIndex(key), bundle.getLowerBoundIndex(key, null));
+    }
+    double[][] zeroKeys = new double[][] { {-2., -1., 0. }, {-2., -1., -0. }, {-1., 0., 1. }, {-1., -0., 1. }, {0., 1., 2. }, {-0., 1., 2. } };
+    for (double[] keys : zeroKeys) {
+      bundle = new ArrayInterpolator1DDataBundle(keys, new double[] {1., 2., 3. });
+      for (int start = -1; start < keys.length; start++) {
+        hint.setIndex(start);
+        assertEquals(bundle.getLowerBoundIndex(0.), bundle.getLowerBoundIndex(0., hint));
+        hint.setIndex(start);
+        assertEquals(bundle.getLowerBoundIndex(-0.), bundle.getLowerBoundIndex(-0., hint));
+      }
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void getLowerBoundIndexHintOutOfRange() {
+    ArrayInterpolator1DDataBundle bundle = new ArrayInterpolator1DDataBundle(new double[] {1., 2., 3. }, new double[] {1., 2., 3. });
+    InterpolationIndexHint hint = new InterpolationIndexHint();
+    bundle.getLowerBoundIndex(2.5, hint);
+    bundle.getLowerBoundIndex(3.5, hint);
+  }
 }
@@ -8,6 +8,8 @@ package com.opengamma.analytics.math.linearalgebra;
 import static com.opengamma.analytics.math.linearalgebra.TridiagonalSolver.solvTriDag;
 import static org.testng.AssertJUnit.assertEquals;
 
+import java.util.Arrays;
+
 import cern.jet.random.engine.MersenneTwister;
 import org.testng.annotations.Test;
 
@@ -59,4 +61,36 @@ public class TridiagonalSolverTest {
 
   }
 
+  /**
+   * The solver without allocation gives the same results as the solver on the matrix, including in place and with longer arrays.
+   */
+  @Test
+  public void inPlace() {
+    final int n = 53;
+    final double[] a = new double[n + 2];
+    final double[] b = new double[n + 3];
+    final double[] c = new double[n + 2];
+    final double[] y = new double[n + 1];
+    for (int ii = 0; ii < n; ii++) {
+      b[ii] = 4.0 + RANDOM.nextRandom();
+      y[ii] = RANDOM.nextRandom();
+      if (ii < n - 1) {
+        a[ii] = RANDOM.nextRandom();
+        c[ii] = RANDOM.nextRandom();
+      }
+    }
+    final double[] expected = solvTriDag(new TridiagonalMatrix(Arrays.copyOf(b, n), Arrays.copyOf(a, n - 1),
+        Arrays.copyOf(c, n - 1)), Arrays.copyOf(y, n));
+    final double[] x = new double[n];
+    final double[] work = new double[n];
+    solvTriDag(c, b, a, y, x, work, n);
+    for (int i = 0; i < n; i++) {
+      assertEquals(expected[i], x[i], 0.0);
+    }
+    solvTriDag(c, b, a, y, y, work, n);
+    for (int i = 0; i < n; i++) {
+      assertEquals(expected[i], y[i], 0.0);
+    }
+  }
+
 }
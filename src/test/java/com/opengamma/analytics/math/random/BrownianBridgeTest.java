@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test.
+ */
+@Test
+public class BrownianBridgeTest {
+  private static final double[] TIMES = new double[] {0.1, 0.25, 0.5, 0.6, 1.0, 1.5, 2.0, 3.0, 5.0, 7.5, 10.0 };
+  private static final double TOLERANCE = 1.0E-12;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNotIncreasing() {
+    new BrownianBridge(new double[] {0.5, 0.5 });
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNotPositive() {
+    new BrownianBridge(new double[] {0.0, 0.5 });
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testShortNormals() {
+    new BrownianBridge(TIMES).path(new double[TIMES.length - 1]);
+  }
+
+  /**
+   * The path is linear in the normals; its covariance, computed from the images of the unit vectors, is min(t_i, t_j).
+   */
+  @Test
+  public void testCovariance() {
+    for (int size = 1; size <= TIMES.length; size++) {
+      final double[] times = new double[size];
+      System.arraycopy(TIMES, 0, times, 0, size);
+      final BrownianBridge bridge = new BrownianBridge(times);
+      assertEquals(size, bridge.getSize());
+      final double[][] a = new double[size][];
+      for (int k = 0; k < size; k++) {
+        final double[] unit = new double[size];
+        unit[k] = 1.0;
+        a[k] = bridge.path(unit);
+      }
+      for (int i = 0; i < size; i++) {
+        for (int j = 0; j < size; j++) {
+          double cov = 0.0;
+          for (int k = 0; k < size; k++) {
+            cov += a[k][i] * a[k][j];
+          }
+          assertEquals(Math.min(times[i], times[j]), cov, TOLERANCE);
+        }
+      }
+    }
+  }
+
+  /**
+   * The first normal drives the last value.
+   */
+  @Test
+  public void testLastValue() {
+    final double[] normals = new double[TIMES.length];
+    normals[0] = 1.0;
+    final double[] path = new BrownianBridge(TIMES).path(normals);
+    assertEquals(Math.sqrt(TIMES[TIMES.length - 1]), path[TIMES.length - 1], TOLERANCE);
+  }
+
+  /**
+   * The normal variable of each step gives the value at the time of the construction order, the values of the previous
+   * steps being unchanged.
+   */
+  @Test
+  public void testConstructionOrder() {
+    final int[] order = BrownianBridge.constructionOrder(TIMES.length);
+    assertEquals(TIMES.length - 1, order[0]);
+    final BrownianBridge bridge = new BrownianBridge(TIMES);
+    for (int loopstep = 0; loopstep < TIMES.length; loopstep++) {
+      final double[] normals = new double[TIMES.length];
+      normals[loopstep] = 1.0;
+      final double[] path = bridge.path(normals);
+      for (int i = 0; i < loopstep; i++) {
+        assertEquals(0.0, path[order[i]], 0.0);
+      }
+      assertTrue(path[order[loopstep]] > 0.0);
+    }
+  }
+
+  @Test
+  public void testConstructionOrderBisection() {
+    final int[] order = BrownianBridge.constructionOrder(5);
+    final int[] expected = new int[] {4, 1, 0, 2, 3 };
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], order[i]);
+    }
+  }
+
+}
@@ -6,6 +6,7 @@
 package com.opengamma.analytics.math.random;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
 
 import java.util.List;
 
@@ -52,4 +53,23 @@ public class NormalRandomNumberGeneratorTest {
       assertEquals(d.length, 10);
     }
   }
+
+  @Test
+  public void fill() {
+    final NormalRandomNumberGenerator vectors = new NormalRandomNumberGenerator(1, 2, new MersenneTwister64(12345));
+    final NormalRandomNumberGenerator buffers = new NormalRandomNumberGenerator(1, 2, new MersenneTwister64(12345));
+    final double[][] buffer = new double[3][10];
+    buffers.fill(buffer, 7);
+    for (int i = 0; i < 3; i++) {
+      final double[] expected = vectors.getVector(7);
+      for (int j = 0; j < 7; j++) {
+        assertEquals(expected[j], buffer[i][j], 0);
+      }
+      assertEquals(0, buffer[i][7], 0);
+    }
+    final double[] row = new double[5];
+    buffers.fill(row, 1, 3);
+    final double[] expected = vectors.getVector(3);
+    assertArrayEquals(new double[] {0, expected[0], expected[1], expected[2], 0 }, row, 0);
+  }
 }
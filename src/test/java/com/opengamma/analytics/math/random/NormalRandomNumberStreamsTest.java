@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test.
+ */
+@Test
+public class NormalRandomNumberStreamsTest {
+  private static final NormalRandomNumberStreams STREAMS = new NormalRandomNumberStreams(12345L);
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadSigma() {
+    new NormalRandomNumberStreams(0, -1, 12345L);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadIndex() {
+    STREAMS.getStream(-1);
+  }
+
+  @Test
+  public void testReproducible() {
+    for (int i = 0; i < 10; i++) {
+      assertArrayEquals(STREAMS.getStream(i).getVector(100), new NormalRandomNumberStreams(12345L).getStream(i).getVector(100), 0);
+    }
+  }
+
+  @Test
+  public void testDistinct() {
+    for (int i = 0; i < 100; i++) {
+      assertFalse(NormalRandomNumberStreams.streamSeed(12345L, i) == NormalRandomNumberStreams.streamSeed(12345L, i + 1));
+      assertFalse(NormalRandomNumberStreams.streamSeed(12345L, i) == NormalRandomNumberStreams.streamSeed(12346L, i));
+    }
+    assertFalse(STREAMS.getStream(0).getVector(1)[0] == STREAMS.getStream(1).getVector(1)[0]);
+  }
+
+  @Test
+  public void testMoments() {
+    final int n = 100000;
+    final double[] x = new NormalRandomNumberStreams(1.0, 2.0, 12345L).getStream(3).getVector(n);
+    double sum = 0;
+    double sum2 = 0;
+    for (final double d : x) {
+      sum += d;
+      sum2 += d * d;
+    }
+    final double mean = sum / n;
+    assertEquals(1.0, mean, 0.05);
+    assertEquals(4.0, sum2 / n - mean * mean, 0.1);
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
+
+import org.apache.commons.math3.random.SobolSequenceGenerator;
+import org.testng.annotations.Test;
+
+import cern.jet.stat.Probability;
+
+/**
+ * Test.
+ */
+@Test
+public class SobolRandomNumberGeneratorTest {
+  private static final int DIMENSION = 50;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadDimension() {
+    new SobolRandomNumberGenerator(1001);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testVectorTooLarge() {
+    new SobolRandomNumberGenerator(DIMENSION).getVector(DIMENSION + 1);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBadStreamLength() {
+    new SobolRandomNumberStreams(DIMENSION, 0);
+  }
+
+  @Test
+  public void testCommons() {
+    final SobolSequenceGenerator commons = new SobolSequenceGenerator(DIMENSION);
+    commons.nextVector(); // origin
+    final SobolRandomNumberGenerator sobol = new SobolRandomNumberGenerator(DIMENSION);
+    for (int i = 0; i < 1000; i++) {
+      assertArrayEquals(commons.nextVector(), sobol.getUniformVector(DIMENSION), 0);
+    }
+    final double[] expected = commons.skipTo(12345);
+    sobol.skipTo(12345);
+    assertArrayEquals(expected, sobol.getUniformVector(DIMENSION), 0);
+    assertEquals(12346, sobol.getNextIndex());
+  }
+
+  @Test
+  public void testNormal() {
+    final SobolRandomNumberGenerator uniform = new SobolRandomNumberGenerator(DIMENSION);
+    final SobolRandomNumberGenerator normal = new SobolRandomNumberGenerator(DIMENSION);
+    for (int i = 0; i < 100; i++) {
+      final double[] u = uniform.getUniformVector(DIMENSION);
+      final double[] z = normal.getVector(10);
+      for (int j = 0; j < 10; j++) {
+        assertEquals(Probability.normalInverse(u[j]), z[j], 0);
+      }
+    }
+  }
+
+  @Test
+  public void testMoments() {
+    final int n = (1 << 14) - 1;
+    final double[] sum = new double[DIMENSION];
+    final double[] sum2 = new double[DIMENSION];
+    for (final double[] z : new SobolRandomNumberGenerator(DIMENSION).getVectors(DIMENSION, n)) {
+      for (int j = 0; j < DIMENSION; j++) {
+        sum[j] += z[j];
+        sum2[j] += z[j] * z[j];
+      }
+    }
+    for (int j = 0; j < DIMENSION; j++) {
+      assertEquals(0.0, sum[j] / n, 1.0E-3);
+      assertEquals(1.0, sum2[j] / n, 1.0E-2);
+    }
+  }
+
+  @Test
+  public void testScrambled() {
+    final SobolRandomNumberGenerator sobol = new SobolRandomNumberGenerator(DIMENSION);
+    final SobolRandomNumberGenerator scrambled = new SobolRandomNumberGenerator(DIMENSION, 1234L);
+    final SobolRandomNumberGenerator scrambled2 = new SobolRandomNumberGenerator(SobolDirectionNumbers.getDefault(), DIMENSION, 1234L);
+    for (int i = 0; i < 100; i++) {
+      final double[] u = sobol.getUniformVector(DIMENSION);
+      final double[] v = scrambled.getUniformVector(DIMENSION);
+      assertArrayEquals(v, scrambled2.getUniformVector(DIMENSION), 0);
+      assertFalse(u[0] == v[0]);
+      for (int j = 0; j < DIMENSION; j++) {
+        assertTrue(v[j] >= 0 && v[j] < 1);
+      }
+    }
+  }
+
+  @Test
+  public void testStreams() {
+    final int length = 100;
+    final SobolRandomNumberStreams streams = new SobolRandomNumberStreams(DIMENSION, length, 1234L);
+    final SobolRandomNumberGenerator sequence = new SobolRandomNumberGenerator(DIMENSION, 1234L);
+    for (int loopstream = 0; loopstream < 5; loopstream++) {
+      final SobolRandomNumberGenerator stream = streams.getStream(loopstream);
+      for (int i = 0; i < length; i++) {
+        assertArrayEquals(sequence.getVector(DIMENSION), stream.getVector(DIMENSION), 0);
+      }
+    }
+  }
+
+  @Test
+  public void testDirectionNumbers() {
+    assertEquals(1000, SobolDirectionNumbers.getDefault().getMaxDimension());
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.math.random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
+
+import java.util.List;
+
+import cern.jet.random.engine.MersenneTwister64;
+import org.testng.annotations.Test;
+
+import com.opengamma.analytics.math.statistics.distribution.NormalDistribution;
+
+/**
+ * Tests the ziggurat normal generator.
+ */
+@Test
+public class ZigguratNormalRandomNumberGeneratorTest {
+
+  private static final int SEED = 12345;
+  private static final int NB_SAMPLE = 1000000;
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void negativeSigma() {
+    new ZigguratNormalRandomNumberGenerator(0, -1, new MersenneTwister64(SEED));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void nullEngine() {
+    new ZigguratNormalRandomNumberGenerator(0, 1, null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void badDimension() {
+    new ZigguratNormalRandomNumberGenerator(0, 1, new MersenneTwister64(SEED)).getVectors(-1, 4);
+  }
+
+  @Test
+  public void reproducible() {
+    final ZigguratNormalRandomNumberGenerator generator1 = new ZigguratNormalRandomNumberGenerator(0, 1, new MersenneTwister64(SEED));
+    final ZigguratNormalRandomNumberGenerator generator2 = new ZigguratNormalRandomNumberGenerator(0, 1, new MersenneTwister64(SEED));
+    assertArrayEquals("Ziggurat: reproducible", generator1.getVector(100), generator2.getVector(100), 0);
+    final List<double[]> vectors = generator1.getVectors(5, 3);
+    assertEquals("Ziggurat: vectors", 3, vectors.size());
+    for (final double[] vector : vectors) {
+      assertArrayEquals("Ziggurat: vectors", vector, generator2.getVector(5), 0);
+    }
+  }
+
+  @Test
+  public void fill() {
+    final ZigguratNormalRandomNumberGenerator vectors = new ZigguratNormalRandomNumberGenerator(0, 1, new MersenneTwister64(SEED));
+    final ZigguratNormalRandomNumberGenerator buffers = new ZigguratNormalRandomNumberGenerator(0, 1, new MersenneTwister64(SEED));
+    final double[][] buffer = new double[4][20];
+    buffers.fill(buffer, 20);
+    for (int i = 0; i < 4; i++) {
+      assertArrayEquals("Ziggurat: fill", vectors.getVector(20), buffer[i], 0);
+    }
+  }
+
+  @Test
+  public void moments() {
+    final double mean = 0.5;
+    final double sigma = 2.0;
+    final ZigguratNormalRandomNumberGenerator generator = new ZigguratNormalRandomNumberGenerator(mean, sigma, new MersenneTwister64(SEED));
+    final double[] sample = new double[NB_SAMPLE];
+    generator.fill(sample, 0, NB_SAMPLE);
+    double sum = 0;
+    double sum2 = 0;
+    double sum4 = 0;
+    int nbTail = 0;
+    for (final double x : sample) {
+      final double z = (x - mean) / sigma;
+      sum += z;
+      sum2 += z * z;
+      sum4 += z * z * z * z;
+      if (z < -2.0) {
+        nbTail++;
+      }
+    }
+    // Tolerances of about 4 standard errors.
+    assertEquals("Ziggurat: mean", 0.0, sum / NB_SAMPLE, 4.0E-3);
+    assertEquals("Ziggurat: variance", 1.0, sum2 / NB_SAMPLE, 6.0E-3);
+    assertEquals("Ziggurat: kurtosis", 3.0, sum4 / NB_SAMPLE, 4.0E-2);
+    final double tail = new NormalDistribution(0, 1).getCDF(-2.0);
+    assertEquals("Ziggurat: tail", tail, nbTail / (double) NB_SAMPLE, 6.0E-4);
+  }
+
+}
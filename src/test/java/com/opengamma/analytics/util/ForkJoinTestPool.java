@@ -0,0 +1,26 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.util;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The fork-join pool shared by the tests of the concurrent computations.
+ * <p>
+ * The parallelism is fixed, so that the work is split in the same way on all the machines. The pool lives as long as the
+ * test JVM and is never shut down; its worker threads are daemon threads and do not keep the JVM alive.
+ */
+public final class ForkJoinTestPool {
+
+  /**
+   * The pool, with a parallelism of 4.
+   */
+  public static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  private ForkJoinTestPool() {
+  }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.analytics.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test.
+ */
+@Test
+public class ForkJoinUtilsTest {
+
+  public void sequential() {
+    final List<Integer> indices = new ArrayList<>();
+    ForkJoinUtils.forEachIndex(null, 5, indices::add);
+    assertThat(indices).containsExactly(0, 1, 2, 3, 4);
+  }
+
+  public void parallel() {
+    final int count = 1000;
+    final AtomicIntegerArray calls = new AtomicIntegerArray(count);
+    ForkJoinUtils.forEachIndex(ForkJoinTestPool.POOL, count, calls::incrementAndGet);
+    for (int loopindex = 0; loopindex < count; loopindex++) {
+      assertThat(calls.get(loopindex)).isEqualTo(1);
+    }
+  }
+
+  public void noIndex() {
+    ForkJoinUtils.forEachIndex(ForkJoinTestPool.POOL, 0, index -> {
+      throw new IllegalStateException("Not expected");
+    });
+  }
+
+  public void exceptionUnwrapped() {
+    assertThatThrownBy(() -> ForkJoinUtils.forEachIndex(ForkJoinTestPool.POOL, 100, index -> {
+      if (index == 57) {
+        throw new IllegalArgumentException("Index 57");
+      }
+    })).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Index 57");
+  }
+
+  public void bufferedSequential() {
+    final List<Integer> indices = new ArrayList<>();
+    final Map<AtomicBoolean, Boolean> buffers = new IdentityHashMap<>();
+    ForkJoinUtils.forEachIndex(null, 5, AtomicBoolean::new, (index, buffer) -> {
+      indices.add(index);
+      buffers.put(buffer, true);
+    });
+    assertThat(indices).containsExactly(0, 1, 2, 3, 4);
+    assertThat(buffers).hasSize(1);
+  }
+
+  public void bufferedParallel() {
+    final int count = 1000;
+    final AtomicIntegerArray calls = new AtomicIntegerArray(count);
+    final AtomicBoolean shared = new AtomicBoolean();
+    ForkJoinUtils.forEachIndex(ForkJoinTestPool.POOL, count, AtomicBoolean::new, (index, buffer) -> {
+      if (!buffer.compareAndSet(false, true)) {
+        shared.set(true);
+      }
+      calls.incrementAndGet(index);
+      buffer.set(false);
+    });
+    assertThat(shared.get()).isFalse();
+    for (int loopindex = 0; loopindex < count; loopindex++) {
+      assertThat(calls.get(loopindex)).isEqualTo(1);
+    }
+  }
+
+}